@@ -241,6 +241,48 @@ public class NettyShuffleEnvironmentOptions {
                                     // this raw value must be changed correspondingly
                                     "taskmanager.memory.framework.off-heap.batch-shuffle.size"));
 
+    /**
+     * Whether sort-merge blocking result partitions merge the data of successive spills in the
+     * write buffers before writing it to the result file.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+    public static final ConfigOption<Boolean> NETWORK_SORT_SHUFFLE_MERGE_REGIONS =
+            key("taskmanager.network.sort-shuffle.merge-regions.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether sort-merge blocking result partitions keep the sorted data of "
+                                    + "successive spills in the write buffers and merge it into "
+                                    + "one data region of the result file until the write buffers "
+                                    + "are full. This reduces the number of small data regions "
+                                    + "which are otherwise produced by frequent flushes and thus "
+                                    + "the number of random reads of the downstream tasks.");
+
+    /**
+     * Size of heap memory per TaskManager which can be used to keep finished sort-merge blocking
+     * result partitions in memory.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+    public static final ConfigOption<MemorySize> NETWORK_SORT_SHUFFLE_IN_MEMORY_SIZE =
+            key("taskmanager.network.sort-shuffle.in-memory-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.ZERO)
+                    .withDescription(
+                            String.format(
+                                    "Size of the JVM heap memory per TaskManager which can be used "
+                                            + "to keep finished sort-merge blocking result "
+                                            + "partitions in memory until they are released. A "
+                                            + "partition is only kept in memory if all its data "
+                                            + "fits in the write buffers and the memory is "
+                                            + "available, otherwise it is written to disk as "
+                                            + "usual. A positive value implies '%s'. This memory "
+                                            + "is not part of the TaskManager memory model: it is "
+                                            + "neither network nor managed memory and is not "
+                                            + "deducted from any configured heap size. Increase "
+                                            + "'taskmanager.memory.framework.heap.size' by the "
+                                            + "same amount so that the JVM heap can hold it.",
+                                    NETWORK_SORT_SHUFFLE_MERGE_REGIONS.key()));
+
     /** Number of max buffers can be used for each output subparition. */
     @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
     public static final ConfigOption<Integer> NETWORK_MAX_BUFFERS_PER_CHANNEL =
@@ -254,6 +296,22 @@ public class NettyShuffleEnvironmentOptions {
                                     + " and can be ignored by things like flatMap operators, records spanning multiple buffers or single timer"
                                     + " producing large amount of data.");
 
+    /**
+     * Capacity of the lock-free ring used to hand finished buffers over to co-located consumers.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+    public static final ConfigOption<Integer> NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY =
+            key("taskmanager.network.local-buffer-handoff.capacity")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "Number of finished buffers a pipelined subpartition can hand over to a consumer"
+                                    + " running in the same TaskManager through a single-producer/single-consumer"
+                                    + " lock-free ring, instead of handing out every buffer under the subpartition lock."
+                                    + " The value is rounded up to the next power of two. Priority events (e.g. unaligned"
+                                    + " checkpoint barriers) take back all buffers which were not consumed yet, so"
+                                    + " in-flight data is persisted as before. The value 0 disables the hand-over.");
+
     /** The timeout for requesting exclusive buffers for each channel. */
     @Documentation.ExcludeFromDocumentation(
             "This option is purely implementation related, and may be removed as the implementation changes.")
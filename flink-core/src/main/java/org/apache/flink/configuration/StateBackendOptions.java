@@ -62,6 +62,33 @@ public class StateBackendOptions {
                                     .text("Recognized shortcut names are 'hashmap' and 'rocksdb'.")
                                     .build());
 
+    // ------------------------------------------------------------------------
+    //  hashmap state backend options
+    // ------------------------------------------------------------------------
+
+    public static final ConfigOption<Boolean> HASHMAP_OFF_HEAP_ENABLED =
+            ConfigOptions.key("state.backend.hashmap.off-heap.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the 'hashmap' state backend keeps value, reducing and aggregating states "
+                                    + "in serialized form in off-heap memory instead of as objects on the JVM heap. "
+                                    + "The off-heap memory is taken from the managed memory of the slot. "
+                                    + "This reduces garbage collection pressure for large states at the cost of "
+                                    + "serialization on every access. Keys and namespaces must have a deterministic "
+                                    + "binary representation. List and map states are always kept on the heap.");
+
+    public static final ConfigOption<MemorySize> HASHMAP_OFF_HEAP_CHUNK_SIZE =
+            ConfigOptions.key("state.backend.hashmap.off-heap.chunk-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("1mb"))
+                    .withDescription(
+                            String.format(
+                                    "The size of the memory chunks that are allocated for the off-heap state "
+                                            + "once '%s' is enabled. Must be a power of two. Entries that are "
+                                            + "larger than a chunk are allocated individually.",
+                                    HASHMAP_OFF_HEAP_ENABLED.key()));
+
     @Documentation.Section(Documentation.Sections.STATE_BACKEND_LATENCY_TRACKING)
     public static final ConfigOption<Boolean> LATENCY_TRACK_ENABLED =
             ConfigOptions.key("state.backend.latency-track.keyed-state-enabled")
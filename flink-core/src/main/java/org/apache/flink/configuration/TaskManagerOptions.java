@@ -567,6 +567,18 @@ public class TaskManagerOptions {
                             "The switch of the automatic buffered debloating feature. "
                                     + "If enabled the amount of in-flight data will be adjusted automatically accordingly to the measured throughput.");
 
+    /** Whether the buffer size is debloated for every input channel individually. */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+    public static final ConfigOption<Boolean> BUFFER_DEBLOAT_PER_CHANNEL =
+            ConfigOptions.key("taskmanager.network.memory.buffer-debloat.per-channel")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "If enabled, the buffer size is calculated and announced for every input channel individually, "
+                                    + "based on the throughput of that channel, instead of once for the whole input gate. "
+                                    + "In case of data skew this keeps large buffers on the channels with high throughput, "
+                                    + "while the channels with low throughput get small buffers.");
+
     /**
      * Difference between the new and the old buffer size for applying the new value(in percent).
      */
@@ -579,6 +591,18 @@ public class TaskManagerOptions {
                             "The minimum difference in percentage between the newly calculated buffer size and the old one to announce the new value. "
                                     + "Can be used to avoid constant back and forth small adjustments.");
 
+    /** Whether all complete records of a network buffer are emitted at once. */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+    public static final ConfigOption<Boolean> BATCHED_DESERIALIZATION_ENABLED =
+            ConfigOptions.key("taskmanager.network.batched-deserialization.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "If enabled, tasks with a single network input deserialize all complete records of a received buffer "
+                                    + "and pass them to the operator chain in one go, instead of returning to the mailbox after every record. "
+                                    + "Mails, such as timers, and back pressure of the outputs are then only handled at buffer boundaries, "
+                                    + "which may delay them by the time it takes to process one buffer.");
+
     /**
      * Size of direct memory used by blocking shuffle for shuffle data read (currently only used by
      * sort-merge shuffle).
@@ -699,6 +723,22 @@ public class TaskManagerOptions {
                             "Time we wait for the timers in milliseconds to finish all pending timer threads"
                                     + " when the stream task is cancelled.");
 
+    /**
+     * Whether stream tasks use a lock-free mailbox, which reduces the contention between the task
+     * thread and threads that send mails, such as timer and async I/O threads.
+     */
+    @Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER)
+    public static final ConfigOption<Boolean> TASK_MAILBOX_LOCK_FREE =
+            key("taskmanager.mailbox.lock-free")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether stream tasks use a lock-free mailbox. Threads that hand work to"
+                                    + " the task thread, such as processing time timers and async I/O"
+                                    + " callbacks, then enqueue without contending on a lock with the"
+                                    + " task thread, which helps tasks with high rates of timers or"
+                                    + " asynchronous results.");
+
     // ------------------------------------------------------------------------
 
     /** Not intended to be instantiated. */
@@ -88,6 +88,9 @@ public class ConfigOptionsDocGenerator {
                 new OptionsClassLocation(
                         "flink-state-backends/flink-statebackend-rocksdb",
                         "org.apache.flink.contrib.streaming.state"),
+                new OptionsClassLocation(
+                        "flink-state-backends/flink-statebackend-heap-spillable",
+                        "org.apache.flink.runtime.state.heap"),
                 new OptionsClassLocation(
                         "flink-table/flink-table-api-java", "org.apache.flink.table.api.config"),
                 new OptionsClassLocation("flink-python", "org.apache.flink.python"),
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network;
+
+import org.apache.flink.runtime.io.network.partition.ResultPartition;
+import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
+import org.apache.flink.runtime.shuffle.RemoteShuffleMaster;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
+import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
+import org.apache.flink.runtime.shuffle.ShuffleEnvironmentContext;
+import org.apache.flink.runtime.shuffle.ShuffleMasterContext;
+import org.apache.flink.runtime.shuffle.ShuffleServiceFactory;
+
+/**
+ * Shuffle service implementation which stores blocking result partitions on a remote file system
+ * instead of the producing task executors.
+ *
+ * <p>Blocking partitions are written in the format of the sort-merge shuffle, uploaded to the
+ * remote storage when the producer finishes and read by the consumers directly from there. All
+ * other partitions are exchanged through Netty like in {@link NettyShuffleServiceFactory}. Since
+ * the {@link RemoteStorageShuffleDescriptor descriptors} of the stored partitions do not occupy
+ * local resources, task executors do not have to be kept alive for serving finished partitions and
+ * the loss of a task executor does not require the re-computation of its stored partitions.
+ */
+public class RemoteShuffleServiceFactory
+        implements ShuffleServiceFactory<ShuffleDescriptor, ResultPartition, SingleInputGate> {
+
+    private final NettyShuffleServiceFactory nettyShuffleServiceFactory =
+            new NettyShuffleServiceFactory();
+
+    @Override
+    public RemoteShuffleMaster createShuffleMaster(ShuffleMasterContext shuffleMasterContext) {
+        return new RemoteShuffleMaster(shuffleMasterContext.getConfiguration());
+    }
+
+    @Override
+    public NettyShuffleEnvironment createShuffleEnvironment(
+            ShuffleEnvironmentContext shuffleEnvironmentContext) {
+        // the Netty environment creates the remote storage partitions and input channels for the
+        // corresponding shuffle descriptors
+        return nettyShuffleServiceFactory.createShuffleEnvironment(shuffleEnvironmentContext);
+    }
+}
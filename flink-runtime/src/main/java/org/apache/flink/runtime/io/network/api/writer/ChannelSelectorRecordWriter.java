@@ -19,6 +19,8 @@
 package org.apache.flink.runtime.io.network.api.writer;
 
 import org.apache.flink.core.io.IOReadableWritable;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.runtime.metrics.groups.TaskIOMetricGroup;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -47,6 +49,9 @@ public final class ChannelSelectorRecordWriter<T extends IOReadableWritable>
 
         this.channelSelector = checkNotNull(channelSelector);
         this.channelSelector.setup(numberOfChannels);
+        if (channelSelector instanceof LoadAwareChannelSelector) {
+            ((LoadAwareChannelSelector<T>) channelSelector).setPartitionWriter(writer);
+        }
     }
 
     @Override
@@ -54,6 +59,24 @@ public final class ChannelSelectorRecordWriter<T extends IOReadableWritable>
         emit(record, channelSelector.selectChannel(record));
     }
 
+    @Override
+    public void setMetricGroup(TaskIOMetricGroup metrics) {
+        super.setMetricGroup(metrics);
+
+        if (channelSelector instanceof LoadAwareChannelSelector) {
+            LoadAwareChannelSelector<T> loadAwareChannelSelector =
+                    (LoadAwareChannelSelector<T>) channelSelector;
+            metrics.addGroup(
+                            "loadAwarePartitioning",
+                            targetPartition
+                                    .getPartitionId()
+                                    .getPartitionId()
+                                    .getIntermediateDataSetID()
+                                    .toString())
+                    .gauge("channelSkew", (Gauge<Double>) loadAwareChannelSelector::getChannelSkew);
+        }
+    }
+
     @Override
     public void broadcastEmit(T record) throws IOException {
         checkErroneous();
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.core.io.IOReadableWritable;
+
+/**
+ * A {@link ChannelSelector} which takes the load of the output subpartitions into account when
+ * selecting the channel of a record, for example to route records around slow consumers.
+ *
+ * @param <T> the type of record which is sent through the attached output gate
+ */
+public interface LoadAwareChannelSelector<T extends IOReadableWritable> extends ChannelSelector<T> {
+
+    /**
+     * Sets the writer of the result partition whose subpartitions are selected. The writer can be
+     * queried for the load of the subpartitions, see {@link
+     * ResultPartitionWriter#getNumberOfQueuedBuffers(int)}. It is called once after {@link
+     * #setup(int)}.
+     */
+    void setPartitionWriter(ResultPartitionWriter partitionWriter);
+
+    /**
+     * Returns the ratio of the maximum number of records sent to a single channel to the average
+     * number of records sent per channel, where 1 means that the records are perfectly balanced.
+     */
+    double getChannelSkew();
+}
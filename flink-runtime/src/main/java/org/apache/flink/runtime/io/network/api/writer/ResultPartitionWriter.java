@@ -52,6 +52,12 @@ public interface ResultPartitionWriter extends AutoCloseable, AvailabilityProvid
 
     int getNumTargetKeyGroups();
 
+    /**
+     * Returns the number of buffers queued in the target subpartition which have not been consumed
+     * yet. The number may be read without synchronization, so it is only an estimate.
+     */
+    int getNumberOfQueuedBuffers(int targetSubpartition);
+
     /** Writes the given serialized record to the target subpartition. */
     void emitRecord(ByteBuffer record, int targetSubpartition) throws IOException;
 
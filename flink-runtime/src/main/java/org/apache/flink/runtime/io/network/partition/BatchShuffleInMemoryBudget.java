@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Budget of heap memory shared by all {@link SortMergeResultPartition}s of a TaskManager, which is
+ * used to keep finished partitions in memory instead of writing them to disk. Partitions which can
+ * not reserve enough memory are written to disk as usual.
+ *
+ * <p>The budget only bounds the usage, the memory itself is allocated on the JVM heap and is not
+ * accounted for by the TaskManager memory model, see {@link
+ * org.apache.flink.configuration.NettyShuffleEnvironmentOptions#NETWORK_SORT_SHUFFLE_IN_MEMORY_SIZE}.
+ */
+@ThreadSafe
+public class BatchShuffleInMemoryBudget {
+
+    /** Total size of memory in bytes which can be reserved. */
+    private final long totalBytes;
+
+    /** Size of memory in bytes which is reserved currently. */
+    @GuardedBy("this")
+    private long reservedBytes;
+
+    public BatchShuffleInMemoryBudget(long totalBytes) {
+        checkArgument(totalBytes >= 0, "Total memory size must not be negative.");
+        this.totalBytes = totalBytes;
+    }
+
+    /** Whether any memory can be reserved from this budget at all. */
+    public boolean isEnabled() {
+        return totalBytes > 0;
+    }
+
+    /**
+     * Tries to reserve the given size of memory.
+     *
+     * @return <tt>true</tt> if the memory is reserved and must be released via {@link
+     *     #release(long)} later, <tt>false</tt> if there is not enough memory left.
+     */
+    public synchronized boolean tryReserve(long numBytes) {
+        checkArgument(numBytes >= 0, "Memory size must not be negative.");
+        if (totalBytes - reservedBytes < numBytes) {
+            return false;
+        }
+        reservedBytes += numBytes;
+        return true;
+    }
+
+    /** Releases the given size of memory which was reserved before. */
+    public synchronized void release(long numBytes) {
+        checkState(numBytes <= reservedBytes, "Releasing more memory than reserved.");
+        reservedBytes -= numBytes;
+    }
+
+    @VisibleForTesting
+    public synchronized long getAvailableBytes() {
+        return totalBytes - reservedBytes;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.util.MathUtils;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A bounded single-producer/single-consumer ring which hands elements from the producer over to the
+ * consumer without any lock.
+ *
+ * <p>The producer side ({@link #offer(Object, int)} and {@link #reclaimAll(Consumer)}) must be
+ * driven by one thread at a time, e.g. by only calling it while holding a lock. The consumer side
+ * ({@link #poll()}) must only be called by a single thread. Every element carries the sequence
+ * number it was offered with, which is available via {@link #getLastPolledSequenceNumber()} after
+ * polling it.
+ *
+ * <p>The producer may take back all elements which have not been polled yet via {@link
+ * #reclaimAll(Consumer)}. Polling and reclaiming race on the read index, so every element is either
+ * returned by {@link #poll()} or passed to the reclaiming consumer, but never both.
+ *
+ * @param <T> the element type.
+ */
+final class BufferHandoffRing<T> {
+
+    private final Object[] elements;
+
+    private final int[] sequenceNumbers;
+
+    private final int mask;
+
+    /** Index of the next element to poll. Advanced by the consumer and by reclaims. */
+    private final AtomicLong readIndex = new AtomicLong();
+
+    /** Index of the next element to offer. Only written by the producer. */
+    private volatile long writeIndex;
+
+    /** Sequence number of the last polled element. Only accessed by the consumer. */
+    private int lastPolledSequenceNumber;
+
+    BufferHandoffRing(int capacity) {
+        checkArgument(capacity > 0, "Capacity must be positive.");
+        int size = MathUtils.roundUpToPowerOfTwo(capacity);
+        this.elements = new Object[size];
+        this.sequenceNumbers = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Offers an element to the consumer.
+     *
+     * @return <tt>false</tt> if the ring is full and the element was not added.
+     */
+    boolean offer(T element, int sequenceNumber) {
+        final long write = writeIndex;
+        if (write - readIndex.get() > mask) {
+            return false;
+        }
+
+        final int slot = (int) write & mask;
+        elements[slot] = element;
+        sequenceNumbers[slot] = sequenceNumber;
+        // publishes the slot to the consumer
+        writeIndex = write + 1;
+        return true;
+    }
+
+    /** Polls the oldest element or returns <tt>null</tt> if there is none. */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    T poll() {
+        while (true) {
+            final long read = readIndex.get();
+            if (read >= writeIndex) {
+                return null;
+            }
+
+            // the slot cannot be overwritten before the read index moved past it
+            final int slot = (int) read & mask;
+            final T element = (T) elements[slot];
+            final int sequenceNumber = sequenceNumbers[slot];
+            if (readIndex.compareAndSet(read, read + 1)) {
+                lastPolledSequenceNumber = sequenceNumber;
+                return element;
+            }
+        }
+    }
+
+    int getLastPolledSequenceNumber() {
+        return lastPolledSequenceNumber;
+    }
+
+    /**
+     * Takes back all elements which have not been polled yet and passes them to the given consumer
+     * in the order they were offered.
+     *
+     * @return the number of reclaimed elements.
+     */
+    @SuppressWarnings("unchecked")
+    int reclaimAll(Consumer<T> consumer) {
+        final long write = writeIndex;
+        long read;
+        do {
+            read = readIndex.get();
+            if (read == write) {
+                return 0;
+            }
+        } while (!readIndex.compareAndSet(read, write));
+
+        for (long index = read; index < write; index++) {
+            final int slot = (int) index & mask;
+            consumer.accept((T) elements[slot]);
+            elements[slot] = null;
+        }
+        return (int) (write - read);
+    }
+
+    boolean isEmpty() {
+        return readIndex.get() >= writeIndex;
+    }
+
+    /** Returns the number of elements which have not been polled yet. */
+    int size() {
+        return (int) Math.max(writeIndex - readIndex.get(), 0);
+    }
+
+    int getCapacity() {
+        return elements.length;
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
 
 import javax.annotation.Nullable;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
@@ -200,6 +201,45 @@ public final class BufferReaderWriterUtil {
         return new NetworkBuffer(memorySegment, bufferRecycler, dataType, isCompressed, size);
     }
 
+    // ------------------------------------------------------------------------
+    //  InputStream read
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads the next buffer from the given stream. Different from {@link
+     * #readFromByteChannel(FileChannel, ByteBuffer, MemorySegment, BufferRecycler)}, the caller
+     * must make sure that there is a buffer left in the stream.
+     */
+    static Buffer readFromInputStream(
+            DataInputStream inputStream,
+            ByteBuffer headerBuffer,
+            MemorySegment memorySegment,
+            BufferRecycler bufferRecycler)
+            throws IOException {
+
+        headerBuffer.clear();
+        inputStream.readFully(headerBuffer.array(), headerBuffer.arrayOffset(), HEADER_LENGTH);
+
+        final boolean isEvent = headerBuffer.getShort() == HEADER_VALUE_IS_EVENT;
+        final boolean isCompressed = headerBuffer.getShort() == BUFFER_IS_COMPRESSED;
+        final int size = headerBuffer.getInt();
+        if (size < 0 || size > memorySegment.size()) {
+            throwCorruptDataException();
+        }
+
+        memorySegment.put(inputStream, 0, size);
+
+        Buffer.DataType dataType =
+                isEvent ? Buffer.DataType.EVENT_BUFFER : Buffer.DataType.DATA_BUFFER;
+        return new NetworkBuffer(memorySegment, bufferRecycler, dataType, isCompressed, size);
+    }
+
+    static ByteBuffer allocatedHeapHeaderBuffer() {
+        ByteBuffer bb = ByteBuffer.allocate(HEADER_LENGTH);
+        configureByteBuffer(bb);
+        return bb;
+    }
+
     static ByteBuffer allocatedHeaderBuffer() {
         ByteBuffer bb = ByteBuffer.allocateDirect(HEADER_LENGTH);
         configureByteBuffer(bb);
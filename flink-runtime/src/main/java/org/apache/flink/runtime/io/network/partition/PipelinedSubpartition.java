@@ -30,6 +30,7 @@ import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumerWithPartialRecordLength;
 import org.apache.flink.runtime.io.network.logger.NetworkActionsLogger;
 import org.apache.flink.runtime.io.network.partition.consumer.EndOfChannelStateEvent;
+import org.apache.flink.runtime.io.network.partition.consumer.LocalInputChannel;
 
 import org.apache.flink.shaded.guava30.com.google.common.collect.Iterators;
 
@@ -65,6 +66,13 @@ import static org.apache.flink.util.Preconditions.checkState;
  * <p>Explicit calls to {@link #flush()} will force this {@link
  * PipelinedSubpartitionView#notifyDataAvailable() notification} for any {@link BufferConsumer}
  * present in the queue.
+ *
+ * <p>If the subpartition is consumed by a {@link LocalInputChannel} and a local buffer hand-over
+ * capacity is configured, finished data buffers are moved from the queue into a {@link
+ * BufferHandoffRing}, from which the consumer polls them without taking the lock on the queue.
+ * Events are never handed over, so blocking events and the alignment of checkpoint barriers are
+ * unaffected. Priority events take back all buffers which were not polled yet before they are
+ * added, such that they overtake them and the taken back buffers are persisted as in-flight data.
  */
 public class PipelinedSubpartition extends ResultSubpartition
         implements CheckpointedResultSubpartition, ChannelStateHolder {
@@ -79,6 +87,9 @@ public class PipelinedSubpartition extends ResultSubpartition
      */
     private final int receiverExclusiveBuffersPerChannel;
 
+    /** Capacity of the {@link #handoffRing}, 0 if buffers are never handed over. */
+    private final int localBufferHandoffCapacity;
+
     /** All buffers of this subpartition. Access to the buffers is synchronized on this object. */
     final PrioritizedDeque<BufferConsumerWithPartialRecordLength> buffers =
             new PrioritizedDeque<>();
@@ -90,6 +101,12 @@ public class PipelinedSubpartition extends ResultSubpartition
     /** The read view to consume this subpartition. */
     PipelinedSubpartitionView readView;
 
+    /**
+     * Finished data buffers handed over to a local consumer, which precede all buffers in {@link
+     * #buffers}. Only offered to and reclaimed from while holding the lock on {@link #buffers}.
+     */
+    @Nullable private BufferHandoffRing<BufferConsumerWithPartialRecordLength> handoffRing;
+
     /** Flag indicating whether the subpartition has been finished. */
     private boolean isFinished;
 
@@ -123,12 +140,24 @@ public class PipelinedSubpartition extends ResultSubpartition
 
     PipelinedSubpartition(
             int index, int receiverExclusiveBuffersPerChannel, ResultPartition parent) {
+        this(index, receiverExclusiveBuffersPerChannel, 0, parent);
+    }
+
+    PipelinedSubpartition(
+            int index,
+            int receiverExclusiveBuffersPerChannel,
+            int localBufferHandoffCapacity,
+            ResultPartition parent) {
         super(index, parent);
 
         checkArgument(
                 receiverExclusiveBuffersPerChannel >= 0,
                 "Buffers per channel must be non-negative.");
+        checkArgument(
+                localBufferHandoffCapacity >= 0,
+                "Local buffer hand-over capacity must be non-negative.");
         this.receiverExclusiveBuffersPerChannel = receiverExclusiveBuffersPerChannel;
+        this.localBufferHandoffCapacity = localBufferHandoffCapacity;
     }
 
     @Override
@@ -186,6 +215,7 @@ public class PipelinedSubpartition extends ResultSubpartition
             updateStatistics(bufferConsumer);
             increaseBuffersInBacklog(bufferConsumer);
             notifyDataAvailable = finish || shouldNotifyDataAvailable();
+            handOffFinishedBuffers();
 
             isFinished |= finish;
             newBufferSize = bufferSize;
@@ -211,6 +241,8 @@ public class PipelinedSubpartition extends ResultSubpartition
     }
 
     private boolean processPriorityBuffer(BufferConsumer bufferConsumer, int partialRecordLength) {
+        // the priority event has to overtake the buffers which were handed over but not polled yet
+        reclaimHandedOffBuffers();
         buffers.addPriorityElement(
                 new BufferConsumerWithPartialRecordLength(bufferConsumer, partialRecordLength));
         final int numPriorityElements = buffers.getNumPriorityElements();
@@ -274,6 +306,8 @@ public class PipelinedSubpartition extends ResultSubpartition
                 return;
             }
 
+            reclaimHandedOffBuffers();
+
             // Release all available buffers
             for (BufferConsumerWithPartialRecordLength buffer : buffers) {
                 buffer.getBufferConsumer().close();
@@ -296,11 +330,26 @@ public class PipelinedSubpartition extends ResultSubpartition
 
     @Nullable
     BufferAndBacklog pollBuffer() {
+        if (handoffRing != null) {
+            final BufferConsumerWithPartialRecordLength handedOff = handoffRing.poll();
+            if (handedOff != null) {
+                return pollHandedOffBuffer(handedOff);
+            }
+        }
+
         synchronized (buffers) {
             if (isBlocked) {
                 return null;
             }
 
+            if (handoffRing != null) {
+                // buffers might have been handed over after the ring was checked above
+                final BufferConsumerWithPartialRecordLength handedOff = handoffRing.poll();
+                if (handedOff != null) {
+                    return pollHandedOffBuffer(handedOff);
+                }
+            }
+
             Buffer buffer = null;
 
             if (buffers.isEmpty()) {
@@ -376,6 +425,84 @@ public class PipelinedSubpartition extends ResultSubpartition
         }
     }
 
+    private BufferAndBacklog pollHandedOffBuffer(BufferConsumerWithPartialRecordLength handedOff) {
+        final int handedOffSequenceNumber = handoffRing.getLastPolledSequenceNumber();
+        final Buffer buffer = buildSliceBuffer(handedOff);
+        handedOff.getBufferConsumer().close();
+
+        updateStatistics(buffer);
+        NetworkActionsLogger.traceOutput(
+                "PipelinedSubpartition#pollHandedOffBuffer",
+                buffer,
+                parent.getOwningTaskName(),
+                subpartitionInfo);
+
+        if (!handoffRing.isEmpty()) {
+            // the backlog of the queue is only approximated outside of the lock
+            return new BufferAndBacklog(
+                    buffer,
+                    handoffRing.size() + buffersInBacklog,
+                    Buffer.DataType.DATA_BUFFER,
+                    handedOffSequenceNumber);
+        }
+
+        synchronized (buffers) {
+            // the ring ran dry, so the availability needs to be checked against the queue
+            handOffFinishedBuffers();
+            return new BufferAndBacklog(
+                    buffer,
+                    getBuffersInBacklogUnsafe(),
+                    isDataAvailableUnsafe() ? getNextBufferTypeUnsafe() : Buffer.DataType.NONE,
+                    handedOffSequenceNumber);
+        }
+    }
+
+    /**
+     * Moves finished data buffers from the head of the queue into the {@link #handoffRing}. Stops
+     * at the first event, so that nothing is handed over behind a blocking or priority event.
+     */
+    @GuardedBy("buffers")
+    private void handOffFinishedBuffers() {
+        assert Thread.holdsLock(buffers);
+
+        if (handoffRing == null || isBlocked || buffers.getNumPriorityElements() > 0) {
+            return;
+        }
+
+        // only the last buffer of the queue may be unfinished
+        while (buffers.size() > 1) {
+            final BufferConsumerWithPartialRecordLength next = buffers.peek();
+            final BufferConsumer bufferConsumer = next.getBufferConsumer();
+            if (!bufferConsumer.isBuffer()
+                    || !bufferConsumer.isDataAvailable()
+                    || !handoffRing.offer(next, sequenceNumber)) {
+                return;
+            }
+            buffers.poll();
+            decreaseBuffersInBacklogUnsafe(true);
+            sequenceNumber++;
+        }
+    }
+
+    /** Takes back all buffers which were handed over but not polled yet. */
+    @GuardedBy("buffers")
+    private void reclaimHandedOffBuffers() {
+        assert Thread.holdsLock(buffers);
+
+        if (handoffRing == null || handoffRing.isEmpty()) {
+            return;
+        }
+
+        final List<BufferConsumerWithPartialRecordLength> reclaimed = new ArrayList<>();
+        handoffRing.reclaimAll(reclaimed::add);
+        for (int i = reclaimed.size() - 1; i >= 0; i--) {
+            buffers.addFirst(reclaimed.get(i));
+        }
+        // only data buffers are handed over, in the order of their sequence numbers
+        buffersInBacklog += reclaimed.size();
+        sequenceNumber -= reclaimed.size();
+    }
+
     void resumeConsumption() {
         synchronized (buffers) {
             checkState(isBlocked, "Should be blocked by checkpoint.");
@@ -411,6 +538,10 @@ public class PipelinedSubpartition extends ResultSubpartition
                     getSubPartitionIndex(),
                     parent.getPartitionId());
 
+            if (localBufferHandoffCapacity > 0
+                    && availabilityListener instanceof LocalInputChannel) {
+                handoffRing = new BufferHandoffRing<>(localBufferHandoffCapacity);
+            }
             readView = new PipelinedSubpartitionView(this, availabilityListener);
         }
 
@@ -435,12 +566,18 @@ public class PipelinedSubpartition extends ResultSubpartition
     private boolean isDataAvailableUnsafe() {
         assert Thread.holdsLock(buffers);
 
-        return !isBlocked && (flushRequested || getNumberOfFinishedBuffers() > 0);
+        return !isBlocked
+                && (getNumberOfHandedOffBuffers() > 0
+                        || flushRequested
+                        || getNumberOfFinishedBuffers() > 0);
     }
 
     private Buffer.DataType getNextBufferTypeUnsafe() {
         assert Thread.holdsLock(buffers);
 
+        if (getNumberOfHandedOffBuffers() > 0) {
+            return Buffer.DataType.DATA_BUFFER;
+        }
         final BufferConsumerWithPartialRecordLength first = buffers.peek();
         return first != null ? first.getBufferConsumer().getDataType() : Buffer.DataType.NONE;
     }
@@ -450,7 +587,7 @@ public class PipelinedSubpartition extends ResultSubpartition
     @Override
     public int getNumberOfQueuedBuffers() {
         synchronized (buffers) {
-            return buffers.size();
+            return buffers.size() + getNumberOfHandedOffBuffers();
         }
     }
 
@@ -494,7 +631,7 @@ public class PipelinedSubpartition extends ResultSubpartition
     @Override
     public int unsynchronizedGetNumberOfQueuedBuffers() {
         // since we do not synchronize, the size may actually be lower than 0!
-        return Math.max(buffers.size(), 0);
+        return Math.max(buffers.size(), 0) + getNumberOfHandedOffBuffers();
     }
 
     @Override
@@ -562,25 +699,34 @@ public class PipelinedSubpartition extends ResultSubpartition
     /** Gets the number of non-event buffers in this subpartition. */
     @Override
     public int getBuffersInBacklogUnsafe() {
+        final int numHandedOffBuffers = getNumberOfHandedOffBuffers();
         if (isBlocked || buffers.isEmpty()) {
-            return 0;
+            return numHandedOffBuffers;
         }
 
         if (flushRequested
                 || isFinished
                 || !checkNotNull(buffers.peekLast()).getBufferConsumer().isBuffer()) {
-            return buffersInBacklog;
+            return numHandedOffBuffers + buffersInBacklog;
         } else {
-            return Math.max(buffersInBacklog - 1, 0);
+            return numHandedOffBuffers + Math.max(buffersInBacklog - 1, 0);
         }
     }
 
+    private int getNumberOfHandedOffBuffers() {
+        final BufferHandoffRing<BufferConsumerWithPartialRecordLength> handoffRing =
+                this.handoffRing;
+        return handoffRing != null ? handoffRing.size() : 0;
+    }
+
     @GuardedBy("buffers")
     private boolean shouldNotifyDataAvailable() {
-        // Notify only when we added first finished buffer.
+        // Notify only when we added first finished buffer. As long as handed over buffers are
+        // left, the reader checks the queue again after polling the last one of them.
         return readView != null
                 && !flushRequested
                 && !isBlocked
+                && getNumberOfHandedOffBuffers() == 0
                 && getNumberOfFinishedBuffers() == 1;
     }
 
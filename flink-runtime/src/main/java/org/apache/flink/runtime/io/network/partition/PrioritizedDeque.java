@@ -87,6 +87,20 @@ public final class PrioritizedDeque<T> implements Iterable<T> {
         deque.add(element);
     }
 
+    /**
+     * Adds a non-priority element to the head of this deque, such that it will be polled first.
+     * Must not be called while this deque contains priority elements.
+     *
+     * @param element the element to add
+     */
+    public void addFirst(T element) {
+        if (numPriorityElements > 0) {
+            throw new IllegalStateException(
+                    "Cannot add a non-priority element before priority elements.");
+        }
+        deque.addFirst(element);
+    }
+
     /**
      * Convenience method for adding an element with optional priority and prior removal.
      *
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.util.IOUtils;
+
+import javax.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.apache.flink.util.Preconditions.checkElementIndex;
+
+/**
+ * Reader which can read all data of the target subpartition from a {@link PartitionedFile} stored
+ * on a {@link FileSystem}. Different from {@link PartitionedFileReader}, it reads through the input
+ * streams of the file system, so the data does not have to be located on a local disk.
+ */
+public class RemotePartitionedFileReader implements Closeable {
+
+    /** Used to read buffer headers from the data file. */
+    private final ByteBuffer headerBuf = BufferReaderWriterUtil.allocatedHeapHeaderBuffer();
+
+    /** Used to read index entries from the index file. */
+    private final ByteBuffer indexEntryBuf = ByteBuffer.allocate(PartitionedFile.INDEX_ENTRY_SIZE);
+
+    private final FSDataInputStream dataInputStream;
+
+    /** View of {@link #dataInputStream} used to read buffers, it does not buffer any data. */
+    private final DataInputStream dataInputView;
+
+    private final FSDataInputStream indexInputStream;
+
+    private final int numSubpartitions;
+
+    /** Target subpartition to read. */
+    private final int targetSubpartition;
+
+    /** Number of data regions in the target {@link PartitionedFile}. */
+    private final int numRegions;
+
+    /** Next data region to be read. */
+    private int nextRegionToRead;
+
+    /** Next file offset to be read. */
+    private long nextOffsetToRead;
+
+    /** Number of remaining buffers in the current data region read. */
+    private int currentRegionRemainingBuffers;
+
+    public RemotePartitionedFileReader(
+            Path dataFilePath, Path indexFilePath, int numSubpartitions, int targetSubpartition)
+            throws IOException {
+        checkElementIndex(targetSubpartition, numSubpartitions, "Subpartition index out of bound.");
+        BufferReaderWriterUtil.configureByteBuffer(indexEntryBuf);
+
+        this.numSubpartitions = numSubpartitions;
+        this.targetSubpartition = targetSubpartition;
+
+        FileSystem indexFileSystem = indexFilePath.getFileSystem();
+        long indexRegionSize = (long) numSubpartitions * PartitionedFile.INDEX_ENTRY_SIZE;
+        long indexFileSize = indexFileSystem.getFileStatus(indexFilePath).getLen();
+        if (indexFileSize % indexRegionSize != 0) {
+            throw new IOException("The index file is corrupt: " + indexFilePath);
+        }
+        this.numRegions = (int) (indexFileSize / indexRegionSize);
+
+        this.indexInputStream = indexFileSystem.open(indexFilePath);
+        try {
+            this.dataInputStream = dataFilePath.getFileSystem().open(dataFilePath);
+        } catch (Throwable throwable) {
+            IOUtils.closeQuietly(indexInputStream);
+            throw throwable;
+        }
+        this.dataInputView = new DataInputStream(dataInputStream);
+    }
+
+    private void moveToNextReadableRegion() throws IOException {
+        while (currentRegionRemainingBuffers <= 0 && nextRegionToRead < numRegions) {
+            indexInputStream.seek(
+                    (((long) nextRegionToRead) * numSubpartitions + targetSubpartition)
+                            * PartitionedFile.INDEX_ENTRY_SIZE);
+            indexEntryBuf.clear();
+            IOUtils.readFully(
+                    indexInputStream,
+                    indexEntryBuf.array(),
+                    indexEntryBuf.arrayOffset(),
+                    PartitionedFile.INDEX_ENTRY_SIZE);
+            nextOffsetToRead = indexEntryBuf.getLong();
+            currentRegionRemainingBuffers = indexEntryBuf.getInt();
+            ++nextRegionToRead;
+        }
+    }
+
+    /**
+     * Reads the next buffer of the target subpartition and moves the read position forward.
+     *
+     * <p>Note: The caller is responsible for recycling the target buffer if any exception occurs.
+     *
+     * @param target The target {@link MemorySegment} to read data to.
+     * @param recycler The {@link BufferRecycler} which is responsible to recycle the target buffer.
+     * @return A {@link Buffer} containing the data read or {@code null} if all data has been read.
+     */
+    @Nullable
+    public Buffer readNextBuffer(MemorySegment target, BufferRecycler recycler) throws IOException {
+        if (!hasRemaining()) {
+            return null;
+        }
+
+        // buffers of the same subpartition are stored consecutively in one region, so seeking is
+        // only necessary when moving to the next region
+        if (dataInputStream.getPos() != nextOffsetToRead) {
+            dataInputStream.seek(nextOffsetToRead);
+        }
+        Buffer buffer =
+                BufferReaderWriterUtil.readFromInputStream(
+                        dataInputView, headerBuf, target, recycler);
+        nextOffsetToRead = dataInputStream.getPos();
+        --currentRegionRemainingBuffers;
+        return buffer;
+    }
+
+    public boolean hasRemaining() throws IOException {
+        moveToNextReadableRegion();
+        return currentRegionRemainingBuffers > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            dataInputStream.close();
+        } finally {
+            indexInputStream.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.fs.FSDataOutputStream;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.io.disk.BatchShuffleReadBufferPool;
+import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferPool;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
+import org.apache.flink.util.function.SupplierWithException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Executor;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * {@link SortMergeResultPartition} which uploads the produced {@link PartitionedFile} to the remote
+ * storage described by a {@link RemoteStorageShuffleDescriptor} when finished.
+ *
+ * <p>Consumers read the uploaded data directly from the remote storage, so the partition releases
+ * itself from the {@link ResultPartitionManager} together with its local file when it is closed.
+ */
+public class RemoteStorageResultPartition extends SortMergeResultPartition {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteStorageResultPartition.class);
+
+    private final RemoteStorageShuffleDescriptor shuffleDescriptor;
+
+    public RemoteStorageResultPartition(
+            String owningTaskName,
+            int partitionIndex,
+            RemoteStorageShuffleDescriptor shuffleDescriptor,
+            ResultPartitionType partitionType,
+            int numTargetKeyGroups,
+            BatchShuffleReadBufferPool readBufferPool,
+            Executor readIOExecutor,
+            ResultPartitionManager partitionManager,
+            String resultFileBasePath,
+            @Nullable BufferCompressor bufferCompressor,
+            SupplierWithException<BufferPool, IOException> bufferPoolFactory,
+            boolean mergeRegions) {
+        super(
+                owningTaskName,
+                partitionIndex,
+                shuffleDescriptor.getResultPartitionID(),
+                partitionType,
+                shuffleDescriptor.getNumberOfSubpartitions(),
+                numTargetKeyGroups,
+                readBufferPool,
+                readIOExecutor,
+                partitionManager,
+                resultFileBasePath,
+                bufferCompressor,
+                bufferPoolFactory,
+                mergeRegions,
+                // the partition is always written to a file which can be uploaded
+                new BatchShuffleInMemoryBudget(0));
+
+        this.shuffleDescriptor = checkNotNull(shuffleDescriptor);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        super.finish();
+
+        PartitionedFile localFile = getResultFile();
+        checkState(localFile != null, "No partitioned file is produced.");
+
+        upload(localFile.getDataFilePath(), shuffleDescriptor.getDataFilePath());
+        // consumers derive the number of regions from the index file, so it is uploaded last
+        upload(localFile.getIndexFilePath(), shuffleDescriptor.getIndexFilePath());
+        LOG.info("Partitioned file {} uploaded to {}.", localFile, shuffleDescriptor);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+
+        // the data is served by the remote storage, so neither the local file nor the partition
+        // registration has to outlive the producer
+        partitionManager.releasePartition(getPartitionId(), null);
+    }
+
+    private static void upload(java.nio.file.Path source, Path target) throws IOException {
+        FileSystem fileSystem = target.getFileSystem();
+        try (FSDataOutputStream outputStream =
+                fileSystem.create(target, FileSystem.WriteMode.OVERWRITE)) {
+            Files.copy(source, outputStream);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
 import org.apache.flink.runtime.io.network.buffer.BufferPool;
 import org.apache.flink.runtime.io.network.buffer.BufferPoolFactory;
 import org.apache.flink.runtime.shuffle.NettyShuffleUtils;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.ProcessorArchitecture;
@@ -75,6 +76,12 @@ public class ResultPartitionFactory {
 
     private final boolean sslEnabled;
 
+    private final int localBufferHandoffCapacity;
+
+    private final boolean sortShuffleMergeRegions;
+
+    private final BatchShuffleInMemoryBudget sortShuffleInMemoryBudget;
+
     public ResultPartitionFactory(
             ResultPartitionManager partitionManager,
             FileChannelManager channelManager,
@@ -90,7 +97,10 @@ public class ResultPartitionFactory {
             int maxBuffersPerChannel,
             int sortShuffleMinBuffers,
             int sortShuffleMinParallelism,
-            boolean sslEnabled) {
+            boolean sslEnabled,
+            int localBufferHandoffCapacity,
+            boolean sortShuffleMergeRegions,
+            BatchShuffleInMemoryBudget sortShuffleInMemoryBudget) {
 
         this.partitionManager = partitionManager;
         this.channelManager = channelManager;
@@ -107,12 +117,24 @@ public class ResultPartitionFactory {
         this.sortShuffleMinBuffers = sortShuffleMinBuffers;
         this.sortShuffleMinParallelism = sortShuffleMinParallelism;
         this.sslEnabled = sslEnabled;
+        this.localBufferHandoffCapacity = localBufferHandoffCapacity;
+        this.sortShuffleMergeRegions = sortShuffleMergeRegions;
+        this.sortShuffleInMemoryBudget = sortShuffleInMemoryBudget;
     }
 
     public ResultPartition create(
             String taskNameWithSubtaskAndId,
             int partitionIndex,
             ResultPartitionDeploymentDescriptor desc) {
+        if (desc.getShuffleDescriptor() instanceof RemoteStorageShuffleDescriptor) {
+            return createRemoteStoragePartition(
+                    taskNameWithSubtaskAndId,
+                    partitionIndex,
+                    (RemoteStorageShuffleDescriptor) desc.getShuffleDescriptor(),
+                    desc.getPartitionType(),
+                    desc.getMaxParallelism());
+        }
+
         return create(
                 taskNameWithSubtaskAndId,
                 partitionIndex,
@@ -163,7 +185,10 @@ public class ResultPartitionFactory {
                 } else {
                     subpartitions[i] =
                             new PipelinedSubpartition(
-                                    i, configuredNetworkBuffersPerChannel, pipelinedPartition);
+                                    i,
+                                    configuredNetworkBuffersPerChannel,
+                                    localBufferHandoffCapacity,
+                                    pipelinedPartition);
                 }
             }
 
@@ -184,7 +209,9 @@ public class ResultPartitionFactory {
                                 partitionManager,
                                 channelManager.createChannel().getPath(),
                                 bufferCompressor,
-                                bufferPoolFactory);
+                                bufferPoolFactory,
+                                sortShuffleMergeRegions,
+                                sortShuffleInMemoryBudget);
             } else {
                 final BoundedBlockingResultPartition blockingPartition =
                         new BoundedBlockingResultPartition(
@@ -217,6 +244,40 @@ public class ResultPartitionFactory {
         return partition;
     }
 
+    private ResultPartition createRemoteStoragePartition(
+            String taskNameWithSubtaskAndId,
+            int partitionIndex,
+            RemoteStorageShuffleDescriptor shuffleDescriptor,
+            ResultPartitionType type,
+            int maxParallelism) {
+        BufferCompressor bufferCompressor = null;
+        if (blockingShuffleCompressionEnabled) {
+            bufferCompressor = new BufferCompressor(networkBufferSize, compressionCodec);
+        }
+
+        int numberOfSubpartitions = shuffleDescriptor.getNumberOfSubpartitions();
+        ResultPartition partition =
+                new RemoteStorageResultPartition(
+                        taskNameWithSubtaskAndId,
+                        partitionIndex,
+                        shuffleDescriptor,
+                        type,
+                        maxParallelism,
+                        batchShuffleReadBufferPool,
+                        batchShuffleReadIOExecutor,
+                        partitionManager,
+                        channelManager.createChannel().getPath(),
+                        bufferCompressor,
+                        // remote storage partitions are always sort-merge based, regardless of
+                        // the number of subpartitions
+                        createBufferPoolFactory(numberOfSubpartitions, type, 1),
+                        sortShuffleMergeRegions);
+
+        LOG.debug("{}: Initialized {}", taskNameWithSubtaskAndId, this);
+
+        return partition;
+    }
+
     private static void initializeBoundedBlockingPartitions(
             ResultSubpartition[] subpartitions,
             BoundedBlockingResultPartition parent,
@@ -266,6 +327,11 @@ public class ResultPartitionFactory {
     @VisibleForTesting
     SupplierWithException<BufferPool, IOException> createBufferPoolFactory(
             int numberOfSubpartitions, ResultPartitionType type) {
+        return createBufferPoolFactory(numberOfSubpartitions, type, sortShuffleMinParallelism);
+    }
+
+    private SupplierWithException<BufferPool, IOException> createBufferPoolFactory(
+            int numberOfSubpartitions, ResultPartitionType type, int sortShuffleMinParallelism) {
         return () -> {
             Pair<Integer, Integer> pair =
                     NettyShuffleUtils.getMinMaxNetworkBuffersPerResultPartition(
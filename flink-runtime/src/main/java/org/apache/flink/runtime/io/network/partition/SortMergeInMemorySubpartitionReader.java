@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Subpartition data reader for {@link SortMergeResultPartition}s which are kept in memory. The
+ * buffers of the partition are shared by all readers and never recycled, every read returns a new
+ * {@link Buffer} instance on top of the shared memory.
+ */
+class SortMergeInMemorySubpartitionReader implements ResultSubpartitionView {
+
+    /** Listener to notify when data is available. */
+    private final BufferAvailabilityListener availabilityListener;
+
+    /** All buffers of the target subpartition. */
+    private final List<Buffer> buffers;
+
+    /** Index of the next buffer to be sent to the consumer. */
+    private int nextBufferIndex;
+
+    /** Number of remaining non-event buffers. */
+    private int dataBufferBacklog;
+
+    /** Whether this reader is released or not. */
+    private volatile boolean isReleased;
+
+    SortMergeInMemorySubpartitionReader(
+            BufferAvailabilityListener availabilityListener, List<Buffer> buffers) {
+        this.availabilityListener = checkNotNull(availabilityListener);
+        this.buffers = checkNotNull(buffers);
+        this.dataBufferBacklog = (int) buffers.stream().filter(Buffer::isBuffer).count();
+    }
+
+    @Nullable
+    @Override
+    public BufferAndBacklog getNextBuffer() {
+        if (isReleased || nextBufferIndex >= buffers.size()) {
+            return null;
+        }
+
+        Buffer buffer = buffers.get(nextBufferIndex++);
+        if (buffer.isBuffer()) {
+            --dataBufferBacklog;
+        }
+
+        Buffer.DataType nextDataType =
+                nextBufferIndex < buffers.size()
+                        ? buffers.get(nextBufferIndex).getDataType()
+                        : Buffer.DataType.NONE;
+        return BufferAndBacklog.fromBufferAndLookahead(
+                new NetworkBuffer(
+                        buffer.getMemorySegment(),
+                        (segment) -> {},
+                        buffer.getDataType(),
+                        buffer.isCompressed(),
+                        buffer.getSize()),
+                nextDataType,
+                dataBufferBacklog,
+                nextBufferIndex - 1);
+    }
+
+    @Override
+    public void notifyDataAvailable() {
+        availabilityListener.notifyDataAvailable();
+    }
+
+    @Override
+    public void releaseAllResources() {
+        // the shared buffers are released by the result partition
+        isReleased = true;
+    }
+
+    @Override
+    public boolean isReleased() {
+        return isReleased;
+    }
+
+    @Override
+    public void resumeConsumption() {
+        throw new UnsupportedOperationException("Method should never be called.");
+    }
+
+    @Override
+    public void acknowledgeAllDataProcessed() {
+        // in case of bounded partitions there is no upstream to acknowledge, we simply ignore
+        // the ack, as there are no checkpoints
+    }
+
+    @Override
+    public Throwable getFailureCause() {
+        // we can never throw an error after this was created
+        return null;
+    }
+
+    @Override
+    public AvailabilityWithBacklog getAvailabilityAndBacklog(int numCreditsAvailable) {
+        boolean isAvailable;
+        if (isReleased || nextBufferIndex >= buffers.size()) {
+            isAvailable = false;
+        } else {
+            isAvailable = numCreditsAvailable > 0 || !buffers.get(nextBufferIndex).isBuffer();
+        }
+        return new AvailabilityWithBacklog(isAvailable, dataBufferBacklog);
+    }
+
+    @Override
+    public int unsynchronizedGetNumberOfQueuedBuffers() {
+        return Math.max(0, buffers.size() - nextBufferIndex);
+    }
+
+    @Override
+    public int getNumberOfQueuedBuffers() {
+        return unsynchronizedGetNumberOfQueuedBuffers();
+    }
+
+    @Override
+    public void notifyNewBufferSize(int newBufferSize) {}
+}
@@ -21,6 +21,7 @@ package org.apache.flink.runtime.io.network.partition;
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
 import org.apache.flink.runtime.event.AbstractEvent;
 import org.apache.flink.runtime.io.disk.BatchShuffleReadBufferPool;
 import org.apache.flink.runtime.io.network.api.EndOfData;
@@ -44,6 +45,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
@@ -62,6 +64,12 @@ import static org.apache.flink.util.Preconditions.checkState;
  * {@link PartitionedFile} in subpartition index order sequentially. Large records that can not be
  * appended to an empty {@link SortBuffer} will be spilled to the result {@link PartitionedFile}
  * separately.
+ *
+ * <p>If region merging is enabled, the data copied from the {@link SortBuffer} is kept in the write
+ * buffers and the data of successive spills is merged into one region until the write buffers are
+ * full, which avoids many small regions caused by frequent flushes. If all data of the partition
+ * still fits in the write buffers when finishing and the {@link BatchShuffleInMemoryBudget} allows,
+ * the partition is kept in memory and no {@link PartitionedFile} is produced at all.
  */
 @NotThreadSafe
 public class SortMergeResultPartition extends ResultPartition {
@@ -85,6 +93,18 @@ public class SortMergeResultPartition extends ResultPartition {
     @GuardedBy("lock")
     private boolean hasNotifiedEndOfUserRecords;
 
+    /**
+     * Data of all subpartitions indexed by subpartition if this result partition is kept in memory
+     * after finishing, null otherwise.
+     */
+    @GuardedBy("lock")
+    @Nullable
+    private List<List<Buffer>> inMemoryData;
+
+    /** Size of {@link #inMemoryData} in bytes reserved from {@link #inMemoryBudget}. */
+    @GuardedBy("lock")
+    private long numInMemoryBytes;
+
     /** Size of network buffer and write buffer. */
     private final int networkBufferSize;
 
@@ -94,6 +114,27 @@ public class SortMergeResultPartition extends ResultPartition {
     /** Subpartition orders of coping data from {@link SortBuffer} and writing to file. */
     private final int[] subpartitionOrder;
 
+    /** Position of every subpartition in {@link #subpartitionOrder}. */
+    private final int[] subpartitionPositions;
+
+    /**
+     * Whether to merge the data of successive spills in the write buffers before writing it to
+     * file.
+     */
+    private final boolean mergeRegions;
+
+    /** Budget of heap memory which can be used to keep this partition in memory. */
+    private final BatchShuffleInMemoryBudget inMemoryBudget;
+
+    /** Regions which are merged in the write buffers but not written to file yet. */
+    private final List<DataRegion> pendingRegions = new ArrayList<>();
+
+    /** Number of write buffers occupied by {@link #pendingRegions}. */
+    private int numPendingBuffers;
+
+    /** Whether any data has been written to the {@link PartitionedFile}. */
+    private boolean hasWrittenData;
+
     /**
      * Data read scheduler for this result partition which schedules data read of all subpartitions.
      */
@@ -123,7 +164,9 @@ public class SortMergeResultPartition extends ResultPartition {
             ResultPartitionManager partitionManager,
             String resultFileBasePath,
             @Nullable BufferCompressor bufferCompressor,
-            SupplierWithException<BufferPool, IOException> bufferPoolFactory) {
+            SupplierWithException<BufferPool, IOException> bufferPoolFactory,
+            boolean mergeRegions,
+            BatchShuffleInMemoryBudget inMemoryBudget) {
 
         super(
                 owningTaskName,
@@ -142,6 +185,13 @@ public class SortMergeResultPartition extends ResultPartition {
         // reading the output of all upstream tasks in the same order, which is better for data
         // input balance of the downstream tasks
         this.subpartitionOrder = getRandomSubpartitionOrder(numSubpartitions);
+        this.subpartitionPositions = new int[numSubpartitions];
+        for (int i = 0; i < numSubpartitions; ++i) {
+            subpartitionPositions[subpartitionOrder[i]] = i;
+        }
+        this.inMemoryBudget = checkNotNull(inMemoryBudget);
+        // keeping the partition in memory relies on the data being merged in the write buffers
+        this.mergeRegions = mergeRegions || inMemoryBudget.isEnabled();
         this.readScheduler =
                 new SortMergeResultPartitionReadScheduler(readBufferPool, readIOExecutor, lock);
 
@@ -200,6 +250,11 @@ public class SortMergeResultPartition extends ResultPartition {
                 fileWriter.releaseQuietly();
             }
 
+            if (inMemoryData != null) {
+                inMemoryData = null;
+                inMemoryBudget.release(numInMemoryBytes);
+            }
+
             // delete the produced file only when no reader is reading now
             readScheduler
                     .release()
@@ -310,7 +365,10 @@ public class SortMergeResultPartition extends ResultPartition {
         }
         sortBuffer.finish();
 
-        if (sortBuffer.hasRemaining()) {
+        if (mergeRegions) {
+            mergeSortBuffer(sortBuffer, isBroadcast);
+        } else if (sortBuffer.hasRemaining()) {
+            hasWrittenData = true;
             fileWriter.startNewRegion(isBroadcast);
 
             List<BufferWithChannel> toWrite = new ArrayList<>();
@@ -335,6 +393,119 @@ public class SortMergeResultPartition extends ResultPartition {
         releaseSortBuffer(sortBuffer);
     }
 
+    /**
+     * Copies the data of the {@link SortBuffer} to the free write buffers and merges it into the
+     * last pending region if that has the same type. The pending regions are only written to file
+     * when the write buffers are full.
+     */
+    private void mergeSortBuffer(SortBuffer sortBuffer, boolean isBroadcast) throws IOException {
+        while (sortBuffer.hasRemaining()) {
+            MemorySegment segment = getFreeWriteSegment();
+            if (segment == null) {
+                writePendingRegions();
+                continue;
+            }
+
+            BufferWithChannel bufferWithChannel = sortBuffer.copyIntoSegment(segment);
+            updateStatistics(bufferWithChannel.getBuffer(), isBroadcast);
+            getPendingRegion(isBroadcast).add(compressBufferIfPossible(bufferWithChannel));
+            ++numPendingBuffers;
+        }
+    }
+
+    @Nullable
+    private MemorySegment getFreeWriteSegment() {
+        synchronized (lock) {
+            checkState(!writeSegments.isEmpty(), "Task has been canceled.");
+            return numPendingBuffers < writeSegments.size()
+                    ? writeSegments.get(numPendingBuffers)
+                    : null;
+        }
+    }
+
+    private DataRegion getPendingRegion(boolean isBroadcast) {
+        if (pendingRegions.isEmpty()
+                || pendingRegions.get(pendingRegions.size() - 1).isBroadcast != isBroadcast) {
+            pendingRegions.add(new DataRegion(isBroadcast));
+        }
+        return pendingRegions.get(pendingRegions.size() - 1);
+    }
+
+    /** Writes all pending regions to file which frees all write buffers. */
+    private void writePendingRegions() throws IOException {
+        for (DataRegion region : pendingRegions) {
+            hasWrittenData = true;
+            fileWriter.startNewRegion(region.isBroadcast);
+            if (!region.isBroadcast) {
+                // data of the same subpartition must be written together, the sort is stable so
+                // the data of a subpartition stays in the order of being emitted
+                region.buffers.sort(
+                        Comparator.comparingInt(
+                                buffer -> subpartitionPositions[buffer.getChannelIndex()]));
+            }
+            fileWriter.writeBuffers(region.buffers);
+        }
+        pendingRegions.clear();
+        numPendingBuffers = 0;
+    }
+
+    /**
+     * Copies the data of all pending regions to heap memory reserved from the {@link
+     * #inMemoryBudget} if nothing has been written to file yet.
+     *
+     * @return data of all subpartitions or null if this partition can not be kept in memory.
+     */
+    @Nullable
+    private List<List<Buffer>> copyPendingRegionsToHeap() {
+        if (hasWrittenData || !inMemoryBudget.isEnabled()) {
+            return null;
+        }
+
+        long numBytes = 0;
+        for (DataRegion region : pendingRegions) {
+            for (BufferWithChannel bufferWithChannel : region.buffers) {
+                numBytes += bufferWithChannel.getBuffer().readableBytes();
+            }
+        }
+        if (!inMemoryBudget.tryReserve(numBytes)) {
+            return null;
+        }
+
+        List<List<Buffer>> subpartitionBuffers = new ArrayList<>(numSubpartitions);
+        for (int i = 0; i < numSubpartitions; ++i) {
+            subpartitionBuffers.add(new ArrayList<>());
+        }
+        for (DataRegion region : pendingRegions) {
+            for (BufferWithChannel bufferWithChannel : region.buffers) {
+                Buffer buffer = copyToHeap(bufferWithChannel.getBuffer());
+                if (region.isBroadcast) {
+                    subpartitionBuffers.forEach(buffers -> buffers.add(buffer));
+                } else {
+                    subpartitionBuffers.get(bufferWithChannel.getChannelIndex()).add(buffer);
+                }
+            }
+        }
+        pendingRegions.clear();
+        numPendingBuffers = 0;
+
+        synchronized (lock) {
+            numInMemoryBytes = numBytes;
+        }
+        return subpartitionBuffers;
+    }
+
+    private static Buffer copyToHeap(Buffer buffer) {
+        int numBytes = buffer.readableBytes();
+        MemorySegment segment = MemorySegmentFactory.allocateUnpooledSegment(numBytes);
+        segment.put(0, buffer.getNioBufferReadable(), numBytes);
+        return new NetworkBuffer(
+                segment,
+                (memorySegment) -> {},
+                buffer.getDataType(),
+                buffer.isCompressed(),
+                numBytes);
+    }
+
     private void flushBroadcastSortBuffer() throws IOException {
         flushSortBuffer(broadcastSortBuffer, true);
     }
@@ -373,6 +544,9 @@ public class SortMergeResultPartition extends ResultPartition {
     private void writeLargeRecord(
             ByteBuffer record, int targetSubpartition, DataType dataType, boolean isBroadcast)
             throws IOException {
+        // the pending regions must be written first to keep the data order and free the buffers
+        writePendingRegions();
+        hasWrittenData = true;
         fileWriter.startNewRegion(isBroadcast);
 
         List<BufferWithChannel> toWrite = new ArrayList<>();
@@ -416,11 +590,28 @@ public class SortMergeResultPartition extends ResultPartition {
                 "The unicast sort buffer should be either null or released.");
         flushBroadcastSortBuffer();
 
+        List<List<Buffer>> subpartitionBuffers = copyPendingRegionsToHeap();
+        if (subpartitionBuffers == null) {
+            writePendingRegions();
+        }
+
         synchronized (lock) {
+            if (subpartitionBuffers != null && isReleased()) {
+                inMemoryBudget.release(numInMemoryBytes);
+            }
             checkState(!isReleased(), "Result partition is already released.");
 
-            resultFile = fileWriter.finish();
-            LOG.info("New partitioned file produced: {}.", resultFile);
+            if (subpartitionBuffers != null) {
+                inMemoryData = subpartitionBuffers;
+                fileWriter.releaseQuietly();
+                LOG.info(
+                        "Result partition {} of {} bytes is kept in memory.",
+                        getPartitionId(),
+                        numInMemoryBytes);
+            } else {
+                resultFile = fileWriter.finish();
+                LOG.info("New partitioned file produced: {}.", resultFile);
+            }
         }
 
         super.finish();
@@ -439,6 +630,9 @@ public class SortMergeResultPartition extends ResultPartition {
 
     @Override
     public void close() {
+        // pending data which is not written yet is discarded together with the write buffers
+        pendingRegions.clear();
+        numPendingBuffers = 0;
         releaseWriteBuffers();
         // the close method will be always called by the task thread, so there is need to make
         // the sort buffer fields volatile and visible to the cancel thread intermediately
@@ -453,14 +647,24 @@ public class SortMergeResultPartition extends ResultPartition {
     public ResultSubpartitionView createSubpartitionView(
             int subpartitionIndex, BufferAvailabilityListener availabilityListener)
             throws IOException {
+        SortMergeInMemorySubpartitionReader inMemoryReader;
         synchronized (lock) {
             checkElementIndex(subpartitionIndex, numSubpartitions, "Subpartition not found.");
             checkState(!isReleased(), "Partition released.");
             checkState(isFinished(), "Trying to read unfinished blocking partition.");
 
-            return readScheduler.crateSubpartitionReader(
-                    availabilityListener, subpartitionIndex, resultFile);
+            if (inMemoryData == null) {
+                return readScheduler.crateSubpartitionReader(
+                        availabilityListener, subpartitionIndex, resultFile);
+            }
+            inMemoryReader =
+                    new SortMergeInMemorySubpartitionReader(
+                            availabilityListener, inMemoryData.get(subpartitionIndex));
         }
+
+        // all data is available already, notify outside the lock to not block other readers
+        inMemoryReader.notifyDataAvailable();
+        return inMemoryReader;
     }
 
     @Override
@@ -505,10 +709,33 @@ public class SortMergeResultPartition extends ResultPartition {
         return list.stream().mapToInt(Integer::intValue).toArray();
     }
 
-    @VisibleForTesting
+    @Nullable
     PartitionedFile getResultFile() {
         synchronized (lock) {
             return resultFile;
         }
     }
+
+    @VisibleForTesting
+    boolean isKeptInMemory() {
+        synchronized (lock) {
+            return inMemoryData != null;
+        }
+    }
+
+    /** Data of successive spills of the same type which is merged to one region of the file. */
+    private static final class DataRegion {
+
+        private final boolean isBroadcast;
+
+        private final List<BufferWithChannel> buffers = new ArrayList<>();
+
+        private DataRegion(boolean isBroadcast) {
+            this.isBroadcast = isBroadcast;
+        }
+
+        private void add(BufferWithChannel bufferWithChannel) {
+            buffers.add(bufferWithChannel);
+        }
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition.consumer;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.runtime.event.TaskEvent;
+import org.apache.flink.runtime.execution.CancelTaskException;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.runtime.io.network.partition.PartitionNotFoundException;
+import org.apache.flink.runtime.io.network.partition.RemotePartitionedFileReader;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * An input channel which reads a subpartition stored on a remote file system, as described by a
+ * {@link RemoteStorageShuffleDescriptor}, directly from the storage.
+ *
+ * <p>All data of the subpartition is available once the subpartition is requested, so the channel
+ * reads the buffers synchronously when polled. Like local channels reading from files, it uses the
+ * unpooled segment of the {@link SingleInputGate}, which is consumed before the next buffer is
+ * polled from the gate.
+ */
+public class RemoteStorageInputChannel extends InputChannel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteStorageInputChannel.class);
+
+    private final RemoteStorageShuffleDescriptor shuffleDescriptor;
+
+    @Nullable private volatile RemotePartitionedFileReader fileReader;
+
+    private volatile boolean isReleased;
+
+    private int sequenceNumber;
+
+    public RemoteStorageInputChannel(
+            SingleInputGate inputGate,
+            int channelIndex,
+            RemoteStorageShuffleDescriptor shuffleDescriptor,
+            Counter numBytesIn,
+            Counter numBuffersIn) {
+        super(
+                inputGate,
+                channelIndex,
+                shuffleDescriptor.getResultPartitionID(),
+                0,
+                0,
+                numBytesIn,
+                numBuffersIn);
+
+        this.shuffleDescriptor = checkNotNull(shuffleDescriptor);
+    }
+
+    // ------------------------------------------------------------------------
+    // Consume
+    // ------------------------------------------------------------------------
+
+    @Override
+    void requestSubpartition(int subpartitionIndex) throws IOException {
+        checkState(!isReleased, "RemoteStorageInputChannel has been released already");
+        checkState(fileReader == null, "Already requested subpartition.");
+
+        LOG.debug(
+                "{}: Requesting subpartition {} of partition {} from {}.",
+                this,
+                subpartitionIndex,
+                partitionId,
+                shuffleDescriptor);
+
+        try {
+            fileReader =
+                    new RemotePartitionedFileReader(
+                            shuffleDescriptor.getDataFilePath(),
+                            shuffleDescriptor.getIndexFilePath(),
+                            shuffleDescriptor.getNumberOfSubpartitions(),
+                            subpartitionIndex);
+        } catch (FileNotFoundException exception) {
+            // lets the scheduler reproduce the lost partition
+            throw new PartitionNotFoundException(partitionId);
+        }
+
+        notifyChannelNonEmpty();
+    }
+
+    @Override
+    Optional<BufferAndAvailability> getNextBuffer() throws IOException {
+        checkError();
+
+        RemotePartitionedFileReader fileReader = this.fileReader;
+        if (fileReader == null) {
+            if (isReleased) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException(
+                    "Queried for a buffer before requesting the subpartition.");
+        }
+
+        Buffer buffer;
+        Buffer.DataType nextDataType;
+        try {
+            buffer =
+                    fileReader.readNextBuffer(
+                            inputGate.getUnpooledSegment(),
+                            BufferRecycler.DummyBufferRecycler.INSTANCE);
+            nextDataType =
+                    fileReader.hasRemaining() ? Buffer.DataType.DATA_BUFFER : Buffer.DataType.NONE;
+        } catch (IOException exception) {
+            if (isReleased) {
+                throw new CancelTaskException(
+                        "Input channel of partition " + partitionId + " has been released.");
+            }
+            throw exception;
+        }
+
+        if (buffer == null) {
+            return Optional.empty();
+        }
+
+        numBytesIn.inc(buffer.getSize());
+        numBuffersIn.inc();
+        return Optional.of(new BufferAndAvailability(buffer, nextDataType, 0, sequenceNumber++));
+    }
+
+    @Override
+    public void resumeConsumption() {
+        checkState(!isReleased, "Channel released.");
+    }
+
+    @Override
+    public void acknowledgeAllRecordsProcessed() {
+        checkState(!isReleased, "Channel released.");
+    }
+
+    // ------------------------------------------------------------------------
+    // Task events
+    // ------------------------------------------------------------------------
+
+    @Override
+    void sendTaskEvent(TaskEvent event) throws IOException {
+        throw new IOException(
+                "Error while publishing event "
+                        + event
+                        + " to producer. Partitions stored remotely do not have a producer.");
+    }
+
+    // ------------------------------------------------------------------------
+    // Life cycle
+    // ------------------------------------------------------------------------
+
+    @Override
+    boolean isReleased() {
+        return isReleased;
+    }
+
+    @Override
+    void releaseAllResources() throws IOException {
+        if (!isReleased) {
+            isReleased = true;
+
+            RemotePartitionedFileReader reader = fileReader;
+            if (reader != null) {
+                fileReader = null;
+                reader.close();
+            }
+        }
+    }
+
+    @Override
+    void announceBufferSize(int newBufferSize) {}
+
+    @Override
+    int getBuffersInUseCount() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteStorageInputChannel [" + partitionId + "]";
+    }
+}
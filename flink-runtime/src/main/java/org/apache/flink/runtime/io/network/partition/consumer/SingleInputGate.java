@@ -209,6 +209,16 @@ public class SingleInputGate extends IndexedInputGate {
 
     private final ThroughputCalculator throughputCalculator;
     private final BufferDebloater bufferDebloater;
+
+    /**
+     * Debloaters of the individual input channels if the buffer size is debloated per channel,
+     * indexed by the channel index.
+     */
+    @Nullable private final BufferDebloater[] channelBufferDebloaters;
+
+    /** Size of the data received by every input channel since the last debloating. */
+    @Nullable private final long[] channelDataSizes;
+
     private boolean shouldDrainOnEndOfData = true;
 
     public SingleInputGate(
@@ -224,7 +234,8 @@ public class SingleInputGate extends IndexedInputGate {
             MemorySegmentProvider memorySegmentProvider,
             int segmentSize,
             ThroughputCalculator throughputCalculator,
-            @Nullable BufferDebloater bufferDebloater) {
+            @Nullable BufferDebloater bufferDebloater,
+            @Nullable BufferDebloater[] channelBufferDebloaters) {
 
         this.owningTaskName = checkNotNull(owningTaskName);
         Preconditions.checkArgument(0 <= gateIndex, "The gate index must be positive.");
@@ -257,6 +268,13 @@ public class SingleInputGate extends IndexedInputGate {
 
         this.unpooledSegment = MemorySegmentFactory.allocateUnpooledSegment(segmentSize);
         this.bufferDebloater = bufferDebloater;
+        checkArgument(
+                channelBufferDebloaters == null
+                        || channelBufferDebloaters.length == numberOfInputChannels,
+                "There must be one buffer debloater per input channel.");
+        this.channelBufferDebloaters = channelBufferDebloaters;
+        this.channelDataSizes =
+                channelBufferDebloaters != null ? new long[numberOfInputChannels] : null;
         this.throughputCalculator = checkNotNull(throughputCalculator);
     }
 
@@ -410,14 +428,57 @@ public class SingleInputGate extends IndexedInputGate {
             return;
         }
 
-        checkState(bufferDebloater != null, "Buffer debloater should not be null");
         final long currentThroughput = throughputCalculator.calculateThroughput();
+        if (channelBufferDebloaters != null) {
+            debloatChannels(currentThroughput);
+            return;
+        }
+
+        checkState(bufferDebloater != null, "Buffer debloater should not be null");
         bufferDebloater
                 .recalculateBufferSize(currentThroughput, getBuffersInUseCount())
                 .ifPresent(this::announceBufferSize);
     }
 
+    /**
+     * Splits the throughput of the gate among the channels according to their share of the received
+     * data, so that every channel gets a buffer size matching its own throughput.
+     */
+    private void debloatChannels(long gateThroughput) {
+        long totalDataSize = 0;
+        for (long channelDataSize : channelDataSizes) {
+            totalDataSize += channelDataSize;
+        }
+
+        for (int i = 0; i < numberOfInputChannels; i++) {
+            final long channelThroughput =
+                    totalDataSize > 0
+                            ? (long) ((double) gateThroughput * channelDataSizes[i] / totalDataSize)
+                            : 0;
+            channelDataSizes[i] = 0;
+
+            final InputChannel channel = channels[i];
+            if (channel == null || channel.isReleased()) {
+                continue;
+            }
+            channelBufferDebloaters[i]
+                    .recalculateBufferSize(channelThroughput, channel.getBuffersInUseCount())
+                    .ifPresent(channel::announceBufferSize);
+        }
+    }
+
     public Duration getLastEstimatedTimeToConsume() {
+        if (channelBufferDebloaters != null) {
+            // the slowest channel determines how long it takes to consume the in-flight data
+            Duration max = Duration.ZERO;
+            for (BufferDebloater channelBufferDebloater : channelBufferDebloaters) {
+                Duration estimated = channelBufferDebloater.getLastEstimatedTimeToConsumeBuffers();
+                if (estimated.compareTo(max) > 0) {
+                    max = estimated;
+                }
+            }
+            return max;
+        }
         return bufferDebloater.getLastEstimatedTimeToConsumeBuffers();
     }
 
@@ -733,6 +794,9 @@ public class SingleInputGate extends IndexedInputGate {
                         inputWithData.input,
                         inputWithData.morePriorityEvents);
         throughputCalculator.incomingDataSize(bufferOrEvent.getSize());
+        if (channelDataSizes != null) {
+            channelDataSizes[inputWithData.input.getChannelIndex()] += bufferOrEvent.getSize();
+        }
         return Optional.of(bufferOrEvent);
     }
 
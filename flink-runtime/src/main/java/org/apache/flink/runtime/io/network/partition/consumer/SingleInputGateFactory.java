@@ -36,6 +36,7 @@ import org.apache.flink.runtime.io.network.partition.ResultPartitionManager;
 import org.apache.flink.runtime.metrics.MetricNames;
 import org.apache.flink.runtime.shuffle.NettyShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.NettyShuffleUtils;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.ShuffleIOOwnerContext;
 import org.apache.flink.runtime.taskmanager.NettyShuffleEnvironmentConfiguration;
@@ -52,6 +53,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import static org.apache.flink.runtime.shuffle.ShuffleUtils.applyWithShuffleTypeCheck;
 
@@ -141,7 +143,11 @@ public class SingleInputGateFactory {
                         networkBufferSize,
                         new ThroughputCalculator(SystemClock.getInstance()),
                         maybeCreateBufferDebloater(
-                                gateIndex, networkInputGroup.addGroup(gateIndex)));
+                                gateIndex, networkInputGroup.addGroup(gateIndex)),
+                        maybeCreateChannelBufferDebloaters(
+                                gateIndex,
+                                igdd.getShuffleDescriptors().length,
+                                networkInputGroup.addGroup(gateIndex)));
 
         InputChannelMetrics metrics =
                 new InputChannelMetrics(networkInputGroup, owner.getParentGroup());
@@ -150,15 +156,8 @@ public class SingleInputGateFactory {
     }
 
     private BufferDebloater maybeCreateBufferDebloater(int gateIndex, MetricGroup inputGroup) {
-        if (debloatConfiguration.isEnabled()) {
-            final BufferDebloater bufferDebloater =
-                    new BufferDebloater(
-                            gateIndex,
-                            debloatConfiguration.getTargetTotalBufferSize().toMillis(),
-                            debloatConfiguration.getMaxBufferSize(),
-                            debloatConfiguration.getMinBufferSize(),
-                            debloatConfiguration.getBufferDebloatThresholdPercentages(),
-                            debloatConfiguration.getNumberOfSamples());
+        if (debloatConfiguration.isEnabled() && !debloatConfiguration.isPerChannel()) {
+            final BufferDebloater bufferDebloater = createBufferDebloater(gateIndex);
             inputGroup.gauge(
                     MetricNames.ESTIMATED_TIME_TO_CONSUME_BUFFERS,
                     () -> bufferDebloater.getLastEstimatedTimeToConsumeBuffers().toMillis());
@@ -169,6 +168,48 @@ public class SingleInputGateFactory {
         return null;
     }
 
+    private BufferDebloater[] maybeCreateChannelBufferDebloaters(
+            int gateIndex, int numberOfInputChannels, MetricGroup inputGroup) {
+        if (debloatConfiguration.isEnabled() && debloatConfiguration.isPerChannel()) {
+            final BufferDebloater[] bufferDebloaters = new BufferDebloater[numberOfInputChannels];
+            for (int i = 0; i < numberOfInputChannels; i++) {
+                bufferDebloaters[i] = createBufferDebloater(gateIndex);
+            }
+            inputGroup.gauge(
+                    MetricNames.ESTIMATED_TIME_TO_CONSUME_BUFFERS,
+                    () ->
+                            Arrays.stream(bufferDebloaters)
+                                    .mapToLong(
+                                            debloater ->
+                                                    debloater
+                                                            .getLastEstimatedTimeToConsumeBuffers()
+                                                            .toMillis())
+                                    .max()
+                                    .orElse(0L));
+            // report the largest buffer size, which is the one of the hottest channel
+            inputGroup.gauge(
+                    MetricNames.DEBLOATED_BUFFER_SIZE,
+                    () ->
+                            Arrays.stream(bufferDebloaters)
+                                    .mapToInt(BufferDebloater::getLastBufferSize)
+                                    .max()
+                                    .orElse(0));
+            return bufferDebloaters;
+        }
+
+        return null;
+    }
+
+    private BufferDebloater createBufferDebloater(int gateIndex) {
+        return new BufferDebloater(
+                gateIndex,
+                debloatConfiguration.getTargetTotalBufferSize().toMillis(),
+                debloatConfiguration.getMaxBufferSize(),
+                debloatConfiguration.getMinBufferSize(),
+                debloatConfiguration.getBufferDebloatThresholdPercentages(),
+                debloatConfiguration.getNumberOfSamples());
+    }
+
     private void createInputChannels(
             String owningTaskName,
             InputGateDeploymentDescriptor inputGateDeploymentDescriptor,
@@ -202,6 +243,16 @@ public class SingleInputGateFactory {
             ShuffleDescriptor shuffleDescriptor,
             ChannelStatistics channelStatistics,
             InputChannelMetrics metrics) {
+        if (shuffleDescriptor instanceof RemoteStorageShuffleDescriptor) {
+            channelStatistics.numRemoteStorageChannels++;
+            return new RemoteStorageInputChannel(
+                    inputGate,
+                    index,
+                    (RemoteStorageShuffleDescriptor) shuffleDescriptor,
+                    metrics.getNumBytesInRemoteCounter(),
+                    metrics.getNumBuffersInRemoteCounter());
+        }
+
         return applyWithShuffleTypeCheck(
                 NettyShuffleDescriptor.class,
                 shuffleDescriptor,
@@ -279,12 +330,16 @@ public class SingleInputGateFactory {
         int numLocalChannels;
         int numRemoteChannels;
         int numUnknownChannels;
+        int numRemoteStorageChannels;
 
         @Override
         public String toString() {
             return String.format(
-                    "local: %s, remote: %s, unknown: %s",
-                    numLocalChannels, numRemoteChannels, numUnknownChannels);
+                    "local: %s, remote: %s, unknown: %s, remote storage: %s",
+                    numLocalChannels,
+                    numRemoteChannels,
+                    numUnknownChannels,
+                    numRemoteStorageChannels);
         }
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.shuffle;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.configuration.MemorySize;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * {@link ShuffleMaster} which places the data of {@link ResultPartitionType#BLOCKING} partitions on
+ * a remote file system configured by {@link ShuffleServiceOptions#SHUFFLE_REMOTE_STORAGE_PATH}. All
+ * other partitions are registered with a {@link NettyShuffleMaster}.
+ *
+ * <p>Partitions stored remotely are released by deleting their files, and all remaining files of a
+ * job are deleted once the job is unregistered.
+ */
+public class RemoteShuffleMaster implements ShuffleMaster<ShuffleDescriptor> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteShuffleMaster.class);
+
+    private final NettyShuffleMaster nettyShuffleMaster;
+
+    private final Path storageRoot;
+
+    public RemoteShuffleMaster(Configuration conf) {
+        checkNotNull(conf);
+        String storagePath = conf.getString(ShuffleServiceOptions.SHUFFLE_REMOTE_STORAGE_PATH);
+        if (storagePath == null) {
+            throw new IllegalConfigurationException(
+                    String.format(
+                            "%s must be configured for the remote shuffle service.",
+                            ShuffleServiceOptions.SHUFFLE_REMOTE_STORAGE_PATH.key()));
+        }
+
+        this.storageRoot = new Path(storagePath);
+
+        // blocking partitions stored remotely are always sort-merge based, which has to be
+        // reflected by the announced network memory
+        Configuration nettyConf = new Configuration(conf);
+        nettyConf.set(NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_MIN_PARALLELISM, 1);
+        this.nettyShuffleMaster = new NettyShuffleMaster(nettyConf);
+    }
+
+    @Override
+    public void unregisterJob(JobID jobID) {
+        deleteQuietly(getJobPath(jobID), true);
+    }
+
+    @Override
+    public CompletableFuture<ShuffleDescriptor> registerPartitionWithProducer(
+            JobID jobID,
+            PartitionDescriptor partitionDescriptor,
+            ProducerDescriptor producerDescriptor) {
+        // persistent partitions are promoted to cluster partitions by the task executors holding
+        // them, so they are kept on the producers
+        if (partitionDescriptor.getPartitionType() != ResultPartitionType.BLOCKING) {
+            return nettyShuffleMaster
+                    .registerPartitionWithProducer(jobID, partitionDescriptor, producerDescriptor)
+                    .thenApply(descriptor -> descriptor);
+        }
+
+        ResultPartitionID resultPartitionID =
+                new ResultPartitionID(
+                        partitionDescriptor.getPartitionId(),
+                        producerDescriptor.getProducerExecutionId());
+
+        return CompletableFuture.completedFuture(
+                new RemoteStorageShuffleDescriptor(
+                        resultPartitionID,
+                        getPartitionPath(jobID, resultPartitionID).toString(),
+                        partitionDescriptor.getNumberOfSubpartitions()));
+    }
+
+    @Override
+    public void releasePartitionExternally(ShuffleDescriptor shuffleDescriptor) {
+        if (shuffleDescriptor instanceof RemoteStorageShuffleDescriptor) {
+            RemoteStorageShuffleDescriptor descriptor =
+                    (RemoteStorageShuffleDescriptor) shuffleDescriptor;
+            deleteQuietly(descriptor.getDataFilePath(), false);
+            deleteQuietly(descriptor.getIndexFilePath(), false);
+        } else {
+            nettyShuffleMaster.releasePartitionExternally(shuffleDescriptor);
+        }
+    }
+
+    @Override
+    public MemorySize computeShuffleMemorySizeForTask(TaskInputsOutputsDescriptor desc) {
+        return nettyShuffleMaster.computeShuffleMemorySizeForTask(desc);
+    }
+
+    private Path getJobPath(JobID jobID) {
+        return new Path(storageRoot, jobID.toString());
+    }
+
+    @VisibleForTesting
+    Path getPartitionPath(JobID jobID, ResultPartitionID resultPartitionID) {
+        // the string form of the partition id contains a '#' which is not safe to use in URIs
+        return new Path(
+                getJobPath(jobID),
+                resultPartitionID.getPartitionId().getIntermediateDataSetID()
+                        + "-"
+                        + resultPartitionID.getPartitionId().getPartitionNumber()
+                        + "-"
+                        + resultPartitionID.getProducerId());
+    }
+
+    private static void deleteQuietly(Path path, boolean recursive) {
+        try {
+            path.getFileSystem().delete(path, recursive);
+        } catch (IOException exception) {
+            LOG.warn("Failed to delete remote shuffle data {}.", path, exception);
+        }
+    }
+}
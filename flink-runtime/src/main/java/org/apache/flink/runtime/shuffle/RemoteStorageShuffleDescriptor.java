@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.shuffle;
+
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.clusterframework.types.ResourceID;
+import org.apache.flink.runtime.io.network.partition.PartitionedFile;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
+
+import java.util.Optional;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * {@link ShuffleDescriptor} of {@link RemoteShuffleMaster} for a blocking result partition whose
+ * data is stored as a {@link PartitionedFile} on a remote file system.
+ *
+ * <p>The partition does not occupy any resources on the producing task executor once the producer
+ * is finished, so the task executor can be released independently of the partition lifecycle.
+ */
+public class RemoteStorageShuffleDescriptor implements ShuffleDescriptor {
+
+    private static final long serialVersionUID = -2947306391574236019L;
+
+    private final ResultPartitionID resultPartitionID;
+
+    /** Path of the stored partition without the data and index file suffixes. */
+    private final String storagePath;
+
+    private final int numberOfSubpartitions;
+
+    public RemoteStorageShuffleDescriptor(
+            ResultPartitionID resultPartitionID, String storagePath, int numberOfSubpartitions) {
+        checkArgument(numberOfSubpartitions > 0, "Illegal number of subpartitions.");
+
+        this.resultPartitionID = checkNotNull(resultPartitionID);
+        this.storagePath = checkNotNull(storagePath);
+        this.numberOfSubpartitions = numberOfSubpartitions;
+    }
+
+    @Override
+    public ResultPartitionID getResultPartitionID() {
+        return resultPartitionID;
+    }
+
+    public int getNumberOfSubpartitions() {
+        return numberOfSubpartitions;
+    }
+
+    public Path getDataFilePath() {
+        return new Path(storagePath + PartitionedFile.DATA_FILE_SUFFIX);
+    }
+
+    public Path getIndexFilePath() {
+        return new Path(storagePath + PartitionedFile.INDEX_FILE_SUFFIX);
+    }
+
+    @Override
+    public Optional<ResourceID> storesLocalResourcesOn() {
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteStorageShuffleDescriptor{"
+                + "resultPartitionID="
+                + resultPartitionID
+                + ", storagePath="
+                + storagePath
+                + ", numberOfSubpartitions="
+                + numberOfSubpartitions
+                + '}';
+    }
+}
@@ -37,4 +37,21 @@ public class ShuffleServiceOptions {
                             "The full class name of the shuffle service factory implementation to be used by the cluster. "
                                     + "The default implementation uses Netty for network communication and local memory as well disk space "
                                     + "to store results on a TaskExecutor.");
+
+    /**
+     * The root directory on a file system where the remote shuffle service stores the data of
+     * blocking result partitions.
+     */
+    public static final ConfigOption<String> SHUFFLE_REMOTE_STORAGE_PATH =
+            ConfigOptions.key("shuffle-service.remote-storage.path")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "The root directory where blocking result partitions are stored when "
+                                    + "the shuffle service factory is set to "
+                                    + "'org.apache.flink.runtime.io.network.RemoteShuffleServiceFactory'. "
+                                    + "It can be on any file system supported by Flink and must be accessible "
+                                    + "from all TaskManagers as well as the JobManager. Data stored there "
+                                    + "outlives the TaskManagers which produced it, so they can be released "
+                                    + "as soon as their tasks are finished.");
 }
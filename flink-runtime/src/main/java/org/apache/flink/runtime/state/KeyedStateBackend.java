@@ -75,6 +75,20 @@ public interface KeyedStateBackend<K>
      */
     <N> Stream<K> getKeys(String state, N namespace);
 
+    /**
+     * @return A stream of the keys of the given key-group for the given state and namespace. This
+     *     allows to iterate over all keys one key-group at a time, with modifications to the state
+     *     in between. Modifications to the state during iterating over its keys are not supported.
+     * @param state State variable for which existing keys will be returned.
+     * @param namespace Namespace for which existing keys will be returned.
+     * @param keyGroup Key-group of this backend for which existing keys will be returned.
+     * @throws UnsupportedOperationException if the backend cannot return the keys of a key-group.
+     */
+    default <N> Stream<K> getKeys(String state, N namespace, int keyGroup) {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support iterating over a key-group.");
+    }
+
     /**
      * @return A stream of all keys for the given state and namespace. Modifications to the state
      *     during iterating over it keys are not supported. Implementations go not make any ordering
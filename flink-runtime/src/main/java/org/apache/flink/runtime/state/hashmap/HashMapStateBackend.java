@@ -22,10 +22,13 @@ import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.configuration.StateBackendOptions;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.execution.Environment;
+import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.query.TaskKvStateRegistry;
 import org.apache.flink.runtime.state.AbstractKeyedStateBackend;
 import org.apache.flink.runtime.state.AbstractStateBackend;
@@ -40,10 +43,14 @@ import org.apache.flink.runtime.state.OperatorStateHandle;
 import org.apache.flink.runtime.state.TaskStateManager;
 import org.apache.flink.runtime.state.heap.HeapKeyedStateBackendBuilder;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
+import org.apache.flink.runtime.state.heap.OffHeapStateAllocator;
 import org.apache.flink.runtime.state.metrics.LatencyTrackingStateConfig;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.TernaryBoolean;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -69,6 +76,13 @@ import java.util.Collection;
  * application without a default savepoint directory, it will pick up a default savepoint directory
  * specified in the Flink configuration of the running job/cluster. That behavior is implemented via
  * the {@link #configure(ReadableConfig, ClassLoader)} method.
+ *
+ * <h1>Off-heap State</h1>
+ *
+ * <p>Optionally, value, reducing and aggregating states can be kept in serialized form in off-heap
+ * managed memory (see {@link StateBackendOptions#HASHMAP_OFF_HEAP_ENABLED}). This takes the bulk of
+ * the state out of the reach of the garbage collector, at the cost of (de)serialization on each
+ * access.
  */
 @PublicEvolving
 public class HashMapStateBackend extends AbstractStateBackend implements ConfigurableStateBackend {
@@ -77,12 +91,47 @@ public class HashMapStateBackend extends AbstractStateBackend implements Configu
 
     // -----------------------------------------------------------------------
 
+    /**
+     * Whether value, reducing and aggregating states are kept serialized in off-heap memory.
+     * Undefined if not configured in the application.
+     */
+    private final TernaryBoolean offHeapStateEnabled;
+
+    /** The chunk size of the off-heap state, or null if not configured in the application. */
+    @Nullable private final MemorySize offHeapChunkSize;
+
+    // -----------------------------------------------------------------------
+
     /** Creates a new state backend. */
-    public HashMapStateBackend() {}
+    public HashMapStateBackend() {
+        this.offHeapStateEnabled = TernaryBoolean.UNDEFINED;
+        this.offHeapChunkSize = null;
+    }
+
+    /**
+     * Creates a new state backend.
+     *
+     * @param offHeapStateEnabled Whether value, reducing and aggregating states are kept serialized
+     *     in off-heap managed memory.
+     */
+    public HashMapStateBackend(boolean offHeapStateEnabled) {
+        this.offHeapStateEnabled = TernaryBoolean.fromBoolean(offHeapStateEnabled);
+        this.offHeapChunkSize = null;
+    }
 
     private HashMapStateBackend(HashMapStateBackend original, ReadableConfig config) {
         // configure latency tracking
         latencyTrackingConfigBuilder = original.latencyTrackingConfigBuilder.configure(config);
+
+        // configure off-heap state, the application's settings take precedence
+        this.offHeapStateEnabled =
+                original.offHeapStateEnabled.resolveUndefined(
+                        config.get(StateBackendOptions.HASHMAP_OFF_HEAP_ENABLED));
+        this.offHeapChunkSize =
+                original.offHeapChunkSize != null
+                        ? original.offHeapChunkSize
+                        : config.get(StateBackendOptions.HASHMAP_OFF_HEAP_CHUNK_SIZE);
+        checkOffHeapChunkSize(offHeapChunkSize);
     }
 
     @Override
@@ -91,6 +140,27 @@ public class HashMapStateBackend extends AbstractStateBackend implements Configu
         return new HashMapStateBackend(this, config);
     }
 
+    /**
+     * Gets whether value, reducing and aggregating states are kept serialized in off-heap managed
+     * memory instead of as objects on the JVM heap.
+     */
+    public boolean isOffHeapStateEnabled() {
+        return offHeapStateEnabled.getOrDefault(
+                StateBackendOptions.HASHMAP_OFF_HEAP_ENABLED.defaultValue());
+    }
+
+    /** Gets the size of the memory chunks that are allocated for the off-heap state. */
+    public MemorySize getOffHeapChunkSize() {
+        return offHeapChunkSize != null
+                ? offHeapChunkSize
+                : StateBackendOptions.HASHMAP_OFF_HEAP_CHUNK_SIZE.defaultValue();
+    }
+
+    @Override
+    public boolean useManagedMemory() {
+        return isOffHeapStateEnabled();
+    }
+
     @Override
     public boolean supportsNoClaimRestoreMode() {
         // we never share any files, all snapshots are full
@@ -112,6 +182,37 @@ public class HashMapStateBackend extends AbstractStateBackend implements Configu
             CloseableRegistry cancelStreamRegistry)
             throws IOException {
 
+        return createKeyedStateBackend(
+                env,
+                jobID,
+                operatorIdentifier,
+                keySerializer,
+                numberOfKeyGroups,
+                keyGroupRange,
+                kvStateRegistry,
+                ttlTimeProvider,
+                metricGroup,
+                stateHandles,
+                cancelStreamRegistry,
+                1.0);
+    }
+
+    @Override
+    public <K> AbstractKeyedStateBackend<K> createKeyedStateBackend(
+            Environment env,
+            JobID jobID,
+            String operatorIdentifier,
+            TypeSerializer<K> keySerializer,
+            int numberOfKeyGroups,
+            KeyGroupRange keyGroupRange,
+            TaskKvStateRegistry kvStateRegistry,
+            TtlTimeProvider ttlTimeProvider,
+            MetricGroup metricGroup,
+            @Nonnull Collection<KeyedStateHandle> stateHandles,
+            CloseableRegistry cancelStreamRegistry,
+            double managedMemoryFraction)
+            throws IOException {
+
         TaskStateManager taskStateManager = env.getTaskStateManager();
         LocalRecoveryConfig localRecoveryConfig = taskStateManager.createLocalRecoveryConfig();
         HeapPriorityQueueSetFactory priorityQueueSetFactory =
@@ -134,9 +235,44 @@ public class HashMapStateBackend extends AbstractStateBackend implements Configu
                         priorityQueueSetFactory,
                         true,
                         cancelStreamRegistry)
+                .setOffHeapStateAllocator(createOffHeapStateAllocator(env, managedMemoryFraction))
                 .build();
     }
 
+    @Nullable
+    private OffHeapStateAllocator createOffHeapStateAllocator(
+            Environment env, double managedMemoryFraction) {
+        if (!isOffHeapStateEnabled()) {
+            return null;
+        }
+
+        final int chunkSize = (int) getOffHeapChunkSize().getBytes();
+        final MemoryManager memoryManager = env.getMemoryManager();
+        if (memoryManager == null) {
+            // environments without a memory manager, e.g. in tests, get unbounded memory
+            return new OffHeapStateAllocator(chunkSize);
+        }
+        if (managedMemoryFraction <= 0.0) {
+            throw new IllegalConfigurationException(
+                    "The off-heap state ('%s') is allocated from managed memory, but the operator "
+                            + "has no managed memory. Please configure managed memory for the "
+                            + "task managers or disable the off-heap state.",
+                    StateBackendOptions.HASHMAP_OFF_HEAP_ENABLED.key());
+        }
+        return new OffHeapStateAllocator(
+                chunkSize, memoryManager.computeMemorySize(managedMemoryFraction), memoryManager);
+    }
+
+    private static void checkOffHeapChunkSize(MemorySize chunkSize) {
+        if (chunkSize.getBytes() > Integer.MAX_VALUE
+                || !MathUtils.isPowerOf2(chunkSize.getBytes())) {
+            throw new IllegalConfigurationException(
+                    "The off-heap state chunk size ('%s') must be a power of two and smaller "
+                            + "than 2 gb, but was %s.",
+                    StateBackendOptions.HASHMAP_OFF_HEAP_CHUNK_SIZE.key(), chunkSize);
+        }
+    }
+
     @Override
     public OperatorStateBackend createOperatorStateBackend(
             Environment env,
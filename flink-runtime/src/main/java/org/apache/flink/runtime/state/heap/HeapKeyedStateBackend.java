@@ -245,6 +245,18 @@ public class HeapKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         return table.getKeys(namespace);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <N> Stream<K> getKeys(String state, N namespace, int keyGroup) {
+        if (!registeredKVStates.containsKey(state)) {
+            return Stream.empty();
+        }
+
+        final StateSnapshotRestore stateSnapshotRestore = registeredKVStates.get(state);
+        StateTable<K, N, ?> table = (StateTable<K, N, ?>) stateSnapshotRestore;
+        return table.getKeys(namespace, keyGroup);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <N> Stream<Tuple2<K, N>> getKeysAndNamespaces(String state) {
@@ -18,6 +18,7 @@
 
 package org.apache.flink.runtime.state.heap;
 
+import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.core.fs.CloseableRegistry;
@@ -27,14 +28,19 @@ import org.apache.flink.runtime.state.BackendBuildingException;
 import org.apache.flink.runtime.state.KeyGroupRange;
 import org.apache.flink.runtime.state.KeyedStateHandle;
 import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.RestoreOperation;
 import org.apache.flink.runtime.state.SavepointKeyedStateHandle;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.metrics.LatencyTrackingStateConfig;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.IOUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -55,6 +61,12 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
     private final HeapPriorityQueueSetFactory priorityQueueSetFactory;
     /** Whether asynchronous snapshot is enabled. */
     private final boolean asynchronousSnapshots;
+    /**
+     * Factory for the state tables, or null to keep all state in {@link CopyOnWriteStateTable}s.
+     */
+    @Nullable private StateTableFactory<K> stateTableFactory;
+    /** Resources shared by the state tables, closed when the backend is disposed. */
+    @Nullable private Closeable stateTableResources;
 
     public HeapKeyedStateBackendBuilder(
             TaskKvStateRegistry kvStateRegistry,
@@ -88,6 +100,34 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
         this.asynchronousSnapshots = asynchronousSnapshots;
     }
 
+    /**
+     * Keeps value, reducing and aggregating states in serialized form in off-heap memory of the
+     * given allocator. The built backend takes ownership of the allocator and closes it on
+     * disposal.
+     */
+    public HeapKeyedStateBackendBuilder<K> setOffHeapStateAllocator(
+            @Nullable OffHeapStateAllocator offHeapStateAllocator) {
+        if (offHeapStateAllocator == null) {
+            return setStateTableFactory(null, null);
+        }
+        return setStateTableFactory(
+                new OffHeapStateTableFactory<>(offHeapStateAllocator), offHeapStateAllocator);
+    }
+
+    /**
+     * Sets the factory for the state tables of the backend. The built backend takes ownership of
+     * the resources shared by the tables and closes them on disposal. Used by state backends in
+     * other modules, such as the spillable heap state backend.
+     */
+    @Internal
+    public HeapKeyedStateBackendBuilder<K> setStateTableFactory(
+            @Nullable StateTableFactory<K> stateTableFactory,
+            @Nullable Closeable stateTableResources) {
+        this.stateTableFactory = stateTableFactory;
+        this.stateTableResources = stateTableResources;
+        return this;
+    }
+
     @Override
     public HeapKeyedStateBackend<K> build() throws BackendBuildingException {
         // Map of registered Key/Value states
@@ -101,9 +141,25 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
         InternalKeyContext<K> keyContext =
                 new InternalKeyContextImpl<>(keyGroupRange, numberOfKeyGroups);
 
-        final StateTableFactory<K> stateTableFactory = CopyOnWriteStateTable::new;
+        final StateTableFactory<K> stateTableFactory =
+                this.stateTableFactory != null
+                        ? this.stateTableFactory
+                        : CopyOnWriteStateTable::new;
+        if (stateTableResources != null) {
+            try {
+                cancelStreamRegistryForBackend.registerCloseable(stateTableResources);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(stateTableResources);
+                throw new BackendBuildingException("Failed to register state table resources.", e);
+            }
+        }
 
-        restoreState(registeredKVStates, registeredPQStates, keyContext, stateTableFactory);
+        try {
+            restoreState(registeredKVStates, registeredPQStates, keyContext, stateTableFactory);
+        } catch (BackendBuildingException e) {
+            IOUtils.closeQuietly(cancelStreamRegistryForBackend);
+            throw e;
+        }
         return new HeapKeyedStateBackend<>(
                 kvStateRegistry,
                 keySerializerProvider.currentSchemaSerializer(),
@@ -185,4 +241,27 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
                 keySerializerProvider,
                 numberOfKeyGroups);
     }
+
+    /**
+     * Creates {@link OffHeapStateTable}s for all state types that support it and {@link
+     * CopyOnWriteStateTable}s for the others.
+     */
+    private static final class OffHeapStateTableFactory<K> implements StateTableFactory<K> {
+
+        private final OffHeapStateAllocator allocator;
+
+        private OffHeapStateTableFactory(OffHeapStateAllocator allocator) {
+            this.allocator = allocator;
+        }
+
+        @Override
+        public <N, V> StateTable<K, N, V> newStateTable(
+                InternalKeyContext<K> keyContext,
+                RegisteredKeyValueStateBackendMetaInfo<N, V> metaInfo,
+                TypeSerializer<K> keySerializer) {
+            return OffHeapStateTable.supportsStateType(metaInfo.getStateType())
+                    ? new OffHeapStateTable<>(keyContext, metaInfo, keySerializer, allocator)
+                    : new CopyOnWriteStateTable<>(keyContext, metaInfo, keySerializer);
+        }
+    }
 }
@@ -28,9 +28,11 @@ import org.apache.flink.queryablestate.client.state.serialization.KvStateSeriali
 import org.apache.flink.runtime.state.internal.InternalMapState;
 import org.apache.flink.util.Preconditions;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -92,6 +94,18 @@ class HeapMapState<K, N, UK, UV> extends AbstractHeapState<K, N, Map<UK, UV>>
         return userMap.get(userKey);
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> userKeys) {
+
+        Map<UK, UV> userMap = stateTable.get(currentNamespace);
+
+        List<UV> userValues = new ArrayList<>(userKeys.size());
+        for (UK userKey : userKeys) {
+            userValues.add(userMap == null ? null : userMap.get(userKey));
+        }
+        return userValues;
+    }
+
     @Override
     public void put(UK userKey, UV userValue) {
 
@@ -24,6 +24,9 @@ import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Heap-backed partitioned {@link ValueState} that is snapshotted into files.
  *
@@ -78,6 +81,16 @@ class HeapValueState<K, N, V> extends AbstractHeapState<K, N, V>
         return result;
     }
 
+    @Override
+    public List<V> multiGet(List<K> keys) {
+        final List<V> results = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            final V result = stateTable.get(key, currentNamespace);
+            results.add(result == null ? getDefaultValue() : result);
+        }
+        return results;
+    }
+
     @Override
     public void update(V value) {
 
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryReservationException;
+import org.apache.flink.runtime.util.IntArrayList;
+import org.apache.flink.runtime.util.LongArrayList;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * Allocator for the off-heap memory used by {@link OffHeapStateMap}s of one keyed state backend.
+ *
+ * <p>Memory is requested in chunks of a fixed size, which are carved into blocks of power-of-two
+ * size classes. Freed blocks are kept in a free list per size class and are reused by later
+ * allocations of the same class. A chunk whose blocks are all freed again is released, except for
+ * the chunk that new blocks are currently cut from. Blocks that do not fit into a chunk get a
+ * dedicated memory segment that is released as soon as the block is freed.
+ *
+ * <p>An address encodes the index of the backing segment in the upper and the offset within that
+ * segment in the lower 32 bits. The address {@link #NULL_ADDRESS} is never handed out.
+ *
+ * <p>If a {@link MemoryManager} is given, all memory is reserved from it, i.e. the off-heap state
+ * is accounted as managed memory of the slot, and the allocator never exceeds the given limit.
+ *
+ * <p>Allocating and freeing is not thread-safe and must only happen from the task thread. Resolving
+ * addresses through {@link #getSegment(long)} is safe from asynchronous snapshot threads for all
+ * blocks that are not freed yet.
+ */
+public final class OffHeapStateAllocator implements Closeable {
+
+    /** Address that never points to an allocated block. */
+    static final long NULL_ADDRESS = 0L;
+
+    /** The size of the smallest size class. */
+    private static final int MIN_BLOCK_SIZE = 16;
+
+    private static final int MIN_BLOCK_SIZE_BITS = MathUtils.log2strict(MIN_BLOCK_SIZE);
+
+    private static final long SEGMENT_OFFSET_MASK = 0xFFFFFFFFL;
+
+    /** The size of one chunk of memory, always a power of two. */
+    private final int chunkSize;
+
+    /** The maximum number of bytes that this allocator requests. */
+    private final long memoryLimit;
+
+    /** The memory manager to reserve memory from, or null if memory is not managed. */
+    @Nullable private final MemoryManager memoryManager;
+
+    /** Free blocks per size class, as addresses. */
+    private final LongArrayList[] freeLists;
+
+    /** Released indexes of dedicated segments that can be reused. */
+    private final IntArrayList freeSegmentIndexes;
+
+    /**
+     * All segments, indexed by the upper bits of the address. Index 0 is never used. The array is
+     * only replaced, never modified for existing indexes while blocks in it are live, so that
+     * snapshot threads can resolve addresses without synchronization.
+     */
+    private volatile MemorySegment[] segments;
+
+    /** The number of bytes handed out in blocks per chunk, indexed like {@link #segments}. */
+    private int[] chunkUsedBytes;
+
+    /** The next unused index in {@link #segments}. */
+    private int nextSegmentIndex;
+
+    /** The index of the chunk that new blocks are cut from, or 0 if there is none. */
+    private int currentChunkIndex;
+
+    /** The offset of the unused memory in the current chunk. */
+    private int currentChunkOffset;
+
+    /** The number of bytes currently requested by this allocator. */
+    private long reservedBytes;
+
+    /** The number of bytes currently handed out in blocks. */
+    private long usedBytes;
+
+    private boolean closed;
+
+    public OffHeapStateAllocator(int chunkSize) {
+        this(chunkSize, Long.MAX_VALUE, null);
+    }
+
+    public OffHeapStateAllocator(
+            int chunkSize, long memoryLimit, @Nullable MemoryManager memoryManager) {
+        Preconditions.checkArgument(
+                chunkSize >= MIN_BLOCK_SIZE && MathUtils.isPowerOf2(chunkSize),
+                "Chunk size must be a power of two and at least %s bytes.",
+                MIN_BLOCK_SIZE);
+        Preconditions.checkArgument(memoryLimit > 0, "Memory limit must be positive.");
+        this.chunkSize = chunkSize;
+        this.memoryLimit = memoryLimit;
+        this.memoryManager = memoryManager;
+
+        final int numSizeClasses = MathUtils.log2strict(chunkSize) - MIN_BLOCK_SIZE_BITS + 1;
+        this.freeLists = new LongArrayList[numSizeClasses];
+        for (int i = 0; i < numSizeClasses; i++) {
+            freeLists[i] = new LongArrayList(16);
+        }
+        this.freeSegmentIndexes = new IntArrayList(4);
+        this.segments = new MemorySegment[16];
+        this.chunkUsedBytes = new int[16];
+        this.nextSegmentIndex = 1;
+        this.currentChunkIndex = 0;
+        this.currentChunkOffset = chunkSize;
+    }
+
+    /**
+     * Allocates a block of at least the given size.
+     *
+     * @param size the number of bytes required.
+     * @return the address of the block.
+     * @throws FlinkRuntimeException if the memory limit would be exceeded.
+     */
+    long allocate(int size) {
+        Preconditions.checkState(!closed, "The allocator is already closed.");
+        if (size > chunkSize) {
+            return allocateDedicatedSegment(size);
+        }
+
+        final int sizeClass = sizeClassOf(size);
+        final int blockSize = MIN_BLOCK_SIZE << sizeClass;
+
+        final LongArrayList freeList = freeLists[sizeClass];
+        if (!freeList.isEmpty()) {
+            final long address = freeList.removeLong(freeList.size() - 1);
+            chunkUsedBytes[segmentIndexOf(address)] += blockSize;
+            usedBytes += blockSize;
+            return address;
+        }
+
+        if (currentChunkOffset + blockSize > chunkSize) {
+            if (currentChunkIndex != 0 && chunkUsedBytes[currentChunkIndex] == 0) {
+                releaseChunk(currentChunkIndex);
+            } else {
+                // the rest of the current chunk is too small, recycle it as smaller blocks
+                recycleRestOfCurrentChunk();
+            }
+            currentChunkIndex = addSegment(chunkSize);
+            currentChunkOffset = 0;
+        }
+
+        final long address = toAddress(currentChunkIndex, currentChunkOffset);
+        currentChunkOffset += blockSize;
+        chunkUsedBytes[currentChunkIndex] += blockSize;
+        usedBytes += blockSize;
+        return address;
+    }
+
+    /**
+     * Frees the block at the given address. The size must be the one that was requested when the
+     * block was allocated.
+     */
+    void free(long address, int size) {
+        if (closed) {
+            return;
+        }
+        if (size > chunkSize) {
+            final int segmentIndex = segmentIndexOf(address);
+            final MemorySegment segment = segments[segmentIndex];
+            segments[segmentIndex] = null;
+            freeSegmentIndexes.add(segmentIndex);
+            usedBytes -= segment.size();
+            releaseSegment(segment);
+            return;
+        }
+
+        final int sizeClass = sizeClassOf(size);
+        final int blockSize = MIN_BLOCK_SIZE << sizeClass;
+        final int chunkIndex = segmentIndexOf(address);
+        usedBytes -= blockSize;
+        freeLists[sizeClass].add(address);
+        chunkUsedBytes[chunkIndex] -= blockSize;
+        if (chunkUsedBytes[chunkIndex] == 0 && chunkIndex != currentChunkIndex) {
+            releaseChunk(chunkIndex);
+        }
+    }
+
+    /** Returns the segment that contains the block at the given address. */
+    MemorySegment getSegment(long address) {
+        return segments[segmentIndexOf(address)];
+    }
+
+    /** Returns the offset of the block at the given address within its segment. */
+    static int getOffset(long address) {
+        return (int) (address & SEGMENT_OFFSET_MASK);
+    }
+
+    /** Returns the number of bytes requested from the memory manager or the operating system. */
+    public long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /** Returns the number of bytes currently handed out in blocks. */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @VisibleForTesting
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        final MemorySegment[] allSegments = segments;
+        for (int i = 1; i < nextSegmentIndex; i++) {
+            if (allSegments[i] != null) {
+                releaseSegment(allSegments[i]);
+                allSegments[i] = null;
+            }
+        }
+        for (LongArrayList freeList : freeLists) {
+            freeList.clear();
+        }
+        usedBytes = 0L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private long allocateDedicatedSegment(int size) {
+        final int segmentIndex = addSegment(size);
+        usedBytes += size;
+        return toAddress(segmentIndex, 0);
+    }
+
+    /** Hands out the remaining memory of the current chunk as free blocks, largest first. */
+    private void recycleRestOfCurrentChunk() {
+        if (currentChunkIndex == 0) {
+            return;
+        }
+        int remaining = chunkSize - currentChunkOffset;
+        for (int sizeClass = freeLists.length - 1;
+                sizeClass >= 0 && remaining >= MIN_BLOCK_SIZE;
+                sizeClass--) {
+            final int blockSize = MIN_BLOCK_SIZE << sizeClass;
+            if (remaining >= blockSize) {
+                freeLists[sizeClass].add(toAddress(currentChunkIndex, currentChunkOffset));
+                currentChunkOffset += blockSize;
+                remaining -= blockSize;
+            }
+        }
+    }
+
+    /**
+     * Releases a chunk none of whose blocks is handed out anymore, and drops its blocks from the
+     * free lists.
+     */
+    private void releaseChunk(int chunkIndex) {
+        for (LongArrayList freeList : freeLists) {
+            final long[] addresses = freeList.toArray();
+            freeList.clear();
+            for (long address : addresses) {
+                if (segmentIndexOf(address) != chunkIndex) {
+                    freeList.add(address);
+                }
+            }
+        }
+        if (chunkIndex == currentChunkIndex) {
+            currentChunkIndex = 0;
+            currentChunkOffset = chunkSize;
+        }
+        final MemorySegment segment = segments[chunkIndex];
+        segments[chunkIndex] = null;
+        freeSegmentIndexes.add(chunkIndex);
+        releaseSegment(segment);
+    }
+
+    private int addSegment(int size) {
+        if (reservedBytes + size > memoryLimit) {
+            throw new FlinkRuntimeException(
+                    String.format(
+                            "Could not allocate %d bytes of off-heap state memory, "
+                                    + "%d of %d bytes are already in use. Please consider "
+                                    + "increasing the managed memory of the task managers, scaling "
+                                    + "out the job or disabling the off-heap state map of the heap "
+                                    + "state backend.",
+                            size, reservedBytes, memoryLimit));
+        }
+        if (memoryManager != null) {
+            try {
+                memoryManager.reserveMemory(this, size);
+            } catch (MemoryReservationException e) {
+                throw new FlinkRuntimeException(
+                        "Could not reserve managed memory for off-heap state.", e);
+            }
+        }
+        reservedBytes += size;
+
+        final MemorySegment segment =
+                MemorySegmentFactory.allocateOffHeapUnsafeMemory(size, this, () -> {});
+        final int segmentIndex;
+        if (!freeSegmentIndexes.isEmpty()) {
+            segmentIndex = freeSegmentIndexes.removeLast();
+        } else {
+            segmentIndex = nextSegmentIndex++;
+            if (segmentIndex == segments.length) {
+                segments = Arrays.copyOf(segments, segments.length * 2);
+                chunkUsedBytes = Arrays.copyOf(chunkUsedBytes, chunkUsedBytes.length * 2);
+            }
+        }
+        chunkUsedBytes[segmentIndex] = 0;
+        segments[segmentIndex] = segment;
+        return segmentIndex;
+    }
+
+    private void releaseSegment(MemorySegment segment) {
+        final int size = segment.size();
+        segment.free();
+        reservedBytes -= size;
+        if (memoryManager != null) {
+            memoryManager.releaseMemory(this, size);
+        }
+    }
+
+    private static int sizeClassOf(int size) {
+        return size <= MIN_BLOCK_SIZE
+                ? 0
+                : MathUtils.log2floor(MathUtils.roundUpToPowerOfTwo(size)) - MIN_BLOCK_SIZE_BITS;
+    }
+
+    private static int segmentIndexOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static long toAddress(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | (offset & SEGMENT_OFFSET_MASK);
+    }
+}
@@ -0,0 +1,959 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.core.memory.MemorySegmentInputStreamWithPos;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.StateTransformationFunction;
+import org.apache.flink.runtime.state.internal.InternalKvState;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.apache.flink.runtime.state.heap.OffHeapStateAllocator.NULL_ADDRESS;
+
+/**
+ * Implementation of a state map that keeps all entries in serialized form in off-heap memory, with
+ * copy-on-write support for asynchronous snapshots. This map does not support null values for key
+ * or namespace.
+ *
+ * <p>Compared to the {@link CopyOnWriteStateMap}, this map does not create any Java objects per
+ * entry. The index is an open-addressing hash table with linear probing that consists of two
+ * primitive arrays, one for the addresses of the entries and one for their hash codes. Each entry
+ * is a single block from the {@link OffHeapStateAllocator} of the owning table with the following
+ * layout:
+ *
+ * <pre>
+ * | version (4 bytes) | key length (4 bytes) | state length (4 bytes) |
+ * | serialized namespace and key (key length) | serialized state (state length) |
+ * </pre>
+ *
+ * <p>The namespace is serialized before the key, so that entries can be copied byte-wise into the
+ * format that {@link CopyOnWriteStateMapSnapshot} writes. The version of an entry is the version of
+ * the map when the entry was written. Copy-on-write works on the granularity of entries: an entry
+ * that was written before the latest snapshot is never modified. Updates instead write a new entry
+ * and remove the old one from the index, deferring the release of its memory until all snapshots
+ * that may still see it are released. Snapshots only copy the (primitive) array of addresses.
+ *
+ * <p>Since all accesses go through (de)serialization, the states returned from this map are always
+ * copies. Hence, this map can only be used for states that are not modified in place, i.e. value,
+ * reducing and aggregating states. Keys and namespaces are compared in serialized form, so their
+ * serializers must produce deterministic binary representations, as for the RocksDB state backend.
+ *
+ * <p>Unlike {@link CopyOnWriteStateMap}, resizing is not incremental, because rehashing only moves
+ * primitive values and never touches the entries themselves.
+ *
+ * <p>All methods share serialization buffers and must only be called from the task thread. In
+ * particular, concurrent reads by queryable state are not supported.
+ *
+ * @param <K> type of key.
+ * @param <N> type of namespace.
+ * @param <S> type of value.
+ */
+public class OffHeapStateMap<K, N, S> extends StateMap<K, N, S> {
+
+    /** Offset of the version in an entry. */
+    private static final int VERSION_OFFSET = 0;
+
+    /** Offset of the length of the serialized namespace and key in an entry. */
+    private static final int KEY_LENGTH_OFFSET = 4;
+
+    /** Offset of the length of the serialized state in an entry. */
+    private static final int STATE_LENGTH_OFFSET = 8;
+
+    /** Size of the header of an entry, the serialized namespace and key follow directly. */
+    static final int ENTRY_HEADER_SIZE = 12;
+
+    /** State length that marks a null state. */
+    static final int NULL_STATE_LENGTH = -1;
+
+    /** Max capacity for an {@link OffHeapStateMap}. Must be a power of two. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Default capacity for an {@link OffHeapStateMap}, allocated on the first insertion. Must be a
+     * power of two less than {@code MAXIMUM_CAPACITY}.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final long[] EMPTY_ADDRESSES = new long[0];
+
+    private static final int[] EMPTY_HASHES = new int[0];
+
+    /** The table that owns this map and provides the allocator. */
+    private final OffHeapStateTable<K, N, S> owningTable;
+
+    /** The serializer of the key. */
+    private final TypeSerializer<K> keySerializer;
+
+    /** The serializer of the namespace. */
+    private final TypeSerializer<N> namespaceSerializer;
+
+    /** The serializer of the state, can be replaced after restore. */
+    private TypeSerializer<S> stateSerializer;
+
+    /** Reusable output for the serialized namespace and key. */
+    private final DataOutputSerializer keyOutputView;
+
+    /** Reusable output for the serialized state. */
+    private final DataOutputSerializer stateOutputView;
+
+    /** Whether the state last serialized into {@link #stateOutputView} was null. */
+    private boolean serializedStateIsNull;
+
+    /** Heap segment that wraps the buffer of {@link #keyOutputView} for comparisons. */
+    private MemorySegment keySegment;
+
+    /** Reusable input over off-heap entries. */
+    private final MemorySegmentInputStreamWithPos entryInputStream;
+
+    private final DataInputViewStreamWrapper entryInputView;
+
+    /** Maintains an ordered set of version ids that are still in use by unreleased snapshots. */
+    private final TreeSet<Integer> snapshotVersions;
+
+    /** The addresses of the entries, {@link OffHeapStateAllocator#NULL_ADDRESS} if free. */
+    private long[] addresses;
+
+    /** The hash codes of the entries, in the same slots as their addresses. */
+    private int[] hashes;
+
+    /** The current number of mappings. */
+    private int size;
+
+    /** The map is resized when its size reaches this threshold, which is .75 * capacity. */
+    private int threshold;
+
+    /** The current version of this map. Used for copy-on-write mechanics. */
+    private int stateMapVersion;
+
+    /** The highest version of this map that is still required by any unreleased snapshot. */
+    private int highestRequiredSnapshotVersion;
+
+    /**
+     * The lowest version of this map that is still required by any unreleased snapshot, or {@code
+     * Integer.MAX_VALUE} if there is none. Written when snapshots are released, possibly from
+     * another thread.
+     */
+    private volatile int lowestRequiredSnapshotVersion;
+
+    /** Entries that were replaced or removed while snapshots might still read them. */
+    private long[] retiredAddresses;
+
+    private int[] retiredSizes;
+
+    /** The map version at which the corresponding entry was retired. */
+    private int[] retiredVersions;
+
+    private int retiredHead;
+
+    private int retiredTail;
+
+    /**
+     * Incremented by "structural modifications" to allow (best effort) detection of concurrent
+     * modification.
+     */
+    private int modCount;
+
+    /**
+     * Constructs a new, empty {@code OffHeapStateMap}.
+     *
+     * @param owningTable the table that owns this map.
+     */
+    OffHeapStateMap(OffHeapStateTable<K, N, S> owningTable) {
+        this.owningTable = Preconditions.checkNotNull(owningTable);
+        this.keySerializer = owningTable.getKeySerializer();
+        this.namespaceSerializer = owningTable.getNamespaceSerializer();
+        this.stateSerializer = owningTable.getStateSerializer();
+
+        this.keyOutputView = new DataOutputSerializer(64);
+        this.stateOutputView = new DataOutputSerializer(64);
+        this.keySegment = MemorySegmentFactory.wrap(keyOutputView.getSharedBuffer());
+        this.entryInputStream = new MemorySegmentInputStreamWithPos(keySegment, 0, 0);
+        this.entryInputView = new DataInputViewStreamWrapper(entryInputStream);
+
+        this.snapshotVersions = new TreeSet<>();
+        this.addresses = EMPTY_ADDRESSES;
+        this.hashes = EMPTY_HASHES;
+        this.size = 0;
+        this.threshold = 0;
+        this.stateMapVersion = 0;
+        this.highestRequiredSnapshotVersion = 0;
+        this.lowestRequiredSnapshotVersion = Integer.MAX_VALUE;
+
+        this.retiredAddresses = EMPTY_ADDRESSES;
+        this.retiredSizes = EMPTY_HASHES;
+        this.retiredVersions = EMPTY_HASHES;
+        this.retiredHead = 0;
+        this.retiredTail = 0;
+    }
+
+    // Public API from StateMap
+    // ------------------------------------------------------------------------------
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public S get(K key, N namespace) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        final int slot = lookup(hash);
+        return slot >= 0 ? readState(addresses[slot], stateSerializer) : null;
+    }
+
+    @Override
+    public boolean containsKey(K key, N namespace) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        return lookup(hash) >= 0;
+    }
+
+    @Override
+    public void put(K key, N namespace, S state) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        serializeState(state);
+        putSerialized(hash, lookup(hash));
+    }
+
+    @Override
+    public S putAndGetOld(K key, N namespace, S state) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        serializeState(state);
+        final int slot = lookup(hash);
+        final S oldState = slot >= 0 ? readState(addresses[slot], stateSerializer) : null;
+        putSerialized(hash, slot);
+        return oldState;
+    }
+
+    @Override
+    public void remove(K key, N namespace) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        final int slot = lookup(hash);
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    @Override
+    public S removeAndGetOld(K key, N namespace) {
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        final int slot = lookup(hash);
+        if (slot < 0) {
+            return null;
+        }
+        final S oldState = readState(addresses[slot], stateSerializer);
+        removeSlot(slot);
+        return oldState;
+    }
+
+    @Override
+    public <T> void transform(
+            K key, N namespace, T value, StateTransformationFunction<S, T> transformation)
+            throws Exception {
+
+        final int hash = serializeKeyAndNamespace(key, namespace);
+        final int slot = lookup(hash);
+        final S oldState = slot >= 0 ? readState(addresses[slot], stateSerializer) : null;
+        serializeState(transformation.apply(oldState, value));
+        putSerialized(hash, slot);
+    }
+
+    @Override
+    public Stream<K> getKeys(N namespace) {
+        return StreamSupport.stream(spliterator(), false)
+                .filter(entry -> entry.getNamespace().equals(namespace))
+                .map(StateEntry::getKey);
+    }
+
+    // Private implementation details of the API methods
+    // ---------------------------------------------------------------
+
+    /**
+     * Serializes namespace and key into {@link #keyOutputView} and returns the hash code of the
+     * serialized bytes.
+     */
+    private int serializeKeyAndNamespace(K key, N namespace) {
+        keyOutputView.clear();
+        try {
+            namespaceSerializer.serialize(namespace, keyOutputView);
+            keySerializer.serialize(key, keyOutputView);
+        } catch (IOException e) {
+            throw new FlinkRuntimeException("Failed to serialize key and namespace.", e);
+        }
+
+        final byte[] buffer = keyOutputView.getSharedBuffer();
+        if (keySegment.getHeapMemory() != buffer) {
+            keySegment = MemorySegmentFactory.wrap(buffer);
+        }
+        return hashBytes(buffer, keyOutputView.length());
+    }
+
+    /** Serializes the state into {@link #stateOutputView}. */
+    private void serializeState(S state) {
+        stateOutputView.clear();
+        serializedStateIsNull = state == null;
+        if (serializedStateIsNull) {
+            return;
+        }
+        try {
+            stateSerializer.serialize(state, stateOutputView);
+        } catch (IOException e) {
+            throw new FlinkRuntimeException("Failed to serialize state.", e);
+        }
+    }
+
+    /**
+     * Returns the slot of the serialized namespace and key in {@link #keyOutputView}, or {@code
+     * -(insertion slot) - 1} if there is no such entry.
+     */
+    private int lookup(int hash) {
+        final long[] tab = addresses;
+        if (tab.length == 0) {
+            return -1;
+        }
+        final int mask = tab.length - 1;
+        final int keyLength = keyOutputView.length();
+        final OffHeapStateAllocator allocator = owningTable.getAllocator();
+
+        int slot = hash & mask;
+        while (true) {
+            final long address = tab[slot];
+            if (address == NULL_ADDRESS) {
+                return -slot - 1;
+            }
+            if (hashes[slot] == hash) {
+                final MemorySegment segment = allocator.getSegment(address);
+                final int offset = OffHeapStateAllocator.getOffset(address);
+                if (segment.getInt(offset + KEY_LENGTH_OFFSET) == keyLength
+                        && segment.equalTo(keySegment, offset + ENTRY_HEADER_SIZE, 0, keyLength)) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Writes the serialized state in {@link #stateOutputView} for the serialized namespace and key
+     * in {@link #keyOutputView}.
+     *
+     * @param hash the hash code of the namespace and key.
+     * @param slot the result of {@link #lookup(int)} for the namespace and key.
+     */
+    private void putSerialized(int hash, int slot) {
+        reclaimRetiredEntries();
+
+        if (slot >= 0) {
+            replaceEntry(slot);
+            return;
+        }
+
+        if (size >= threshold) {
+            resize();
+            slot = lookup(hash);
+        }
+
+        final int freeSlot = -slot - 1;
+        addresses[freeSlot] = writeEntry(keySegment, 0, keyOutputView.length());
+        hashes[freeSlot] = hash;
+        ++size;
+        ++modCount;
+    }
+
+    /** Replaces the state of the entry in the slot with the one in {@link #stateOutputView}. */
+    private void replaceEntry(int slot) {
+        final OffHeapStateAllocator allocator = owningTable.getAllocator();
+        final long oldAddress = addresses[slot];
+        final MemorySegment oldSegment = allocator.getSegment(oldAddress);
+        final int oldOffset = OffHeapStateAllocator.getOffset(oldAddress);
+        final int oldVersion = oldSegment.getInt(oldOffset + VERSION_OFFSET);
+        final int keyLength = oldSegment.getInt(oldOffset + KEY_LENGTH_OFFSET);
+        final int oldEntrySize =
+                entrySize(keyLength, oldSegment.getInt(oldOffset + STATE_LENGTH_OFFSET));
+        final int newEntrySize = entrySize(keyLength, stateLength());
+
+        // copy-on-write check for entry
+        if (oldVersion >= highestRequiredSnapshotVersion && oldEntrySize == newEntrySize) {
+            writeStateInPlace(oldSegment, oldOffset, keyLength);
+            return;
+        }
+
+        addresses[slot] = writeEntry(oldSegment, oldOffset + ENTRY_HEADER_SIZE, keyLength);
+        releaseEntry(oldAddress, oldEntrySize, oldVersion);
+    }
+
+    /** Removes the entry in the given slot and closes the gap by shifting following entries. */
+    private void removeSlot(int slot) {
+        reclaimRetiredEntries();
+
+        final OffHeapStateAllocator allocator = owningTable.getAllocator();
+        final long address = addresses[slot];
+        final MemorySegment segment = allocator.getSegment(address);
+        final int offset = OffHeapStateAllocator.getOffset(address);
+        releaseEntry(
+                address,
+                entrySize(
+                        segment.getInt(offset + KEY_LENGTH_OFFSET),
+                        segment.getInt(offset + STATE_LENGTH_OFFSET)),
+                segment.getInt(offset + VERSION_OFFSET));
+
+        final long[] tab = addresses;
+        final int mask = tab.length - 1;
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            final long currentAddress = tab[current];
+            if (currentAddress == NULL_ADDRESS) {
+                break;
+            }
+            final int home = hashes[current] & mask;
+            // the entry can move into the hole unless its home is cyclically in (hole, current]
+            final boolean canMove =
+                    hole <= current
+                            ? (home <= hole || home > current)
+                            : (home <= hole && home > current);
+            if (canMove) {
+                tab[hole] = currentAddress;
+                hashes[hole] = hashes[current];
+                hole = current;
+            }
+        }
+        tab[hole] = NULL_ADDRESS;
+        hashes[hole] = 0;
+
+        --size;
+        ++modCount;
+    }
+
+    /** Writes a new entry with the given namespace and key and the state in the output view. */
+    private long writeEntry(MemorySegment keySource, int keyOffset, int keyLength) {
+        final int stateLength = stateLength();
+        final OffHeapStateAllocator allocator = owningTable.getAllocator();
+        final long address = allocator.allocate(entrySize(keyLength, stateLength));
+        final MemorySegment segment = allocator.getSegment(address);
+        final int offset = OffHeapStateAllocator.getOffset(address);
+
+        segment.putInt(offset + VERSION_OFFSET, stateMapVersion);
+        segment.putInt(offset + KEY_LENGTH_OFFSET, keyLength);
+        keySource.copyTo(keyOffset, segment, offset + ENTRY_HEADER_SIZE, keyLength);
+        writeStateInPlace(segment, offset, keyLength);
+        return address;
+    }
+
+    private void writeStateInPlace(MemorySegment segment, int offset, int keyLength) {
+        final int stateLength = stateLength();
+        segment.putInt(offset + STATE_LENGTH_OFFSET, stateLength);
+        if (stateLength > 0) {
+            segment.put(
+                    offset + ENTRY_HEADER_SIZE + keyLength,
+                    stateOutputView.getSharedBuffer(),
+                    0,
+                    stateLength);
+        }
+    }
+
+    private int stateLength() {
+        return serializedStateIsNull ? NULL_STATE_LENGTH : stateOutputView.length();
+    }
+
+    /**
+     * Releases the memory of an entry that is no longer in the index, or defers the release if a
+     * snapshot might still read the entry.
+     */
+    private void releaseEntry(long address, int entrySize, int entryVersion) {
+        if (entryVersion >= highestRequiredSnapshotVersion) {
+            owningTable.getAllocator().free(address, entrySize);
+            return;
+        }
+
+        if (retiredTail == retiredAddresses.length) {
+            growRetiredEntries();
+        }
+        retiredAddresses[retiredTail] = address;
+        retiredSizes[retiredTail] = entrySize;
+        retiredVersions[retiredTail] = stateMapVersion;
+        ++retiredTail;
+    }
+
+    /** Releases the memory of all retired entries that no unreleased snapshot can read anymore. */
+    private void reclaimRetiredEntries() {
+        if (retiredHead == retiredTail) {
+            return;
+        }
+
+        // a snapshot can only see entries that were retired at or after its version
+        final int lowestRequiredVersion = lowestRequiredSnapshotVersion;
+        final OffHeapStateAllocator allocator = owningTable.getAllocator();
+        while (retiredHead < retiredTail && retiredVersions[retiredHead] < lowestRequiredVersion) {
+            allocator.free(retiredAddresses[retiredHead], retiredSizes[retiredHead]);
+            ++retiredHead;
+        }
+
+        if (retiredHead == retiredTail) {
+            retiredHead = 0;
+            retiredTail = 0;
+        }
+    }
+
+    private void growRetiredEntries() {
+        final int numRetired = retiredTail - retiredHead;
+        final int newCapacity = Math.max(16, numRetired * 2);
+        retiredAddresses = copyRange(retiredAddresses, retiredHead, retiredTail, newCapacity);
+        retiredSizes = copyRange(retiredSizes, retiredHead, retiredTail, newCapacity);
+        retiredVersions = copyRange(retiredVersions, retiredHead, retiredTail, newCapacity);
+        retiredHead = 0;
+        retiredTail = numRetired;
+    }
+
+    /** Doubles the capacity of the index and re-inserts all addresses. */
+    private void resize() {
+        final long[] oldAddresses = addresses;
+        final int[] oldHashes = hashes;
+        final int oldCapacity = oldAddresses.length;
+
+        if (oldCapacity == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException(
+                    "Maximum capacity of OffHeapStateMap is reached and the job "
+                            + "cannot continue. Please consider scaling-out your job or using "
+                            + "a different keyed state backend implementation!");
+        }
+
+        final int newCapacity = oldCapacity == 0 ? DEFAULT_CAPACITY : oldCapacity << 1;
+        final long[] newAddresses = new long[newCapacity];
+        final int[] newHashes = new int[newCapacity];
+        final int mask = newCapacity - 1;
+
+        for (int i = 0; i < oldCapacity; i++) {
+            final long address = oldAddresses[i];
+            if (address != NULL_ADDRESS) {
+                int slot = oldHashes[i] & mask;
+                while (newAddresses[slot] != NULL_ADDRESS) {
+                    slot = (slot + 1) & mask;
+                }
+                newAddresses[slot] = address;
+                newHashes[slot] = oldHashes[i];
+            }
+        }
+
+        addresses = newAddresses;
+        hashes = newHashes;
+        threshold = (newCapacity >> 1) + (newCapacity >> 2); // 3/4 capacity
+        ++modCount;
+    }
+
+    /** Deserializes the state of the entry at the given address. */
+    private S readState(long address, TypeSerializer<S> serializer) {
+        return readState(
+                owningTable.getAllocator(), address, serializer, entryInputStream, entryInputView);
+    }
+
+    /**
+     * Re-serializes all states with the given serializer, if it differs from the current one. This
+     * is required if the state serializer was replaced after restore, e.g. for schema evolution.
+     */
+    void updateStateSerializer(TypeSerializer<S> newStateSerializer) {
+        if (newStateSerializer == stateSerializer) {
+            return;
+        }
+
+        final TypeSerializer<S> previousStateSerializer = stateSerializer;
+        stateSerializer = newStateSerializer;
+        for (int slot = 0; slot < addresses.length; slot++) {
+            final long address = addresses[slot];
+            if (address != NULL_ADDRESS) {
+                serializeState(readState(address, previousStateSerializer));
+                replaceEntry(slot);
+            }
+        }
+    }
+
+    // Iteration
+    // ------------------------------------------------------------------------
+
+    @Nonnull
+    @Override
+    public Iterator<StateEntry<K, N, S>> iterator() {
+        return new StateEntryIterator();
+    }
+
+    // Snapshots
+    // -------------------------------------------------------------
+
+    /** @see #releaseSnapshot(StateMapSnapshot) */
+    @VisibleForTesting
+    void releaseSnapshot(int snapshotVersion) {
+        // we guard against concurrent modifications of the required versions between snapshot and
+        // release. Only stale reads of from the result of #releaseSnapshot calls are ok.
+        synchronized (snapshotVersions) {
+            Preconditions.checkState(
+                    snapshotVersions.remove(snapshotVersion),
+                    "Attempt to release unknown snapshot version");
+            highestRequiredSnapshotVersion =
+                    snapshotVersions.isEmpty() ? 0 : snapshotVersions.last();
+            lowestRequiredSnapshotVersion =
+                    snapshotVersions.isEmpty() ? Integer.MAX_VALUE : snapshotVersions.first();
+        }
+    }
+
+    /**
+     * Creates a compact copy of the addresses for a snapshot. This method must be called by the
+     * same Thread that does modifications to the {@link OffHeapStateMap}.
+     */
+    long[] snapshotAddresses() {
+        synchronized (snapshotVersions) {
+            // increase the map version for copy-on-write and register the snapshot
+            if (++stateMapVersion < 0) {
+                // this is just a safety net against overflows, but should never happen in practice
+                // (i.e., only after 2^31 snapshots)
+                throw new IllegalStateException(
+                        "Version count overflow in OffHeapStateMap. Enforcing restart.");
+            }
+
+            highestRequiredSnapshotVersion = stateMapVersion;
+            snapshotVersions.add(highestRequiredSnapshotVersion);
+            lowestRequiredSnapshotVersion = snapshotVersions.first();
+        }
+
+        final long[] copy = new long[size];
+        int count = 0;
+        for (long address : addresses) {
+            if (address != NULL_ADDRESS) {
+                copy[count++] = address;
+            }
+        }
+        return copy;
+    }
+
+    int getStateMapVersion() {
+        return stateMapVersion;
+    }
+
+    OffHeapStateAllocator getAllocator() {
+        return owningTable.getAllocator();
+    }
+
+    /**
+     * Creates a snapshot of this {@link OffHeapStateMap}, to be written in checkpointing. The
+     * snapshot integrity is protected through copy-on-write from the {@link OffHeapStateMap}. Users
+     * should call {@link #releaseSnapshot(StateMapSnapshot)} after using the returned object.
+     *
+     * @return a snapshot from this {@link OffHeapStateMap}, for checkpointing.
+     */
+    @Nonnull
+    @Override
+    public OffHeapStateMapSnapshot<K, N, S> stateSnapshot() {
+        return new OffHeapStateMapSnapshot<>(this);
+    }
+
+    /**
+     * Releases a snapshot for this {@link OffHeapStateMap}. This method should be called once a
+     * snapshot is no more needed, so that the memory of replaced entries can be reclaimed.
+     *
+     * @param snapshotToRelease the snapshot to release, which was previously created by this state
+     *     map.
+     */
+    @Override
+    public void releaseSnapshot(
+            StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>> snapshotToRelease) {
+
+        OffHeapStateMapSnapshot<K, N, S> offHeapStateMapSnapshot =
+                (OffHeapStateMapSnapshot<K, N, S>) snapshotToRelease;
+
+        Preconditions.checkArgument(
+                offHeapStateMapSnapshot.isOwner(this),
+                "Cannot release snapshot which is owned by a different state map.");
+
+        releaseSnapshot(offHeapStateMapSnapshot.getSnapshotVersion());
+    }
+
+    @VisibleForTesting
+    Set<Integer> getSnapshotVersions() {
+        return snapshotVersions;
+    }
+
+    @VisibleForTesting
+    int getNumberOfRetiredEntries() {
+        return retiredTail - retiredHead;
+    }
+
+    // Static helpers shared with the snapshot
+    // ---------------------------------------------------------------
+
+    static int entrySize(int keyLength, int stateLength) {
+        return ENTRY_HEADER_SIZE + keyLength + Math.max(stateLength, 0);
+    }
+
+    static <S> S readState(
+            OffHeapStateAllocator allocator,
+            long address,
+            TypeSerializer<S> serializer,
+            MemorySegmentInputStreamWithPos inputStream,
+            DataInputViewStreamWrapper inputView) {
+
+        final MemorySegment segment = allocator.getSegment(address);
+        final int offset = OffHeapStateAllocator.getOffset(address);
+        final int keyLength = segment.getInt(offset + KEY_LENGTH_OFFSET);
+        final int stateLength = segment.getInt(offset + STATE_LENGTH_OFFSET);
+        if (stateLength == NULL_STATE_LENGTH) {
+            return null;
+        }
+
+        inputStream.setSegment(segment, offset + ENTRY_HEADER_SIZE + keyLength, stateLength);
+        try {
+            return serializer.deserialize(inputView);
+        } catch (IOException e) {
+            throw new FlinkRuntimeException("Failed to deserialize state.", e);
+        }
+    }
+
+    static <K, N, S> StateEntry<K, N, S> readEntry(
+            OffHeapStateAllocator allocator,
+            long address,
+            TypeSerializer<K> keySerializer,
+            TypeSerializer<N> namespaceSerializer,
+            TypeSerializer<S> stateSerializer,
+            MemorySegmentInputStreamWithPos inputStream,
+            DataInputViewStreamWrapper inputView) {
+
+        final MemorySegment segment = allocator.getSegment(address);
+        final int offset = OffHeapStateAllocator.getOffset(address);
+        final int keyLength = segment.getInt(offset + KEY_LENGTH_OFFSET);
+
+        inputStream.setSegment(segment, offset + ENTRY_HEADER_SIZE, keyLength);
+        final N namespace;
+        final K key;
+        try {
+            namespace = namespaceSerializer.deserialize(inputView);
+            key = keySerializer.deserialize(inputView);
+        } catch (IOException e) {
+            throw new FlinkRuntimeException("Failed to deserialize key and namespace.", e);
+        }
+        final S state = readState(allocator, address, stateSerializer, inputStream, inputView);
+        return new StateEntry.SimpleStateEntry<>(key, namespace, state);
+    }
+
+    static int getKeyOffset(int entryOffset) {
+        return entryOffset + ENTRY_HEADER_SIZE;
+    }
+
+    static int getKeyLength(MemorySegment segment, int entryOffset) {
+        return segment.getInt(entryOffset + KEY_LENGTH_OFFSET);
+    }
+
+    static int getStateLength(MemorySegment segment, int entryOffset) {
+        return segment.getInt(entryOffset + STATE_LENGTH_OFFSET);
+    }
+
+    private static int hashBytes(byte[] bytes, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return MathUtils.bitMix(hash);
+    }
+
+    private static long[] copyRange(long[] array, int from, int to, int newLength) {
+        final long[] copy = new long[newLength];
+        System.arraycopy(array, from, copy, 0, to - from);
+        return copy;
+    }
+
+    private static int[] copyRange(int[] array, int from, int to, int newLength) {
+        final int[] copy = new int[newLength];
+        System.arraycopy(array, from, copy, 0, to - from);
+        return copy;
+    }
+
+    // For testing
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int sizeOfNamespace(Object namespace) {
+        int count = 0;
+        for (StateEntry<K, N, S> entry : this) {
+            if (null != entry && namespace.equals(entry.getNamespace())) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    // StateEntryIterator
+    // ------------------------------------------------------------------------
+
+    @Override
+    public InternalKvState.StateIncrementalVisitor<K, N, S> getStateIncrementalVisitor(
+            int recommendedMaxNumberOfReturnedRecords) {
+        return new StateIncrementalVisitorImpl(recommendedMaxNumberOfReturnedRecords);
+    }
+
+    /** Returns the entry in the given slot, or null if the slot is free. */
+    private StateEntry<K, N, S> readEntryInSlot(long[] tab, int slot) {
+        final long address = tab[slot];
+        return address == NULL_ADDRESS
+                ? null
+                : readEntry(
+                        owningTable.getAllocator(),
+                        address,
+                        keySerializer,
+                        namespaceSerializer,
+                        stateSerializer,
+                        entryInputStream,
+                        entryInputView);
+    }
+
+    /**
+     * Iterator over state entries in an {@link OffHeapStateMap} which does not tolerate concurrent
+     * modifications.
+     */
+    class StateEntryIterator implements Iterator<StateEntry<K, N, S>> {
+
+        private final long[] tab;
+        private final int expectedModCount;
+        private int nextSlot;
+
+        StateEntryIterator() {
+            this.tab = addresses;
+            this.expectedModCount = modCount;
+            this.nextSlot = 0;
+            advanceToNextEntry();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < tab.length;
+        }
+
+        @Override
+        public StateEntry<K, N, S> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final StateEntry<K, N, S> entry = readEntryInSlot(tab, nextSlot++);
+            advanceToNextEntry();
+            return entry;
+        }
+
+        private void advanceToNextEntry() {
+            while (nextSlot < tab.length && tab[nextSlot] == NULL_ADDRESS) {
+                nextSlot++;
+            }
+        }
+    }
+
+    /**
+     * Incremental visitor over state entries in an {@link OffHeapStateMap}.
+     *
+     * <p>The visitor traverses the slots backwards, starting before a slot that was empty when the
+     * traversal started. Removals close gaps by moving entries to preceding slots, so entries may
+     * move into slots that are still to be visited, but never into slots that were visited already.
+     * A resize restarts the traversal on the new index, which can return entries again.
+     */
+    class StateIncrementalVisitorImpl implements InternalKvState.StateIncrementalVisitor<K, N, S> {
+
+        private final int maxTraversedSlots;
+        private final Collection<StateEntry<K, N, S>> entriesToReturn;
+        private long[] tab;
+        private int nextSlot;
+        private int remainingSlots;
+
+        StateIncrementalVisitorImpl(int recommendedMaxNumberOfReturnedRecords) {
+            this.maxTraversedSlots = Math.max(1, recommendedMaxNumberOfReturnedRecords);
+            this.entriesToReturn = new ArrayList<>(this.maxTraversedSlots);
+            startTraversal();
+        }
+
+        private void startTraversal() {
+            tab = addresses;
+            remainingSlots = tab.length;
+            nextSlot = 0;
+            // the load factor guarantees an empty slot
+            for (int slot = 0; slot < tab.length; slot++) {
+                if (tab[slot] == NULL_ADDRESS) {
+                    nextSlot = (slot - 1) & (tab.length - 1);
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (tab != addresses) {
+                // the map was resized, restart on the new index
+                startTraversal();
+            }
+            return size > 0 && remainingSlots > 0;
+        }
+
+        @Override
+        public Collection<StateEntry<K, N, S>> nextEntries() {
+            if (!hasNext()) {
+                return null;
+            }
+
+            entriesToReturn.clear();
+            final int mask = tab.length - 1;
+            for (int traversed = 0;
+                    traversed < maxTraversedSlots && remainingSlots > 0;
+                    traversed++) {
+                final StateEntry<K, N, S> entry = readEntryInSlot(tab, nextSlot);
+                if (entry != null) {
+                    entriesToReturn.add(entry);
+                }
+                nextSlot = (nextSlot - 1) & mask;
+                remainingSlots--;
+            }
+            return entriesToReturn;
+        }
+
+        @Override
+        public void remove(StateEntry<K, N, S> stateEntry) {
+            OffHeapStateMap.this.remove(stateEntry.getKey(), stateEntry.getNamespace());
+        }
+
+        @Override
+        public void update(StateEntry<K, N, S> stateEntry, S newValue) {
+            OffHeapStateMap.this.put(stateEntry.getKey(), stateEntry.getNamespace(), newValue);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.core.memory.MemorySegmentInputStreamWithPos;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.StateSnapshotTransformer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents the snapshot of an {@link OffHeapStateMap}.
+ *
+ * <p>The snapshot holds a copy of the addresses of all entries at the time it was created. The
+ * entries themselves are protected through copy-on-write by the {@link OffHeapStateMap}, which
+ * neither modifies nor frees them until the snapshot is released. Without a {@link
+ * StateSnapshotTransformer}, entries are written byte-wise without deserialization.
+ *
+ * @param <K> type of key
+ * @param <N> type of namespace
+ * @param <S> type of state
+ */
+public class OffHeapStateMapSnapshot<K, N, S>
+        extends StateMapSnapshot<K, N, S, OffHeapStateMap<K, N, S>> {
+
+    /**
+     * Version of the {@link OffHeapStateMap} when this snapshot was created. This can be used to
+     * release the snapshot.
+     */
+    private final int snapshotVersion;
+
+    /** The addresses of all entries, as by the time this snapshot was created. */
+    @Nonnull private final long[] snapshotAddresses;
+
+    /** The allocator to resolve the addresses. */
+    @Nonnull private final OffHeapStateAllocator allocator;
+
+    /** Whether this snapshot has been released. */
+    private boolean released;
+
+    /**
+     * Creates a new {@link OffHeapStateMapSnapshot}.
+     *
+     * @param owningStateMap the {@link OffHeapStateMap} for which this object represents a
+     *     snapshot.
+     */
+    OffHeapStateMapSnapshot(OffHeapStateMap<K, N, S> owningStateMap) {
+        super(owningStateMap);
+
+        this.snapshotAddresses = owningStateMap.snapshotAddresses();
+        this.snapshotVersion = owningStateMap.getStateMapVersion();
+        this.allocator = owningStateMap.getAllocator();
+        this.released = false;
+    }
+
+    @Override
+    public void release() {
+        if (!released) {
+            owningStateMap.releaseSnapshot(this);
+            released = true;
+        }
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Returns the internal version of the {@link OffHeapStateMap} when this snapshot was created.
+     * This value must be used to tell the {@link OffHeapStateMap} when to release this snapshot.
+     */
+    int getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    @Override
+    public Iterator<StateEntry<K, N, S>> getIterator(
+            @Nonnull TypeSerializer<K> keySerializer,
+            @Nonnull TypeSerializer<N> namespaceSerializer,
+            @Nonnull TypeSerializer<S> stateSerializer,
+            @Nullable final StateSnapshotTransformer<S> stateSnapshotTransformer) {
+
+        return new SnapshotIterator(
+                keySerializer, namespaceSerializer, stateSerializer, stateSnapshotTransformer);
+    }
+
+    @Override
+    public void writeState(
+            TypeSerializer<K> keySerializer,
+            TypeSerializer<N> namespaceSerializer,
+            TypeSerializer<S> stateSerializer,
+            @Nonnull DataOutputView dov,
+            @Nullable StateSnapshotTransformer<S> stateSnapshotTransformer)
+            throws IOException {
+
+        if (stateSnapshotTransformer != null) {
+            writeTransformedState(
+                    keySerializer,
+                    namespaceSerializer,
+                    stateSerializer,
+                    dov,
+                    stateSnapshotTransformer);
+            return;
+        }
+
+        dov.writeInt(snapshotAddresses.length);
+        for (long address : snapshotAddresses) {
+            final MemorySegment segment = allocator.getSegment(address);
+            final int offset = OffHeapStateAllocator.getOffset(address);
+            final int keyLength = OffHeapStateMap.getKeyLength(segment, offset);
+            final int stateLength = OffHeapStateMap.getStateLength(segment, offset);
+
+            // namespace and key are stored in the order of the snapshot format
+            segment.get(dov, OffHeapStateMap.getKeyOffset(offset), keyLength);
+            if (stateLength == OffHeapStateMap.NULL_STATE_LENGTH) {
+                stateSerializer.serialize(null, dov);
+            } else {
+                segment.get(dov, OffHeapStateMap.getKeyOffset(offset) + keyLength, stateLength);
+            }
+        }
+    }
+
+    private void writeTransformedState(
+            TypeSerializer<K> keySerializer,
+            TypeSerializer<N> namespaceSerializer,
+            TypeSerializer<S> stateSerializer,
+            @Nonnull DataOutputView dov,
+            @Nonnull StateSnapshotTransformer<S> stateSnapshotTransformer)
+            throws IOException {
+
+        // the number of entries is only known after transformation
+        final List<StateEntry<K, N, S>> transformedEntries = new ArrayList<>();
+        final Iterator<StateEntry<K, N, S>> iterator =
+                getIterator(
+                        keySerializer,
+                        namespaceSerializer,
+                        stateSerializer,
+                        stateSnapshotTransformer);
+        while (iterator.hasNext()) {
+            transformedEntries.add(iterator.next());
+        }
+
+        dov.writeInt(transformedEntries.size());
+        for (StateEntry<K, N, S> stateEntry : transformedEntries) {
+            namespaceSerializer.serialize(stateEntry.getNamespace(), dov);
+            keySerializer.serialize(stateEntry.getKey(), dov);
+            stateSerializer.serialize(stateEntry.getState(), dov);
+        }
+    }
+
+    /** Iterator over the deserialized entries of an {@link OffHeapStateMapSnapshot}. */
+    private class SnapshotIterator implements Iterator<StateEntry<K, N, S>> {
+
+        private final TypeSerializer<K> keySerializer;
+        private final TypeSerializer<N> namespaceSerializer;
+        private final TypeSerializer<S> stateSerializer;
+        @Nullable private final StateSnapshotTransformer<S> stateSnapshotTransformer;
+
+        private final MemorySegmentInputStreamWithPos inputStream;
+        private final DataInputViewStreamWrapper inputView;
+
+        private int nextIndex;
+        private StateEntry<K, N, S> nextEntry;
+
+        SnapshotIterator(
+                TypeSerializer<K> keySerializer,
+                TypeSerializer<N> namespaceSerializer,
+                TypeSerializer<S> stateSerializer,
+                @Nullable StateSnapshotTransformer<S> stateSnapshotTransformer) {
+            this.keySerializer = keySerializer;
+            this.namespaceSerializer = namespaceSerializer;
+            this.stateSerializer = stateSerializer;
+            this.stateSnapshotTransformer = stateSnapshotTransformer;
+            this.inputStream =
+                    new MemorySegmentInputStreamWithPos(
+                            MemorySegmentFactory.wrap(new byte[0]), 0, 0);
+            this.inputView = new DataInputViewStreamWrapper(inputStream);
+            this.nextIndex = 0;
+            this.nextEntry = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public StateEntry<K, N, S> next() {
+            if (nextEntry == null) {
+                throw new NoSuchElementException();
+            }
+            final StateEntry<K, N, S> entry = nextEntry;
+            nextEntry = advance();
+            return entry;
+        }
+
+        private StateEntry<K, N, S> advance() {
+            while (nextIndex < snapshotAddresses.length) {
+                final StateEntry<K, N, S> entry =
+                        OffHeapStateMap.readEntry(
+                                allocator,
+                                snapshotAddresses[nextIndex++],
+                                keySerializer,
+                                namespaceSerializer,
+                                stateSerializer,
+                                inputStream,
+                                inputView);
+
+                if (stateSnapshotTransformer == null) {
+                    return entry;
+                }
+
+                final S transformedState =
+                        stateSnapshotTransformer.filterOrTransform(entry.getState());
+                if (transformedState != null) {
+                    return new StateEntry.SimpleStateEntry<>(
+                            entry.getKey(), entry.getNamespace(), transformedState);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This implementation of {@link StateTable} uses {@link OffHeapStateMap}. This implementation
+ * supports asynchronous snapshots.
+ *
+ * <p>All maps of the table share the {@link OffHeapStateAllocator} of the backend. The allocator is
+ * only accessed through the table, because the maps are created by the constructor of {@link
+ * StateTable} before any field of this class is initialized.
+ *
+ * @param <K> type of key.
+ * @param <N> type of namespace.
+ * @param <S> type of state.
+ */
+public class OffHeapStateTable<K, N, S> extends StateTable<K, N, S> {
+
+    /** The allocator for the entries of all maps in this table. */
+    private final OffHeapStateAllocator allocator;
+
+    /**
+     * Constructs a new {@code OffHeapStateTable}.
+     *
+     * @param keyContext the key context.
+     * @param metaInfo the meta information, including the type serializer for state copy-on-write.
+     * @param keySerializer the serializer of the key.
+     * @param allocator the allocator for the off-heap memory of the entries.
+     */
+    OffHeapStateTable(
+            InternalKeyContext<K> keyContext,
+            RegisteredKeyValueStateBackendMetaInfo<N, S> metaInfo,
+            TypeSerializer<K> keySerializer,
+            OffHeapStateAllocator allocator) {
+        super(keyContext, metaInfo, keySerializer);
+        this.allocator = Preconditions.checkNotNull(allocator);
+    }
+
+    /**
+     * Returns whether states of the given type can be kept in an {@link OffHeapStateTable}. This is
+     * only the case for types whose heap states never modify the objects obtained from the table in
+     * place.
+     */
+    static boolean supportsStateType(StateDescriptor.Type stateType) {
+        switch (stateType) {
+            case VALUE:
+            case REDUCING:
+            case AGGREGATING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected OffHeapStateMap<K, N, S> createStateMap() {
+        return new OffHeapStateMap<>(this);
+    }
+
+    OffHeapStateAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public void setMetaInfo(RegisteredKeyValueStateBackendMetaInfo<N, S> metaInfo) {
+        super.setMetaInfo(metaInfo);
+
+        // the serialized states must follow a new serializer
+        final TypeSerializer<S> stateSerializer = metaInfo.getStateSerializer();
+        for (StateMap<K, N, S> stateMap : keyGroupedStateMaps) {
+            ((OffHeapStateMap<K, N, S>) stateMap).updateStateSerializer(stateSerializer);
+        }
+    }
+
+    // Snapshotting
+    // ------------------------------------------------------------------------
+
+    /**
+     * Creates a snapshot of this {@link OffHeapStateTable}, to be written in checkpointing.
+     *
+     * @return a snapshot from this {@link OffHeapStateTable}, for checkpointing.
+     */
+    @Nonnull
+    @Override
+    public OffHeapStateTableSnapshot<K, N, S> stateSnapshot() {
+        return new OffHeapStateTableSnapshot<>(
+                this,
+                getKeySerializer().duplicate(),
+                getNamespaceSerializer().duplicate(),
+                getStateSerializer().duplicate(),
+                getMetaInfo()
+                        .getStateSnapshotTransformFactory()
+                        .createForDeserializedState()
+                        .orElse(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    List<OffHeapStateMapSnapshot<K, N, S>> getStateMapSnapshotList() {
+        List<OffHeapStateMapSnapshot<K, N, S>> snapshotList =
+                new ArrayList<>(keyGroupedStateMaps.length);
+        for (int i = 0; i < keyGroupedStateMaps.length; i++) {
+            OffHeapStateMap<K, N, S> stateMap = (OffHeapStateMap<K, N, S>) keyGroupedStateMaps[i];
+            snapshotList.add(stateMap.stateSnapshot());
+        }
+        return snapshotList;
+    }
+}
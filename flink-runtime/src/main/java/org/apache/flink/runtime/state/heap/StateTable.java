@@ -239,6 +239,10 @@ public abstract class StateTable<K, N, S>
                 .map(StateEntry::getKey);
     }
 
+    public Stream<K> getKeys(N namespace, int keyGroupIndex) {
+        return getMapForKeyGroup(keyGroupIndex).getKeys(namespace);
+    }
+
     public Stream<Tuple2<K, N>> getKeysAndNamespaces() {
         return Arrays.stream(keyGroupedStateMaps)
                 .flatMap(
@@ -18,6 +18,7 @@
 
 package org.apache.flink.runtime.state.heap;
 
+import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 
@@ -26,8 +27,9 @@ import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
  *
  * @param <K> The type of key on which a state backend is keyed
  */
+@Internal
 @FunctionalInterface
-interface StateTableFactory<K> {
+public interface StateTableFactory<K> {
     <N, V> StateTable<K, N, V> newStateTable(
             InternalKeyContext<K> keyContext,
             RegisteredKeyValueStateBackendMetaInfo<N, V> keyValueStateMetaInfo,
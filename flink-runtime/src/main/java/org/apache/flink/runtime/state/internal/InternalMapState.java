@@ -20,6 +20,7 @@ package org.apache.flink.runtime.state.internal;
 
 import org.apache.flink.api.common.state.MapState;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,4 +34,37 @@ import java.util.Map;
  * @param <UV> Type of the value in the state
  */
 public interface InternalMapState<K, N, UK, UV>
-        extends InternalKvState<K, N, Map<UK, UV>>, MapState<UK, UV> {}
+        extends InternalKvState<K, N, Map<UK, UV>>, MapState<UK, UV> {
+
+    /**
+     * Returns the values of the given user keys under the current key and namespace, in the order
+     * of the given user keys. This is the batched variant of {@link #get(Object)}, which allows
+     * backends to look up all user keys at once.
+     *
+     * <p>The lookup is read-only: for states with TTL it neither renews the timestamps of the
+     * values nor cleans up expired values.
+     *
+     * @param userKeys the user keys to look up.
+     * @return the values of the user keys, null for user keys without a value.
+     * @throws Exception Thrown if the system cannot access the state.
+     */
+    List<UV> multiGet(List<UK> userKeys) throws Exception;
+
+    /**
+     * Prepares a read of the value of the given user key under the current key and namespace, whose
+     * blocking part can run on another thread, see {@link InternalStateRead}. The returned read
+     * captures the current key and namespace, which may be changed before the read completes.
+     *
+     * <p>The read observes all modifications of the state made before this method was called. It
+     * may or may not observe modifications made after this method was called.
+     *
+     * <p>The default implementation reads the value right away.
+     *
+     * @param userKey the user key to look up.
+     * @return the prepared read, which completes with null if the user key has no value.
+     * @throws Exception Thrown if the system cannot access the state.
+     */
+    default InternalStateRead<UV> prepareGet(UK userKey) throws Exception {
+        return InternalStateRead.completed(get(userKey));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.internal;
+
+import org.apache.flink.annotation.Internal;
+
+/**
+ * A point read of keyed state that is split into a part which is bound to the thread owning the
+ * state and a part which can run on any thread. It allows the blocking I/O of a read, e.g. the
+ * lookup in RocksDB, to run on a separate thread pool while the task thread keeps processing.
+ *
+ * <p>A read is created by the state on the thread owning the state, which captures the current key
+ * and namespace of the state. {@link #fetch()} is then called exactly once, from any thread, and
+ * afterwards {@link #complete()} is called exactly once on the thread owning the state.
+ *
+ * @param <T> The type of the value read.
+ */
+@Internal
+public interface InternalStateRead<T> {
+
+    /**
+     * Returns whether the read has to call {@link #fetch()} before it can complete. Reads which
+     * were served from memory when they were created return false and can complete right away.
+     */
+    default boolean requiresFetch() {
+        return true;
+    }
+
+    /** Performs the blocking part of the read. This method may be called from any thread. */
+    void fetch() throws Exception;
+
+    /**
+     * Finishes the read and returns the value. This method is called on the thread owning the state
+     * after {@link #fetch()} returned.
+     */
+    T complete() throws Exception;
+
+    /** Returns a read that completes with the given value without fetching. */
+    static <T> InternalStateRead<T> completed(T value) {
+        return new InternalStateRead<T>() {
+            @Override
+            public boolean requiresFetch() {
+                return false;
+            }
+
+            @Override
+            public void fetch() {}
+
+            @Override
+            public T complete() {
+                return value;
+            }
+        };
+    }
+}
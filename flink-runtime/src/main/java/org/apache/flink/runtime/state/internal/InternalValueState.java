@@ -20,6 +20,9 @@ package org.apache.flink.runtime.state.internal;
 
 import org.apache.flink.api.common.state.ValueState;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * The peer to the {@link ValueState} in the internal state type hierarchy.
  *
@@ -29,4 +32,36 @@ import org.apache.flink.api.common.state.ValueState;
  * @param <N> The type of the namespace
  * @param <T> The type of elements in the list
  */
-public interface InternalValueState<K, N, T> extends InternalKvState<K, N, T>, ValueState<T> {}
+public interface InternalValueState<K, N, T> extends InternalKvState<K, N, T>, ValueState<T> {
+
+    /**
+     * Returns the values of the given keys under the current namespace, in the order of the given
+     * keys. This is the batched variant of setting each key as the current key and calling {@link
+     * #value()}, which allows backends to look up all keys at once. The current key is not changed.
+     *
+     * <p>The lookup is read-only: for states with TTL it neither renews the timestamps of the
+     * values nor cleans up expired values.
+     *
+     * @param keys the keys to look up.
+     * @return the values of the keys, the default value for keys without a value.
+     * @throws IOException Thrown if the system cannot access the state.
+     */
+    List<T> multiGet(List<K> keys) throws IOException;
+
+    /**
+     * Prepares a read of the value under the current key and namespace, whose blocking part can run
+     * on another thread, see {@link InternalStateRead}. The returned read captures the current key
+     * and namespace, which may be changed before the read completes.
+     *
+     * <p>The read observes all modifications of the state made before this method was called. It
+     * may or may not observe modifications made after this method was called.
+     *
+     * <p>The default implementation reads the value right away.
+     *
+     * @return the prepared read.
+     * @throws IOException Thrown if the system cannot access the state.
+     */
+    default InternalStateRead<T> prepareValue() throws IOException {
+        return InternalStateRead.completed(value());
+    }
+}
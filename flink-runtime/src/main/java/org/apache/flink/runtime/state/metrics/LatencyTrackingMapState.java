@@ -21,8 +21,10 @@ package org.apache.flink.runtime.state.metrics;
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.state.internal.InternalMapState;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -65,6 +67,22 @@ class LatencyTrackingMapState<K, N, UK, UV>
         }
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> keys) throws Exception {
+        if (latencyTrackingStateMetric.trackLatencyOnMultiGet()) {
+            return trackLatencyWithException(
+                    () -> original.multiGet(keys),
+                    MapStateLatencyMetrics.MAP_STATE_MULTI_GET_LATENCY);
+        } else {
+            return original.multiGet(keys);
+        }
+    }
+
+    @Override
+    public InternalStateRead<UV> prepareGet(UK key) throws Exception {
+        return original.prepareGet(key);
+    }
+
     @Override
     public void put(UK key, UV value) throws Exception {
         if (latencyTrackingStateMetric.trackLatencyOnPut()) {
@@ -214,6 +232,7 @@ class LatencyTrackingMapState<K, N, UK, UV>
 
     static class MapStateLatencyMetrics extends StateLatencyMetricBase {
         private static final String MAP_STATE_GET_LATENCY = "mapStateGetLatency";
+        private static final String MAP_STATE_MULTI_GET_LATENCY = "mapStateMultiGetLatency";
         private static final String MAP_STATE_PUT_LATENCY = "mapStatePutLatency";
         private static final String MAP_STATE_PUT_ALL_LATENCY = "mapStatePutAllLatency";
         private static final String MAP_STATE_REMOVE_LATENCY = "mapStateRemoveLatency";
@@ -230,6 +249,7 @@ class LatencyTrackingMapState<K, N, UK, UV>
                 "mapStateIteratorRemoveLatency";
 
         private int getCount = 0;
+        private int multiGetCount = 0;
         private int iteratorRemoveCount = 0;
         private int putCount = 0;
         private int putAllCount = 0;
@@ -256,6 +276,10 @@ class LatencyTrackingMapState<K, N, UK, UV>
             return getCount;
         }
 
+        int getMultiGetCount() {
+            return multiGetCount;
+        }
+
         int getIteratorRemoveCount() {
             return iteratorRemoveCount;
         }
@@ -314,6 +338,11 @@ class LatencyTrackingMapState<K, N, UK, UV>
             return getCount == 1;
         }
 
+        private boolean trackLatencyOnMultiGet() {
+            multiGetCount = loopUpdateCounter(multiGetCount);
+            return multiGetCount == 1;
+        }
+
         private boolean trackLatencyOnPut() {
             putCount = loopUpdateCounter(putCount);
             return putCount == 1;
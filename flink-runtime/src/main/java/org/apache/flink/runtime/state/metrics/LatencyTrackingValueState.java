@@ -19,9 +19,11 @@
 package org.apache.flink.runtime.state.metrics;
 
 import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * This class wraps value state with latency tracking logic.
@@ -63,6 +65,22 @@ class LatencyTrackingValueState<K, N, T>
         }
     }
 
+    @Override
+    public List<T> multiGet(List<K> keys) throws IOException {
+        if (latencyTrackingStateMetric.trackLatencyOnMultiGet()) {
+            return trackLatencyWithIOException(
+                    () -> original.multiGet(keys),
+                    ValueStateLatencyMetrics.VALUE_STATE_MULTI_GET_LATENCY);
+        } else {
+            return original.multiGet(keys);
+        }
+    }
+
+    @Override
+    public InternalStateRead<T> prepareValue() throws IOException {
+        return original.prepareValue();
+    }
+
     @Override
     public void update(T value) throws IOException {
         if (latencyTrackingStateMetric.trackLatencyOnUpdate()) {
@@ -77,9 +95,11 @@ class LatencyTrackingValueState<K, N, T>
     static class ValueStateLatencyMetrics extends StateLatencyMetricBase {
         private static final String VALUE_STATE_GET_LATENCY = "valueStateGetLatency";
         private static final String VALUE_STATE_UPDATE_LATENCY = "valueStateUpdateLatency";
+        private static final String VALUE_STATE_MULTI_GET_LATENCY = "valueStateMultiGetLatency";
 
         private int getCount = 0;
         private int updateCount = 0;
+        private int multiGetCount = 0;
 
         private ValueStateLatencyMetrics(
                 String stateName,
@@ -98,6 +118,10 @@ class LatencyTrackingValueState<K, N, T>
             return updateCount;
         }
 
+        int getMultiGetCount() {
+            return multiGetCount;
+        }
+
         private boolean trackLatencyOnGet() {
             getCount = loopUpdateCounter(getCount);
             return getCount == 1;
@@ -107,5 +131,10 @@ class LatencyTrackingValueState<K, N, T>
             updateCount = loopUpdateCounter(updateCount);
             return updateCount == 1;
         }
+
+        private boolean trackLatencyOnMultiGet() {
+            multiGetCount = loopUpdateCounter(multiGetCount);
+            return multiGetCount == 1;
+        }
     }
 }
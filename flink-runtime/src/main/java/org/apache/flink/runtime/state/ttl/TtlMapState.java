@@ -27,9 +27,11 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
@@ -64,6 +66,17 @@ class TtlMapState<K, N, UK, UV>
                 () -> original.get(key), v -> original.put(key, v), () -> original.remove(key));
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> keys) throws Exception {
+        accessCallback.run();
+        List<TtlValue<UV>> ttlValues = original.multiGet(keys);
+        List<UV> values = new ArrayList<>(ttlValues.size());
+        for (TtlValue<UV> ttlValue : ttlValues) {
+            values.add(getUnexpired(ttlValue));
+        }
+        return values;
+    }
+
     @Override
     public void put(UK key, UV value) throws Exception {
         accessCallback.run();
@@ -122,6 +122,11 @@ public class ConsumableNotifyingResultPartitionWriterDecorator {
             return partitionWriter.getNumTargetKeyGroups();
         }
 
+        @Override
+        public int getNumberOfQueuedBuffers(int targetSubpartition) {
+            return partitionWriter.getNumberOfQueuedBuffers(targetSubpartition);
+        }
+
         @Override
         public void setup() throws IOException {
             partitionWriter.setup();
@@ -69,6 +69,11 @@ public class NettyShuffleEnvironmentConfiguration {
 
     private final int sortShuffleMinParallelism;
 
+    private final boolean sortShuffleMergeRegions;
+
+    /** Size of heap memory to keep finished sort-merge partitions in memory, 0 if disabled. */
+    private final long sortShuffleInMemoryBytes;
+
     /** Size of direct memory to be allocated for blocking shuffle data read. */
     private final long batchShuffleReadMemoryBytes;
 
@@ -90,6 +95,9 @@ public class NettyShuffleEnvironmentConfiguration {
 
     private final BufferDebloatConfiguration debloatConfiguration;
 
+    /** Capacity of the ring handing buffers over to local consumers, 0 if disabled. */
+    private final int localBufferHandoffCapacity;
+
     public NettyShuffleEnvironmentConfiguration(
             int numNetworkBuffers,
             int networkBufferSize,
@@ -108,7 +116,10 @@ public class NettyShuffleEnvironmentConfiguration {
             long batchShuffleReadMemoryBytes,
             int sortShuffleMinBuffers,
             int sortShuffleMinParallelism,
-            BufferDebloatConfiguration debloatConfiguration) {
+            BufferDebloatConfiguration debloatConfiguration,
+            int localBufferHandoffCapacity,
+            boolean sortShuffleMergeRegions,
+            long sortShuffleInMemoryBytes) {
 
         this.numNetworkBuffers = numNetworkBuffers;
         this.networkBufferSize = networkBufferSize;
@@ -128,6 +139,9 @@ public class NettyShuffleEnvironmentConfiguration {
         this.sortShuffleMinBuffers = sortShuffleMinBuffers;
         this.sortShuffleMinParallelism = sortShuffleMinParallelism;
         this.debloatConfiguration = debloatConfiguration;
+        this.localBufferHandoffCapacity = localBufferHandoffCapacity;
+        this.sortShuffleMergeRegions = sortShuffleMergeRegions;
+        this.sortShuffleInMemoryBytes = sortShuffleInMemoryBytes;
     }
 
     // ------------------------------------------------------------------------
@@ -168,6 +182,14 @@ public class NettyShuffleEnvironmentConfiguration {
         return sortShuffleMinParallelism;
     }
 
+    public boolean sortShuffleMergeRegions() {
+        return sortShuffleMergeRegions;
+    }
+
+    public long sortShuffleInMemoryBytes() {
+        return sortShuffleInMemoryBytes;
+    }
+
     public Duration getRequestSegmentsTimeout() {
         return requestSegmentsTimeout;
     }
@@ -208,6 +230,10 @@ public class NettyShuffleEnvironmentConfiguration {
         return maxBuffersPerChannel;
     }
 
+    public int getLocalBufferHandoffCapacity() {
+        return localBufferHandoffCapacity;
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -268,6 +294,13 @@ public class NettyShuffleEnvironmentConfiguration {
         int sortShuffleMinParallelism =
                 configuration.getInteger(
                         NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_MIN_PARALLELISM);
+        boolean sortShuffleMergeRegions =
+                configuration.get(
+                        NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_MERGE_REGIONS);
+        long sortShuffleInMemoryBytes =
+                configuration
+                        .get(NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_IN_MEMORY_SIZE)
+                        .getBytes();
 
         boolean isNetworkDetailedMetrics =
                 configuration.getBoolean(NettyShuffleEnvironmentOptions.NETWORK_DETAILED_METRICS);
@@ -289,6 +322,15 @@ public class NettyShuffleEnvironmentConfiguration {
         String compressionCodec =
                 configuration.getString(NettyShuffleEnvironmentOptions.SHUFFLE_COMPRESSION_CODEC);
 
+        int localBufferHandoffCapacity =
+                configuration.getInteger(
+                        NettyShuffleEnvironmentOptions.NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY);
+        ConfigurationParserUtils.checkConfigParameter(
+                localBufferHandoffCapacity >= 0,
+                localBufferHandoffCapacity,
+                NettyShuffleEnvironmentOptions.NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY.key(),
+                "The capacity must not be negative.");
+
         return new NettyShuffleEnvironmentConfiguration(
                 numberOfNetworkBuffers,
                 pageSize,
@@ -307,7 +349,10 @@ public class NettyShuffleEnvironmentConfiguration {
                 batchShuffleReadMemoryBytes,
                 sortShuffleMinBuffers,
                 sortShuffleMinParallelism,
-                BufferDebloatConfiguration.fromConfiguration(configuration));
+                BufferDebloatConfiguration.fromConfiguration(configuration),
+                localBufferHandoffCapacity,
+                sortShuffleMergeRegions,
+                sortShuffleInMemoryBytes);
     }
 
     /**
@@ -444,6 +489,9 @@ public class NettyShuffleEnvironmentConfiguration {
         result = 31 * result + Objects.hashCode(batchShuffleReadMemoryBytes);
         result = 31 * result + sortShuffleMinBuffers;
         result = 31 * result + sortShuffleMinParallelism;
+        result = 31 * result + localBufferHandoffCapacity;
+        result = 31 * result + (sortShuffleMergeRegions ? 1 : 0);
+        result = 31 * result + Long.hashCode(sortShuffleInMemoryBytes);
         return result;
     }
 
@@ -474,6 +522,9 @@ public class NettyShuffleEnvironmentConfiguration {
                     && this.blockingShuffleCompressionEnabled
                             == that.blockingShuffleCompressionEnabled
                     && this.maxBuffersPerChannel == that.maxBuffersPerChannel
+                    && this.localBufferHandoffCapacity == that.localBufferHandoffCapacity
+                    && this.sortShuffleMergeRegions == that.sortShuffleMergeRegions
+                    && this.sortShuffleInMemoryBytes == that.sortShuffleInMemoryBytes
                     && Objects.equals(this.compressionCodec, that.compressionCodec);
         }
     }
@@ -511,6 +562,12 @@ public class NettyShuffleEnvironmentConfiguration {
                 + sortShuffleMinBuffers
                 + ", sortShuffleMinParallelism="
                 + sortShuffleMinParallelism
+                + ", localBufferHandoffCapacity="
+                + localBufferHandoffCapacity
+                + ", sortShuffleMergeRegions="
+                + sortShuffleMergeRegions
+                + ", sortShuffleInMemoryBytes="
+                + sortShuffleInMemoryBytes
                 + '}';
     }
 }
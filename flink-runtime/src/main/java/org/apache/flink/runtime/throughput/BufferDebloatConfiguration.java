@@ -23,6 +23,7 @@ import org.apache.flink.configuration.TaskManagerOptions;
 
 import java.time.Duration;
 
+import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_PER_CHANNEL;
 import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_SAMPLES;
 import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_TARGET;
 import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_THRESHOLD_PERCENTAGES;
@@ -37,9 +38,11 @@ public final class BufferDebloatConfiguration {
     private final int bufferDebloatThresholdPercentages;
     private final int numberOfSamples;
     private final boolean enabled;
+    private final boolean perChannel;
 
     private BufferDebloatConfiguration(
             boolean enabled,
+            boolean perChannel,
             Duration targetTotalBufferSize,
             int maxBufferSize,
             int minBufferSize,
@@ -51,12 +54,18 @@ public final class BufferDebloatConfiguration {
         this.bufferDebloatThresholdPercentages = bufferDebloatThresholdPercentages;
         this.numberOfSamples = numberOfSamples;
         this.enabled = enabled;
+        this.perChannel = perChannel;
     }
 
     public boolean isEnabled() {
         return enabled;
     }
 
+    /** Whether the buffer size is calculated for every input channel instead of every gate. */
+    public boolean isPerChannel() {
+        return perChannel;
+    }
+
     public Duration getTargetTotalBufferSize() {
         return targetTotalBufferSize;
     }
@@ -96,6 +105,7 @@ public final class BufferDebloatConfiguration {
         checkArgument(targetTotalBufferSize.toMillis() > 0.0);
         return new BufferDebloatConfiguration(
                 config.get(TaskManagerOptions.BUFFER_DEBLOAT_ENABLED),
+                config.get(BUFFER_DEBLOAT_PER_CHANNEL),
                 targetTotalBufferSize,
                 maxBufferSize,
                 minBufferSize,
@@ -68,6 +68,8 @@ public class NettyShuffleEnvironmentBuilder {
 
     private String compressionCodec = "LZ4";
 
+    private int localBufferHandoffCapacity = 0;
+
     private ResourceID taskManagerLocation = ResourceID.generate();
 
     private NettyConfig nettyConfig;
@@ -174,6 +176,12 @@ public class NettyShuffleEnvironmentBuilder {
         return this;
     }
 
+    public NettyShuffleEnvironmentBuilder setLocalBufferHandoffCapacity(
+            int localBufferHandoffCapacity) {
+        this.localBufferHandoffCapacity = localBufferHandoffCapacity;
+        return this;
+    }
+
     public NettyShuffleEnvironmentBuilder setDebloatConfig(
             BufferDebloatConfiguration debloatConfiguration) {
         this.debloatConfiguration = debloatConfiguration;
@@ -200,7 +208,10 @@ public class NettyShuffleEnvironmentBuilder {
                         batchShuffleReadMemoryBytes,
                         sortShuffleMinBuffers,
                         sortShuffleMinParallelism,
-                        debloatConfiguration),
+                        debloatConfiguration,
+                        localBufferHandoffCapacity,
+                        false,
+                        0L),
                 taskManagerLocation,
                 new TaskEventDispatcher(),
                 resultPartitionManager,
@@ -52,6 +52,11 @@ public class MockResultPartitionWriter implements ResultPartitionWriter {
         return 1;
     }
 
+    @Override
+    public int getNumberOfQueuedBuffers(int targetSubpartition) {
+        return 0;
+    }
+
     @Override
     public void emitRecord(ByteBuffer record, int targetSubpartition) throws IOException {}
 
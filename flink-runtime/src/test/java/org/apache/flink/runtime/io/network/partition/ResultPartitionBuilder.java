@@ -78,6 +78,7 @@ public class ResultPartitionBuilder {
 
     private boolean sslEnabled = false;
 
+    private int localBufferHandoffCapacity = 0;
     private String compressionCodec = "LZ4";
 
     public ResultPartitionBuilder setResultPartitionIndex(int partitionIndex) {
@@ -198,6 +199,11 @@ public class ResultPartitionBuilder {
         return this;
     }
 
+    public ResultPartitionBuilder setLocalBufferHandoffCapacity(int localBufferHandoffCapacity) {
+        this.localBufferHandoffCapacity = localBufferHandoffCapacity;
+        return this;
+    }
+
     public ResultPartitionBuilder setSSLEnabled(boolean sslEnabled) {
         this.sslEnabled = sslEnabled;
         return this;
@@ -220,7 +226,10 @@ public class ResultPartitionBuilder {
                         maxBuffersPerChannel,
                         sortShuffleMinBuffers,
                         sortShuffleMinParallelism,
-                        sslEnabled);
+                        sslEnabled,
+                        localBufferHandoffCapacity,
+                        false,
+                        new BatchShuffleInMemoryBudget(0));
 
         SupplierWithException<BufferPool, IOException> factory =
                 bufferPoolFactory.orElseGet(
@@ -104,13 +104,78 @@ public class SortMergeResultPartitionTest extends TestLogger {
     public void testWriteAndRead() throws Exception {
         int numSubpartitions = 10;
         int numBuffers = 100;
-        int numRecords = 1000;
-        Random random = new Random();
 
         BufferPool bufferPool = globalPool.createBufferPool(numBuffers, numBuffers);
         SortMergeResultPartition partition =
                 createSortMergedPartition(numSubpartitions, bufferPool);
 
+        writeAndRead(partition, numSubpartitions, 1000, 2 * bufferSize, false);
+    }
+
+    @Test
+    public void testWriteAndReadWithMergedRegions() throws Exception {
+        int numSubpartitions = 10;
+        int numBuffers = 100;
+
+        BufferPool bufferPool = globalPool.createBufferPool(numBuffers, numBuffers);
+        SortMergeResultPartition partition =
+                createSortMergedPartition(
+                        numSubpartitions,
+                        bufferPool,
+                        readBufferPool,
+                        true,
+                        new BatchShuffleInMemoryBudget(0));
+
+        writeAndRead(partition, numSubpartitions, 1000, 2 * bufferSize, true);
+        assertFalse(partition.isKeptInMemory());
+    }
+
+    @Test
+    public void testWriteAndReadInMemory() throws Exception {
+        int numSubpartitions = 10;
+        int numBuffers = 100;
+
+        BufferPool bufferPool = globalPool.createBufferPool(numBuffers, numBuffers);
+        BatchShuffleInMemoryBudget budget = new BatchShuffleInMemoryBudget(totalBytes);
+        SortMergeResultPartition partition =
+                createSortMergedPartition(
+                        numSubpartitions, bufferPool, readBufferPool, false, budget);
+
+        writeAndRead(partition, numSubpartitions, 20, bufferSize, true);
+        assertTrue(partition.isKeptInMemory());
+        assertNull(partition.getResultFile());
+        assertTrue(budget.getAvailableBytes() < totalBytes);
+
+        partition.release();
+        assertEquals(totalBytes, budget.getAvailableBytes());
+    }
+
+    @Test
+    public void testWriteAndReadWithInsufficientInMemoryBudget() throws Exception {
+        int numSubpartitions = 10;
+        int numBuffers = 100;
+
+        BufferPool bufferPool = globalPool.createBufferPool(numBuffers, numBuffers);
+        BatchShuffleInMemoryBudget budget = new BatchShuffleInMemoryBudget(bufferSize);
+        SortMergeResultPartition partition =
+                createSortMergedPartition(
+                        numSubpartitions, bufferPool, readBufferPool, false, budget);
+
+        writeAndRead(partition, numSubpartitions, 20, bufferSize, true);
+        assertFalse(partition.isKeptInMemory());
+        assertNotNull(partition.getResultFile());
+        assertEquals(bufferSize, budget.getAvailableBytes());
+    }
+
+    private void writeAndRead(
+            SortMergeResultPartition partition,
+            int numSubpartitions,
+            int numRecords,
+            int maxRecordSize,
+            boolean flushAfterEachRecord)
+            throws Exception {
+        Random random = new Random();
+
         Queue<PartitionSortedBufferTest.DataAndType>[] dataWritten = new Queue[numSubpartitions];
         Queue<Buffer>[] buffersRead = new Queue[numSubpartitions];
         for (int i = 0; i < numSubpartitions; ++i) {
@@ -124,7 +189,7 @@ public class SortMergeResultPartitionTest extends TestLogger {
         Arrays.fill(numBytesRead, 0);
 
         for (int i = 0; i < numRecords; ++i) {
-            ByteBuffer record = generateRandomData(random.nextInt(2 * bufferSize) + 1, random);
+            ByteBuffer record = generateRandomData(random.nextInt(maxRecordSize) + 1, random);
             boolean isBroadCast = random.nextBoolean();
 
             if (isBroadCast) {
@@ -143,6 +208,10 @@ public class SortMergeResultPartitionTest extends TestLogger {
                 recordDataWritten(
                         record, dataWritten, subpartition, numBytesWritten, DataType.DATA_BUFFER);
             }
+
+            if (flushAfterEachRecord) {
+                partition.flushAll();
+            }
         }
 
         partition.finish();
@@ -319,6 +388,33 @@ public class SortMergeResultPartitionTest extends TestLogger {
         partition.close();
     }
 
+    @Test
+    public void testFlushWithMergedRegions() throws Exception {
+        int numBuffers = 10;
+        int numWriteBuffers = numBuffers / 2;
+        BufferPool bufferPool = globalPool.createBufferPool(numBuffers, numBuffers);
+        SortMergeResultPartition partition =
+                createSortMergedPartition(
+                        10, bufferPool, readBufferPool, true, new BatchShuffleInMemoryBudget(0));
+        assertEquals(numWriteBuffers, bufferPool.bestEffortGetNumOfUsedBuffers());
+
+        partition.emitRecord(ByteBuffer.allocate(bufferSize), 0);
+        partition.emitRecord(ByteBuffer.allocate(bufferSize), 1);
+        partition.flush(0);
+        assertEquals(numWriteBuffers, bufferPool.bestEffortGetNumOfUsedBuffers());
+
+        partition.emitRecord(ByteBuffer.allocate(bufferSize), 2);
+        partition.emitRecord(ByteBuffer.allocate(bufferSize), 3);
+        partition.flushAll();
+        assertEquals(numWriteBuffers, bufferPool.bestEffortGetNumOfUsedBuffers());
+
+        partition.finish();
+        // the data of both flushes is merged into one region followed by the broadcast region
+        assertEquals(2, partition.getResultFile().getNumRegions());
+
+        partition.close();
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testReleaseWhileWriting() throws Exception {
         int numBuffers = 10;
@@ -464,6 +560,21 @@ public class SortMergeResultPartitionTest extends TestLogger {
     private SortMergeResultPartition createSortMergedPartition(
             int numSubpartitions, BufferPool bufferPool, BatchShuffleReadBufferPool readBufferPool)
             throws IOException {
+        return createSortMergedPartition(
+                numSubpartitions,
+                bufferPool,
+                readBufferPool,
+                false,
+                new BatchShuffleInMemoryBudget(0));
+    }
+
+    private SortMergeResultPartition createSortMergedPartition(
+            int numSubpartitions,
+            BufferPool bufferPool,
+            BatchShuffleReadBufferPool readBufferPool,
+            boolean mergeRegions,
+            BatchShuffleInMemoryBudget inMemoryBudget)
+            throws IOException {
         SortMergeResultPartition sortMergedResultPartition =
                 new SortMergeResultPartition(
                         "SortMergedResultPartitionTest",
@@ -477,7 +588,9 @@ public class SortMergeResultPartitionTest extends TestLogger {
                         new ResultPartitionManager(),
                         fileChannelManager.createChannel().getPath(),
                         null,
-                        () -> bufferPool);
+                        () -> bufferPool,
+                        mergeRegions,
+                        inMemoryBudget);
         sortMergedResultPartition.setup();
         return sortMergedResultPartition;
     }
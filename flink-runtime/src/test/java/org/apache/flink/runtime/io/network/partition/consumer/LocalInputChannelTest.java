@@ -672,6 +672,109 @@ public class LocalInputChannelTest {
         assertEquals(3, localChannel.getBuffersInUseCount());
     }
 
+    @Test
+    public void testConsumeHandedOffBuffers() throws Exception {
+        ResultPartitionManager partitionManager = new ResultPartitionManager();
+        PipelinedResultPartition partition =
+                createPartitionWithLocalBufferHandoff(partitionManager, 2);
+        SingleInputGate inputGate = new SingleInputGateBuilder().build();
+        LocalInputChannel channel =
+                createLocalInputChannel(
+                        inputGate,
+                        partitionManager,
+                        0,
+                        0,
+                        b -> b.setPartitionId(partition.getPartitionId()));
+        inputGate.setInputChannels(channel);
+        channel.requestSubpartition(0);
+
+        ResultSubpartition subpartition = partition.getAllPartitions()[0];
+        for (int size = 1; size <= 5; size++) {
+            subpartition.add(createFilledFinishedBufferConsumer(size));
+        }
+        subpartition.flush();
+        // the ring holds the first two buffers, the rest is queued in the subpartition
+        assertEquals(5, channel.getBuffersInUseCount());
+
+        for (int size = 1; size <= 5; size++) {
+            InputChannel.BufferAndAvailability next = channel.getNextBuffer().get();
+            assertEquals(size, next.buffer().getSize());
+            assertEquals(size - 1, next.getSequenceNumber());
+            assertEquals(size < 5, next.moreAvailable());
+            next.buffer().recycleBuffer();
+        }
+        assertFalse(channel.getNextBuffer().isPresent());
+        partition.release();
+    }
+
+    @Test
+    public void testPriorityEventOvertakesHandedOffBuffers() throws Exception {
+        ResultPartitionManager partitionManager = new ResultPartitionManager();
+        PipelinedResultPartition partition =
+                createPartitionWithLocalBufferHandoff(partitionManager, 4);
+        RecordingChannelStateWriter stateWriter = new RecordingChannelStateWriter();
+        partition.setChannelStateWriter(stateWriter);
+        SingleInputGate inputGate = new SingleInputGateBuilder().build();
+        LocalInputChannel channel =
+                createLocalInputChannel(
+                        inputGate,
+                        partitionManager,
+                        0,
+                        0,
+                        b -> b.setPartitionId(partition.getPartitionId()));
+        inputGate.setInputChannels(channel);
+        channel.requestSubpartition(0);
+
+        ResultSubpartition subpartition = partition.getAllPartitions()[0];
+        for (int size = 1; size <= 4; size++) {
+            subpartition.add(createFilledFinishedBufferConsumer(size));
+        }
+        InputChannel.BufferAndAvailability first = channel.getNextBuffer().get();
+        assertEquals(1, first.buffer().getSize());
+        first.buffer().recycleBuffer();
+
+        CheckpointOptions options =
+                CheckpointOptions.unaligned(CheckpointType.CHECKPOINT, getDefault());
+        stateWriter.start(0, options);
+        subpartition.add(
+                EventSerializer.toBufferConsumer(new CheckpointBarrier(0, 123L, options), true));
+
+        // the barrier overtakes the handed over buffers, which are persisted as in-flight data
+        InputChannel.BufferAndAvailability barrier = channel.getNextBuffer().get();
+        assertEquals(Buffer.DataType.PRIORITIZED_EVENT_BUFFER, barrier.buffer().getDataType());
+        assertEquals(1, barrier.getSequenceNumber());
+        barrier.buffer().recycleBuffer();
+        assertArrayEquals(
+                new int[] {2, 3, 4},
+                stateWriter.getAddedOutput().get(subpartition.getSubpartitionInfo()).stream()
+                        .mapToInt(Buffer::getSize)
+                        .toArray());
+
+        for (int size = 2; size <= 4; size++) {
+            InputChannel.BufferAndAvailability next = channel.getNextBuffer().get();
+            assertEquals(size, next.buffer().getSize());
+            assertEquals(size, next.getSequenceNumber());
+            next.buffer().recycleBuffer();
+        }
+        assertFalse(channel.getNextBuffer().isPresent());
+        partition.release();
+    }
+
+    private static PipelinedResultPartition createPartitionWithLocalBufferHandoff(
+            ResultPartitionManager partitionManager, int localBufferHandoffCapacity)
+            throws IOException {
+        PipelinedResultPartition partition =
+                (PipelinedResultPartition)
+                        new ResultPartitionBuilder()
+                                .setResultPartitionType(ResultPartitionType.PIPELINED)
+                                .setFileChannelManager(NoOpFileChannelManager.INSTANCE)
+                                .setResultPartitionManager(partitionManager)
+                                .setLocalBufferHandoffCapacity(localBufferHandoffCapacity)
+                                .build();
+        partition.setup();
+        return partition;
+    }
+
     // ---------------------------------------------------------------------------------------------
 
     /** Returns the configured number of buffers for each channel in a random order. */
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition.consumer;
+
+import org.apache.flink.metrics.SimpleCounter;
+import org.apache.flink.runtime.io.disk.BatchShuffleReadBufferPool;
+import org.apache.flink.runtime.io.disk.FileChannelManager;
+import org.apache.flink.runtime.io.disk.FileChannelManagerImpl;
+import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
+import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.partition.PartitionNotFoundException;
+import org.apache.flink.runtime.io.network.partition.RemoteStorageResultPartition;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionManager;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.io.network.partition.consumer.InputChannel.BufferAndAvailability;
+import org.apache.flink.runtime.shuffle.RemoteStorageShuffleDescriptor;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link RemoteStorageInputChannel}. */
+public class RemoteStorageInputChannelTest extends TestLogger {
+
+    private static final int bufferSize = 1024;
+
+    private static final int numSubpartitions = 4;
+
+    @Rule public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private FileChannelManager fileChannelManager;
+
+    private NetworkBufferPool globalPool;
+
+    private BatchShuffleReadBufferPool readBufferPool;
+
+    private ExecutorService readIOExecutor;
+
+    @Before
+    public void setUp() {
+        fileChannelManager =
+                new FileChannelManagerImpl(new String[] {tmpFolder.getRoot().getPath()}, "testing");
+        globalPool = new NetworkBufferPool(1000, bufferSize);
+        readBufferPool = new BatchShuffleReadBufferPool(32 * 1024 * 1024, bufferSize);
+        readIOExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        fileChannelManager.close();
+        globalPool.destroy();
+        readBufferPool.destroy();
+        readIOExecutor.shutdown();
+    }
+
+    @Test
+    public void testReadFromRemoteStorage() throws Exception {
+        RemoteStorageShuffleDescriptor descriptor = createShuffleDescriptor();
+        ResultPartitionManager partitionManager = new ResultPartitionManager();
+        RemoteStorageResultPartition partition =
+                new RemoteStorageResultPartition(
+                        "RemoteStorageInputChannelTest",
+                        0,
+                        descriptor,
+                        ResultPartitionType.BLOCKING,
+                        numSubpartitions,
+                        readBufferPool,
+                        readIOExecutor,
+                        partitionManager,
+                        fileChannelManager.createChannel().getPath(),
+                        null,
+                        () -> globalPool.createBufferPool(100, 100),
+                        true);
+        partition.setup();
+
+        int targetSubpartition = 1;
+        Random random = new Random();
+        ByteArrayOutputStream dataWritten = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; ++i) {
+            byte[] record = new byte[random.nextInt(2 * bufferSize) + 1];
+            random.nextBytes(record);
+            int subpartition = random.nextInt(numSubpartitions);
+            partition.emitRecord(ByteBuffer.wrap(record), subpartition);
+            if (subpartition == targetSubpartition) {
+                dataWritten.write(record);
+            }
+        }
+        partition.finish();
+        partition.close();
+
+        // the producer does not keep any local resources after finishing
+        assertTrue(partition.isReleased());
+        assertTrue(partitionManager.getUnreleasedPartitions().isEmpty());
+
+        SingleInputGate inputGate =
+                new SingleInputGateBuilder()
+                        .setConsumedSubpartitionIndex(targetSubpartition)
+                        .build();
+        RemoteStorageInputChannel channel =
+                new RemoteStorageInputChannel(
+                        inputGate, 0, descriptor, new SimpleCounter(), new SimpleCounter());
+        channel.requestSubpartition(targetSubpartition);
+
+        ByteArrayOutputStream dataRead = new ByteArrayOutputStream();
+        while (true) {
+            Optional<BufferAndAvailability> next = channel.getNextBuffer();
+            assertTrue(next.isPresent());
+
+            Buffer buffer = next.get().buffer();
+            if (!buffer.isBuffer()) {
+                assertEquals(
+                        EndOfPartitionEvent.INSTANCE,
+                        EventSerializer.fromBuffer(buffer, getClass().getClassLoader()));
+                assertFalse(next.get().moreAvailable());
+                break;
+            }
+            assertTrue(next.get().moreAvailable());
+
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.getNioBufferReadable().get(bytes);
+            dataRead.write(bytes);
+            buffer.recycleBuffer();
+        }
+        assertArrayEquals(dataWritten.toByteArray(), dataRead.toByteArray());
+
+        channel.releaseAllResources();
+        assertTrue(channel.isReleased());
+        assertFalse(channel.getNextBuffer().isPresent());
+    }
+
+    @Test(expected = PartitionNotFoundException.class)
+    public void testRequestMissingPartition() throws Exception {
+        SingleInputGate inputGate = new SingleInputGateBuilder().build();
+        RemoteStorageInputChannel channel =
+                new RemoteStorageInputChannel(
+                        inputGate,
+                        0,
+                        createShuffleDescriptor(),
+                        new SimpleCounter(),
+                        new SimpleCounter());
+
+        channel.requestSubpartition(0);
+    }
+
+    private RemoteStorageShuffleDescriptor createShuffleDescriptor() throws Exception {
+        File storageDir = tmpFolder.newFolder();
+        return new RemoteStorageShuffleDescriptor(
+                new ResultPartitionID(),
+                new File(storageDir, "partition").toURI().toString(),
+                numSubpartitions);
+    }
+}
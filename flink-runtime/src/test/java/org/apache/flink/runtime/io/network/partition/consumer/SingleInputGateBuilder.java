@@ -169,7 +169,8 @@ public class SingleInputGateBuilder {
                         segmentProvider,
                         bufferSize,
                         createThroughputCalculator.apply(bufferDebloatConfiguration),
-                        maybeCreateBufferDebloater(gateIndex));
+                        maybeCreateBufferDebloater(gateIndex),
+                        maybeCreateChannelBufferDebloaters(gateIndex));
         if (channelFactory != null) {
             gate.setInputChannels(
                     IntStream.range(0, numberOfChannels)
@@ -186,7 +187,7 @@ public class SingleInputGateBuilder {
     }
 
     private BufferDebloater maybeCreateBufferDebloater(int gateIndex) {
-        if (bufferDebloatConfiguration.isEnabled()) {
+        if (bufferDebloatConfiguration.isEnabled() && !bufferDebloatConfiguration.isPerChannel()) {
             return new BufferDebloater(
                     gateIndex,
                     bufferDebloatConfiguration.getTargetTotalBufferSize().toMillis(),
@@ -198,4 +199,25 @@ public class SingleInputGateBuilder {
 
         return null;
     }
+
+    private BufferDebloater[] maybeCreateChannelBufferDebloaters(int gateIndex) {
+        if (bufferDebloatConfiguration.isEnabled() && bufferDebloatConfiguration.isPerChannel()) {
+            return IntStream.range(0, numberOfChannels)
+                    .mapToObj(
+                            channelIndex ->
+                                    new BufferDebloater(
+                                            gateIndex,
+                                            bufferDebloatConfiguration
+                                                    .getTargetTotalBufferSize()
+                                                    .toMillis(),
+                                            bufferDebloatConfiguration.getMaxBufferSize(),
+                                            bufferDebloatConfiguration.getMinBufferSize(),
+                                            bufferDebloatConfiguration
+                                                    .getBufferDebloatThresholdPercentages(),
+                                            bufferDebloatConfiguration.getNumberOfSamples()))
+                    .toArray(BufferDebloater[]::new);
+        }
+
+        return null;
+    }
 }
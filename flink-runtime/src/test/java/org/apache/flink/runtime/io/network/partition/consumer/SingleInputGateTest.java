@@ -18,6 +18,8 @@
 
 package org.apache.flink.runtime.io.network.partition.consumer;
 
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.TaskManagerOptions;
 import org.apache.flink.core.memory.MemorySegment;
 import org.apache.flink.core.memory.MemorySegmentFactory;
 import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
@@ -62,6 +64,9 @@ import org.apache.flink.runtime.metrics.groups.UnregisteredMetricGroups;
 import org.apache.flink.runtime.shuffle.NettyShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.UnknownShuffleDescriptor;
+import org.apache.flink.runtime.throughput.BufferDebloatConfiguration;
+import org.apache.flink.runtime.throughput.ThroughputCalculator;
+import org.apache.flink.util.clock.SystemClock;
 
 import org.apache.flink.shaded.guava30.com.google.common.io.Closer;
 
@@ -70,6 +75,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -945,6 +951,47 @@ public class SingleInputGateTest extends InputGateTestBase {
         // No exceptions should happen.
     }
 
+    @Test
+    public void testAnnounceBufferSizePerChannel() throws Exception {
+        final Configuration configuration = new Configuration();
+        configuration.set(TaskManagerOptions.BUFFER_DEBLOAT_ENABLED, true);
+        configuration.set(TaskManagerOptions.BUFFER_DEBLOAT_PER_CHANNEL, true);
+        configuration.set(TaskManagerOptions.BUFFER_DEBLOAT_TARGET, Duration.ofSeconds(1));
+        configuration.set(TaskManagerOptions.BUFFER_DEBLOAT_SAMPLES, 1);
+
+        final SingleInputGate inputGate =
+                new SingleInputGateBuilder()
+                        .setNumberOfChannels(2)
+                        .setBufferDebloatConfiguration(
+                                BufferDebloatConfiguration.fromConfiguration(configuration))
+                        .setThroughputCalculator(
+                                config ->
+                                        new ThroughputCalculator(SystemClock.getInstance()) {
+                                            @Override
+                                            public long calculateThroughput() {
+                                                return 10_000;
+                                            }
+                                        })
+                        .build();
+        final TestInputChannel hotChannel = new TestInputChannel(inputGate, 0, false, true);
+        final TestInputChannel coldChannel = new TestInputChannel(inputGate, 1, false, true);
+        inputGate.setInputChannels(hotChannel, coldChannel);
+        inputGate.setup();
+        inputGate.requestPartitions();
+
+        hotChannel.read(createBuffer(9000));
+        coldChannel.read(createBuffer(1000));
+        assertTrue(inputGate.getNext().isPresent());
+        assertTrue(inputGate.getNext().isPresent());
+
+        inputGate.triggerDebloating();
+
+        // the throughput of the gate is split according to the data received by every channel
+        assertEquals(9000, hotChannel.getCurrentBufferSize());
+        assertEquals(1000, coldChannel.getCurrentBufferSize());
+        assertEquals(Duration.ofSeconds(1), inputGate.getLastEstimatedTimeToConsume());
+    }
+
     @Test
     public void testInputGateRemovalFromNettyShuffleEnvironment() throws Exception {
         NettyShuffleEnvironment network = createNettyShuffleEnvironment();
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.shuffle;
+
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.runtime.clusterframework.types.ResourceID;
+import org.apache.flink.runtime.executiongraph.ExecutionAttemptID;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.jobgraph.IntermediateResultPartitionID;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.InetAddress;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link RemoteShuffleMaster}. */
+public class RemoteShuffleMasterTest extends TestLogger {
+
+    @Rule public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File storageDir;
+
+    private RemoteShuffleMaster shuffleMaster;
+
+    @Before
+    public void setUp() throws Exception {
+        storageDir = tmpFolder.newFolder();
+        Configuration configuration = new Configuration();
+        configuration.set(
+                ShuffleServiceOptions.SHUFFLE_REMOTE_STORAGE_PATH, storageDir.toURI().toString());
+        shuffleMaster = new RemoteShuffleMaster(configuration);
+    }
+
+    @Test
+    public void testBlockingPartitionIsStoredRemotely() throws Exception {
+        JobID jobID = new JobID();
+        ShuffleDescriptor descriptor = registerPartition(jobID, ResultPartitionType.BLOCKING);
+
+        assertThat(descriptor, instanceOf(RemoteStorageShuffleDescriptor.class));
+        assertFalse(descriptor.storesLocalResourcesOn().isPresent());
+
+        RemoteStorageShuffleDescriptor remoteDescriptor =
+                (RemoteStorageShuffleDescriptor) descriptor;
+        assertEquals(1, remoteDescriptor.getNumberOfSubpartitions());
+        assertEquals(jobID.toString(), remoteDescriptor.getDataFilePath().getParent().getName());
+    }
+
+    @Test
+    public void testPipelinedPartitionIsStoredLocally() throws Exception {
+        ShuffleDescriptor descriptor =
+                registerPartition(new JobID(), ResultPartitionType.PIPELINED_BOUNDED);
+
+        assertThat(descriptor, instanceOf(NettyShuffleDescriptor.class));
+        assertTrue(descriptor.storesLocalResourcesOn().isPresent());
+    }
+
+    @Test
+    public void testReleasePartitionAndJob() throws Exception {
+        JobID jobID = new JobID();
+        RemoteStorageShuffleDescriptor released =
+                (RemoteStorageShuffleDescriptor)
+                        registerPartition(jobID, ResultPartitionType.BLOCKING);
+        RemoteStorageShuffleDescriptor retained =
+                (RemoteStorageShuffleDescriptor)
+                        registerPartition(jobID, ResultPartitionType.BLOCKING);
+        for (RemoteStorageShuffleDescriptor descriptor :
+                new RemoteStorageShuffleDescriptor[] {released, retained}) {
+            createFile(descriptor.getDataFilePath().toUri().getPath());
+            createFile(descriptor.getIndexFilePath().toUri().getPath());
+        }
+
+        shuffleMaster.releasePartitionExternally(released);
+        assertFalse(new File(released.getDataFilePath().toUri().getPath()).exists());
+        assertFalse(new File(released.getIndexFilePath().toUri().getPath()).exists());
+        assertTrue(new File(retained.getDataFilePath().toUri().getPath()).exists());
+
+        shuffleMaster.unregisterJob(jobID);
+        assertFalse(new File(storageDir, jobID.toString()).exists());
+    }
+
+    @Test(expected = IllegalConfigurationException.class)
+    public void testMissingStoragePath() {
+        new RemoteShuffleMaster(new Configuration());
+    }
+
+    private ShuffleDescriptor registerPartition(JobID jobID, ResultPartitionType partitionType)
+            throws Exception {
+        PartitionDescriptor partitionDescriptor =
+                PartitionDescriptorBuilder.newBuilder()
+                        .setPartitionId(new IntermediateResultPartitionID())
+                        .setPartitionType(partitionType)
+                        .build();
+        ProducerDescriptor producerDescriptor =
+                new ProducerDescriptor(
+                        ResourceID.generate(),
+                        new ExecutionAttemptID(),
+                        InetAddress.getLoopbackAddress(),
+                        -1);
+        return shuffleMaster
+                .registerPartitionWithProducer(jobID, partitionDescriptor, producerDescriptor)
+                .get();
+    }
+
+    private static void createFile(String path) throws Exception {
+        File file = new File(path);
+        assertTrue(file.getParentFile().mkdirs() || file.getParentFile().isDirectory());
+        assertTrue(file.createNewFile());
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.runtime.state.hashmap.HashMapStateBackend;
+import org.apache.flink.runtime.state.heap.OffHeapStateTable;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Tests for the keyed state backend and operator state backend, as created by the {@link
+ * HashMapStateBackend} with value, reducing and aggregating states kept in {@link
+ * OffHeapStateTable}s.
+ */
+public class HashMapStateBackendOffHeapTest extends HashMapStateBackendTest {
+
+    @Override
+    protected ConfigurableStateBackend getStateBackend() {
+        return new HashMapStateBackend(true);
+    }
+
+    // off-heap state maps can only be accessed from the task thread
+    @Ignore
+    @Test
+    public void testValueStateRace() throws Exception {
+        super.testValueStateRace();
+    }
+}
@@ -71,6 +71,7 @@ import org.apache.flink.runtime.state.internal.InternalKvState;
 import org.apache.flink.runtime.state.internal.InternalListState;
 import org.apache.flink.runtime.state.internal.InternalMapState;
 import org.apache.flink.runtime.state.internal.InternalReducingState;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
 import org.apache.flink.runtime.testutils.statemigration.TestType;
@@ -80,6 +81,7 @@ import org.apache.flink.util.CloseableIterator;
 import org.apache.flink.util.IOUtils;
 import org.apache.flink.util.StateMigrationException;
 import org.apache.flink.util.TestLogger;
+import org.apache.flink.util.function.ThrowingRunnable;
 
 import org.apache.flink.shaded.guava30.com.google.common.base.Joiner;
 
@@ -458,6 +460,63 @@ public abstract class StateBackendTestBase<B extends AbstractStateBackend> exten
         }
     }
 
+    @Test
+    public void testGetKeysOfKeyGroup() throws Exception {
+        final int elementsNum = 1000;
+        String fieldName = "get-keys-test";
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            final String ns1 = "ns1";
+            ValueState<Integer> keyedState1 =
+                    backend.getPartitionedState(
+                            ns1,
+                            StringSerializer.INSTANCE,
+                            new ValueStateDescriptor<>(fieldName, IntSerializer.INSTANCE));
+
+            for (int key = 0; key < elementsNum; key++) {
+                backend.setCurrentKey(key);
+                keyedState1.update(key * 2);
+            }
+
+            final String ns2 = "ns2";
+            ValueState<Integer> keyedState2 =
+                    backend.getPartitionedState(
+                            ns2,
+                            StringSerializer.INSTANCE,
+                            new ValueStateDescriptor<>(fieldName, IntSerializer.INSTANCE));
+
+            // half of the keys of namespace2 are not in namespace1
+            for (int key = elementsNum / 2; key < 2 * elementsNum; key++) {
+                backend.setCurrentKey(key);
+                keyedState2.update(key * 2);
+            }
+
+            final Set<Integer> keys = new HashSet<>();
+            for (int keyGroup : backend.getKeyGroupRange()) {
+                try (Stream<Integer> keysStream = backend.getKeys(fieldName, ns1, keyGroup)) {
+                    keysStream.forEach(
+                            key -> {
+                                assertEquals(
+                                        keyGroup,
+                                        KeyGroupRangeAssignment.assignToKeyGroup(
+                                                key,
+                                                backend.getKeyGroupRange().getNumberOfKeyGroups()));
+                                assertTrue(keys.add(key));
+                            });
+                }
+            }
+
+            assertEquals(elementsNum, keys.size());
+            for (int key = 0; key < elementsNum; key++) {
+                assertTrue(keys.contains(key));
+            }
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
     @Test
     public void testGetKeysAndNamespaces() throws Exception {
         final int elementsNum = 1000;
@@ -1563,6 +1622,93 @@ public abstract class StateBackendTestBase<B extends AbstractStateBackend> exten
         }
     }
 
+    /** Tests {@link InternalValueState#multiGet(List)} across keys and namespaces. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testValueStateMultiGet() throws Exception {
+        final ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class);
+
+        final CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            final ValueState<String> state =
+                    backend.getPartitionedState(1, IntSerializer.INSTANCE, kvId);
+            final InternalValueState<Integer, Integer, String> internalState =
+                    (InternalValueState<Integer, Integer, String>) state;
+
+            for (int key = 0; key < 10; key += 2) {
+                backend.setCurrentKey(key);
+                state.update(String.valueOf(key));
+            }
+            backend.setCurrentKey(4);
+            internalState.setCurrentNamespace(2);
+            state.update("namespace-2");
+
+            backend.setCurrentKey(100);
+            internalState.setCurrentNamespace(1);
+            assertEquals(
+                    asList("0", null, "2", null, "4", "2", null),
+                    internalState.multiGet(asList(0, 1, 2, 3, 4, 2, 100)));
+            assertEquals(Collections.emptyList(), internalState.multiGet(Collections.emptyList()));
+
+            internalState.setCurrentNamespace(2);
+            assertEquals(asList(null, "namespace-2"), internalState.multiGet(asList(2, 4)));
+
+            // the current key is not changed by the lookup
+            assertEquals(Integer.valueOf(100), backend.getCurrentKey());
+            assertNull(state.value());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    /** Tests {@link InternalValueState#prepareValue()} with the fetch on another thread. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testValueStatePrepareValue() throws Exception {
+        final ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class);
+
+        final CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            final ValueState<String> state =
+                    backend.getPartitionedState(1, IntSerializer.INSTANCE, kvId);
+            final InternalValueState<Integer, Integer, String> internalState =
+                    (InternalValueState<Integer, Integer, String>) state;
+
+            backend.setCurrentKey(1);
+            state.update("1");
+            internalState.setCurrentNamespace(2);
+            state.update("namespace-2");
+
+            backend.setCurrentKey(1);
+            internalState.setCurrentNamespace(1);
+            final InternalStateRead<String> read = internalState.prepareValue();
+            internalState.setCurrentNamespace(2);
+            final InternalStateRead<String> namespaceRead = internalState.prepareValue();
+            backend.setCurrentKey(2);
+            final InternalStateRead<String> missingRead = internalState.prepareValue();
+
+            // the reads are bound to the key and namespace at the time they were prepared
+            backend.setCurrentKey(3);
+            internalState.setCurrentNamespace(1);
+            assertEquals("1", fetchAndComplete(read));
+            assertEquals("namespace-2", fetchAndComplete(namespaceRead));
+            assertNull(fetchAndComplete(missingRead));
+
+            // the reads observe the writes before they were prepared
+            backend.setCurrentKey(1);
+            state.update("updated");
+            assertEquals("updated", fetchAndComplete(internalState.prepareValue()));
+            state.clear();
+            assertNull(fetchAndComplete(internalState.prepareValue()));
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
     /**
      * Tests {@link ValueState#value()} and {@link InternalKvState#getSerializedValue(byte[],
      * TypeSerializer, TypeSerializer, TypeSerializer)} accessing the state concurrently. They
@@ -3170,6 +3316,98 @@ public abstract class StateBackendTestBase<B extends AbstractStateBackend> exten
         }
     }
 
+    /** Tests {@link InternalMapState#multiGet(List)} across keys. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapStateMultiGet() throws Exception {
+        final MapStateDescriptor<Integer, String> kvId =
+                new MapStateDescriptor<>("id", Integer.class, String.class);
+
+        final CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            final MapState<Integer, String> state =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+            final InternalMapState<Integer, VoidNamespace, Integer, String> internalState =
+                    (InternalMapState<Integer, VoidNamespace, Integer, String>) state;
+
+            backend.setCurrentKey(1);
+            assertEquals(asList(null, null), internalState.multiGet(asList(1, 2)));
+            state.put(1, "1");
+            state.put(3, "3");
+            state.put(4, null);
+
+            backend.setCurrentKey(2);
+            state.put(2, "2");
+
+            backend.setCurrentKey(1);
+            assertEquals(
+                    asList("1", null, "3", null, "1"),
+                    internalState.multiGet(asList(1, 2, 3, 4, 1)));
+            assertEquals(Collections.emptyList(), internalState.multiGet(Collections.emptyList()));
+
+            state.remove(3);
+            assertEquals(asList("1", null), internalState.multiGet(asList(1, 3)));
+
+            backend.setCurrentKey(2);
+            assertEquals(asList(null, "2"), internalState.multiGet(asList(1, 2)));
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    /** Tests {@link InternalMapState#prepareGet(Object)} with the fetch on another thread. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapStatePrepareGet() throws Exception {
+        final MapStateDescriptor<Integer, String> kvId =
+                new MapStateDescriptor<>("id", Integer.class, String.class);
+
+        final CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            final MapState<Integer, String> state =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+            final InternalMapState<Integer, VoidNamespace, Integer, String> internalState =
+                    (InternalMapState<Integer, VoidNamespace, Integer, String>) state;
+
+            backend.setCurrentKey(1);
+            state.put(1, "1");
+            state.put(2, null);
+
+            final InternalStateRead<String> read = internalState.prepareGet(1);
+            final InternalStateRead<String> nullRead = internalState.prepareGet(2);
+            final InternalStateRead<String> missingRead = internalState.prepareGet(3);
+
+            // the reads are bound to the key at the time they were prepared
+            backend.setCurrentKey(2);
+            assertEquals("1", fetchAndComplete(read));
+            assertNull(fetchAndComplete(nullRead));
+            assertNull(fetchAndComplete(missingRead));
+            assertNull(fetchAndComplete(internalState.prepareGet(1)));
+
+            // the reads observe the writes before they were prepared
+            backend.setCurrentKey(1);
+            state.put(1, "updated");
+            assertEquals("updated", fetchAndComplete(internalState.prepareGet(1)));
+            state.remove(1);
+            assertNull(fetchAndComplete(internalState.prepareGet(1)));
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    private static <T> T fetchAndComplete(InternalStateRead<T> read) throws Exception {
+        if (read.requiresFetch()) {
+            CompletableFuture.runAsync(ThrowingRunnable.unchecked(read::fetch)).get();
+        }
+        return read.complete();
+    }
+
     @Test
     @SuppressWarnings("unchecked,rawtypes")
     public void testMapState() throws Exception {
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.core.memory.ByteArrayInputStreamWithPos;
+import org.apache.flink.core.memory.ByteArrayOutputStreamWithPos;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryManagerBuilder;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.StateSnapshotTransformer;
+import org.apache.flink.runtime.state.internal.InternalKvState.StateIncrementalVisitor;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/** Test for {@link OffHeapStateMap} and {@link OffHeapStateAllocator}. */
+public class OffHeapStateMapTest extends TestLogger {
+
+    private OffHeapStateAllocator allocator;
+
+    @Before
+    public void setUp() {
+        allocator = new OffHeapStateAllocator(4096);
+    }
+
+    @After
+    public void tearDown() {
+        allocator.close();
+    }
+
+    /** Testing the basic map operations. */
+    @Test
+    public void testPutGetRemoveContainsTransform() throws Exception {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+
+        Assert.assertNull(stateMap.putAndGetOld(1, 1, 41L));
+        Assert.assertEquals(Long.valueOf(41L), stateMap.get(1, 1));
+        Assert.assertEquals(1, stateMap.size());
+
+        Assert.assertNull(stateMap.putAndGetOld(2, 1, 42L));
+        Assert.assertEquals(Long.valueOf(42L), stateMap.get(2, 1));
+        Assert.assertEquals(2, stateMap.size());
+
+        Assert.assertNull(stateMap.putAndGetOld(1, 2, 43L));
+        Assert.assertEquals(Long.valueOf(43L), stateMap.get(1, 2));
+        Assert.assertEquals(3, stateMap.size());
+
+        Assert.assertTrue(stateMap.containsKey(1, 2));
+        Assert.assertFalse(stateMap.containsKey(3, 1));
+        Assert.assertNull(stateMap.get(3, 1));
+
+        stateMap.put(2, 1, 44L);
+        Assert.assertEquals(Long.valueOf(44L), stateMap.get(2, 1));
+        Assert.assertEquals(3, stateMap.size());
+
+        Assert.assertEquals(Long.valueOf(44L), stateMap.removeAndGetOld(2, 1));
+        Assert.assertFalse(stateMap.containsKey(2, 1));
+        Assert.assertEquals(2, stateMap.size());
+
+        stateMap.remove(1, 2);
+        Assert.assertFalse(stateMap.containsKey(1, 2));
+        Assert.assertEquals(1, stateMap.size());
+
+        Assert.assertNull(stateMap.removeAndGetOld(4, 2));
+        Assert.assertEquals(1, stateMap.size());
+
+        stateMap.transform(1, 1, 5L, (previous, value) -> previous + value);
+        Assert.assertEquals(Long.valueOf(46L), stateMap.get(1, 1));
+
+        stateMap.transform(5, 1, 7L, (previous, value) -> previous == null ? value : -1L);
+        Assert.assertEquals(Long.valueOf(7L), stateMap.get(5, 1));
+        Assert.assertEquals(2, stateMap.size());
+    }
+
+    /** Testing that null states and states of different sizes are stored correctly. */
+    @Test
+    public void testNullAndVariableSizedStates() {
+        final OffHeapStateMap<Integer, Integer, String> stateMap =
+                createStateMap(IntSerializer.INSTANCE, StringSerializer.INSTANCE);
+
+        stateMap.put(1, 1, null);
+        Assert.assertTrue(stateMap.containsKey(1, 1));
+        Assert.assertNull(stateMap.get(1, 1));
+        Assert.assertEquals(1, stateMap.size());
+
+        stateMap.put(1, 1, "");
+        Assert.assertEquals("", stateMap.get(1, 1));
+
+        // larger than a chunk, this requires a dedicated segment
+        final String largeState = createString(10_000);
+        stateMap.put(1, 1, largeState);
+        Assert.assertEquals(largeState, stateMap.get(1, 1));
+
+        stateMap.put(1, 1, "small");
+        Assert.assertEquals("small", stateMap.get(1, 1));
+        Assert.assertEquals(1, stateMap.size());
+
+        stateMap.remove(1, 1);
+        Assert.assertEquals(0, stateMap.size());
+        Assert.assertEquals(0L, allocator.getUsedBytes());
+    }
+
+    /**
+     * This test does some random modifications to a state map and a reference (hash map). Then
+     * draws snapshots, performs more modifications and checks snapshot integrity.
+     */
+    @Test
+    public void testRandomModificationsAndCopyOnWriteIsolation() throws Exception {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+        final HashMap<Tuple2<Integer, Integer>, Long> referenceMap = new HashMap<>();
+
+        final Random random = new Random(42);
+
+        OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot = null;
+        Map<Tuple2<Integer, Integer>, Long> referenceSnapshot = null;
+
+        for (int i = 0; i < 100_000; ++i) {
+            final int key = random.nextInt(1000);
+            final int namespace = random.nextInt(4);
+            final Tuple2<Integer, Integer> compositeKey = new Tuple2<>(key, namespace);
+
+            final int op = random.nextInt(6);
+            switch (op) {
+                case 0:
+                case 1:
+                    {
+                        final long state = random.nextLong();
+                        Assert.assertEquals(
+                                referenceMap.put(compositeKey, state),
+                                stateMap.putAndGetOld(key, namespace, state));
+                        break;
+                    }
+                case 2:
+                    {
+                        Assert.assertEquals(
+                                referenceMap.remove(compositeKey),
+                                stateMap.removeAndGetOld(key, namespace));
+                        break;
+                    }
+                case 3:
+                    {
+                        final long delta = random.nextInt(100);
+                        stateMap.transform(
+                                key,
+                                namespace,
+                                delta,
+                                (previous, value) -> previous == null ? value : previous + value);
+                        referenceMap.merge(compositeKey, delta, Long::sum);
+                        break;
+                    }
+                case 4:
+                    {
+                        Assert.assertEquals(
+                                referenceMap.containsKey(compositeKey),
+                                stateMap.containsKey(key, namespace));
+                        break;
+                    }
+                default:
+                    {
+                        Assert.assertEquals(
+                                referenceMap.get(compositeKey), stateMap.get(key, namespace));
+                        break;
+                    }
+            }
+
+            Assert.assertEquals(referenceMap.size(), stateMap.size());
+
+            if (i % 10_000 == 0) {
+                if (snapshot != null) {
+                    Assert.assertEquals(referenceSnapshot, readSnapshot(snapshot));
+                    snapshot.release();
+                }
+                snapshot = stateMap.stateSnapshot();
+                referenceSnapshot = new HashMap<>(referenceMap);
+            }
+        }
+
+        Assert.assertEquals(referenceSnapshot, readSnapshot(snapshot));
+        Assert.assertEquals(referenceMap, readEntries(stateMap.iterator()));
+        snapshot.release();
+        Assert.assertTrue(stateMap.getSnapshotVersions().isEmpty());
+    }
+
+    /**
+     * Tests that replaced entries are only freed after all snapshots that see them are released.
+     */
+    @Test
+    public void testRetiredEntriesAreReclaimedAfterRelease() throws Exception {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+
+        for (int i = 0; i < 100; ++i) {
+            stateMap.put(i, 0, (long) i);
+        }
+        final long usedBytesBeforeSnapshot = allocator.getUsedBytes();
+
+        // without snapshots, entries are updated in place
+        for (int i = 0; i < 100; ++i) {
+            stateMap.put(i, 0, (long) -i);
+        }
+        Assert.assertEquals(usedBytesBeforeSnapshot, allocator.getUsedBytes());
+        Assert.assertEquals(0, stateMap.getNumberOfRetiredEntries());
+
+        final OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot = stateMap.stateSnapshot();
+        for (int i = 0; i < 100; ++i) {
+            stateMap.put(i, 0, (long) i);
+        }
+        stateMap.remove(0, 0);
+        Assert.assertEquals(100, stateMap.getNumberOfRetiredEntries());
+
+        // the snapshot still sees the old states
+        final Map<Tuple2<Integer, Integer>, Long> snapshotEntries = readSnapshot(snapshot);
+        Assert.assertEquals(100, snapshotEntries.size());
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(Long.valueOf(-i), snapshotEntries.get(new Tuple2<>(i, 0)));
+        }
+
+        snapshot.release();
+        // retired entries are reclaimed on the next modification
+        stateMap.put(0, 0, 0L);
+        Assert.assertEquals(0, stateMap.getNumberOfRetiredEntries());
+        Assert.assertEquals(usedBytesBeforeSnapshot, allocator.getUsedBytes());
+    }
+
+    /** Tests that the snapshot writes the same format as the {@link CopyOnWriteStateMap}. */
+    @Test
+    public void testSnapshotWriteAndTransform() throws Exception {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+        final Map<Tuple2<Integer, Integer>, Long> expected = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            stateMap.put(i, i % 3, (long) i);
+            expected.put(new Tuple2<>(i, i % 3), (long) i);
+        }
+
+        final OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot = stateMap.stateSnapshot();
+        Assert.assertEquals(expected, writeAndReadSnapshot(snapshot, null));
+
+        final StateSnapshotTransformer<Long> evenOnly = value -> value % 2 == 0 ? value * 10 : null;
+        final Map<Tuple2<Integer, Integer>, Long> transformed =
+                writeAndReadSnapshot(snapshot, evenOnly);
+        Assert.assertEquals(50, transformed.size());
+        for (Map.Entry<Tuple2<Integer, Integer>, Long> entry : transformed.entrySet()) {
+            Assert.assertEquals(Long.valueOf(entry.getKey().f0 * 10L), entry.getValue());
+        }
+        snapshot.release();
+    }
+
+    /** Tests that all entries are re-serialized when the state serializer changes. */
+    @Test
+    public void testUpdateStateSerializer() {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+        for (int i = 0; i < 10; ++i) {
+            stateMap.put(i, 0, (long) i);
+        }
+
+        final OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot = stateMap.stateSnapshot();
+        stateMap.updateStateSerializer(new LongSerializer());
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(Long.valueOf(i), stateMap.get(i, 0));
+        }
+        snapshot.release();
+    }
+
+    /** Tests that the incremental visitor sees and can update all entries. */
+    @Test
+    public void testIncrementalVisitor() {
+        final OffHeapStateMap<Integer, Integer, Long> stateMap =
+                createStateMap(IntSerializer.INSTANCE, LongSerializer.INSTANCE);
+        for (int i = 0; i < 100; ++i) {
+            stateMap.put(i, 0, (long) i);
+        }
+
+        final StateIncrementalVisitor<Integer, Integer, Long> visitor =
+                stateMap.getStateIncrementalVisitor(7);
+        int visited = 0;
+        while (visitor.hasNext()) {
+            for (StateEntry<Integer, Integer, Long> entry : visitor.nextEntries()) {
+                if (entry.getKey() % 2 == 0) {
+                    visitor.remove(entry);
+                } else {
+                    visitor.update(entry, entry.getState() + 1);
+                }
+                visited++;
+            }
+        }
+
+        Assert.assertEquals(100, visited);
+        Assert.assertEquals(50, stateMap.size());
+        for (int i = 1; i < 100; i += 2) {
+            Assert.assertEquals(Long.valueOf(i + 1), stateMap.get(i, 0));
+        }
+    }
+
+    /** Tests that the allocator reuses freed blocks and respects its memory limit. */
+    @Test
+    public void testAllocatorReuseAndLimit() {
+        final OffHeapStateAllocator limitedAllocator = new OffHeapStateAllocator(1024, 2048, null);
+        try {
+            final long first = limitedAllocator.allocate(100);
+            limitedAllocator.free(first, 100);
+            Assert.assertEquals(first, limitedAllocator.allocate(120));
+            Assert.assertEquals(1024L, limitedAllocator.getReservedBytes());
+
+            limitedAllocator.allocate(1024);
+            Assert.assertEquals(2048L, limitedAllocator.getReservedBytes());
+
+            try {
+                limitedAllocator.allocate(1024);
+                Assert.fail("Expected the memory limit to be exceeded.");
+            } catch (FlinkRuntimeException expected) {
+                // expected
+            }
+        } finally {
+            limitedAllocator.close();
+        }
+        Assert.assertEquals(0L, limitedAllocator.getReservedBytes());
+    }
+
+    /** Tests that chunks are returned to the memory manager once all their blocks are freed. */
+    @Test
+    public void testAllocatorReleasesEmptyChunks() {
+        final MemoryManager memoryManager =
+                MemoryManagerBuilder.newBuilder().setMemorySize(4096).build();
+        final OffHeapStateAllocator managedAllocator =
+                new OffHeapStateAllocator(1024, 4096, memoryManager);
+        try {
+            final long[] addresses = new long[8];
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = managedAllocator.allocate(256);
+            }
+            Assert.assertEquals(2048L, managedAllocator.getReservedBytes());
+            Assert.assertEquals(2048L, memoryManager.availableMemory());
+
+            // the blocks of the first chunk, which is not the current chunk anymore
+            for (int i = 0; i < 4; i++) {
+                managedAllocator.free(addresses[i], 256);
+            }
+            Assert.assertEquals(1024L, managedAllocator.getReservedBytes());
+            Assert.assertEquals(3072L, memoryManager.availableMemory());
+
+            // blocks of the released chunk are not handed out again
+            final long address = managedAllocator.allocate(256);
+            Assert.assertNotNull(managedAllocator.getSegment(address));
+            Assert.assertEquals(2048L, managedAllocator.getReservedBytes());
+        } finally {
+            managedAllocator.close();
+        }
+        Assert.assertEquals(0L, managedAllocator.getReservedBytes());
+        Assert.assertEquals(4096L, memoryManager.availableMemory());
+        memoryManager.shutdown();
+    }
+
+    // ------------------------------------------------------------------------
+
+    private <S> OffHeapStateMap<Integer, Integer, S> createStateMap(
+            TypeSerializer<Integer> namespaceSerializer, TypeSerializer<S> stateSerializer) {
+        final RegisteredKeyValueStateBackendMetaInfo<Integer, S> metaInfo =
+                new RegisteredKeyValueStateBackendMetaInfo<>(
+                        StateDescriptor.Type.VALUE, "test", namespaceSerializer, stateSerializer);
+        final OffHeapStateTable<Integer, Integer, S> table =
+                new OffHeapStateTable<>(
+                        new MockInternalKeyContext<>(),
+                        metaInfo,
+                        IntSerializer.INSTANCE,
+                        allocator);
+        return (OffHeapStateMap<Integer, Integer, S>) table.getMapForKeyGroup(0);
+    }
+
+    private static Map<Tuple2<Integer, Integer>, Long> readSnapshot(
+            OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot) {
+        return readEntries(
+                snapshot.getIterator(
+                        IntSerializer.INSTANCE,
+                        IntSerializer.INSTANCE,
+                        LongSerializer.INSTANCE,
+                        null));
+    }
+
+    private static Map<Tuple2<Integer, Integer>, Long> readEntries(
+            Iterator<StateEntry<Integer, Integer, Long>> iterator) {
+        final Map<Tuple2<Integer, Integer>, Long> result = new HashMap<>();
+        while (iterator.hasNext()) {
+            final StateEntry<Integer, Integer, Long> entry = iterator.next();
+            Assert.assertNull(
+                    result.put(
+                            new Tuple2<>(entry.getKey(), entry.getNamespace()), entry.getState()));
+        }
+        return result;
+    }
+
+    private static Map<Tuple2<Integer, Integer>, Long> writeAndReadSnapshot(
+            OffHeapStateMapSnapshot<Integer, Integer, Long> snapshot,
+            StateSnapshotTransformer<Long> transformer)
+            throws IOException {
+        final ByteArrayOutputStreamWithPos out = new ByteArrayOutputStreamWithPos();
+        snapshot.writeState(
+                IntSerializer.INSTANCE,
+                IntSerializer.INSTANCE,
+                LongSerializer.INSTANCE,
+                new DataOutputViewStreamWrapper(out),
+                transformer);
+
+        final DataInputViewStreamWrapper in =
+                new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(out.toByteArray()));
+        final Map<Tuple2<Integer, Integer>, Long> result = new HashMap<>();
+        final int numEntries = in.readInt();
+        for (int i = 0; i < numEntries; ++i) {
+            final int namespace = IntSerializer.INSTANCE.deserialize(in);
+            final int key = IntSerializer.INSTANCE.deserialize(in);
+            final long state = LongSerializer.INSTANCE.deserialize(in);
+            result.put(new Tuple2<>(key, namespace), state);
+        }
+        Assert.assertEquals(-1, in.read());
+        return result;
+    }
+
+    private static String createString(int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.core.memory.ByteArrayOutputStreamWithPos;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateSnapshot;
+
+import java.io.IOException;
+
+/**
+ * The benchmark of the {@link StateMap} implementations of the heap keyed state backend. It
+ * compares the {@link CopyOnWriteStateMap} with the {@link OffHeapStateMap} for point reads,
+ * updates and full snapshots of a value state with primitive keys and states. The related methods
+ * are {@link StateTable#get}, {@link StateTable#put} and {@link StateSnapshot#getKeyGroupWriter}.
+ */
+public class StateMapBenchmark {
+
+    /** The implementations under comparison. */
+    public enum StateMapType {
+        COPY_ON_WRITE,
+        OFF_HEAP
+    }
+
+    private static final int OFF_HEAP_CHUNK_SIZE = 1024 * 1024;
+
+    private final int numberOfKeys;
+
+    private OffHeapStateAllocator allocator;
+    private StateTable<Long, Long, Long> stateTable;
+    private long nextKey;
+
+    public StateMapBenchmark(int numberOfKeys) {
+        this.numberOfKeys = numberOfKeys;
+    }
+
+    public void setup(StateMapType stateMapType) {
+        final RegisteredKeyValueStateBackendMetaInfo<Long, Long> metaInfo =
+                new RegisteredKeyValueStateBackendMetaInfo<>(
+                        StateDescriptor.Type.VALUE,
+                        "benchmark",
+                        LongSerializer.INSTANCE,
+                        LongSerializer.INSTANCE);
+        final InternalKeyContext<Long> keyContext = new MockInternalKeyContext<>();
+
+        switch (stateMapType) {
+            case COPY_ON_WRITE:
+                stateTable =
+                        new CopyOnWriteStateTable<>(keyContext, metaInfo, LongSerializer.INSTANCE);
+                break;
+            case OFF_HEAP:
+                allocator = new OffHeapStateAllocator(OFF_HEAP_CHUNK_SIZE);
+                stateTable =
+                        new OffHeapStateTable<>(
+                                keyContext, metaInfo, LongSerializer.INSTANCE, allocator);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown state map type " + stateMapType);
+        }
+
+        for (long key = 0; key < numberOfKeys; key++) {
+            stateTable.put(key, 0, 0L, key);
+        }
+        nextKey = 0;
+    }
+
+    public void teardown() {
+        if (allocator != null) {
+            allocator.close();
+            allocator = null;
+        }
+        stateTable = null;
+    }
+
+    public Long get() {
+        return stateTable.get(nextKey(), 0L);
+    }
+
+    public void put() {
+        final long key = nextKey();
+        stateTable.put(key, 0, 0L, key + 1);
+    }
+
+    public void snapshot() throws IOException {
+        final StateSnapshot snapshot = stateTable.stateSnapshot();
+        final DataOutputViewStreamWrapper out =
+                new DataOutputViewStreamWrapper(new ByteArrayOutputStreamWithPos(1024));
+        snapshot.getKeyGroupWriter().writeStateInKeyGroup(out, 0);
+        snapshot.release();
+    }
+
+    private long nextKey() {
+        final long key = nextKey;
+        nextKey = key + 1 == numberOfKeys ? 0 : key + 1;
+        return key;
+    }
+}
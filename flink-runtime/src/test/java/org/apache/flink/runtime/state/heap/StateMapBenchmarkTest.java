@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The benchmark of the {@link StateMap} implementations of the heap keyed state backend. It
+ * compares the {@link CopyOnWriteStateMap} with the {@link OffHeapStateMap}.
+ */
+public class StateMapBenchmarkTest extends TestLogger {
+
+    private static final int NUMBER_OF_KEYS = 1000;
+
+    @Test
+    public void benchmarkCopyOnWriteStateMap() throws Exception {
+        runBenchmark(StateMapBenchmark.StateMapType.COPY_ON_WRITE);
+    }
+
+    @Test
+    public void benchmarkOffHeapStateMap() throws Exception {
+        runBenchmark(StateMapBenchmark.StateMapType.OFF_HEAP);
+    }
+
+    private static void runBenchmark(StateMapBenchmark.StateMapType stateMapType) throws Exception {
+        StateMapBenchmark benchmark = new StateMapBenchmark(NUMBER_OF_KEYS);
+        benchmark.setup(stateMapType);
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            Assert.assertEquals(Long.valueOf(i), benchmark.get());
+        }
+        benchmark.put();
+        benchmark.snapshot();
+        benchmark.teardown();
+    }
+}
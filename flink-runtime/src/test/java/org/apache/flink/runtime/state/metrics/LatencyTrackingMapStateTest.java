@@ -67,6 +67,7 @@ public class LatencyTrackingMapStateTest extends LatencyTrackingStateTestBase<In
             assertEquals(0, latencyTrackingStateMetric.getContainsCount());
             assertEquals(0, latencyTrackingStateMetric.getEntriesInitCount());
             assertEquals(0, latencyTrackingStateMetric.getGetCount());
+            assertEquals(0, latencyTrackingStateMetric.getMultiGetCount());
             assertEquals(0, latencyTrackingStateMetric.getIsEmptyCount());
             assertEquals(0, latencyTrackingStateMetric.getIteratorInitCount());
             assertEquals(0, latencyTrackingStateMetric.getIteratorHasNextCount());
@@ -92,6 +93,9 @@ public class LatencyTrackingMapStateTest extends LatencyTrackingStateTestBase<In
                 latencyTrackingState.get(random.nextLong());
                 assertEquals(expectedResult, latencyTrackingStateMetric.getGetCount());
 
+                latencyTrackingState.multiGet(Collections.singletonList(random.nextLong()));
+                assertEquals(expectedResult, latencyTrackingStateMetric.getMultiGetCount());
+
                 latencyTrackingState.remove(random.nextLong());
                 assertEquals(expectedResult, latencyTrackingStateMetric.getRemoveCount());
 
@@ -27,6 +27,7 @@ import org.apache.flink.runtime.state.VoidNamespace;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.junit.Assert.assertEquals;
@@ -63,6 +64,7 @@ public class LatencyTrackingValueStateTest extends LatencyTrackingStateTestBase<
 
             assertEquals(0, latencyTrackingStateMetric.getUpdateCount());
             assertEquals(0, latencyTrackingStateMetric.getGetCount());
+            assertEquals(0, latencyTrackingStateMetric.getMultiGetCount());
 
             setCurrentKey(keyedBackend);
             for (int index = 1; index <= SAMPLE_INTERVAL; index++) {
@@ -72,6 +74,9 @@ public class LatencyTrackingValueStateTest extends LatencyTrackingStateTestBase<
 
                 latencyTrackingState.value();
                 assertEquals(expectedResult, latencyTrackingStateMetric.getGetCount());
+
+                latencyTrackingState.multiGet(Collections.singletonList(1));
+                assertEquals(expectedResult, latencyTrackingStateMetric.getMultiGetCount());
             }
         } finally {
             if (keyedBackend != null) {
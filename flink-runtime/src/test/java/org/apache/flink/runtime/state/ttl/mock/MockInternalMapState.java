@@ -23,8 +23,10 @@ import org.apache.flink.api.common.state.StateDescriptor;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.internal.InternalMapState;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /** In memory mock internal map state. */
@@ -45,6 +47,15 @@ public class MockInternalMapState<K, N, UK, UV> extends MockInternalKvState<K, N
         return getInternal().get(key);
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> keys) {
+        List<UV> values = new ArrayList<>(keys.size());
+        for (UK key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
     @Override
     public void put(UK key, UV value) {
         this.getInternal().put(key, value);
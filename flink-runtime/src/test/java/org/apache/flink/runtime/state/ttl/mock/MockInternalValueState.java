@@ -23,6 +23,8 @@ import org.apache.flink.api.common.state.StateDescriptor;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 
+import java.util.List;
+
 /** In memory mock internal value state. */
 class MockInternalValueState<K, N, T> extends MockInternalKvState<K, N, T>
         implements InternalValueState<K, N, T> {
@@ -32,6 +34,11 @@ class MockInternalValueState<K, N, T> extends MockInternalKvState<K, N, T>
         return getInternal();
     }
 
+    @Override
+    public List<T> multiGet(List<K> keys) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void update(T value) {
         updateInternal(value);
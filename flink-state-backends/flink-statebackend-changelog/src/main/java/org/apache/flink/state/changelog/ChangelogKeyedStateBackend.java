@@ -255,6 +255,11 @@ public class ChangelogKeyedStateBackend<K>
         return keyedStateBackend.getKeys(state, namespace);
     }
 
+    @Override
+    public <N> Stream<K> getKeys(String state, N namespace, int keyGroup) {
+        return keyedStateBackend.getKeys(state, namespace, keyGroup);
+    }
+
     @Override
     public <N> Stream<Tuple2<K, N>> getKeysAndNamespaces(String state) {
         return keyedStateBackend.getKeysAndNamespaces(state);
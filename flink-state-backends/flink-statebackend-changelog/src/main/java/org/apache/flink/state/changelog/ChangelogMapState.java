@@ -34,6 +34,7 @@ import org.apache.flink.util.function.ThrowingConsumer;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -91,6 +92,11 @@ class ChangelogMapState<K, N, UK, UV>
         return delegatedState.get(key);
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> keys) throws Exception {
+        return delegatedState.multiGet(keys);
+    }
+
     @Override
     public void put(UK key, UV value) throws Exception {
         delegatedState.put(key, value);
@@ -29,6 +29,7 @@ import org.apache.flink.state.changelog.restore.StateChangeApplier;
 import org.apache.flink.util.ExceptionUtils;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Delegated partitioned {@link ValueState} that forwards changes to {@link StateChange} upon {@link
@@ -57,6 +58,11 @@ class ChangelogValueState<K, N, V>
         return delegatedState.value();
     }
 
+    @Override
+    public List<V> multiGet(List<K> keys) throws IOException {
+        return delegatedState.multiGet(keys);
+    }
+
     @Override
     public void update(V value) throws IOException {
         delegatedState.update(value);
@@ -31,8 +31,10 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
@@ -161,6 +163,11 @@ public class ChangelogMapStateTest {
             return map.get(key);
         }
 
+        @Override
+        public List<String> multiGet(List<String> keys) {
+            return keys.stream().map(map::get).collect(Collectors.toList());
+        }
+
         @Override
         public void put(String key, String value) {
             map.put(key, value);
@@ -64,6 +64,9 @@ public class CopyOnWriteSkipListStateMapSnapshot<K, N, S>
     /** This lease protects the state map resources. */
     private final ResourceGuard.Lease lease;
 
+    /** Whether this snapshot has been released. */
+    private boolean released;
+
     /**
      * Creates a new {@link CopyOnWriteSkipListStateMap}.
      *
@@ -78,6 +81,7 @@ public class CopyOnWriteSkipListStateMapSnapshot<K, N, S>
         this.snapshotVersion = owningStateMap.getStateMapVersion();
         this.numberOfEntriesInSnapshotData = owningStateMap.size();
         this.lease = lease;
+        this.released = false;
     }
 
     /** Returns the internal version of the when this snapshot was created. */
@@ -87,8 +91,15 @@ public class CopyOnWriteSkipListStateMapSnapshot<K, N, S>
 
     @Override
     public void release() {
-        owningStateMap.releaseSnapshot(this);
-        lease.close();
+        if (!released) {
+            owningStateMap.releaseSnapshot(this);
+            lease.close();
+            released = true;
+        }
+    }
+
+    public boolean isReleased() {
+        return released;
     }
 
     @Override
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.util.Preconditions;
+import org.apache.flink.util.concurrent.ExecutorThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically samples the status of the JVM heap. There is at most one monitor per JVM, shared by
+ * all spillable keyed state backends. Backends only read the latest {@link HeapStatus}, so that
+ * sampling does not add latency to state accesses.
+ *
+ * <p>The monitor is reference counted: each backend {@link #acquire() acquires} it when it is
+ * created and {@link #release() releases} it when it is disposed. The sampling thread is stopped
+ * once the last backend released the monitor, so it does not outlive the tasks which use it.
+ *
+ * <p>The monitor approximates the live data on the heap with the usage of each heap memory pool
+ * after its last collection, falling back to the current usage for pools that were not collected
+ * yet. Unlike the plain heap usage, this does not count garbage that merely waits for the next
+ * collection.
+ */
+public class HeapStatusMonitor implements Supplier<HeapStatusMonitor.HeapStatus> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeapStatusMonitor.class);
+
+    /** The interval in which the heap status is sampled. */
+    private static final long MONITOR_INTERVAL_MS = 100L;
+
+    private static final Object LOCK = new Object();
+
+    @GuardedBy("LOCK")
+    @Nullable
+    private static HeapStatusMonitor instance;
+
+    @GuardedBy("LOCK")
+    private static int numUsers;
+
+    private final List<MemoryPoolMXBean> heapPools;
+
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+
+    private final long maxHeapBytes;
+
+    private volatile HeapStatus heapStatus;
+
+    @Nullable private ScheduledExecutorService executor;
+
+    @VisibleForTesting
+    HeapStatusMonitor() {
+        this.heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+            }
+        }
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+        final long max = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+        this.maxHeapBytes = max > 0 ? max : Runtime.getRuntime().maxMemory();
+        this.heapStatus = sample();
+    }
+
+    /**
+     * Returns the monitor of this JVM, starting it if it is not running. Every call must be
+     * followed by a call to {@link #release()} once the caller no longer needs the monitor.
+     */
+    public static HeapStatusMonitor acquire() {
+        synchronized (LOCK) {
+            if (instance == null) {
+                final HeapStatusMonitor monitor = new HeapStatusMonitor();
+                monitor.start();
+                instance = monitor;
+            }
+            numUsers++;
+            return instance;
+        }
+    }
+
+    /** Releases the monitor, stopping it if it has no other users. */
+    public void release() {
+        synchronized (LOCK) {
+            Preconditions.checkState(
+                    instance == this && numUsers > 0, "The heap status monitor is not acquired.");
+            if (--numUsers == 0) {
+                stop();
+                instance = null;
+            }
+        }
+    }
+
+    private void start() {
+        executor =
+                Executors.newSingleThreadScheduledExecutor(
+                        new ExecutorThreadFactory("heap-status-monitor"));
+        executor.scheduleWithFixedDelay(
+                this::update, MONITOR_INTERVAL_MS, MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        LOG.info("Started heap status monitor with a maximum heap size of {} bytes.", maxHeapBytes);
+    }
+
+    private void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            LOG.info("Stopped heap status monitor.");
+        }
+    }
+
+    @VisibleForTesting
+    boolean isRunning() {
+        synchronized (LOCK) {
+            return executor != null;
+        }
+    }
+
+    /** Returns the latest status of the heap. */
+    @Override
+    public HeapStatus get() {
+        return heapStatus;
+    }
+
+    @VisibleForTesting
+    void update() {
+        try {
+            heapStatus = sample();
+        } catch (Throwable t) {
+            LOG.warn("Failed to sample the heap status.", t);
+        }
+    }
+
+    private HeapStatus sample() {
+        long liveBytes = 0L;
+        for (MemoryPoolMXBean pool : heapPools) {
+            final MemoryUsage collectionUsage = pool.getCollectionUsage();
+            if (collectionUsage != null && collectionUsage.getUsed() > 0) {
+                liveBytes += collectionUsage.getUsed();
+            } else {
+                liveBytes += pool.getUsage().getUsed();
+            }
+        }
+
+        long gcCount = 0L;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            gcCount += Math.max(0L, collector.getCollectionCount());
+        }
+        return new HeapStatus(liveBytes, maxHeapBytes, gcCount);
+    }
+
+    /** The status of the JVM heap at one point in time. */
+    public static final class HeapStatus {
+
+        private final long liveBytes;
+
+        private final long maxBytes;
+
+        private final long gcCount;
+
+        public HeapStatus(long liveBytes, long maxBytes, long gcCount) {
+            this.liveBytes = liveBytes;
+            this.maxBytes = maxBytes;
+            this.gcCount = gcCount;
+        }
+
+        /** Returns the approximate number of live bytes on the heap. */
+        public long getLiveBytes() {
+            return liveBytes;
+        }
+
+        /** Returns the maximum size of the heap. */
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        /** Returns the number of garbage collections so far. */
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        /** Returns the share of the maximum heap size that is occupied by live data. */
+        public double getLiveRatio() {
+            return maxBytes > 0 ? (double) liveBytes / maxBytes : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return "HeapStatus{liveBytes="
+                    + liveBytes
+                    + ", maxBytes="
+                    + maxBytes
+                    + ", gcCount="
+                    + gcCount
+                    + '}';
+        }
+    }
+}
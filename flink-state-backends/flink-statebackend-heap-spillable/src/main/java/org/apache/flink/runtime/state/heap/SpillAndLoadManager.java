@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.state.heap.HeapStatusMonitor.HeapStatus;
+import org.apache.flink.runtime.state.heap.space.ChunkAllocator;
+import org.apache.flink.util.IOUtils;
+import org.apache.flink.util.Preconditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Decides which key groups of the {@link SpillableStateTable}s of one backend are kept on the heap
+ * and which are spilled to the {@link ChunkAllocator}.
+ *
+ * <p>The heap status is checked periodically from state accesses. When the ratio of live data on
+ * the heap exceeds the spill threshold, the key groups with the fewest recent accesses are spilled
+ * until the expected ratio lies between the load and the spill threshold. When the ratio falls
+ * below the load threshold, the spilled key groups with the most recent accesses are loaded back as
+ * long as they are expected to fit below the middle of the two thresholds. An action is only taken
+ * if a garbage collection happened since the previous action, because the heap status does not
+ * reflect the effect of the previous action before.
+ *
+ * <p>This class is not thread safe and is only accessed by the task thread, except for the metrics.
+ */
+class SpillAndLoadManager implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillAndLoadManager.class);
+
+    /** The number of state accesses after which the time of the last check is compared. */
+    @VisibleForTesting static final int ACCESSES_PER_CHECK = 1 << 12;
+
+    /** The estimated ratio of the heap size of a state to the size of its serialized form. */
+    private static final double HEAP_SIZE_ESTIMATION_FACTOR = 2.0;
+
+    private final Supplier<HeapStatus> heapStatusSupplier;
+
+    private final ChunkAllocator allocator;
+
+    private final double spillThreshold;
+
+    private final double loadThreshold;
+
+    private final long checkIntervalNanos;
+
+    private final List<SpillableStateTable<?, ?, ?>> stateTables = new ArrayList<>();
+
+    /** Spilled state maps that were replaced, but may still be read by running snapshots. */
+    private final List<CopyOnWriteSkipListStateMap<?, ?, ?>> retiredStateMaps = new ArrayList<>();
+
+    private int accessesSinceCheck;
+
+    private long lastCheckNanos;
+
+    private long gcCountAtLastAction = -1L;
+
+    private volatile int numSpilledKeyGroups;
+
+    private volatile long spillCount;
+
+    private volatile long loadCount;
+
+    SpillAndLoadManager(
+            Supplier<HeapStatus> heapStatusSupplier,
+            ChunkAllocator allocator,
+            double spillThreshold,
+            double loadThreshold,
+            long checkIntervalMillis) {
+        Preconditions.checkArgument(
+                loadThreshold <= spillThreshold,
+                "The load threshold %s must not exceed the spill threshold %s.",
+                loadThreshold,
+                spillThreshold);
+        this.heapStatusSupplier = Preconditions.checkNotNull(heapStatusSupplier);
+        this.allocator = Preconditions.checkNotNull(allocator);
+        this.spillThreshold = spillThreshold;
+        this.loadThreshold = loadThreshold;
+        this.checkIntervalNanos = checkIntervalMillis * 1_000_000L;
+        this.lastCheckNanos = System.nanoTime();
+    }
+
+    void register(SpillableStateTable<?, ?, ?> stateTable) {
+        stateTables.add(stateTable);
+    }
+
+    /** Called on every state access, checks the heap status from time to time. */
+    void onStateAccess() {
+        if (++accessesSinceCheck < ACCESSES_PER_CHECK) {
+            return;
+        }
+        accessesSinceCheck = 0;
+        final long now = System.nanoTime();
+        if (now - lastCheckNanos >= checkIntervalNanos) {
+            lastCheckNanos = now;
+            checkHeapStatus();
+        }
+    }
+
+    /** Spills or loads key groups according to the current heap status. */
+    @VisibleForTesting
+    void checkHeapStatus() {
+        closeRetiredStateMaps();
+
+        final HeapStatus heapStatus = heapStatusSupplier.get();
+        if (heapStatus.getGcCount() != gcCountAtLastAction) {
+            final double liveRatio = heapStatus.getLiveRatio();
+            boolean acted = false;
+            if (liveRatio > spillThreshold) {
+                acted = spill(heapStatus);
+            } else if (liveRatio < loadThreshold) {
+                acted = load(heapStatus);
+            }
+            if (acted) {
+                gcCountAtLastAction = heapStatus.getGcCount();
+            }
+        }
+
+        for (SpillableStateTable<?, ?, ?> stateTable : stateTables) {
+            stateTable.decayAccessCounts();
+        }
+    }
+
+    private boolean spill(HeapStatus heapStatus) {
+        final List<KeyGroupRef> candidates = new ArrayList<>();
+        long residentEntries = 0L;
+        for (SpillableStateTable<?, ?, ?> stateTable : stateTables) {
+            for (int pos = 0; pos < stateTable.getNumberOfKeyGroups(); pos++) {
+                final int size = stateTable.getSizeOfKeyGroup(pos);
+                if (stateTable.isSpilled(pos) || size == 0) {
+                    continue;
+                }
+                residentEntries += size;
+                if (!stateTable.isCurrentKeyGroup(pos)) {
+                    candidates.add(new KeyGroupRef(stateTable, pos));
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        // spill the coldest key groups, and the larger ones first among equally cold ones
+        candidates.sort(
+                Comparator.comparingInt(KeyGroupRef::getAccessCount)
+                        .thenComparing(Comparator.comparingInt(KeyGroupRef::getSize).reversed()));
+
+        final double liveRatio = heapStatus.getLiveRatio();
+        final double targetRatio = (spillThreshold + loadThreshold) / 2;
+        final long entriesToSpill =
+                (long) Math.ceil(residentEntries * (liveRatio - targetRatio) / liveRatio);
+
+        long spilledEntries = 0L;
+        int spilledKeyGroups = 0;
+        for (KeyGroupRef candidate : candidates) {
+            if (spilledKeyGroups > 0 && spilledEntries >= entriesToSpill) {
+                break;
+            }
+            spilledEntries += candidate.getSize();
+            candidate.stateTable.spillKeyGroup(candidate.pos);
+            spilledKeyGroups++;
+        }
+
+        numSpilledKeyGroups += spilledKeyGroups;
+        spillCount += spilledKeyGroups;
+        LOG.debug(
+                "Spilled {} key groups with {} entries at {}.",
+                spilledKeyGroups,
+                spilledEntries,
+                heapStatus);
+        return true;
+    }
+
+    private boolean load(HeapStatus heapStatus) {
+        final List<KeyGroupRef> candidates = new ArrayList<>();
+        long spilledEntries = 0L;
+        for (SpillableStateTable<?, ?, ?> stateTable : stateTables) {
+            for (int pos = 0; pos < stateTable.getNumberOfKeyGroups(); pos++) {
+                if (stateTable.isSpilled(pos)) {
+                    spilledEntries += stateTable.getSizeOfKeyGroup(pos);
+                    if (stateTable.getAccessCount(pos) > 0) {
+                        candidates.add(new KeyGroupRef(stateTable, pos));
+                    }
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        // load the hottest key groups first
+        candidates.sort(Comparator.comparingInt(KeyGroupRef::getAccessCount).reversed());
+
+        final double bytesPerEntry =
+                HEAP_SIZE_ESTIMATION_FACTOR
+                        * allocator.getUsedBytes()
+                        / Math.max(1L, spilledEntries);
+        final double targetRatio = (spillThreshold + loadThreshold) / 2;
+        double budgetBytes = targetRatio * heapStatus.getMaxBytes() - heapStatus.getLiveBytes();
+
+        int loadedKeyGroups = 0;
+        for (KeyGroupRef candidate : candidates) {
+            final double estimatedBytes = candidate.getSize() * bytesPerEntry;
+            if (estimatedBytes > budgetBytes) {
+                break;
+            }
+            budgetBytes -= estimatedBytes;
+            candidate.stateTable.loadKeyGroup(candidate.pos);
+            loadedKeyGroups++;
+        }
+
+        LOG.debug("Loaded {} key groups at {}.", loadedKeyGroups, heapStatus);
+        return loadedKeyGroups > 0;
+    }
+
+    /** Creates a state map to spill a key group to. */
+    <K, N, S> CopyOnWriteSkipListStateMap<K, N, S> createSpilledStateMap(
+            TypeSerializer<K> keySerializer,
+            TypeSerializer<N> namespaceSerializer,
+            TypeSerializer<S> stateSerializer) {
+        return new CopyOnWriteSkipListStateMap<>(
+                keySerializer,
+                namespaceSerializer,
+                stateSerializer,
+                allocator,
+                CopyOnWriteSkipListStateMap.DEFAULT_MAX_KEYS_TO_DELETE_ONE_TIME,
+                CopyOnWriteSkipListStateMap.DEFAULT_LOGICAL_REMOVED_KEYS_RATIO);
+    }
+
+    /** Called after a key group was loaded back to the heap, from whatever cause. */
+    void onKeyGroupLoaded(CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap) {
+        numSpilledKeyGroups--;
+        loadCount++;
+        retire(spilledStateMap);
+    }
+
+    /** Closes the given spilled state map once no snapshot reads it any more. */
+    void retire(CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap) {
+        if (hasNoRunningSnapshots(spilledStateMap)) {
+            spilledStateMap.close();
+        } else {
+            retiredStateMaps.add(spilledStateMap);
+        }
+    }
+
+    private void closeRetiredStateMaps() {
+        final Iterator<CopyOnWriteSkipListStateMap<?, ?, ?>> iterator = retiredStateMaps.iterator();
+        while (iterator.hasNext()) {
+            final CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap = iterator.next();
+            if (hasNoRunningSnapshots(spilledStateMap)) {
+                spilledStateMap.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean hasNoRunningSnapshots(
+            CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap) {
+        final Set<Integer> snapshotVersions = spilledStateMap.getSnapshotVersions();
+        synchronized (snapshotVersions) {
+            return snapshotVersions.isEmpty();
+        }
+    }
+
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    int getNumSpilledKeyGroups() {
+        return numSpilledKeyGroups;
+    }
+
+    long getSpilledStateBytes() {
+        return allocator.getUsedBytes();
+    }
+
+    long getSpillCount() {
+        return spillCount;
+    }
+
+    long getLoadCount() {
+        return loadCount;
+    }
+
+    double getHeapLiveRatio() {
+        return heapStatusSupplier.get().getLiveRatio();
+    }
+
+    /** Releases all spilled state, waiting for running snapshots of it. */
+    @Override
+    public void close() {
+        for (SpillableStateTable<?, ?, ?> stateTable : stateTables) {
+            for (CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap :
+                    stateTable.getSpilledStateMaps()) {
+                IOUtils.closeQuietly(spilledStateMap);
+            }
+        }
+        for (CopyOnWriteSkipListStateMap<?, ?, ?> spilledStateMap : retiredStateMaps) {
+            IOUtils.closeQuietly(spilledStateMap);
+        }
+        retiredStateMaps.clear();
+        stateTables.clear();
+        allocator.close();
+    }
+
+    /** A key group of a state table. */
+    private static final class KeyGroupRef {
+
+        private final SpillableStateTable<?, ?, ?> stateTable;
+
+        private final int pos;
+
+        private final int accessCount;
+
+        private final int size;
+
+        KeyGroupRef(SpillableStateTable<?, ?, ?> stateTable, int pos) {
+            this.stateTable = stateTable;
+            this.pos = pos;
+            this.accessCount = stateTable.getAccessCount(pos);
+            this.size = stateTable.getSizeOfKeyGroup(pos);
+        }
+
+        int getAccessCount() {
+            return accessCount;
+        }
+
+        int getSize() {
+            return size;
+        }
+    }
+}
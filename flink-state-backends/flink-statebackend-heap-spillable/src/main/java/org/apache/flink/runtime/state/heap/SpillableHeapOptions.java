@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.MemorySize;
+
+import java.time.Duration;
+
+/** Configuration options for the {@link SpillableHeapStateBackend}. */
+@PublicEvolving
+public class SpillableHeapOptions {
+
+    /** The ratio of live data on the heap above which cold key groups are spilled. */
+    public static final ConfigOption<Float> SPILL_THRESHOLD =
+            ConfigOptions.key("state.backend.spillable.heap.spill-threshold")
+                    .floatType()
+                    .defaultValue(0.7f)
+                    .withDescription(
+                            "The ratio of live data to the maximum JVM heap size above which the key groups "
+                                    + "with the fewest recent accesses are spilled off the heap.");
+
+    /** The ratio of live data on the heap below which hot key groups are loaded back. */
+    public static final ConfigOption<Float> LOAD_THRESHOLD =
+            ConfigOptions.key("state.backend.spillable.heap.load-threshold")
+                    .floatType()
+                    .defaultValue(0.5f)
+                    .withDescription(
+                            "The ratio of live data to the maximum JVM heap size below which spilled key groups "
+                                    + "with recent accesses are loaded back to the heap. Must not exceed the spill threshold.");
+
+    /** The minimum interval between two checks of the heap status. */
+    public static final ConfigOption<Duration> CHECK_INTERVAL =
+            ConfigOptions.key("state.backend.spillable.heap.check-interval")
+                    .durationType()
+                    .defaultValue(Duration.ofSeconds(1))
+                    .withDescription(
+                            "The minimum interval in which each backend checks the heap status to decide "
+                                    + "whether key groups are spilled or loaded back.");
+
+    /** The size of the memory-mapped chunks that spilled key groups are stored in. */
+    public static final ConfigOption<MemorySize> CHUNK_SIZE =
+            ConfigOptions.key("state.backend.spillable.chunk-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("64mb"))
+                    .withDescription(
+                            "The size of the memory-mapped files in the temporary directories of the "
+                                    + "TaskManager that spilled key groups are stored in. Must be a power of two.");
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.configuration.MemorySize;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.execution.Environment;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
+import org.apache.flink.runtime.query.TaskKvStateRegistry;
+import org.apache.flink.runtime.state.AbstractKeyedStateBackend;
+import org.apache.flink.runtime.state.AbstractStateBackend;
+import org.apache.flink.runtime.state.BackendBuildingException;
+import org.apache.flink.runtime.state.ConfigurableStateBackend;
+import org.apache.flink.runtime.state.DefaultOperatorStateBackendBuilder;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.OperatorStateBackend;
+import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.TaskStateManager;
+import org.apache.flink.runtime.state.heap.space.ChunkAllocator;
+import org.apache.flink.runtime.state.metrics.LatencyTrackingStateConfig;
+import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.MathUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * A state backend that holds the working state on the JVM heap like the {@link
+ * org.apache.flink.runtime.state.hashmap.HashMapStateBackend}, but spills key groups off the heap
+ * when the heap runs full.
+ *
+ * <p>The backend monitors the ratio of live data on the heap (see {@link HeapStatusMonitor}) and
+ * counts the accesses to each key group. When the ratio exceeds {@link
+ * SpillableHeapOptions#SPILL_THRESHOLD}, the key groups with the fewest recent accesses are
+ * serialized into a {@link CopyOnWriteSkipListStateMap} on memory-mapped files in the temporary
+ * directories of the TaskManager. When the ratio falls below {@link
+ * SpillableHeapOptions#LOAD_THRESHOLD}, spilled key groups with recent accesses are loaded back to
+ * the heap. Hot keys thus keep the latency of the heap backend, while the state may outgrow the
+ * heap.
+ *
+ * <p>Snapshots are full snapshots in the format of the heap backend, so they can be restored by
+ * either backend. Key groups are spilled and loaded by the task thread, so the state must not be
+ * read concurrently through queryable state.
+ */
+@PublicEvolving
+public class SpillableHeapStateBackend extends AbstractStateBackend
+        implements ConfigurableStateBackend {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The metric group of the spilling metrics. */
+    static final String METRIC_GROUP = "spillableHeap";
+
+    // -----------------------------------------------------------------------
+
+    /** The spill threshold, or null if not configured in the application. */
+    @Nullable private final Float spillThreshold;
+
+    /** The load threshold, or null if not configured in the application. */
+    @Nullable private final Float loadThreshold;
+
+    /** The interval between heap status checks, or null if not configured in the application. */
+    @Nullable private final Duration checkInterval;
+
+    /** The size of the spill chunks, or null if not configured in the application. */
+    @Nullable private final MemorySize chunkSize;
+
+    // -----------------------------------------------------------------------
+
+    /** Creates a new state backend. */
+    public SpillableHeapStateBackend() {
+        this(null, null, null, null);
+    }
+
+    /**
+     * Creates a new state backend.
+     *
+     * @param spillThreshold The ratio of live data on the heap above which key groups are spilled.
+     * @param loadThreshold The ratio of live data on the heap below which key groups are loaded
+     *     back.
+     */
+    public SpillableHeapStateBackend(float spillThreshold, float loadThreshold) {
+        this(spillThreshold, loadThreshold, null, null);
+        checkConfiguration(spillThreshold, loadThreshold, getChunkSize());
+    }
+
+    private SpillableHeapStateBackend(
+            @Nullable Float spillThreshold,
+            @Nullable Float loadThreshold,
+            @Nullable Duration checkInterval,
+            @Nullable MemorySize chunkSize) {
+        this.spillThreshold = spillThreshold;
+        this.loadThreshold = loadThreshold;
+        this.checkInterval = checkInterval;
+        this.chunkSize = chunkSize;
+    }
+
+    private SpillableHeapStateBackend(SpillableHeapStateBackend original, ReadableConfig config) {
+        // configure latency tracking
+        latencyTrackingConfigBuilder = original.latencyTrackingConfigBuilder.configure(config);
+
+        // the application's settings take precedence
+        this.spillThreshold =
+                original.spillThreshold != null
+                        ? original.spillThreshold
+                        : config.get(SpillableHeapOptions.SPILL_THRESHOLD);
+        this.loadThreshold =
+                original.loadThreshold != null
+                        ? original.loadThreshold
+                        : config.get(SpillableHeapOptions.LOAD_THRESHOLD);
+        this.checkInterval =
+                original.checkInterval != null
+                        ? original.checkInterval
+                        : config.get(SpillableHeapOptions.CHECK_INTERVAL);
+        this.chunkSize =
+                original.chunkSize != null
+                        ? original.chunkSize
+                        : config.get(SpillableHeapOptions.CHUNK_SIZE);
+        checkConfiguration(getSpillThreshold(), getLoadThreshold(), getChunkSize());
+    }
+
+    @Override
+    public SpillableHeapStateBackend configure(ReadableConfig config, ClassLoader classLoader)
+            throws IllegalConfigurationException {
+        return new SpillableHeapStateBackend(this, config);
+    }
+
+    /** Gets the ratio of live data on the heap above which key groups are spilled. */
+    public float getSpillThreshold() {
+        return spillThreshold != null
+                ? spillThreshold
+                : SpillableHeapOptions.SPILL_THRESHOLD.defaultValue();
+    }
+
+    /** Gets the ratio of live data on the heap below which key groups are loaded back. */
+    public float getLoadThreshold() {
+        return loadThreshold != null
+                ? loadThreshold
+                : SpillableHeapOptions.LOAD_THRESHOLD.defaultValue();
+    }
+
+    /** Gets the minimum interval between two checks of the heap status. */
+    public Duration getCheckInterval() {
+        return checkInterval != null
+                ? checkInterval
+                : SpillableHeapOptions.CHECK_INTERVAL.defaultValue();
+    }
+
+    /** Gets the size of the memory-mapped chunks that spilled key groups are stored in. */
+    public MemorySize getChunkSize() {
+        return chunkSize != null ? chunkSize : SpillableHeapOptions.CHUNK_SIZE.defaultValue();
+    }
+
+    @Override
+    public boolean supportsNoClaimRestoreMode() {
+        // we never share any files, all snapshots are full
+        return true;
+    }
+
+    @Override
+    public <K> AbstractKeyedStateBackend<K> createKeyedStateBackend(
+            Environment env,
+            JobID jobID,
+            String operatorIdentifier,
+            TypeSerializer<K> keySerializer,
+            int numberOfKeyGroups,
+            KeyGroupRange keyGroupRange,
+            TaskKvStateRegistry kvStateRegistry,
+            TtlTimeProvider ttlTimeProvider,
+            MetricGroup metricGroup,
+            @Nonnull Collection<KeyedStateHandle> stateHandles,
+            CloseableRegistry cancelStreamRegistry)
+            throws IOException {
+
+        TaskStateManager taskStateManager = env.getTaskStateManager();
+        LocalRecoveryConfig localRecoveryConfig = taskStateManager.createLocalRecoveryConfig();
+        HeapPriorityQueueSetFactory priorityQueueSetFactory =
+                new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128);
+
+        LatencyTrackingStateConfig latencyTrackingStateConfig =
+                latencyTrackingConfigBuilder.setMetricGroup(metricGroup).build();
+
+        final HeapStatusMonitor heapStatusMonitor = HeapStatusMonitor.acquire();
+        final SpillAndLoadManager spillAndLoadManager;
+        try {
+            spillAndLoadManager =
+                    new SpillAndLoadManager(
+                            heapStatusMonitor,
+                            new ChunkAllocator(
+                                    (int) getChunkSize().getBytes(), getSpillDirectories(env)),
+                            getSpillThreshold(),
+                            getLoadThreshold(),
+                            getCheckInterval().toMillis());
+        } catch (Throwable t) {
+            heapStatusMonitor.release();
+            throw t;
+        }
+        registerMetrics(metricGroup, spillAndLoadManager);
+
+        return new HeapKeyedStateBackendBuilder<>(
+                        kvStateRegistry,
+                        keySerializer,
+                        env.getUserCodeClassLoader().asClassLoader(),
+                        numberOfKeyGroups,
+                        keyGroupRange,
+                        env.getExecutionConfig(),
+                        ttlTimeProvider,
+                        latencyTrackingStateConfig,
+                        stateHandles,
+                        getCompressionDecorator(env.getExecutionConfig()),
+                        localRecoveryConfig,
+                        priorityQueueSetFactory,
+                        true,
+                        cancelStreamRegistry)
+                .setStateTableFactory(
+                        new SpillableStateTableFactory<>(spillAndLoadManager),
+                        () -> {
+                            try {
+                                spillAndLoadManager.close();
+                            } finally {
+                                heapStatusMonitor.release();
+                            }
+                        })
+                .build();
+    }
+
+    @Nullable
+    private static File[] getSpillDirectories(Environment env) {
+        final IOManager ioManager = env.getIOManager();
+        // without an I/O manager, e.g. in tests, spilled state lives in direct memory
+        return ioManager != null ? ioManager.getSpillingDirectories() : null;
+    }
+
+    private static void registerMetrics(
+            MetricGroup metricGroup, SpillAndLoadManager spillAndLoadManager) {
+        final MetricGroup group = metricGroup.addGroup(METRIC_GROUP);
+        group.gauge(
+                "numSpilledKeyGroups",
+                (Gauge<Integer>) spillAndLoadManager::getNumSpilledKeyGroups);
+        group.gauge("spilledStateBytes", (Gauge<Long>) spillAndLoadManager::getSpilledStateBytes);
+        group.gauge("spillCount", (Gauge<Long>) spillAndLoadManager::getSpillCount);
+        group.gauge("loadCount", (Gauge<Long>) spillAndLoadManager::getLoadCount);
+        group.gauge("heapLiveRatio", (Gauge<Double>) spillAndLoadManager::getHeapLiveRatio);
+    }
+
+    private static void checkConfiguration(
+            float spillThreshold, float loadThreshold, MemorySize chunkSize) {
+        if (spillThreshold < 0.0f
+                || spillThreshold > 1.0f
+                || loadThreshold < 0.0f
+                || loadThreshold > spillThreshold) {
+            throw new IllegalConfigurationException(
+                    "The thresholds must satisfy 0 <= '%s' (%s) <= '%s' (%s) <= 1.",
+                    SpillableHeapOptions.LOAD_THRESHOLD.key(),
+                    loadThreshold,
+                    SpillableHeapOptions.SPILL_THRESHOLD.key(),
+                    spillThreshold);
+        }
+        if (chunkSize.getBytes() > Integer.MAX_VALUE
+                || !MathUtils.isPowerOf2(chunkSize.getBytes())) {
+            throw new IllegalConfigurationException(
+                    "The spill chunk size ('%s') must be a power of two and smaller than 2 gb, "
+                            + "but was %s.",
+                    SpillableHeapOptions.CHUNK_SIZE.key(), chunkSize);
+        }
+    }
+
+    @Override
+    public OperatorStateBackend createOperatorStateBackend(
+            Environment env,
+            String operatorIdentifier,
+            @Nonnull Collection<OperatorStateHandle> stateHandles,
+            CloseableRegistry cancelStreamRegistry)
+            throws BackendBuildingException {
+
+        return new DefaultOperatorStateBackendBuilder(
+                        env.getUserCodeClassLoader().asClassLoader(),
+                        env.getExecutionConfig(),
+                        true,
+                        stateHandles,
+                        cancelStreamRegistry)
+                .build();
+    }
+
+    /** Creates {@link SpillableStateTable}s that share the {@link SpillAndLoadManager}. */
+    private static final class SpillableStateTableFactory<K> implements StateTableFactory<K> {
+
+        private final SpillAndLoadManager spillAndLoadManager;
+
+        private SpillableStateTableFactory(SpillAndLoadManager spillAndLoadManager) {
+            this.spillAndLoadManager = spillAndLoadManager;
+        }
+
+        @Override
+        public <N, V> StateTable<K, N, V> newStateTable(
+                InternalKeyContext<K> keyContext,
+                RegisteredKeyValueStateBackendMetaInfo<N, V> metaInfo,
+                TypeSerializer<K> keySerializer) {
+            return new SpillableStateTable<>(
+                    keyContext, metaInfo, keySerializer, spillAndLoadManager);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This implementation of {@link StateTable} keeps each key group either on the heap in a {@link
+ * CopyOnWriteStateMap} or, once spilled, in serialized form in a {@link
+ * CopyOnWriteSkipListStateMap}. Which key groups are spilled is decided by the {@link
+ * SpillAndLoadManager} of the backend, based on the heap status and on the number of accesses to
+ * each key group.
+ *
+ * <p>List and map states modify the objects obtained from the table in place. For such states,
+ * spilled key groups are loaded back to the heap when they are accessed, and the key group of the
+ * current key is never spilled.
+ *
+ * @param <K> type of key.
+ * @param <N> type of namespace.
+ * @param <S> type of state.
+ */
+public class SpillableStateTable<K, N, S> extends StateTable<K, N, S> {
+
+    /** The manager that decides which key groups are spilled. */
+    private final SpillAndLoadManager spillAndLoadManager;
+
+    /** Whether the states of this table are modified in place by the heap states. */
+    private final boolean statesModifiedInPlace;
+
+    /** The number of accesses per key group, decayed by the {@link SpillAndLoadManager}. */
+    private final int[] accessCounts;
+
+    SpillableStateTable(
+            InternalKeyContext<K> keyContext,
+            RegisteredKeyValueStateBackendMetaInfo<N, S> metaInfo,
+            TypeSerializer<K> keySerializer,
+            SpillAndLoadManager spillAndLoadManager) {
+        super(keyContext, metaInfo, keySerializer);
+        this.spillAndLoadManager = Preconditions.checkNotNull(spillAndLoadManager);
+        this.statesModifiedInPlace = isModifiedInPlace(metaInfo.getStateType());
+        this.accessCounts = new int[keyGroupedStateMaps.length];
+        spillAndLoadManager.register(this);
+    }
+
+    private static boolean isModifiedInPlace(StateDescriptor.Type stateType) {
+        switch (stateType) {
+            case VALUE:
+            case REDUCING:
+            case AGGREGATING:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    protected CopyOnWriteStateMap<K, N, S> createStateMap() {
+        return new CopyOnWriteStateMap<>(getStateSerializer());
+    }
+
+    @Override
+    public StateMap<K, N, S> getMapForKeyGroup(int keyGroupIndex) {
+        spillAndLoadManager.onStateAccess();
+
+        final int pos = keyGroupIndex - getKeyGroupOffset();
+        if (pos < 0 || pos >= keyGroupedStateMaps.length) {
+            return super.getMapForKeyGroup(keyGroupIndex);
+        }
+
+        if (accessCounts[pos] < Integer.MAX_VALUE) {
+            accessCounts[pos]++;
+        }
+        if (statesModifiedInPlace && isSpilled(pos)) {
+            loadKeyGroup(pos);
+        }
+        return keyGroupedStateMaps[pos];
+    }
+
+    @Override
+    public void setMetaInfo(RegisteredKeyValueStateBackendMetaInfo<N, S> metaInfo) {
+        final TypeSerializer<N> previousNamespaceSerializer = getNamespaceSerializer();
+        final TypeSerializer<S> previousStateSerializer = getStateSerializer();
+        super.setMetaInfo(metaInfo);
+
+        if (previousNamespaceSerializer != getNamespaceSerializer()
+                || previousStateSerializer != getStateSerializer()) {
+            // spilled states must follow the new serializers
+            for (int pos = 0; pos < keyGroupedStateMaps.length; pos++) {
+                if (isSpilled(pos)) {
+                    final StateMap<K, N, S> previousStateMap = keyGroupedStateMaps[pos];
+                    keyGroupedStateMaps[pos] = copyToSpilledStateMap(previousStateMap);
+                    spillAndLoadManager.retire(
+                            (CopyOnWriteSkipListStateMap<K, N, S>) previousStateMap);
+                }
+            }
+        }
+    }
+
+    // Spilling and loading
+    // ------------------------------------------------------------------------
+
+    boolean isSpilled(int pos) {
+        return keyGroupedStateMaps[pos] instanceof CopyOnWriteSkipListStateMap;
+    }
+
+    int getNumberOfKeyGroups() {
+        return keyGroupedStateMaps.length;
+    }
+
+    int getSizeOfKeyGroup(int pos) {
+        return keyGroupedStateMaps[pos].size();
+    }
+
+    int getAccessCount(int pos) {
+        return accessCounts[pos];
+    }
+
+    boolean isCurrentKeyGroup(int pos) {
+        return statesModifiedInPlace
+                && keyContext.getCurrentKeyGroupIndex() - getKeyGroupOffset() == pos;
+    }
+
+    /** Halves the access counts, so that the counts reflect the recent accesses. */
+    void decayAccessCounts() {
+        for (int pos = 0; pos < accessCounts.length; pos++) {
+            accessCounts[pos] >>>= 1;
+        }
+    }
+
+    /** Moves the key group at the given position off the heap. */
+    void spillKeyGroup(int pos) {
+        Preconditions.checkState(!isSpilled(pos), "The key group is already spilled.");
+        keyGroupedStateMaps[pos] = copyToSpilledStateMap(keyGroupedStateMaps[pos]);
+    }
+
+    /** Moves the key group at the given position back to the heap. */
+    void loadKeyGroup(int pos) {
+        Preconditions.checkState(isSpilled(pos), "The key group is not spilled.");
+        final CopyOnWriteSkipListStateMap<K, N, S> spilledStateMap =
+                (CopyOnWriteSkipListStateMap<K, N, S>) keyGroupedStateMaps[pos];
+        final CopyOnWriteStateMap<K, N, S> stateMap = createStateMap();
+        for (StateEntry<K, N, S> entry : spilledStateMap) {
+            stateMap.put(entry.getKey(), entry.getNamespace(), entry.getState());
+        }
+        keyGroupedStateMaps[pos] = stateMap;
+        spillAndLoadManager.onKeyGroupLoaded(spilledStateMap);
+    }
+
+    private CopyOnWriteSkipListStateMap<K, N, S> copyToSpilledStateMap(StateMap<K, N, S> stateMap) {
+        final CopyOnWriteSkipListStateMap<K, N, S> spilledStateMap =
+                spillAndLoadManager.createSpilledStateMap(
+                        getKeySerializer(), getNamespaceSerializer(), getStateSerializer());
+        try {
+            for (StateEntry<K, N, S> entry : stateMap) {
+                spilledStateMap.put(entry.getKey(), entry.getNamespace(), entry.getState());
+            }
+        } catch (Exception e) {
+            spilledStateMap.close();
+            throw new FlinkRuntimeException("Failed to spill state " + metaInfo.getName(), e);
+        }
+        return spilledStateMap;
+    }
+
+    /** Returns all state maps of this table that are spilled. */
+    List<CopyOnWriteSkipListStateMap<K, N, S>> getSpilledStateMaps() {
+        final List<CopyOnWriteSkipListStateMap<K, N, S>> spilledStateMaps = new ArrayList<>();
+        for (int pos = 0; pos < keyGroupedStateMaps.length; pos++) {
+            if (isSpilled(pos)) {
+                spilledStateMaps.add(
+                        (CopyOnWriteSkipListStateMap<K, N, S>) keyGroupedStateMaps[pos]);
+            }
+        }
+        return spilledStateMaps;
+    }
+
+    @VisibleForTesting
+    StateMap<K, N, S> getStateMapAt(int pos) {
+        return keyGroupedStateMaps[pos];
+    }
+
+    // Snapshotting
+    // ------------------------------------------------------------------------
+
+    /**
+     * Creates a snapshot of this {@link SpillableStateTable}, to be written in checkpointing.
+     *
+     * @return a snapshot from this {@link SpillableStateTable}, for checkpointing.
+     */
+    @Nonnull
+    @Override
+    public SpillableStateTableSnapshot<K, N, S> stateSnapshot() {
+        return new SpillableStateTableSnapshot<>(
+                this,
+                getKeySerializer().duplicate(),
+                getNamespaceSerializer().duplicate(),
+                getStateSerializer().duplicate(),
+                getMetaInfo()
+                        .getStateSnapshotTransformFactory()
+                        .createForDeserializedState()
+                        .orElse(null));
+    }
+
+    List<StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>>> getStateMapSnapshotList() {
+        final List<StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>>> snapshotList =
+                new ArrayList<>(keyGroupedStateMaps.length);
+        for (StateMap<K, N, S> stateMap : keyGroupedStateMaps) {
+            snapshotList.add(stateMap.stateSnapshot());
+        }
+        return snapshotList;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.util.IntArrayList;
+import org.apache.flink.runtime.util.LongArrayList;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.Preconditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.apache.flink.runtime.state.heap.space.Constants.FOUR_BYTES_BITS;
+import static org.apache.flink.runtime.state.heap.space.Constants.FOUR_BYTES_MARK;
+import static org.apache.flink.runtime.state.heap.space.Constants.NO_SPACE;
+
+/**
+ * An {@link Allocator} that carves space out of fixed size chunks, which are memory-mapped files in
+ * the given spill directories or, if there are none, direct memory.
+ *
+ * <p>Space is handed out in blocks of power-of-two size classes. Each block starts with a header
+ * that stores its size class, so that blocks can be freed by address only. Freed blocks are kept in
+ * a free list per size class and reused by later allocations of the same class. Requests that do
+ * not fit into a chunk get a dedicated chunk which is released when the space is freed.
+ *
+ * <p>The files of mapped chunks are deleted right after mapping, so the operating system reclaims
+ * the disk space once the mapping is garbage collected, even if the process dies.
+ *
+ * <p>Allocating and freeing is synchronized, because snapshots may free pruned values from
+ * asynchronous threads. Resolving chunks through {@link #getChunkById(int)} is not synchronized.
+ */
+public class ChunkAllocator implements Allocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkAllocator.class);
+
+    /** The size of the header in front of each block. Keeps the space 8 byte aligned. */
+    static final int BLOCK_HEADER_SIZE = 8;
+
+    /** The size of the smallest size class, including the header. */
+    private static final int MIN_BLOCK_SIZE = 32;
+
+    private static final int MIN_BLOCK_SIZE_BITS = MathUtils.log2strict(MIN_BLOCK_SIZE);
+
+    /** The size class written into the header of blocks with a dedicated chunk. */
+    private static final int DEDICATED_CHUNK = -1;
+
+    /** The size of one chunk, always a power of two. */
+    private final int chunkSize;
+
+    /** The directories for the memory-mapped files, or null to use direct memory. */
+    @Nullable private final File[] spillDirectories;
+
+    /**
+     * Free blocks per size class, as addresses of the blocks (not of the space behind the header).
+     */
+    private final LongArrayList[] freeLists;
+
+    /** Ids of released chunks that can be reused. */
+    private final IntArrayList freeChunkIds;
+
+    /** All chunks, indexed by their id. */
+    private volatile MemorySegmentChunk[] chunks;
+
+    private int nextChunkId;
+
+    /** The chunk that new blocks are cut from, or null if there is none. */
+    @Nullable private MemorySegmentChunk currentChunk;
+
+    private int nextDirectoryIndex;
+
+    /** The number of bytes in all chunks. */
+    private long reservedBytes;
+
+    /** The number of bytes currently handed out in blocks, including headers. */
+    private long usedBytes;
+
+    private boolean closed;
+
+    public ChunkAllocator(int chunkSize, @Nullable File[] spillDirectories) {
+        Preconditions.checkArgument(
+                chunkSize >= MIN_BLOCK_SIZE && MathUtils.isPowerOf2(chunkSize),
+                "Chunk size must be a power of two and at least %s bytes.",
+                MIN_BLOCK_SIZE);
+        Preconditions.checkArgument(
+                spillDirectories == null || spillDirectories.length > 0,
+                "At least one spill directory is required.");
+        this.chunkSize = chunkSize;
+        this.spillDirectories = spillDirectories;
+
+        final int numSizeClasses = MathUtils.log2strict(chunkSize) - MIN_BLOCK_SIZE_BITS + 1;
+        this.freeLists = new LongArrayList[numSizeClasses];
+        for (int i = 0; i < numSizeClasses; i++) {
+            freeLists[i] = new LongArrayList(16);
+        }
+        this.freeChunkIds = new IntArrayList(4);
+        this.chunks = new MemorySegmentChunk[16];
+        this.nextChunkId = 0;
+        this.nextDirectoryIndex = 0;
+    }
+
+    @Override
+    public synchronized long allocate(int size) throws Exception {
+        Preconditions.checkState(!closed, "The allocator is already closed.");
+        final int blockSize = size + BLOCK_HEADER_SIZE;
+        if (blockSize > chunkSize) {
+            final MemorySegmentChunk chunk = addChunk(blockSize);
+            chunk.getMemorySegment(0).putInt(0, DEDICATED_CHUNK);
+            chunk.allocate(blockSize);
+            usedBytes += blockSize;
+            return toAddress(chunk.getChunkId(), BLOCK_HEADER_SIZE);
+        }
+
+        final int sizeClass = sizeClassOf(blockSize);
+        final int classBlockSize = MIN_BLOCK_SIZE << sizeClass;
+        final LongArrayList freeList = freeLists[sizeClass];
+        final long blockAddress;
+        if (!freeList.isEmpty()) {
+            blockAddress = freeList.removeLong(freeList.size() - 1);
+        } else {
+            int offset = currentChunk == null ? NO_SPACE : currentChunk.allocate(classBlockSize);
+            if (offset == NO_SPACE) {
+                recycleRestOfCurrentChunk();
+                currentChunk = addChunk(chunkSize);
+                offset = currentChunk.allocate(classBlockSize);
+            }
+            blockAddress = toAddress(currentChunk.getChunkId(), offset);
+        }
+
+        final MemorySegment segment =
+                chunks[SpaceUtils.getChunkIdByAddress(blockAddress)].getMemorySegment(0);
+        segment.putInt(SpaceUtils.getChunkOffsetByAddress(blockAddress), sizeClass);
+        usedBytes += classBlockSize;
+        return blockAddress + BLOCK_HEADER_SIZE;
+    }
+
+    @Override
+    public synchronized void free(long address) {
+        if (closed) {
+            return;
+        }
+        final int chunkId = SpaceUtils.getChunkIdByAddress(address);
+        final MemorySegmentChunk chunk = chunks[chunkId];
+        final int blockOffset = SpaceUtils.getChunkOffsetByAddress(address) - BLOCK_HEADER_SIZE;
+        final int sizeClass = chunk.getMemorySegment(0).getInt(blockOffset);
+        if (sizeClass == DEDICATED_CHUNK) {
+            usedBytes -= chunk.getChunkCapacity();
+            releaseChunk(chunk);
+            return;
+        }
+
+        usedBytes -= MIN_BLOCK_SIZE << sizeClass;
+        freeLists[sizeClass].add(toAddress(chunkId, blockOffset));
+    }
+
+    @Override
+    public Chunk getChunkById(int chunkId) {
+        final MemorySegmentChunk chunk = chunks[chunkId];
+        Preconditions.checkNotNull(chunk, "Chunk %s does not exist.", chunkId);
+        return chunk;
+    }
+
+    /** Returns the number of bytes in all chunks. */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /** Returns the number of bytes currently handed out, including block headers. */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @VisibleForTesting
+    synchronized int getNumberOfChunks() {
+        return nextChunkId - freeChunkIds.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        final MemorySegmentChunk[] allChunks = chunks;
+        for (int i = 0; i < nextChunkId; i++) {
+            if (allChunks[i] != null) {
+                allChunks[i].getMemorySegment(0).free();
+                allChunks[i] = null;
+            }
+        }
+        for (LongArrayList freeList : freeLists) {
+            freeList.clear();
+        }
+        currentChunk = null;
+        reservedBytes = 0L;
+        usedBytes = 0L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /** Hands out the remaining space of the current chunk as free blocks, largest first. */
+    private void recycleRestOfCurrentChunk() {
+        if (currentChunk == null) {
+            return;
+        }
+        for (int sizeClass = freeLists.length - 1; sizeClass >= 0; sizeClass--) {
+            final int offset = currentChunk.allocate(MIN_BLOCK_SIZE << sizeClass);
+            if (offset != NO_SPACE) {
+                freeLists[sizeClass].add(toAddress(currentChunk.getChunkId(), offset));
+            }
+        }
+    }
+
+    private MemorySegmentChunk addChunk(int size) throws IOException {
+        final int chunkId;
+        if (!freeChunkIds.isEmpty()) {
+            chunkId = freeChunkIds.removeLast();
+        } else {
+            chunkId = nextChunkId++;
+            if (chunkId == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+        }
+
+        final MemorySegmentChunk chunk =
+                new MemorySegmentChunk(
+                        chunkId, MemorySegmentFactory.wrapOffHeapMemory(allocateBuffer(size)));
+        chunks[chunkId] = chunk;
+        reservedBytes += size;
+        return chunk;
+    }
+
+    private ByteBuffer allocateBuffer(int size) throws IOException {
+        if (spillDirectories == null) {
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        final File directory = spillDirectories[nextDirectoryIndex];
+        nextDirectoryIndex = (nextDirectoryIndex + 1) % spillDirectories.length;
+        final File file = new File(directory, "spillable-state-" + UUID.randomUUID());
+        try (FileChannel channel =
+                FileChannel.open(
+                        file.toPath(),
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            LOG.debug("Mapped {} bytes of spill file {}.", size, file);
+            return buffer;
+        } finally {
+            // the mapping stays valid, the space is reclaimed once it is unmapped
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    private void releaseChunk(MemorySegmentChunk chunk) {
+        final int chunkId = chunk.getChunkId();
+        chunks[chunkId] = null;
+        freeChunkIds.add(chunkId);
+        reservedBytes -= chunk.getChunkCapacity();
+        chunk.getMemorySegment(0).free();
+    }
+
+    private static int sizeClassOf(int blockSize) {
+        return blockSize <= MIN_BLOCK_SIZE
+                ? 0
+                : MathUtils.log2floor(MathUtils.roundUpToPowerOfTwo(blockSize))
+                        - MIN_BLOCK_SIZE_BITS;
+    }
+
+    private static long toAddress(int chunkId, int offset) {
+        return ((chunkId & FOUR_BYTES_MARK) << FOUR_BYTES_BITS) | (offset & FOUR_BYTES_MARK);
+    }
+}
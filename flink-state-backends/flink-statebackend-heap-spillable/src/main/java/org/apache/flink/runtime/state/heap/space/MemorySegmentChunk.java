@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.util.Preconditions;
+
+import static org.apache.flink.runtime.state.heap.space.Constants.NO_SPACE;
+
+/**
+ * A {@link Chunk} that is backed by a single {@link MemorySegment}, e.g. wrapping a memory-mapped
+ * file. Space is handed out sequentially; freed space is not reused by the chunk itself, but
+ * recycled by the {@link ChunkAllocator} that owns the chunk.
+ */
+public class MemorySegmentChunk implements Chunk {
+
+    private final int chunkId;
+
+    private final MemorySegment segment;
+
+    /** The offset of the space that was not handed out yet. */
+    private int nextOffset;
+
+    MemorySegmentChunk(int chunkId, MemorySegment segment) {
+        this.chunkId = chunkId;
+        this.segment = Preconditions.checkNotNull(segment);
+        this.nextOffset = 0;
+    }
+
+    @Override
+    public int allocate(int len) {
+        if (len > segment.size() - nextOffset) {
+            return NO_SPACE;
+        }
+        final int offset = nextOffset;
+        nextOffset += len;
+        return offset;
+    }
+
+    @Override
+    public void free(int interChunkOffset) {
+        // space is recycled by the allocator
+    }
+
+    @Override
+    public int getChunkId() {
+        return chunkId;
+    }
+
+    @Override
+    public int getChunkCapacity() {
+        return segment.size();
+    }
+
+    @Override
+    public MemorySegment getMemorySegment(int chunkOffset) {
+        return segment;
+    }
+
+    @Override
+    public int getOffsetInSegment(int offsetInChunk) {
+        return offsetInChunk;
+    }
+
+    /** Returns the number of bytes that were not handed out yet. */
+    int getRemainingCapacity() {
+        return segment.size() - nextOffset;
+    }
+}
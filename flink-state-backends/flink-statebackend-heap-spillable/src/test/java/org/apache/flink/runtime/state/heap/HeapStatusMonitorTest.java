@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link HeapStatusMonitor}. */
+public class HeapStatusMonitorTest extends TestLogger {
+
+    @Test
+    public void testMonitorIsStoppedWhenReleasedByAllUsers() {
+        final HeapStatusMonitor monitor = HeapStatusMonitor.acquire();
+        final HeapStatusMonitor sharedMonitor = HeapStatusMonitor.acquire();
+        assertSame(monitor, sharedMonitor);
+        assertTrue(monitor.isRunning());
+
+        sharedMonitor.release();
+        assertTrue(monitor.isRunning());
+
+        monitor.release();
+        assertFalse(monitor.isRunning());
+
+        final HeapStatusMonitor restartedMonitor = HeapStatusMonitor.acquire();
+        try {
+            assertNotSame(monitor, restartedMonitor);
+            assertTrue(restartedMonitor.isRunning());
+        } finally {
+            restartedMonitor.release();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleaseWithoutAcquire() {
+        final HeapStatusMonitor monitor = HeapStatusMonitor.acquire();
+        monitor.release();
+        monitor.release();
+    }
+}
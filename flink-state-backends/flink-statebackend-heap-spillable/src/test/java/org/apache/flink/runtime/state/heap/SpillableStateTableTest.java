@@ -0,0 +1,252 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.ListSerializer;
+import org.apache.flink.core.memory.ByteArrayInputStreamWithPos;
+import org.apache.flink.core.memory.ByteArrayOutputStreamWithPos;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateSnapshot;
+import org.apache.flink.runtime.state.heap.HeapStatusMonitor.HeapStatus;
+import org.apache.flink.runtime.state.heap.space.ChunkAllocator;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link SpillableStateTable} and {@link SpillAndLoadManager}. */
+public class SpillableStateTableTest extends TestLogger {
+
+    private static final int NUMBER_OF_KEY_GROUPS = 8;
+
+    private static final int NUMBER_OF_KEYS = 1000;
+
+    private static final long MAX_HEAP_BYTES = 1L << 30;
+
+    private MockInternalKeyContext<Integer> keyContext;
+
+    private HeapStatus heapStatus;
+
+    private SpillAndLoadManager spillAndLoadManager;
+
+    @Before
+    public void setUp() {
+        keyContext =
+                new MockInternalKeyContext<>(0, NUMBER_OF_KEY_GROUPS - 1, NUMBER_OF_KEY_GROUPS);
+        heapStatus = heapStatus(0.0, 0L);
+        spillAndLoadManager =
+                new SpillAndLoadManager(
+                        () -> heapStatus, new ChunkAllocator(64 * 1024, null), 0.7, 0.5, 0L);
+    }
+
+    @After
+    public void tearDown() {
+        spillAndLoadManager.close();
+    }
+
+    @Test
+    public void testSpillAndLoadKeyGroups() {
+        final SpillableStateTable<Integer, Integer, Integer> table =
+                createValueStateTable(spillAndLoadManager);
+        putValues(table);
+
+        // above the spill threshold, part of the key groups is spilled
+        heapStatus = heapStatus(0.9, 1L);
+        spillAndLoadManager.checkHeapStatus();
+        final int numSpilledKeyGroups = spillAndLoadManager.getNumSpilledKeyGroups();
+        assertTrue(numSpilledKeyGroups > 0);
+        assertTrue(numSpilledKeyGroups < NUMBER_OF_KEY_GROUPS);
+        assertEquals(numSpilledKeyGroups, spillAndLoadManager.getSpillCount());
+        assertTrue(spillAndLoadManager.getSpilledStateBytes() > 0);
+        verifyValues(table, 0);
+
+        // updates of spilled key groups go to the spilled state maps
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            table.put(1, key + 1);
+        }
+        verifyValues(table, 1);
+        assertEquals(numSpilledKeyGroups, spillAndLoadManager.getNumSpilledKeyGroups());
+
+        // no action before the next garbage collection
+        heapStatus = heapStatus(0.1, 1L);
+        spillAndLoadManager.checkHeapStatus();
+        assertEquals(numSpilledKeyGroups, spillAndLoadManager.getNumSpilledKeyGroups());
+
+        // below the load threshold, accessed key groups are loaded back
+        heapStatus = heapStatus(0.1, 2L);
+        verifyValues(table, 1);
+        spillAndLoadManager.checkHeapStatus();
+        assertEquals(0, spillAndLoadManager.getNumSpilledKeyGroups());
+        assertEquals(numSpilledKeyGroups, spillAndLoadManager.getLoadCount());
+        verifyValues(table, 1);
+    }
+
+    @Test
+    public void testSnapshotWithSpilledKeyGroups() throws Exception {
+        final SpillableStateTable<Integer, Integer, Integer> table =
+                createValueStateTable(spillAndLoadManager);
+        putValues(table);
+        spillAll(table);
+
+        final SpillableStateTableSnapshot<Integer, Integer, Integer> snapshot =
+                table.stateSnapshot();
+
+        // changes after the snapshot, including loading the key groups back, are not visible in
+        // the snapshot
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            table.put(1, -1);
+        }
+        for (int pos = 0; pos < NUMBER_OF_KEY_GROUPS; pos++) {
+            table.loadKeyGroup(pos);
+        }
+
+        final ByteArrayOutputStreamWithPos out = new ByteArrayOutputStreamWithPos();
+        final DataOutputViewStreamWrapper outView = new DataOutputViewStreamWrapper(out);
+        final StateSnapshot.StateKeyGroupWriter writer = snapshot.getKeyGroupWriter();
+        for (int keyGroup = 0; keyGroup < NUMBER_OF_KEY_GROUPS; keyGroup++) {
+            writer.writeStateInKeyGroup(outView, keyGroup);
+        }
+        snapshot.release();
+
+        final CopyOnWriteStateTable<Integer, Integer, Integer> restoredTable =
+                new CopyOnWriteStateTable<>(
+                        keyContext,
+                        createMetaInfo(StateDescriptor.Type.VALUE),
+                        IntSerializer.INSTANCE);
+        final DataInputViewStreamWrapper inView =
+                new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(out.toByteArray()));
+        for (int keyGroup = 0; keyGroup < NUMBER_OF_KEY_GROUPS; keyGroup++) {
+            restoredTable
+                    .keyGroupReader(KeyedBackendSerializationProxy.VERSION)
+                    .readMappingsInKeyGroup(inView, keyGroup);
+        }
+        verifyValues(restoredTable, 0);
+    }
+
+    @Test
+    public void testListStatesAreLoadedOnAccess() {
+        final RegisteredKeyValueStateBackendMetaInfo<Integer, List<Integer>> metaInfo =
+                new RegisteredKeyValueStateBackendMetaInfo<>(
+                        StateDescriptor.Type.LIST,
+                        "test",
+                        IntSerializer.INSTANCE,
+                        new ListSerializer<>(IntSerializer.INSTANCE));
+        final SpillableStateTable<Integer, Integer, List<Integer>> table =
+                new SpillableStateTable<>(
+                        keyContext, metaInfo, IntSerializer.INSTANCE, spillAndLoadManager);
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            table.put(1, new ArrayList<>(Collections.singletonList(key)));
+        }
+        final int currentKeyGroup = keyContext.getCurrentKeyGroupIndex();
+
+        heapStatus = heapStatus(1.0, 1L);
+        spillAndLoadManager.checkHeapStatus();
+        // the list of the current key may be modified in place, so its key group stays
+        assertFalse(table.isSpilled(currentKeyGroup));
+        assertTrue(spillAndLoadManager.getNumSpilledKeyGroups() > 0);
+
+        // modifications in place are kept, because the key groups are loaded on access
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            table.get(1).add(-key);
+            assertFalse(table.isSpilled(keyContext.getCurrentKeyGroupIndex()));
+        }
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            assertEquals(Arrays.asList(key, -key), table.get(1));
+        }
+        assertEquals(0, spillAndLoadManager.getNumSpilledKeyGroups());
+    }
+
+    @Test
+    public void testSpilledKeyGroupsFollowNewSerializers() {
+        final SpillableStateTable<Integer, Integer, Integer> table =
+                createValueStateTable(spillAndLoadManager);
+        putValues(table);
+        spillAll(table);
+
+        table.setMetaInfo(createMetaInfo(StateDescriptor.Type.VALUE));
+        for (int pos = 0; pos < NUMBER_OF_KEY_GROUPS; pos++) {
+            assertTrue(table.isSpilled(pos));
+        }
+        verifyValues(table, 0);
+    }
+
+    private SpillableStateTable<Integer, Integer, Integer> createValueStateTable(
+            SpillAndLoadManager spillAndLoadManager) {
+        return new SpillableStateTable<>(
+                keyContext,
+                createMetaInfo(StateDescriptor.Type.VALUE),
+                IntSerializer.INSTANCE,
+                spillAndLoadManager);
+    }
+
+    private static RegisteredKeyValueStateBackendMetaInfo<Integer, Integer> createMetaInfo(
+            StateDescriptor.Type type) {
+        return new RegisteredKeyValueStateBackendMetaInfo<>(
+                type, "test", new IntSerializer(), new IntSerializer());
+    }
+
+    private static HeapStatus heapStatus(double liveRatio, long gcCount) {
+        return new HeapStatus((long) (liveRatio * MAX_HEAP_BYTES), MAX_HEAP_BYTES, gcCount);
+    }
+
+    private void putValues(StateTable<Integer, Integer, Integer> table) {
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            table.put(0, key);
+        }
+    }
+
+    private void spillAll(SpillableStateTable<Integer, Integer, Integer> table) {
+        for (int pos = 0; pos < NUMBER_OF_KEY_GROUPS; pos++) {
+            table.spillKeyGroup(pos);
+        }
+    }
+
+    private void verifyValues(StateTable<Integer, Integer, Integer> table, int offset) {
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            keyContext.setCurrentKeyAndKeyGroup(key);
+            assertEquals(Integer.valueOf(key), table.get(0));
+            if (offset > 0) {
+                assertEquals(Integer.valueOf(key + offset), table.get(1));
+            }
+        }
+    }
+}
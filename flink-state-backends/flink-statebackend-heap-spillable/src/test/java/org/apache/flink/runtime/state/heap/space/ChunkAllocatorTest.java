@@ -0,0 +1,142 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link ChunkAllocator}. */
+public class ChunkAllocatorTest extends TestLogger {
+
+    @ClassRule public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @Test
+    public void testAllocateAndFreeInDirectMemory() throws Exception {
+        testAllocateAndFree(new ChunkAllocator(CHUNK_SIZE, null));
+    }
+
+    @Test
+    public void testAllocateAndFreeInMappedFiles() throws Exception {
+        final File[] directories = {TEMP_FOLDER.newFolder(), TEMP_FOLDER.newFolder()};
+        testAllocateAndFree(new ChunkAllocator(CHUNK_SIZE, directories));
+        for (File directory : directories) {
+            // the files are deleted right after they are mapped
+            assertEquals(0, directory.listFiles().length);
+        }
+    }
+
+    private static void testAllocateAndFree(ChunkAllocator allocator) throws Exception {
+        try {
+            final Set<Long> addresses = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                final long address = allocator.allocate(100);
+                assertTrue(addresses.add(address));
+                write(allocator, address, 100, (byte) i);
+            }
+            assertEquals(100 * 128, allocator.getUsedBytes());
+            assertTrue(allocator.getNumberOfChunks() > 1);
+
+            int i = 0;
+            for (long address : addresses) {
+                allocator.free(address);
+                i++;
+                assertEquals((100 - i) * 128, allocator.getUsedBytes());
+            }
+
+            // freed blocks are reused before new chunks are added
+            final long reservedBytes = allocator.getReservedBytes();
+            for (int j = 0; j < 100; j++) {
+                assertTrue(addresses.contains(allocator.allocate(100)));
+            }
+            assertEquals(reservedBytes, allocator.getReservedBytes());
+        } finally {
+            allocator.close();
+        }
+        assertEquals(0, allocator.getReservedBytes());
+    }
+
+    @Test
+    public void testBlocksDoNotOverlap() throws Exception {
+        final ChunkAllocator allocator = new ChunkAllocator(CHUNK_SIZE, null);
+        try {
+            final long[] addresses = new long[200];
+            final int[] sizes = new int[addresses.length];
+            for (int i = 0; i < addresses.length; i++) {
+                sizes[i] = 1 + (i * 37) % 1000;
+                addresses[i] = allocator.allocate(sizes[i]);
+                write(allocator, addresses[i], sizes[i], (byte) i);
+            }
+            for (int i = 0; i < addresses.length; i++) {
+                final MemorySegment segment = segmentOf(allocator, addresses[i]);
+                final int offset = SpaceUtils.getChunkOffsetByAddress(addresses[i]);
+                for (int j = 0; j < sizes[i]; j++) {
+                    assertEquals((byte) i, segment.get(offset + j));
+                }
+            }
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    public void testDedicatedChunkForLargeBlocks() throws Exception {
+        final ChunkAllocator allocator = new ChunkAllocator(CHUNK_SIZE, null);
+        try {
+            final long address = allocator.allocate(3 * CHUNK_SIZE);
+            write(allocator, address, 3 * CHUNK_SIZE, (byte) 1);
+            assertEquals(1, allocator.getNumberOfChunks());
+
+            allocator.free(address);
+            assertEquals(0, allocator.getNumberOfChunks());
+            assertEquals(0, allocator.getUsedBytes());
+            assertEquals(0, allocator.getReservedBytes());
+        } finally {
+            allocator.close();
+        }
+    }
+
+    private static MemorySegment segmentOf(ChunkAllocator allocator, long address) {
+        return allocator
+                .getChunkById(SpaceUtils.getChunkIdByAddress(address))
+                .getMemorySegment(SpaceUtils.getChunkOffsetByAddress(address));
+    }
+
+    private static void write(ChunkAllocator allocator, long address, int size, byte value) {
+        final MemorySegment segment = segmentOf(allocator, address);
+        final int offset = SpaceUtils.getChunkOffsetByAddress(address);
+        for (int i = 0; i < size; i++) {
+            segment.put(offset + i, value);
+        }
+    }
+}
@@ -34,7 +34,11 @@ import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.WriteOptions;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Base class for {@link State} implementations that store state in a RocksDB database.
@@ -144,6 +148,7 @@ public abstract class AbstractRocksDBState<K, N, V> implements InternalKvState<K
                         safeKeySerializer, backend.getKeyGroupPrefixBytes(), 32);
         keyBuilder.setKeyAndKeyGroup(keyAndNamespace.f0, keyGroup);
         byte[] key = keyBuilder.buildCompositeKeyNamespace(keyAndNamespace.f1, namespaceSerializer);
+        flushObjectCache();
         return backend.db.get(columnFamily, key);
     }
 
@@ -159,6 +164,25 @@ public abstract class AbstractRocksDBState<K, N, V> implements InternalKvState<K
         return dataOutputView.getCopyOfBuffer();
     }
 
+    /**
+     * Serializes the given keys with their key groups and the current namespace, for looking up
+     * multiple keys at once without changing the current key of the backend.
+     */
+    List<byte[]> serializeKeysWithGroupAndNamespace(List<K> keys) throws IOException {
+        SerializedCompositeKeyBuilder<K> keyBuilder =
+                new SerializedCompositeKeyBuilder<>(
+                        backend.getKeySerializer(), backend.getKeyGroupPrefixBytes(), 32);
+        List<byte[]> rawKeys = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            int keyGroup =
+                    KeyGroupRangeAssignment.assignToKeyGroup(key, backend.getNumberOfKeyGroups());
+            keyBuilder.setKeyAndKeyGroup(key, keyGroup);
+            rawKeys.add(
+                    keyBuilder.buildCompositeKeyNamespace(currentNamespace, namespaceSerializer));
+        }
+        return rawKeys;
+    }
+
     byte[] serializeCurrentKeyWithGroupAndNamespace() {
         return sharedKeyNamespaceSerializer.buildCompositeKeyNamespace(
                 currentNamespace, namespaceSerializer);
@@ -209,6 +233,20 @@ public abstract class AbstractRocksDBState<K, N, V> implements InternalKvState<K
         }
     }
 
+    /**
+     * Puts an on-heap {@link RocksDBObjectCache} in front of the column family of this state.
+     *
+     * @param capacity the max number of cached entries.
+     * @return the cache, or null if this state does not support caching.
+     */
+    @Nullable
+    RocksDBObjectCache<?> enableObjectCache(int capacity) {
+        return null;
+    }
+
+    /** Writes back the modified entries of the object cache of this state, if there is one. */
+    void flushObjectCache() throws IOException, RocksDBException {}
+
     protected V getDefaultValue() {
         if (defaultValue != null) {
             return valueSerializer.copy(defaultValue);
@@ -111,6 +111,8 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
 
     private static final long UNDEFINED_WRITE_BATCH_SIZE = -1;
 
+    private static final int UNDEFINED_OBJECT_CACHE_SIZE = -1;
+
     // ------------------------------------------------------------------------
 
     // -- configuration values, set in the application / configuration
@@ -166,6 +168,9 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
      */
     private long writeBatchSize;
 
+    /** Max number of deserialized entries cached on heap per value and map state, default 0. */
+    private int objectCacheSize;
+
     // ------------------------------------------------------------------------
 
     /** Creates a new {@code EmbeddedRocksDBStateBackend} for storing local state. */
@@ -193,6 +198,7 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
         this.defaultMetricOptions = new RocksDBNativeMetricOptions();
         this.memoryConfiguration = new RocksDBMemoryConfiguration();
         this.writeBatchSize = UNDEFINED_WRITE_BATCH_SIZE;
+        this.objectCacheSize = UNDEFINED_OBJECT_CACHE_SIZE;
     }
 
     /**
@@ -221,6 +227,12 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
             this.writeBatchSize = original.writeBatchSize;
         }
 
+        if (original.objectCacheSize == UNDEFINED_OBJECT_CACHE_SIZE) {
+            this.objectCacheSize = config.get(RocksDBOptions.OBJECT_CACHE_SIZE);
+        } else {
+            this.objectCacheSize = original.objectCacheSize;
+        }
+
         this.memoryConfiguration =
                 RocksDBMemoryConfiguration.fromOtherAndConfiguration(
                         original.memoryConfiguration, config);
@@ -456,7 +468,7 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
                                 env.getUserCodeClassLoader().asClassLoader(),
                                 instanceBasePath,
                                 resourceContainer,
-                                stateName -> resourceContainer.getColumnOptions(),
+                                resourceContainer::getColumnOptions,
                                 kvStateRegistry,
                                 keySerializer,
                                 numberOfKeyGroups,
@@ -474,7 +486,8 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
                         .setNumberOfTransferingThreads(getNumberOfTransferThreads())
                         .setNativeMetricOptions(
                                 resourceContainer.getMemoryWatcherOptions(defaultMetricOptions))
-                        .setWriteBatchSize(getWriteBatchSize());
+                        .setWriteBatchSize(getWriteBatchSize())
+                        .setObjectCacheSize(getObjectCacheSize());
         return builder.build();
     }
 
@@ -809,6 +822,24 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
         this.writeBatchSize = writeBatchSize;
     }
 
+    /** Gets the max number of deserialized entries cached on heap per value and map state. */
+    public int getObjectCacheSize() {
+        return objectCacheSize == UNDEFINED_OBJECT_CACHE_SIZE
+                ? RocksDBOptions.OBJECT_CACHE_SIZE.defaultValue()
+                : objectCacheSize;
+    }
+
+    /**
+     * Sets the max number of deserialized entries cached on heap per value and map state, 0
+     * disables the cache.
+     *
+     * @param objectCacheSize The max number of cached entries per state.
+     */
+    public void setObjectCacheSize(int objectCacheSize) {
+        checkArgument(objectCacheSize >= 0, "Object cache size have to be no negative.");
+        this.objectCacheSize = objectCacheSize;
+    }
+
     // ------------------------------------------------------------------------
     //  utilities
     // ------------------------------------------------------------------------
@@ -844,7 +875,8 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
                 configurableOptions != null ? configurableOptions : new Configuration(),
                 predefinedOptions != null ? predefinedOptions : PredefinedOptions.DEFAULT,
                 rocksDbOptionsFactory,
-                sharedResources);
+                sharedResources,
+                memoryConfiguration.getHighPriorityStates());
     }
 
     @Override
@@ -858,6 +890,8 @@ public class EmbeddedRocksDBStateBackend extends AbstractManagedMemoryStateBacke
                 + numberOfTransferThreads
                 + ", writeBatchSize="
                 + writeBatchSize
+                + ", objectCacheSize="
+                + objectCacheSize
                 + '}';
     }
 
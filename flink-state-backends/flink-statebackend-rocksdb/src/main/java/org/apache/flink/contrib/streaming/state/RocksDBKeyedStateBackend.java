@@ -27,6 +27,7 @@ import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
 import org.apache.flink.api.common.typeutils.base.MapSerializer;
 import org.apache.flink.api.common.typeutils.base.MapSerializerSnapshot;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.contrib.streaming.state.iterator.RocksPrefixIteratorWrapper;
 import org.apache.flink.contrib.streaming.state.iterator.RocksStateKeysAndNamespaceIterator;
 import org.apache.flink.contrib.streaming.state.iterator.RocksStateKeysIterator;
 import org.apache.flink.contrib.streaming.state.snapshot.RocksDBFullSnapshotResources;
@@ -35,6 +36,7 @@ import org.apache.flink.contrib.streaming.state.ttl.RocksDbTtlCompactFiltersMana
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.memory.DataInputDeserializer;
 import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.checkpoint.CheckpointOptions;
 import org.apache.flink.runtime.checkpoint.CheckpointType;
 import org.apache.flink.runtime.query.TaskKvStateRegistry;
@@ -80,10 +82,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -120,6 +124,9 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
      */
     public static final String MERGE_OPERATOR_NAME = "stringappendtest";
 
+    /** The name of the metric group of the on-heap object caches of the states. */
+    static final String OBJECT_CACHE_METRIC_GROUP = "rocksdbObjectCache";
+
     private static final Map<StateDescriptor.Type, StateFactory> STATE_FACTORIES =
             Stream.of(
                             Tuple2.of(
@@ -228,6 +235,15 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 
     private final RocksDbTtlCompactFiltersManager ttlCompactFiltersManager;
 
+    /** Max number of deserialized entries cached on heap per value and map state, 0 if off. */
+    private final int objectCacheSize;
+
+    /** The metric group for the metrics of the object caches. */
+    private final MetricGroup metricGroup;
+
+    /** The on-heap object caches of the states, by state name. */
+    private final Map<String, RocksDBObjectCache<?>> objectCaches;
+
     public RocksDBKeyedStateBackend(
             ClassLoader userCodeClassLoader,
             File instanceBasePath,
@@ -253,7 +269,9 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
             PriorityQueueSetFactory priorityQueueFactory,
             RocksDbTtlCompactFiltersManager ttlCompactFiltersManager,
             InternalKeyContext<K> keyContext,
-            @Nonnegative long writeBatchSize) {
+            @Nonnegative long writeBatchSize,
+            @Nonnegative int objectCacheSize,
+            MetricGroup metricGroup) {
 
         super(
                 kvStateRegistry,
@@ -281,6 +299,9 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         this.writeOptions = optionsContainer.getWriteOptions();
         this.readOptions = optionsContainer.getReadOptions();
         this.writeBatchSize = writeBatchSize;
+        this.objectCacheSize = objectCacheSize;
+        this.metricGroup = metricGroup;
+        this.objectCaches = new HashMap<>();
         this.db = db;
         this.rocksDBResourceGuard = rocksDBResourceGuard;
         this.checkpointSnapshotStrategy = checkpointSnapshotStrategy;
@@ -301,9 +322,29 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <N> Stream<K> getKeys(String state, N namespace) {
+        return getKeys(state, namespace, null);
+    }
+
+    @Override
+    public <N> Stream<K> getKeys(String state, N namespace, int keyGroup) {
+        Preconditions.checkArgument(
+                keyGroupRange.contains(keyGroup),
+                "Key-group %s is not in the key-group range %s of this backend.",
+                keyGroup,
+                keyGroupRange);
+        byte[] keyGroupBytes = new byte[keyGroupPrefixBytes];
+        CompositeKeySerializationUtils.serializeKeyGroup(keyGroup, keyGroupBytes);
+        return getKeys(state, namespace, keyGroupBytes);
+    }
+
+    /**
+     * Returns the keys of the state and namespace, only of the key-group with the given serialized
+     * key-group prefix if it is not null.
+     */
+    @SuppressWarnings("unchecked")
+    private <N> Stream<K> getKeys(String state, N namespace, @Nullable byte[] keyGroupBytes) {
         RocksDbKvStateInfo columnInfo = kvStateInformation.get(state);
         if (columnInfo == null
                 || !(columnInfo.metaInfo instanceof RegisteredKeyValueStateBackendMetaInfo)) {
@@ -328,10 +369,21 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
             throw new FlinkRuntimeException("Failed to get keys from RocksDB state backend.", ex);
         }
 
-        RocksIteratorWrapper iterator =
-                RocksDBOperationUtils.getRocksIterator(
-                        db, columnInfo.columnFamilyHandle, readOptions);
-        iterator.seekToFirst();
+        flushObjectCaches();
+
+        RocksIteratorWrapper iterator;
+        if (keyGroupBytes == null) {
+            iterator =
+                    RocksDBOperationUtils.getRocksIterator(
+                            db, columnInfo.columnFamilyHandle, readOptions);
+            iterator.seekToFirst();
+        } else {
+            iterator =
+                    new RocksPrefixIteratorWrapper(
+                            db.newIterator(columnInfo.columnFamilyHandle, readOptions),
+                            keyGroupBytes);
+            iterator.seek(keyGroupBytes);
+        }
 
         final RocksStateKeysIterator<K> iteratorWrapper =
                 new RocksStateKeysIterator<>(
@@ -366,6 +418,8 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
                 CompositeKeySerializationUtils.isAmbiguousKeyPossible(
                         getKeySerializer(), namespaceSerializer);
 
+        flushObjectCaches();
+
         RocksIteratorWrapper iterator =
                 RocksDBOperationUtils.getRocksIterator(
                         db, columnInfo.columnFamilyHandle, readOptions);
@@ -418,6 +472,9 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         // working on the disposed object results in SEGFAULTS.
         if (db != null) {
 
+            objectCaches.values().forEach(RocksDBObjectCache::clear);
+            objectCaches.clear();
+
             IOUtils.closeQuietly(writeBatchWrapper);
 
             // Metric collection occurs on a background thread. When this method returns
@@ -514,6 +571,52 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         return sharedRocksKeyBuilder;
     }
 
+    RocksDBWriteBatchWrapper getWriteBatchWrapper() {
+        return writeBatchWrapper;
+    }
+
+    /**
+     * Looks up the given serialized keys in one column family with a single batched read, which
+     * crosses JNI only once and lets RocksDB read the data blocks of all keys together.
+     *
+     * @return the serialized values in the order of the given keys, null for missing keys.
+     */
+    List<byte[]> multiGet(ColumnFamilyHandle columnFamily, List<byte[]> keys)
+            throws RocksDBException {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return db.multiGetAsList(Collections.nCopies(keys.size(), columnFamily), keys);
+    }
+
+    /**
+     * Looks up a serialized key from a thread other than the task thread. The lookup holds a lease
+     * on the RocksDB instance, so that the backend cannot be disposed while it is running.
+     *
+     * @return the serialized value, null if the key does not exist.
+     */
+    @Nullable
+    byte[] getFromAnyThread(ColumnFamilyHandle columnFamily, byte[] key)
+            throws IOException, RocksDBException {
+        try (ResourceGuard.Lease ignored = rocksDBResourceGuard.acquireResource()) {
+            return db.get(columnFamily, key);
+        }
+    }
+
+    /**
+     * Writes back the modified entries of all object caches, so that RocksDB reflects all state
+     * updates. Must be called before RocksDB is read other than through the states.
+     */
+    void flushObjectCaches() {
+        try {
+            for (RocksDBObjectCache<?> objectCache : objectCaches.values()) {
+                objectCache.flush();
+            }
+        } catch (IOException | RocksDBException e) {
+            throw new FlinkRuntimeException("Error while writing back the object caches.", e);
+        }
+    }
+
     @VisibleForTesting
     boolean isDisposed() {
         return this.disposed;
@@ -541,6 +644,7 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
             throws Exception {
 
         // flush everything into db before taking a snapshot
+        flushObjectCaches();
         writeBatchWrapper.flush();
 
         return new SnapshotStrategyRunner<>(
@@ -556,6 +660,7 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
     public SavepointResources<K> savepoint() throws Exception {
 
         // flush everything into db before taking a snapshot
+        flushObjectCaches();
         writeBatchWrapper.flush();
 
         Map<String, HeapPriorityQueueSnapshotRestoreWrapper<?>> registeredPQStates;
@@ -751,6 +856,8 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
                 "Performing state migration for state {} because the state serializer's schema, i.e. serialization format, has changed.",
                 stateDesc);
 
+        flushObjectCaches();
+
         // we need to get an actual state instance because migration is different
         // for different state types. For example, ListState needs to deal with
         // individual elements
@@ -836,7 +943,33 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
         Tuple2<ColumnFamilyHandle, RegisteredKeyValueStateBackendMetaInfo<N, SV>> registerResult =
                 tryRegisterKvStateInformation(
                         stateDesc, namespaceSerializer, snapshotTransformFactory);
-        return stateFactory.createState(stateDesc, registerResult, RocksDBKeyedStateBackend.this);
+        IS state =
+                stateFactory.createState(stateDesc, registerResult, RocksDBKeyedStateBackend.this);
+        if (objectCacheSize > 0 && !stateDesc.isQueryable()) {
+            registerObjectCache(stateDesc.getName(), (AbstractRocksDBState<?, ?, ?>) state);
+        }
+        return state;
+    }
+
+    private void registerObjectCache(String stateName, AbstractRocksDBState<?, ?, ?> state)
+            throws IOException, RocksDBException {
+        RocksDBObjectCache<?> objectCache = state.enableObjectCache(objectCacheSize);
+        if (objectCache == null) {
+            return;
+        }
+
+        RocksDBObjectCache<?> previous = objectCaches.put(stateName, objectCache);
+        if (previous != null) {
+            previous.invalidate();
+        } else {
+            objectCache.registerMetrics(
+                    metricGroup.addGroup(OBJECT_CACHE_METRIC_GROUP).addGroup(stateName));
+        }
+    }
+
+    @VisibleForTesting
+    RocksDBObjectCache<?> getObjectCache(String stateName) {
+        return objectCaches.get(stateName);
     }
 
     /** Only visible for testing, DO NOT USE. */
@@ -847,6 +980,7 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
     @VisibleForTesting
     @Override
     public int numKeyValueStateEntries() {
+        flushObjectCaches();
         int count = 0;
 
         for (RocksDbKvStateInfo metaInfo : kvStateInformation.values()) {
@@ -117,6 +117,7 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
     private int numberOfTransferingThreads;
     private long writeBatchSize =
             RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes();
+    private int objectCacheSize = RocksDBOptions.OBJECT_CACHE_SIZE.defaultValue();
 
     private RocksDB injectedTestDB; // for testing
     private ColumnFamilyHandle injectedDefaultColumnFamilyHandle; // for testing
@@ -242,6 +243,12 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
         return this;
     }
 
+    RocksDBKeyedStateBackendBuilder<K> setObjectCacheSize(int objectCacheSize) {
+        checkArgument(objectCacheSize >= 0, "Object cache size should be non negative.");
+        this.objectCacheSize = objectCacheSize;
+        return this;
+    }
+
     RocksDBKeyedStateBackendBuilder<K> setRocksDBStateUploader(
             RocksDBStateUploader rocksDBStateUploader) {
         Preconditions.checkState(
@@ -422,7 +429,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
                 priorityQueueFactory,
                 ttlCompactFiltersManager,
                 keyContext,
-                writeBatchSize);
+                writeBatchSize,
+                objectCacheSize,
+                metricGroup);
     }
 
     private RocksDBRestoreOperation getRocksDBRestoreOperation(
@@ -432,6 +441,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
             LinkedHashMap<String, HeapPriorityQueueSnapshotRestoreWrapper<?>> registeredPQStates,
             RocksDbTtlCompactFiltersManager ttlCompactFiltersManager) {
         DBOptions dbOptions = optionsContainer.getDbOptions();
+        if (nativeMetricOptions.isStatisticsEnabled()) {
+            dbOptions.setStatistics(optionsContainer.createStatistics());
+        }
         if (restoreStateHandles.isEmpty()) {
             return new RocksDBNoneRestoreOperation<>(
                     kvStateInformation,
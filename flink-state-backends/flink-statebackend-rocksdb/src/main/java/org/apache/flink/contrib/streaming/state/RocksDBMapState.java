@@ -32,6 +32,7 @@ import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.SerializedCompositeKeyBuilder;
 import org.apache.flink.runtime.state.StateSnapshotTransformer;
 import org.apache.flink.runtime.state.internal.InternalMapState;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.Preconditions;
 import org.apache.flink.util.StateMigrationException;
@@ -49,7 +50,9 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
@@ -72,6 +75,9 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
 
     private final TypeSerializer<UV> userValueSerializer;
 
+    /** The on-heap cache of deserialized user values, null if caching is disabled. */
+    @Nullable private RocksDBObjectCache<UV> objectCache;
+
     /**
      * Creates a new {@code RocksDBMapState}.
      *
@@ -121,11 +127,92 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public UV get(UK userKey) throws IOException, RocksDBException {
         byte[] rawKeyBytes =
                 serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+
+        if (objectCache != null) {
+            RocksDBObjectCache.Entry<UV> entry = objectCache.get(rawKeyBytes);
+            if (entry != null) {
+                return copyUserValue(entry.getValue());
+            }
+        }
+
         byte[] rawValueBytes = backend.db.get(columnFamily, rawKeyBytes);
 
-        return (rawValueBytes == null
-                ? null
-                : deserializeUserValue(dataInputView, rawValueBytes, userValueSerializer));
+        UV userValue =
+                (rawValueBytes == null
+                        ? null
+                        : deserializeUserValue(dataInputView, rawValueBytes, userValueSerializer));
+        if (objectCache != null) {
+            objectCache.putLoaded(rawKeyBytes, copyUserValue(userValue), rawValueBytes != null);
+        }
+        return userValue;
+    }
+
+    @Override
+    public List<UV> multiGet(List<UK> userKeys) throws IOException, RocksDBException {
+        List<UV> userValues = new ArrayList<>(Collections.nCopies(userKeys.size(), null));
+        List<Integer> missedPositions = new ArrayList<>(userKeys.size());
+        List<byte[]> missedKeys = new ArrayList<>(userKeys.size());
+        for (int i = 0; i < userKeys.size(); i++) {
+            byte[] rawKeyBytes =
+                    serializeCurrentKeyWithGroupAndNamespacePlusUserKey(
+                            userKeys.get(i), userKeySerializer);
+            RocksDBObjectCache.Entry<UV> entry =
+                    objectCache == null ? null : objectCache.get(rawKeyBytes);
+            if (entry != null) {
+                userValues.set(i, copyUserValue(entry.getValue()));
+            } else {
+                missedPositions.add(i);
+                missedKeys.add(rawKeyBytes);
+            }
+        }
+
+        List<byte[]> rawValueBytesList = backend.multiGet(columnFamily, missedKeys);
+        for (int i = 0; i < missedKeys.size(); i++) {
+            byte[] rawValueBytes = rawValueBytesList.get(i);
+            UV userValue =
+                    (rawValueBytes == null
+                            ? null
+                            : deserializeUserValue(
+                                    dataInputView, rawValueBytes, userValueSerializer));
+            if (objectCache != null) {
+                objectCache.putLoaded(
+                        missedKeys.get(i), copyUserValue(userValue), rawValueBytes != null);
+            }
+            userValues.set(missedPositions.get(i), userValue);
+        }
+        return userValues;
+    }
+
+    @Override
+    public InternalStateRead<UV> prepareGet(UK userKey) throws IOException, RocksDBException {
+        byte[] rawKeyBytes =
+                serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+
+        if (objectCache != null) {
+            RocksDBObjectCache.Entry<UV> entry = objectCache.get(rawKeyBytes);
+            if (entry != null) {
+                return InternalStateRead.completed(copyUserValue(entry.getValue()));
+            }
+            // the fetch reads RocksDB directly, which must not miss pending write-backs
+            objectCache.flushPendingWriteBacks();
+        }
+
+        return new InternalStateRead<UV>() {
+            private byte[] rawValueBytes;
+
+            @Override
+            public void fetch() throws Exception {
+                rawValueBytes = backend.getFromAnyThread(columnFamily, rawKeyBytes);
+            }
+
+            @Override
+            public UV complete() throws IOException {
+                // the value is not put into the object cache, it may have been modified since
+                return rawValueBytes == null
+                        ? null
+                        : deserializeUserValue(dataInputView, rawValueBytes, userValueSerializer);
+            }
+        };
     }
 
     @Override
@@ -133,6 +220,11 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
 
         byte[] rawKeyBytes =
                 serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+        if (objectCache != null) {
+            objectCache.put(rawKeyBytes, copyUserValue(userValue));
+            return;
+        }
+
         byte[] rawValueBytes = serializeValueNullSensitive(userValue, userValueSerializer);
 
         backend.db.put(columnFamily, writeOptions, rawKeyBytes, rawValueBytes);
@@ -144,6 +236,8 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
             return;
         }
 
+        writeBackObjectCache();
+
         try (RocksDBWriteBatchWrapper writeBatchWrapper =
                 new RocksDBWriteBatchWrapper(
                         backend.db, writeOptions, backend.getWriteBatchSize())) {
@@ -162,6 +256,10 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public void remove(UK userKey) throws IOException, RocksDBException {
         byte[] rawKeyBytes =
                 serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+        if (objectCache != null) {
+            objectCache.remove(rawKeyBytes);
+            return;
+        }
 
         backend.db.delete(columnFamily, writeOptions, rawKeyBytes);
     }
@@ -170,6 +268,14 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public boolean contains(UK userKey) throws IOException, RocksDBException {
         byte[] rawKeyBytes =
                 serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+
+        if (objectCache != null) {
+            RocksDBObjectCache.Entry<UV> entry = objectCache.get(rawKeyBytes);
+            if (entry != null) {
+                return entry.isPresent();
+            }
+        }
+
         byte[] rawValueBytes = backend.db.get(columnFamily, rawKeyBytes);
 
         return (rawValueBytes != null);
@@ -184,39 +290,43 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public Iterable<UK> keys() {
         final byte[] prefixBytes = serializeCurrentKeyWithGroupAndNamespace();
 
-        return () ->
-                new RocksDBMapIterator<UK>(
-                        backend.db,
-                        prefixBytes,
-                        userKeySerializer,
-                        userValueSerializer,
-                        dataInputView) {
-                    @Nullable
-                    @Override
-                    public UK next() {
-                        RocksDBMapEntry entry = nextEntry();
-                        return (entry == null ? null : entry.getKey());
-                    }
-                };
+        return () -> {
+            writeBackObjectCache();
+            return new RocksDBMapIterator<UK>(
+                    backend.db,
+                    prefixBytes,
+                    userKeySerializer,
+                    userValueSerializer,
+                    dataInputView) {
+                @Nullable
+                @Override
+                public UK next() {
+                    RocksDBMapEntry entry = nextEntry();
+                    return (entry == null ? null : entry.getKey());
+                }
+            };
+        };
     }
 
     @Override
     public Iterable<UV> values() {
         final byte[] prefixBytes = serializeCurrentKeyWithGroupAndNamespace();
 
-        return () ->
-                new RocksDBMapIterator<UV>(
-                        backend.db,
-                        prefixBytes,
-                        userKeySerializer,
-                        userValueSerializer,
-                        dataInputView) {
-                    @Override
-                    public UV next() {
-                        RocksDBMapEntry entry = nextEntry();
-                        return (entry == null ? null : entry.getValue());
-                    }
-                };
+        return () -> {
+            writeBackObjectCache();
+            return new RocksDBMapIterator<UV>(
+                    backend.db,
+                    prefixBytes,
+                    userKeySerializer,
+                    userValueSerializer,
+                    dataInputView) {
+                @Override
+                public UV next() {
+                    RocksDBMapEntry entry = nextEntry();
+                    return (entry == null ? null : entry.getValue());
+                }
+            };
+        };
     }
 
     @Override
@@ -253,6 +363,8 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public Iterator<Map.Entry<UK, UV>> iterator() {
         final byte[] prefixBytes = serializeCurrentKeyWithGroupAndNamespace();
 
+        writeBackObjectCache();
+
         return new RocksDBMapIterator<Map.Entry<UK, UV>>(
                 backend.db, prefixBytes, userKeySerializer, userValueSerializer, dataInputView) {
             @Override
@@ -266,6 +378,8 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
     public boolean isEmpty() {
         final byte[] prefixBytes = serializeCurrentKeyWithGroupAndNamespace();
 
+        writeBackObjectCache();
+
         try (RocksIteratorWrapper iterator =
                 RocksDBOperationUtils.getRocksIterator(
                         backend.db, columnFamily, backend.getReadOptions())) {
@@ -278,6 +392,8 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
 
     @Override
     public void clear() {
+        writeBackObjectCache();
+
         try {
             try (RocksIteratorWrapper iterator =
                             RocksDBOperationUtils.getRocksIterator(
@@ -338,6 +454,8 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
         final byte[] keyPrefixBytes =
                 keyBuilder.buildCompositeKeyNamespace(keyAndNamespace.f1, namespaceSerializer);
 
+        flushObjectCache();
+
         final MapSerializer<UK, UV> serializer = (MapSerializer<UK, UV>) safeValueSerializer;
 
         final TypeSerializer<UK> dupUserKeySerializer = serializer.getKeySerializer();
@@ -367,6 +485,42 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
                 () -> iterator, dupUserKeySerializer, dupUserValueSerializer);
     }
 
+    @Override
+    RocksDBObjectCache<?> enableObjectCache(int capacity) {
+        objectCache =
+                new RocksDBObjectCache<>(
+                        columnFamily,
+                        backend.getWriteBatchWrapper(),
+                        userValue -> serializeValueNullSensitive(userValue, userValueSerializer),
+                        capacity);
+        return objectCache;
+    }
+
+    /**
+     * Writes back and drops the cached entries before RocksDB is accessed directly, e.g. by
+     * iterators which may also modify the entries.
+     */
+    @Override
+    void flushObjectCache() throws IOException, RocksDBException {
+        if (objectCache != null) {
+            objectCache.flush();
+        }
+    }
+
+    private void writeBackObjectCache() {
+        if (objectCache != null) {
+            try {
+                objectCache.invalidate();
+            } catch (IOException | RocksDBException e) {
+                throw new FlinkRuntimeException("Error while writing back the object cache.", e);
+            }
+        }
+    }
+
+    private UV copyUserValue(@Nullable UV userValue) {
+        return userValue == null ? null : userValueSerializer.copy(userValue);
+    }
+
     // ------------------------------------------------------------------------
     //  Serialization Methods
     // ------------------------------------------------------------------------
@@ -470,6 +624,9 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
             rawValueBytes = null;
 
             try {
+                if (objectCache != null) {
+                    objectCache.discard(rawKeyBytes);
+                }
                 db.delete(columnFamily, writeOptions, rawKeyBytes);
             } catch (RocksDBException e) {
                 throw new FlinkRuntimeException("Error while removing data from RocksDB.", e);
@@ -522,6 +679,9 @@ class RocksDBMapState<K, N, UK, UV> extends AbstractRocksDBState<K, N, Map<UK, U
                 userValue = value;
                 rawValueBytes = serializeValueNullSensitive(value, valueSerializer);
 
+                if (objectCache != null) {
+                    objectCache.discard(rawKeyBytes);
+                }
                 db.put(columnFamily, writeOptions, rawKeyBytes, rawValueBytes);
             } catch (IOException | RocksDBException e) {
                 throw new FlinkRuntimeException("Error while putting data into RocksDB.", e);
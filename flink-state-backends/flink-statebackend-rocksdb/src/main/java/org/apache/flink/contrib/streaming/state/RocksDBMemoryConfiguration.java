@@ -25,6 +25,9 @@ import org.apache.flink.util.Preconditions;
 import javax.annotation.Nullable;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
 
@@ -54,6 +57,15 @@ public final class RocksDBMemoryConfiguration implements Serializable {
     /** Flag whether to use partition index/filters. Null if not set. */
     @Nullable private Boolean usePartitionedIndexFilters;
 
+    /**
+     * The fraction of the shared cache that is used as a separate cache for high priority states.
+     * Null if not set.
+     */
+    @Nullable private Double highPriorityStatesRatio;
+
+    /** The names of the states that use the cache for high priority states. Null if not set. */
+    @Nullable private List<String> highPriorityStates;
+
     // ------------------------------------------------------------------------
 
     /**
@@ -114,6 +126,32 @@ public final class RocksDBMemoryConfiguration implements Serializable {
         this.highPriorityPoolRatio = highPriorityPoolRatio;
     }
 
+    /**
+     * Sets the fraction of the shared cache that is split off into a separate cache for the data
+     * blocks of timer states and of the states set via {@link #setHighPriorityStates(List)}. This
+     * only has an effect if either {@link #setUseManagedMemory(boolean)} or {@link
+     * #setFixedMemoryPerSlot(MemorySize)} are set.
+     *
+     * <p>See {@link RocksDBOptions#HIGH_PRIORITY_STATES_RATIO} for details.
+     */
+    public void setHighPriorityStatesRatio(double highPriorityStatesRatio) {
+        Preconditions.checkArgument(
+                highPriorityStatesRatio >= 0 && highPriorityStatesRatio < 1.0,
+                "High priority states ratio %s must be in [0, 1)",
+                highPriorityStatesRatio);
+        this.highPriorityStatesRatio = highPriorityStatesRatio;
+    }
+
+    /**
+     * Sets the names of the states whose data blocks are kept in the separate cache for high
+     * priority states.
+     *
+     * <p>See {@link RocksDBOptions#HIGH_PRIORITY_STATES} for details.
+     */
+    public void setHighPriorityStates(List<String> highPriorityStates) {
+        this.highPriorityStates = new ArrayList<>(Preconditions.checkNotNull(highPriorityStates));
+    }
+
     /**
      * Gets whether the state backend is configured to use the managed memory of a slot for RocksDB.
      * See {@link RocksDBOptions#USE_MANAGED_MEMORY} for details.
@@ -180,6 +218,30 @@ public final class RocksDBMemoryConfiguration implements Serializable {
                 : RocksDBOptions.USE_PARTITIONED_INDEX_FILTERS.defaultValue();
     }
 
+    /**
+     * Gets the fraction of the shared cache that is split off into a separate cache for high
+     * priority states.
+     *
+     * <p>See {@link RocksDBOptions#HIGH_PRIORITY_STATES_RATIO} for details.
+     */
+    public double getHighPriorityStatesRatio() {
+        return highPriorityStatesRatio != null
+                ? highPriorityStatesRatio
+                : RocksDBOptions.HIGH_PRIORITY_STATES_RATIO.defaultValue();
+    }
+
+    /**
+     * Gets the names of the states whose data blocks are kept in the separate cache for high
+     * priority states.
+     *
+     * <p>See {@link RocksDBOptions#HIGH_PRIORITY_STATES} for details.
+     */
+    public List<String> getHighPriorityStates() {
+        return highPriorityStates != null
+                ? Collections.unmodifiableList(highPriorityStates)
+                : RocksDBOptions.HIGH_PRIORITY_STATES.defaultValue();
+    }
+
     // ------------------------------------------------------------------------
 
     /** Validates if the configured options are valid with respect to one another. */
@@ -199,6 +261,14 @@ public final class RocksDBMemoryConfiguration implements Serializable {
                             "Invalid configuration: writeBufferRatio %s with highPriPoolRatio %s",
                             writeBufferRatio, highPriorityPoolRatio));
         }
+
+        if (highPriorityStatesRatio != null
+                && (highPriorityStatesRatio < 0 || highPriorityStatesRatio >= 1.0)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Invalid configuration: highPriorityStatesRatio %s must be in [0, 1)",
+                            highPriorityStatesRatio));
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -238,6 +308,16 @@ public final class RocksDBMemoryConfiguration implements Serializable {
                         ? other.usePartitionedIndexFilters
                         : config.get(RocksDBOptions.USE_PARTITIONED_INDEX_FILTERS);
 
+        newConfig.highPriorityStatesRatio =
+                other.highPriorityStatesRatio != null
+                        ? other.highPriorityStatesRatio
+                        : config.get(RocksDBOptions.HIGH_PRIORITY_STATES_RATIO);
+
+        newConfig.highPriorityStates =
+                other.highPriorityStates != null
+                        ? other.highPriorityStates
+                        : new ArrayList<>(config.get(RocksDBOptions.HIGH_PRIORITY_STATES));
+
         return newConfig;
     }
 }
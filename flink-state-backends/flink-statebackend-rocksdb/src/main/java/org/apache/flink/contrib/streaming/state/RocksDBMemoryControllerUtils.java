@@ -36,19 +36,30 @@ public class RocksDBMemoryControllerUtils {
      * @param totalMemorySize The total memory limit size.
      * @param writeBufferRatio The ratio of total memory which is occupied by write buffer manager.
      * @param highPriorityPoolRatio The high priority pool ratio of cache.
+     * @param highPriorityStatesRatio The ratio of cache which is split off into a separate cache
+     *     for high priority states, 0 if no such cache should be created.
      * @return memory controllable RocksDB shared resources.
      */
     public static RocksDBSharedResources allocateRocksDBSharedResources(
             long totalMemorySize,
             double writeBufferRatio,
             double highPriorityPoolRatio,
+            double highPriorityStatesRatio,
             boolean usingPartitionedIndexFilters) {
         long calculatedCacheCapacity =
                 RocksDBMemoryControllerUtils.calculateActualCacheCapacity(
                         totalMemorySize, writeBufferRatio);
+        long highPriorityCacheCapacity =
+                RocksDBMemoryControllerUtils.calculateHighPriorityCacheCapacity(
+                        calculatedCacheCapacity, highPriorityStatesRatio);
         final Cache cache =
                 RocksDBMemoryControllerUtils.createCache(
-                        calculatedCacheCapacity, highPriorityPoolRatio);
+                        calculatedCacheCapacity - highPriorityCacheCapacity, highPriorityPoolRatio);
+        final Cache highPriorityCache =
+                highPriorityCacheCapacity > 0
+                        ? RocksDBMemoryControllerUtils.createCache(
+                                highPriorityCacheCapacity, highPriorityPoolRatio)
+                        : null;
 
         long writeBufferManagerCapacity =
                 RocksDBMemoryControllerUtils.calculateWriteBufferManagerCapacity(
@@ -58,7 +69,11 @@ public class RocksDBMemoryControllerUtils {
                         writeBufferManagerCapacity, cache);
 
         return new RocksDBSharedResources(
-                cache, wbm, writeBufferManagerCapacity, usingPartitionedIndexFilters);
+                cache,
+                highPriorityCache,
+                wbm,
+                writeBufferManagerCapacity,
+                usingPartitionedIndexFilters);
     }
 
     /**
@@ -101,6 +116,23 @@ public class RocksDBMemoryControllerUtils {
         return (long) (2 * totalMemorySize * writeBufferRatio / 3);
     }
 
+    /**
+     * Calculate the capacity of the separate cache for high priority states. The write buffer
+     * manager is always charged against the remaining part of the cache, so the high priority
+     * states cannot be squeezed out by memtables.
+     *
+     * @param cacheCapacity The total capacity of the cache(s), see {@link
+     *     #calculateActualCacheCapacity(long, double)}.
+     * @param highPriorityStatesRatio The ratio of the cache capacity reserved for high priority
+     *     states.
+     * @return The capacity of the cache for high priority states, 0 if there is no such cache.
+     */
+    @VisibleForTesting
+    static long calculateHighPriorityCacheCapacity(
+            long cacheCapacity, double highPriorityStatesRatio) {
+        return (long) (cacheCapacity * highPriorityStatesRatio);
+    }
+
     @VisibleForTesting
     static Cache createCache(long cacheCapacity, double highPriorityPoolRatio) {
         // TODO use strict capacity limit until FLINK-15532 resolved
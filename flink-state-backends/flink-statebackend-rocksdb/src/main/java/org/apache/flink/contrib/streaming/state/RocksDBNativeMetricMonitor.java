@@ -26,10 +26,13 @@ import org.apache.flink.metrics.View;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 import java.io.Closeable;
@@ -37,7 +40,8 @@ import java.math.BigInteger;
 
 /**
  * A monitor which pulls {{@link RocksDB}} native metrics and forwards them to Flink's metric group.
- * All metrics are unsigned longs and are reported at the column family level.
+ * All metrics are unsigned longs. Properties are reported at the column family level, statistics
+ * tickers are reported at the database level.
  */
 @Internal
 public class RocksDBNativeMetricMonitor implements Closeable {
@@ -54,15 +58,42 @@ public class RocksDBNativeMetricMonitor implements Closeable {
     @GuardedBy("lock")
     private RocksDB rocksDB;
 
+    @GuardedBy("lock")
+    @Nullable
+    private Statistics statistics;
+
     public RocksDBNativeMetricMonitor(
             @Nonnull RocksDBNativeMetricOptions options,
             @Nonnull MetricGroup metricGroup,
             @Nonnull RocksDB rocksDB) {
+        this(options, metricGroup, rocksDB, null);
+    }
+
+    public RocksDBNativeMetricMonitor(
+            @Nonnull RocksDBNativeMetricOptions options,
+            @Nonnull MetricGroup metricGroup,
+            @Nonnull RocksDB rocksDB,
+            @Nullable Statistics statistics) {
         this.options = options;
         this.metricGroup = metricGroup;
         this.rocksDB = rocksDB;
+        this.statistics = statistics;
 
         this.lock = new Object();
+        registerStatistics();
+    }
+
+    /** Register gauges to pull the statistics tickers of the database, if statistics are set. */
+    private void registerStatistics() {
+        if (statistics == null) {
+            return;
+        }
+
+        for (RocksDBStatisticsTicker ticker : options.getTickers()) {
+            RocksDBNativeStatisticsMetricView gauge =
+                    new RocksDBNativeStatisticsMetricView(ticker.getTickerType());
+            metricGroup.gauge(ticker.getMetricName(), gauge);
+        }
     }
 
     /**
@@ -104,10 +135,20 @@ public class RocksDBNativeMetricMonitor implements Closeable {
         }
     }
 
+    /** Updates the value of metricView if the reference is still valid. */
+    private void setStatistics(TickerType tickerType, RocksDBNativeMetricView metricView) {
+        synchronized (lock) {
+            if (statistics != null) {
+                metricView.setValue(statistics.getTickerCount(tickerType));
+            }
+        }
+    }
+
     @Override
     public void close() {
         synchronized (lock) {
             rocksDB = null;
+            statistics = null;
         }
     }
 
@@ -135,6 +176,10 @@ public class RocksDBNativeMetricMonitor implements Closeable {
             this.closed = false;
         }
 
+        private RocksDBNativeMetricView() {
+            this(null, "");
+        }
+
         public void setValue(long value) {
             if (value >= 0L) {
                 bigInteger = BigInteger.valueOf(value);
@@ -167,4 +212,18 @@ public class RocksDBNativeMetricMonitor implements Closeable {
             setProperty(handle, property, this);
         }
     }
+
+    /** A gauge which periodically pulls a RocksDB statistics ticker of the database. */
+    class RocksDBNativeStatisticsMetricView extends RocksDBNativeMetricView {
+        private final TickerType tickerType;
+
+        private RocksDBNativeStatisticsMetricView(TickerType tickerType) {
+            this.tickerType = tickerType;
+        }
+
+        @Override
+        public void update() {
+            setStatistics(tickerType, this);
+        }
+    }
 }
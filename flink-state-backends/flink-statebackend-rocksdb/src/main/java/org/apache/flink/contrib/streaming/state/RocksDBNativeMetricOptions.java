@@ -25,12 +25,14 @@ import org.apache.flink.configuration.ReadableConfig;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
- * Enable which RocksDB metrics to forward to Flink's metrics reporter. All metrics report at the
- * column family level and return unsigned long values.
+ * Enable which RocksDB metrics to forward to Flink's metrics reporter. All property metrics report
+ * at the column family level, statistics tickers report at the database level, and all metrics
+ * return unsigned long values.
  *
  * <p>Properties and doc comments are taken from RocksDB documentation. See <a
  * href="https://github.com/facebook/rocksdb/blob/64324e329eb0a9b4e77241a425a1615ff524c7f1/include/rocksdb/db.h#L429">
@@ -202,6 +204,63 @@ public class RocksDBNativeMetricOptions implements Serializable {
                     .withDescription(
                             "Monitor the memory size for the entries being pinned in block cache.");
 
+    public static final ConfigOption<Boolean> BLOCK_CACHE_HIT =
+            ConfigOptions.key(RocksDBStatisticsTicker.BlockCacheHit.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of block cache hits of all column families "
+                                    + "in RocksDB. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> BLOCK_CACHE_MISS =
+            ConfigOptions.key(RocksDBStatisticsTicker.BlockCacheMiss.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of block cache misses of all column families "
+                                    + "in RocksDB. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> BLOCK_CACHE_ADD =
+            ConfigOptions.key(RocksDBStatisticsTicker.BlockCacheAdd.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of blocks added to the block cache by all "
+                                    + "column families in RocksDB. Once the cache is full, every "
+                                    + "added block evicts others. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> BLOCK_CACHE_DATA_HIT =
+            ConfigOptions.key(RocksDBStatisticsTicker.BlockCacheDataHit.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of block cache hits on data blocks of all "
+                                    + "column families in RocksDB. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> BLOCK_CACHE_DATA_MISS =
+            ConfigOptions.key(RocksDBStatisticsTicker.BlockCacheDataMiss.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of block cache misses on data blocks of all "
+                                    + "column families in RocksDB. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> MULTIGET_CALLS =
+            ConfigOptions.key(RocksDBStatisticsTicker.MultiGetCalls.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of batched lookups of several keys in "
+                                    + "RocksDB. This enables RocksDB statistics.");
+
+    public static final ConfigOption<Boolean> MULTIGET_KEYS_READ =
+            ConfigOptions.key(RocksDBStatisticsTicker.MultiGetKeysRead.getConfigKey())
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Monitor the total count of keys looked up by batched lookups in "
+                                    + "RocksDB. This enables RocksDB statistics.");
+
     public static final ConfigOption<Boolean> COLUMN_FAMILY_AS_VARIABLE =
             ConfigOptions.key(METRICS_COLUMN_FAMILY_AS_VARIABLE_KEY)
                     .defaultValue(false)
@@ -314,16 +373,46 @@ public class RocksDBNativeMetricOptions implements Serializable {
             options.enableBlockCachePinnedUsage();
         }
 
+        if (config.get(BLOCK_CACHE_HIT)) {
+            options.enableBlockCacheHit();
+        }
+
+        if (config.get(BLOCK_CACHE_MISS)) {
+            options.enableBlockCacheMiss();
+        }
+
+        if (config.get(BLOCK_CACHE_ADD)) {
+            options.enableBlockCacheAdd();
+        }
+
+        if (config.get(BLOCK_CACHE_DATA_HIT)) {
+            options.enableBlockCacheDataHit();
+        }
+
+        if (config.get(BLOCK_CACHE_DATA_MISS)) {
+            options.enableBlockCacheDataMiss();
+        }
+
+        if (config.get(MULTIGET_CALLS)) {
+            options.enableMultiGetCalls();
+        }
+
+        if (config.get(MULTIGET_KEYS_READ)) {
+            options.enableMultiGetKeysRead();
+        }
+
         options.setColumnFamilyAsVariable(config.get(COLUMN_FAMILY_AS_VARIABLE));
 
         return options;
     }
 
     private final Set<String> properties;
+    private final Set<RocksDBStatisticsTicker> tickers;
     private boolean columnFamilyAsVariable = COLUMN_FAMILY_AS_VARIABLE.defaultValue();
 
     public RocksDBNativeMetricOptions() {
         this.properties = new HashSet<>();
+        this.tickers = EnumSet.noneOf(RocksDBStatisticsTicker.class);
     }
 
     /** Returns number of immutable memtables that have not yet been flushed. */
@@ -474,6 +563,41 @@ public class RocksDBNativeMetricOptions implements Serializable {
         this.properties.add(RocksDBProperty.BlockCachePinnedUsage.getRocksDBProperty());
     }
 
+    /** Returns the number of times a block was found in the block cache. */
+    public void enableBlockCacheHit() {
+        this.tickers.add(RocksDBStatisticsTicker.BlockCacheHit);
+    }
+
+    /** Returns the number of times a block was not found in the block cache. */
+    public void enableBlockCacheMiss() {
+        this.tickers.add(RocksDBStatisticsTicker.BlockCacheMiss);
+    }
+
+    /** Returns the number of blocks added to the block cache. */
+    public void enableBlockCacheAdd() {
+        this.tickers.add(RocksDBStatisticsTicker.BlockCacheAdd);
+    }
+
+    /** Returns the number of times a data block was found in the block cache. */
+    public void enableBlockCacheDataHit() {
+        this.tickers.add(RocksDBStatisticsTicker.BlockCacheDataHit);
+    }
+
+    /** Returns the number of times a data block was not found in the block cache. */
+    public void enableBlockCacheDataMiss() {
+        this.tickers.add(RocksDBStatisticsTicker.BlockCacheDataMiss);
+    }
+
+    /** Returns the number of batched lookups of several keys. */
+    public void enableMultiGetCalls() {
+        this.tickers.add(RocksDBStatisticsTicker.MultiGetCalls);
+    }
+
+    /** Returns the number of keys looked up by batched lookups. */
+    public void enableMultiGetKeysRead() {
+        this.tickers.add(RocksDBStatisticsTicker.MultiGetKeysRead);
+    }
+
     /** Returns the column family as variable. */
     public void setColumnFamilyAsVariable(boolean columnFamilyAsVariable) {
         this.columnFamilyAsVariable = columnFamilyAsVariable;
@@ -484,13 +608,25 @@ public class RocksDBNativeMetricOptions implements Serializable {
         return Collections.unmodifiableCollection(properties);
     }
 
+    /** @return the enabled RocksDB statistics tickers */
+    public Collection<RocksDBStatisticsTicker> getTickers() {
+        return Collections.unmodifiableCollection(tickers);
+    }
+
     /**
      * {{@link RocksDBNativeMetricMonitor}} is enabled is any property is set.
      *
      * @return true if {{RocksDBNativeMetricMonitor}} should be enabled, false otherwise.
      */
     public boolean isEnabled() {
-        return !properties.isEmpty();
+        return !properties.isEmpty() || isStatisticsEnabled();
+    }
+
+    /**
+     * @return true if RocksDB statistics are required, i.e. at least one ticker metric is enabled.
+     */
+    public boolean isStatisticsEnabled() {
+        return !tickers.isEmpty();
     }
 
     /**
@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.util.function.FunctionWithException;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded write-back cache of deserialized state objects in front of the column family of one
+ * RocksDB state. Entries are keyed by the serialized RocksDB key, i.e. key group, key, namespace
+ * and (for map states) user key, so a cache hit skips the JNI lookup and the deserialization of the
+ * value.
+ *
+ * <p>Modifications are only applied to the cache. Modified entries are written into the {@link
+ * RocksDBWriteBatchWrapper} of the backend when they are evicted in least-recently-used order, and
+ * all of them are written back on {@link #flush()}, which the backend calls before snapshots and
+ * before any access that reads RocksDB directly. Evicted entries stay visible to {@link
+ * #get(byte[])} until the write batch was flushed, so reads never miss writes that are still
+ * pending in the batch.
+ *
+ * <p>IMPORTANT: This class is not thread safe.
+ *
+ * @param <V> The type of the cached values.
+ */
+class RocksDBObjectCache<V> {
+
+    /** The column family of the state the cache belongs to. */
+    private final ColumnFamilyHandle columnFamily;
+
+    /** The write batch into which modified entries are written back. */
+    private final RocksDBWriteBatchWrapper writeBatchWrapper;
+
+    /** Serializes the values written back to RocksDB. */
+    private final FunctionWithException<V, byte[], IOException> valueSerializer;
+
+    /** The maximum number of cached entries. */
+    private final int capacity;
+
+    /** The cached entries in access order. */
+    private final LinkedHashMap<RawKey, Entry<V>> entries;
+
+    /**
+     * Evicted entries whose write-back is in the write batch but maybe not yet in RocksDB. Entries
+     * stay here until the write batch is flushed, also when they are read again.
+     */
+    private final HashMap<RawKey, Entry<V>> evictedEntries;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long writeBackCount;
+
+    private long flushCount;
+
+    RocksDBObjectCache(
+            ColumnFamilyHandle columnFamily,
+            RocksDBWriteBatchWrapper writeBatchWrapper,
+            FunctionWithException<V, byte[], IOException> valueSerializer,
+            int capacity) {
+        this.columnFamily = columnFamily;
+        this.writeBatchWrapper = writeBatchWrapper;
+        this.valueSerializer = valueSerializer;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.evictedEntries = new HashMap<>();
+    }
+
+    /**
+     * Returns the cached entry for the given serialized key, or null if the key is not cached and
+     * has to be read from RocksDB.
+     */
+    @Nullable
+    Entry<V> get(byte[] rawKey) {
+        RawKey key = new RawKey(rawKey);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            // served without moving it back into the cache, so that the key stays marked as
+            // pending in the write batch until the batch is flushed
+            entry = evictedEntries.get(key);
+        }
+
+        if (entry != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return entry;
+    }
+
+    /** Caches a value that was read from RocksDB, null if the key does not exist in RocksDB. */
+    Entry<V> putLoaded(byte[] rawKey, @Nullable V value, boolean present)
+            throws IOException, RocksDBException {
+        return putEntry(rawKey, new Entry<>(value, present, false));
+    }
+
+    /** Caches a modified value, which is written back to RocksDB later. */
+    void put(byte[] rawKey, @Nullable V value) throws IOException, RocksDBException {
+        putEntry(rawKey, new Entry<>(value, true, true));
+    }
+
+    /** Caches the removal of a key, which is written back to RocksDB later. */
+    void remove(byte[] rawKey) throws IOException, RocksDBException {
+        putEntry(rawKey, new Entry<>(null, false, true));
+    }
+
+    /**
+     * Drops the entry for a key which is about to be written to RocksDB directly. Pending
+     * write-backs of the key are flushed first so that they cannot overwrite the direct write.
+     */
+    void discard(byte[] rawKey) throws RocksDBException {
+        RawKey key = new RawKey(rawKey);
+        entries.remove(key);
+        if (evictedEntries.containsKey(key)) {
+            flushWriteBatch();
+        }
+    }
+
+    /**
+     * Flushes the write batch if it holds write-backs of this cache, so that RocksDB can be read
+     * from another thread without missing them. Entries which are still cached are not written
+     * back, reads of their keys must be served from the cache.
+     */
+    void flushPendingWriteBacks() throws RocksDBException {
+        if (!evictedEntries.isEmpty()) {
+            flushWriteBatch();
+        }
+    }
+
+    /** Writes back all modified entries and flushes them into RocksDB. */
+    void flush() throws IOException, RocksDBException {
+        for (Map.Entry<RawKey, Entry<V>> entry : entries.entrySet()) {
+            if (entry.getValue().dirty) {
+                writeBack(entry.getKey().rawKey, entry.getValue());
+            }
+        }
+        flushWriteBatch();
+    }
+
+    /** Writes back all modified entries and clears the cache. */
+    void invalidate() throws IOException, RocksDBException {
+        flush();
+        entries.clear();
+    }
+
+    /** Drops all entries without writing them back, e.g. when the backend is disposed. */
+    void clear() {
+        entries.clear();
+        evictedEntries.clear();
+    }
+
+    void registerMetrics(MetricGroup metricGroup) {
+        metricGroup.gauge("hitCount", () -> hitCount);
+        metricGroup.gauge("missCount", () -> missCount);
+        metricGroup.gauge("hitRatio", this::getHitRatio);
+        metricGroup.gauge("writeBackCount", () -> writeBackCount);
+        metricGroup.gauge("flushCount", () -> flushCount);
+    }
+
+    @VisibleForTesting
+    int size() {
+        return entries.size();
+    }
+
+    @VisibleForTesting
+    long getHitCount() {
+        return hitCount;
+    }
+
+    @VisibleForTesting
+    long getMissCount() {
+        return missCount;
+    }
+
+    @VisibleForTesting
+    long getWriteBackCount() {
+        return writeBackCount;
+    }
+
+    @VisibleForTesting
+    long getFlushCount() {
+        return flushCount;
+    }
+
+    @VisibleForTesting
+    double getHitRatio() {
+        long accessCount = hitCount + missCount;
+        return accessCount == 0 ? 0.0 : (double) hitCount / accessCount;
+    }
+
+    private Entry<V> putEntry(byte[] rawKey, Entry<V> entry) throws IOException, RocksDBException {
+        entries.put(new RawKey(rawKey), entry);
+        while (entries.size() > capacity) {
+            evictEldest();
+        }
+        return entry;
+    }
+
+    private void evictEldest() throws IOException, RocksDBException {
+        Iterator<Map.Entry<RawKey, Entry<V>>> iterator = entries.entrySet().iterator();
+        Map.Entry<RawKey, Entry<V>> eldest = iterator.next();
+        iterator.remove();
+
+        if (eldest.getValue().dirty) {
+            writeBack(eldest.getKey().rawKey, eldest.getValue());
+            evictedEntries.put(eldest.getKey(), eldest.getValue());
+            if (evictedEntries.size() >= capacity) {
+                flushWriteBatch();
+            }
+        }
+    }
+
+    private void writeBack(byte[] rawKey, Entry<V> entry) throws IOException, RocksDBException {
+        if (entry.present) {
+            writeBatchWrapper.put(columnFamily, rawKey, valueSerializer.apply(entry.value));
+        } else {
+            writeBatchWrapper.remove(columnFamily, rawKey);
+        }
+        entry.dirty = false;
+        writeBackCount++;
+    }
+
+    private void flushWriteBatch() throws RocksDBException {
+        writeBatchWrapper.flush();
+        evictedEntries.clear();
+        flushCount++;
+    }
+
+    /** A cached value. */
+    static final class Entry<V> {
+
+        @Nullable private final V value;
+
+        /** False if the key does not exist in the state. */
+        private final boolean present;
+
+        /** True if the entry is modified and has not been written back yet. */
+        private boolean dirty;
+
+        private Entry(@Nullable V value, boolean present, boolean dirty) {
+            this.value = value;
+            this.present = present;
+            this.dirty = dirty;
+        }
+
+        @Nullable
+        V getValue() {
+            return value;
+        }
+
+        boolean isPresent() {
+            return present;
+        }
+    }
+
+    /** Wraps a serialized RocksDB key to compare by content. */
+    private static final class RawKey {
+
+        @Nonnull private final byte[] rawKey;
+
+        private final int hashCode;
+
+        private RawKey(@Nonnull byte[] rawKey) {
+            this.rawKey = rawKey;
+            this.hashCode = Arrays.hashCode(rawKey);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return Arrays.equals(rawKey, ((RawKey) o).rawKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -267,6 +267,7 @@ public class RocksDBOperationUtils {
         }
 
         final double highPriorityPoolRatio = memoryConfig.getHighPriorityPoolRatio();
+        final double highPriorityStatesRatio = memoryConfig.getHighPriorityStatesRatio();
         final double writeBufferRatio = memoryConfig.getWriteBufferRatio();
         final boolean usingPartitionedIndexFilters = memoryConfig.isUsingPartitionedIndexFilters();
 
@@ -276,6 +277,7 @@ public class RocksDBOperationUtils {
                                 size,
                                 writeBufferRatio,
                                 highPriorityPoolRatio,
+                                highPriorityStatesRatio,
                                 usingPartitionedIndexFilters);
 
         try {
@@ -23,6 +23,8 @@ import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.MemorySize;
 
+import java.util.List;
+
 import static org.apache.flink.contrib.streaming.state.EmbeddedRocksDBStateBackend.PriorityQueueStateType.ROCKSDB;
 import static org.apache.flink.contrib.streaming.state.PredefinedOptions.DEFAULT;
 import static org.apache.flink.contrib.streaming.state.PredefinedOptions.FLASH_SSD_OPTIMIZED;
@@ -63,6 +65,18 @@ public class RocksDBOptions {
                     .withDescription(
                             "The number of threads (per stateful operator) used to transfer (download and upload) files in RocksDBStateBackend.");
 
+    /** The number of deserialized objects cached on heap per value and map state. */
+    @Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+    public static final ConfigOption<Integer> OBJECT_CACHE_SIZE =
+            ConfigOptions.key("state.backend.rocksdb.object-cache.size")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "The maximum number of deserialized entries cached on the JVM heap per value state and "
+                                    + "map state. Hot keys are then read and updated without accessing RocksDB. Modified "
+                                    + "entries are written back to RocksDB when they are evicted and before snapshots. "
+                                    + "Queryable states are never cached. A value of 0 disables the cache.");
+
     /** The predefined settings for RocksDB DBOptions and ColumnFamilyOptions by Flink community. */
     @Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
     public static final ConfigOption<String> PREDEFINED_OPTIONS =
@@ -148,4 +162,32 @@ public class RocksDBOptions {
                                             + "the partitions that are required to perform the index/filter query. "
                                             + "This option only has an effect when '%s' or '%s' are configured.",
                                     USE_MANAGED_MEMORY.key(), FIX_PER_SLOT_MEMORY_SIZE.key()));
+
+    @Documentation.Section(Documentation.Sections.STATE_BACKEND_ROCKSDB)
+    public static final ConfigOption<Double> HIGH_PRIORITY_STATES_RATIO =
+            ConfigOptions.key("state.backend.rocksdb.memory.high-prio-states-ratio")
+                    .doubleType()
+                    .defaultValue(0.0)
+                    .withDescription(
+                            String.format(
+                                    "The fraction of cache memory that is split off into a separate block cache for the data "
+                                            + "blocks of RocksDB timer states and of the states configured in '%s', so that their blocks are not "
+                                            + "evicted by reads of other states. A value of 0 disables the separate cache. "
+                                            + "This option only has an effect when '%s' or '%s' are configured.",
+                                    "state.backend.rocksdb.memory.high-prio-states",
+                                    USE_MANAGED_MEMORY.key(),
+                                    FIX_PER_SLOT_MEMORY_SIZE.key()));
+
+    @Documentation.Section(Documentation.Sections.STATE_BACKEND_ROCKSDB)
+    public static final ConfigOption<List<String>> HIGH_PRIORITY_STATES =
+            ConfigOptions.key("state.backend.rocksdb.memory.high-prio-states")
+                    .stringType()
+                    .asList()
+                    .defaultValues()
+                    .withDescription(
+                            String.format(
+                                    "The names of the states whose data blocks are kept in the separate block cache for "
+                                            + "high-priority states, in addition to the timer states. This option only has an effect "
+                                            + "when '%s' is larger than 0.",
+                                    HIGH_PRIORITY_STATES_RATIO.key()));
 }
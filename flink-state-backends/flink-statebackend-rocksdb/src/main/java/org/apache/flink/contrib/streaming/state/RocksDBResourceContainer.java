@@ -34,6 +34,7 @@ import org.rocksdb.Filter;
 import org.rocksdb.IndexType;
 import org.rocksdb.PlainTableConfig;
 import org.rocksdb.ReadOptions;
+import org.rocksdb.Statistics;
 import org.rocksdb.TableFormatConfig;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
@@ -43,6 +44,9 @@ import javax.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
@@ -56,6 +60,9 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
 public final class RocksDBResourceContainer implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(RocksDBResourceContainer.class);
 
+    /** The prefix of the names of the states that hold timers, see InternalTimeServiceManager. */
+    private static final String TIMER_STATE_PREFIX = "_timer_state/";
+
     /** The configurations from file. */
     private final ReadableConfig configuration;
 
@@ -72,6 +79,12 @@ public final class RocksDBResourceContainer implements AutoCloseable {
      */
     @Nullable private final OpaqueMemoryResource<RocksDBSharedResources> sharedResources;
 
+    /**
+     * The names of the states whose blocks are put into the high priority cache of the shared
+     * resources, if there is one. Timer states always use that cache.
+     */
+    private final Set<String> highPriorityStates;
+
     /** The handles to be closed when the container is closed. */
     private final ArrayList<AutoCloseable> handlesToClose;
 
@@ -96,11 +109,26 @@ public final class RocksDBResourceContainer implements AutoCloseable {
             PredefinedOptions predefinedOptions,
             @Nullable RocksDBOptionsFactory optionsFactory,
             @Nullable OpaqueMemoryResource<RocksDBSharedResources> sharedResources) {
+        this(
+                configuration,
+                predefinedOptions,
+                optionsFactory,
+                sharedResources,
+                Collections.emptyList());
+    }
+
+    public RocksDBResourceContainer(
+            ReadableConfig configuration,
+            PredefinedOptions predefinedOptions,
+            @Nullable RocksDBOptionsFactory optionsFactory,
+            @Nullable OpaqueMemoryResource<RocksDBSharedResources> sharedResources,
+            Collection<String> highPriorityStates) {
 
         this.configuration = configuration;
         this.predefinedOptions = checkNotNull(predefinedOptions);
         this.optionsFactory = optionsFactory;
         this.sharedResources = sharedResources;
+        this.highPriorityStates = new HashSet<>(checkNotNull(highPriorityStates));
         this.handlesToClose = new ArrayList<>();
     }
 
@@ -143,8 +171,29 @@ public final class RocksDBResourceContainer implements AutoCloseable {
         return sharedResources.getResourceHandle().getWriteBufferManagerCapacity();
     }
 
+    /**
+     * Creates the {@link Statistics} to be set on the {@link DBOptions} when statistics based
+     * native metrics are enabled. The statistics are closed together with this container.
+     */
+    public Statistics createStatistics() {
+        Statistics statistics = new Statistics();
+        handlesToClose.add(statistics);
+        return statistics;
+    }
+
     /** Gets the RocksDB {@link ColumnFamilyOptions} to be used for all RocksDB instances. */
     public ColumnFamilyOptions getColumnOptions() {
+        return getColumnOptions(null);
+    }
+
+    /**
+     * Gets the RocksDB {@link ColumnFamilyOptions} to be used for the column family of the given
+     * state. Timer states and the configured high priority states get their blocks cached in the
+     * separate high priority cache of the shared resources, if there is one.
+     *
+     * @param stateName the name of the state, or null if the options are not state specific.
+     */
+    public ColumnFamilyOptions getColumnOptions(@Nullable String stateName) {
         // initial options from common profile
         ColumnFamilyOptions opt = createBaseCommonColumnOptions();
         handlesToClose.add(opt);
@@ -161,7 +210,10 @@ public final class RocksDBResourceContainer implements AutoCloseable {
         // set necessary options for performance consideration with memory control
         if (sharedResources != null) {
             final RocksDBSharedResources rocksResources = sharedResources.getResourceHandle();
-            final Cache blockCache = rocksResources.getCache();
+            final Cache blockCache =
+                    isHighPriorityState(stateName)
+                            ? rocksResources.getHighPriorityCache()
+                            : rocksResources.getCache();
             TableFormatConfig tableFormatConfig = opt.tableFormatConfig();
             BlockBasedTableConfig blockBasedTableConfig;
             if (tableFormatConfig == null) {
@@ -188,6 +240,14 @@ public final class RocksDBResourceContainer implements AutoCloseable {
         return opt;
     }
 
+    private boolean isHighPriorityState(@Nullable String stateName) {
+        return stateName != null
+                && sharedResources != null
+                && sharedResources.getResourceHandle().getHighPriorityCache() != null
+                && (stateName.startsWith(TIMER_STATE_PREFIX)
+                        || highPriorityStates.contains(stateName));
+    }
+
     /** Gets the RocksDB {@link WriteOptions} to be used for write operations. */
     public WriteOptions getWriteOptions() {
         // Disable WAL by default
@@ -21,6 +21,8 @@ package org.apache.flink.contrib.streaming.state;
 import org.rocksdb.Cache;
 import org.rocksdb.WriteBufferManager;
 
+import javax.annotation.Nullable;
+
 /**
  * The set of resources that can be shared by all RocksDB instances in a slot. Sharing these
  * resources helps RocksDB a predictable resource footprint.
@@ -29,6 +31,9 @@ final class RocksDBSharedResources implements AutoCloseable {
 
     private final Cache cache;
 
+    /** The separate cache for the blocks of high priority states, null if there is none. */
+    @Nullable private final Cache highPriorityCache;
+
     private final WriteBufferManager writeBufferManager;
     private final long writeBufferManagerCapacity;
 
@@ -39,7 +44,22 @@ final class RocksDBSharedResources implements AutoCloseable {
             WriteBufferManager writeBufferManager,
             long writeBufferManagerCapacity,
             boolean usingPartitionedIndexFilters) {
+        this(
+                cache,
+                null,
+                writeBufferManager,
+                writeBufferManagerCapacity,
+                usingPartitionedIndexFilters);
+    }
+
+    RocksDBSharedResources(
+            Cache cache,
+            @Nullable Cache highPriorityCache,
+            WriteBufferManager writeBufferManager,
+            long writeBufferManagerCapacity,
+            boolean usingPartitionedIndexFilters) {
         this.cache = cache;
+        this.highPriorityCache = highPriorityCache;
         this.writeBufferManager = writeBufferManager;
         this.writeBufferManagerCapacity = writeBufferManagerCapacity;
         this.usingPartitionedIndexFilters = usingPartitionedIndexFilters;
@@ -49,6 +69,11 @@ final class RocksDBSharedResources implements AutoCloseable {
         return cache;
     }
 
+    @Nullable
+    public Cache getHighPriorityCache() {
+        return highPriorityCache;
+    }
+
     public WriteBufferManager getWriteBufferManager() {
         return writeBufferManager;
     }
@@ -65,5 +90,8 @@ final class RocksDBSharedResources implements AutoCloseable {
     public void close() {
         writeBufferManager.close();
         cache.close();
+        if (highPriorityCache != null) {
+            highPriorityCache.close();
+        }
     }
 }
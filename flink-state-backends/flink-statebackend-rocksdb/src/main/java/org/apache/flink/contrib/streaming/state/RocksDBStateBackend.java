@@ -563,6 +563,21 @@ public class RocksDBStateBackend extends AbstractManagedMemoryStateBackend
         rocksDBStateBackend.setWriteBatchSize(writeBatchSize);
     }
 
+    /** Gets the max number of deserialized entries cached on heap per value and map state. */
+    public int getObjectCacheSize() {
+        return rocksDBStateBackend.getObjectCacheSize();
+    }
+
+    /**
+     * Sets the max number of deserialized entries cached on heap per value and map state, 0
+     * disables the cache.
+     *
+     * @param objectCacheSize The max number of cached entries per state.
+     */
+    public void setObjectCacheSize(int objectCacheSize) {
+        rocksDBStateBackend.setObjectCacheSize(objectCacheSize);
+    }
+
     // ------------------------------------------------------------------------
     //  utilities
     // ------------------------------------------------------------------------
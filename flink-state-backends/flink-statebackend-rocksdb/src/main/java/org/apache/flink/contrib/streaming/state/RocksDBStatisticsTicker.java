@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.annotation.Internal;
+
+import org.rocksdb.RocksDB;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+
+/**
+ * {@link RocksDB} statistics tickers that can be queried by Flink's metrics reporter. Unlike the
+ * {@link RocksDBProperty properties}, tickers are counted per {@link RocksDB} instance and require
+ * {@link Statistics} to be set on the database options.
+ */
+@Internal
+public enum RocksDBStatisticsTicker {
+    BlockCacheHit("block-cache-hit", TickerType.BLOCK_CACHE_HIT),
+    BlockCacheMiss("block-cache-miss", TickerType.BLOCK_CACHE_MISS),
+    BlockCacheAdd("block-cache-add", TickerType.BLOCK_CACHE_ADD),
+    BlockCacheDataHit("block-cache-data-hit", TickerType.BLOCK_CACHE_DATA_HIT),
+    BlockCacheDataMiss("block-cache-data-miss", TickerType.BLOCK_CACHE_DATA_MISS),
+    MultiGetCalls("multiget-calls", TickerType.NUMBER_MULTIGET_CALLS),
+    MultiGetKeysRead("multiget-keys-read", TickerType.NUMBER_MULTIGET_KEYS_READ);
+
+    private static final String METRIC_NAME_FORMAT = "rocksdb.%s";
+
+    private static final String CONFIG_KEY_FORMAT = "state.backend.rocksdb.metrics.%s";
+
+    private final String ticker;
+
+    private final TickerType tickerType;
+
+    RocksDBStatisticsTicker(String ticker, TickerType tickerType) {
+        this.ticker = ticker;
+        this.tickerType = tickerType;
+    }
+
+    /** @return name of the metric which reports the ticker. */
+    public String getMetricName() {
+        return String.format(METRIC_NAME_FORMAT, ticker);
+    }
+
+    /**
+     * @return ticker type that can be used to query {@link Statistics#getTickerCount(TickerType)}.
+     */
+    public TickerType getTickerType() {
+        return tickerType;
+    }
+
+    /**
+     * @return key for enabling metric using {@link org.apache.flink.configuration.Configuration}.
+     */
+    public String getConfigKey() {
+        return String.format(CONFIG_KEY_FORMAT, ticker);
+    }
+}
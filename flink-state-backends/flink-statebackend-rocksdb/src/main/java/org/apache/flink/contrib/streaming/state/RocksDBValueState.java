@@ -24,13 +24,19 @@ import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 import org.apache.flink.util.FlinkRuntimeException;
 
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDBException;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * {@link ValueState} implementation that stores state in RocksDB.
@@ -42,6 +48,9 @@ import java.io.IOException;
 class RocksDBValueState<K, N, V> extends AbstractRocksDBState<K, N, V>
         implements InternalValueState<K, N, V> {
 
+    /** The on-heap cache of deserialized values, null if caching is disabled. */
+    @Nullable private RocksDBObjectCache<V> objectCache;
+
     /**
      * Creates a new {@code RocksDBValueState}.
      *
@@ -79,19 +88,121 @@ class RocksDBValueState<K, N, V> extends AbstractRocksDBState<K, N, V>
     @Override
     public V value() {
         try {
-            byte[] valueBytes =
-                    backend.db.get(columnFamily, serializeCurrentKeyWithGroupAndNamespace());
+            byte[] key = serializeCurrentKeyWithGroupAndNamespace();
+
+            if (objectCache != null) {
+                RocksDBObjectCache.Entry<V> entry = objectCache.get(key);
+                if (entry != null) {
+                    return entry.isPresent()
+                            ? valueSerializer.copy(entry.getValue())
+                            : getDefaultValue();
+                }
+            }
+
+            byte[] valueBytes = backend.db.get(columnFamily, key);
 
             if (valueBytes == null) {
+                if (objectCache != null) {
+                    objectCache.putLoaded(key, null, false);
+                }
                 return getDefaultValue();
             }
             dataInputView.setBuffer(valueBytes);
-            return valueSerializer.deserialize(dataInputView);
+            V value = valueSerializer.deserialize(dataInputView);
+            if (objectCache != null) {
+                objectCache.putLoaded(key, valueSerializer.copy(value), true);
+            }
+            return value;
         } catch (IOException | RocksDBException e) {
             throw new FlinkRuntimeException("Error while retrieving data from RocksDB.", e);
         }
     }
 
+    @Override
+    public List<V> multiGet(List<K> keys) {
+        try {
+            List<byte[]> rawKeys = serializeKeysWithGroupAndNamespace(keys);
+            List<V> values = new ArrayList<>(Collections.nCopies(rawKeys.size(), null));
+            List<Integer> missedPositions = new ArrayList<>(rawKeys.size());
+            List<byte[]> missedKeys = new ArrayList<>(rawKeys.size());
+            for (int i = 0; i < rawKeys.size(); i++) {
+                byte[] key = rawKeys.get(i);
+                RocksDBObjectCache.Entry<V> entry =
+                        objectCache == null ? null : objectCache.get(key);
+                if (entry != null) {
+                    values.set(
+                            i,
+                            entry.isPresent()
+                                    ? valueSerializer.copy(entry.getValue())
+                                    : getDefaultValue());
+                } else {
+                    missedPositions.add(i);
+                    missedKeys.add(key);
+                }
+            }
+
+            List<byte[]> valueBytesList = backend.multiGet(columnFamily, missedKeys);
+            for (int i = 0; i < missedKeys.size(); i++) {
+                byte[] valueBytes = valueBytesList.get(i);
+                V value = null;
+                if (valueBytes != null) {
+                    dataInputView.setBuffer(valueBytes);
+                    value = valueSerializer.deserialize(dataInputView);
+                }
+                if (objectCache != null) {
+                    objectCache.putLoaded(
+                            missedKeys.get(i),
+                            value == null ? null : valueSerializer.copy(value),
+                            valueBytes != null);
+                }
+                values.set(missedPositions.get(i), value == null ? getDefaultValue() : value);
+            }
+            return values;
+        } catch (IOException | RocksDBException e) {
+            throw new FlinkRuntimeException("Error while retrieving data from RocksDB.", e);
+        }
+    }
+
+    @Override
+    public InternalStateRead<V> prepareValue() {
+        byte[] key = serializeCurrentKeyWithGroupAndNamespace();
+
+        if (objectCache != null) {
+            RocksDBObjectCache.Entry<V> entry = objectCache.get(key);
+            if (entry != null) {
+                return InternalStateRead.completed(
+                        entry.isPresent()
+                                ? valueSerializer.copy(entry.getValue())
+                                : getDefaultValue());
+            }
+            // the fetch reads RocksDB directly, which must not miss pending write-backs
+            try {
+                objectCache.flushPendingWriteBacks();
+            } catch (RocksDBException e) {
+                throw new FlinkRuntimeException("Error while writing back to RocksDB.", e);
+            }
+        }
+
+        return new InternalStateRead<V>() {
+            private byte[] valueBytes;
+
+            @Override
+            public void fetch() throws Exception {
+                valueBytes = backend.getFromAnyThread(columnFamily, key);
+            }
+
+            @Override
+            public V complete() throws IOException {
+                // the value is not put into the object cache, it may have been modified since
+                if (valueBytes == null) {
+                    return getDefaultValue();
+                }
+                dataInputView.setBuffer(valueBytes);
+                return valueSerializer.deserialize(dataInputView);
+            }
+        };
+    }
+
     @Override
     public void update(V value) {
         if (value == null) {
@@ -100,6 +211,12 @@ class RocksDBValueState<K, N, V> extends AbstractRocksDBState<K, N, V>
         }
 
         try {
+            if (objectCache != null) {
+                objectCache.put(
+                        serializeCurrentKeyWithGroupAndNamespace(), valueSerializer.copy(value));
+                return;
+            }
+
             backend.db.put(
                     columnFamily,
                     writeOptions,
@@ -110,6 +227,38 @@ class RocksDBValueState<K, N, V> extends AbstractRocksDBState<K, N, V>
         }
     }
 
+    @Override
+    public void clear() {
+        if (objectCache == null) {
+            super.clear();
+            return;
+        }
+
+        try {
+            objectCache.remove(serializeCurrentKeyWithGroupAndNamespace());
+        } catch (IOException | RocksDBException e) {
+            throw new FlinkRuntimeException("Error while removing entry from RocksDB", e);
+        }
+    }
+
+    @Override
+    RocksDBObjectCache<?> enableObjectCache(int capacity) {
+        objectCache =
+                new RocksDBObjectCache<>(
+                        columnFamily,
+                        backend.getWriteBatchWrapper(),
+                        this::serializeValue,
+                        capacity);
+        return objectCache;
+    }
+
+    @Override
+    void flushObjectCache() throws IOException, RocksDBException {
+        if (objectCache != null) {
+            objectCache.flush();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     static <K, N, SV, S extends State, IS extends S> IS create(
             StateDescriptor<S, SV> stateDesc,
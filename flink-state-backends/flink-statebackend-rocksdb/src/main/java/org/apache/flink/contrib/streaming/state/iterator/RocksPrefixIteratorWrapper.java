@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state.iterator;
+
+import org.apache.flink.contrib.streaming.state.RocksIteratorWrapper;
+
+import org.rocksdb.RocksIterator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Wrapper around {@link RocksIterator} that is only valid for the keys which start with a given
+ * prefix, e.g. the keys of one key-group. The iterator should be positioned with {@link
+ * #seek(byte[])} to the prefix.
+ */
+public class RocksPrefixIteratorWrapper extends RocksIteratorWrapper {
+
+    @Nonnull private final byte[] prefixBytes;
+
+    public RocksPrefixIteratorWrapper(
+            @Nonnull RocksIterator iterator, @Nonnull byte[] prefixBytes) {
+        super(iterator);
+        this.prefixBytes = prefixBytes;
+    }
+
+    @Override
+    public boolean isValid() {
+        return super.isValid() && isPrefixWith(super.key(), prefixBytes);
+    }
+
+    private static boolean isPrefixWith(byte[] bytes, byte[] prefixBytes) {
+        if (bytes.length < prefixBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < prefixBytes.length; ++i) {
+            if (bytes[i] != prefixBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.state.CheckpointStorage;
+import org.apache.flink.runtime.state.CheckpointableKeyedStateBackend;
+import org.apache.flink.runtime.state.ConfigurableStateBackend;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.SharedStateRegistryImpl;
+import org.apache.flink.runtime.state.StateBackendTestBase;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+import org.apache.flink.runtime.state.storage.FileSystemCheckpointStorage;
+import org.apache.flink.runtime.state.storage.JobManagerCheckpointStorage;
+import org.apache.flink.util.IOUtils;
+import org.apache.flink.util.function.SupplierWithException;
+
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link EmbeddedRocksDBStateBackend} with the on-heap object cache enabled. The
+ * cache is kept very small so that entries are evicted and written back all the time.
+ */
+@RunWith(Parameterized.class)
+public class EmbeddedRocksDBStateBackendObjectCacheTest
+        extends StateBackendTestBase<EmbeddedRocksDBStateBackend> {
+
+    private static final int OBJECT_CACHE_SIZE = 2;
+
+    @ClassRule public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+    @Parameterized.Parameters
+    public static List<Object[]> modes() {
+        return Arrays.asList(
+                new Object[][] {
+                    {
+                        true,
+                        (SupplierWithException<CheckpointStorage, IOException>)
+                                JobManagerCheckpointStorage::new
+                    },
+                    {
+                        false,
+                        (SupplierWithException<CheckpointStorage, IOException>)
+                                () -> {
+                                    String checkpointPath =
+                                            TEMP_FOLDER.newFolder().toURI().toString();
+                                    return new FileSystemCheckpointStorage(
+                                            new Path(checkpointPath), 0, -1);
+                                }
+                    }
+                });
+    }
+
+    @Parameterized.Parameter(value = 0)
+    public boolean enableIncrementalCheckpointing;
+
+    @Parameterized.Parameter(value = 1)
+    public SupplierWithException<CheckpointStorage, IOException> storageSupplier;
+
+    @Override
+    protected ConfigurableStateBackend getStateBackend() throws IOException {
+        EmbeddedRocksDBStateBackend backend =
+                new EmbeddedRocksDBStateBackend(enableIncrementalCheckpointing);
+        Configuration configuration = new Configuration();
+        configuration.set(
+                RocksDBOptions.TIMER_SERVICE_FACTORY,
+                EmbeddedRocksDBStateBackend.PriorityQueueStateType.ROCKSDB);
+        configuration.set(RocksDBOptions.OBJECT_CACHE_SIZE, OBJECT_CACHE_SIZE);
+        backend = backend.configure(configuration, Thread.currentThread().getContextClassLoader());
+        backend.setDbStoragePath(TEMP_FOLDER.newFolder().getAbsolutePath());
+        return backend;
+    }
+
+    @Override
+    protected CheckpointStorage getCheckpointStorage() throws Exception {
+        return storageSupplier.get();
+    }
+
+    @Override
+    protected boolean isSerializerPresenceRequiredOnRestore() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsAsynchronousSnapshots() {
+        return true;
+    }
+
+    @Override
+    protected boolean isSafeToReuseKVState() {
+        return true;
+    }
+
+    // values are copied on update and only serialized when they are written back
+    @Ignore
+    @Test
+    public void testKryoRegisteringRestoreResilienceWithDefaultSerializer() throws Exception {
+        super.testKryoRegisteringRestoreResilienceWithDefaultSerializer();
+    }
+
+    @Ignore
+    @Test
+    public void testKryoRegisteringRestoreResilienceWithRegisteredSerializer() throws Exception {
+        super.testKryoRegisteringRestoreResilienceWithRegisteredSerializer();
+    }
+
+    // cached states are only accessed by the task thread, queryable states are never cached
+    @Ignore
+    @Test
+    public void testValueStateRace() throws Exception {
+        super.testValueStateRace();
+    }
+
+    @Test
+    public void testValueStateCacheHitsAndWriteBack() throws Exception {
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            ValueState<Integer> state =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            new ValueStateDescriptor<>("id", Integer.class));
+            RocksDBObjectCache<?> cache =
+                    ((RocksDBKeyedStateBackend<Integer>) backend).getObjectCache("id");
+            assertNotNull(cache);
+
+            backend.setCurrentKey(1);
+            assertNull(state.value());
+            assertEquals(1, cache.getMissCount());
+            state.update(10);
+            assertEquals(Integer.valueOf(10), state.value());
+            assertEquals(1, cache.getHitCount());
+
+            for (int key = 2; key <= 5; key++) {
+                backend.setCurrentKey(key);
+                state.update(key * 10);
+            }
+            assertTrue(cache.size() <= OBJECT_CACHE_SIZE);
+            assertTrue(cache.getWriteBackCount() > 0);
+
+            for (int key = 1; key <= 5; key++) {
+                backend.setCurrentKey(key);
+                assertEquals(Integer.valueOf(key * 10), state.value());
+            }
+
+            backend.setCurrentKey(3);
+            state.clear();
+            assertNull(state.value());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    @Test
+    public void testEvictedEntriesStayVisibleUntilWriteBatchIsFlushed() throws Exception {
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            ValueState<Integer> state =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            new ValueStateDescriptor<>("id", Integer.class));
+
+            backend.setCurrentKey(1);
+            state.update(10);
+
+            // reading keys 2 and 3 evicts the modified entry of key 1 into the write batch
+            backend.setCurrentKey(2);
+            assertNull(state.value());
+            backend.setCurrentKey(3);
+            assertNull(state.value());
+
+            // read key 1 again, then evict everything else before the write batch is flushed
+            backend.setCurrentKey(1);
+            assertEquals(Integer.valueOf(10), state.value());
+            for (int key = 4; key <= 6; key++) {
+                backend.setCurrentKey(key);
+                assertNull(state.value());
+            }
+
+            backend.setCurrentKey(1);
+            assertEquals(Integer.valueOf(10), state.value());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPreparedReadsSeePendingWriteBacks() throws Exception {
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        try {
+            InternalValueState<Integer, VoidNamespace, Integer> state =
+                    (InternalValueState<Integer, VoidNamespace, Integer>)
+                            backend.getPartitionedState(
+                                    VoidNamespace.INSTANCE,
+                                    VoidNamespaceSerializer.INSTANCE,
+                                    new ValueStateDescriptor<>("id", Integer.class));
+            RocksDBObjectCache<?> cache =
+                    ((RocksDBKeyedStateBackend<Integer>) backend).getObjectCache("id");
+            assertNotNull(cache);
+
+            // updating keys 2 and 3 evicts the modified entry of key 1 into the write batch
+            for (int key = 1; key <= 3; key++) {
+                backend.setCurrentKey(key);
+                state.update(key * 10);
+            }
+            long flushCount = cache.getFlushCount();
+
+            // a miss is fetched from RocksDB, so the pending write-back must be flushed first
+            backend.setCurrentKey(4);
+            InternalStateRead<Integer> missingRead = state.prepareValue();
+            assertEquals(flushCount + 1, cache.getFlushCount());
+
+            backend.setCurrentKey(1);
+            InternalStateRead<Integer> read = state.prepareValue();
+            assertTrue(read.requiresFetch());
+            CompletableFuture.runAsync(
+                            () -> {
+                                try {
+                                    missingRead.fetch();
+                                    read.fetch();
+                                } catch (Exception e) {
+                                    throw new CompletionException(e);
+                                }
+                            })
+                    .get();
+            assertNull(missingRead.complete());
+            assertEquals(Integer.valueOf(10), read.complete());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    @Test
+    public void testDirtyEntriesAreIncludedInSnapshot() throws Exception {
+        ValueStateDescriptor<Integer> valueDescriptor =
+                new ValueStateDescriptor<>("value", Integer.class);
+        MapStateDescriptor<Integer, String> mapDescriptor =
+                new MapStateDescriptor<>("map", Integer.class, String.class);
+
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+        KeyedStateHandle snapshot;
+        try {
+            ValueState<Integer> valueState =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            valueDescriptor);
+            MapState<Integer, String> mapState =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            mapDescriptor);
+
+            backend.setCurrentKey(1);
+            valueState.update(1);
+            mapState.put(1, "one");
+            mapState.put(2, "two");
+            mapState.remove(2);
+
+            snapshot =
+                    runSnapshot(
+                            backend.snapshot(
+                                    1L,
+                                    1L,
+                                    createStreamFactory(),
+                                    CheckpointOptions.forCheckpointWithDefaultLocation()),
+                            new SharedStateRegistryImpl());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+
+        backend = restoreKeyedBackend(IntSerializer.INSTANCE, snapshot);
+        try {
+            ValueState<Integer> valueState =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            valueDescriptor);
+            MapState<Integer, String> mapState =
+                    backend.getPartitionedState(
+                            VoidNamespace.INSTANCE,
+                            VoidNamespaceSerializer.INSTANCE,
+                            mapDescriptor);
+
+            backend.setCurrentKey(1);
+            assertEquals(Integer.valueOf(1), valueState.value());
+            assertEquals("one", mapState.get(1));
+            assertNull(mapState.get(2));
+            Iterator<Integer> keys = mapState.keys().iterator();
+            assertEquals(Integer.valueOf(1), keys.next());
+            assertFalse(keys.hasNext());
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+}
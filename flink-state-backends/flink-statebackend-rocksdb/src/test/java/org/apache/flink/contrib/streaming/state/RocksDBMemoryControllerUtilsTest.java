@@ -38,6 +38,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -65,7 +68,11 @@ public class RocksDBMemoryControllerUtilsTest {
         final AtomicLong actualWbmCapacity = new AtomicLong(0L);
 
         when(RocksDBMemoryControllerUtils.allocateRocksDBSharedResources(
-                        anyLong(), anyDouble(), anyDouble(), anyBoolean()))
+                        anyLong(), anyDouble(), anyDouble(), anyDouble(), anyBoolean()))
+                .thenCallRealMethod();
+
+        when(RocksDBMemoryControllerUtils.calculateHighPriorityCacheCapacity(
+                        anyLong(), anyDouble()))
                 .thenCallRealMethod();
 
         when(RocksDBMemoryControllerUtils.calculateActualCacheCapacity(anyLong(), anyDouble()))
@@ -100,7 +107,7 @@ public class RocksDBMemoryControllerUtilsTest {
         double highPriPoolRatio = 0.1;
         RocksDBSharedResources rocksDBSharedResources =
                 RocksDBMemoryControllerUtils.allocateRocksDBSharedResources(
-                        totalMemorySize, writeBufferRatio, highPriPoolRatio, false);
+                        totalMemorySize, writeBufferRatio, highPriPoolRatio, 0.0, false);
         long expectedCacheCapacity =
                 RocksDBMemoryControllerUtils.calculateActualCacheCapacity(
                         totalMemorySize, writeBufferRatio);
@@ -111,6 +118,30 @@ public class RocksDBMemoryControllerUtilsTest {
         assertThat(actualCacheCapacity.get(), is(expectedCacheCapacity));
         assertThat(actualWbmCapacity.get(), is(expectedWbmCapacity));
         assertThat(rocksDBSharedResources.getWriteBufferManagerCapacity(), is(expectedWbmCapacity));
+        assertNull(rocksDBSharedResources.getHighPriorityCache());
+    }
+
+    @Test
+    public void testCreateSharedResourcesWithHighPriorityStatesCache() {
+        long totalMemorySize = 2048L;
+        double writeBufferRatio = 0.5;
+        double highPriorityStatesRatio = 0.25;
+        try (RocksDBSharedResources rocksDBSharedResources =
+                RocksDBMemoryControllerUtils.allocateRocksDBSharedResources(
+                        totalMemorySize, writeBufferRatio, 0.1, highPriorityStatesRatio, false)) {
+            long cacheCapacity =
+                    RocksDBMemoryControllerUtils.calculateActualCacheCapacity(
+                            totalMemorySize, writeBufferRatio);
+            long highPriorityCacheCapacity =
+                    RocksDBMemoryControllerUtils.calculateHighPriorityCacheCapacity(
+                            cacheCapacity, highPriorityStatesRatio);
+
+            assertThat(highPriorityCacheCapacity, is((long) (cacheCapacity * 0.25)));
+            assertNotNull(rocksDBSharedResources.getHighPriorityCache());
+            assertNotSame(
+                    rocksDBSharedResources.getCache(),
+                    rocksDBSharedResources.getHighPriorityCache());
+        }
     }
 
     @Test
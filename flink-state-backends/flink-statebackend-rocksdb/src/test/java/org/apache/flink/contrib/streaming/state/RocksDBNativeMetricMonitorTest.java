@@ -31,6 +31,7 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.Statistics;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -152,6 +153,43 @@ public class RocksDBNativeMetricMonitorTest {
         Assert.assertEquals("Closed gauge still queried RocksDB", BigInteger.ZERO, view.getValue());
     }
 
+    @Test
+    public void testStatisticsMetricLifecycle() {
+        SimpleMetricRegistry registry = new SimpleMetricRegistry();
+        GenericMetricGroup group =
+                new GenericMetricGroup(
+                        registry,
+                        UnregisteredMetricGroups.createUnregisteredTaskMetricGroup(),
+                        OPERATOR_NAME);
+
+        RocksDBNativeMetricOptions options = new RocksDBNativeMetricOptions();
+        options.enableBlockCacheHit();
+        options.enableBlockCacheMiss();
+
+        try (Statistics statistics = new Statistics()) {
+            RocksDBNativeMetricMonitor monitor =
+                    new RocksDBNativeMetricMonitor(
+                            options, group, rocksDBResource.getRocksDB(), statistics);
+
+            Assert.assertEquals(
+                    "Failed to register statistics metrics", 2, registry.metrics.size());
+
+            RocksDBNativeMetricMonitor.RocksDBNativeMetricView view = registry.metrics.get(0);
+            view.setValue(1L);
+            view.update();
+
+            Assert.assertEquals(
+                    "Failed to pull ticker from statistics", BigInteger.ZERO, view.getValue());
+
+            view.setValue(1L);
+            monitor.close();
+            view.update();
+
+            Assert.assertEquals(
+                    "Failed to release statistics reference", BigInteger.ONE, view.getValue());
+        }
+    }
+
     static class SimpleMetricRegistry implements MetricRegistry {
         ArrayList<RocksDBNativeMetricMonitor.RocksDBNativeMetricView> metrics = new ArrayList<>();
 
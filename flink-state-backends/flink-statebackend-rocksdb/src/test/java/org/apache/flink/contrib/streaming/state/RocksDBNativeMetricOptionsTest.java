@@ -46,4 +46,25 @@ public class RocksDBNativeMetricOptionsTest {
                     options.getProperties().contains(property.getRocksDBProperty()));
         }
     }
+
+    @Test
+    public void testStatisticsTickersConfigurable() {
+        for (RocksDBStatisticsTicker ticker : RocksDBStatisticsTicker.values()) {
+            Configuration config = new Configuration();
+            config.setBoolean(ticker.getConfigKey(), true);
+
+            RocksDBNativeMetricOptions options = RocksDBNativeMetricOptions.fromConfig(config);
+
+            Assert.assertTrue(
+                    String.format(
+                            "Failed to enable statistics with ticker %s", ticker.getConfigKey()),
+                    options.isEnabled() && options.isStatisticsEnabled());
+
+            Assert.assertTrue(
+                    String.format(
+                            "Failed to enable native metric %s using config",
+                            ticker.getConfigKey()),
+                    options.getTickers().contains(ticker));
+        }
+    }
 }
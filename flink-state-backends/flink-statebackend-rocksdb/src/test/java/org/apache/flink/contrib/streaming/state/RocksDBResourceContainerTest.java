@@ -18,6 +18,7 @@
 
 package org.apache.flink.contrib.streaming.state;
 
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.memory.OpaqueMemoryResource;
 import org.apache.flink.util.function.ThrowingRunnable;
 
@@ -42,6 +43,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -153,6 +155,39 @@ public class RocksDBResourceContainerTest {
         container.close();
     }
 
+    /**
+     * Guard that {@link RocksDBResourceContainer#getColumnOptions(String)} uses the high priority
+     * cache for timer states and configured states, and the regular cache for all other states.
+     */
+    @Test
+    public void testGetColumnFamilyOptionsWithHighPriorityStates() throws Exception {
+        final LRUCache cache = new LRUCache(1024L, -1, false, 0.1);
+        final LRUCache highPriorityCache = new LRUCache(256L, -1, false, 0.1);
+        final WriteBufferManager wbm = new WriteBufferManager(512L, cache);
+        RocksDBSharedResources rocksDBSharedResources =
+                new RocksDBSharedResources(cache, highPriorityCache, wbm, 512L, false);
+        OpaqueMemoryResource<RocksDBSharedResources> sharedResources =
+                new OpaqueMemoryResource<>(
+                        rocksDBSharedResources, 1280L, rocksDBSharedResources::close);
+
+        try (RocksDBResourceContainer container =
+                new RocksDBResourceContainer(
+                        new Configuration(),
+                        PredefinedOptions.DEFAULT,
+                        null,
+                        sharedResources,
+                        Collections.singletonList("hot-state"))) {
+            assertThat(
+                    getBlockCache(container.getColumnOptions("hot-state")), is(highPriorityCache));
+            assertThat(
+                    getBlockCache(container.getColumnOptions("_timer_state/event_user-timers")),
+                    is(highPriorityCache));
+            assertThat(getBlockCache(container.getColumnOptions("cold-state")), is(cache));
+            assertThat(getBlockCache(container.getColumnOptions()), is(cache));
+        }
+        assertThat(highPriorityCache.isOwningHandle(), is(false));
+    }
+
     private OpaqueMemoryResource<RocksDBSharedResources> getSharedResources() {
         final long cacheSize = 1024L, writeBufferSize = 512L;
         final LRUCache cache = new LRUCache(cacheSize, -1, false, 0.1);
@@ -22,6 +22,7 @@ import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
 import org.apache.flink.runtime.execution.Environment;
 import org.apache.flink.runtime.jobgraph.JobVertexID;
@@ -57,6 +58,16 @@ public final class RocksDBTestUtils {
             TypeSerializer<K> keySerializer,
             EmbeddedRocksDBStateBackend.PriorityQueueStateType queueStateType) {
 
+        return builderForTestDefaults(
+                instanceBasePath, keySerializer, queueStateType, new UnregisteredMetricsGroup());
+    }
+
+    public static <K> RocksDBKeyedStateBackendBuilder<K> builderForTestDefaults(
+            File instanceBasePath,
+            TypeSerializer<K> keySerializer,
+            EmbeddedRocksDBStateBackend.PriorityQueueStateType queueStateType,
+            MetricGroup metricGroup) {
+
         final RocksDBResourceContainer optionsContainer = new RocksDBResourceContainer();
 
         return new RocksDBKeyedStateBackendBuilder<>(
@@ -74,7 +85,7 @@ public final class RocksDBTestUtils {
                 queueStateType,
                 TtlTimeProvider.DEFAULT,
                 LatencyTrackingStateConfig.disabled(),
-                new UnregisteredMetricsGroup(),
+                metricGroup,
                 Collections.emptyList(),
                 UncompressedStreamCompressionDecorator.INSTANCE,
                 new CloseableRegistry());
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.View;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+import org.apache.flink.util.IOUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/** Tests that {@link RocksDBValueState#multiGet} looks up all keys with one RocksDB multiGet. */
+public class RocksDBValueStateMultiGetTest {
+
+    @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testMultiGetUsesSingleRocksDBLookup() throws Exception {
+        final TickerCapturingMetricGroup metricGroup = new TickerCapturingMetricGroup();
+        final RocksDBNativeMetricOptions metricOptions = new RocksDBNativeMetricOptions();
+        metricOptions.enableMultiGetCalls();
+        metricOptions.enableMultiGetKeysRead();
+
+        final RocksDBKeyedStateBackend<Integer> backend =
+                RocksDBTestUtils.builderForTestDefaults(
+                                tmp.newFolder(),
+                                IntSerializer.INSTANCE,
+                                EmbeddedRocksDBStateBackend.PriorityQueueStateType.HEAP,
+                                metricGroup)
+                        .setNativeMetricOptions(metricOptions)
+                        .build();
+        try {
+            @SuppressWarnings("unchecked")
+            final InternalValueState<Integer, VoidNamespace, Integer> state =
+                    (InternalValueState<Integer, VoidNamespace, Integer>)
+                            backend.getPartitionedState(
+                                    VoidNamespace.INSTANCE,
+                                    VoidNamespaceSerializer.INSTANCE,
+                                    new ValueStateDescriptor<>("state", IntSerializer.INSTANCE));
+            for (int key = 0; key < 3; key++) {
+                backend.setCurrentKey(key);
+                state.update(key * 10);
+            }
+
+            backend.setCurrentKey(0);
+            assertEquals(Arrays.asList(0, 10, 20, null), state.multiGet(Arrays.asList(0, 1, 2, 3)));
+            assertEquals(
+                    BigInteger.ONE, metricGroup.getTicker(RocksDBStatisticsTicker.MultiGetCalls));
+            assertEquals(
+                    BigInteger.valueOf(4),
+                    metricGroup.getTicker(RocksDBStatisticsTicker.MultiGetKeysRead));
+        } finally {
+            IOUtils.closeQuietly(backend);
+            backend.dispose();
+        }
+    }
+
+    /**
+     * Captures the statistics ticker gauges registered by the {@link RocksDBNativeMetricMonitor}.
+     */
+    private static class TickerCapturingMetricGroup extends UnregisteredMetricsGroup {
+
+        private final Map<String, Gauge<?>> gauges = new HashMap<>();
+
+        @Override
+        public <T, G extends Gauge<T>> G gauge(String name, G gauge) {
+            gauges.put(name, gauge);
+            return gauge;
+        }
+
+        private Object getTicker(RocksDBStatisticsTicker ticker) {
+            final Gauge<?> gauge = gauges.get(ticker.getMetricName());
+            ((View) gauge).update();
+            return gauge.getValue();
+        }
+    }
+}
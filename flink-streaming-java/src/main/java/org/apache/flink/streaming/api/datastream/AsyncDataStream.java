@@ -20,10 +20,17 @@ package org.apache.flink.streaming.api.datastream;
 import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.Utils;
+import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperator;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
+import org.apache.flink.streaming.util.retryable.AsyncRetryStrategies;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nullable;
 
 import java.util.concurrent.TimeUnit;
 
@@ -43,7 +50,9 @@ public class AsyncDataStream {
     /** Output mode for asynchronous operations. */
     public enum OutputMode {
         ORDERED,
-        UNORDERED
+        UNORDERED,
+        /** Results of records with the same key are emitted in input order. */
+        KEY_ORDERED
     }
 
     private static final int DEFAULT_QUEUE_CAPACITY = 100;
@@ -66,6 +75,65 @@ public class AsyncDataStream {
             long timeout,
             int bufSize,
             OutputMode mode) {
+        return addOperator(in, func, timeout, bufSize, mode, null);
+    }
+
+    /**
+     * Add an AsyncWaitOperator.
+     *
+     * @param in The {@link DataStream} where the {@link AsyncWaitOperator} will be added.
+     * @param func {@link AsyncFunction} wrapped inside {@link AsyncWaitOperator}.
+     * @param timeout for the asynchronous operation to complete
+     * @param bufSize The max number of inputs the {@link AsyncWaitOperator} can hold inside.
+     * @param mode Processing mode for {@link AsyncWaitOperator}.
+     * @param keySelector The key selector for {@link OutputMode#KEY_ORDERED}, null otherwise.
+     * @param <IN> Input type.
+     * @param <OUT> Output type.
+     * @return A new {@link SingleOutputStreamOperator}
+     */
+    @SuppressWarnings("unchecked")
+    private static <IN, OUT> SingleOutputStreamOperator<OUT> addOperator(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            int bufSize,
+            OutputMode mode,
+            @Nullable KeySelector<IN, ?> keySelector) {
+        return addOperator(
+                in,
+                func,
+                timeout,
+                bufSize,
+                mode,
+                keySelector,
+                AsyncRetryStrategies.NO_RETRY_STRATEGY,
+                null);
+    }
+
+    /**
+     * Add an AsyncWaitOperator.
+     *
+     * @param in The {@link DataStream} where the {@link AsyncWaitOperator} will be added.
+     * @param func {@link AsyncFunction} wrapped inside {@link AsyncWaitOperator}.
+     * @param timeout for the asynchronous operation to complete
+     * @param bufSize The max number of inputs the {@link AsyncWaitOperator} can hold inside.
+     * @param mode Processing mode for {@link AsyncWaitOperator}.
+     * @param keySelector The key selector for {@link OutputMode#KEY_ORDERED}, null otherwise.
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with.
+     * @param adaptiveCapacity The optional adaptive limit of in-flight inputs.
+     * @param <IN> Input type.
+     * @param <OUT> Output type.
+     * @return A new {@link SingleOutputStreamOperator}
+     */
+    private static <IN, OUT> SingleOutputStreamOperator<OUT> addOperator(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            int bufSize,
+            OutputMode mode,
+            @Nullable KeySelector<IN, ?> keySelector,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy,
+            @Nullable AsyncAdaptiveCapacity adaptiveCapacity) {
 
         TypeInformation<OUT> outTypeInfo =
                 TypeExtractor.getUnaryOperatorReturnType(
@@ -81,7 +149,15 @@ public class AsyncDataStream {
         // create transform
         AsyncWaitOperatorFactory<IN, OUT> operatorFactory =
                 new AsyncWaitOperatorFactory<>(
-                        in.getExecutionEnvironment().clean(func), timeout, bufSize, mode);
+                        in.getExecutionEnvironment().clean(func),
+                        timeout,
+                        bufSize,
+                        mode,
+                        keySelector == null
+                                ? null
+                                : in.getExecutionEnvironment().clean(keySelector),
+                        Preconditions.checkNotNull(asyncRetryStrategy),
+                        adaptiveCapacity);
 
         return in.transform("async wait operator", outTypeInfo, operatorFactory);
     }
@@ -163,4 +239,222 @@ public class AsyncDataStream {
         return addOperator(
                 in, func, timeUnit.toMillis(timeout), DEFAULT_QUEUE_CAPACITY, OutputMode.ORDERED);
     }
+
+    /**
+     * Add an AsyncWaitOperator. The results of input records with the same key are emitted in the
+     * same order as the input records, while the results of records with different keys may be
+     * reordered. A slow record thus only holds back later records of its own key.
+     *
+     * @param in Input {@link DataStream}
+     * @param keySelector {@link KeySelector} which determines the key of input records
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of async i/o operation that can be triggered
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> keyOrderedWait(
+            DataStream<IN> in,
+            KeySelector<IN, ?> keySelector,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                capacity,
+                OutputMode.KEY_ORDERED,
+                Preconditions.checkNotNull(keySelector));
+    }
+
+    /**
+     * Add an AsyncWaitOperator. The results of input records with the same key are emitted in the
+     * same order as the input records, while the results of records with different keys may be
+     * reordered. A slow record thus only holds back later records of its own key.
+     *
+     * @param in Input {@link DataStream}
+     * @param keySelector {@link KeySelector} which determines the key of input records
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete
+     * @param timeUnit of the given timeout
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> keyOrderedWait(
+            DataStream<IN> in,
+            KeySelector<IN, ?> keySelector,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit) {
+        return keyOrderedWait(in, keySelector, func, timeout, timeUnit, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Add an AsyncWaitOperator with retries. The order of output stream records may be reordered.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete, including all retries
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of async i/o operation that can be triggered
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWaitWithRetry(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                capacity,
+                OutputMode.UNORDERED,
+                null,
+                asyncRetryStrategy,
+                null);
+    }
+
+    /**
+     * Add an AsyncWaitOperator with retries. The order to process input records is guaranteed to be
+     * the same as input ones.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete, including all retries
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of async i/o operation that can be triggered
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWaitWithRetry(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                capacity,
+                OutputMode.ORDERED,
+                null,
+                asyncRetryStrategy,
+                null);
+    }
+
+    /**
+     * Add an AsyncWaitOperator with retries. The results of input records with the same key are
+     * emitted in the same order as the input records.
+     *
+     * @param in Input {@link DataStream}
+     * @param keySelector {@link KeySelector} which determines the key of input records
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete, including all retries
+     * @param timeUnit of the given timeout
+     * @param capacity The max number of async i/o operation that can be triggered
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> keyOrderedWaitWithRetry(
+            DataStream<IN> in,
+            KeySelector<IN, ?> keySelector,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            int capacity,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                capacity,
+                OutputMode.KEY_ORDERED,
+                Preconditions.checkNotNull(keySelector),
+                asyncRetryStrategy,
+                null);
+    }
+
+    /**
+     * Add an AsyncWaitOperator whose number of in-flight async i/o operations adapts to the
+     * observed latency. The order of output stream records may be reordered.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete, including all retries
+     * @param timeUnit of the given timeout
+     * @param adaptiveCapacity The adaptive limit of async i/o operations that can be triggered
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with, {@link
+     *     AsyncRetryStrategies#NO_RETRY_STRATEGY} to disable retries
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWaitWithAdaptiveCapacity(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            AsyncAdaptiveCapacity adaptiveCapacity,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                adaptiveCapacity.getMaxCapacity(),
+                OutputMode.UNORDERED,
+                null,
+                asyncRetryStrategy,
+                adaptiveCapacity);
+    }
+
+    /**
+     * Add an AsyncWaitOperator whose number of in-flight async i/o operations adapts to the
+     * observed latency. The order to process input records is guaranteed to be the same as input
+     * ones.
+     *
+     * @param in Input {@link DataStream}
+     * @param func {@link AsyncFunction}
+     * @param timeout for the asynchronous operation to complete, including all retries
+     * @param timeUnit of the given timeout
+     * @param adaptiveCapacity The adaptive limit of async i/o operations that can be triggered
+     * @param asyncRetryStrategy The strategy to retry failed or unsatisfying attempts with, {@link
+     *     AsyncRetryStrategies#NO_RETRY_STRATEGY} to disable retries
+     * @param <IN> Type of input record
+     * @param <OUT> Type of output record
+     * @return A new {@link SingleOutputStreamOperator}.
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWaitWithAdaptiveCapacity(
+            DataStream<IN> in,
+            AsyncFunction<IN, OUT> func,
+            long timeout,
+            TimeUnit timeUnit,
+            AsyncAdaptiveCapacity adaptiveCapacity,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy) {
+        return addOperator(
+                in,
+                func,
+                timeUnit.toMillis(timeout),
+                adaptiveCapacity.getMaxCapacity(),
+                OutputMode.ORDERED,
+                null,
+                asyncRetryStrategy,
+                adaptiveCapacity);
+    }
 }
@@ -96,6 +96,7 @@ import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
 import org.apache.flink.streaming.api.windowing.windows.Window;
 import org.apache.flink.streaming.runtime.operators.util.AssignerWithPeriodicWatermarksAdapter;
 import org.apache.flink.streaming.runtime.operators.util.AssignerWithPunctuatedWatermarksAdapter;
+import org.apache.flink.streaming.runtime.partitioner.AdaptiveRebalancePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.BroadcastPartitioner;
 import org.apache.flink.streaming.runtime.partitioner.CustomPartitionerWrapper;
 import org.apache.flink.streaming.runtime.partitioner.ForwardPartitioner;
@@ -470,6 +471,19 @@ public class DataStream<T> {
         return setConnectionType(new RebalancePartitioner<T>());
     }
 
+    /**
+     * Sets the partitioning of the {@link DataStream} so that the output elements are distributed
+     * to instances of the next operation like in {@link #rebalance()}, but instances which have
+     * fewer unconsumed buffers queued are preferred. This keeps a slow instance from back
+     * pressuring the whole pipeline, at the cost of an uneven distribution of the elements.
+     *
+     * @return The DataStream with adaptive rebalance partitioning set.
+     */
+    @PublicEvolving
+    public DataStream<T> adaptiveRebalance() {
+        return setConnectionType(new AdaptiveRebalancePartitioner<T>());
+    }
+
     /**
      * Sets the partitioning of the {@link DataStream} so that the output elements are distributed
      * evenly to a subset of instances of the next operation in a round-robin fashion.
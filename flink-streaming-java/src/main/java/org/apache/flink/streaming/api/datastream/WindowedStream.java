@@ -28,6 +28,7 @@ import org.apache.flink.api.common.functions.RichFunction;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.functions.aggregation.AggregationFunction;
 import org.apache.flink.streaming.api.functions.aggregation.ComparableAggregator;
 import org.apache.flink.streaming.api.functions.aggregation.SumAggregator;
@@ -88,6 +89,10 @@ public class WindowedStream<T, K, W extends Window> {
                         input.getType(),
                         input.getKeySelector(),
                         input.getKeyType());
+        this.builder.slidingWindowPaneSharing(
+                input.getExecutionEnvironment()
+                        .getConfiguration()
+                        .get(StreamPipelineOptions.SLIDING_WINDOW_PANE_SHARING));
     }
 
     /** Sets the {@code Trigger} that should be used to trigger window emission. */
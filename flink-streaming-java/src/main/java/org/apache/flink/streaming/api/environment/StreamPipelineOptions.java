@@ -26,6 +26,8 @@ import org.apache.flink.configuration.description.Description;
 import org.apache.flink.configuration.description.TextElement;
 import org.apache.flink.streaming.api.TimeCharacteristic;
 
+import java.time.Duration;
+
 /**
  * The {@link ConfigOption configuration options} for job execution. Those are stream specific
  * options. See also {@link org.apache.flink.configuration.PipelineOptions}.
@@ -50,4 +52,94 @@ public class StreamPipelineOptions {
                                             TextElement.code(
                                                     PipelineOptions.AUTO_WATERMARK_INTERVAL.key()))
                                     .build());
+
+    public static final ConfigOption<Boolean> OPERATOR_CHAIN_FUSION =
+            ConfigOptions.key("pipeline.operator-chain-fusion")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            Description.builder()
+                                    .text(
+                                            "If enabled, consecutive chained map, filter and flatMap operators on non-keyed "
+                                                    + "streams are fused: records are passed from one user function to the next "
+                                                    + "directly, without going through the operators and their outputs.")
+                                    .linebreak()
+                                    .linebreak()
+                                    .text(
+                                            "The record metrics are then aggregated per fused chain: the first fused operator "
+                                                    + "reports the records in and the last one the records out. The head operator "
+                                                    + "of a task is never fused.")
+                                    .build());
+
+    public static final ConfigOption<Boolean> FORWARD_OBJECT_PASSING =
+            ConfigOptions.key("pipeline.forward-object-passing")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            Description.builder()
+                                    .text(
+                                            "If enabled, forward edges that cannot be chained pass the records to the "
+                                                    + "downstream task as objects instead of serializing them. Both tasks are "
+                                                    + "then co-located in the same slot; the network buffers only carry a "
+                                                    + "small marker per record. Records are copied with their serializer "
+                                                    + "unless their type is immutable.")
+                                    .linebreak()
+                                    .linebreak()
+                                    .text(
+                                            "The records are always serialized on blocking exchanges, if unaligned "
+                                                    + "checkpoints are enabled, and on edges into unioned or sorted inputs. "
+                                                    + "Batch jobs therefore only benefit if they use a pipelined batch "
+                                                    + "shuffle mode.")
+                                    .build());
+
+    public static final ConfigOption<Boolean> TIMING_WHEEL_TIMERS =
+            ConfigOptions.key("pipeline.timer-service.timing-wheel.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            Description.builder()
+                                    .text(
+                                            "If enabled, the timers of keyed operators are kept in hierarchical timing "
+                                                    + "wheels on the JVM heap instead of in the priority queues of the state "
+                                                    + "backend. Registering and deleting a timer then takes constant time, "
+                                                    + "independent of the number of timers.")
+                                    .linebreak()
+                                    .linebreak()
+                                    .text(
+                                            "The timers are always snapshotted to raw keyed state, like heap timers of "
+                                                    + "the RocksDB state backend, so operators with custom raw keyed state "
+                                                    + "cannot be used. Timers restored by the state backend are taken over "
+                                                    + "into the timing wheels.")
+                                    .build());
+
+    public static final ConfigOption<Duration> TIMING_WHEEL_RESOLUTION =
+            ConfigOptions.key("pipeline.timer-service.timing-wheel.resolution")
+                    .durationType()
+                    .defaultValue(Duration.ofMillis(1))
+                    .withDescription(
+                            String.format(
+                                    "The width of the buckets of the timing wheels if '%s' is enabled. Timers "
+                                            + "still fire at their exact timestamps; a coarser resolution only "
+                                            + "reduces how often timers are moved between the levels of a wheel.",
+                                    TIMING_WHEEL_TIMERS.key()));
+
+    public static final ConfigOption<Boolean> SLIDING_WINDOW_PANE_SHARING =
+            ConfigOptions.key("pipeline.sliding-window.pane-sharing")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            Description.builder()
+                                    .text(
+                                            "If enabled, keyed sliding event-time windows with the default trigger, no "
+                                                    + "evictor, no allowed lateness and a reduce or aggregate function add "
+                                                    + "every element only once to the state of a pane instead of to each "
+                                                    + "window that contains it. The panes are merged when a window fires, "
+                                                    + "which requires a working merge method of the aggregate function.")
+                                    .linebreak()
+                                    .linebreak()
+                                    .text(
+                                            "The window state of such an operator is not compatible with the state of "
+                                                    + "the regular window operator, so a savepoint taken with this option "
+                                                    + "can only be restored with it and vice versa.")
+                                    .build());
 }
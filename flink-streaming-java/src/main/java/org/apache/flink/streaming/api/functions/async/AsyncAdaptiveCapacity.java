@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.util.Preconditions;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Configuration of an adaptive in-flight limit for async I/O. Instead of always keeping up to
+ * {@code maxCapacity} requests in flight, the operator adapts the limit between {@code minCapacity}
+ * and {@code maxCapacity} in an additive-increase / multiplicative-decrease fashion: every attempt
+ * that completes within the {@code latencyThreshold} grows the limit by roughly one request per
+ * round trip, while a slower or failed attempt shrinks it by the {@code decreaseFactor}.
+ *
+ * <p>This lets a job push an external system up to the point where its latency starts to degrade,
+ * without running it into overload.
+ */
+@PublicEvolving
+public final class AsyncAdaptiveCapacity implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int minCapacity;
+    private final int initialCapacity;
+    private final int maxCapacity;
+    private final long latencyThresholdMillis;
+    private final double decreaseFactor;
+
+    private AsyncAdaptiveCapacity(
+            int minCapacity,
+            int initialCapacity,
+            int maxCapacity,
+            long latencyThresholdMillis,
+            double decreaseFactor) {
+        this.minCapacity = minCapacity;
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = maxCapacity;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public long getLatencyThresholdMillis() {
+        return latencyThresholdMillis;
+    }
+
+    public double getDecreaseFactor() {
+        return decreaseFactor;
+    }
+
+    /**
+     * Creates a builder for an adaptive capacity.
+     *
+     * @param maxCapacity the upper bound of in-flight requests, which is also the capacity of the
+     *     operator's queue.
+     * @param latencyThreshold attempts slower than this are considered a sign of overload.
+     */
+    public static Builder builder(int maxCapacity, Duration latencyThreshold) {
+        return new Builder(maxCapacity, latencyThreshold);
+    }
+
+    /** Builder for {@link AsyncAdaptiveCapacity}. */
+    @PublicEvolving
+    public static final class Builder {
+        private final int maxCapacity;
+        private final Duration latencyThreshold;
+        private int minCapacity = 1;
+        private int initialCapacity = -1;
+        private double decreaseFactor = 0.5;
+
+        private Builder(int maxCapacity, Duration latencyThreshold) {
+            this.maxCapacity = maxCapacity;
+            this.latencyThreshold = Preconditions.checkNotNull(latencyThreshold);
+        }
+
+        /** Sets the lower bound of in-flight requests, defaults to 1. */
+        public Builder setMinCapacity(int minCapacity) {
+            this.minCapacity = minCapacity;
+            return this;
+        }
+
+        /** Sets the limit the operator starts with, defaults to the minimum capacity. */
+        public Builder setInitialCapacity(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        /** Sets the factor the limit is multiplied with on overload, defaults to 0.5. */
+        public Builder setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+            return this;
+        }
+
+        public AsyncAdaptiveCapacity build() {
+            int initial = initialCapacity < 0 ? minCapacity : initialCapacity;
+            Preconditions.checkArgument(minCapacity > 0, "minCapacity should be greater than 0.");
+            Preconditions.checkArgument(
+                    maxCapacity >= minCapacity,
+                    "maxCapacity should not be smaller than minCapacity.");
+            Preconditions.checkArgument(
+                    initial >= minCapacity && initial <= maxCapacity,
+                    "initialCapacity should be between minCapacity and maxCapacity.");
+            Preconditions.checkArgument(
+                    !latencyThreshold.isNegative() && !latencyThreshold.isZero(),
+                    "latencyThreshold should be positive.");
+            Preconditions.checkArgument(
+                    decreaseFactor > 0.0 && decreaseFactor < 1.0,
+                    "decreaseFactor should be between 0 and 1 (exclusive).");
+            return new AsyncAdaptiveCapacity(
+                    minCapacity, initial, maxCapacity, latencyThreshold.toMillis(), decreaseFactor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncAdaptiveCapacity{"
+                + "minCapacity="
+                + minCapacity
+                + ", initialCapacity="
+                + initialCapacity
+                + ", maxCapacity="
+                + maxCapacity
+                + ", latencyThresholdMillis="
+                + latencyThresholdMillis
+                + ", decreaseFactor="
+                + decreaseFactor
+                + '}';
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Interface encapsulates the conditions under which an asynchronous operation is retried.
+ *
+ * @param <OUT> The type of the output elements.
+ */
+@PublicEvolving
+public interface AsyncRetryPredicate<OUT> {
+
+    /**
+     * An optional predicate on the result of a successful attempt, a match triggers a retry. An
+     * absent predicate never retries successful attempts.
+     */
+    Optional<Predicate<Collection<OUT>>> resultPredicate();
+
+    /**
+     * An optional predicate on the error of a failed attempt, a match triggers a retry. An absent
+     * predicate never retries failed attempts.
+     */
+    Optional<Predicate<Throwable>> exceptionPredicate();
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.io.Serializable;
+
+/**
+ * Interface encapsulates an asynchronous retry strategy. An {@link AsyncFunction} invocation is
+ * retried as long as the {@link #getRetryPredicate() retry predicate} matches its outcome and
+ * {@link #canRetry(int)} allows another attempt. The overall timeout of the async operation spans
+ * all attempts.
+ *
+ * @param <OUT> The type of the output elements.
+ */
+@PublicEvolving
+public interface AsyncRetryStrategy<OUT> extends Serializable {
+
+    /** Whether another attempt can be made after the given number of attempts. */
+    boolean canRetry(int currentAttempts);
+
+    /** Returns the delay in milliseconds before the attempt following the given one. */
+    long getBackoffTimeMillis(int currentAttempts);
+
+    /** Returns the predicate that decides whether an outcome should be retried. */
+    AsyncRetryPredicate<OUT> getRetryPredicate();
+}
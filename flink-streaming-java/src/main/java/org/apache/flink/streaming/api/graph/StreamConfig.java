@@ -427,6 +427,20 @@ public class StreamConfig implements Serializable {
         }
     }
 
+    /**
+     * Returns whether the records of the given network input are passed as objects instead of being
+     * serialized, see {@link StreamEdge#isObjectPassing()}.
+     */
+    public boolean isObjectPassingInput(int inputIndex, ClassLoader cl) {
+        for (StreamEdge inEdge : getInPhysicalEdges(cl)) {
+            int edgeInputIndex = inEdge.getTypeNumber() == 0 ? 0 : inEdge.getTypeNumber() - 1;
+            if (edgeInputIndex == inputIndex && inEdge.isObjectPassing()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // --------------------- checkpointing -----------------------
 
     public void setCheckpointingEnabled(boolean enabled) {
@@ -64,6 +64,8 @@ public class StreamEdge implements Serializable {
 
     private boolean supportsUnalignedCheckpoints = true;
 
+    private boolean objectPassing;
+
     public StreamEdge(
             StreamNode sourceVertex,
             StreamNode targetVertex,
@@ -166,6 +168,14 @@ public class StreamEdge implements Serializable {
         return supportsUnalignedCheckpoints;
     }
 
+    public void setObjectPassing(boolean objectPassing) {
+        this.objectPassing = objectPassing;
+    }
+
+    public boolean isObjectPassing() {
+        return objectPassing;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(edgeId, outputTag);
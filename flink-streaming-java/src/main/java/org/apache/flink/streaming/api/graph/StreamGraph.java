@@ -66,6 +66,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -108,6 +109,14 @@ public class StreamGraph implements Pipeline {
 
     private boolean enableCheckpointsAfterTasksFinish;
 
+    private boolean operatorChainFusion;
+
+    private boolean forwardObjectPassing;
+
+    private boolean timingWheelTimers;
+
+    private Duration timingWheelResolution;
+
     /** Flag to indicate whether to put all vertices into the same slot sharing group by default. */
     private boolean allVerticesInSameSlotSharingGroupByDefault = true;
 
@@ -290,6 +299,35 @@ public class StreamGraph implements Pipeline {
         this.enableCheckpointsAfterTasksFinish = enableCheckpointsAfterTasksFinish;
     }
 
+    public boolean isForwardObjectPassingEnabled() {
+        return forwardObjectPassing;
+    }
+
+    public void setForwardObjectPassing(boolean forwardObjectPassing) {
+        this.forwardObjectPassing = forwardObjectPassing;
+    }
+
+    public boolean isOperatorChainFusionEnabled() {
+        return operatorChainFusion;
+    }
+
+    public void setOperatorChainFusion(boolean operatorChainFusion) {
+        this.operatorChainFusion = operatorChainFusion;
+    }
+
+    public boolean isTimingWheelTimersEnabled() {
+        return timingWheelTimers;
+    }
+
+    public Duration getTimingWheelResolution() {
+        return timingWheelResolution;
+    }
+
+    public void setTimingWheelTimers(boolean timingWheelTimers, Duration timingWheelResolution) {
+        this.timingWheelTimers = timingWheelTimers;
+        this.timingWheelResolution = checkNotNull(timingWheelResolution);
+    }
+
     // Checkpointing
 
     public boolean isChainingEnabled() {
@@ -45,6 +45,7 @@ import org.apache.flink.runtime.state.StateBackend;
 import org.apache.flink.streaming.api.TimeCharacteristic;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.ExecutionCheckpointingOptions;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.operators.sorted.state.BatchExecutionCheckpointStorage;
 import org.apache.flink.streaming.api.operators.sorted.state.BatchExecutionInternalTimeServiceManager;
 import org.apache.flink.streaming.api.operators.sorted.state.BatchExecutionStateBackend;
@@ -309,6 +310,13 @@ public class StreamGraphGenerator {
         streamGraph.setEnableCheckpointsAfterTasksFinish(
                 configuration.get(
                         ExecutionCheckpointingOptions.ENABLE_CHECKPOINTS_AFTER_TASKS_FINISH));
+        streamGraph.setOperatorChainFusion(
+                configuration.get(StreamPipelineOptions.OPERATOR_CHAIN_FUSION));
+        streamGraph.setForwardObjectPassing(
+                configuration.get(StreamPipelineOptions.FORWARD_OBJECT_PASSING));
+        streamGraph.setTimingWheelTimers(
+                configuration.get(StreamPipelineOptions.TIMING_WHEEL_TIMERS),
+                configuration.get(StreamPipelineOptions.TIMING_WHEEL_RESOLUTION));
         shouldExecuteInBatchMode = shouldExecuteInBatchMode();
         configureStreamGraph(streamGraph);
 
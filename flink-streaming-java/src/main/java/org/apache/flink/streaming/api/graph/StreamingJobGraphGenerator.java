@@ -59,6 +59,7 @@ import org.apache.flink.streaming.api.CheckpointingMode;
 import org.apache.flink.streaming.api.checkpoint.WithMasterCheckpointHook;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.ExecutionCheckpointingOptions;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.operators.ChainingStrategy;
 import org.apache.flink.streaming.api.operators.InputSelectable;
 import org.apache.flink.streaming.api.operators.SourceOperatorFactory;
@@ -127,6 +128,9 @@ public class StreamingJobGraphGenerator {
 
     private final List<StreamEdge> physicalEdgesInOrder;
 
+    /** Pairs of upstream and downstream vertices that are connected by object passing edges. */
+    private final List<Tuple2<JobVertex, JobVertex>> objectPassingVertices;
+
     private final Map<Integer, Map<Integer, StreamConfig>> chainedConfigs;
 
     private final Map<Integer, StreamConfig> vertexConfigs;
@@ -154,6 +158,7 @@ public class StreamingJobGraphGenerator {
         this.chainedPreferredResources = new HashMap<>();
         this.chainedInputOutputFormats = new HashMap<>();
         this.physicalEdgesInOrder = new ArrayList<>();
+        this.objectPassingVertices = new ArrayList<>();
 
         jobGraph = new JobGraph(jobID, streamGraph.getJobName());
     }
@@ -732,6 +737,20 @@ public class StreamingJobGraphGenerator {
                 .set(
                         ExecutionCheckpointingOptions.ENABLE_CHECKPOINTS_AFTER_TASKS_FINISH,
                         streamGraph.isEnableCheckpointsAfterTasksFinish());
+        config.getConfiguration()
+                .set(
+                        StreamPipelineOptions.OPERATOR_CHAIN_FUSION,
+                        streamGraph.isOperatorChainFusionEnabled());
+        config.getConfiguration()
+                .set(
+                        StreamPipelineOptions.TIMING_WHEEL_TIMERS,
+                        streamGraph.isTimingWheelTimersEnabled());
+        if (streamGraph.getTimingWheelResolution() != null) {
+            config.getConfiguration()
+                    .set(
+                            StreamPipelineOptions.TIMING_WHEEL_RESOLUTION,
+                            streamGraph.getTimingWheelResolution());
+        }
         config.setCheckpointMode(getCheckpointingMode(checkpointCfg));
         config.setUnalignedCheckpointsEnabled(checkpointCfg.isUnalignedCheckpointsEnabled());
         config.setAlignedCheckpointTimeout(checkpointCfg.getAlignedCheckpointTimeout());
@@ -803,6 +822,11 @@ public class StreamingJobGraphGenerator {
 
         checkBufferTimeout(resultPartitionType, edge);
 
+        if (isObjectPassingEdge(edge, resultPartitionType)) {
+            edge.setObjectPassing(true);
+            objectPassingVertices.add(Tuple2.of(headVertex, downStreamVertex));
+        }
+
         JobEdge jobEdge;
         if (partitioner.isPointwise()) {
             jobEdge =
@@ -840,6 +864,50 @@ public class StreamingJobGraphGenerator {
         }
     }
 
+    /**
+     * Checks whether the records of a non-chained edge can be passed as objects. This requires a
+     * pipelined forward exchange between subtasks that can be co-located and whose in-flight data
+     * never has to be persisted, i.e. unaligned checkpoints must be disabled. Unioned and sorted
+     * inputs are excluded, because their deserializers are shared with other edges.
+     */
+    private boolean isObjectPassingEdge(StreamEdge edge, ResultPartitionType resultPartitionType) {
+        if (!streamGraph.isForwardObjectPassingEnabled()
+                || !(edge.getPartitioner() instanceof ForwardPartitioner)
+                || !(resultPartitionType == ResultPartitionType.PIPELINED
+                        || resultPartitionType == ResultPartitionType.PIPELINED_BOUNDED)
+                || streamGraph.getCheckpointConfig().isUnalignedCheckpointsEnabled()) {
+            return false;
+        }
+
+        StreamNode upStreamVertex = streamGraph.getSourceVertex(edge);
+        StreamNode downStreamVertex = streamGraph.getTargetVertex(edge);
+        if (!upStreamVertex.isSameSlotSharingGroup(downStreamVertex)
+                || upStreamVertex.getParallelism() != downStreamVertex.getParallelism()
+                || isIterationVertex(upStreamVertex)
+                || isIterationVertex(downStreamVertex)) {
+            return false;
+        }
+
+        int inputIndex = edge.getTypeNumber() == 0 ? 0 : edge.getTypeNumber() - 1;
+        if (downStreamVertex
+                        .getInputRequirements()
+                        .getOrDefault(inputIndex, StreamConfig.InputRequirement.PASS_THROUGH)
+                != StreamConfig.InputRequirement.PASS_THROUGH) {
+            return false;
+        }
+        for (StreamEdge inEdge : downStreamVertex.getInEdges()) {
+            if (inEdge != edge && inEdge.getTypeNumber() == edge.getTypeNumber()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIterationVertex(StreamNode vertex) {
+        return vertex.getJobVertexClass().equals(StreamIterationHead.class)
+                || vertex.getJobVertexClass().equals(StreamIterationTail.class);
+    }
+
     private ResultPartitionType determineResultPartitionType(StreamPartitioner<?> partitioner) {
         switch (streamGraph.getGlobalStreamExchangeMode()) {
             case ALL_EDGES_BLOCKING:
@@ -967,6 +1035,7 @@ public class StreamingJobGraphGenerator {
     private void setSlotSharingAndCoLocation() {
         setSlotSharing();
         setCoLocation();
+        setObjectPassingCoLocation();
     }
 
     private void setSlotSharing() {
@@ -1075,6 +1144,19 @@ public class StreamingJobGraphGenerator {
         }
     }
 
+    /**
+     * Co-locates the subtasks of object passing edges, so that the records are always exchanged
+     * within the same JVM.
+     */
+    private void setObjectPassingCoLocation() {
+        for (Tuple2<JobVertex, JobVertex> vertices : objectPassingVertices) {
+            checkState(
+                    vertices.f0.getSlotSharingGroup() == vertices.f1.getSlotSharingGroup(),
+                    "Object passing edges must connect vertices of the same slot sharing group.");
+            vertices.f1.setStrictlyCoLocatedWith(vertices.f0);
+        }
+    }
+
     private static void setManagedMemoryFraction(
             final Map<Integer, JobVertex> jobVertices,
             final Map<Integer, StreamConfig> operatorConfigs,
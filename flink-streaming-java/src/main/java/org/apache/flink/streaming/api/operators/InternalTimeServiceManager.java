@@ -65,6 +65,14 @@ public interface InternalTimeServiceManager<K> {
             KeyedStateCheckpointOutputStream stateCheckpointOutputStream, String operatorName)
             throws Exception;
 
+    /**
+     * Returns whether the timers are kept outside of the keyed state backend and therefore have to
+     * be snapshotted to raw keyed state on every checkpoint, independent of the backend.
+     */
+    default boolean requiresRawKeyedStateSnapshots() {
+        return false;
+    }
+
     /**
      * A provider pattern for creating an instance of a {@link InternalTimeServiceManager}. Allows
      * substituting the manager that will be used at the runtime.
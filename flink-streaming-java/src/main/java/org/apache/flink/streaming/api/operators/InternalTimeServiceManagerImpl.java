@@ -73,16 +73,32 @@ public class InternalTimeServiceManagerImpl<K> implements InternalTimeServiceMan
 
     private final Map<String, InternalTimerServiceImpl<K, ?>> timerServices;
 
+    /**
+     * The resolution of the {@link TimingWheelTimerPriorityQueue timing wheels} that hold the
+     * timers, or {@link #NO_TIMING_WHEEL} if the timers are held by the queues of the keyed state
+     * backend.
+     */
+    private final long timingWheelResolution;
+
+    /** The total number of key-groups of the job, only needed for the timing wheels. */
+    private final int totalNumberOfKeyGroups;
+
+    private static final long NO_TIMING_WHEEL = -1L;
+
     private InternalTimeServiceManagerImpl(
             KeyGroupRange localKeyGroupRange,
             KeyContext keyContext,
             PriorityQueueSetFactory priorityQueueSetFactory,
-            ProcessingTimeService processingTimeService) {
+            ProcessingTimeService processingTimeService,
+            long timingWheelResolution,
+            int totalNumberOfKeyGroups) {
 
         this.localKeyGroupRange = Preconditions.checkNotNull(localKeyGroupRange);
         this.priorityQueueSetFactory = Preconditions.checkNotNull(priorityQueueSetFactory);
         this.keyContext = Preconditions.checkNotNull(keyContext);
         this.processingTimeService = Preconditions.checkNotNull(processingTimeService);
+        this.timingWheelResolution = timingWheelResolution;
+        this.totalNumberOfKeyGroups = totalNumberOfKeyGroups;
 
         this.timerServices = new HashMap<>();
     }
@@ -99,11 +115,61 @@ public class InternalTimeServiceManagerImpl<K> implements InternalTimeServiceMan
             ProcessingTimeService processingTimeService,
             Iterable<KeyGroupStatePartitionStreamProvider> rawKeyedStates)
             throws Exception {
+        return create(
+                keyedStateBackend,
+                userClassloader,
+                keyContext,
+                processingTimeService,
+                rawKeyedStates,
+                NO_TIMING_WHEEL,
+                0);
+    }
+
+    /**
+     * A factory method for creating an {@link InternalTimeServiceManagerImpl} that keeps the timers
+     * in {@link TimingWheelTimerPriorityQueue timing wheels} instead of the queues of the keyed
+     * state backend. Such a manager always snapshots its timers to raw keyed state.
+     */
+    public static <K> InternalTimeServiceManagerImpl<K> createWithTimingWheel(
+            CheckpointableKeyedStateBackend<K> keyedStateBackend,
+            ClassLoader userClassloader,
+            KeyContext keyContext,
+            ProcessingTimeService processingTimeService,
+            Iterable<KeyGroupStatePartitionStreamProvider> rawKeyedStates,
+            long timingWheelResolution,
+            int totalNumberOfKeyGroups)
+            throws Exception {
+        Preconditions.checkArgument(
+                timingWheelResolution > 0, "The resolution of the timing wheel must be positive.");
+        return create(
+                keyedStateBackend,
+                userClassloader,
+                keyContext,
+                processingTimeService,
+                rawKeyedStates,
+                timingWheelResolution,
+                totalNumberOfKeyGroups);
+    }
+
+    private static <K> InternalTimeServiceManagerImpl<K> create(
+            CheckpointableKeyedStateBackend<K> keyedStateBackend,
+            ClassLoader userClassloader,
+            KeyContext keyContext,
+            ProcessingTimeService processingTimeService,
+            Iterable<KeyGroupStatePartitionStreamProvider> rawKeyedStates,
+            long timingWheelResolution,
+            int totalNumberOfKeyGroups)
+            throws Exception {
         final KeyGroupRange keyGroupRange = keyedStateBackend.getKeyGroupRange();
 
         final InternalTimeServiceManagerImpl<K> timeServiceManager =
                 new InternalTimeServiceManagerImpl<>(
-                        keyGroupRange, keyContext, keyedStateBackend, processingTimeService);
+                        keyGroupRange,
+                        keyContext,
+                        keyedStateBackend,
+                        processingTimeService,
+                        timingWheelResolution,
+                        totalNumberOfKeyGroups);
 
         // and then initialize the timer services
         for (KeyGroupStatePartitionStreamProvider streamProvider : rawKeyedStates) {
@@ -171,7 +237,22 @@ public class InternalTimeServiceManagerImpl<K> implements InternalTimeServiceMan
     private <N>
             KeyGroupedInternalPriorityQueue<TimerHeapInternalTimer<K, N>> createTimerPriorityQueue(
                     String name, TimerSerializer<K, N> timerSerializer) {
-        return priorityQueueSetFactory.create(name, timerSerializer);
+        final KeyGroupedInternalPriorityQueue<TimerHeapInternalTimer<K, N>> backendQueue =
+                priorityQueueSetFactory.create(name, timerSerializer);
+        if (timingWheelResolution == NO_TIMING_WHEEL) {
+            return backendQueue;
+        }
+
+        final TimingWheelTimerPriorityQueue<K, N> timingWheel =
+                new TimingWheelTimerPriorityQueue<>(
+                        timingWheelResolution, localKeyGroupRange, totalNumberOfKeyGroups);
+        // take over the timers that the backend restored from its own snapshot, e.g. when the
+        // job was previously running without timing wheels
+        TimerHeapInternalTimer<K, N> timer;
+        while ((timer = backendQueue.poll()) != null) {
+            timingWheel.add(timer);
+        }
+        return timingWheel;
     }
 
     @Override
@@ -183,6 +264,11 @@ public class InternalTimeServiceManagerImpl<K> implements InternalTimeServiceMan
 
     //////////////////				Fault Tolerance Methods				///////////////////
 
+    @Override
+    public boolean requiresRawKeyedStateSnapshots() {
+        return timingWheelResolution != NO_TIMING_WHEEL;
+    }
+
     @Override
     public void snapshotToRawKeyedState(KeyedStateCheckpointOutputStream out, String operatorName)
             throws Exception {
@@ -231,6 +317,42 @@ public class InternalTimeServiceManagerImpl<K> implements InternalTimeServiceMan
         serializationProxy.read(stream);
     }
 
+    /**
+     * A {@link InternalTimeServiceManager.Provider} for managers that keep the timers in {@link
+     * TimingWheelTimerPriorityQueue timing wheels}.
+     */
+    public static final class TimingWheelProvider implements InternalTimeServiceManager.Provider {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long resolution;
+
+        private final int totalNumberOfKeyGroups;
+
+        public TimingWheelProvider(long resolution, int totalNumberOfKeyGroups) {
+            this.resolution = resolution;
+            this.totalNumberOfKeyGroups = totalNumberOfKeyGroups;
+        }
+
+        @Override
+        public <K> InternalTimeServiceManager<K> create(
+                CheckpointableKeyedStateBackend<K> keyedStatedBackend,
+                ClassLoader userClassloader,
+                KeyContext keyContext,
+                ProcessingTimeService processingTimeService,
+                Iterable<KeyGroupStatePartitionStreamProvider> rawKeyedStates)
+                throws Exception {
+            return createWithTimingWheel(
+                    keyedStatedBackend,
+                    userClassloader,
+                    keyContext,
+                    processingTimeService,
+                    rawKeyedStates,
+                    resolution,
+                    totalNumberOfKeyGroups);
+        }
+    }
+
     ////////////////////			Methods used ONLY IN TESTS				////////////////////
 
     @VisibleForTesting
@@ -202,13 +202,14 @@ public class StreamOperatorStateHandler {
                         "keyedStateBackend should be available with timeServiceManager");
                 final InternalTimeServiceManager<?> manager = timeServiceManager.get();
 
-                boolean requiresLegacyRawKeyedStateSnapshots =
-                        keyedStateBackend instanceof AbstractKeyedStateBackend
-                                && ((AbstractKeyedStateBackend<?>) keyedStateBackend)
-                                        .requiresLegacySynchronousTimerSnapshots(
-                                                checkpointOptions.getCheckpointType());
-
-                if (requiresLegacyRawKeyedStateSnapshots) {
+                boolean requiresRawKeyedStateSnapshots =
+                        manager.requiresRawKeyedStateSnapshots()
+                                || keyedStateBackend instanceof AbstractKeyedStateBackend
+                                        && ((AbstractKeyedStateBackend<?>) keyedStateBackend)
+                                                .requiresLegacySynchronousTimerSnapshots(
+                                                        checkpointOptions.getCheckpointType());
+
+                if (requiresRawKeyedStateSnapshots) {
                     checkState(
                             !isUsingCustomRawKeyedState,
                             "Attempting to snapshot timers to raw keyed state, but this operator has custom raw keyed state to write.");
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.runtime.state.KeyGroupedInternalPriorityQueue;
+import org.apache.flink.runtime.state.PriorityComparator;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueue;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueueSet;
+import org.apache.flink.util.CloseableIterator;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link KeyGroupedInternalPriorityQueue} for timers that is based on a hierarchical timing wheel
+ * instead of a single binary heap, as an alternative to the {@link HeapPriorityQueueSet} of the
+ * heap timer store.
+ *
+ * <p>Timestamps are mapped to buckets of a configurable resolution. The wheel has {@value
+ * #NUM_LEVELS} levels of {@value #SLOTS_PER_LEVEL} slots each, where every slot of a level covers
+ * all buckets of one slot of the level below. A timer is placed on the level of the highest digit
+ * in which its bucket differs from the cursor of the wheel, so adding and removing a timer that is
+ * not due yet takes constant time, independent of the number of registered timers. When the wheel
+ * runs out of due timers, the cursor advances to the next occupied slot and the timers of that slot
+ * cascade to the lower levels. The timers of the earliest bucket finally move into a small heap
+ * that orders them by their exact timestamp.
+ *
+ * <p>Timers keep their exact timestamps and the queue has set semantics like the {@link
+ * HeapPriorityQueueSet}: timers are de-duplicated per key, namespace and timestamp, using one hash
+ * map per key-group, which also serves {@link #getSubsetForKeyGroup(int)} for snapshots.
+ *
+ * @param <K> Type of the keys to which timers are scoped.
+ * @param <N> Type of the namespace to which timers are scoped.
+ */
+@Internal
+public class TimingWheelTimerPriorityQueue<K, N>
+        implements KeyGroupedInternalPriorityQueue<TimerHeapInternalTimer<K, N>> {
+
+    private static final int SLOT_BITS = 8;
+
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+
+    private static final int NUM_LEVELS = Long.SIZE / SLOT_BITS;
+
+    private static final int BITMAP_WORDS_PER_LEVEL = SLOTS_PER_LEVEL / Long.SIZE;
+
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    /** The width of a bucket in milliseconds. */
+    private final long resolution;
+
+    /** The key-group range of timers that are managed by this queue. */
+    private final KeyGroupRange keyGroupRange;
+
+    /** The total number of key-groups of the job. */
+    private final int totalNumberOfKeyGroups;
+
+    /** One map per key-group, used for de-duplication, deletes and key-group subsets. */
+    private final HashMap<TimerHeapInternalTimer<K, N>, TimerHeapInternalTimer<K, N>>[]
+            deduplicationMapsByKeyGroup;
+
+    /** The timers whose bucket is not after the cursor, ordered by their exact timestamp. */
+    private final HeapPriorityQueue<TimerHeapInternalTimer<K, N>> dueTimers;
+
+    /**
+     * The timers of all slots of all levels. The internal index of a timer in the wheel is its
+     * position inside of its slot.
+     */
+    private final TimerHeapInternalTimer<K, N>[][] slots;
+
+    /** The number of timers in each slot. */
+    private final int[] slotSizes;
+
+    /** One bit per slot that is set iff the slot contains timers. */
+    private final long[] occupiedSlots;
+
+    /**
+     * The bucket of the cursor, with the sign bit flipped so that unsigned comparison follows the
+     * order of timestamps. All timers in the wheel are in a bucket after the cursor.
+     */
+    private long cursor;
+
+    /** The number of timers in the wheel and in the heap of due timers. */
+    private int size;
+
+    /**
+     * Creates an empty {@link TimingWheelTimerPriorityQueue}.
+     *
+     * @param resolution the width of the buckets of the wheel in milliseconds.
+     * @param keyGroupRange the key-group range of the timers in this queue.
+     * @param totalNumberOfKeyGroups the total number of key-groups of the job.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheelTimerPriorityQueue(
+            long resolution,
+            @Nonnull KeyGroupRange keyGroupRange,
+            @Nonnegative int totalNumberOfKeyGroups) {
+        checkArgument(resolution > 0, "The resolution of the timing wheel must be positive.");
+        this.resolution = resolution;
+        this.keyGroupRange = keyGroupRange;
+        this.totalNumberOfKeyGroups = totalNumberOfKeyGroups;
+
+        final int keyGroupsInLocalRange = keyGroupRange.getNumberOfKeyGroups();
+        this.deduplicationMapsByKeyGroup = new HashMap[keyGroupsInLocalRange];
+        for (int i = 0; i < keyGroupsInLocalRange; ++i) {
+            deduplicationMapsByKeyGroup[i] = new HashMap<>();
+        }
+
+        this.dueTimers =
+                new HeapPriorityQueue<>(PriorityComparator.forPriorityComparableObjects(), 128);
+        this.slots = new TimerHeapInternalTimer[NUM_LEVELS * SLOTS_PER_LEVEL][];
+        this.slotSizes = new int[NUM_LEVELS * SLOTS_PER_LEVEL];
+        this.occupiedSlots = new long[NUM_LEVELS * BITMAP_WORDS_PER_LEVEL];
+        this.cursor = 0L;
+        this.size = 0;
+    }
+
+    @Nullable
+    @Override
+    public TimerHeapInternalTimer<K, N> poll() {
+        advanceToDueTimers();
+        final TimerHeapInternalTimer<K, N> toRemove = dueTimers.poll();
+        if (toRemove != null) {
+            getDedupMapForElement(toRemove).remove(toRemove);
+            size--;
+        }
+        return toRemove;
+    }
+
+    @Nullable
+    @Override
+    public TimerHeapInternalTimer<K, N> peek() {
+        advanceToDueTimers();
+        return dueTimers.peek();
+    }
+
+    /**
+     * Adds the timer to the queue if no equal timer is contained yet.
+     *
+     * @return <code>true</code> if the operation changed the head element or if is it unclear if
+     *     the head element changed. Only returns <code>false</code> iff the head element was not
+     *     changed by this operation.
+     */
+    @Override
+    public boolean add(@Nonnull TimerHeapInternalTimer<K, N> toAdd) {
+        if (getDedupMapForElement(toAdd).putIfAbsent(toAdd, toAdd) != null) {
+            return false;
+        }
+        size++;
+        return insert(toAdd);
+    }
+
+    /**
+     * Removes the timer that is equal to the given timer from the queue.
+     *
+     * @return <code>true</code> if the operation changed the head element or if is it unclear if
+     *     the head element changed. Only returns <code>false</code> iff the head element was not
+     *     changed by this operation.
+     */
+    @Override
+    public boolean remove(@Nonnull TimerHeapInternalTimer<K, N> toRemove) {
+        final TimerHeapInternalTimer<K, N> storedTimer =
+                getDedupMapForElement(toRemove).remove(toRemove);
+        if (storedTimer == null) {
+            return false;
+        }
+        size--;
+
+        final long bucket = bucketOf(storedTimer.getTimestamp());
+        if (Long.compareUnsigned(bucket, cursor) <= 0) {
+            return dueTimers.remove(storedTimer);
+        }
+        removeFromSlot(slotIndexOf(bucket), storedTimer);
+        return dueTimers.isEmpty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void addAll(@Nullable Collection<? extends TimerHeapInternalTimer<K, N>> toAdd) {
+        if (toAdd == null) {
+            return;
+        }
+
+        for (TimerHeapInternalTimer<K, N> timer : toAdd) {
+            add(timer);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public CloseableIterator<TimerHeapInternalTimer<K, N>> iterator() {
+        return CloseableIterator.adapterForIterator(
+                Arrays.stream(deduplicationMapsByKeyGroup)
+                        .flatMap(map -> map.keySet().stream())
+                        .iterator());
+    }
+
+    @Nonnull
+    @Override
+    public Set<TimerHeapInternalTimer<K, N>> getSubsetForKeyGroup(int keyGroupId) {
+        return getDedupMapForKeyGroup(keyGroupId).keySet();
+    }
+
+    // ------------------------------------------------------------------------
+    //  Timing wheel
+    // ------------------------------------------------------------------------
+
+    /**
+     * Places the timer either in the heap of due timers or in the slot of the wheel that matches
+     * its bucket.
+     */
+    private boolean insert(TimerHeapInternalTimer<K, N> timer) {
+        final long bucket = bucketOf(timer.getTimestamp());
+        if (Long.compareUnsigned(bucket, cursor) <= 0) {
+            return dueTimers.add(timer);
+        }
+        addToSlot(slotIndexOf(bucket), timer);
+        // the timer is the new head if there are no due timers and it is the earliest in the
+        // wheel, which we cannot tell without advancing the wheel
+        return dueTimers.isEmpty();
+    }
+
+    /**
+     * Advances the cursor of the wheel until the heap of due timers contains the earliest timers,
+     * or the queue is empty.
+     */
+    private void advanceToDueTimers() {
+        while (dueTimers.isEmpty() && size > 0) {
+            advanceCursor();
+        }
+    }
+
+    /**
+     * Moves the cursor to the first bucket of the earliest occupied slot and cascades the timers of
+     * that slot to the lower levels, or to the heap of due timers if the slot is on the lowest
+     * level.
+     */
+    private void advanceCursor() {
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            final int slot = firstOccupiedSlot(level);
+            if (slot < 0) {
+                continue;
+            }
+
+            final int shift = level * SLOT_BITS;
+            final long levelMask = level == NUM_LEVELS - 1 ? -1L : (1L << (shift + SLOT_BITS)) - 1;
+            cursor = (cursor & ~levelMask) | ((long) slot << shift);
+
+            final int slotIndex = level * SLOTS_PER_LEVEL + slot;
+            final TimerHeapInternalTimer<K, N>[] timers = slots[slotIndex];
+            final int numTimers = slotSizes[slotIndex];
+            slots[slotIndex] = null;
+            slotSizes[slotIndex] = 0;
+            clearOccupied(slotIndex);
+
+            for (int i = 0; i < numTimers; i++) {
+                insert(timers[i]);
+            }
+            return;
+        }
+    }
+
+    /** Returns the bucket of the timestamp with the sign bit flipped. */
+    private long bucketOf(long timestamp) {
+        return Math.floorDiv(timestamp, resolution) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the index of the slot for a bucket after the cursor. The level is given by the
+     * highest digit in which the bucket differs from the cursor.
+     */
+    private int slotIndexOf(long bucket) {
+        final int highestDifferingBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(bucket ^ cursor);
+        final int level = highestDifferingBit / SLOT_BITS;
+        final int slot = (int) (bucket >>> (level * SLOT_BITS)) & SLOT_MASK;
+        return level * SLOTS_PER_LEVEL + slot;
+    }
+
+    private int firstOccupiedSlot(int level) {
+        for (int word = 0; word < BITMAP_WORDS_PER_LEVEL; word++) {
+            final long bits = occupiedSlots[level * BITMAP_WORDS_PER_LEVEL + word];
+            if (bits != 0L) {
+                return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToSlot(int slotIndex, TimerHeapInternalTimer<K, N> timer) {
+        TimerHeapInternalTimer<K, N>[] timers = slots[slotIndex];
+        final int position = slotSizes[slotIndex];
+        if (timers == null) {
+            timers = new TimerHeapInternalTimer[INITIAL_SLOT_CAPACITY];
+            slots[slotIndex] = timers;
+            occupiedSlots[slotIndex / Long.SIZE] |= 1L << slotIndex;
+        } else if (position == timers.length) {
+            timers = Arrays.copyOf(timers, position << 1);
+            slots[slotIndex] = timers;
+        }
+        timers[position] = timer;
+        timer.setInternalIndex(position);
+        slotSizes[slotIndex] = position + 1;
+    }
+
+    private void removeFromSlot(int slotIndex, TimerHeapInternalTimer<K, N> timer) {
+        final TimerHeapInternalTimer<K, N>[] timers = slots[slotIndex];
+        final int position = timer.getInternalIndex();
+        final int last = slotSizes[slotIndex] - 1;
+        if (position != last) {
+            final TimerHeapInternalTimer<K, N> moved = timers[last];
+            timers[position] = moved;
+            moved.setInternalIndex(position);
+        }
+        timers[last] = null;
+        timer.setInternalIndex(HeapPriorityQueueElement.NOT_CONTAINED);
+        slotSizes[slotIndex] = last;
+        if (last == 0) {
+            slots[slotIndex] = null;
+            clearOccupied(slotIndex);
+        }
+    }
+
+    private void clearOccupied(int slotIndex) {
+        occupiedSlots[slotIndex / Long.SIZE] &= ~(1L << slotIndex);
+    }
+
+    // ------------------------------------------------------------------------
+    //  Key-groups
+    // ------------------------------------------------------------------------
+
+    private HashMap<TimerHeapInternalTimer<K, N>, TimerHeapInternalTimer<K, N>>
+            getDedupMapForKeyGroup(@Nonnegative int keyGroupId) {
+        return deduplicationMapsByKeyGroup[globalKeyGroupToLocalIndex(keyGroupId)];
+    }
+
+    private HashMap<TimerHeapInternalTimer<K, N>, TimerHeapInternalTimer<K, N>>
+            getDedupMapForElement(TimerHeapInternalTimer<K, N> timer) {
+        final int keyGroup =
+                KeyGroupRangeAssignment.assignToKeyGroup(timer.getKey(), totalNumberOfKeyGroups);
+        return getDedupMapForKeyGroup(keyGroup);
+    }
+
+    private int globalKeyGroupToLocalIndex(int keyGroup) {
+        checkArgument(
+                keyGroupRange.contains(keyGroup),
+                "%s does not contain key group %s",
+                keyGroupRange,
+                keyGroup);
+        return keyGroup - keyGroupRange.getStartKeyGroup();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.async;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
+
+/**
+ * Tracks the adaptive in-flight limit of an {@link AsyncWaitOperator} following the additive
+ * increase / multiplicative decrease scheme described in {@link AsyncAdaptiveCapacity}.
+ *
+ * <p>Like TCP congestion control, the limit is decreased at most once per round trip: every attempt
+ * is tagged with the {@link #getEpoch() epoch} at which it was issued and only signals of attempts
+ * issued after the last decrease can shrink the limit again. This avoids collapsing the limit to
+ * its minimum on a single burst of slow responses.
+ *
+ * <p>This class is not thread safe, it is only accessed from the mailbox thread.
+ */
+@Internal
+final class AimdCapacityLimiter {
+
+    private final int minCapacity;
+    private final int maxCapacity;
+    private final long latencyThresholdMillis;
+    private final double decreaseFactor;
+
+    private double limit;
+    private long epoch;
+
+    AimdCapacityLimiter(AsyncAdaptiveCapacity adaptiveCapacity) {
+        this.minCapacity = adaptiveCapacity.getMinCapacity();
+        this.maxCapacity = adaptiveCapacity.getMaxCapacity();
+        this.latencyThresholdMillis = adaptiveCapacity.getLatencyThresholdMillis();
+        this.decreaseFactor = adaptiveCapacity.getDecreaseFactor();
+        this.limit = adaptiveCapacity.getInitialCapacity();
+    }
+
+    /** The current number of requests that may be in flight. */
+    int getLimit() {
+        return (int) limit;
+    }
+
+    /** The epoch to tag newly issued attempts with. */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Records the outcome of an attempt.
+     *
+     * @param attemptEpoch the epoch at which the attempt was issued.
+     * @param latencyMillis the latency of the attempt.
+     * @param failed whether the attempt failed or is going to be retried.
+     */
+    void onAttemptCompleted(long attemptEpoch, long latencyMillis, boolean failed) {
+        if (failed || latencyMillis > latencyThresholdMillis) {
+            if (attemptEpoch == epoch) {
+                limit = Math.max(minCapacity, limit * decreaseFactor);
+                epoch++;
+            }
+        } else {
+            // grows the limit by one per full window of fast responses
+            limit = Math.min(maxCapacity, limit + 1.0 / (int) limit);
+        }
+    }
+}
@@ -23,11 +23,16 @@ import org.apache.flink.api.common.operators.MailboxExecutor;
 import org.apache.flink.api.common.state.ListState;
 import org.apache.flink.api.common.state.ListStateDescriptor;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.metrics.Gauge;
 import org.apache.flink.runtime.state.StateInitializationContext;
 import org.apache.flink.runtime.state.StateSnapshotContext;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream.OutputMode;
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryPredicate;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.graph.StreamConfig;
 import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
@@ -36,6 +41,7 @@ import org.apache.flink.streaming.api.operators.ChainingStrategy;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.api.operators.Output;
 import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.api.operators.async.queue.KeyOrderedStreamElementQueue;
 import org.apache.flink.streaming.api.operators.async.queue.OrderedStreamElementQueue;
 import org.apache.flink.streaming.api.operators.async.queue.StreamElementQueue;
 import org.apache.flink.streaming.api.operators.async.queue.UnorderedStreamElementQueue;
@@ -45,9 +51,11 @@ import org.apache.flink.streaming.runtime.streamrecord.StreamElementSerializer;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
 import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.streaming.util.retryable.AsyncRetryStrategies;
 import org.apache.flink.util.Preconditions;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -68,6 +76,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * {@link StreamElement} in it's operator state. Upon recovery the recorded set of stream elements
  * is replayed.
  *
+ * <p>Failed or unsatisfying results can be retried according to an {@link AsyncRetryStrategy}; the
+ * timeout covers all attempts of a record. Optionally, the number of in-flight records is limited
+ * by an {@link AsyncAdaptiveCapacity} that adapts to the observed latency of the attempts.
+ *
  * <p>In case of chaining of this operator, it has to be made sure that the operators in the chain
  * are opened tail to head. The reason for this is that an opened {@link AsyncWaitOperator} starts
  * already emitting recovered {@link StreamElement} to downstream operators.
@@ -89,9 +101,24 @@ public class AsyncWaitOperator<IN, OUT>
     /** Output mode for this operator. */
     private final AsyncDataStream.OutputMode outputMode;
 
+    /** Key selector for the {@link OutputMode#KEY_ORDERED} output mode, null otherwise. */
+    @Nullable private final KeySelector<IN, ?> keySelector;
+
     /** Timeout for the async collectors. */
     private final long timeout;
 
+    /** Strategy to retry failed or unsatisfying attempts with. */
+    private final AsyncRetryStrategy<OUT> asyncRetryStrategy;
+
+    /** Optional adaptive limit of in-flight records. */
+    @Nullable private final AsyncAdaptiveCapacity adaptiveCapacity;
+
+    /** Tracks the adaptive in-flight limit, null if no adaptive capacity is configured. */
+    @Nullable private transient AimdCapacityLimiter capacityLimiter;
+
+    /** Number of records whose final result is still pending. */
+    private transient int inFlightRecords;
+
     /** {@link TypeSerializer} for inputs while making snapshots. */
     private transient StreamElementSerializer<IN> inStreamElementSerializer;
 
@@ -116,6 +143,47 @@ public class AsyncWaitOperator<IN, OUT>
             @Nonnull AsyncDataStream.OutputMode outputMode,
             @Nonnull ProcessingTimeService processingTimeService,
             @Nonnull MailboxExecutor mailboxExecutor) {
+        this(
+                asyncFunction,
+                timeout,
+                capacity,
+                outputMode,
+                null,
+                processingTimeService,
+                mailboxExecutor);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncWaitOperator(
+            @Nonnull AsyncFunction<IN, OUT> asyncFunction,
+            long timeout,
+            int capacity,
+            @Nonnull AsyncDataStream.OutputMode outputMode,
+            @Nullable KeySelector<IN, ?> keySelector,
+            @Nonnull ProcessingTimeService processingTimeService,
+            @Nonnull MailboxExecutor mailboxExecutor) {
+        this(
+                asyncFunction,
+                timeout,
+                capacity,
+                outputMode,
+                keySelector,
+                AsyncRetryStrategies.NO_RETRY_STRATEGY,
+                null,
+                processingTimeService,
+                mailboxExecutor);
+    }
+
+    public AsyncWaitOperator(
+            @Nonnull AsyncFunction<IN, OUT> asyncFunction,
+            long timeout,
+            int capacity,
+            @Nonnull AsyncDataStream.OutputMode outputMode,
+            @Nullable KeySelector<IN, ?> keySelector,
+            @Nonnull AsyncRetryStrategy<OUT> asyncRetryStrategy,
+            @Nullable AsyncAdaptiveCapacity adaptiveCapacity,
+            @Nonnull ProcessingTimeService processingTimeService,
+            @Nonnull MailboxExecutor mailboxExecutor) {
         super(asyncFunction);
 
         setChainingStrategy(ChainingStrategy.ALWAYS);
@@ -126,8 +194,20 @@ public class AsyncWaitOperator<IN, OUT>
 
         this.outputMode = Preconditions.checkNotNull(outputMode, "outputMode");
 
+        Preconditions.checkArgument(
+                outputMode != OutputMode.KEY_ORDERED || keySelector != null,
+                "The key ordered output mode requires a key selector.");
+        this.keySelector = keySelector;
+
         this.timeout = timeout;
 
+        this.asyncRetryStrategy = Preconditions.checkNotNull(asyncRetryStrategy);
+
+        Preconditions.checkArgument(
+                adaptiveCapacity == null || adaptiveCapacity.getMaxCapacity() <= capacity,
+                "The maximum adaptive capacity should not exceed the capacity.");
+        this.adaptiveCapacity = adaptiveCapacity;
+
         this.processingTimeService = Preconditions.checkNotNull(processingTimeService);
 
         this.mailboxExecutor = mailboxExecutor;
@@ -151,6 +231,9 @@ public class AsyncWaitOperator<IN, OUT>
             case UNORDERED:
                 queue = new UnorderedStreamElementQueue<>(capacity);
                 break;
+            case KEY_ORDERED:
+                queue = new KeyOrderedStreamElementQueue<>(capacity, keySelector);
+                break;
             default:
                 throw new IllegalStateException("Unknown async mode: " + outputMode + '.');
         }
@@ -164,6 +247,12 @@ public class AsyncWaitOperator<IN, OUT>
 
         this.isObjectReuseEnabled = getExecutionConfig().isObjectReuseEnabled();
 
+        if (adaptiveCapacity != null) {
+            capacityLimiter = new AimdCapacityLimiter(adaptiveCapacity);
+            getMetricGroup()
+                    .gauge("asyncCapacityLimit", (Gauge<Integer>) capacityLimiter::getLimit);
+        }
+
         if (recoveredStreamElements != null) {
             for (StreamElement element : recoveredStreamElements.get()) {
                 if (element.isRecord()) {
@@ -194,17 +283,25 @@ public class AsyncWaitOperator<IN, OUT>
             element = record;
         }
 
+        // respect the adaptive limit of in-flight records
+        if (capacityLimiter != null) {
+            while (inFlightRecords >= capacityLimiter.getLimit()) {
+                mailboxExecutor.yield();
+            }
+        }
+
         // add element first to the queue
         final ResultFuture<OUT> entry = addToWorkQueue(element);
 
         final ResultHandler resultHandler = new ResultHandler(element, entry);
+        inFlightRecords++;
 
         // register a timeout for the entry if timeout is configured
         if (timeout > 0L) {
             resultHandler.registerTimeout(getProcessingTimeService(), timeout);
         }
 
-        userFunction.asyncInvoke(element.getValue(), resultHandler);
+        resultHandler.invoke();
     }
 
     @Override
@@ -318,8 +415,16 @@ public class AsyncWaitOperator<IN, OUT>
         }
     }
 
-    /** A handler for the results of a specific input record. */
-    private class ResultHandler implements ResultFuture<OUT> {
+    /**
+     * A handler for the results of a specific input record. It invokes the {@link AsyncFunction},
+     * possibly several times if a retry strategy is configured, and hands the final result to the
+     * queue entry of the record.
+     *
+     * <p>Apart from the {@link AttemptResultFuture#complete(Collection)} and {@link
+     * AttemptResultFuture#completeExceptionally(Throwable)} calls of the user code, all methods of
+     * this class are executed in the mailbox thread.
+     */
+    private class ResultHandler {
         /** Optional timeout timer used to signal the timeout to the AsyncFunction. */
         private ScheduledFuture<?> timeoutTimer;
         /** Record for which this result handler exists. Used only to report errors. */
@@ -329,42 +434,135 @@ public class AsyncWaitOperator<IN, OUT>
          * result; exceptions are handled here.
          */
         private final ResultFuture<OUT> resultFuture;
+        /** The attempt whose outcome is awaited, null while a delayed retry is pending. */
+        @Nullable private AttemptResultFuture currentAttempt;
         /**
-         * A guard against ill-written AsyncFunction. Additional (parallel) invokations of {@link
-         * #complete(Collection)} or {@link #completeExceptionally(Throwable)} will be ignored. This
-         * guard also helps for cases where proper results and timeouts happen at the same time.
+         * The attempt which was in flight when the timeout expired. Its result is still accepted,
+         * as {@link AsyncFunction#timeout} may leave the record to it.
          */
-        private final AtomicBoolean completed = new AtomicBoolean(false);
+        @Nullable private AttemptResultFuture timedOutAttempt;
+        /** The number of attempts made so far. */
+        private int currentAttempts;
+        /** Whether the overall timeout has expired, which rules out further retries. */
+        private boolean timeoutExpired;
+        /** Whether the final result has been handed to the queue entry. */
+        private boolean completed;
 
         ResultHandler(StreamRecord<IN> inputRecord, ResultFuture<OUT> resultFuture) {
             this.inputRecord = inputRecord;
             this.resultFuture = resultFuture;
         }
 
-        @Override
-        public void complete(Collection<OUT> results) {
-            Preconditions.checkNotNull(
-                    results, "Results must not be null, use empty collection to emit nothing");
-
-            // already completed (exceptionally or with previous complete call from ill-written
-            // AsyncFunction), so
-            // ignore additional result
-            if (!completed.compareAndSet(false, true)) {
-                return;
-            }
-
-            processInMailbox(results);
+        private void invoke() throws Exception {
+            currentAttempts++;
+            currentAttempt = new AttemptResultFuture(this, currentAttempts, false);
+            userFunction.asyncInvoke(inputRecord.getValue(), currentAttempt);
         }
 
-        private void processInMailbox(Collection<OUT> results) {
+        private void processInMailbox(
+                AttemptResultFuture attempt,
+                @Nullable Collection<OUT> results,
+                @Nullable Throwable error,
+                boolean retryRequested) {
             // move further processing into the mailbox thread
             mailboxExecutor.execute(
-                    () -> processResults(results),
+                    () -> processAttempt(attempt, results, error, retryRequested),
                     "Result in AsyncWaitOperator of input %s",
                     results);
         }
 
+        private void processAttempt(
+                AttemptResultFuture attempt,
+                @Nullable Collection<OUT> results,
+                @Nullable Throwable error,
+                boolean retryRequested) {
+            // results of superseded attempts are ignored
+            if (completed || (attempt != currentAttempt && attempt != timedOutAttempt)) {
+                return;
+            }
+
+            // no further attempts once the overall timeout has expired
+            final boolean retry = retryRequested && !timeoutExpired;
+            // a timed out attempt has been reported to the capacity limiter already
+            if (capacityLimiter != null
+                    && !attempt.isTimeoutAttempt
+                    && attempt != timedOutAttempt) {
+                capacityLimiter.onAttemptCompleted(
+                        attempt.epoch,
+                        getProcessingTimeService().getCurrentProcessingTime() - attempt.startTime,
+                        error != null);
+            }
+
+            if (retry) {
+                scheduleRetry();
+            } else if (error != null) {
+                if (retryRequested) {
+                    // the failure has not been signalled when the attempt completed
+                    failExternally(error);
+                }
+
+                // complete with empty result, so that we remove timer and move ahead processing
+                // (to leave potentially blocking section in #addToWorkQueue or
+                // #waitInFlightInputsFinished)
+                processResults(Collections.emptyList());
+            } else {
+                processResults(results);
+            }
+        }
+
+        private void failExternally(Throwable error) {
+            // signal failure through task
+            getContainingTask()
+                    .getEnvironment()
+                    .failExternally(
+                            new Exception(
+                                    "Could not complete the stream element: " + inputRecord + '.',
+                                    error));
+        }
+
+        /**
+         * Evaluates the retry strategy for the outcome of the given attempt. Thread-safe, so that
+         * non-retryable failures can be signalled right away.
+         */
+        private boolean shouldRetry(
+                int attemptNumber, @Nullable Collection<OUT> results, @Nullable Throwable error) {
+            if (!asyncRetryStrategy.canRetry(attemptNumber)) {
+                return false;
+            }
+            final AsyncRetryPredicate<OUT> retryPredicate = asyncRetryStrategy.getRetryPredicate();
+            if (error != null) {
+                return retryPredicate
+                        .exceptionPredicate()
+                        .map(predicate -> predicate.test(error))
+                        .orElse(false);
+            } else {
+                return retryPredicate
+                        .resultPredicate()
+                        .map(predicate -> predicate.test(results))
+                        .orElse(false);
+            }
+        }
+
+        private void scheduleRetry() {
+            currentAttempt = null;
+            final ProcessingTimeService processingTimeService = getProcessingTimeService();
+            final long retryTimestamp =
+                    asyncRetryStrategy.getBackoffTimeMillis(currentAttempts)
+                            + processingTimeService.getCurrentProcessingTime();
+            processingTimeService.registerTimer(retryTimestamp, timestamp -> retryTriggered());
+        }
+
+        private void retryTriggered() throws Exception {
+            // the timeout may have fired while the retry was pending
+            if (!completed && currentAttempt == null) {
+                invoke();
+            }
+        }
+
         private void processResults(Collection<OUT> results) {
+            completed = true;
+            inFlightRecords--;
+
             // Cancel the timer once we've completed the stream record buffer entry. This will
             // remove the registered
             // timer task
@@ -381,27 +579,6 @@ public class AsyncWaitOperator<IN, OUT>
             outputCompletedElement();
         }
 
-        @Override
-        public void completeExceptionally(Throwable error) {
-            // already completed, so ignore exception
-            if (!completed.compareAndSet(false, true)) {
-                return;
-            }
-
-            // signal failure through task
-            getContainingTask()
-                    .getEnvironment()
-                    .failExternally(
-                            new Exception(
-                                    "Could not complete the stream element: " + inputRecord + '.',
-                                    error));
-
-            // complete with empty result, so that we remove timer and move ahead processing (to
-            // leave potentially
-            // blocking section in #addToWorkQueue or #waitInFlightInputsFinished)
-            processInMailbox(Collections.emptyList());
-        }
-
         public void registerTimeout(ProcessingTimeService processingTimeService, long timeout) {
             final long timeoutTimestamp =
                     timeout + processingTimeService.getCurrentProcessingTime();
@@ -412,9 +589,82 @@ public class AsyncWaitOperator<IN, OUT>
         }
 
         private void timerTriggered() throws Exception {
-            if (!completed.get()) {
-                userFunction.timeout(inputRecord.getValue(), this);
+            if (completed) {
+                return;
+            }
+            timeoutExpired = true;
+            if (currentAttempt != null && currentAttempt.completed.get()) {
+                // the result of the current attempt is already on its way through the mailbox
+                return;
+            }
+            if (capacityLimiter != null && currentAttempt != null) {
+                capacityLimiter.onAttemptCompleted(currentAttempt.epoch, timeout, true);
             }
+            timedOutAttempt = currentAttempt;
+            currentAttempt = new AttemptResultFuture(this, currentAttempts, true);
+            userFunction.timeout(inputRecord.getValue(), currentAttempt);
+        }
+    }
+
+    /** The {@link ResultFuture} handed to the user code for a single attempt. */
+    private class AttemptResultFuture implements ResultFuture<OUT> {
+        private final ResultHandler handler;
+        /** The number of this attempt, starting with 1. */
+        private final int attemptNumber;
+        /** Whether this attempt is the invocation of {@link AsyncFunction#timeout}. */
+        private final boolean isTimeoutAttempt;
+        /** The processing time at which this attempt has been issued. */
+        private final long startTime;
+        /** The epoch of the capacity limiter at which this attempt has been issued. */
+        private final long epoch;
+        /**
+         * A guard against ill-written AsyncFunction. Additional (parallel) invokations of {@link
+         * #complete(Collection)} or {@link #completeExceptionally(Throwable)} will be ignored. This
+         * guard also helps for cases where proper results and timeouts happen at the same time.
+         */
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        AttemptResultFuture(ResultHandler handler, int attemptNumber, boolean isTimeoutAttempt) {
+            this.handler = handler;
+            this.attemptNumber = attemptNumber;
+            this.isTimeoutAttempt = isTimeoutAttempt;
+            this.startTime = getProcessingTimeService().getCurrentProcessingTime();
+            this.epoch = capacityLimiter != null ? capacityLimiter.getEpoch() : 0L;
+        }
+
+        @Override
+        public void complete(Collection<OUT> results) {
+            Preconditions.checkNotNull(
+                    results, "Results must not be null, use empty collection to emit nothing");
+
+            // already completed (exceptionally or with previous complete call from ill-written
+            // AsyncFunction), so
+            // ignore additional result
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            handler.processInMailbox(
+                    this,
+                    results,
+                    null,
+                    !isTimeoutAttempt && handler.shouldRetry(attemptNumber, results, null));
+        }
+
+        @Override
+        public void completeExceptionally(Throwable error) {
+            // already completed, so ignore exception
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            final boolean retryRequested =
+                    !isTimeoutAttempt && handler.shouldRetry(attemptNumber, null, error);
+            if (!retryRequested) {
+                handler.failExternally(error);
+            }
+
+            handler.processInMailbox(this, null, error, retryRequested);
         }
     }
 }
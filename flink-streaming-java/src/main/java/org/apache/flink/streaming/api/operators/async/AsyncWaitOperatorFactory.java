@@ -17,14 +17,20 @@
 
 package org.apache.flink.streaming.api.operators.async;
 
+import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream;
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperatorFactory;
 import org.apache.flink.streaming.api.operators.ChainingStrategy;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
 import org.apache.flink.streaming.api.operators.StreamOperator;
 import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
 import org.apache.flink.streaming.api.operators.YieldingOperatorFactory;
+import org.apache.flink.streaming.util.retryable.AsyncRetryStrategies;
+
+import javax.annotation.Nullable;
 
 /**
  * The factory of {@link AsyncWaitOperator}.
@@ -38,16 +44,50 @@ public class AsyncWaitOperatorFactory<IN, OUT> extends AbstractStreamOperatorFac
     private final long timeout;
     private final int capacity;
     private final AsyncDataStream.OutputMode outputMode;
+    @Nullable private final KeySelector<IN, ?> keySelector;
+    private final AsyncRetryStrategy<OUT> asyncRetryStrategy;
+    @Nullable private final AsyncAdaptiveCapacity adaptiveCapacity;
 
     public AsyncWaitOperatorFactory(
             AsyncFunction<IN, OUT> asyncFunction,
             long timeout,
             int capacity,
             AsyncDataStream.OutputMode outputMode) {
+        this(asyncFunction, timeout, capacity, outputMode, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncWaitOperatorFactory(
+            AsyncFunction<IN, OUT> asyncFunction,
+            long timeout,
+            int capacity,
+            AsyncDataStream.OutputMode outputMode,
+            @Nullable KeySelector<IN, ?> keySelector) {
+        this(
+                asyncFunction,
+                timeout,
+                capacity,
+                outputMode,
+                keySelector,
+                AsyncRetryStrategies.NO_RETRY_STRATEGY,
+                null);
+    }
+
+    public AsyncWaitOperatorFactory(
+            AsyncFunction<IN, OUT> asyncFunction,
+            long timeout,
+            int capacity,
+            AsyncDataStream.OutputMode outputMode,
+            @Nullable KeySelector<IN, ?> keySelector,
+            AsyncRetryStrategy<OUT> asyncRetryStrategy,
+            @Nullable AsyncAdaptiveCapacity adaptiveCapacity) {
         this.asyncFunction = asyncFunction;
         this.timeout = timeout;
         this.capacity = capacity;
         this.outputMode = outputMode;
+        this.keySelector = keySelector;
+        this.asyncRetryStrategy = asyncRetryStrategy;
+        this.adaptiveCapacity = adaptiveCapacity;
         this.chainingStrategy = ChainingStrategy.ALWAYS;
     }
 
@@ -60,6 +100,9 @@ public class AsyncWaitOperatorFactory<IN, OUT> extends AbstractStreamOperatorFac
                         timeout,
                         capacity,
                         outputMode,
+                        keySelector,
+                        asyncRetryStrategy,
+                        adaptiveCapacity,
                         processingTimeService,
                         getMailboxExecutor());
         asyncWaitOperator.setup(
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.async.queue;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.Preconditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Key ordered implementation of the {@link StreamElementQueue}. The queue emits the results of
+ * stream records with the same key in the order in which the records were added, while the results
+ * of records with different keys are emitted as soon as they are completed. A slow record thus only
+ * holds back later records of its own key instead of all later records, as in the {@link
+ * OrderedStreamElementQueue}.
+ *
+ * <p>Like in the {@link UnorderedStreamElementQueue}, elements are logically grouped into segments
+ * separated by watermarks. A segment needs to be completely emitted before entries from a following
+ * segment are emitted, so no stream record can be overtaken by a watermark and no watermark can
+ * overtake a stream record.
+ *
+ * @param <IN> Type of the input records.
+ * @param <OUT> Type of the asynchronous collection result.
+ */
+@Internal
+public final class KeyOrderedStreamElementQueue<IN, OUT> implements StreamElementQueue<OUT> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyOrderedStreamElementQueue.class);
+
+    /** Capacity of this queue. */
+    private final int capacity;
+
+    /** Extracts the key of the input records, which determines their emission order. */
+    private final KeySelector<IN, ?> keySelector;
+
+    /** Queue of queue entries segmented by watermarks. */
+    private final Deque<Segment<OUT>> segments;
+
+    private int numberOfEntries;
+
+    public KeyOrderedStreamElementQueue(int capacity, KeySelector<IN, ?> keySelector) {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be larger than 0.");
+
+        this.capacity = capacity;
+        this.keySelector = Preconditions.checkNotNull(keySelector);
+        // most likely scenario are 4 segments <elements, watermark, elements, watermark>
+        this.segments = new ArrayDeque<>(4);
+        this.numberOfEntries = 0;
+    }
+
+    @Override
+    public Optional<ResultFuture<OUT>> tryPut(StreamElement streamElement) {
+        if (size() < capacity) {
+            StreamElementQueueEntry<OUT> queueEntry;
+            if (streamElement.isRecord()) {
+                queueEntry = addRecord(streamElement.asRecord());
+            } else if (streamElement.isWatermark()) {
+                queueEntry = addWatermark(streamElement.asWatermark());
+            } else {
+                throw new UnsupportedOperationException("Cannot enqueue " + streamElement);
+            }
+
+            numberOfEntries++;
+
+            LOG.debug(
+                    "Put element into key ordered stream element queue. New filling degree "
+                            + "({}/{}).",
+                    size(),
+                    capacity);
+
+            return Optional.of(queueEntry);
+        } else {
+            LOG.debug(
+                    "Failed to put element into key ordered stream element queue because it "
+                            + "was full ({}/{}).",
+                    size(),
+                    capacity);
+
+            return Optional.empty();
+        }
+    }
+
+    private StreamElementQueueEntry<OUT> addRecord(StreamRecord<IN> record) {
+        final Object key;
+        try {
+            key = keySelector.getKey(record.getValue());
+        } catch (Exception e) {
+            throw new FlinkRuntimeException("Could not extract the key of " + record + '.', e);
+        }
+
+        // ensure that there is at least one segment
+        Segment<OUT> lastSegment;
+        if (segments.isEmpty()) {
+            lastSegment = addSegment();
+        } else {
+            lastSegment = segments.getLast();
+        }
+
+        // entry is bound to segment to notify it easily upon completion
+        KeyedStreamRecordQueueEntry<OUT> queueEntry =
+                new KeyedStreamRecordQueueEntry<>(record, key, lastSegment);
+        lastSegment.addRecord(queueEntry);
+        return queueEntry;
+    }
+
+    private Segment<OUT> addSegment() {
+        Segment<OUT> newSegment = new Segment<>();
+        segments.addLast(newSegment);
+        return newSegment;
+    }
+
+    private StreamElementQueueEntry<OUT> addWatermark(Watermark watermark) {
+        Segment<OUT> watermarkSegment;
+        if (!segments.isEmpty() && segments.getLast().isEmpty()) {
+            // reuse already existing segment if possible (completely drained) or the new segment
+            // added at the end of this method for two succeeding watermarks
+            watermarkSegment = segments.getLast();
+        } else {
+            watermarkSegment = addSegment();
+        }
+
+        StreamElementQueueEntry<OUT> watermarkEntry = new WatermarkQueueEntry<>(watermark);
+        watermarkSegment.addWatermark(watermarkEntry);
+
+        // add a new segment for actual elements
+        addSegment();
+        return watermarkEntry;
+    }
+
+    @Override
+    public boolean hasCompletedElements() {
+        return !segments.isEmpty() && segments.getFirst().hasCompleted();
+    }
+
+    @Override
+    public void emitCompletedElement(TimestampedCollector<OUT> output) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        final Segment<OUT> currentSegment = segments.getFirst();
+        numberOfEntries -= currentSegment.emitCompleted(output);
+
+        // remove any segment if there are further segments, if not leave it as an optimization even
+        // if empty
+        if (segments.size() > 1 && currentSegment.isEmpty()) {
+            segments.pop();
+        }
+    }
+
+    @Override
+    public List<StreamElement> values() {
+        List<StreamElement> list = new ArrayList<>();
+        for (Segment<OUT> s : segments) {
+            s.addPendingElements(list);
+        }
+        return list;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return numberOfEntries == 0;
+    }
+
+    @Override
+    public int size() {
+        return numberOfEntries;
+    }
+
+    /** An entry that knows its key and notifies the respective segment upon completion. */
+    static class KeyedStreamRecordQueueEntry<OUT> extends StreamRecordQueueEntry<OUT> {
+        private final Object key;
+
+        private final Segment<OUT> segment;
+
+        KeyedStreamRecordQueueEntry(StreamRecord<?> inputRecord, Object key, Segment<OUT> segment) {
+            super(inputRecord);
+            this.key = key;
+            this.segment = segment;
+        }
+
+        @Override
+        public void complete(Collection<OUT> result) {
+            boolean wasDone = isDone();
+            super.complete(result);
+            // there may be a real result coming after a timeout result, which is updated in the
+            // entry but must not make the entry emittable twice
+            if (!wasDone) {
+                segment.completed(this);
+            }
+        }
+    }
+
+    /**
+     * A segment is a collection of queue entries between two watermarks. Entries of different keys
+     * can be emitted in arbitrary order, entries of the same key are emitted in insertion order.
+     *
+     * <p>All elements from one segment must be emitted before any element of the next segment is
+     * emitted.
+     */
+    static class Segment<OUT> {
+
+        /**
+         * Not yet emitted record entries per key in insertion order. Only the head of each queue
+         * may be emitted.
+         */
+        private final Map<Object, ArrayDeque<KeyedStreamRecordQueueEntry<OUT>>> entriesPerKey =
+                new HashMap<>();
+
+        /** Completed entries which are the head of their key, and watermarks. */
+        private final Queue<StreamElementQueueEntry<OUT>> emittableElements = new ArrayDeque<>();
+
+        /** Signals that a record entry finished computation. */
+        void completed(KeyedStreamRecordQueueEntry<OUT> entry) {
+            if (entriesPerKey.get(entry.key).peekFirst() == entry) {
+                emittableElements.add(entry);
+            }
+        }
+
+        /** True if there are no pending elements and all complete elements have been consumed. */
+        boolean isEmpty() {
+            return entriesPerKey.isEmpty() && emittableElements.isEmpty();
+        }
+
+        /**
+         * True if there is at least one emittable element, such that {@link
+         * #emitCompleted(TimestampedCollector)} will actually output an element.
+         */
+        boolean hasCompleted() {
+            return !emittableElements.isEmpty();
+        }
+
+        /**
+         * Adds the pending input elements of this segment for checkpointing including completed but
+         * not yet emitted elements. The elements of each key are added in insertion order.
+         */
+        void addPendingElements(List<StreamElement> results) {
+            for (StreamElementQueueEntry<OUT> element : emittableElements) {
+                if (!(element instanceof KeyedStreamRecordQueueEntry)) {
+                    results.add(element.getInputElement());
+                }
+            }
+            for (ArrayDeque<KeyedStreamRecordQueueEntry<OUT>> entries : entriesPerKey.values()) {
+                for (KeyedStreamRecordQueueEntry<OUT> entry : entries) {
+                    results.add(entry.getInputElement());
+                }
+            }
+        }
+
+        /**
+         * Pops one emittable element into the given output. Emitting the head of a key makes the
+         * next entry of the key emittable if it is already completed.
+         *
+         * @return the number of popped input elements.
+         */
+        int emitCompleted(TimestampedCollector<OUT> output) {
+            final StreamElementQueueEntry<OUT> completedEntry = emittableElements.poll();
+            if (completedEntry == null) {
+                return 0;
+            }
+            completedEntry.emitResult(output);
+
+            if (completedEntry instanceof KeyedStreamRecordQueueEntry) {
+                Object key = ((KeyedStreamRecordQueueEntry<OUT>) completedEntry).key;
+                ArrayDeque<KeyedStreamRecordQueueEntry<OUT>> entries = entriesPerKey.get(key);
+                entries.pollFirst();
+                KeyedStreamRecordQueueEntry<OUT> next = entries.peekFirst();
+                if (next == null) {
+                    entriesPerKey.remove(key);
+                } else if (next.isDone()) {
+                    emittableElements.add(next);
+                }
+            }
+            return 1;
+        }
+
+        /** Adds the given record entry to this segment behind the entries of the same key. */
+        void addRecord(KeyedStreamRecordQueueEntry<OUT> queueEntry) {
+            ArrayDeque<KeyedStreamRecordQueueEntry<OUT>> entries =
+                    entriesPerKey.computeIfAbsent(queueEntry.key, k -> new ArrayDeque<>());
+            entries.addLast(queueEntry);
+            if (entries.size() == 1 && queueEntry.isDone()) {
+                emittableElements.add(queueEntry);
+            }
+        }
+
+        /** Adds the given watermark entry to this segment, which is always emittable. */
+        void addWatermark(StreamElementQueueEntry<OUT> watermarkEntry) {
+            emittableElements.add(watermarkEntry);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.state.internal.InternalMapState;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.concurrent.ExecutorThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Base class for keyed one-input operators which access their keyed state asynchronously. The
+ * blocking part of state reads, e.g. the lookup in RocksDB, is executed on a thread pool of the
+ * operator, so that the task thread can keep many reads in flight and process other records in the
+ * meantime. The callbacks of the reads run on the task thread through the mailbox.
+ *
+ * <p>Subclasses implement {@link #processElementAsync(StreamRecord)} and obtain their states in
+ * {@link #open()}, after calling the method of this class, with {@link
+ * #getAsyncValueState(ValueStateDescriptor)} and {@link #getAsyncMapState(MapStateDescriptor)}. The
+ * records of one key are processed in order: a record whose key has reads in flight is deferred
+ * until those reads and the reads issued by their callbacks completed. Watermarks, checkpoint
+ * barriers and the end of input wait for all in-flight reads, so that snapshots and downstream
+ * operators observe the effects of all preceding records.
+ *
+ * <p>State backends which cannot split their reads, e.g. the heap state backend, complete the reads
+ * right away on the task thread. Processing-time timers are not ordered with the in-flight reads,
+ * so they should only access the state of keys asynchronously as well.
+ *
+ * @param <IN> The input type of the operator.
+ * @param <OUT> The output type of the operator.
+ */
+@PublicEvolving
+public abstract class AbstractAsyncStateStreamOperator<IN, OUT> extends AbstractStreamOperator<OUT>
+        implements OneInputStreamOperator<IN, OUT> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_READ_THREADS = 4;
+
+    public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1000;
+
+    private final int readThreads;
+
+    private final int maxInFlightRequests;
+
+    /** Copies deferred elements if object reuse is enabled, null otherwise. */
+    private transient TypeSerializer<IN> inputSerializer;
+
+    private transient ExecutorService readExecutor;
+
+    private transient AsyncStateController asyncStateController;
+
+    protected AbstractAsyncStateStreamOperator() {
+        this(DEFAULT_READ_THREADS, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+    }
+
+    /**
+     * @param readThreads The number of threads that execute the blocking part of state reads.
+     * @param maxInFlightRequests The maximum number of in-flight reads plus deferred records,
+     *     beyond which the operator stops processing input until reads completed.
+     */
+    protected AbstractAsyncStateStreamOperator(int readThreads, int maxInFlightRequests) {
+        checkArgument(readThreads > 0, "The number of read threads must be positive.");
+        checkArgument(
+                maxInFlightRequests > 0, "The number of in-flight requests must be positive.");
+        this.readThreads = readThreads;
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        checkState(
+                getKeyedStateBackend() != null,
+                "Async state access is only supported on keyed streams.");
+        if (getExecutionConfig().isObjectReuseEnabled()) {
+            this.inputSerializer =
+                    getOperatorConfig().getTypeSerializerIn1(getUserCodeClassloader());
+        }
+
+        MailboxExecutor mailboxExecutor =
+                getContainingTask()
+                        .getMailboxExecutorFactory()
+                        .createExecutor(getOperatorConfig().getChainIndex());
+        this.readExecutor =
+                Executors.newFixedThreadPool(
+                        readThreads,
+                        new ExecutorThreadFactory("async-state-read-" + getOperatorName()));
+        this.asyncStateController =
+                new AsyncStateController(this, mailboxExecutor, readExecutor, maxInFlightRequests);
+    }
+
+    /**
+     * Processes one element with the current key. The processing of elements whose key has state
+     * reads in flight is deferred, so this method may be called after later elements of other keys
+     * were processed.
+     */
+    protected abstract void processElementAsync(StreamRecord<IN> element) throws Exception;
+
+    @Override
+    public final void processElement(StreamRecord<IN> element) throws Exception {
+        // the element may be processed later, so it must not be reused by the input
+        StreamRecord<IN> record =
+                inputSerializer != null
+                        ? element.copy(inputSerializer.copy(element.getValue()))
+                        : element;
+        asyncStateController.processRecord(() -> processElementAsync(record));
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        asyncStateController.drainInFlightRequests();
+        super.processWatermark(mark);
+    }
+
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        asyncStateController.drainInFlightRequests();
+        super.prepareSnapshotPreBarrier(checkpointId);
+    }
+
+    @Override
+    public void finish() throws Exception {
+        asyncStateController.drainInFlightRequests();
+        super.finish();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            if (readExecutor != null) {
+                readExecutor.shutdownNow();
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    /** Returns the value state of the given descriptor, whose reads are asynchronous. */
+    protected <T> AsyncValueState<T> getAsyncValueState(ValueStateDescriptor<T> stateDescriptor)
+            throws Exception {
+        ValueState<T> state = getPartitionedState(stateDescriptor);
+        checkState(
+                state instanceof InternalValueState,
+                "The state backend returned an unsupported state %s.",
+                state.getClass());
+        return new AsyncValueState<>(asyncStateController, (InternalValueState<?, ?, T>) state);
+    }
+
+    /** Returns the map state of the given descriptor, whose point reads are asynchronous. */
+    protected <UK, UV> AsyncMapState<UK, UV> getAsyncMapState(
+            MapStateDescriptor<UK, UV> stateDescriptor) throws Exception {
+        MapState<UK, UV> state = getPartitionedState(stateDescriptor);
+        checkState(
+                state instanceof InternalMapState,
+                "The state backend returned an unsupported state %s.",
+                state.getClass());
+        return new AsyncMapState<>(asyncStateController, (InternalMapState<?, ?, UK, UV>) state);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.runtime.state.internal.InternalMapState;
+
+/**
+ * A keyed map state whose point reads are executed asynchronously, see {@link
+ * AbstractAsyncStateStreamOperator#getAsyncMapState}. Writes are applied synchronously.
+ *
+ * @param <UK> Type of the keys in the state.
+ * @param <UV> Type of the values in the state.
+ */
+@PublicEvolving
+public final class AsyncMapState<UK, UV> {
+
+    private final AsyncStateController controller;
+
+    private final InternalMapState<?, ?, UK, UV> state;
+
+    AsyncMapState(AsyncStateController controller, InternalMapState<?, ?, UK, UV> state) {
+        this.controller = controller;
+        this.state = state;
+    }
+
+    /**
+     * Reads the value of the given user key under the current key. The read observes all writes
+     * issued before it, and may or may not observe writes issued while it is in flight.
+     *
+     * @return the future which is completed with the value, or null if there is none.
+     */
+    public StateFuture<UV> asyncGet(UK userKey) throws Exception {
+        return controller.read(state.prepareGet(userKey));
+    }
+
+    /** Associates a new value with the given user key under the current key. */
+    public void put(UK userKey, UV userValue) throws Exception {
+        state.put(userKey, userValue);
+    }
+
+    /** Removes the given user key under the current key. */
+    public void remove(UK userKey) throws Exception {
+        state.remove(userKey);
+    }
+
+    /** Removes all user keys under the current key. */
+    public void clear() {
+        state.clear();
+    }
+}
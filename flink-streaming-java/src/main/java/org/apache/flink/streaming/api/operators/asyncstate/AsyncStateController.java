@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
+import org.apache.flink.streaming.api.operators.KeyContext;
+import org.apache.flink.util.FlinkException;
+import org.apache.flink.util.function.ThrowingRunnable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Executes the blocking part of keyed state reads on a separate executor while the task thread
+ * keeps processing records, and completes the reads on the task thread through the mailbox.
+ *
+ * <p>The controller preserves the processing order per key: while a key has reads in flight, the
+ * processing of further records with that key is deferred until all of them completed, including
+ * the reads issued by their callbacks. Records of other keys are processed right away. The
+ * controller bounds the number of in-flight reads and deferred records, processing mails while the
+ * bound is reached.
+ *
+ * <p>Callers have to wait for all in-flight reads with {@link #drainInFlightRequests()} before they
+ * forward watermarks or checkpoint barriers, so that the effects of all records before them are
+ * visible downstream and in the snapshot.
+ *
+ * <p>IMPORTANT: All methods have to be called from the task thread.
+ */
+@Internal
+public class AsyncStateController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncStateController.class);
+
+    private final KeyContext keyContext;
+
+    private final MailboxExecutor mailboxExecutor;
+
+    private final Executor readExecutor;
+
+    /** The maximum number of in-flight reads plus deferred records. */
+    private final int maxInFlightRequests;
+
+    /** The keys with reads in flight, and the records deferred for them. */
+    private final Map<Object, KeyAccount> occupiedKeys = new HashMap<>();
+
+    private int inFlightRequests;
+
+    private int deferredRecords;
+
+    public AsyncStateController(
+            KeyContext keyContext,
+            MailboxExecutor mailboxExecutor,
+            Executor readExecutor,
+            int maxInFlightRequests) {
+        checkArgument(
+                maxInFlightRequests > 0, "The number of in-flight requests must be positive.");
+        this.keyContext = checkNotNull(keyContext);
+        this.mailboxExecutor = checkNotNull(mailboxExecutor);
+        this.readExecutor = checkNotNull(readExecutor);
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    /**
+     * Runs the processing of a record with the current key, or defers it until the reads in flight
+     * for the key completed.
+     */
+    public void processRecord(ThrowingRunnable<? extends Exception> processing) throws Exception {
+        Object key = keyContext.getCurrentKey();
+        if (inFlightRequests + deferredRecords >= maxInFlightRequests) {
+            while (inFlightRequests + deferredRecords >= maxInFlightRequests) {
+                mailboxExecutor.yield();
+            }
+            // completed reads set their own key
+            keyContext.setCurrentKey(key);
+        }
+
+        KeyAccount account = occupiedKeys.get(key);
+        if (account != null) {
+            account.deferredRecords.add(processing);
+            deferredRecords++;
+        } else {
+            processing.run();
+        }
+    }
+
+    /**
+     * Issues a prepared read of the state under the current key. The blocking part of the read is
+     * executed on the read executor, unless the read was already served from memory.
+     *
+     * @return the future which is completed with the value on the task thread.
+     */
+    public <T> StateFuture<T> read(InternalStateRead<T> read) throws Exception {
+        if (!read.requiresFetch()) {
+            return StateFuture.completedFuture(read.complete());
+        }
+
+        Object key = keyContext.getCurrentKey();
+        KeyAccount account = occupiedKeys.computeIfAbsent(key, KeyAccount::new);
+        account.pendingRequests++;
+        inFlightRequests++;
+
+        StateFuture<T> future = new StateFuture<>();
+        readExecutor.execute(
+                () -> {
+                    Throwable failure = null;
+                    try {
+                        read.fetch();
+                    } catch (Throwable t) {
+                        failure = t;
+                    }
+                    final Throwable fetchFailure = failure;
+                    try {
+                        mailboxExecutor.execute(
+                                () -> completeRead(account, read, future, fetchFailure),
+                                "async state read");
+                    } catch (RejectedExecutionException e) {
+                        LOG.debug(
+                                "The mailbox rejected the completion of an async state read, "
+                                        + "the task is shutting down.",
+                                e);
+                    }
+                });
+        return future;
+    }
+
+    /** Processes mails until all in-flight reads and their deferred records are completed. */
+    public void drainInFlightRequests() throws Exception {
+        while (inFlightRequests > 0) {
+            mailboxExecutor.yield();
+        }
+    }
+
+    @VisibleForTesting
+    int getInFlightRequests() {
+        return inFlightRequests;
+    }
+
+    @VisibleForTesting
+    int getDeferredRecords() {
+        return deferredRecords;
+    }
+
+    private <T> void completeRead(
+            KeyAccount account, InternalStateRead<T> read, StateFuture<T> future, Throwable failure)
+            throws Exception {
+        inFlightRequests--;
+        if (failure != null) {
+            throw new FlinkException("Could not read keyed state asynchronously.", failure);
+        }
+
+        keyContext.setCurrentKey(account.key);
+        future.complete(read.complete());
+
+        // callbacks may have issued further reads for the key
+        account.pendingRequests--;
+        while (account.pendingRequests == 0) {
+            ThrowingRunnable<? extends Exception> processing = account.deferredRecords.poll();
+            if (processing == null) {
+                occupiedKeys.remove(account.key);
+                return;
+            }
+            deferredRecords--;
+            keyContext.setCurrentKey(account.key);
+            processing.run();
+        }
+    }
+
+    /** The reads in flight for a key and the records deferred until they completed. */
+    private static final class KeyAccount {
+
+        private final Object key;
+
+        private final ArrayDeque<ThrowingRunnable<? extends Exception>> deferredRecords =
+                new ArrayDeque<>();
+
+        private int pendingRequests;
+
+        private KeyAccount(Object key) {
+            this.key = key;
+        }
+    }
+}
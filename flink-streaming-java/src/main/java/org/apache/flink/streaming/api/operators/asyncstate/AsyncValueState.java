@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+
+import java.io.IOException;
+
+/**
+ * A keyed value state whose reads are executed asynchronously, see {@link
+ * AbstractAsyncStateStreamOperator#getAsyncValueState}. Writes are applied synchronously.
+ *
+ * @param <T> Type of the value in the state.
+ */
+@PublicEvolving
+public final class AsyncValueState<T> {
+
+    private final AsyncStateController controller;
+
+    private final InternalValueState<?, ?, T> state;
+
+    AsyncValueState(AsyncStateController controller, InternalValueState<?, ?, T> state) {
+        this.controller = controller;
+        this.state = state;
+    }
+
+    /**
+     * Reads the value under the current key. The read observes all writes issued before it, and may
+     * or may not observe writes issued while it is in flight.
+     *
+     * @return the future which is completed with the value, or the default value if there is none.
+     */
+    public StateFuture<T> asyncValue() throws Exception {
+        return controller.read(state.prepareValue());
+    }
+
+    /** Updates the value under the current key, null clears the value. */
+    public void update(T value) throws IOException {
+        state.update(value);
+    }
+
+    /** Removes the value under the current key. */
+    public void clear() {
+        state.clear();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.util.function.BiFunctionWithException;
+import org.apache.flink.util.function.FunctionWithException;
+import org.apache.flink.util.function.ThrowingConsumer;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * The result of an asynchronous keyed state access, see {@link AsyncValueState} and {@link
+ * AsyncMapState}.
+ *
+ * <p>In contrast to a {@link java.util.concurrent.CompletableFuture}, a state future is completed
+ * and runs its callbacks on the task thread only, with the key of the state access set as the
+ * current key. Callbacks may therefore access keyed state, emit records and issue further state
+ * accesses. Exceptions thrown by callbacks are not captured by the future but fail the task.
+ *
+ * <p>IMPORTANT: This class is not thread safe.
+ *
+ * @param <T> The type of the result.
+ */
+@PublicEvolving
+public final class StateFuture<T> {
+
+    private boolean done;
+
+    @Nullable private T value;
+
+    /** The callbacks to run on completion, null once the future is done. */
+    @Nullable private List<ThrowingConsumer<? super T, Exception>> callbacks = new ArrayList<>(1);
+
+    StateFuture() {}
+
+    /** Returns a future that is already completed with the given value. */
+    public static <T> StateFuture<T> completedFuture(@Nullable T value) {
+        StateFuture<T> future = new StateFuture<>();
+        future.done = true;
+        future.value = value;
+        future.callbacks = null;
+        return future;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /** Returns the result of the completed future. */
+    @Nullable
+    public T get() {
+        checkState(done, "The state future is not completed yet.");
+        return value;
+    }
+
+    /**
+     * Runs the given action with the result once the future is completed, right away if it is
+     * already completed.
+     *
+     * @return a future that is completed after the action ran.
+     */
+    public StateFuture<Void> thenAccept(ThrowingConsumer<? super T, ? extends Exception> action)
+            throws Exception {
+        StateFuture<Void> result = new StateFuture<>();
+        whenDone(
+                value -> {
+                    action.accept(value);
+                    result.complete(null);
+                });
+        return result;
+    }
+
+    /**
+     * Applies the given function to the result once the future is completed, right away if it is
+     * already completed.
+     *
+     * @return a future that is completed with the result of the function.
+     */
+    public <U> StateFuture<U> thenApply(
+            FunctionWithException<? super T, ? extends U, ? extends Exception> function)
+            throws Exception {
+        StateFuture<U> result = new StateFuture<>();
+        whenDone(value -> result.complete(function.apply(value)));
+        return result;
+    }
+
+    /**
+     * Applies the given function, which issues a further state access, to the result once the
+     * future is completed.
+     *
+     * @return a future that is completed with the result of the further state access.
+     */
+    public <U> StateFuture<U> thenCompose(
+            FunctionWithException<? super T, StateFuture<U>, ? extends Exception> function)
+            throws Exception {
+        StateFuture<U> result = new StateFuture<>();
+        whenDone(value -> function.apply(value).whenDone(result::complete));
+        return result;
+    }
+
+    /**
+     * Combines the result of this future with the result of the given future once both are
+     * completed.
+     *
+     * @return a future that is completed with the result of the function.
+     */
+    public <U, R> StateFuture<R> thenCombine(
+            StateFuture<? extends U> other,
+            BiFunctionWithException<? super T, ? super U, ? extends R, ? extends Exception>
+                    function)
+            throws Exception {
+        StateFuture<R> result = new StateFuture<>();
+        whenDone(
+                value ->
+                        other.whenDone(
+                                otherValue -> result.complete(function.apply(value, otherValue))));
+        return result;
+    }
+
+    /** Completes the future and runs all registered callbacks. */
+    void complete(@Nullable T value) throws Exception {
+        checkState(!done, "The state future is already completed.");
+        List<ThrowingConsumer<? super T, Exception>> toRun = callbacks;
+        this.done = true;
+        this.value = value;
+        this.callbacks = null;
+        for (ThrowingConsumer<? super T, Exception> callback : toRun) {
+            callback.accept(value);
+        }
+    }
+
+    private void whenDone(ThrowingConsumer<? super T, Exception> callback) throws Exception {
+        if (done) {
+            callback.accept(value);
+        } else {
+            callbacks.add(callback);
+        }
+    }
+}
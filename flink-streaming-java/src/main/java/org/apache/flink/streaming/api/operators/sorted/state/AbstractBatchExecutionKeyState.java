@@ -34,6 +34,7 @@ abstract class AbstractBatchExecutionKeyState<K, N, V> implements InternalKvStat
     private final TypeSerializer<N> namespaceSerializer;
 
     private final Map<N, V> valuesForNamespaces = new HashMap<>();
+    private K currentKey;
     private N currentNamespace;
     private V currentNamespaceValue;
 
@@ -49,12 +50,24 @@ abstract class AbstractBatchExecutionKeyState<K, N, V> implements InternalKvStat
     }
 
     V getOrDefault() {
-        if (currentNamespaceValue == null && defaultValue != null) {
-            return stateTypeSerializer.copy(defaultValue);
+        if (currentNamespaceValue == null) {
+            return getDefault();
         }
         return currentNamespaceValue;
     }
 
+    V getDefault() {
+        return defaultValue == null ? null : stateTypeSerializer.copy(defaultValue);
+    }
+
+    K getCurrentKey() {
+        return currentKey;
+    }
+
+    void setCurrentKey(K currentKey) {
+        this.currentKey = currentKey;
+    }
+
     public V getCurrentNamespaceValue() {
         return currentNamespaceValue;
     }
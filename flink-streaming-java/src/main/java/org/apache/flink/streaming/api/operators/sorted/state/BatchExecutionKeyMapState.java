@@ -24,9 +24,11 @@ import org.apache.flink.api.common.state.StateDescriptor;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.internal.InternalMapState;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /** A {@link MapState} which keeps value for a single key at a time. */
@@ -50,6 +52,15 @@ class BatchExecutionKeyMapState<K, N, UK, UV>
         return getCurrentNamespaceValue().get(key);
     }
 
+    @Override
+    public List<UV> multiGet(List<UK> keys) throws Exception {
+        List<UV> values = new ArrayList<>(keys.size());
+        for (UK key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
     @Override
     public void put(UK key, UV value) {
         initIfNull();
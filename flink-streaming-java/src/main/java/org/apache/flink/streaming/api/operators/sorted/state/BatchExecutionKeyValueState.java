@@ -24,6 +24,10 @@ import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.internal.InternalValueState;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 /** A {@link ValueState} which keeps value for a single key at a time. */
 class BatchExecutionKeyValueState<K, N, T> extends AbstractBatchExecutionKeyState<K, N, T>
         implements InternalValueState<K, N, T> {
@@ -41,6 +45,19 @@ class BatchExecutionKeyValueState<K, N, T> extends AbstractBatchExecutionKeyStat
         return getOrDefault();
     }
 
+    /**
+     * Only the state of the current key is kept, the state of any other key was either already
+     * discarded or not created yet, because the input is sorted by key.
+     */
+    @Override
+    public List<T> multiGet(List<K> keys) {
+        List<T> values = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            values.add(Objects.equals(key, getCurrentKey()) ? getOrDefault() : getDefault());
+        }
+        return values;
+    }
+
     @Override
     public void update(T value) {
         setCurrentNamespaceValue(value);
@@ -100,11 +100,15 @@ public class BatchExecutionKeyedStateBackend<K> implements CheckpointableKeyedSt
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void setCurrentKey(K newKey) {
         if (!Objects.equals(newKey, currentKey)) {
             notifyKeySelected(newKey);
             for (State value : states.values()) {
-                ((AbstractBatchExecutionKeyState<?, ?, ?>) value).clearAllNamespaces();
+                AbstractBatchExecutionKeyState<K, ?, ?> state =
+                        (AbstractBatchExecutionKeyState<K, ?, ?>) value;
+                state.clearAllNamespaces();
+                state.setCurrentKey(newKey);
             }
             for (KeyGroupedInternalPriorityQueue<?> value : priorityQueues.values()) {
                 while (value.poll() != null) {
@@ -146,6 +150,13 @@ public class BatchExecutionKeyedStateBackend<K> implements CheckpointableKeyedSt
         return Stream.empty();
     }
 
+    @Override
+    public <N> Stream<K> getKeys(String state, N namespace, int keyGroup) {
+        LOG.debug("Returning an empty stream in BATCH execution mode in getKeys().");
+        // Same as for all key-groups above
+        return Stream.empty();
+    }
+
     @Override
     public <N> Stream<Tuple2<K, N>> getKeysAndNamespaces(String state) {
         LOG.debug("Returning an empty stream in BATCH execution mode in getKeysAndNamespaces().");
@@ -173,6 +184,7 @@ public class BatchExecutionKeyedStateBackend<K> implements CheckpointableKeyedSt
         State state = states.get(stateDescriptor.getName());
         if (state == null) {
             state = createState(namespaceSerializer, stateDescriptor);
+            ((AbstractBatchExecutionKeyState<K, ?, ?>) state).setCurrentKey(currentKey);
             states.put(stateDescriptor.getName(), state);
         }
         return (S) state;
@@ -25,6 +25,8 @@ import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
 import org.apache.flink.runtime.io.network.api.serialization.RecordDeserializer;
 import org.apache.flink.runtime.io.network.partition.consumer.BufferOrEvent;
 import org.apache.flink.runtime.io.network.partition.consumer.EndOfChannelStateEvent;
+import org.apache.flink.runtime.io.network.partition.consumer.InputChannel;
+import org.apache.flink.runtime.io.network.partition.consumer.LocalInputChannel;
 import org.apache.flink.runtime.plugable.DeserializationDelegate;
 import org.apache.flink.runtime.plugable.NonReusingDeserializationDelegate;
 import org.apache.flink.streaming.runtime.io.checkpointing.CheckpointedInputGate;
@@ -32,6 +34,8 @@ import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
 import org.apache.flink.streaming.runtime.streamrecord.StreamElementSerializer;
 import org.apache.flink.streaming.runtime.watermarkstatus.StatusWatermarkValve;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -46,6 +50,10 @@ import static org.apache.flink.util.Preconditions.checkState;
  * Base class for network-based StreamTaskInput where each channel has a designated {@link
  * RecordDeserializer} for spanning records. Specific implementation bind it to a specific {@link
  * RecordDeserializer}.
+ *
+ * <p>If records are emitted in batches, {@link #emitNext(DataOutput)} emits all complete records of
+ * the current buffer instead of a single one, so that the caller is only returned to at buffer
+ * boundaries.
  */
 public abstract class AbstractStreamTaskNetworkInput<
                 T, R extends RecordDeserializer<DeserializationDelegate<StreamElement>>>
@@ -59,15 +67,39 @@ public abstract class AbstractStreamTaskNetworkInput<
     protected final StatusWatermarkValve statusWatermarkValve;
 
     protected final int inputIndex;
+    private final boolean emitRecordsInBatches;
     private InputChannelInfo lastChannel = null;
     private R currentRecordDeserializer = null;
 
+    /** Set if the records of this input are passed as objects, see {@link ObjectPassingChannel}. */
+    @Nullable private final ObjectPassingSerializer<T> objectPassingSerializer;
+
+    private final Map<InputChannelInfo, ObjectPassingChannel> objectPassingChannels =
+            new HashMap<>();
+
     public AbstractStreamTaskNetworkInput(
             CheckpointedInputGate checkpointedInputGate,
             TypeSerializer<T> inputSerializer,
             StatusWatermarkValve statusWatermarkValve,
             int inputIndex,
             Map<InputChannelInfo, R> recordDeserializers) {
+        this(
+                checkpointedInputGate,
+                inputSerializer,
+                statusWatermarkValve,
+                inputIndex,
+                recordDeserializers,
+                false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AbstractStreamTaskNetworkInput(
+            CheckpointedInputGate checkpointedInputGate,
+            TypeSerializer<T> inputSerializer,
+            StatusWatermarkValve statusWatermarkValve,
+            int inputIndex,
+            Map<InputChannelInfo, R> recordDeserializers,
+            boolean emitRecordsInBatches) {
         super();
         this.checkpointedInputGate = checkpointedInputGate;
         deserializationDelegate =
@@ -82,6 +114,11 @@ public abstract class AbstractStreamTaskNetworkInput<
         this.statusWatermarkValve = checkNotNull(statusWatermarkValve);
         this.inputIndex = inputIndex;
         this.recordDeserializers = checkNotNull(recordDeserializers);
+        this.emitRecordsInBatches = emitRecordsInBatches;
+        this.objectPassingSerializer =
+                inputSerializer instanceof ObjectPassingSerializer
+                        ? (ObjectPassingSerializer<T>) inputSerializer
+                        : null;
     }
 
     @Override
@@ -90,19 +127,16 @@ public abstract class AbstractStreamTaskNetworkInput<
         while (true) {
             // get the stream element from the deserializer
             if (currentRecordDeserializer != null) {
-                RecordDeserializer.DeserializationResult result;
-                try {
-                    result = currentRecordDeserializer.getNextRecord(deserializationDelegate);
-                } catch (IOException e) {
-                    throw new IOException(
-                            String.format("Can't get next record for channel %s", lastChannel), e);
-                }
+                RecordDeserializer.DeserializationResult result = getNextRecord();
                 if (result.isBufferConsumed()) {
                     currentRecordDeserializer = null;
                 }
 
                 if (result.isFullRecord()) {
                     processElement(deserializationDelegate.getInstance(), output);
+                    if (emitRecordsInBatches && currentRecordDeserializer != null) {
+                        emitRemainingRecordsOfBuffer(output);
+                    }
                     return DataInputStatus.MORE_AVAILABLE;
                 }
             }
@@ -129,6 +163,32 @@ public abstract class AbstractStreamTaskNetworkInput<
         }
     }
 
+    private RecordDeserializer.DeserializationResult getNextRecord() throws IOException {
+        try {
+            return currentRecordDeserializer.getNextRecord(deserializationDelegate);
+        } catch (IOException e) {
+            throw new IOException(
+                    String.format("Can't get next record for channel %s", lastChannel), e);
+        }
+    }
+
+    /**
+     * Emits the complete records left in the buffer of the current deserializer. A record spanning
+     * into the next buffer is left to the next call of {@link #emitNext(DataOutput)}, because that
+     * buffer has to be polled from the gate first.
+     */
+    private void emitRemainingRecordsOfBuffer(DataOutput<T> output) throws Exception {
+        RecordDeserializer.DeserializationResult result;
+        do {
+            result = getNextRecord();
+            if (result.isFullRecord()) {
+                processElement(deserializationDelegate.getInstance(), output);
+            }
+        } while (!result.isBufferConsumed());
+
+        currentRecordDeserializer = null;
+    }
+
     private void processElement(StreamElement recordOrMark, DataOutput<T> output) throws Exception {
         if (recordOrMark.isRecord()) {
             output.emitRecord(recordOrMark.asRecord());
@@ -183,9 +243,30 @@ public abstract class AbstractStreamTaskNetworkInput<
                 currentRecordDeserializer != null,
                 "currentRecordDeserializer has already been released");
 
+        if (objectPassingSerializer != null) {
+            objectPassingSerializer.setChannel(getObjectPassingChannel(lastChannel));
+        }
         currentRecordDeserializer.setNextBuffer(bufferOrEvent.getBuffer());
     }
 
+    private ObjectPassingChannel getObjectPassingChannel(InputChannelInfo channelInfo) {
+        ObjectPassingChannel channel = objectPassingChannels.get(channelInfo);
+        if (channel == null) {
+            InputChannel inputChannel = getInputChannel(channelInfo);
+            checkState(
+                    inputChannel instanceof LocalInputChannel,
+                    "Records can only be passed as objects through local input channels, but got %s.",
+                    inputChannel);
+            channel = ObjectPassingChannel.connect(inputChannel.getPartitionId());
+            objectPassingChannels.put(channelInfo, channel);
+        }
+        return channel;
+    }
+
+    private InputChannel getInputChannel(InputChannelInfo channelInfo) {
+        return checkpointedInputGate.getChannel(flattenedChannelIndices.get(channelInfo));
+    }
+
     protected R getActiveSerializer(InputChannelInfo channelInfo) {
         return recordDeserializers.get(channelInfo);
     }
@@ -218,5 +299,9 @@ public abstract class AbstractStreamTaskNetworkInput<
             deserializer.clear();
             recordDeserializers.remove(channelInfo);
         }
+        if (objectPassingSerializer != null) {
+            objectPassingChannels.remove(channelInfo);
+            ObjectPassingChannel.release(getInputChannel(channelInfo).getPartitionId());
+        }
     }
 }
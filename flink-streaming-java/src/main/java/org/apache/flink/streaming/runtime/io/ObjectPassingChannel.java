@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Carries the records of an object passing edge from the producing to the consuming subtask. Both
+ * subtasks are co-located, so they share this channel within the JVM. The network buffers of the
+ * edge only carry a marker per record, and the consumer takes one object from the channel for every
+ * marker it reads. Because the buffers keep their order, so do the objects.
+ *
+ * <p>The producer and the consumer look up the channel by the {@link ResultPartitionID} of the
+ * exchange. Whoever of the two connects first registers the channel, the second one removes it from
+ * the registry again, so that the channel is garbage collected once both are done with it.
+ */
+@Internal
+public final class ObjectPassingChannel {
+
+    private static final ConcurrentHashMap<ResultPartitionID, ObjectPassingChannel> CHANNELS =
+            new ConcurrentHashMap<>();
+
+    private final ResultPartitionID partitionId;
+
+    private final Queue<Object> records = new ConcurrentLinkedQueue<>();
+
+    private ObjectPassingChannel(ResultPartitionID partitionId) {
+        this.partitionId = checkNotNull(partitionId);
+    }
+
+    /** Connects the producer or the consumer of the given partition to its channel. */
+    public static ObjectPassingChannel connect(ResultPartitionID partitionId) {
+        ObjectPassingChannel[] connected = new ObjectPassingChannel[1];
+        CHANNELS.compute(
+                partitionId,
+                (id, registered) -> {
+                    if (registered == null) {
+                        connected[0] = new ObjectPassingChannel(id);
+                        return connected[0];
+                    }
+                    connected[0] = registered;
+                    return null;
+                });
+        return connected[0];
+    }
+
+    /**
+     * Removes the channel of the given partition from the registry, if the other side never
+     * connected. This is called by the consumer when the partition is finished or the consumer is
+     * closed.
+     */
+    public static void release(ResultPartitionID partitionId) {
+        CHANNELS.remove(partitionId);
+    }
+
+    @VisibleForTesting
+    static boolean isRegistered(ResultPartitionID partitionId) {
+        return CHANNELS.containsKey(partitionId);
+    }
+
+    /**
+     * Disconnects the producer. If it has not passed any record and the consumer has not connected
+     * yet, the consumer will never need the channel, so it is removed from the registry.
+     */
+    public void disconnect() {
+        if (records.isEmpty()) {
+            CHANNELS.remove(partitionId, this);
+        }
+    }
+
+    void push(Object record) {
+        records.add(record);
+    }
+
+    Object poll() {
+        Object record = records.poll();
+        if (record == null) {
+            throw new IllegalStateException(
+                    "No record has been passed for a marker of partition " + partitionId + ".");
+        }
+        return record;
+    }
+
+    public ResultPartitionID getPartitionId() {
+        return partitionId;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import javax.annotation.Nullable;
+
+import java.util.Objects;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * A {@link TypeSerializer} for object passing edges. Instead of writing a record, it hands the
+ * record to an {@link ObjectPassingChannel} and writes nothing, and instead of reading a record, it
+ * takes the next one from the channel. Records are copied with the wrapped serializer unless their
+ * type is immutable, because the producer may still modify them after they have been emitted.
+ *
+ * <p>The producer uses a fixed channel. The consumer sets the channel of the input channel it is
+ * currently reading from before each buffer.
+ *
+ * <p>This serializer only works on the network path of an object passing edge and must never be
+ * used for state or anything else that is persisted.
+ */
+@Internal
+public final class ObjectPassingSerializer<T> extends TypeSerializer<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TypeSerializer<T> serializer;
+
+    private final boolean copyRecords;
+
+    @Nullable private transient ObjectPassingChannel channel;
+
+    public ObjectPassingSerializer(TypeSerializer<T> serializer) {
+        this(serializer, null);
+    }
+
+    public ObjectPassingSerializer(
+            TypeSerializer<T> serializer, @Nullable ObjectPassingChannel channel) {
+        this.serializer = checkNotNull(serializer);
+        this.copyRecords = !serializer.isImmutableType();
+        this.channel = channel;
+    }
+
+    public void setChannel(ObjectPassingChannel channel) {
+        this.channel = checkNotNull(channel);
+    }
+
+    @Nullable
+    public ObjectPassingChannel getChannel() {
+        return channel;
+    }
+
+    public TypeSerializer<T> getSerializer() {
+        return serializer;
+    }
+
+    @Override
+    public boolean isImmutableType() {
+        return serializer.isImmutableType();
+    }
+
+    @Override
+    public ObjectPassingSerializer<T> duplicate() {
+        TypeSerializer<T> duplicate = serializer.duplicate();
+        return duplicate == serializer ? this : new ObjectPassingSerializer<>(duplicate, channel);
+    }
+
+    @Override
+    public T createInstance() {
+        return serializer.createInstance();
+    }
+
+    @Override
+    public T copy(T from) {
+        return serializer.copy(from);
+    }
+
+    @Override
+    public T copy(T from, T reuse) {
+        return serializer.copy(from, reuse);
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public void serialize(T record, DataOutputView target) {
+        checkState(channel != null, "The object passing channel has not been set.");
+        channel.push(copyRecords ? serializer.copy(record) : record);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(DataInputView source) {
+        checkState(channel != null, "The object passing channel has not been set.");
+        return (T) channel.poll();
+    }
+
+    @Override
+    public T deserialize(T reuse, DataInputView source) {
+        return deserialize(source);
+    }
+
+    @Override
+    public void copy(DataInputView source, DataOutputView target) {
+        throw new UnsupportedOperationException(
+                "Records of object passing edges cannot be copied in serialized form.");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ObjectPassingSerializer<?> that = (ObjectPassingSerializer<?>) obj;
+        return serializer.equals(that.serializer) && Objects.equals(channel, that.channel);
+    }
+
+    @Override
+    public int hashCode() {
+        return serializer.hashCode();
+    }
+
+    @Override
+    public TypeSerializerSnapshot<T> snapshotConfiguration() {
+        throw new UnsupportedOperationException(
+                "The serializer of object passing edges must not be persisted.");
+    }
+}
@@ -35,6 +35,8 @@ import org.apache.flink.streaming.runtime.tasks.WatermarkGaugeExposingOutput;
 import org.apache.flink.streaming.runtime.watermarkstatus.WatermarkStatus;
 import org.apache.flink.util.OutputTag;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -55,6 +57,8 @@ public class RecordWriterOutput<OUT> implements WatermarkGaugeExposingOutput<Str
 
     private WatermarkStatus announcedStatus = WatermarkStatus.ACTIVE;
 
+    @Nullable private final ObjectPassingChannel objectPassingChannel;
+
     @SuppressWarnings("unchecked")
     public RecordWriterOutput(
             RecordWriter<SerializationDelegate<StreamRecord<OUT>>> recordWriter,
@@ -77,6 +81,10 @@ public class RecordWriterOutput<OUT> implements WatermarkGaugeExposingOutput<Str
         }
 
         this.supportsUnalignedCheckpoints = supportsUnalignedCheckpoints;
+        this.objectPassingChannel =
+                outSerializer instanceof ObjectPassingSerializer
+                        ? ((ObjectPassingSerializer<OUT>) outSerializer).getChannel()
+                        : null;
     }
 
     @Override
@@ -164,6 +172,9 @@ public class RecordWriterOutput<OUT> implements WatermarkGaugeExposingOutput<Str
     @Override
     public void close() {
         recordWriter.close();
+        if (objectPassingChannel != null) {
+            objectPassingChannel.disconnect();
+        }
     }
 
     @Override
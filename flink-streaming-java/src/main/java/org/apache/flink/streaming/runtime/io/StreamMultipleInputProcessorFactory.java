@@ -104,10 +104,14 @@ public class StreamMultipleInputProcessorFactory {
             if (configuredInput instanceof StreamConfig.NetworkInputConfig) {
                 StreamConfig.NetworkInputConfig networkInput =
                         (StreamConfig.NetworkInputConfig) configuredInput;
+                TypeSerializer<?> typeSerializer = networkInput.getTypeSerializer();
+                if (streamConfig.isObjectPassingInput(i, userClassloader)) {
+                    typeSerializer = new ObjectPassingSerializer<>(typeSerializer);
+                }
                 inputs[i] =
                         StreamTaskNetworkInputFactory.create(
                                 checkpointedInputGates[networkInput.getInputGateIndex()],
-                                networkInput.getTypeSerializer(),
+                                typeSerializer,
                                 ioManager,
                                 new StatusWatermarkValve(
                                         checkpointedInputGates[networkInput.getInputGateIndex()]
@@ -66,12 +66,29 @@ public final class StreamTaskNetworkInput<T>
             IOManager ioManager,
             StatusWatermarkValve statusWatermarkValve,
             int inputIndex) {
+        this(
+                checkpointedInputGate,
+                inputSerializer,
+                ioManager,
+                statusWatermarkValve,
+                inputIndex,
+                false);
+    }
+
+    public StreamTaskNetworkInput(
+            CheckpointedInputGate checkpointedInputGate,
+            TypeSerializer<T> inputSerializer,
+            IOManager ioManager,
+            StatusWatermarkValve statusWatermarkValve,
+            int inputIndex,
+            boolean emitRecordsInBatches) {
         super(
                 checkpointedInputGate,
                 inputSerializer,
                 statusWatermarkValve,
                 inputIndex,
-                getRecordDeserializers(checkpointedInputGate, ioManager));
+                getRecordDeserializers(checkpointedInputGate, ioManager),
+                emitRecordsInBatches);
     }
 
     // Initialize one deserializer per input channel
@@ -84,7 +84,9 @@ public class StreamTwoInputProcessorFactory {
         StreamTaskInput<IN1> input1 =
                 StreamTaskNetworkInputFactory.create(
                         checkpointedInputGates[0],
-                        typeSerializer1,
+                        streamConfig.isObjectPassingInput(0, userClassloader)
+                                ? new ObjectPassingSerializer<>(typeSerializer1)
+                                : typeSerializer1,
                         ioManager,
                         new StatusWatermarkValve(
                                 checkpointedInputGates[0].getNumberOfInputChannels()),
@@ -96,7 +98,9 @@ public class StreamTwoInputProcessorFactory {
         StreamTaskInput<IN2> input2 =
                 StreamTaskNetworkInputFactory.create(
                         checkpointedInputGates[1],
-                        typeSerializer2,
+                        streamConfig.isObjectPassingInput(1, userClassloader)
+                                ? new ObjectPassingSerializer<>(typeSerializer2)
+                                : typeSerializer2,
                         ioManager,
                         new StatusWatermarkValve(
                                 checkpointedInputGates[1].getNumberOfInputChannels()),
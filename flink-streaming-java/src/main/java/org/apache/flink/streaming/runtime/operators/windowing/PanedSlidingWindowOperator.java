@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.operators.windowing;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.functions.ReduceFunction;
+import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.state.AppendingState;
+import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.runtime.state.internal.InternalAppendingState;
+import org.apache.flink.streaming.api.operators.InternalTimer;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
+import org.apache.flink.streaming.api.windowing.triggers.EventTimeTrigger;
+import org.apache.flink.streaming.api.windowing.triggers.Trigger;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalWindowFunction;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.OutputTag;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link WindowOperator} for {@link SlidingEventTimeWindows} with the default {@link
+ * EventTimeTrigger} and an incremental reduce or aggregate function.
+ *
+ * <p>Instead of adding every element to each of the {@code size / slide} windows that contain it,
+ * the operator splits the time into panes whose length is the greatest common divisor of the window
+ * size and slide. Every element is added once to the state of its pane. When a window fires, the
+ * accumulators of its panes are merged and the result is handed to the window function. Panes that
+ * no later window contains are cleared right away.
+ *
+ * <p>Only one event-time timer is registered per pane: the one for the earliest window that
+ * contains the pane. When a window fires and the following window contains non-empty panes, the
+ * timer of the following window is registered, which chains the windows until the panes run out.
+ *
+ * <p>The contents of the panes are merged with {@link AggregateFunction#merge(Object, Object)} or
+ * the {@link ReduceFunction} of the window state. Only copies of the panes are handed to these
+ * functions, so the pane state is never modified by the merge.
+ *
+ * @param <K> The type of key returned by the {@code KeySelector}.
+ * @param <IN> The type of the incoming elements.
+ * @param <ACC> The type of the window contents that are handed to the window function.
+ * @param <OUT> The type of elements emitted by the {@code InternalWindowFunction}.
+ */
+@Internal
+public class PanedSlidingWindowOperator<K, IN, ACC, OUT>
+        extends WindowOperator<K, IN, ACC, OUT, TimeWindow> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long size;
+
+    private final long slide;
+
+    private final long offset;
+
+    private final long paneSize;
+
+    // ------------------------------------------------------------------------
+    // the fields below are instantiated once the operator runs in the runtime
+
+    private transient InternalAppendingState<K, TimeWindow, IN, Object, ACC> paneState;
+
+    private transient PaneMerger<Object, ACC> paneMerger;
+
+    private transient TypeSerializer<Object> paneSerializer;
+
+    // ------------------------------------------------------------------------
+
+    public PanedSlidingWindowOperator(
+            SlidingEventTimeWindows windowAssigner,
+            TypeSerializer<TimeWindow> windowSerializer,
+            KeySelector<IN, K> keySelector,
+            TypeSerializer<K> keySerializer,
+            StateDescriptor<? extends AppendingState<IN, ACC>, ?> windowStateDescriptor,
+            InternalWindowFunction<ACC, OUT, K, TimeWindow> windowFunction,
+            Trigger<? super IN, ? super TimeWindow> trigger,
+            OutputTag<IN> lateDataOutputTag) {
+
+        super(
+                windowAssigner,
+                windowSerializer,
+                keySelector,
+                keySerializer,
+                windowStateDescriptor,
+                windowFunction,
+                trigger,
+                0L,
+                lateDataOutputTag);
+
+        checkArgument(
+                isSupported(windowAssigner, trigger, windowStateDescriptor, 0L),
+                "Panes can only be shared by sliding event-time windows with the event-time "
+                        + "trigger and a reducing or aggregating window state.");
+
+        this.size = windowAssigner.getSize();
+        this.slide = windowAssigner.getSlide();
+        this.offset = windowAssigner.getOffset();
+        this.paneSize = greatestCommonDivisor(size, slide);
+    }
+
+    /**
+     * Returns whether a window with the given properties can be computed by a {@link
+     * PanedSlidingWindowOperator}.
+     */
+    public static boolean isSupported(
+            Object windowAssigner,
+            Object trigger,
+            StateDescriptor<?, ?> windowStateDescriptor,
+            long allowedLateness) {
+        return windowAssigner != null
+                && windowAssigner.getClass() == SlidingEventTimeWindows.class
+                && trigger != null
+                && trigger.getClass() == EventTimeTrigger.class
+                && allowedLateness == 0L
+                && (windowStateDescriptor instanceof ReducingStateDescriptor
+                        || windowStateDescriptor instanceof AggregatingStateDescriptor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void open() throws Exception {
+        super.open();
+
+        final StateDescriptor<? extends AppendingState<IN, ACC>, ?> stateDescriptor =
+                getStateDescriptor();
+        // the window state of the super class, which holds the contents of panes here
+        paneState =
+                (InternalAppendingState<K, TimeWindow, IN, Object, ACC>)
+                        getOrCreateKeyedState(windowSerializer, stateDescriptor);
+        paneSerializer = (TypeSerializer<Object>) stateDescriptor.getSerializer();
+
+        if (stateDescriptor instanceof AggregatingStateDescriptor) {
+            paneMerger =
+                    new AggregatingPaneMerger<>(
+                            ((AggregatingStateDescriptor<IN, Object, ACC>) stateDescriptor)
+                                    .getAggregateFunction());
+        } else {
+            paneMerger =
+                    (PaneMerger<Object, ACC>)
+                            (PaneMerger<?, ?>)
+                                    new ReducingPaneMerger<>(
+                                            ((ReducingStateDescriptor<Object>) stateDescriptor)
+                                                    .getReduceFunction());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        paneState = null;
+        paneMerger = null;
+    }
+
+    @Override
+    public void processElement(StreamRecord<IN> element) throws Exception {
+        if (!element.hasTimestamp()) {
+            throw new RuntimeException(
+                    "Record has Long.MIN_VALUE timestamp (= no timestamp marker). "
+                            + "Is the time characteristic set to 'ProcessingTime', or did you "
+                            + "forget to call 'DataStream.assignTimestampsAndWatermarks(...)'?");
+        }
+
+        final long paneStart =
+                TimeWindow.getWindowStartWithOffset(element.getTimestamp(), offset, paneSize);
+        final long lastWindowStart = TimeWindow.getWindowStartWithOffset(paneStart, offset, slide);
+        final long currentWatermark = internalTimerService.currentWatermark();
+
+        // the pane lies in a gap between windows or all windows containing it already fired
+        if (lastWindowStart + size <= paneStart || lastWindowStart + size - 1 <= currentWatermark) {
+            if (isElementLate(element)) {
+                if (lateDataOutputTag != null) {
+                    sideOutput(element);
+                } else {
+                    this.numLateRecordsDropped.inc();
+                }
+            }
+            return;
+        }
+
+        paneState.setCurrentNamespace(new TimeWindow(paneStart, paneStart + paneSize));
+        paneState.add(element.getValue());
+
+        // the earliest window that contains the pane and did not fire yet
+        long windowStart =
+                lastWindowStart - (lastWindowStart - paneStart + size - 1) / slide * slide;
+        if (windowStart + size - 1 <= currentWatermark) {
+            windowStart =
+                    TimeWindow.getWindowStartWithOffset(currentWatermark - size + 1, offset, slide)
+                            + slide;
+        }
+        registerWindowTimer(windowStart);
+    }
+
+    @Override
+    public void onEventTime(InternalTimer<K, TimeWindow> timer) throws Exception {
+        final TimeWindow window = timer.getNamespace();
+        final long nextWindowStart = window.getStart() + slide;
+
+        Object contents = null;
+        boolean nextWindowHasPanes = false;
+        for (long paneStart = window.getStart();
+                paneStart < window.getEnd();
+                paneStart += paneSize) {
+            paneState.setCurrentNamespace(new TimeWindow(paneStart, paneStart + paneSize));
+            final Object pane = paneState.getInternal();
+            if (pane == null) {
+                continue;
+            }
+
+            // user functions may modify both arguments, so they never see the pane state itself
+            final Object paneCopy = paneSerializer.copy(pane);
+            contents = contents == null ? paneCopy : paneMerger.merge(contents, paneCopy);
+
+            if (paneStart >= nextWindowStart) {
+                nextWindowHasPanes = true;
+            } else {
+                // no later window contains this pane
+                paneState.clear();
+            }
+        }
+
+        triggerContext.key = timer.getKey();
+        triggerContext.window = window;
+        processContext.window = window;
+
+        if (contents != null) {
+            timestampedCollector.setAbsoluteTimestamp(window.maxTimestamp());
+            userFunction.process(
+                    timer.getKey(),
+                    window,
+                    processContext,
+                    paneMerger.getResult(contents),
+                    timestampedCollector);
+        }
+        processContext.clear();
+
+        if (nextWindowHasPanes) {
+            registerWindowTimer(nextWindowStart);
+        }
+    }
+
+    private void registerWindowTimer(long windowStart) {
+        final TimeWindow window = new TimeWindow(windowStart, windowStart + size);
+        internalTimerService.registerEventTimeTimer(window, window.maxTimestamp());
+    }
+
+    @VisibleForTesting
+    long getPaneSize() {
+        return paneSize;
+    }
+
+    private static long greatestCommonDivisor(long a, long b) {
+        while (b != 0) {
+            final long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    // ------------------------------------------------------------------------
+    //  Merging the contents of panes
+    // ------------------------------------------------------------------------
+
+    /** Merges the contents of panes and computes the contents of the window from them. */
+    private interface PaneMerger<PANE, ACC> {
+
+        /** Merges the pane into the given merged contents, which may be modified. */
+        PANE merge(PANE merged, PANE pane) throws Exception;
+
+        ACC getResult(PANE merged);
+    }
+
+    private static final class AggregatingPaneMerger<IN, PANE, ACC>
+            implements PaneMerger<PANE, ACC> {
+
+        private final AggregateFunction<IN, PANE, ACC> aggregateFunction;
+
+        private AggregatingPaneMerger(AggregateFunction<IN, PANE, ACC> aggregateFunction) {
+            this.aggregateFunction = aggregateFunction;
+        }
+
+        @Override
+        public PANE merge(PANE merged, PANE pane) {
+            return aggregateFunction.merge(merged, pane);
+        }
+
+        @Override
+        public ACC getResult(PANE merged) {
+            return aggregateFunction.getResult(merged);
+        }
+    }
+
+    private static final class ReducingPaneMerger<T> implements PaneMerger<T, T> {
+
+        private final ReduceFunction<T> reduceFunction;
+
+        private ReducingPaneMerger(ReduceFunction<T> reduceFunction) {
+            this.reduceFunction = reduceFunction;
+        }
+
+        @Override
+        public T merge(T merged, T pane) throws Exception {
+            return reduceFunction.reduce(merged, pane);
+        }
+
+        @Override
+        public T getResult(T merged) {
+            return merged;
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.flink.streaming.api.functions.windowing.ReduceApplyProcessWind
 import org.apache.flink.streaming.api.functions.windowing.ReduceApplyWindowFunction;
 import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
 import org.apache.flink.streaming.api.windowing.assigners.MergingWindowAssigner;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
 import org.apache.flink.streaming.api.windowing.assigners.WindowAssigner;
 import org.apache.flink.streaming.api.windowing.evictors.Evictor;
 import org.apache.flink.streaming.api.windowing.time.Time;
@@ -87,6 +88,8 @@ public class WindowOperatorBuilder<T, K, W extends Window> {
 
     @Nullable private OutputTag<T> lateDataOutputTag;
 
+    private boolean slidingWindowPaneSharing;
+
     public WindowOperatorBuilder(
             WindowAssigner<? super T, W> windowAssigner,
             Trigger<? super T, ? super W> trigger,
@@ -133,6 +136,14 @@ public class WindowOperatorBuilder<T, K, W extends Window> {
         this.evictor = evictor;
     }
 
+    /**
+     * Sets whether sliding event-time windows with an incremental aggregation share the state of
+     * their panes, see {@link PanedSlidingWindowOperator}.
+     */
+    public void slidingWindowPaneSharing(boolean slidingWindowPaneSharing) {
+        this.slidingWindowPaneSharing = slidingWindowPaneSharing;
+    }
+
     public <R> WindowOperator<K, T, ?, R, W> reduce(
             ReduceFunction<T> reduceFunction, WindowFunction<T, R, K, W> function) {
         Preconditions.checkNotNull(reduceFunction, "ReduceFunction cannot be null");
@@ -266,6 +277,12 @@ public class WindowOperatorBuilder<T, K, W extends Window> {
             StateDescriptor<? extends AppendingState<T, ACC>, ?> stateDesc,
             InternalWindowFunction<ACC, R, K, W> function) {
 
+        if (slidingWindowPaneSharing
+                && PanedSlidingWindowOperator.isSupported(
+                        windowAssigner, trigger, stateDesc, allowedLateness)) {
+            return buildPanedSlidingWindowOperator(stateDesc, function);
+        }
+
         return new WindowOperator<>(
                 windowAssigner,
                 windowAssigner.getWindowSerializer(config),
@@ -278,6 +295,23 @@ public class WindowOperatorBuilder<T, K, W extends Window> {
                 lateDataOutputTag);
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <ACC, R> WindowOperator<K, T, ACC, R, W> buildPanedSlidingWindowOperator(
+            StateDescriptor<? extends AppendingState<T, ACC>, ?> stateDesc,
+            InternalWindowFunction<ACC, R, K, W> function) {
+        // the window type is TimeWindow, which isSupported() checked via the assigner
+        return (WindowOperator)
+                new PanedSlidingWindowOperator<>(
+                        (SlidingEventTimeWindows) windowAssigner,
+                        (TypeSerializer) windowAssigner.getWindowSerializer(config),
+                        keySelector,
+                        keyType.createSerializer(config),
+                        stateDesc,
+                        (InternalWindowFunction) function,
+                        (Trigger) trigger,
+                        lateDataOutputTag);
+    }
+
     private <R> WindowOperator<K, T, Iterable<T>, R, W> buildEvictingWindowOperator(
             InternalWindowFunction<Iterable<T>, R, K, W> function) {
         @SuppressWarnings({"unchecked", "rawtypes"})
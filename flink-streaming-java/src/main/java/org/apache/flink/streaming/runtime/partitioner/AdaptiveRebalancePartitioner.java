@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.partitioner;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.io.network.api.writer.LoadAwareChannelSelector;
+import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
+import org.apache.flink.runtime.io.network.api.writer.SubtaskStateMapper;
+import org.apache.flink.runtime.plugable.SerializationDelegate;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Partitioner that distributes the data over the output channels like the {@link
+ * RebalancePartitioner}, but prefers the channels with the fewest queued buffers.
+ *
+ * <p>Buffers pile up in the subpartitions of consumers which run out of credit, so slow consumers
+ * receive fewer records. To keep the per-record overhead low, the channel is only re-selected when
+ * the current channel starts a new buffer, which is the case when its number of queued buffers
+ * increases, or after {@link #MAX_RECORDS_PER_SELECTION} records. The latter also makes the
+ * partitioner fall back to round-robin for partitions which do not report queued buffers.
+ *
+ * @param <T> Type of the elements in the Stream being rebalanced
+ */
+@Internal
+public class AdaptiveRebalancePartitioner<T> extends StreamPartitioner<T>
+        implements LoadAwareChannelSelector<SerializationDelegate<StreamRecord<T>>> {
+    private static final long serialVersionUID = 1L;
+
+    @VisibleForTesting static final int MAX_RECORDS_PER_SELECTION = 256;
+
+    @Nullable private transient ResultPartitionWriter partitionWriter;
+
+    private transient long[] numRecordsPerChannel;
+
+    private int currentChannel;
+
+    /** Queued buffers of the current channel when the last record was sent to it. */
+    private int currentChannelQueuedBuffers;
+
+    private int numRecordsSinceSelection;
+
+    @Override
+    public void setup(int numberOfChannels) {
+        super.setup(numberOfChannels);
+
+        numRecordsPerChannel = new long[numberOfChannels];
+        currentChannel = ThreadLocalRandom.current().nextInt(numberOfChannels);
+        currentChannelQueuedBuffers = 0;
+        numRecordsSinceSelection = 0;
+    }
+
+    @Override
+    public void setPartitionWriter(ResultPartitionWriter partitionWriter) {
+        this.partitionWriter = partitionWriter;
+    }
+
+    @Override
+    public int selectChannel(SerializationDelegate<StreamRecord<T>> record) {
+        if (partitionWriter == null) {
+            currentChannel = (currentChannel + 1) % numberOfChannels;
+        } else {
+            int queuedBuffers = partitionWriter.getNumberOfQueuedBuffers(currentChannel);
+            // the buffer started by the first record after a selection must not trigger another
+            // selection, so the queued buffers are only compared from the third record on
+            if (numRecordsSinceSelection >= MAX_RECORDS_PER_SELECTION
+                    || (numRecordsSinceSelection > 1
+                            && queuedBuffers > currentChannelQueuedBuffers)) {
+                selectLeastLoadedChannel(partitionWriter);
+            } else {
+                currentChannelQueuedBuffers = queuedBuffers;
+            }
+            numRecordsSinceSelection++;
+        }
+
+        numRecordsPerChannel[currentChannel]++;
+        return currentChannel;
+    }
+
+    private void selectLeastLoadedChannel(ResultPartitionWriter partitionWriter) {
+        // start with the next channel so that equally loaded channels are used in turn
+        int selectedChannel = -1;
+        int minQueuedBuffers = Integer.MAX_VALUE;
+        for (int i = 1; i <= numberOfChannels; i++) {
+            int channel = (currentChannel + i) % numberOfChannels;
+            int queuedBuffers = partitionWriter.getNumberOfQueuedBuffers(channel);
+            if (queuedBuffers < minQueuedBuffers) {
+                selectedChannel = channel;
+                minQueuedBuffers = queuedBuffers;
+                if (queuedBuffers == 0) {
+                    break;
+                }
+            }
+        }
+
+        currentChannel = selectedChannel;
+        numRecordsSinceSelection = 0;
+    }
+
+    @Override
+    public double getChannelSkew() {
+        long[] numRecordsPerChannel = this.numRecordsPerChannel;
+        if (numRecordsPerChannel == null) {
+            return 1.0;
+        }
+
+        long total = 0;
+        long max = 0;
+        for (long numRecords : numRecordsPerChannel) {
+            total += numRecords;
+            max = Math.max(max, numRecords);
+        }
+        return total == 0 ? 1.0 : (double) max * numRecordsPerChannel.length / total;
+    }
+
+    @Override
+    public SubtaskStateMapper getDownstreamSubtaskStateMapper() {
+        return SubtaskStateMapper.ROUND_ROBIN;
+    }
+
+    @Override
+    public StreamPartitioner<T> copy() {
+        return new AdaptiveRebalancePartitioner<>();
+    }
+
+    @Override
+    public boolean isPointwise() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ADAPTIVE_REBALANCE";
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.apache.flink.api.common.functions.FilterFunction;
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.functions.Function;
+import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.operators.Output;
+import org.apache.flink.streaming.api.operators.StreamFilter;
+import org.apache.flink.streaming.api.operators.StreamFlatMap;
+import org.apache.flink.streaming.api.operators.StreamMap;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.Collector;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ChainingOutput} that passes records through a sequence of chained {@link StreamMap},
+ * {@link StreamFilter} and {@link StreamFlatMap} operators by calling their user functions
+ * directly, and emits the results to the output of the last of these operators.
+ *
+ * <p>Watermarks, watermark statuses and latency markers still go through the first operator, which
+ * forwards them to the next ones as usual. Only the numRecordsIn counter of the first operator and
+ * the numRecordsOut counter of the last operator are updated for the fused records.
+ */
+class FusedChainingOutput<T> extends ChainingOutput<T> {
+
+    private static final int MAP = 0;
+    private static final int FILTER = 1;
+    private static final int FLAT_MAP = 2;
+
+    private final int[] kinds;
+
+    private final Function[] functions;
+
+    /** Serializers to copy the input of every function, or null if objects are reused. */
+    @Nullable private final TypeSerializer<Object>[] serializers;
+
+    /** Collectors of the flatMap functions, which continue with the next function. */
+    private final Collector<Object>[] collectors;
+
+    private final Output<StreamRecord<Object>> output;
+
+    private final Counter numRecordsOut;
+
+    /** The record which is being processed and which is reused for the results. */
+    private StreamRecord<Object> currentRecord;
+
+    /**
+     * Creates the output of the given operator, which is fused with the operators of the given
+     * operator output if that is a {@link FusedChainingOutput} as well.
+     *
+     * @param inputSerializer serializer to copy the input records, or null if objects are reused
+     */
+    @SuppressWarnings("unchecked")
+    FusedChainingOutput(
+            OneInputStreamOperator<T, ?> operator,
+            @Nullable TypeSerializer<T> inputSerializer,
+            Output<? extends StreamRecord<?>> operatorOutput) {
+        super(operator, null);
+        checkFusible(operator);
+
+        final FusedChainingOutput<?> next;
+        final int numStages;
+        if (operatorOutput instanceof FusedChainingOutput) {
+            next = (FusedChainingOutput<?>) operatorOutput;
+            numStages = next.kinds.length + 1;
+            this.output = next.output;
+            this.numRecordsOut = next.numRecordsOut;
+        } else {
+            next = null;
+            numStages = 1;
+            this.output = (Output<StreamRecord<Object>>) operatorOutput;
+            this.numRecordsOut =
+                    operator.getMetricGroup().getIOMetricGroup().getNumRecordsOutCounter();
+        }
+
+        this.kinds = new int[numStages];
+        this.functions = new Function[numStages];
+        this.serializers = inputSerializer == null ? null : new TypeSerializer[numStages];
+        this.collectors = new Collector[numStages];
+
+        kinds[0] = getKind(operator);
+        functions[0] = ((AbstractUdfStreamOperator<?, ?>) operator).getUserFunction();
+        if (serializers != null) {
+            serializers[0] = (TypeSerializer<Object>) inputSerializer;
+        }
+        if (next != null) {
+            if ((serializers == null) != (next.serializers == null)) {
+                throw new IllegalStateException(
+                        "Fused operators must either all copy their input or none of them.");
+            }
+            System.arraycopy(next.kinds, 0, kinds, 1, numStages - 1);
+            System.arraycopy(next.functions, 0, functions, 1, numStages - 1);
+            if (serializers != null) {
+                System.arraycopy(next.serializers, 0, serializers, 1, numStages - 1);
+            }
+        }
+        for (int i = 0; i < numStages; i++) {
+            if (kinds[i] == FLAT_MAP) {
+                collectors[i] = new ContinuingCollector(i + 1);
+            }
+        }
+    }
+
+    /** Checks whether the given operator can be fused into a {@link FusedChainingOutput}. */
+    static boolean isFusible(OneInputStreamOperator<?, ?> operator) {
+        // subclasses may change how records are processed, so only the exact classes qualify
+        Class<?> operatorClass = operator.getClass();
+        return operatorClass == StreamMap.class
+                || operatorClass == StreamFilter.class
+                || operatorClass == StreamFlatMap.class;
+    }
+
+    private static void checkFusible(OneInputStreamOperator<?, ?> operator) {
+        if (!isFusible(operator)) {
+            throw new IllegalArgumentException(
+                    "Operator " + operator.getClass().getName() + " can not be fused.");
+        }
+    }
+
+    private static int getKind(OneInputStreamOperator<?, ?> operator) {
+        if (operator.getClass() == StreamMap.class) {
+            return MAP;
+        } else if (operator.getClass() == StreamFilter.class) {
+            return FILTER;
+        } else {
+            return FLAT_MAP;
+        }
+    }
+
+    @Override
+    protected <X> void pushToOperator(StreamRecord<X> record) {
+        try {
+            @SuppressWarnings("unchecked")
+            StreamRecord<Object> castRecord = (StreamRecord<Object>) record;
+
+            numRecordsIn.inc();
+            if (serializers == null) {
+                currentRecord = castRecord;
+            } else {
+                // the record may be shared with other outputs, so the results must not be set
+                // on it
+                currentRecord = castRecord.copy(null);
+            }
+            process(0, castRecord.getValue());
+        } catch (Exception e) {
+            throw new ExceptionInChainedOperatorException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void process(int firstStage, Object value) throws Exception {
+        for (int i = firstStage; i < kinds.length; i++) {
+            if (serializers != null) {
+                value = serializers[i].copy(value);
+            }
+
+            switch (kinds[i]) {
+                case MAP:
+                    value = ((MapFunction<Object, Object>) functions[i]).map(value);
+                    break;
+                case FILTER:
+                    if (!((FilterFunction<Object>) functions[i]).filter(value)) {
+                        return;
+                    }
+                    break;
+                default:
+                    ((FlatMapFunction<Object, Object>) functions[i]).flatMap(value, collectors[i]);
+                    return;
+            }
+        }
+
+        numRecordsOut.inc();
+        output.collect(currentRecord.replace(value));
+    }
+
+    /** Collector of a flatMap function, which passes the values on to the next stage. */
+    private class ContinuingCollector implements Collector<Object> {
+
+        private final int nextStage;
+
+        private ContinuingCollector(int nextStage) {
+            this.nextStage = nextStage;
+        }
+
+        @Override
+        public void collect(Object value) {
+            try {
+                process(nextStage, value);
+            } catch (Exception e) {
+                throw new ExceptionInChainedOperatorException(e);
+            }
+        }
+
+        @Override
+        public void close() {}
+    }
+}
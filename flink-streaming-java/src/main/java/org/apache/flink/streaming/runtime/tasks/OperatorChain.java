@@ -37,6 +37,7 @@ import org.apache.flink.runtime.operators.coordination.OperatorEvent;
 import org.apache.flink.runtime.operators.coordination.OperatorEventDispatcher;
 import org.apache.flink.runtime.plugable.SerializationDelegate;
 import org.apache.flink.runtime.state.CheckpointStreamFactory;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.graph.StreamConfig;
 import org.apache.flink.streaming.api.graph.StreamEdge;
 import org.apache.flink.streaming.api.operators.BoundedMultiInput;
@@ -50,6 +51,8 @@ import org.apache.flink.streaming.api.operators.StreamOperator;
 import org.apache.flink.streaming.api.operators.StreamOperatorFactory;
 import org.apache.flink.streaming.api.operators.StreamOperatorFactoryUtil;
 import org.apache.flink.streaming.api.operators.StreamTaskStateInitializer;
+import org.apache.flink.streaming.runtime.io.ObjectPassingChannel;
+import org.apache.flink.streaming.runtime.io.ObjectPassingSerializer;
 import org.apache.flink.streaming.runtime.io.RecordWriterOutput;
 import org.apache.flink.streaming.runtime.io.StreamTaskSourceInput;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
@@ -470,6 +473,7 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
             RecordWriterOutput<?> streamOutput =
                     createStreamOutput(
                             recordWriterDelegate.getRecordWriter(i),
+                            i,
                             outEdge,
                             chainedConfigs.get(outEdge.getSourceId()),
                             containingTask.getEnvironment());
@@ -481,6 +485,7 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
 
     private RecordWriterOutput<OUT> createStreamOutput(
             RecordWriter<SerializationDelegate<StreamRecord<OUT>>> recordWriter,
+            int outputIndex,
             StreamEdge edge,
             StreamConfig upStreamConfig,
             Environment taskEnvironment) {
@@ -501,6 +506,14 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
                             taskEnvironment.getUserCodeClassLoader().asClassLoader());
         }
 
+        if (edge.isObjectPassing()) {
+            outSerializer =
+                    new ObjectPassingSerializer<>(
+                            outSerializer,
+                            ObjectPassingChannel.connect(
+                                    taskEnvironment.getWriter(outputIndex).getPartitionId()));
+        }
+
         return closer.register(
                 new RecordWriterOutput<OUT>(
                         recordWriter,
@@ -696,7 +709,12 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
                         false);
 
         return wrapOperatorIntoOutput(
-                chainedOperator, containingTask, operatorConfig, userCodeClassloader, outputTag);
+                chainedOperator,
+                chainedOperatorOutput,
+                containingTask,
+                operatorConfig,
+                userCodeClassloader,
+                outputTag);
     }
 
     /**
@@ -739,13 +757,22 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
 
     private <IN, OUT> WatermarkGaugeExposingOutput<StreamRecord<IN>> wrapOperatorIntoOutput(
             OneInputStreamOperator<IN, OUT> operator,
+            WatermarkGaugeExposingOutput<StreamRecord<OUT>> operatorOutput,
             StreamTask<OUT, ?> containingTask,
             StreamConfig operatorConfig,
             ClassLoader userCodeClassloader,
             OutputTag<IN> outputTag) {
 
         WatermarkGaugeExposingOutput<StreamRecord<IN>> currentOperatorOutput;
-        if (containingTask.getExecutionConfig().isObjectReuseEnabled()) {
+        if (isFusible(operator, containingTask, operatorConfig, userCodeClassloader, outputTag)) {
+            currentOperatorOutput =
+                    new FusedChainingOutput<>(
+                            operator,
+                            containingTask.getExecutionConfig().isObjectReuseEnabled()
+                                    ? null
+                                    : operatorConfig.getTypeSerializerIn1(userCodeClassloader),
+                            operatorOutput);
+        } else if (containingTask.getExecutionConfig().isObjectReuseEnabled()) {
             currentOperatorOutput = new ChainingOutput<>(operator, outputTag);
         } else {
             TypeSerializer<IN> inSerializer =
@@ -762,6 +789,26 @@ public abstract class OperatorChain<OUT, OP extends StreamOperator<OUT>>
         return closer.register(currentOperatorOutput);
     }
 
+    /**
+     * Checks whether the given chained operator can be fused with the operators it emits to, see
+     * {@link StreamPipelineOptions#OPERATOR_CHAIN_FUSION}. Operators on keyed streams are not
+     * fused, because the key context has to be set for every record.
+     */
+    private static boolean isFusible(
+            OneInputStreamOperator<?, ?> operator,
+            StreamTask<?, ?> containingTask,
+            StreamConfig operatorConfig,
+            ClassLoader userCodeClassloader,
+            @Nullable OutputTag<?> outputTag) {
+        return containingTask
+                        .getConfiguration()
+                        .getConfiguration()
+                        .get(StreamPipelineOptions.OPERATOR_CHAIN_FUSION)
+                && outputTag == null
+                && FusedChainingOutput.isFusible(operator)
+                && operatorConfig.getStatePartitioner(0, userCodeClassloader) == null;
+    }
+
     /**
      * Links operator wrappers in forward topological order.
      *
@@ -74,6 +74,7 @@ import org.apache.flink.runtime.taskmanager.DispatcherThreadFactory;
 import org.apache.flink.runtime.taskmanager.Task;
 import org.apache.flink.streaming.api.TimeCharacteristic;
 import org.apache.flink.streaming.api.environment.ExecutionCheckpointingOptions;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.graph.StreamConfig;
 import org.apache.flink.streaming.api.graph.StreamEdge;
 import org.apache.flink.streaming.api.operators.InternalTimeServiceManager;
@@ -89,6 +90,7 @@ import org.apache.flink.streaming.runtime.partitioner.ConfigurableStreamPartitio
 import org.apache.flink.streaming.runtime.partitioner.StreamPartitioner;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.mailbox.GaugePeriodTimer;
+import org.apache.flink.streaming.runtime.tasks.mailbox.LockFreeTaskMailbox;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxDefaultAction;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxDefaultAction.Suspension;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxExecutorFactory;
@@ -358,7 +360,18 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>>
                 timerService,
                 uncaughtExceptionHandler,
                 actionExecutor,
-                new TaskMailboxImpl(Thread.currentThread()));
+                createTaskMailbox(environment));
+    }
+
+    private static TaskMailbox createTaskMailbox(Environment environment) {
+        final boolean lockFree =
+                environment
+                        .getTaskManagerInfo()
+                        .getConfiguration()
+                        .getBoolean(TaskManagerOptions.TASK_MAILBOX_LOCK_FREE);
+        return lockFree
+                ? new LockFreeTaskMailbox(Thread.currentThread())
+                : new TaskMailboxImpl(Thread.currentThread());
     }
 
     protected StreamTask(
@@ -617,13 +630,21 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>>
     public StreamTaskStateInitializer createStreamTaskStateInitializer() {
         InternalTimeServiceManager.Provider timerServiceProvider =
                 configuration.getTimerServiceProvider(getUserCodeClassLoader());
+        if (timerServiceProvider == null) {
+            timerServiceProvider = createDefaultTimerServiceProvider();
+        }
         return new StreamTaskStateInitializerImpl(
-                getEnvironment(),
-                stateBackend,
-                TtlTimeProvider.DEFAULT,
-                timerServiceProvider != null
-                        ? timerServiceProvider
-                        : InternalTimeServiceManagerImpl::create);
+                getEnvironment(), stateBackend, TtlTimeProvider.DEFAULT, timerServiceProvider);
+    }
+
+    private InternalTimeServiceManager.Provider createDefaultTimerServiceProvider() {
+        final Configuration taskConfiguration = configuration.getConfiguration();
+        if (taskConfiguration.get(StreamPipelineOptions.TIMING_WHEEL_TIMERS)) {
+            return new InternalTimeServiceManagerImpl.TimingWheelProvider(
+                    taskConfiguration.get(StreamPipelineOptions.TIMING_WHEEL_RESOLUTION).toMillis(),
+                    getEnvironment().getTaskInfo().getMaxNumberOfParallelSubtasks());
+        }
+        return InternalTimeServiceManagerImpl::create;
     }
 
     protected Counter setupNumRecordsInCounter(StreamOperator streamOperator) {
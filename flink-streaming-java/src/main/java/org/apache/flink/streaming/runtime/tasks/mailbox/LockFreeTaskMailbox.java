@@ -0,0 +1,532 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.CLOSED;
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.OPEN;
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.QUIESCED;
+
+/**
+ * Lock-free implementation of {@link TaskMailbox} for many writers and the single mailbox thread as
+ * reader.
+ *
+ * <p>Writers append to one of two intrusive multi-producer single-consumer queues, one for {@link
+ * #put(Mail)} and one for {@link #putFirst(Mail)}, with a single atomic swap and never contend on a
+ * lock with the mailbox thread. The mailbox thread drains these queues in batches into lanes that
+ * are private to it, one lane per priority. Every drained mail is stamped with the current batch
+ * generation and a sequence number, such that taking a mail of a minimum priority only looks at the
+ * heads of the matching lanes instead of scanning all pending mails, while still returning mails in
+ * the order of the {@link TaskMailboxImpl}: the mails of the current batch come first, followed by
+ * the mails put first from other threads since the batch was created and the remaining mails.
+ *
+ * <p>The lifecycle state and the number of writers that are currently enqueuing are kept in a
+ * single atomic word. {@link #close()} waits for in-progress writers, so that every mail that has
+ * been successfully put is either taken or returned as dropped. {@link #runExclusively(Runnable)}
+ * excludes lifecycle changes, but not concurrent writers.
+ */
+@ThreadSafe
+public class LockFreeTaskMailbox implements TaskMailbox {
+
+    /** The lifecycle state is stored in the upper half of {@link #ctl}. */
+    private static final int STATE_SHIFT = 32;
+
+    /** The lower half of {@link #ctl} counts the writers that are currently enqueuing. */
+    private static final long WRITERS_MASK = (1L << STATE_SHIFT) - 1;
+
+    /** Lifecycle state and number of in-progress writers. */
+    private final AtomicLong ctl = new AtomicLong(ctlOf(OPEN, 0));
+
+    /** Lock that serializes lifecycle changes and {@link #runExclusively(Runnable)}. */
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+
+    /** Mails added with {@link #put(Mail)}. */
+    private final MpscQueue queue = new MpscQueue();
+
+    /** Mails added with {@link #putFirst(Mail)} from other threads than the mailbox thread. */
+    private final MpscQueue firstQueue = new MpscQueue();
+
+    /** Reference to the thread that executes the mailbox mails. */
+    @Nonnull private final Thread taskMailboxThread;
+
+    /** Whether the mailbox thread is parked in {@link #take(int)}. */
+    private volatile boolean waiting;
+
+    // ------------------------------------------------------------------------------------------
+    // state owned by the mailbox thread
+
+    /** The lanes of drained mails, ordered by ascending priority. */
+    private Lane[] lanes = new Lane[0];
+
+    /** The number of drained mails in all lanes. */
+    private int numDrainedMails;
+
+    /** The sequence number of the next drained mail. */
+    private long nextSequence;
+
+    /** The sequence number of the last mail that has been put first, decreasing. */
+    private long firstSequence;
+
+    /**
+     * The generation of mails drained from the queues, incremented by {@link #createBatch()}. Mails
+     * of older generations belong to the current batch.
+     */
+    private long generation;
+
+    public LockFreeTaskMailbox(@Nonnull final Thread taskMailboxThread) {
+        this.taskMailboxThread = taskMailboxThread;
+    }
+
+    @VisibleForTesting
+    public LockFreeTaskMailbox() {
+        this(Thread.currentThread());
+    }
+
+    @Override
+    public boolean isMailboxThread() {
+        return Thread.currentThread() == taskMailboxThread;
+    }
+
+    @Override
+    public boolean hasMail() {
+        checkIsMailboxThread();
+        return numDrainedMails > 0 || !queue.isEmpty() || !firstQueue.isEmpty();
+    }
+
+    /** Returns the number of mails in the mailbox, must only be called by the mailbox thread. */
+    @VisibleForTesting
+    public int size() {
+        checkIsMailboxThread();
+        drainQueues();
+        return numDrainedMails;
+    }
+
+    @Override
+    public Optional<Mail> tryTake(int priority) {
+        checkIsMailboxThread();
+        checkTakeStateConditions();
+        return Optional.ofNullable(takeOrNull(priority));
+    }
+
+    @Override
+    public @Nonnull Mail take(int priority) throws InterruptedException, IllegalStateException {
+        checkIsMailboxThread();
+        checkTakeStateConditions();
+        Mail mail;
+        while ((mail = takeOrNull(priority)) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waiting = true;
+            try {
+                // re-check after announcing the wait, writers unpark after enqueuing
+                if (queue.isEmpty() && firstQueue.isEmpty()) {
+                    // to ease debugging
+                    LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                }
+            } finally {
+                waiting = false;
+            }
+        }
+        return mail;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean createBatch() {
+        checkIsMailboxThread();
+        drainQueues();
+        for (Lane lane : lanes) {
+            lane.batch.addAll(lane.queue);
+            lane.queue.clear();
+        }
+        generation++;
+        return numDrainedMails > 0;
+    }
+
+    @Override
+    public Optional<Mail> tryTakeFromBatch() {
+        checkIsMailboxThread();
+        checkTakeStateConditions();
+        final Lane lane = laneWithOldestHead(TaskMailbox.MIN_PRIORITY);
+        if (lane == null || lane.batch.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(poll(lane));
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    public void put(@Nonnull Mail mail) {
+        enqueue(queue, mail);
+    }
+
+    @Override
+    public void putFirst(@Nonnull Mail mail) {
+        if (isMailboxThread()) {
+            // like TaskMailboxImpl, put in front of the current batch
+            checkPutStateConditions(stateOf(ctl.get()));
+            final Node node = new Node(mail);
+            node.generation = Long.MIN_VALUE;
+            node.sequence = --firstSequence;
+            getOrCreateLane(mail.getPriority()).batch.addFirst(node);
+            numDrainedMails++;
+        } else {
+            enqueue(firstQueue, mail);
+        }
+    }
+
+    private void enqueue(MpscQueue target, Mail mail) {
+        final long c = ctl.getAndIncrement();
+        try {
+            checkPutStateConditions(stateOf(c));
+            target.offer(new Node(mail));
+        } finally {
+            ctl.getAndDecrement();
+        }
+        if (waiting) {
+            LockSupport.unpark(taskMailboxThread);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /** Moves all enqueued mails into the lanes. */
+    private void drainQueues() {
+        drainFirstQueue();
+        Node node;
+        while ((node = queue.poll()) != null) {
+            addToLane(node, nextSequence++);
+        }
+    }
+
+    /**
+     * Moves the mails that have been put first into the lanes, behind the current batch but ahead
+     * of all other mails.
+     */
+    private void drainFirstQueue() {
+        // mails put first are stamped in reverse order, so that the last one is taken first
+        Node node;
+        while ((node = firstQueue.poll()) != null) {
+            addToLane(node, --firstSequence);
+        }
+    }
+
+    private void addToLane(Node node, long sequence) {
+        node.generation = generation;
+        node.sequence = sequence;
+        final Lane lane = getOrCreateLane(node.mail.getPriority());
+        if (sequence < 0) {
+            lane.queue.addFirst(node);
+        } else {
+            lane.queue.addLast(node);
+        }
+        numDrainedMails++;
+    }
+
+    private Lane getOrCreateLane(int priority) {
+        int index = 0;
+        while (index < lanes.length && lanes[index].priority < priority) {
+            index++;
+        }
+        if (index < lanes.length && lanes[index].priority == priority) {
+            return lanes[index];
+        }
+        final Lane[] newLanes = new Lane[lanes.length + 1];
+        System.arraycopy(lanes, 0, newLanes, 0, index);
+        System.arraycopy(lanes, index, newLanes, index + 1, lanes.length - index);
+        newLanes[index] = new Lane(priority);
+        lanes = newLanes;
+        return newLanes[index];
+    }
+
+    /** Returns the lane of at least the given priority whose head is taken first. */
+    @Nullable
+    private Lane laneWithOldestHead(int priority) {
+        Lane oldest = null;
+        Node oldestHead = null;
+        for (int i = lanes.length - 1; i >= 0 && lanes[i].priority >= priority; i--) {
+            final Node head = lanes[i].peek();
+            if (head != null && (oldestHead == null || head.isBefore(oldestHead))) {
+                oldest = lanes[i];
+                oldestHead = head;
+            }
+        }
+        return oldest;
+    }
+
+    @Nullable
+    private Mail takeOrNull(int priority) {
+        // mails put first overtake all drained mails which are not part of the current batch
+        if (!firstQueue.isEmpty()) {
+            drainFirstQueue();
+        }
+        Lane lane = numDrainedMails > 0 ? laneWithOldestHead(priority) : null;
+        if (lane == null) {
+            if (queue.isEmpty() && firstQueue.isEmpty()) {
+                return null;
+            }
+            drainQueues();
+            lane = laneWithOldestHead(priority);
+            if (lane == null) {
+                return null;
+            }
+        }
+        return poll(lane);
+    }
+
+    private Mail poll(Lane lane) {
+        numDrainedMails--;
+        return lane.poll().takeMail();
+    }
+
+    @Override
+    public List<Mail> drain() {
+        drainQueues();
+        final List<Node> nodes = new ArrayList<>(numDrainedMails);
+        for (Lane lane : lanes) {
+            nodes.addAll(lane.batch);
+            nodes.addAll(lane.queue);
+            lane.batch.clear();
+            lane.queue.clear();
+        }
+        numDrainedMails = 0;
+        nodes.sort(
+                Comparator.<Node>comparingLong(node -> node.generation)
+                        .thenComparingLong(node -> node.sequence));
+        final List<Mail> drainedMails = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            drainedMails.add(node.takeMail());
+        }
+        return drainedMails;
+    }
+
+    private void checkIsMailboxThread() {
+        if (!isMailboxThread()) {
+            throw new IllegalStateException(
+                    "Illegal thread detected. This method must be called from inside the mailbox thread!");
+        }
+    }
+
+    private void checkPutStateConditions(State state) {
+        if (state != OPEN) {
+            throw new MailboxClosedException(
+                    "Mailbox is in state "
+                            + state
+                            + ", but is required to be in state "
+                            + OPEN
+                            + " for put operations.");
+        }
+    }
+
+    private void checkTakeStateConditions() {
+        final State state = getState();
+        if (state == CLOSED) {
+            throw new MailboxClosedException(
+                    "Mailbox is in state "
+                            + state
+                            + ", but is required to be in state "
+                            + OPEN
+                            + " or "
+                            + QUIESCED
+                            + " for take operations.");
+        }
+    }
+
+    @Override
+    public void quiesce() {
+        checkIsMailboxThread();
+        lifecycleLock.lock();
+        try {
+            transitionFrom(OPEN, QUIESCED);
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public List<Mail> close() {
+        checkIsMailboxThread();
+        lifecycleLock.lock();
+        try {
+            if (getState() == CLOSED) {
+                return Collections.emptyList();
+            }
+            transitionFrom(getState(), CLOSED);
+            // wait for writers that have seen the mailbox open to finish enqueuing
+            while ((ctl.get() & WRITERS_MASK) != 0) {
+                Thread.yield();
+            }
+            return drain();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private void transitionFrom(State expected, State target) {
+        long c;
+        do {
+            c = ctl.get();
+            if (stateOf(c) != expected) {
+                return;
+            }
+        } while (!ctl.compareAndSet(c, ctlOf(target, c & WRITERS_MASK)));
+    }
+
+    @Nonnull
+    @Override
+    public State getState() {
+        return stateOf(ctl.get());
+    }
+
+    @Override
+    public void runExclusively(Runnable runnable) {
+        lifecycleLock.lock();
+        try {
+            runnable.run();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private static long ctlOf(State state, long writers) {
+        return ((long) state.ordinal() << STATE_SHIFT) | writers;
+    }
+
+    private static State stateOf(long ctl) {
+        return State.values()[(int) (ctl >>> STATE_SHIFT)];
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /** A mail in one of the queues or lanes. */
+    private static final class Node {
+        /** Cleared once the mail is taken, as the node may still be the stub of a queue. */
+        @Nullable private Mail mail;
+
+        private volatile Node next;
+        /** Assigned by the mailbox thread when moving the node into a lane. */
+        private long generation;
+        /** Assigned by the mailbox thread when moving the node into a lane. */
+        private long sequence;
+
+        private Node(@Nullable Mail mail) {
+            this.mail = mail;
+        }
+
+        private Mail takeMail() {
+            final Mail taken = mail;
+            mail = null;
+            return taken;
+        }
+
+        /** Whether this mail is taken before the given one. */
+        private boolean isBefore(Node other) {
+            return generation < other.generation
+                    || (generation == other.generation && sequence < other.sequence);
+        }
+    }
+
+    /**
+     * An intrusive multi-producer single-consumer queue. Producers atomically swap the tail and
+     * link the previous tail afterwards, the consumer follows the links starting from a stub node.
+     */
+    private static final class MpscQueue {
+        private final AtomicReference<Node> tail;
+        /** The stub node, only accessed by the consumer. */
+        private Node head;
+
+        private MpscQueue() {
+            this.head = new Node(null);
+            this.tail = new AtomicReference<>(head);
+        }
+
+        private void offer(Node node) {
+            final Node previous = tail.getAndSet(node);
+            previous.next = node;
+        }
+
+        /**
+         * Returns the next node or null if there is none. A node whose producer has swapped the
+         * tail but not yet linked it is not visible yet; the producer unparks the consumer after
+         * linking.
+         *
+         * <p>The returned node becomes the new stub. It may still be moved into a lane, as lanes
+         * never follow the links of their nodes. The previous stub is unlinked, so that taken nodes
+         * do not keep the following ones reachable.
+         */
+        @Nullable
+        private Node poll() {
+            final Node next = head.next;
+            if (next != null) {
+                head.next = null;
+                head = next;
+            }
+            return next;
+        }
+
+        private boolean isEmpty() {
+            return head.next == null;
+        }
+    }
+
+    /** The drained mails of one priority in the order they are taken. */
+    private static final class Lane {
+        private final int priority;
+        /** The mails of the current batch. */
+        private final ArrayDeque<Node> batch = new ArrayDeque<>();
+        /** The mails drained since the current batch has been created. */
+        private final ArrayDeque<Node> queue = new ArrayDeque<>();
+
+        private Lane(int priority) {
+            this.priority = priority;
+        }
+
+        @Nullable
+        private Node peek() {
+            final Node head = batch.peekFirst();
+            return head != null ? head : queue.peekFirst();
+        }
+
+        private Node poll() {
+            final Node head = batch.pollFirst();
+            return head != null ? head : queue.pollFirst();
+        }
+    }
+}
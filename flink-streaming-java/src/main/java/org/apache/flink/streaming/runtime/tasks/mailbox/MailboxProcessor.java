@@ -124,6 +124,11 @@ public class MailboxProcessor implements Closeable {
         this.suspendedDefaultAction = null;
     }
 
+    @VisibleForTesting
+    public TaskMailbox getMailbox() {
+        return mailbox;
+    }
+
     public MailboxExecutor getMainMailboxExecutor() {
         return new MailboxExecutorImpl(mailbox, MIN_PRIORITY, actionExecutor);
     }
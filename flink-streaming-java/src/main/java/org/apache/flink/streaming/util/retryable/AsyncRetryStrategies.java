@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.retryable;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryPredicate;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Utility class to create concrete {@link AsyncRetryStrategy AsyncRetryStrategies}.
+ *
+ * <p>The predicates passed to the builders are shipped with the operator and therefore have to be
+ * serializable, see {@link RetryPredicates} for commonly used ones.
+ */
+@PublicEvolving
+public class AsyncRetryStrategies {
+
+    /** A strategy that never retries. */
+    @SuppressWarnings("rawtypes")
+    public static final NoRetryStrategy NO_RETRY_STRATEGY = new NoRetryStrategy();
+
+    /** A strategy that never retries. */
+    @SuppressWarnings("rawtypes")
+    private static class NoRetryStrategy implements AsyncRetryStrategy {
+        private static final long serialVersionUID = 1L;
+
+        private NoRetryStrategy() {}
+
+        @Override
+        public boolean canRetry(int currentAttempts) {
+            return false;
+        }
+
+        @Override
+        public long getBackoffTimeMillis(int currentAttempts) {
+            return -1;
+        }
+
+        @Override
+        public AsyncRetryPredicate getRetryPredicate() {
+            return new RetryPredicate(null, null);
+        }
+    }
+
+    private static class RetryPredicate<OUT> implements AsyncRetryPredicate<OUT>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Nullable private final Predicate<? super Collection<OUT>> resultPredicate;
+        @Nullable private final Predicate<? super Throwable> exceptionPredicate;
+
+        private RetryPredicate(
+                @Nullable Predicate<? super Collection<OUT>> resultPredicate,
+                @Nullable Predicate<? super Throwable> exceptionPredicate) {
+            this.resultPredicate = resultPredicate;
+            this.exceptionPredicate = exceptionPredicate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Optional<Predicate<Collection<OUT>>> resultPredicate() {
+            // safe as predicates are only consumers of their argument
+            return Optional.ofNullable((Predicate<Collection<OUT>>) resultPredicate);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Optional<Predicate<Throwable>> exceptionPredicate() {
+            return Optional.ofNullable((Predicate<Throwable>) exceptionPredicate);
+        }
+    }
+
+    /** A retry strategy with a fixed delay between attempts. */
+    public static class FixedDelayRetryStrategy<OUT> implements AsyncRetryStrategy<OUT> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxAttempts;
+        private final long backoffTimeMillis;
+        private final RetryPredicate<OUT> retryPredicate;
+
+        private FixedDelayRetryStrategy(
+                int maxAttempts, long backoffTimeMillis, RetryPredicate<OUT> retryPredicate) {
+            this.maxAttempts = maxAttempts;
+            this.backoffTimeMillis = backoffTimeMillis;
+            this.retryPredicate = retryPredicate;
+        }
+
+        @Override
+        public boolean canRetry(int currentAttempts) {
+            return currentAttempts <= maxAttempts;
+        }
+
+        @Override
+        public long getBackoffTimeMillis(int currentAttempts) {
+            return backoffTimeMillis;
+        }
+
+        @Override
+        public AsyncRetryPredicate<OUT> getRetryPredicate() {
+            return retryPredicate;
+        }
+    }
+
+    /** Builder for the {@link FixedDelayRetryStrategy}. */
+    public static class FixedDelayRetryStrategyBuilder<OUT> {
+        private final int maxAttempts;
+        private final long backoffTimeMillis;
+        @Nullable private Predicate<? super Collection<OUT>> resultPredicate;
+        @Nullable private Predicate<? super Throwable> exceptionPredicate;
+
+        /**
+         * @param maxAttempts the maximum number of retries after the initial attempt.
+         * @param backoffTimeMillis the delay between two attempts.
+         */
+        public FixedDelayRetryStrategyBuilder(int maxAttempts, long backoffTimeMillis) {
+            Preconditions.checkArgument(
+                    maxAttempts > 0, "maxAttempts should be greater than zero.");
+            Preconditions.checkArgument(
+                    backoffTimeMillis >= 0, "backoffTimeMillis should not be negative.");
+            this.maxAttempts = maxAttempts;
+            this.backoffTimeMillis = backoffTimeMillis;
+        }
+
+        public FixedDelayRetryStrategyBuilder<OUT> ifResult(
+                Predicate<? super Collection<OUT>> resultRetryPredicate) {
+            this.resultPredicate = Preconditions.checkNotNull(resultRetryPredicate);
+            return this;
+        }
+
+        public FixedDelayRetryStrategyBuilder<OUT> ifException(
+                Predicate<? super Throwable> exceptionRetryPredicate) {
+            this.exceptionPredicate = Preconditions.checkNotNull(exceptionRetryPredicate);
+            return this;
+        }
+
+        public FixedDelayRetryStrategy<OUT> build() {
+            return new FixedDelayRetryStrategy<>(
+                    maxAttempts,
+                    backoffTimeMillis,
+                    new RetryPredicate<>(resultPredicate, exceptionPredicate));
+        }
+    }
+
+    /** A retry strategy with an exponentially growing delay between attempts. */
+    public static class ExponentialBackoffDelayRetryStrategy<OUT>
+            implements AsyncRetryStrategy<OUT> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxAttempts;
+        private final long initialDelay;
+        private final long maxRetryDelay;
+        private final double multiplier;
+        private final RetryPredicate<OUT> retryPredicate;
+
+        private ExponentialBackoffDelayRetryStrategy(
+                int maxAttempts,
+                long initialDelay,
+                long maxRetryDelay,
+                double multiplier,
+                RetryPredicate<OUT> retryPredicate) {
+            this.maxAttempts = maxAttempts;
+            this.initialDelay = initialDelay;
+            this.maxRetryDelay = maxRetryDelay;
+            this.multiplier = multiplier;
+            this.retryPredicate = retryPredicate;
+        }
+
+        @Override
+        public boolean canRetry(int currentAttempts) {
+            return currentAttempts <= maxAttempts;
+        }
+
+        @Override
+        public long getBackoffTimeMillis(int currentAttempts) {
+            if (currentAttempts <= 1) {
+                return initialDelay;
+            }
+            double delay = initialDelay * Math.pow(multiplier, currentAttempts - 1);
+            return (long) Math.min(delay, maxRetryDelay);
+        }
+
+        @Override
+        public AsyncRetryPredicate<OUT> getRetryPredicate() {
+            return retryPredicate;
+        }
+    }
+
+    /** Builder for the {@link ExponentialBackoffDelayRetryStrategy}. */
+    public static class ExponentialBackoffDelayRetryStrategyBuilder<OUT> {
+        private final int maxAttempts;
+        private final long initialDelay;
+        private final long maxRetryDelay;
+        private final double multiplier;
+        @Nullable private Predicate<? super Collection<OUT>> resultPredicate;
+        @Nullable private Predicate<? super Throwable> exceptionPredicate;
+
+        /**
+         * @param maxAttempts the maximum number of retries after the initial attempt.
+         * @param initialDelay the delay before the first retry.
+         * @param maxRetryDelay the upper bound of the delay between two attempts.
+         * @param multiplier the factor the delay grows by with every retry.
+         */
+        public ExponentialBackoffDelayRetryStrategyBuilder(
+                int maxAttempts, long initialDelay, long maxRetryDelay, double multiplier) {
+            Preconditions.checkArgument(
+                    maxAttempts > 0, "maxAttempts should be greater than zero.");
+            Preconditions.checkArgument(initialDelay >= 0, "initialDelay should not be negative.");
+            Preconditions.checkArgument(
+                    maxRetryDelay >= initialDelay,
+                    "maxRetryDelay should not be smaller than initialDelay.");
+            Preconditions.checkArgument(
+                    multiplier >= 1.0, "multiplier should not be smaller than 1.");
+            this.maxAttempts = maxAttempts;
+            this.initialDelay = initialDelay;
+            this.maxRetryDelay = maxRetryDelay;
+            this.multiplier = multiplier;
+        }
+
+        public ExponentialBackoffDelayRetryStrategyBuilder<OUT> ifResult(
+                Predicate<? super Collection<OUT>> resultRetryPredicate) {
+            this.resultPredicate = Preconditions.checkNotNull(resultRetryPredicate);
+            return this;
+        }
+
+        public ExponentialBackoffDelayRetryStrategyBuilder<OUT> ifException(
+                Predicate<? super Throwable> exceptionRetryPredicate) {
+            this.exceptionPredicate = Preconditions.checkNotNull(exceptionRetryPredicate);
+            return this;
+        }
+
+        public ExponentialBackoffDelayRetryStrategy<OUT> build() {
+            return new ExponentialBackoffDelayRetryStrategy<>(
+                    maxAttempts,
+                    initialDelay,
+                    maxRetryDelay,
+                    multiplier,
+                    new RetryPredicate<>(resultPredicate, exceptionPredicate));
+        }
+    }
+}
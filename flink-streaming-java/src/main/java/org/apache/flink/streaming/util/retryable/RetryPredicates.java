@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.retryable;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.util.ExceptionUtils;
+import org.apache.flink.util.Preconditions;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/** Utility class to create commonly used serializable retry predicates. */
+@PublicEvolving
+public class RetryPredicates {
+
+    /** A predicate that matches empty results. */
+    public static final EmptyResultPredicate EMPTY_RESULT_PREDICATE = new EmptyResultPredicate();
+
+    /** A predicate that matches any exception. */
+    public static final HasExceptionPredicate HAS_EXCEPTION_PREDICATE = new HasExceptionPredicate();
+
+    /**
+     * Creates a predicate that matches exceptions which are of, or caused by, the given type.
+     *
+     * @param exceptionClass the type of exception to retry on.
+     */
+    public static ExceptionTypePredicate createExceptionTypePredicate(
+            Class<? extends Throwable> exceptionClass) {
+        return new ExceptionTypePredicate(exceptionClass);
+    }
+
+    /** Matches empty (or null) results. */
+    public static final class EmptyResultPredicate
+            implements Predicate<Collection<?>>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private EmptyResultPredicate() {}
+
+        @Override
+        public boolean test(Collection<?> result) {
+            return result == null || result.isEmpty();
+        }
+    }
+
+    /** Matches any exception. */
+    public static final class HasExceptionPredicate implements Predicate<Throwable>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private HasExceptionPredicate() {}
+
+        @Override
+        public boolean test(Throwable throwable) {
+            return throwable != null;
+        }
+    }
+
+    /** Matches exceptions of, or caused by, a given type. */
+    public static final class ExceptionTypePredicate implements Predicate<Throwable>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Class<? extends Throwable> exceptionClass;
+
+        private ExceptionTypePredicate(Class<? extends Throwable> exceptionClass) {
+            this.exceptionClass = Preconditions.checkNotNull(exceptionClass);
+        }
+
+        @Override
+        public boolean test(Throwable throwable) {
+            return ExceptionUtils.findThrowable(throwable, exceptionClass).isPresent();
+        }
+    }
+}
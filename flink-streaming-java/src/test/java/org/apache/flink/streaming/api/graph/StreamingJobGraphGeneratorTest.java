@@ -64,6 +64,7 @@ import org.apache.flink.streaming.api.datastream.IterativeStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
 import org.apache.flink.streaming.api.functions.sink.SinkFunction;
 import org.apache.flink.streaming.api.functions.source.InputFormatSourceFunction;
@@ -924,6 +925,72 @@ public class StreamingJobGraphGeneratorTest extends TestLogger {
         assertTrue(areOperatorsChainable(streamNodes.get(1), streamNodes.get(2), streamGraph));
     }
 
+    @Test
+    public void testForwardObjectPassingEdges() {
+        StreamExecutionEnvironment env = createObjectPassingEnvironment();
+        createNonChainedForwardEdge(env);
+
+        JobGraph jobGraph = StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+        List<JobVertex> vertices = jobGraph.getVerticesSortedTopologicallyFromSources();
+        JobVertex sourceVertex = vertices.get(0);
+        JobVertex mapVertex = vertices.get(1);
+
+        assertNotNull(mapVertex.getCoLocationGroup());
+        assertEquals(sourceVertex.getCoLocationGroup(), mapVertex.getCoLocationGroup());
+
+        ClassLoader classLoader = getClass().getClassLoader();
+        assertTrue(
+                new StreamConfig(sourceVertex.getConfiguration())
+                        .getOutEdgesInOrder(classLoader)
+                        .get(0)
+                        .isObjectPassing());
+        assertTrue(
+                new StreamConfig(mapVertex.getConfiguration())
+                        .isObjectPassingInput(0, classLoader));
+    }
+
+    @Test
+    public void testNoForwardObjectPassingWithUnalignedCheckpoints() {
+        StreamExecutionEnvironment env = createObjectPassingEnvironment();
+        env.enableCheckpointing(1000);
+        env.getCheckpointConfig().enableUnalignedCheckpoints();
+        createNonChainedForwardEdge(env);
+
+        assertNoObjectPassing(StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph()));
+    }
+
+    @Test
+    public void testNoForwardObjectPassingOnBlockingEdges() {
+        StreamExecutionEnvironment env = createObjectPassingEnvironment();
+        env.setRuntimeMode(RuntimeExecutionMode.BATCH);
+        createNonChainedForwardEdge(env);
+
+        assertNoObjectPassing(StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph()));
+    }
+
+    private static StreamExecutionEnvironment createObjectPassingEnvironment() {
+        Configuration config = new Configuration();
+        config.set(StreamPipelineOptions.FORWARD_OBJECT_PASSING, true);
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment(config);
+        env.setParallelism(2);
+        return env;
+    }
+
+    private static void createNonChainedForwardEdge(StreamExecutionEnvironment env) {
+        env.fromSequence(0, 10).map(x -> x).disableChaining().addSink(new DiscardingSink<>());
+    }
+
+    private void assertNoObjectPassing(JobGraph jobGraph) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (JobVertex vertex : jobGraph.getVertices()) {
+            assertNull(vertex.getCoLocationGroup());
+            for (StreamEdge edge :
+                    new StreamConfig(vertex.getConfiguration()).getOutEdgesInOrder(classLoader)) {
+                assertFalse(edge.isObjectPassing());
+            }
+        }
+    }
+
     /**
      * Tests that {@link org.apache.flink.streaming.api.operators.YieldingOperatorFactory} are not
      * chained to legacy sources, see FLINK-16219.
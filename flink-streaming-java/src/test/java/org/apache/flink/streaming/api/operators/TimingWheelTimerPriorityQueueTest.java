@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators;
+
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.util.CloseableIterator;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link TimingWheelTimerPriorityQueue}. */
+public class TimingWheelTimerPriorityQueueTest extends TestLogger {
+
+    private static final int MAX_PARALLELISM = 128;
+
+    private static final KeyGroupRange KEY_GROUP_RANGE = new KeyGroupRange(0, MAX_PARALLELISM - 1);
+
+    @Test
+    public void testPollsTimersInTimestampOrder() {
+        final TimingWheelTimerPriorityQueue<Integer, String> queue = createQueue(1000L);
+        final long[] timestamps = {
+            Long.MAX_VALUE, 5_000_000_000L, 1_500L, 1_000L, 999L, 1_001L, 0L, -1L, Long.MIN_VALUE
+        };
+        for (long timestamp : timestamps) {
+            queue.add(new TimerHeapInternalTimer<>(timestamp, 1, "ns"));
+        }
+
+        assertEquals(timestamps.length, queue.size());
+        final long[] expected = {
+            Long.MIN_VALUE, -1L, 0L, 999L, 1_000L, 1_001L, 1_500L, 5_000_000_000L, Long.MAX_VALUE
+        };
+        for (long timestamp : expected) {
+            assertEquals(timestamp, queue.peek().getTimestamp());
+            assertEquals(timestamp, queue.poll().getTimestamp());
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testDeduplicatesTimers() {
+        final TimingWheelTimerPriorityQueue<Integer, String> queue = createQueue(1L);
+
+        assertTrue(queue.add(new TimerHeapInternalTimer<>(42L, 1, "ns")));
+        assertFalse(queue.add(new TimerHeapInternalTimer<>(42L, 1, "ns")));
+        queue.add(new TimerHeapInternalTimer<>(42L, 2, "ns"));
+        queue.add(new TimerHeapInternalTimer<>(42L, 1, "other"));
+        queue.add(new TimerHeapInternalTimer<>(43L, 1, "ns"));
+
+        assertEquals(4, queue.size());
+        assertTrue(queue.remove(new TimerHeapInternalTimer<>(42L, 1, "ns")));
+        assertFalse(queue.remove(new TimerHeapInternalTimer<>(42L, 1, "ns")));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void testAddingEarlierTimerChangesHead() {
+        final TimingWheelTimerPriorityQueue<Integer, String> queue = createQueue(10L);
+        queue.add(new TimerHeapInternalTimer<>(100_000L, 1, "ns"));
+        assertEquals(100_000L, queue.peek().getTimestamp());
+
+        // the cursor of the wheel is now at the bucket of the head, so earlier timers go before it
+        assertTrue(queue.add(new TimerHeapInternalTimer<>(5L, 1, "ns")));
+        assertFalse(queue.add(new TimerHeapInternalTimer<>(200_000L, 1, "ns")));
+        assertEquals(5L, queue.poll().getTimestamp());
+        assertEquals(100_000L, queue.poll().getTimestamp());
+        assertEquals(200_000L, queue.poll().getTimestamp());
+    }
+
+    @Test
+    public void testKeyGroupSubsetsAndIterator() {
+        final TimingWheelTimerPriorityQueue<Integer, String> queue = createQueue(1L);
+        final Set<TimerHeapInternalTimer<Integer, String>> expected = new HashSet<>();
+        for (int key = 0; key < 100; key++) {
+            final TimerHeapInternalTimer<Integer, String> timer =
+                    new TimerHeapInternalTimer<>(key * 1000L, key, "ns");
+            queue.add(timer);
+            expected.add(timer);
+        }
+
+        final Set<TimerHeapInternalTimer<Integer, String>> fromSubsets = new HashSet<>();
+        for (int keyGroup : KEY_GROUP_RANGE) {
+            for (TimerHeapInternalTimer<Integer, String> timer :
+                    queue.getSubsetForKeyGroup(keyGroup)) {
+                assertEquals(
+                        keyGroup,
+                        KeyGroupRangeAssignment.assignToKeyGroup(timer.getKey(), MAX_PARALLELISM));
+                fromSubsets.add(timer);
+            }
+        }
+        assertEquals(expected, fromSubsets);
+
+        final Set<TimerHeapInternalTimer<Integer, String>> fromIterator = new HashSet<>();
+        try (CloseableIterator<TimerHeapInternalTimer<Integer, String>> iterator =
+                queue.iterator()) {
+            iterator.forEachRemaining(fromIterator::add);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assertEquals(expected, fromIterator);
+    }
+
+    @Test
+    public void testRandomOperationsAgainstSortedSet() {
+        final Random random = new Random(42L);
+        for (long resolution : new long[] {1L, 3L, 1000L}) {
+            final TimingWheelTimerPriorityQueue<Integer, String> queue = createQueue(resolution);
+            final TreeSet<TimerHeapInternalTimer<Integer, String>> expected =
+                    new TreeSet<>(
+                            (a, b) -> {
+                                int cmp = Long.compare(a.getTimestamp(), b.getTimestamp());
+                                return cmp != 0 ? cmp : Integer.compare(a.getKey(), b.getKey());
+                            });
+            final List<TimerHeapInternalTimer<Integer, String>> added = new ArrayList<>();
+            long now = 0L;
+
+            for (int i = 0; i < 100_000; i++) {
+                final int operation = random.nextInt(10);
+                if (operation < 5) {
+                    final long timestamp =
+                            now + (random.nextBoolean() ? random.nextInt(100) : random.nextInt());
+                    final TimerHeapInternalTimer<Integer, String> timer =
+                            new TimerHeapInternalTimer<>(timestamp, random.nextInt(50), "ns");
+                    queue.add(timer);
+                    expected.add(timer);
+                    added.add(timer);
+                } else if (operation < 7 && !added.isEmpty()) {
+                    final TimerHeapInternalTimer<Integer, String> timer =
+                            added.get(random.nextInt(added.size()));
+                    queue.remove(
+                            new TimerHeapInternalTimer<>(
+                                    timer.getTimestamp(), timer.getKey(), timer.getNamespace()));
+                    expected.remove(timer);
+                } else {
+                    final TimerHeapInternalTimer<Integer, String> head = queue.poll();
+                    assertPolledEarliest(expected, head);
+                    if (head != null) {
+                        now = head.getTimestamp();
+                    }
+                }
+                assertEquals(expected.size(), queue.size());
+            }
+
+            while (!expected.isEmpty()) {
+                assertPolledEarliest(expected, queue.poll());
+            }
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    /** Timers with equal timestamps may be polled in any order. */
+    private static void assertPolledEarliest(
+            TreeSet<TimerHeapInternalTimer<Integer, String>> expected,
+            TimerHeapInternalTimer<Integer, String> polled) {
+        if (expected.isEmpty()) {
+            assertNull(polled);
+        } else {
+            assertEquals(expected.first().getTimestamp(), polled.getTimestamp());
+            assertTrue(expected.remove(polled));
+        }
+    }
+
+    private static TimingWheelTimerPriorityQueue<Integer, String> createQueue(long resolution) {
+        return new TimingWheelTimerPriorityQueue<>(resolution, KEY_GROUP_RANGE, MAX_PARALLELISM);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.async;
+
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+/** Tests for {@link AimdCapacityLimiter}. */
+public class AimdCapacityLimiterTest extends TestLogger {
+
+    private static final long THRESHOLD = 100L;
+
+    @Test
+    public void testAdditiveIncrease() {
+        AimdCapacityLimiter limiter = createLimiter(1, 1, 4);
+
+        // one full window of fast responses grows the limit by one
+        limiter.onAttemptCompleted(limiter.getEpoch(), THRESHOLD, false);
+        assertEquals(2, limiter.getLimit());
+        limiter.onAttemptCompleted(limiter.getEpoch(), THRESHOLD, false);
+        assertEquals(2, limiter.getLimit());
+        limiter.onAttemptCompleted(limiter.getEpoch(), THRESHOLD, false);
+        assertEquals(3, limiter.getLimit());
+
+        // the limit never exceeds the maximum
+        for (int i = 0; i < 100; i++) {
+            limiter.onAttemptCompleted(limiter.getEpoch(), 1L, false);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testMultiplicativeDecreaseOncePerEpoch() {
+        AimdCapacityLimiter limiter = createLimiter(1, 16, 16);
+        long epoch = limiter.getEpoch();
+
+        // a burst of slow responses issued at the same time halves the limit only once
+        limiter.onAttemptCompleted(epoch, THRESHOLD + 1, false);
+        limiter.onAttemptCompleted(epoch, THRESHOLD + 1, false);
+        limiter.onAttemptCompleted(epoch, 1L, true);
+        assertEquals(8, limiter.getLimit());
+
+        // attempts issued after the decrease may decrease the limit again
+        limiter.onAttemptCompleted(limiter.getEpoch(), 1L, true);
+        assertEquals(4, limiter.getLimit());
+
+        // the limit never falls below the minimum
+        for (int i = 0; i < 10; i++) {
+            limiter.onAttemptCompleted(limiter.getEpoch(), 1L, true);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    private static AimdCapacityLimiter createLimiter(int min, int initial, int max) {
+        return new AimdCapacityLimiter(
+                AsyncAdaptiveCapacity.builder(max, Duration.ofMillis(THRESHOLD))
+                        .setMinCapacity(min)
+                        .setInitialCapacity(initial)
+                        .build());
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.common.typeutils.base.IntSerializer;
 import org.apache.flink.api.java.Utils;
+import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.api.java.tuple.Tuple1;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
 import org.apache.flink.api.java.typeutils.runtime.TupleSerializer;
@@ -43,7 +44,9 @@ import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.async.AsyncAdaptiveCapacity;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
 import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
@@ -55,10 +58,13 @@ import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.OneInputStreamTask;
 import org.apache.flink.streaming.runtime.tasks.OneInputStreamTaskTestHarness;
+import org.apache.flink.streaming.runtime.tasks.StreamMockEnvironment;
 import org.apache.flink.streaming.runtime.tasks.StreamTaskMailboxTestHarness;
 import org.apache.flink.streaming.runtime.tasks.StreamTaskMailboxTestHarnessBuilder;
 import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
 import org.apache.flink.streaming.util.TestHarnessUtil;
+import org.apache.flink.streaming.util.retryable.AsyncRetryStrategies;
+import org.apache.flink.streaming.util.retryable.RetryPredicates;
 import org.apache.flink.testutils.junit.SharedObjects;
 import org.apache.flink.testutils.junit.SharedReference;
 import org.apache.flink.util.ExceptionUtils;
@@ -73,14 +79,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
@@ -252,6 +261,17 @@ public class AsyncWaitOperatorTest extends TestLogger {
         }
     }
 
+    /**
+     * A special {@link LazyAsyncFunction} for timeout handling. Does not complete the result future
+     * when the timeout occurred, so the record waits for the original invocation.
+     */
+    private static class NoOpTimeoutLazyAsyncFunction extends LazyAsyncFunction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void timeout(Integer input, ResultFuture<Integer> resultFuture) {}
+    }
+
     /** Completes input at half the TIMEOUT and registers timeouts. */
     private static class TimeoutAfterCompletionTestFunction
             implements AsyncFunction<Integer, Integer> {
@@ -732,6 +752,15 @@ public class AsyncWaitOperatorTest extends TestLogger {
                 new StreamRecord<>(2, 5L));
     }
 
+    @Test
+    public void testAsyncTimeoutNoOp() throws Exception {
+        testAsyncTimeout(
+                new NoOpTimeoutLazyAsyncFunction(),
+                Optional.empty(),
+                new StreamRecord<>(1, 0L),
+                new StreamRecord<>(2, 5L));
+    }
+
     private void testAsyncTimeout(
             LazyAsyncFunction lazyAsyncFunction,
             Optional<Class<? extends Throwable>> expectedException,
@@ -1059,6 +1088,252 @@ public class AsyncWaitOperatorTest extends TestLogger {
         }
     }
 
+    /** Tests that the key ordered mode only holds back results behind results of the same key. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testKeyOrdered() throws Exception {
+        StreamTaskMailboxTestHarnessBuilder<Integer> builder =
+                new StreamTaskMailboxTestHarnessBuilder<>(
+                                OneInputStreamTask::new, BasicTypeInfo.INT_TYPE_INFO)
+                        .addInput(BasicTypeInfo.INT_TYPE_INFO);
+        SharedReference<List<ResultFuture<?>>> resultFutures = sharedObjects.add(new ArrayList<>());
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                builder.setupOutputForSingletonOperatorChain(
+                                new AsyncWaitOperatorFactory<>(
+                                        new CollectableFuturesAsyncFunction<Integer>(resultFutures),
+                                        TIMEOUT,
+                                        5,
+                                        AsyncDataStream.OutputMode.KEY_ORDERED,
+                                        (KeySelector<Integer, Integer>) value -> value % 2))
+                        .build()) {
+            for (int i = 1; i <= 4; i++) {
+                harness.processElement(new StreamRecord<>(i, i));
+            }
+            List<ResultFuture<Integer>> futures = new ArrayList<>();
+            for (ResultFuture<?> resultFuture : resultFutures.get()) {
+                futures.add((ResultFuture<Integer>) resultFuture);
+            }
+
+            // 3 waits for 1 of the same key, 2 of the other key is emitted right away
+            futures.get(2).complete(Collections.singletonList(3));
+            futures.get(1).complete(Collections.singletonList(2));
+            harness.processAll();
+            assertEquals(
+                    Collections.singletonList(new StreamRecord<>(2, 2L)),
+                    new ArrayList<>(harness.getOutput()));
+
+            futures.get(0).complete(Collections.singletonList(1));
+            futures.get(3).complete(Collections.singletonList(4));
+            harness.processAll();
+            assertEquals(
+                    Arrays.asList(
+                            new StreamRecord<>(2, 2L),
+                            new StreamRecord<>(1, 1L),
+                            new StreamRecord<>(3, 3L),
+                            new StreamRecord<>(4, 4L)),
+                    new ArrayList<>(harness.getOutput()));
+        }
+    }
+
+    /** Tests that failed attempts are retried until they succeed. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetryOnException() throws Exception {
+        AsyncRetryStrategy<Integer> retryStrategy =
+                new AsyncRetryStrategies.FixedDelayRetryStrategyBuilder<Integer>(3, 1L)
+                        .ifException(RetryPredicates.HAS_EXCEPTION_PREDICATE)
+                        .build();
+        SharedReference<Map<Integer, Integer>> attempts = sharedObjects.add(new HashMap<>());
+        SharedReference<List<Throwable>> failures = sharedObjects.add(new ArrayList<>());
+
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                createRetryTestHarness(
+                        new FlakyAsyncFunction(attempts, 2, false), TIMEOUT, retryStrategy, null)) {
+            ((StreamMockEnvironment) harness.getStreamTask().getEnvironment())
+                    .setExternalExceptionHandler(failures.get()::add);
+
+            for (int i = 1; i <= 3; i++) {
+                harness.processElement(new StreamRecord<>(i, i));
+            }
+            harness.processUntil(() -> harness.getOutput().size() == 3);
+
+            assertEquals(
+                    Arrays.asList(
+                            new StreamRecord<>(1, 1L),
+                            new StreamRecord<>(2, 2L),
+                            new StreamRecord<>(3, 3L)),
+                    new ArrayList<>(harness.getOutput()));
+            for (int i = 1; i <= 3; i++) {
+                assertEquals(3, (int) attempts.get().get(i));
+            }
+            assertTrue(failures.get().isEmpty());
+        }
+    }
+
+    /** Tests that unsatisfying results are retried until they match the expectations. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetryOnResult() throws Exception {
+        AsyncRetryStrategy<Integer> retryStrategy =
+                new AsyncRetryStrategies.ExponentialBackoffDelayRetryStrategyBuilder<Integer>(
+                                3, 1L, 10L, 2.0)
+                        .ifResult(RetryPredicates.EMPTY_RESULT_PREDICATE)
+                        .build();
+        SharedReference<Map<Integer, Integer>> attempts = sharedObjects.add(new HashMap<>());
+
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                createRetryTestHarness(
+                        new FlakyAsyncFunction(attempts, 1, true), TIMEOUT, retryStrategy, null)) {
+            harness.processElement(new StreamRecord<>(1, 1L));
+            harness.processUntil(() -> !harness.getOutput().isEmpty());
+
+            assertEquals(
+                    Collections.singletonList(new StreamRecord<>(1, 1L)),
+                    new ArrayList<>(harness.getOutput()));
+            assertEquals(2, (int) attempts.get().get(1));
+        }
+    }
+
+    /** Tests that the failure of the last attempt fails the task. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetryExhausted() throws Exception {
+        AsyncRetryStrategy<Integer> retryStrategy =
+                new AsyncRetryStrategies.FixedDelayRetryStrategyBuilder<Integer>(2, 1L)
+                        .ifException(RetryPredicates.HAS_EXCEPTION_PREDICATE)
+                        .build();
+        SharedReference<Map<Integer, Integer>> attempts = sharedObjects.add(new HashMap<>());
+        SharedReference<List<Throwable>> failures = sharedObjects.add(new ArrayList<>());
+
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                createRetryTestHarness(
+                        new FlakyAsyncFunction(attempts, Integer.MAX_VALUE, false),
+                        TIMEOUT,
+                        retryStrategy,
+                        null)) {
+            ((StreamMockEnvironment) harness.getStreamTask().getEnvironment())
+                    .setExternalExceptionHandler(failures.get()::add);
+
+            harness.processElement(new StreamRecord<>(1, 1L));
+            harness.processUntil(() -> !failures.get().isEmpty());
+
+            assertEquals(3, (int) attempts.get().get(1));
+            assertTrue(
+                    ExceptionUtils.findThrowableWithMessage(failures.get().get(0), "Flaky attempt")
+                            .isPresent());
+        }
+    }
+
+    /** Tests that the timeout spans all attempts and cancels pending retries. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTimeoutCoversRetries() throws Exception {
+        AsyncRetryStrategy<Integer> retryStrategy =
+                new AsyncRetryStrategies.FixedDelayRetryStrategyBuilder<Integer>(3, 1_000_000L)
+                        .ifException(RetryPredicates.HAS_EXCEPTION_PREDICATE)
+                        .build();
+        SharedReference<Map<Integer, Integer>> attempts = sharedObjects.add(new HashMap<>());
+        SharedReference<List<Throwable>> failures = sharedObjects.add(new ArrayList<>());
+
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                createRetryTestHarness(
+                        new FlakyAsyncFunction(attempts, Integer.MAX_VALUE, false),
+                        10L,
+                        retryStrategy,
+                        null)) {
+            ((StreamMockEnvironment) harness.getStreamTask().getEnvironment())
+                    .setExternalExceptionHandler(failures.get()::add);
+
+            harness.processElement(new StreamRecord<>(1, 1L));
+            harness.processUntil(() -> !failures.get().isEmpty());
+
+            assertEquals(1, (int) attempts.get().get(1));
+            assertTrue(
+                    ExceptionUtils.findThrowable(failures.get().get(0), TimeoutException.class)
+                            .isPresent());
+        }
+    }
+
+    /** Tests that records pass an adaptive capacity that starts at the lowest limit. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAdaptiveCapacity() throws Exception {
+        AsyncAdaptiveCapacity adaptiveCapacity =
+                AsyncAdaptiveCapacity.builder(5, Duration.ofHours(1)).build();
+        SharedReference<Map<Integer, Integer>> attempts = sharedObjects.add(new HashMap<>());
+
+        try (StreamTaskMailboxTestHarness<Integer> harness =
+                createRetryTestHarness(
+                        new FlakyAsyncFunction(attempts, 0, false),
+                        TIMEOUT,
+                        AsyncRetryStrategies.NO_RETRY_STRATEGY,
+                        adaptiveCapacity)) {
+            List<StreamRecord<Integer>> expectedOutput = new ArrayList<>();
+            for (int i = 1; i <= 10; i++) {
+                harness.processElement(new StreamRecord<>(i, i));
+                expectedOutput.add(new StreamRecord<>(i, i));
+            }
+            harness.processUntil(() -> harness.getOutput().size() == 10);
+
+            assertEquals(expectedOutput, new ArrayList<>(harness.getOutput()));
+        }
+    }
+
+    private static StreamTaskMailboxTestHarness<Integer> createRetryTestHarness(
+            AsyncFunction<Integer, Integer> function,
+            long timeout,
+            AsyncRetryStrategy<Integer> retryStrategy,
+            AsyncAdaptiveCapacity adaptiveCapacity)
+            throws Exception {
+        return new StreamTaskMailboxTestHarnessBuilder<>(
+                        OneInputStreamTask::new, BasicTypeInfo.INT_TYPE_INFO)
+                .addInput(BasicTypeInfo.INT_TYPE_INFO)
+                .setupOutputForSingletonOperatorChain(
+                        new AsyncWaitOperatorFactory<>(
+                                function,
+                                timeout,
+                                5,
+                                AsyncDataStream.OutputMode.ORDERED,
+                                null,
+                                retryStrategy,
+                                adaptiveCapacity))
+                .build();
+    }
+
+    /**
+     * AsyncFunction whose first attempts of every input fail or, alternatively, return an empty
+     * result.
+     */
+    private static class FlakyAsyncFunction implements AsyncFunction<Integer, Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SharedReference<Map<Integer, Integer>> attempts;
+        private final int flakyAttempts;
+        private final boolean emptyResults;
+
+        private FlakyAsyncFunction(
+                SharedReference<Map<Integer, Integer>> attempts,
+                int flakyAttempts,
+                boolean emptyResults) {
+            this.attempts = attempts;
+            this.flakyAttempts = flakyAttempts;
+            this.emptyResults = emptyResults;
+        }
+
+        @Override
+        public void asyncInvoke(Integer input, ResultFuture<Integer> resultFuture) {
+            int attempt = attempts.get().merge(input, 1, Integer::sum);
+            if (attempt > flakyAttempts) {
+                resultFuture.complete(Collections.singletonList(input));
+            } else if (emptyResults) {
+                resultFuture.complete(Collections.emptyList());
+            } else {
+                resultFuture.completeExceptionally(new Exception("Flaky attempt " + attempt));
+            }
+        }
+    }
+
     private static class CollectableFuturesAsyncFunction<IN> implements AsyncFunction<IN, IN> {
 
         private static final long serialVersionUID = -4214078239227288637L;
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.async.queue;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.apache.flink.streaming.api.operators.async.queue.QueueUtil.popCompleted;
+import static org.apache.flink.streaming.api.operators.async.queue.QueueUtil.putSuccessfully;
+
+/** {@link KeyOrderedStreamElementQueue} specific tests. */
+public class KeyOrderedStreamElementQueueTest extends TestLogger {
+
+    /**
+     * Tests that completed records are emitted right away unless an earlier record of the same key
+     * or an earlier watermark is still pending.
+     */
+    @Test
+    public void testCompletionOrder() {
+        final KeyOrderedStreamElementQueue<Tuple2<String, Integer>, Integer> queue =
+                new KeyOrderedStreamElementQueue<>(8, value -> value.f0);
+
+        ResultFuture<Integer> a1 =
+                putSuccessfully(queue, new StreamRecord<>(Tuple2.of("a", 1), 0L));
+        ResultFuture<Integer> b1 =
+                putSuccessfully(queue, new StreamRecord<>(Tuple2.of("b", 1), 1L));
+        ResultFuture<Integer> a2 =
+                putSuccessfully(queue, new StreamRecord<>(Tuple2.of("a", 2), 2L));
+        ResultFuture<Integer> b2 =
+                putSuccessfully(queue, new StreamRecord<>(Tuple2.of("b", 2), 3L));
+        putSuccessfully(queue, new Watermark(4L));
+        ResultFuture<Integer> a3 =
+                putSuccessfully(queue, new StreamRecord<>(Tuple2.of("a", 3), 5L));
+
+        Assert.assertEquals(Collections.emptyList(), popCompleted(queue));
+        Assert.assertEquals(6, queue.size());
+
+        // a2 waits for a1, but b1 is emitted right away
+        a2.complete(Collections.singletonList(12));
+        b1.complete(Collections.singletonList(21));
+        Assert.assertEquals(Arrays.asList(new StreamRecord<>(21, 1L)), popCompleted(queue));
+        Assert.assertEquals(5, queue.size());
+
+        // a3 is behind the watermark
+        a3.complete(Collections.singletonList(13));
+        Assert.assertEquals(Collections.emptyList(), popCompleted(queue));
+
+        // completing a1 releases a2
+        a1.complete(Collections.singletonList(11));
+        Assert.assertEquals(
+                Arrays.asList(new StreamRecord<>(11, 0L), new StreamRecord<>(12, 2L)),
+                popCompleted(queue));
+        Assert.assertEquals(3, queue.size());
+
+        // completing the last record before the watermark releases the watermark and a3
+        b2.complete(Collections.singletonList(22));
+        Assert.assertEquals(
+                Arrays.asList(
+                        new StreamRecord<>(22, 3L), new Watermark(4L), new StreamRecord<>(13, 5L)),
+                popCompleted(queue));
+        Assert.assertEquals(0, queue.size());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /** Tests that the snapshot of the queue keeps the order of the records of each key. */
+    @Test
+    public void testValuesKeepOrderPerKey() {
+        final KeyOrderedStreamElementQueue<Tuple2<String, Integer>, Integer> queue =
+                new KeyOrderedStreamElementQueue<>(8, value -> value.f0);
+
+        StreamRecord<Tuple2<String, Integer>> a1 = new StreamRecord<>(Tuple2.of("a", 1), 0L);
+        StreamRecord<Tuple2<String, Integer>> b1 = new StreamRecord<>(Tuple2.of("b", 1), 1L);
+        StreamRecord<Tuple2<String, Integer>> a2 = new StreamRecord<>(Tuple2.of("a", 2), 2L);
+        Watermark watermark = new Watermark(3L);
+        StreamRecord<Tuple2<String, Integer>> a3 = new StreamRecord<>(Tuple2.of("a", 3), 4L);
+
+        putSuccessfully(queue, a1);
+        putSuccessfully(queue, b1).complete(Collections.singletonList(21));
+        putSuccessfully(queue, a2).complete(Collections.singletonList(12));
+        putSuccessfully(queue, watermark);
+        putSuccessfully(queue, a3);
+
+        Assert.assertEquals(Arrays.asList(new StreamRecord<>(21, 1L)), popCompleted(queue));
+        Assert.assertEquals(Arrays.asList(a1, a2, watermark, a3), queue.values());
+    }
+}
@@ -50,7 +50,9 @@ public class StreamElementQueueTest extends TestLogger {
     @Parameterized.Parameters
     public static Collection<AsyncDataStream.OutputMode> outputModes() {
         return Arrays.asList(
-                AsyncDataStream.OutputMode.ORDERED, AsyncDataStream.OutputMode.UNORDERED);
+                AsyncDataStream.OutputMode.ORDERED,
+                AsyncDataStream.OutputMode.UNORDERED,
+                AsyncDataStream.OutputMode.KEY_ORDERED);
     }
 
     private final AsyncDataStream.OutputMode outputMode;
@@ -65,6 +67,8 @@ public class StreamElementQueueTest extends TestLogger {
                 return new OrderedStreamElementQueue<>(capacity);
             case UNORDERED:
                 return new UnorderedStreamElementQueue<>(capacity);
+            case KEY_ORDERED:
+                return new KeyOrderedStreamElementQueue<Object, Integer>(capacity, value -> value);
             default:
                 throw new IllegalStateException("Unknown output mode: " + outputMode);
         }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.TestHarnessUtil;
+
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** Tests for {@link AbstractAsyncStateStreamOperator}. */
+public class AbstractAsyncStateStreamOperatorTest {
+
+    @Test
+    public void testProcessingWithAsyncState() throws Exception {
+        try (KeyedOneInputStreamOperatorTestHarness<String, String, Tuple2<String, Long>>
+                testHarness = createTestHarness()) {
+            testHarness.open();
+
+            testHarness.processElement(new StreamRecord<>("a", 1L));
+            testHarness.processElement(new StreamRecord<>("b", 2L));
+            testHarness.processElement(new StreamRecord<>("a", 3L));
+            testHarness.processWatermark(new Watermark(3L));
+
+            ConcurrentLinkedQueue<Object> expected = new ConcurrentLinkedQueue<>();
+            expected.add(new StreamRecord<>(Tuple2.of("a", 1L), 1L));
+            expected.add(new StreamRecord<>(Tuple2.of("b", 1L), 2L));
+            expected.add(new StreamRecord<>(Tuple2.of("a", 2L), 3L));
+            expected.add(new Watermark(3L));
+            TestHarnessUtil.assertOutputEquals(
+                    "Output was not correct.", expected, testHarness.getOutput());
+        }
+    }
+
+    @Test
+    public void testRestoreAsyncState() throws Exception {
+        OperatorSubtaskState snapshot;
+        try (KeyedOneInputStreamOperatorTestHarness<String, String, Tuple2<String, Long>>
+                testHarness = createTestHarness()) {
+            testHarness.open();
+            testHarness.processElement(new StreamRecord<>("a", 1L));
+            testHarness.processElement(new StreamRecord<>("a", 2L));
+            snapshot = testHarness.snapshot(1L, 1L);
+        }
+
+        try (KeyedOneInputStreamOperatorTestHarness<String, String, Tuple2<String, Long>>
+                testHarness = createTestHarness()) {
+            testHarness.initializeState(snapshot);
+            testHarness.open();
+            testHarness.processElement(new StreamRecord<>("a", 3L));
+            testHarness.processElement(new StreamRecord<>("b", 4L));
+
+            ConcurrentLinkedQueue<Object> expected = new ConcurrentLinkedQueue<>();
+            expected.add(new StreamRecord<>(Tuple2.of("a", 3L), 3L));
+            expected.add(new StreamRecord<>(Tuple2.of("b", 1L), 4L));
+            TestHarnessUtil.assertOutputEquals(
+                    "Output was not correct.", expected, testHarness.getOutput());
+        }
+    }
+
+    private static KeyedOneInputStreamOperatorTestHarness<String, String, Tuple2<String, Long>>
+            createTestHarness() throws Exception {
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                new CountingOperator(), value -> value, BasicTypeInfo.STRING_TYPE_INFO);
+    }
+
+    /** Counts the elements per key, keeping the count and the last element in async state. */
+    private static class CountingOperator
+            extends AbstractAsyncStateStreamOperator<String, Tuple2<String, Long>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient AsyncValueState<Long> countState;
+
+        private transient AsyncMapState<String, Long> lastSeenState;
+
+        @Override
+        public void open() throws Exception {
+            super.open();
+            countState = getAsyncValueState(new ValueStateDescriptor<>("count", Types.LONG));
+            lastSeenState =
+                    getAsyncMapState(
+                            new MapStateDescriptor<>("last-seen", Types.STRING, Types.LONG));
+        }
+
+        @Override
+        protected void processElementAsync(StreamRecord<String> element) throws Exception {
+            countState
+                    .asyncValue()
+                    .thenCombine(
+                            lastSeenState.asyncGet(element.getValue()),
+                            (count, lastSeen) -> count == null ? 1L : count + 1)
+                    .thenAccept(
+                            count -> {
+                                countState.update(count);
+                                lastSeenState.put(element.getValue(), element.getTimestamp());
+                                output.collect(
+                                        element.replace(Tuple2.of(element.getValue(), count)));
+                            });
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators.asyncstate;
+
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.runtime.state.internal.InternalStateRead;
+import org.apache.flink.streaming.api.operators.KeyContext;
+import org.apache.flink.streaming.runtime.tasks.StreamTaskActionExecutor;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxExecutorImpl;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailboxImpl;
+import org.apache.flink.util.ExceptionUtils;
+import org.apache.flink.util.FlinkException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests for {@link AsyncStateController}. */
+public class AsyncStateControllerTest {
+
+    private MailboxExecutor mailboxExecutor;
+
+    private TestKeyContext keyContext;
+
+    private Map<Object, String> state;
+
+    private Queue<Runnable> pendingFetches;
+
+    private List<String> processed;
+
+    @Before
+    public void setUp() {
+        mailboxExecutor =
+                new MailboxExecutorImpl(
+                        new TaskMailboxImpl(), 0, StreamTaskActionExecutor.IMMEDIATE);
+        keyContext = new TestKeyContext();
+        state = new HashMap<>();
+        pendingFetches = new ArrayDeque<>();
+        processed = new ArrayList<>();
+    }
+
+    @Test
+    public void testRecordsOfSameKeyAreProcessedInOrder() throws Exception {
+        AsyncStateController controller = createController(pendingFetches::add, 100);
+        state.put("a", "a-value");
+        state.put("b", "b-value");
+
+        processRecord(controller, "a", "a1");
+        processRecord(controller, "a", "a2");
+        processRecord(controller, "b", "b1");
+        assertEquals(Arrays.asList("a1", "b1"), processed);
+        assertEquals(2, controller.getInFlightRequests());
+        assertEquals(1, controller.getDeferredRecords());
+
+        // the fetch of "a1" finished, but its completion waits in the mailbox
+        runFetches(1);
+        assertEquals(Arrays.asList("a1", "b1"), processed);
+        fetchAll();
+        processMails();
+        assertEquals(Arrays.asList("a1", "b1", "a1:a-value", "a2", "b1:b-value"), processed);
+
+        // the deferred record issued a new read
+        assertEquals(1, controller.getInFlightRequests());
+        fetchAll();
+        processMails();
+        assertEquals(
+                Arrays.asList("a1", "b1", "a1:a-value", "a2", "b1:b-value", "a2:a-value"),
+                processed);
+        assertEquals(0, controller.getInFlightRequests());
+        assertEquals(0, controller.getDeferredRecords());
+    }
+
+    @Test
+    public void testCallbacksRunWithKeyOfRead() throws Exception {
+        AsyncStateController controller = createController(pendingFetches::add, 100);
+        state.put("a", "a-value");
+        state.put("b", "b-value");
+
+        keyContext.setCurrentKey("a");
+        controller
+                .read(new TestRead())
+                .thenAccept(
+                        value -> {
+                            processed.add(keyContext.getCurrentKey() + ":" + value);
+                            // chained reads are issued for the same key
+                            controller
+                                    .read(new TestRead())
+                                    .thenAccept(
+                                            chained ->
+                                                    processed.add(
+                                                            keyContext.getCurrentKey()
+                                                                    + ":"
+                                                                    + chained));
+                        });
+        keyContext.setCurrentKey("b");
+
+        fetchAll();
+        processMails();
+        fetchAll();
+        processMails();
+        assertEquals(Arrays.asList("a:a-value", "a:a-value"), processed);
+        assertEquals(0, controller.getInFlightRequests());
+    }
+
+    @Test
+    public void testChainedReadsKeepKeyOccupied() throws Exception {
+        AsyncStateController controller = createController(pendingFetches::add, 100);
+        state.put("a", "a-value");
+
+        keyContext.setCurrentKey("a");
+        controller.processRecord(
+                () ->
+                        controller
+                                .read(new TestRead())
+                                .thenCompose(value -> controller.read(new TestRead()))
+                                .thenAccept(value -> processed.add("first:" + value)));
+        processRecord(controller, "a", "second");
+
+        fetchAll();
+        processMails();
+        assertTrue(processed.isEmpty());
+
+        fetchAll();
+        processMails();
+        assertEquals(Arrays.asList("first:a-value", "second"), processed);
+    }
+
+    @Test
+    public void testReadsServedFromMemoryCompleteRightAway() throws Exception {
+        AsyncStateController controller = createController(pendingFetches::add, 100);
+
+        keyContext.setCurrentKey("a");
+        controller.processRecord(
+                () ->
+                        controller
+                                .read(InternalStateRead.completed("cached"))
+                                .thenAccept(processed::add));
+        processRecord(controller, "a", "next");
+
+        assertEquals(Arrays.asList("cached", "next"), processed);
+        assertEquals(1, controller.getInFlightRequests());
+        assertEquals(1, pendingFetches.size());
+    }
+
+    @Test
+    public void testInFlightRequestsAreBounded() throws Exception {
+        // fetches run right away, but their completions wait in the mailbox
+        AsyncStateController controller = createController(Runnable::run, 2);
+        for (int i = 0; i < 10; i++) {
+            processRecord(controller, i % 3, "r" + i);
+            assertTrue(controller.getInFlightRequests() + controller.getDeferredRecords() <= 2);
+        }
+
+        controller.drainInFlightRequests();
+        assertEquals(0, controller.getInFlightRequests());
+        assertEquals(20, processed.size());
+    }
+
+    @Test
+    public void testFailedFetchFailsCompletion() throws Exception {
+        AsyncStateController controller = createController(pendingFetches::add, 100);
+
+        keyContext.setCurrentKey("a");
+        controller.read(
+                new TestRead() {
+                    @Override
+                    public void fetch() throws IOException {
+                        throw new IOException("expected");
+                    }
+                });
+        fetchAll();
+
+        try {
+            processMails();
+            fail("The failed fetch should fail the completion.");
+        } catch (Exception e) {
+            assertTrue(ExceptionUtils.findThrowable(e, FlinkException.class).isPresent());
+            assertTrue(ExceptionUtils.findThrowableWithMessage(e, "expected").isPresent());
+        }
+        assertFalse(mailboxExecutor.tryYield());
+    }
+
+    private AsyncStateController createController(Executor readExecutor, int maxInFlight) {
+        return new AsyncStateController(keyContext, mailboxExecutor, readExecutor, maxInFlight);
+    }
+
+    /** Processes a record which reads the state and logs the value. */
+    private void processRecord(AsyncStateController controller, Object key, String name)
+            throws Exception {
+        keyContext.setCurrentKey(key);
+        controller.processRecord(
+                () -> {
+                    processed.add(name);
+                    controller
+                            .read(new TestRead())
+                            .thenAccept(value -> processed.add(name + ":" + value));
+                });
+    }
+
+    private void runFetches(int count) {
+        for (int i = 0; i < count; i++) {
+            pendingFetches.poll().run();
+        }
+    }
+
+    private void fetchAll() {
+        runFetches(pendingFetches.size());
+    }
+
+    private void processMails() throws Exception {
+        while (mailboxExecutor.tryYield()) {}
+    }
+
+    private static final class TestKeyContext implements KeyContext {
+
+        private Object currentKey;
+
+        @Override
+        public void setCurrentKey(Object key) {
+            this.currentKey = key;
+        }
+
+        @Override
+        public Object getCurrentKey() {
+            return currentKey;
+        }
+    }
+
+    /** Reads the state of the key that was current when it was created. */
+    private class TestRead implements InternalStateRead<String> {
+
+        private final Object key = keyContext.getCurrentKey();
+
+        private String value;
+
+        @Override
+        public void fetch() throws IOException {
+            value = state.get(key);
+        }
+
+        @Override
+        public String complete() {
+            return value;
+        }
+    }
+}
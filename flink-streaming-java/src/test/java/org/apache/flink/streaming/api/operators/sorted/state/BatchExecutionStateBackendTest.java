@@ -41,6 +41,7 @@ import org.apache.flink.runtime.state.VoidNamespaceSerializer;
 import org.apache.flink.runtime.state.internal.InternalAggregatingState;
 import org.apache.flink.runtime.state.internal.InternalListState;
 import org.apache.flink.runtime.state.internal.InternalReducingState;
+import org.apache.flink.runtime.state.internal.InternalValueState;
 import org.apache.flink.util.TestLogger;
 
 import org.junit.Rule;
@@ -1314,6 +1315,30 @@ public class BatchExecutionStateBackendTest extends TestLogger {
         backend.dispose();
     }
 
+    /** Verify that looking up multiple keys serves the current key from the state. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testValueStateMultiGet() throws Exception {
+        CheckpointableKeyedStateBackend<Integer> backend =
+                createKeyedBackend(IntSerializer.INSTANCE);
+
+        ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class, "Hello");
+
+        InternalValueState<Integer, VoidNamespace, String> state =
+                (InternalValueState<Integer, VoidNamespace, String>)
+                        backend.getPartitionedState(
+                                VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+        backend.setCurrentKey(1);
+        state.update("Ciao");
+        assertEquals(Arrays.asList("Hello", "Ciao"), state.multiGet(Arrays.asList(2, 1)));
+
+        backend.setCurrentKey(2);
+        assertEquals(Arrays.asList("Hello", "Hello"), state.multiGet(Arrays.asList(1, 2)));
+
+        backend.dispose();
+    }
+
     /** Verify that an empty {@code ReduceState} yields {@code null}. */
     @Test
     public void testReducingStateDefaultValue() throws Exception {
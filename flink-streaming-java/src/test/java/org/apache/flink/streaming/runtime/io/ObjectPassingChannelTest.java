@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io;
+
+import org.apache.flink.api.common.typeutils.base.IntValueSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
+import org.apache.flink.runtime.io.disk.iomanager.IOManagerAsync;
+import org.apache.flink.runtime.io.network.api.writer.RecordWriter;
+import org.apache.flink.runtime.io.network.api.writer.RecordWriterBuilder;
+import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.partition.ResultPartition;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionBuilder;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionManager;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
+import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGateBuilder;
+import org.apache.flink.runtime.mailbox.SyncMailboxExecutor;
+import org.apache.flink.runtime.operators.testutils.DummyCheckpointInvokable;
+import org.apache.flink.runtime.plugable.SerializationDelegate;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.io.PushingAsyncDataInput.DataOutput;
+import org.apache.flink.streaming.runtime.io.checkpointing.CheckpointBarrierTracker;
+import org.apache.flink.streaming.runtime.io.checkpointing.CheckpointedInputGate;
+import org.apache.flink.streaming.runtime.io.checkpointing.UpstreamRecoveryTracker;
+import org.apache.flink.streaming.runtime.streamrecord.LatencyMarker;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.watermarkstatus.StatusWatermarkValve;
+import org.apache.flink.streaming.runtime.watermarkstatus.WatermarkStatus;
+import org.apache.flink.types.IntValue;
+import org.apache.flink.util.TestLogger;
+import org.apache.flink.util.clock.SystemClock;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link ObjectPassingChannel} and {@link ObjectPassingSerializer}. */
+public class ObjectPassingChannelTest extends TestLogger {
+
+    private final IOManager ioManager = new IOManagerAsync();
+
+    @After
+    public void tearDown() throws Exception {
+        ioManager.close();
+    }
+
+    @Test
+    public void testSecondConnectUnregistersChannel() {
+        ResultPartitionID partitionId = new ResultPartitionID();
+
+        ObjectPassingChannel producerChannel = ObjectPassingChannel.connect(partitionId);
+        assertTrue(ObjectPassingChannel.isRegistered(partitionId));
+
+        ObjectPassingChannel consumerChannel = ObjectPassingChannel.connect(partitionId);
+        assertSame(producerChannel, consumerChannel);
+        assertFalse(ObjectPassingChannel.isRegistered(partitionId));
+    }
+
+    @Test
+    public void testDisconnectWithoutRecordsUnregistersChannel() {
+        ResultPartitionID partitionId = new ResultPartitionID();
+
+        ObjectPassingChannel.connect(partitionId).disconnect();
+
+        assertFalse(ObjectPassingChannel.isRegistered(partitionId));
+    }
+
+    @Test
+    public void testDisconnectKeepsChannelWithPendingRecords() {
+        ResultPartitionID partitionId = new ResultPartitionID();
+        ObjectPassingChannel producerChannel = ObjectPassingChannel.connect(partitionId);
+        producerChannel.push("record");
+
+        producerChannel.disconnect();
+
+        assertTrue(ObjectPassingChannel.isRegistered(partitionId));
+        assertEquals("record", ObjectPassingChannel.connect(partitionId).poll());
+        assertFalse(ObjectPassingChannel.isRegistered(partitionId));
+    }
+
+    @Test
+    public void testMutableRecordsAreCopied() throws Exception {
+        ObjectPassingChannel channel = ObjectPassingChannel.connect(new ResultPartitionID());
+        ObjectPassingSerializer<IntValue> serializer =
+                new ObjectPassingSerializer<>(IntValueSerializer.INSTANCE, channel);
+        DataOutputSerializer out = new DataOutputSerializer(8);
+
+        IntValue record = new IntValue(42);
+        serializer.serialize(record, out);
+        record.setValue(43);
+
+        assertEquals(0, out.length());
+        IntValue passed = serializer.deserialize(new DataInputDeserializer());
+        assertNotSame(record, passed);
+        assertEquals(42, passed.getValue());
+    }
+
+    @Test
+    public void testImmutableRecordsArePassedAsIs() throws Exception {
+        ObjectPassingChannel channel = ObjectPassingChannel.connect(new ResultPartitionID());
+        ObjectPassingSerializer<String> serializer =
+                new ObjectPassingSerializer<>(StringSerializer.INSTANCE, channel);
+
+        String record = "record";
+        serializer.serialize(record, new DataOutputSerializer(8));
+
+        assertSame(record, serializer.deserialize(new DataInputDeserializer()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMarkerWithoutRecordFails() {
+        ObjectPassingChannel.connect(new ResultPartitionID()).poll();
+    }
+
+    @Test
+    public void testRecordsArePassedThroughLocalInputChannel() throws Exception {
+        ResultPartitionManager partitionManager = new ResultPartitionManager();
+        NetworkBufferPool networkBufferPool = new NetworkBufferPool(8, 4096);
+        try {
+            ResultPartition partition =
+                    new ResultPartitionBuilder()
+                            .setResultPartitionType(ResultPartitionType.PIPELINED_BOUNDED)
+                            .setResultPartitionManager(partitionManager)
+                            .setNetworkBufferPool(networkBufferPool)
+                            .build();
+            partition.setup();
+            ResultPartitionID partitionId = partition.getPartitionId();
+
+            RecordWriter<SerializationDelegate<StreamRecord<IntValue>>> recordWriter =
+                    new RecordWriterBuilder<SerializationDelegate<StreamRecord<IntValue>>>()
+                            .build(partition);
+            RecordWriterOutput<IntValue> output =
+                    new RecordWriterOutput<>(
+                            recordWriter,
+                            new ObjectPassingSerializer<>(
+                                    IntValueSerializer.INSTANCE,
+                                    ObjectPassingChannel.connect(partitionId)),
+                            null,
+                            false);
+
+            // the producer reuses its output object, so the records have to be copied
+            IntValue value = new IntValue();
+            for (int i = 0; i < 100; i++) {
+                value.setValue(i);
+                output.collect(new StreamRecord<>(value, i));
+            }
+            output.emitWatermark(new Watermark(99));
+            output.flush();
+            partition.finish();
+
+            SingleInputGate gate =
+                    new SingleInputGateBuilder()
+                            .setChannelFactory(
+                                    (builder, inputGate) ->
+                                            builder.setPartitionManager(partitionManager)
+                                                    .setPartitionId(partitionId)
+                                                    .buildLocalChannel(inputGate))
+                            .build();
+            gate.setup();
+            gate.requestPartitions();
+
+            StreamTaskNetworkInput<IntValue> input =
+                    new StreamTaskNetworkInput<>(
+                            new CheckpointedInputGate(
+                                    gate,
+                                    new CheckpointBarrierTracker(
+                                            1,
+                                            new DummyCheckpointInvokable(),
+                                            SystemClock.getInstance(),
+                                            false),
+                                    new SyncMailboxExecutor(),
+                                    UpstreamRecoveryTracker.forInputGate(gate)),
+                            new ObjectPassingSerializer<>(IntValueSerializer.INSTANCE),
+                            ioManager,
+                            new StatusWatermarkValve(1),
+                            0);
+
+            CollectingDataOutput<IntValue> collected = new CollectingDataOutput<>();
+            while (input.emitNext(collected) != DataInputStatus.END_OF_INPUT) {}
+            input.close();
+            output.close();
+
+            assertEquals(100, collected.records.size());
+            for (int i = 0; i < 100; i++) {
+                StreamRecord<IntValue> record = collected.records.get(i);
+                assertEquals(i, record.getValue().getValue());
+                assertEquals(i, record.getTimestamp());
+                assertNotSame(value, record.getValue());
+            }
+            assertEquals(1, collected.watermarks.size());
+            assertEquals(99, collected.watermarks.get(0).getTimestamp());
+            assertFalse(ObjectPassingChannel.isRegistered(partitionId));
+
+            gate.close();
+            partition.release();
+        } finally {
+            networkBufferPool.destroy();
+        }
+    }
+
+    private static class CollectingDataOutput<T> implements DataOutput<T> {
+
+        private final List<StreamRecord<T>> records = new ArrayList<>();
+
+        private final List<Watermark> watermarks = new ArrayList<>();
+
+        @Override
+        public void emitRecord(StreamRecord<T> streamRecord) {
+            records.add(streamRecord);
+        }
+
+        @Override
+        public void emitWatermark(Watermark watermark) {
+            watermarks.add(watermark);
+        }
+
+        @Override
+        public void emitWatermarkStatus(WatermarkStatus watermarkStatus) {}
+
+        @Override
+        public void emitLatencyMarker(LatencyMarker latencyMarker) {}
+    }
+}
@@ -104,6 +104,41 @@ public class StreamTaskNetworkInputTest {
         assertEquals(2, output.getNumberOfEmittedRecords());
     }
 
+    @Test
+    public void testBatchedEmissionOfBufferedRecords() throws Exception {
+        List<BufferOrEvent> buffers = new ArrayList<>(2);
+        buffers.add(createDataBuffer());
+        buffers.add(createDataBuffer());
+
+        VerifyRecordsDataOutput<Long> output = new VerifyRecordsDataOutput<>();
+        StreamTaskNetworkInput<Long> input = createStreamTaskNetworkInput(buffers, true);
+
+        // the records of a buffer are emitted at once, but not those of the next buffer
+        assertHasNextElement(input, output);
+        assertEquals(2, output.getNumberOfEmittedRecords());
+        assertHasNextElement(input, output);
+        assertEquals(4, output.getNumberOfEmittedRecords());
+    }
+
+    @Test
+    public void testBatchedEmissionStopsBeforeCheckpointBarrier() throws Exception {
+        CheckpointBarrier barrier =
+                new CheckpointBarrier(0, 0, CheckpointOptions.forCheckpointWithDefaultLocation());
+
+        List<BufferOrEvent> buffers = new ArrayList<>(3);
+        buffers.add(createDataBuffer());
+        buffers.add(new BufferOrEvent(barrier, new InputChannelInfo(0, 0)));
+        buffers.add(createDataBuffer());
+
+        VerifyRecordsDataOutput<Long> output = new VerifyRecordsDataOutput<>();
+        StreamTaskNetworkInput<Long> input = createStreamTaskNetworkInput(buffers, true);
+
+        assertHasNextElement(input, output);
+        assertEquals(2, output.getNumberOfEmittedRecords());
+        assertHasNextElement(input, output);
+        assertEquals(2, output.getNumberOfEmittedRecords());
+    }
+
     /**
      * InputGate on CheckpointBarrier can enqueue a mailbox action to execute and
      * StreamTaskNetworkInput must allow this action to execute before processing a following
@@ -247,12 +282,18 @@ public class StreamTaskNetworkInputTest {
     }
 
     private StreamTaskNetworkInput<Long> createStreamTaskNetworkInput(List<BufferOrEvent> buffers) {
+        return createStreamTaskNetworkInput(buffers, false);
+    }
+
+    private StreamTaskNetworkInput<Long> createStreamTaskNetworkInput(
+            List<BufferOrEvent> buffers, boolean emitRecordsInBatches) {
         return new StreamTaskNetworkInput<>(
                 createCheckpointedInputGate(new MockInputGate(1, buffers, false)),
                 LongSerializer.INSTANCE,
                 ioManager,
                 new StatusWatermarkValve(1),
-                0);
+                0,
+                emitRecordsInBatches);
     }
 
     private static CheckpointedInputGate createCheckpointedInputGate(InputGate inputGate) {
@@ -20,6 +20,7 @@ package org.apache.flink.streaming.runtime.io.benchmark;
 
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.core.io.IOReadableWritable;
 import org.apache.flink.metrics.SimpleCounter;
 import org.apache.flink.runtime.clusterframework.types.ResourceID;
@@ -212,6 +213,10 @@ public class StreamNetworkBenchmarkEnvironment<T extends IOReadableWritable> {
         return new NettyShuffleEnvironmentBuilder()
                 .setNumNetworkBuffers(bufferPoolSize)
                 .setNettyConfig(nettyConfig)
+                .setLocalBufferHandoffCapacity(
+                        config.getInteger(
+                                NettyShuffleEnvironmentOptions
+                                        .NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY))
                 .build();
     }
 
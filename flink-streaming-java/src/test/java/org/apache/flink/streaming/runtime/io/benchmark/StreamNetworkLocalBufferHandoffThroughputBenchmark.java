@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io.benchmark;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
+
+/**
+ * Network throughput benchmarks executed by the external <a
+ * href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>Same as {@link StreamNetworkThroughputBenchmark} but with finished buffers handed over to
+ * local input channels via {@link
+ * NettyShuffleEnvironmentOptions#NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY}, so that the local mode of
+ * both can be compared.
+ */
+public class StreamNetworkLocalBufferHandoffThroughputBenchmark
+        extends StreamNetworkThroughputBenchmark {
+
+    public static final int DEFAULT_LOCAL_BUFFER_HANDOFF_CAPACITY = 8;
+
+    /**
+     * Same as {@link StreamNetworkThroughputBenchmark#setUp(int, int, int, boolean, int, int)} but
+     * also enables the local buffer hand-over.
+     */
+    @Override
+    public void setUp(
+            int recordWriters,
+            int channels,
+            int flushTimeout,
+            boolean localMode,
+            int senderBufferPoolSize,
+            int receiverBufferPoolSize)
+            throws Exception {
+        Configuration config = new Configuration();
+        config.setInteger(
+                NettyShuffleEnvironmentOptions.NETWORK_LOCAL_BUFFER_HANDOFF_CAPACITY,
+                DEFAULT_LOCAL_BUFFER_HANDOFF_CAPACITY);
+        setUp(
+                recordWriters,
+                channels,
+                flushTimeout,
+                false,
+                localMode,
+                senderBufferPoolSize,
+                receiverBufferPoolSize,
+                config);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io.benchmark;
+
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.configuration.TaskManagerOptions;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.checkpoint.channel.InputChannelInfo;
+import org.apache.flink.runtime.io.disk.iomanager.IOManager;
+import org.apache.flink.runtime.io.disk.iomanager.IOManagerAsync;
+import org.apache.flink.runtime.io.network.api.writer.RecordWriter;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils;
+import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
+import org.apache.flink.runtime.io.network.partition.consumer.BufferOrEvent;
+import org.apache.flink.runtime.mailbox.SyncMailboxExecutor;
+import org.apache.flink.runtime.operators.testutils.DummyCheckpointInvokable;
+import org.apache.flink.runtime.plugable.SerializationDelegate;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.io.DataInputStatus;
+import org.apache.flink.streaming.runtime.io.MockInputGate;
+import org.apache.flink.streaming.runtime.io.PushingAsyncDataInput.DataOutput;
+import org.apache.flink.streaming.runtime.io.StreamOneInputProcessor;
+import org.apache.flink.streaming.runtime.io.StreamTaskNetworkInput;
+import org.apache.flink.streaming.runtime.io.checkpointing.CheckpointBarrierTracker;
+import org.apache.flink.streaming.runtime.io.checkpointing.CheckpointedInputGate;
+import org.apache.flink.streaming.runtime.io.checkpointing.UpstreamRecoveryTracker;
+import org.apache.flink.streaming.runtime.streamrecord.LatencyMarker;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
+import org.apache.flink.streaming.runtime.streamrecord.StreamElementSerializer;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.watermarkstatus.StatusWatermarkValve;
+import org.apache.flink.streaming.runtime.watermarkstatus.WatermarkStatus;
+import org.apache.flink.util.clock.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Input throughput benchmarks executed by the external <a
+ * href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>Measures how fast small records are deserialized and emitted by the input processor of a
+ * {@link org.apache.flink.streaming.runtime.tasks.OneInputStreamTask}, either one record per call
+ * or with {@link TaskManagerOptions#BATCHED_DESERIALIZATION_ENABLED} all records of a buffer at
+ * once. The buffers are prepared upfront, so that the network stack is not part of the measurement.
+ */
+public class StreamTaskInputThroughputBenchmark {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    private IOManager ioManager;
+    private Buffer buffer;
+    private int recordsPerBuffer;
+    private boolean emitRecordsInBatches;
+
+    public void setUp(boolean emitRecordsInBatches) throws Exception {
+        this.emitRecordsInBatches = emitRecordsInBatches;
+        ioManager = new IOManagerAsync();
+
+        // fill one buffer with small records, which is then read over and over again
+        DataOutputSerializer serializer = new DataOutputSerializer(128);
+        SerializationDelegate<StreamElement> serializationDelegate =
+                new SerializationDelegate<>(new StreamElementSerializer<>(LongSerializer.INSTANCE));
+        try (BufferBuilder bufferBuilder =
+                BufferBuilderTestUtils.createEmptyBufferBuilder(BUFFER_SIZE)) {
+            BufferConsumer bufferConsumer = bufferBuilder.createBufferConsumer();
+            while (true) {
+                serializationDelegate.setInstance(new StreamRecord<>((long) recordsPerBuffer));
+                ByteBuffer serializedRecord =
+                        RecordWriter.serializeRecord(serializer, serializationDelegate);
+                if (bufferBuilder.getWritableBytes() < serializedRecord.remaining()) {
+                    break;
+                }
+                bufferBuilder.appendAndCommit(serializedRecord);
+                recordsPerBuffer++;
+            }
+            buffer = bufferConsumer.build();
+            bufferConsumer.close();
+        }
+    }
+
+    /**
+     * Executes the throughput benchmark with the given number of records.
+     *
+     * @param records to emit, rounded up to full buffers
+     */
+    public void executeBenchmark(long records) throws Exception {
+        long numBuffers = (records + recordsPerBuffer - 1) / recordsPerBuffer;
+        List<BufferOrEvent> buffers = new ArrayList<>();
+        for (long i = 0; i < numBuffers; i++) {
+            buffers.add(
+                    new BufferOrEvent(
+                            buffer.readOnlySlice().retainBuffer(), new InputChannelInfo(0, 0)));
+        }
+
+        MockInputGate inputGate = new MockInputGate(1, buffers);
+        CountingDataOutput output = new CountingDataOutput();
+        StreamOneInputProcessor<Long> inputProcessor =
+                new StreamOneInputProcessor<>(
+                        new StreamTaskNetworkInput<>(
+                                new CheckpointedInputGate(
+                                        inputGate,
+                                        new CheckpointBarrierTracker(
+                                                1,
+                                                new DummyCheckpointInvokable(),
+                                                SystemClock.getInstance(),
+                                                false),
+                                        new SyncMailboxExecutor(),
+                                        UpstreamRecoveryTracker.forInputGate(inputGate)),
+                                LongSerializer.INSTANCE,
+                                ioManager,
+                                new StatusWatermarkValve(1),
+                                0,
+                                emitRecordsInBatches),
+                        output,
+                        inputIndex -> {});
+
+        try {
+            DataInputStatus status;
+            do {
+                status = inputProcessor.processInput();
+            } while (status != DataInputStatus.END_OF_INPUT);
+        } finally {
+            inputProcessor.close();
+        }
+        checkState(
+                output.numRecords == numBuffers * recordsPerBuffer,
+                "Unexpected number of records %s.",
+                output.numRecords);
+    }
+
+    public void tearDown() throws Exception {
+        if (buffer != null) {
+            buffer.recycleBuffer();
+        }
+        if (ioManager != null) {
+            ioManager.close();
+        }
+    }
+
+    private static class CountingDataOutput implements DataOutput<Long> {
+
+        private long numRecords;
+
+        @Override
+        public void emitRecord(StreamRecord<Long> record) {
+            numRecords++;
+        }
+
+        @Override
+        public void emitWatermark(Watermark watermark) {}
+
+        @Override
+        public void emitWatermarkStatus(WatermarkStatus watermarkStatus) {}
+
+        @Override
+        public void emitLatencyMarker(LatencyMarker latencyMarker) {}
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.operators.windowing;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
+import org.apache.flink.streaming.api.windowing.time.Time;
+import org.apache.flink.streaming.api.windowing.triggers.CountTrigger;
+import org.apache.flink.streaming.api.windowing.triggers.EventTimeTrigger;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalSingleValueWindowFunction;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link PanedSlidingWindowOperator}. */
+public class PanedSlidingWindowOperatorTest extends TestLogger {
+
+    private static final TypeInformation<Tuple2<String, Long>> STRING_LONG_TUPLE =
+            TypeInformation.of(new TypeHint<Tuple2<String, Long>>() {});
+
+    private static final OutputTag<Tuple2<String, Long>> LATE_OUTPUT_TAG =
+            new OutputTag<Tuple2<String, Long>>("late") {};
+
+    @Test
+    public void testPaneSizeIsGreatestCommonDivisor() {
+        assertEquals(2_000L, createOperator(10, 4, 0).getPaneSize());
+        assertEquals(1_000L, createOperator(3, 1, 0).getPaneSize());
+        assertEquals(5_000L, createOperator(5, 10, 0).getPaneSize());
+    }
+
+    @Test
+    public void testIsSupported() {
+        final SlidingEventTimeWindows assigner =
+                SlidingEventTimeWindows.of(Time.seconds(10), Time.seconds(2));
+        final AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+                aggregatingDescriptor = createStateDescriptor();
+
+        assertTrue(
+                PanedSlidingWindowOperator.isSupported(
+                        assigner, EventTimeTrigger.create(), aggregatingDescriptor, 0L));
+        assertFalse(
+                PanedSlidingWindowOperator.isSupported(
+                        assigner, EventTimeTrigger.create(), aggregatingDescriptor, 10L));
+        assertFalse(
+                PanedSlidingWindowOperator.isSupported(
+                        assigner, CountTrigger.of(2), aggregatingDescriptor, 0L));
+        assertFalse(
+                PanedSlidingWindowOperator.isSupported(
+                        new SlidingEventTimeWindows(10L, 2L, 0L) {},
+                        EventTimeTrigger.create(),
+                        aggregatingDescriptor,
+                        0L));
+    }
+
+    @Test
+    public void testSameResultsAsWindowOperator() throws Exception {
+        // overlapping windows, windows with gaps in between, and windows with an offset
+        final int[][] configurations = {{10, 4, 0}, {6, 2, 1}, {3, 5, 0}, {7, 3, 2}};
+        final Random random = new Random(42L);
+
+        for (int[] configuration : configurations) {
+            final long seed = random.nextLong();
+            final List<Object> expected =
+                    runRandomInput(createWindowOperator(configuration), new Random(seed));
+            final List<Object> actual =
+                    runRandomInput(
+                            createOperator(configuration[0], configuration[1], configuration[2]),
+                            new Random(seed));
+
+            assertEquals(sorted(expected), sorted(actual));
+        }
+    }
+
+    @Test
+    public void testMergeMayModifyBothAccumulators() throws Exception {
+        final AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+                stateDescriptor = createStateDescriptor(new SecondArgumentModifyingSumAggregator());
+
+        final List<Object> expected =
+                runRandomInput(
+                        createWindowOperator(new int[] {10, 4, 0}, stateDescriptor),
+                        new Random(42L));
+        final List<Object> actual =
+                runRandomInput(createOperator(10, 4, 0, stateDescriptor), new Random(42L));
+
+        assertEquals(sorted(expected), sorted(actual));
+    }
+
+    private static List<Object> runRandomInput(
+            WindowOperator<String, Tuple2<String, Long>, Long, Tuple2<String, Long>, TimeWindow>
+                    operator,
+            Random random)
+            throws Exception {
+        final List<Object> output = new ArrayList<>();
+        try (KeyedOneInputStreamOperatorTestHarness<
+                        String, Tuple2<String, Long>, Tuple2<String, Long>>
+                testHarness =
+                        new KeyedOneInputStreamOperatorTestHarness<>(
+                                operator, new TupleKeySelector(), BasicTypeInfo.STRING_TYPE_INFO)) {
+            testHarness.open();
+
+            long watermark = 20_000L;
+            for (int i = 0; i < 2_000; i++) {
+                // some elements are late and some arrive out of order
+                final long timestamp = watermark - 15_000L + random.nextInt(20_000);
+                testHarness.processElement(
+                        new StreamRecord<>(
+                                new Tuple2<>("key" + random.nextInt(5), (long) random.nextInt(100)),
+                                timestamp));
+                if (random.nextInt(20) == 0) {
+                    watermark += random.nextInt(4_000);
+                    testHarness.processWatermark(new Watermark(watermark));
+                }
+            }
+            testHarness.processWatermark(new Watermark(Long.MAX_VALUE));
+
+            output.addAll(testHarness.extractOutputStreamRecords());
+            assertFalse(testHarness.getSideOutput(LATE_OUTPUT_TAG).isEmpty());
+            output.addAll(testHarness.getSideOutput(LATE_OUTPUT_TAG));
+        }
+        return output;
+    }
+
+    private static List<String> sorted(List<Object> records) {
+        final List<String> result = new ArrayList<>();
+        for (Object record : records) {
+            final StreamRecord<?> streamRecord = (StreamRecord<?>) record;
+            result.add(streamRecord.getValue() + "@" + streamRecord.getTimestamp());
+        }
+        result.sort(String::compareTo);
+        return result;
+    }
+
+    private static PanedSlidingWindowOperator<
+                    String, Tuple2<String, Long>, Long, Tuple2<String, Long>>
+            createOperator(int size, int slide, int offset) {
+        return createOperator(size, slide, offset, createStateDescriptor());
+    }
+
+    private static PanedSlidingWindowOperator<
+                    String, Tuple2<String, Long>, Long, Tuple2<String, Long>>
+            createOperator(
+                    int size,
+                    int slide,
+                    int offset,
+                    AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+                            stateDescriptor) {
+        return new PanedSlidingWindowOperator<>(
+                createAssigner(size, slide, offset),
+                new TimeWindow.Serializer(),
+                new TupleKeySelector(),
+                BasicTypeInfo.STRING_TYPE_INFO.createSerializer(new ExecutionConfig()),
+                stateDescriptor,
+                new InternalSingleValueWindowFunction<>(new SumWindowFunction()),
+                EventTimeTrigger.create(),
+                LATE_OUTPUT_TAG);
+    }
+
+    private static WindowOperator<
+                    String, Tuple2<String, Long>, Long, Tuple2<String, Long>, TimeWindow>
+            createWindowOperator(int[] configuration) {
+        return createWindowOperator(configuration, createStateDescriptor());
+    }
+
+    private static WindowOperator<
+                    String, Tuple2<String, Long>, Long, Tuple2<String, Long>, TimeWindow>
+            createWindowOperator(
+                    int[] configuration,
+                    AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+                            stateDescriptor) {
+        return new WindowOperator<>(
+                createAssigner(configuration[0], configuration[1], configuration[2]),
+                new TimeWindow.Serializer(),
+                new TupleKeySelector(),
+                BasicTypeInfo.STRING_TYPE_INFO.createSerializer(new ExecutionConfig()),
+                stateDescriptor,
+                new InternalSingleValueWindowFunction<>(new SumWindowFunction()),
+                EventTimeTrigger.create(),
+                0L,
+                LATE_OUTPUT_TAG);
+    }
+
+    private static SlidingEventTimeWindows createAssigner(int size, int slide, int offset) {
+        return SlidingEventTimeWindows.of(
+                Time.of(size, TimeUnit.SECONDS),
+                Time.of(slide, TimeUnit.SECONDS),
+                Time.of(offset, TimeUnit.SECONDS));
+    }
+
+    private static AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+            createStateDescriptor() {
+        return createStateDescriptor(new SumAggregator());
+    }
+
+    private static AggregatingStateDescriptor<Tuple2<String, Long>, Tuple2<String, Long>, Long>
+            createStateDescriptor(SumAggregator aggregator) {
+        return new AggregatingStateDescriptor<>(
+                "window-contents",
+                aggregator,
+                STRING_LONG_TUPLE.createSerializer(new ExecutionConfig()));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /** Sums the values and counts the elements in the key field of the accumulator. */
+    private static class SumAggregator
+            implements AggregateFunction<Tuple2<String, Long>, Tuple2<String, Long>, Long> {
+
+        @Override
+        public Tuple2<String, Long> createAccumulator() {
+            return new Tuple2<>("", 0L);
+        }
+
+        @Override
+        public Tuple2<String, Long> add(Tuple2<String, Long> value, Tuple2<String, Long> acc) {
+            acc.f1 += value.f1;
+            return acc;
+        }
+
+        @Override
+        public Long getResult(Tuple2<String, Long> acc) {
+            return acc.f1;
+        }
+
+        @Override
+        public Tuple2<String, Long> merge(Tuple2<String, Long> a, Tuple2<String, Long> b) {
+            // modifies the first accumulator like many user functions do
+            a.f1 += b.f1;
+            return a;
+        }
+    }
+
+    /** Like {@link SumAggregator}, but merges into the second accumulator. */
+    private static class SecondArgumentModifyingSumAggregator extends SumAggregator {
+
+        @Override
+        public Tuple2<String, Long> merge(Tuple2<String, Long> a, Tuple2<String, Long> b) {
+            b.f1 += a.f1;
+            return b;
+        }
+    }
+
+    private static class SumWindowFunction
+            implements WindowFunction<Long, Tuple2<String, Long>, String, TimeWindow> {
+
+        @Override
+        public void apply(
+                String key,
+                TimeWindow window,
+                Iterable<Long> input,
+                Collector<Tuple2<String, Long>> out) {
+            for (Long sum : input) {
+                out.collect(new Tuple2<>(key, sum));
+            }
+        }
+    }
+
+    private static class TupleKeySelector implements KeySelector<Tuple2<String, Long>, String> {
+
+        @Override
+        public String getKey(Tuple2<String, Long> value) {
+            return value.f0;
+        }
+    }
+}
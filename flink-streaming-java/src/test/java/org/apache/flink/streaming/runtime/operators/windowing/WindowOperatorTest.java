@@ -250,6 +250,41 @@ public class WindowOperatorTest extends TestLogger {
         testSlidingEventTimeWindows(operator);
     }
 
+    @Test
+    public void testSlidingEventTimeWindowsReduceWithSharedPanes() throws Exception {
+        final int windowSize = 3;
+        final int windowSlide = 1;
+
+        ReducingStateDescriptor<Tuple2<String, Integer>> stateDesc =
+                new ReducingStateDescriptor<>(
+                        "window-contents",
+                        new SumReducer(),
+                        STRING_INT_TUPLE.createSerializer(new ExecutionConfig()));
+
+        PanedSlidingWindowOperator<
+                        String,
+                        Tuple2<String, Integer>,
+                        Tuple2<String, Integer>,
+                        Tuple2<String, Integer>>
+                operator =
+                        new PanedSlidingWindowOperator<>(
+                                SlidingEventTimeWindows.of(
+                                        Time.of(windowSize, TimeUnit.SECONDS),
+                                        Time.of(windowSlide, TimeUnit.SECONDS)),
+                                new TimeWindow.Serializer(),
+                                new TupleKeySelector(),
+                                BasicTypeInfo.STRING_TYPE_INFO.createSerializer(
+                                        new ExecutionConfig()),
+                                stateDesc,
+                                new InternalSingleValueWindowFunction<>(
+                                        new PassThroughWindowFunction<
+                                                String, TimeWindow, Tuple2<String, Integer>>()),
+                                EventTimeTrigger.create(),
+                                null /* late data output tag */);
+
+        testSlidingEventTimeWindows(operator);
+    }
+
     @Test
     public void testSlidingEventTimeWindowsApply() throws Exception {
         closeCalled.set(0);
@@ -32,9 +32,11 @@ import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.api.java.tuple.Tuple;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.WindowedStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
 import org.apache.flink.streaming.api.functions.windowing.ProcessWindowFunction;
 import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
@@ -269,6 +271,30 @@ public class WindowTranslationTest {
                 new Tuple2<>("hello", 1));
     }
 
+    @Test
+    public void testReduceEventTimeWithPaneSharing() throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.set(StreamPipelineOptions.SLIDING_WINDOW_PANE_SHARING, true);
+        StreamExecutionEnvironment env =
+                StreamExecutionEnvironment.getExecutionEnvironment(configuration);
+
+        DataStream<Tuple2<String, Integer>> source =
+                env.fromElements(Tuple2.of("hello", 1), Tuple2.of("hello", 2));
+
+        DataStream<Tuple2<String, Integer>> window1 =
+                source.keyBy(new TupleKeySelector())
+                        .window(
+                                SlidingEventTimeWindows.of(
+                                        Time.of(1, TimeUnit.SECONDS),
+                                        Time.of(100, TimeUnit.MILLISECONDS)))
+                        .reduce(new DummyReducer());
+
+        OneInputTransformation<Tuple2<String, Integer>, Tuple2<String, Integer>> transform =
+                (OneInputTransformation<Tuple2<String, Integer>, Tuple2<String, Integer>>)
+                        window1.getTransformation();
+        Assert.assertEquals(PanedSlidingWindowOperator.class, transform.getOperator().getClass());
+    }
+
     @Test
     @SuppressWarnings("rawtypes")
     public void testReduceProcessingTime() throws Exception {
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.partitioner;
+
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.runtime.io.network.partition.MockResultPartitionWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link AdaptiveRebalancePartitioner}. */
+public class AdaptiveRebalancePartitionerTest extends StreamPartitionerTest {
+
+    @Override
+    public StreamPartitioner<Tuple> createPartitioner() {
+        StreamPartitioner<Tuple> partitioner = new AdaptiveRebalancePartitioner<>();
+        assertFalse(partitioner.isBroadcast());
+        assertFalse(partitioner.isPointwise());
+        return partitioner;
+    }
+
+    @Test
+    public void testRoundRobinWithoutPartitionWriter() {
+        final int numberOfChannels = 3;
+        streamPartitioner.setup(numberOfChannels);
+
+        int initialChannel = streamPartitioner.selectChannel(serializationDelegate);
+        assertTrue(0 <= initialChannel);
+        assertTrue(numberOfChannels > initialChannel);
+
+        for (int i = 1; i <= 3; i++) {
+            assertSelectedChannel((initialChannel + i) % numberOfChannels);
+        }
+    }
+
+    @Test
+    public void testAvoidsChannelWithQueuedBuffers() {
+        final int numberOfChannels = 3;
+        final QueuedBuffersPartitionWriter writer =
+                new QueuedBuffersPartitionWriter(numberOfChannels);
+        final AdaptiveRebalancePartitioner<Tuple> partitioner = getPartitioner(writer);
+        partitioner.setup(numberOfChannels);
+
+        int loadedChannel = partitioner.selectChannel(serializationDelegate);
+        writer.queuedBuffers[loadedChannel] = 10;
+        // a new buffer is started on the loaded channel
+        partitioner.selectChannel(serializationDelegate);
+        writer.queuedBuffers[loadedChannel]++;
+
+        for (int i = 0; i < AdaptiveRebalancePartitioner.MAX_RECORDS_PER_SELECTION * 4; i++) {
+            assertNotEquals(loadedChannel, partitioner.selectChannel(serializationDelegate));
+        }
+    }
+
+    @Test
+    public void testSwitchesChannelWhenBufferIsStarted() {
+        final int numberOfChannels = 2;
+        final QueuedBuffersPartitionWriter writer =
+                new QueuedBuffersPartitionWriter(numberOfChannels);
+        final AdaptiveRebalancePartitioner<Tuple> partitioner = getPartitioner(writer);
+        partitioner.setup(numberOfChannels);
+
+        int firstChannel = partitioner.selectChannel(serializationDelegate);
+        writer.queuedBuffers[firstChannel] = 1;
+        assertEquals(firstChannel, partitioner.selectChannel(serializationDelegate));
+        assertEquals(firstChannel, partitioner.selectChannel(serializationDelegate));
+
+        // the record completed the buffer of the first channel
+        writer.queuedBuffers[firstChannel] = 2;
+        int secondChannel = partitioner.selectChannel(serializationDelegate);
+        assertEquals(1 - firstChannel, secondChannel);
+    }
+
+    @Test
+    public void testFallsBackToRoundRobinAfterMaxRecords() {
+        final int numberOfChannels = 2;
+        final AdaptiveRebalancePartitioner<Tuple> partitioner =
+                getPartitioner(new QueuedBuffersPartitionWriter(numberOfChannels));
+        partitioner.setup(numberOfChannels);
+
+        int firstChannel = partitioner.selectChannel(serializationDelegate);
+        for (int i = 1; i < AdaptiveRebalancePartitioner.MAX_RECORDS_PER_SELECTION; i++) {
+            assertEquals(firstChannel, partitioner.selectChannel(serializationDelegate));
+        }
+        assertEquals(1 - firstChannel, partitioner.selectChannel(serializationDelegate));
+    }
+
+    @Test
+    public void testChannelSkew() {
+        final int numberOfChannels = 4;
+        final AdaptiveRebalancePartitioner<Tuple> partitioner =
+                (AdaptiveRebalancePartitioner<Tuple>) streamPartitioner;
+        partitioner.setup(numberOfChannels);
+        assertEquals(1.0, partitioner.getChannelSkew(), 0.0);
+
+        for (int i = 0; i < numberOfChannels; i++) {
+            partitioner.selectChannel(serializationDelegate);
+        }
+        assertEquals(1.0, partitioner.getChannelSkew(), 0.0);
+
+        partitioner.selectChannel(serializationDelegate);
+        assertEquals(
+                2.0 * numberOfChannels / (numberOfChannels + 1), partitioner.getChannelSkew(), 0.0);
+    }
+
+    private static AdaptiveRebalancePartitioner<Tuple> getPartitioner(
+            QueuedBuffersPartitionWriter writer) {
+        AdaptiveRebalancePartitioner<Tuple> partitioner = new AdaptiveRebalancePartitioner<>();
+        partitioner.setPartitionWriter(writer);
+        return partitioner;
+    }
+
+    /** Partition writer which reports a configurable number of queued buffers. */
+    private static class QueuedBuffersPartitionWriter extends MockResultPartitionWriter {
+
+        private final int[] queuedBuffers;
+
+        private QueuedBuffersPartitionWriter(int numberOfSubpartitions) {
+            this.queuedBuffers = new int[numberOfSubpartitions];
+        }
+
+        @Override
+        public int getNumberOfQueuedBuffers(int targetSubpartition) {
+            return queuedBuffers[targetSubpartition];
+        }
+    }
+}
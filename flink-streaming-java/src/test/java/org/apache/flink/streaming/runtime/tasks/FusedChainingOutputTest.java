@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.metrics.groups.InternalOperatorMetricGroup;
+import org.apache.flink.runtime.metrics.util.InterceptingOperatorMetricGroup;
+import org.apache.flink.runtime.metrics.util.InterceptingTaskMetricGroup;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
+import org.apache.flink.streaming.api.operators.StreamFilter;
+import org.apache.flink.streaming.api.operators.StreamFlatMap;
+import org.apache.flink.streaming.api.operators.StreamMap;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.flink.api.common.typeinfo.BasicTypeInfo.STRING_TYPE_INFO;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+
+/** Tests for {@link FusedChainingOutput}. */
+public class FusedChainingOutputTest extends TestLogger {
+
+    private final OperatorID mapId = new OperatorID();
+    private final OperatorID filterId = new OperatorID();
+    private final OperatorID flatMapId = new OperatorID();
+
+    private final Map<OperatorID, InterceptingOperatorMetricGroup> operatorMetricGroups =
+            new HashMap<>();
+
+    @Test
+    public void testFusedChainWithCopying() throws Exception {
+        testFusedChain(false);
+    }
+
+    @Test
+    public void testFusedChainWithObjectReuse() throws Exception {
+        testFusedChain(true);
+    }
+
+    private void testFusedChain(boolean objectReuse) throws Exception {
+        try (StreamTaskMailboxTestHarness<String> harness = createHarness(objectReuse, true)) {
+            harness.processElement(new StreamRecord<>("a,b", 5));
+            harness.processElement(new StreamRecord<>("drop", 6));
+            harness.processElement(new Watermark(7));
+            harness.processElement(new StreamRecord<>("c", 8));
+
+            assertThat(
+                    new ArrayList<>(harness.getOutput()),
+                    contains(
+                            new StreamRecord<>("a", 5),
+                            new StreamRecord<>("b!", 5),
+                            new Watermark(7),
+                            new StreamRecord<>("c!", 8)));
+
+            // the records are only counted at the ends of the fused chain
+            assertEquals(3, getNumRecordsIn(mapId));
+            assertEquals(0, getNumRecordsIn(filterId));
+            assertEquals(0, getNumRecordsIn(flatMapId));
+            assertEquals(3, getNumRecordsOut(flatMapId));
+        }
+    }
+
+    @Test
+    public void testChainIsNotFusedByDefault() throws Exception {
+        try (StreamTaskMailboxTestHarness<String> harness = createHarness(false, false)) {
+            harness.processElement(new StreamRecord<>("a,b", 5));
+            harness.processElement(new StreamRecord<>("drop", 6));
+
+            assertThat(
+                    new ArrayList<>(harness.getOutput()),
+                    contains(new StreamRecord<>("a", 5), new StreamRecord<>("b!", 5)));
+            assertEquals(2, getNumRecordsIn(mapId));
+            assertEquals(2, getNumRecordsIn(filterId));
+            assertEquals(1, getNumRecordsIn(flatMapId));
+        }
+    }
+
+    private StreamTaskMailboxTestHarness<String> createHarness(
+            boolean objectReuse, boolean operatorChainFusion) throws Exception {
+        return new StreamTaskMailboxTestHarnessBuilder<>(OneInputStreamTask::new, STRING_TYPE_INFO)
+                .addInput(STRING_TYPE_INFO)
+                .modifyExecutionConfig(
+                        config -> {
+                            if (objectReuse) {
+                                config.enableObjectReuse();
+                            }
+                        })
+                .modifyStreamConfig(
+                        config ->
+                                config.getConfiguration()
+                                        .set(
+                                                StreamPipelineOptions.OPERATOR_CHAIN_FUSION,
+                                                operatorChainFusion))
+                .setTaskMetricGroup(
+                        new InterceptingTaskMetricGroup() {
+                            @Override
+                            public InternalOperatorMetricGroup getOrAddOperator(
+                                    OperatorID id, String name) {
+                                return operatorMetricGroups.computeIfAbsent(
+                                        id, ignored -> new InterceptingOperatorMetricGroup());
+                            }
+                        })
+                .setupOperatorChain(new StreamMap<>(String::trim))
+                .chain(mapId, new StreamMap<>(value -> value + "!"), StringSerializer.INSTANCE)
+                .chain(
+                        filterId,
+                        new StreamFilter<>(value -> !value.startsWith("drop")),
+                        StringSerializer.INSTANCE)
+                .chain(
+                        flatMapId,
+                        new StreamFlatMap<String, String>(
+                                (value, out) -> {
+                                    for (String part : value.split(",")) {
+                                        out.collect(part);
+                                    }
+                                }),
+                        StringSerializer.INSTANCE)
+                .finish()
+                .build();
+    }
+
+    private long getNumRecordsIn(OperatorID operatorId) {
+        return operatorMetricGroups
+                .get(operatorId)
+                .getIOMetricGroup()
+                .getNumRecordsInCounter()
+                .getCount();
+    }
+
+    private long getNumRecordsOut(OperatorID operatorId) {
+        return operatorMetricGroups
+                .get(operatorId)
+                .getIOMetricGroup()
+                .getNumRecordsOutCounter()
+                .getCount();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.streaming.api.environment.StreamPipelineOptions;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.operators.StreamFilter;
+import org.apache.flink.streaming.api.operators.StreamMap;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+
+import static org.apache.flink.api.common.typeinfo.BasicTypeInfo.LONG_TYPE_INFO;
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Operator chain benchmarks executed by the external <a
+ * href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>Pushes small records through a chain of map operators in a {@link OneInputStreamTask}, with or
+ * without {@link StreamPipelineOptions#OPERATOR_CHAIN_FUSION}. The records are handed to the head
+ * operator directly and dropped by a filter at the end of the chain, so that only the cost of the
+ * chain itself is measured.
+ */
+public class OperatorChainThroughputBenchmark {
+
+    private StreamTaskMailboxTestHarness<Long> harness;
+    private OneInputStreamOperator<Long, Long> headOperator;
+
+    /**
+     * Sets up a chain of the given length, which consists of map operators and a filter at the end.
+     */
+    @SuppressWarnings("unchecked")
+    public void setUp(int chainLength, boolean operatorChainFusion) throws Exception {
+        checkArgument(chainLength >= 2, "The chain needs at least a map and a filter.");
+
+        StreamConfigChainer<StreamTaskMailboxTestHarnessBuilder<Long>> chainer =
+                new StreamTaskMailboxTestHarnessBuilder<>(OneInputStreamTask::new, LONG_TYPE_INFO)
+                        .addInput(LONG_TYPE_INFO)
+                        .modifyExecutionConfig(config -> config.enableObjectReuse())
+                        .modifyStreamConfig(
+                                config ->
+                                        config.getConfiguration()
+                                                .set(
+                                                        StreamPipelineOptions.OPERATOR_CHAIN_FUSION,
+                                                        operatorChainFusion))
+                        .setupOperatorChain(new StreamMap<Long, Long>(value -> value + 1));
+        for (int i = 2; i < chainLength; i++) {
+            chainer.chain(new StreamMap<Long, Long>(value -> value + 1), LongSerializer.INSTANCE);
+        }
+        harness =
+                chainer.chain(new StreamFilter<Long>(value -> value < 0), LongSerializer.INSTANCE)
+                        .finish()
+                        .build();
+        headOperator = (OneInputStreamOperator<Long, Long>) harness.streamTask.getMainOperator();
+    }
+
+    /**
+     * Executes the throughput benchmark with the given number of records.
+     *
+     * @param records to pass through the chain
+     */
+    public void executeBenchmark(long records) throws Exception {
+        StreamRecord<Long> record = new StreamRecord<>(0L);
+        for (long i = 0; i < records; i++) {
+            headOperator.processElement(record.replace(i));
+        }
+    }
+
+    public void tearDown() throws Exception {
+        if (harness != null) {
+            harness.close();
+        }
+    }
+}
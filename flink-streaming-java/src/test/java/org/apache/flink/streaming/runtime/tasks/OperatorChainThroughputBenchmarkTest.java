@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.junit.Test;
+
+/** Tests for {@link OperatorChainThroughputBenchmark}. */
+public class OperatorChainThroughputBenchmarkTest {
+
+    @Test
+    public void shortChain() throws Exception {
+        executeBenchmark(5, false);
+    }
+
+    @Test
+    public void shortFusedChain() throws Exception {
+        executeBenchmark(5, true);
+    }
+
+    @Test
+    public void longChain() throws Exception {
+        executeBenchmark(10, false);
+    }
+
+    @Test
+    public void longFusedChain() throws Exception {
+        executeBenchmark(10, true);
+    }
+
+    private static void executeBenchmark(int chainLength, boolean operatorChainFusion)
+            throws Exception {
+        OperatorChainThroughputBenchmark benchmark = new OperatorChainThroughputBenchmark();
+        benchmark.setUp(chainLength, operatorChainFusion);
+        try {
+            benchmark.executeBenchmark(1_000_000);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
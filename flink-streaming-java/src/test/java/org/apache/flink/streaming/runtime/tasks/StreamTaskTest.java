@@ -119,6 +119,7 @@ import org.apache.flink.streaming.api.operators.StreamTaskStateInitializer;
 import org.apache.flink.streaming.runtime.io.DataInputStatus;
 import org.apache.flink.streaming.runtime.io.StreamInputProcessor;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.mailbox.LockFreeTaskMailbox;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxDefaultAction;
 import org.apache.flink.streaming.util.MockStreamConfig;
 import org.apache.flink.streaming.util.MockStreamTaskBuilder;
@@ -180,6 +181,7 @@ import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_P
 import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_TARGET;
 import static org.apache.flink.configuration.TaskManagerOptions.BUFFER_DEBLOAT_THRESHOLD_PERCENTAGES;
 import static org.apache.flink.configuration.TaskManagerOptions.MEMORY_SEGMENT_SIZE;
+import static org.apache.flink.configuration.TaskManagerOptions.TASK_MAILBOX_LOCK_FREE;
 import static org.apache.flink.runtime.checkpoint.CheckpointFailureReason.UNKNOWN_TASK_CHECKPOINT_NOTIFICATION_FAILURE;
 import static org.apache.flink.runtime.checkpoint.StateObjectCollection.singleton;
 import static org.apache.flink.runtime.io.network.api.writer.RecordWriter.DEFAULT_OUTPUT_FLUSH_THREAD_NAME;
@@ -1658,6 +1660,41 @@ public class StreamTaskTest extends TestLogger {
         }
     }
 
+    @Test
+    public void testLockFreeMailbox() throws Exception {
+        Configuration config = new Configuration().set(TASK_MAILBOX_LOCK_FREE, true);
+
+        try (StreamTaskMailboxTestHarness<String> harness =
+                new StreamTaskMailboxTestHarnessBuilder<>(OneInputStreamTask::new, STRING_TYPE_INFO)
+                        .setTaskManagerRuntimeInfo(new TestingTaskManagerRuntimeInfo(config))
+                        .addInput(STRING_TYPE_INFO)
+                        .setupOutputForSingletonOperatorChain(new StreamMap<>(value -> value))
+                        .build()) {
+            assertThat(
+                    harness.streamTask.mailboxProcessor.getMailbox(),
+                    instanceOf(LockFreeTaskMailbox.class));
+
+            AtomicInteger executedMails = new AtomicInteger();
+            MailboxExecutor executor = harness.getExecutor(0);
+            Thread sender =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < 100; i++) {
+                                    executor.execute(executedMails::incrementAndGet, "mail");
+                                }
+                            });
+            sender.start();
+            harness.processElement(new StreamRecord<>("a"));
+            sender.join();
+            harness.processAll();
+
+            assertEquals(100, executedMails.get());
+            assertEquals(
+                    Collections.singletonList(new StreamRecord<>("a")),
+                    new ArrayList<>(harness.getOutput()));
+        }
+    }
+
     @Test
     public void testBufferSizeRecalculationStartSuccessfully() throws Exception {
         int expectedThroughput = 13333;
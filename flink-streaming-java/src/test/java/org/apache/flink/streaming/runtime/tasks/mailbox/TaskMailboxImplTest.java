@@ -27,8 +27,12 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,23 +41,41 @@ import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.MAX_PRIORITY;
 import static org.junit.Assert.assertEquals;
 
-/** Unit tests for {@link TaskMailboxImpl}. */
+/** Unit tests for {@link TaskMailboxImpl} and {@link LockFreeTaskMailbox}. */
+@RunWith(Parameterized.class)
 public class TaskMailboxImplTest {
 
     private static final RunnableWithException NO_OP = () -> {};
     private static final int DEFAULT_PRIORITY = 0;
+
+    @Parameterized.Parameter(0)
+    public String mailboxType;
+
+    @Parameterized.Parameter(1)
+    public Supplier<TaskMailbox> mailboxFactory;
+
     /** Object under test. */
     private TaskMailbox taskMailbox;
 
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> mailboxes() {
+        return Arrays.asList(
+                new Object[] {"TaskMailboxImpl", (Supplier<TaskMailbox>) TaskMailboxImpl::new},
+                new Object[] {
+                    "LockFreeTaskMailbox", (Supplier<TaskMailbox>) LockFreeTaskMailbox::new
+                });
+    }
+
     @Before
     public void setUp() {
-        taskMailbox = new TaskMailboxImpl();
+        taskMailbox = mailboxFactory.get();
     }
 
     @After
@@ -82,6 +104,24 @@ public class TaskMailboxImplTest {
         Assert.assertFalse(taskMailbox.tryTake(DEFAULT_PRIORITY).isPresent());
     }
 
+    @Test
+    public void testTakenMailIsNotRetained() throws InterruptedException {
+        final WeakReference<Object> action = putMailWithAction();
+        Assert.assertNotNull(taskMailbox.take(DEFAULT_PRIORITY));
+
+        for (int i = 0; i < 100 && action.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(action.get());
+    }
+
+    private WeakReference<Object> putMailWithAction() {
+        final Object action = new Object();
+        taskMailbox.put(new Mail(action::hashCode, DEFAULT_PRIORITY, "mail"));
+        return new WeakReference<>(action);
+    }
+
     @Test
     public void testContracts() throws InterruptedException {
         final Queue<Mail> testObjects = new LinkedList<>();
@@ -378,6 +418,67 @@ public class TaskMailboxImplTest {
         assertEquals(Optional.of(mailA), taskMailbox.tryTakeFromBatch());
     }
 
+    @Test
+    public void testPutFirstFromOtherThreadOvertakesTakenBatch() throws Exception {
+        Mail mailA = new Mail(() -> {}, DEFAULT_PRIORITY, "mailA");
+        Mail mailB = new Mail(() -> {}, DEFAULT_PRIORITY, "mailB");
+        Mail mailC = new Mail(() -> {}, MAX_PRIORITY, "mailC");
+
+        taskMailbox.put(mailA);
+        taskMailbox.put(mailB);
+        assertEquals(mailA, taskMailbox.take(DEFAULT_PRIORITY));
+
+        Thread putter = new Thread(() -> taskMailbox.putFirst(mailC));
+        putter.start();
+        putter.join();
+
+        assertEquals(mailC, taskMailbox.take(DEFAULT_PRIORITY));
+        assertEquals(mailB, taskMailbox.take(DEFAULT_PRIORITY));
+    }
+
+    @Test
+    public void testPutFirstFromOtherThreadDoesNotOvertakeBatch() throws Exception {
+        Mail mailA = new Mail(() -> {}, DEFAULT_PRIORITY, "mailA");
+        Mail mailB = new Mail(() -> {}, DEFAULT_PRIORITY, "mailB");
+        Mail mailC = new Mail(() -> {}, MAX_PRIORITY, "mailC");
+        Mail mailD = new Mail(() -> {}, DEFAULT_PRIORITY, "mailD");
+
+        taskMailbox.put(mailA);
+        taskMailbox.put(mailB);
+        taskMailbox.createBatch();
+
+        Thread putter = new Thread(() -> taskMailbox.putFirst(mailC));
+        putter.start();
+        putter.join();
+        taskMailbox.put(mailD);
+
+        assertEquals(mailA, taskMailbox.take(DEFAULT_PRIORITY));
+        assertEquals(Optional.of(mailB), taskMailbox.tryTakeFromBatch());
+        assertEquals(Optional.empty(), taskMailbox.tryTakeFromBatch());
+        assertEquals(mailC, taskMailbox.take(DEFAULT_PRIORITY));
+        assertEquals(mailD, taskMailbox.take(DEFAULT_PRIORITY));
+    }
+
+    @Test
+    public void testTakeIsWokenUpByPut() throws Exception {
+        Mail mail = new Mail(() -> {}, DEFAULT_PRIORITY, "mail");
+        CountDownLatch putterStarted = new CountDownLatch(1);
+
+        Thread putter =
+                new Thread(
+                        ThrowingRunnable.unchecked(
+                                () -> {
+                                    putterStarted.countDown();
+                                    Thread.sleep(10);
+                                    taskMailbox.put(mail);
+                                }));
+        putter.start();
+        putterStarted.await();
+
+        assertEquals(mail, taskMailbox.take(DEFAULT_PRIORITY));
+        putter.join();
+    }
+
     /** Testing that we cannot close while running exclusively. */
     @Test
     public void testRunExclusively() throws InterruptedException {
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox;
+
+import org.apache.flink.util.function.RunnableWithException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Task mailbox benchmarks executed by the external <a
+ * href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>Puts no-op mails into a {@link TaskMailboxImpl} or a {@link LockFreeTaskMailbox} from the
+ * given number of producer threads while the calling thread, acting as the mailbox thread, takes
+ * and runs them. Without producers the mailbox thread puts the mails itself, like mails enqueued by
+ * the task through its own mailbox executor.
+ */
+public class TaskMailboxThroughputBenchmark {
+
+    private static final RunnableWithException NO_OP = () -> {};
+
+    /** The number of mails the mailbox thread puts at once without producers. */
+    private static final int SELF_PUT_BATCH_SIZE = 64;
+
+    private boolean lockFree;
+    private int numProducers;
+
+    public void setUp(boolean lockFree, int numProducers) {
+        checkArgument(numProducers >= 0, "The number of producers must not be negative.");
+        this.lockFree = lockFree;
+        this.numProducers = numProducers;
+    }
+
+    /**
+     * Executes the throughput benchmark with the given number of mails.
+     *
+     * @param mails to put into and take from the mailbox
+     */
+    public void executeBenchmark(long mails) throws Exception {
+        // the calling thread becomes the mailbox thread
+        final TaskMailbox mailbox = lockFree ? new LockFreeTaskMailbox() : new TaskMailboxImpl();
+        try {
+            if (numProducers == 0) {
+                executeWithoutProducers(mailbox, mails);
+            } else {
+                executeWithProducers(mailbox, mails);
+            }
+            checkState(!mailbox.hasMail(), "The mailbox still has mails.");
+        } finally {
+            mailbox.close();
+        }
+    }
+
+    private void executeWithoutProducers(TaskMailbox mailbox, long mails) throws Exception {
+        final Mail mail = new Mail(NO_OP, TaskMailbox.MIN_PRIORITY, "no-op");
+        for (long taken = 0; taken < mails; ) {
+            final long batchSize = Math.min(SELF_PUT_BATCH_SIZE, mails - taken);
+            for (int i = 0; i < batchSize; i++) {
+                mailbox.put(mail);
+            }
+            for (int i = 0; i < batchSize; i++) {
+                mailbox.take(TaskMailbox.MIN_PRIORITY).run();
+            }
+            taken += batchSize;
+        }
+    }
+
+    private void executeWithProducers(TaskMailbox mailbox, long mails) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> producers = new ArrayList<>(numProducers);
+        for (int p = 0; p < numProducers; p++) {
+            final long producerMails = mails / numProducers + (p < mails % numProducers ? 1 : 0);
+            final Thread producer =
+                    new Thread(
+                            () -> {
+                                final Mail mail =
+                                        new Mail(NO_OP, TaskMailbox.MIN_PRIORITY, "no-op");
+                                try {
+                                    start.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    return;
+                                }
+                                for (long i = 0; i < producerMails; i++) {
+                                    mailbox.put(mail);
+                                }
+                            },
+                            "mailbox-producer-" + p);
+            producer.start();
+            producers.add(producer);
+        }
+
+        start.countDown();
+        for (long taken = 0; taken < mails; taken++) {
+            mailbox.take(TaskMailbox.MIN_PRIORITY).run();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+}
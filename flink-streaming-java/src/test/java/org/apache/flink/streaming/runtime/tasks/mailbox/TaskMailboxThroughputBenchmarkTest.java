@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox;
+
+import org.junit.Test;
+
+/** Tests for {@link TaskMailboxThroughputBenchmark}. */
+public class TaskMailboxThroughputBenchmarkTest {
+
+    @Test
+    public void selfPut() throws Exception {
+        executeBenchmark(false, 0);
+    }
+
+    @Test
+    public void lockFreeSelfPut() throws Exception {
+        executeBenchmark(true, 0);
+    }
+
+    @Test
+    public void singleProducer() throws Exception {
+        executeBenchmark(false, 1);
+    }
+
+    @Test
+    public void lockFreeSingleProducer() throws Exception {
+        executeBenchmark(true, 1);
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        executeBenchmark(false, 4);
+    }
+
+    @Test
+    public void lockFreeMultipleProducers() throws Exception {
+        executeBenchmark(true, 4);
+    }
+
+    private static void executeBenchmark(boolean lockFree, int numProducers) throws Exception {
+        TaskMailboxThroughputBenchmark benchmark = new TaskMailboxThroughputBenchmark();
+        benchmark.setUp(lockFree, numProducers);
+        benchmark.executeBenchmark(1_000_000);
+    }
+}
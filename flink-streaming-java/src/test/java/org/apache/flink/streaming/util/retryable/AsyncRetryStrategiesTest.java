@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.retryable;
+
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
+import org.apache.flink.util.FlinkException;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link AsyncRetryStrategies} and {@link RetryPredicates}. */
+public class AsyncRetryStrategiesTest extends TestLogger {
+
+    @Test
+    public void testFixedDelayRetryStrategy() {
+        AsyncRetryStrategy<String> strategy =
+                new AsyncRetryStrategies.FixedDelayRetryStrategyBuilder<String>(2, 10L).build();
+
+        assertTrue(strategy.canRetry(1));
+        assertTrue(strategy.canRetry(2));
+        assertFalse(strategy.canRetry(3));
+        assertEquals(10L, strategy.getBackoffTimeMillis(1));
+        assertEquals(10L, strategy.getBackoffTimeMillis(2));
+        assertFalse(strategy.getRetryPredicate().resultPredicate().isPresent());
+        assertFalse(strategy.getRetryPredicate().exceptionPredicate().isPresent());
+    }
+
+    @Test
+    public void testExponentialBackoffDelayRetryStrategy() {
+        AsyncRetryStrategy<String> strategy =
+                new AsyncRetryStrategies.ExponentialBackoffDelayRetryStrategyBuilder<String>(
+                                5, 10L, 50L, 2.0)
+                        .build();
+
+        assertEquals(10L, strategy.getBackoffTimeMillis(1));
+        assertEquals(20L, strategy.getBackoffTimeMillis(2));
+        assertEquals(40L, strategy.getBackoffTimeMillis(3));
+        assertEquals(50L, strategy.getBackoffTimeMillis(4));
+        assertTrue(strategy.canRetry(5));
+        assertFalse(strategy.canRetry(6));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testNoRetryStrategy() {
+        AsyncRetryStrategy<String> strategy = AsyncRetryStrategies.NO_RETRY_STRATEGY;
+
+        assertFalse(strategy.canRetry(1));
+    }
+
+    @Test
+    public void testRetryPredicates() {
+        Predicate<Collection<?>> emptyResult = RetryPredicates.EMPTY_RESULT_PREDICATE;
+        assertTrue(emptyResult.test(Collections.emptyList()));
+        assertFalse(emptyResult.test(Collections.singletonList("a")));
+
+        Predicate<Throwable> ioException =
+                RetryPredicates.createExceptionTypePredicate(IOException.class);
+        assertTrue(ioException.test(new FlinkException(new IOException())));
+        assertFalse(ioException.test(new FlinkException("no io")));
+        assertTrue(RetryPredicates.HAS_EXCEPTION_PREDICATE.test(new FlinkException("any")));
+    }
+}
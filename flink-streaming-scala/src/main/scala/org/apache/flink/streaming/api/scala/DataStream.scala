@@ -552,6 +552,14 @@ class DataStream[T](stream: JavaStream[T]) {
    */
   def rebalance: DataStream[T] = asScalaStream(stream.rebalance())
 
+  /**
+   * Sets the partitioning of the DataStream so that the output tuples are distributed to the
+   * next component like in [[rebalance]], but instances with fewer unconsumed buffers queued
+   * are preferred.
+   */
+  @PublicEvolving
+  def adaptiveRebalance: DataStream[T] = asScalaStream(stream.adaptiveRebalance())
+
   /**
    * Sets the partitioning of the [[DataStream]] so that the output tuples
    * are distributed evenly to a subset of instances of the downstream operation.
@@ -297,6 +297,63 @@ public class ExecutionConfigOptions {
                     .withDescription(
                             "Sets the window elements buffer size limit used in group window agg operator.");
 
+    // ------------------------------------------------------------------------
+    //  Join Options
+    // ------------------------------------------------------------------------
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_JOIN_KEY_BLOOM_FILTER_ENABLED =
+            key("table.exec.join.key-bloom-filter.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether a regular join keeps an in-memory bloom filter of the join keys "
+                                    + "stored for each input. A record whose join key is known to be "
+                                    + "absent on the other input skips the state access of that input, "
+                                    + "which is especially beneficial for the RocksDB state backend when "
+                                    + "most records find no match. The filters are rebuilt from the join "
+                                    + "state in the background after a restore, one key group at a time.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<MemorySize> TABLE_EXEC_JOIN_KEY_BLOOM_FILTER_SIZE =
+            key("table.exec.join.key-bloom-filter.size")
+                    .memoryType()
+                    .defaultValue(MemorySize.ofMebiBytes(1))
+                    .withDescription(
+                            "The size of the join key bloom filter of each input of a regular join "
+                                    + "per parallel instance, which is used when "
+                                    + TABLE_EXEC_JOIN_KEY_BLOOM_FILTER_ENABLED.key()
+                                    + " is true. A filter holds about one key per 10 bits with a false "
+                                    + "positive probability of about 1%. Once more keys are added, it is "
+                                    + "rebuilt from the join state in the background, and disabled if the "
+                                    + "keys in state still don't fit.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+    public static final ConfigOption<Boolean> TABLE_EXEC_HASH_JOIN_SORT_MERGE_FALLBACK_ENABLED =
+            key("table.exec.hash-join.sort-merge-fallback.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether a hash join falls back to a sort merge join at runtime for the "
+                                    + "spilled partitions whose build side is too large to be rebuilt in "
+                                    + "memory, instead of partitioning them recursively. This keeps the "
+                                    + "join stable when the statistics underestimate the build side or "
+                                    + "the keys are skewed. Hash joins on a single long key are not "
+                                    + "code generated when it is enabled.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+    public static final ConfigOption<Boolean> TABLE_EXEC_VECTORIZED_ENABLED =
+            key("table.exec.vectorized.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether filters and local hash aggregations directly on top of a "
+                                    + "table source scan are executed by vectorized operators, which "
+                                    + "evaluate them for a whole batch of rows of a columnar source "
+                                    + "such as Parquet or ORC at a time. Only simple comparisons, "
+                                    + "projections of input fields and the aggregate functions COUNT, "
+                                    + "SUM, MIN and MAX on numeric fields are vectorized, all other "
+                                    + "operators are code generated as before.");
+
     // ------------------------------------------------------------------------
     //  Async Lookup Options
     // ------------------------------------------------------------------------
@@ -354,6 +411,39 @@ public class ExecutionConfigOptions {
                                     + TABLE_EXEC_MINIBATCH_ENABLED.key()
                                     + " is set true, its value must be positive.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_ENABLED =
+            key("table.exec.mini-batch.managed-memory-buffer.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Specifies whether non-windowed group aggregations buffer the input "
+                                    + "records of a mini-batch in binary form in managed memory "
+                                    + "instead of on the heap. If the managed memory is exhausted "
+                                    + "before the mini-batch is triggered, the buffered records are "
+                                    + "processed early. This bounds the memory footprint of a "
+                                    + "mini-batch for any value of '"
+                                    + TABLE_EXEC_MINIBATCH_SIZE.key()
+                                    + "'.");
+
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<MemorySize> TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_SIZE =
+            key("table.exec.mini-batch.managed-memory-buffer.size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("32 mb"))
+                    .withDescription(
+                            "Sets the managed memory size of the mini-batch buffer of a "
+                                    + "non-windowed group aggregation, which is used when '"
+                                    + TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_ENABLED.key()
+                                    + "' is true. Like the other operator memory sizes, it is only a "
+                                    + "weight hint for sharing the managed memory of a slot between "
+                                    + "its operators. Note: the operators of a slot share its managed "
+                                    + "memory with the RocksDB state backend according to "
+                                    + "'taskmanager.memory.managed.consumer-weights', so enabling the "
+                                    + "buffer takes managed memory away from RocksDB. A smaller buffer "
+                                    + "leaves more memory to RocksDB but processes mini-batches early "
+                                    + "more often, which means more state accesses.");
+
     // ------------------------------------------------------------------------
     //  Other Exec Options
     // ------------------------------------------------------------------------
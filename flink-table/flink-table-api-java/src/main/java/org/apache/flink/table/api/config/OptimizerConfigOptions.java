@@ -124,6 +124,17 @@ public class OptimizerConfigOptions {
                             "When it is true, the optimizer will merge the operators with pipelined shuffling "
                                     + "into a multiple input operator to reduce shuffling and improve performance. Default value is true.");
 
+    @Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+    public static final ConfigOption<Boolean> TABLE_OPTIMIZER_MULTI_JOIN_ENABLED =
+            key("table.optimizer.multi-join-enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "When it is true, the optimizer will merge a cascade of regular inner joins "
+                                    + "which share the same join key into a single multi-way join operator. "
+                                    + "The multi-way join only keeps the records of its inputs in state "
+                                    + "instead of the intermediate results of every binary join. Default value is false.");
+
     @Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
     public static final ConfigOption<Boolean> TABLE_OPTIMIZER_SIMPLIFY_OPERATOR_NAME_ENABLED =
             key("table.optimizer.simplify-operator-name-enabled")
@@ -62,6 +62,16 @@ public final class ColumnarRowData implements RowData, TypedSetters {
         this.rowId = rowId;
     }
 
+    /** Returns the batch this row is a view of. */
+    public VectorizedColumnBatch getVectorizedColumnBatch() {
+        return vectorizedColumnBatch;
+    }
+
+    /** Returns the position of this row in its {@link VectorizedColumnBatch}. */
+    public int getRowId() {
+        return rowId;
+    }
+
     @Override
     public RowKind getRowKind() {
         return rowKind;
@@ -27,19 +27,23 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.codegen.CodeGeneratorContext;
 import org.apache.flink.table.planner.codegen.LongHashJoinGenerator;
 import org.apache.flink.table.planner.codegen.ProjectionCodeGenerator;
+import org.apache.flink.table.planner.codegen.sort.SortCodeGenerator;
 import org.apache.flink.table.planner.delegation.PlannerBase;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeBase;
 import org.apache.flink.table.planner.plan.nodes.exec.InputProperty;
 import org.apache.flink.table.planner.plan.nodes.exec.SingleTransformationTranslator;
 import org.apache.flink.table.planner.plan.nodes.exec.spec.JoinSpec;
+import org.apache.flink.table.planner.plan.nodes.exec.spec.SortSpec;
 import org.apache.flink.table.planner.plan.nodes.exec.utils.ExecNodeUtil;
 import org.apache.flink.table.planner.plan.utils.JoinUtil;
+import org.apache.flink.table.planner.plan.utils.SortUtil;
 import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
 import org.apache.flink.table.runtime.generated.GeneratedProjection;
 import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
 import org.apache.flink.table.runtime.operators.join.HashJoinOperator;
 import org.apache.flink.table.runtime.operators.join.HashJoinType;
+import org.apache.flink.table.runtime.operators.join.SortMergeJoinFunction;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.RowType;
@@ -174,7 +178,14 @@ public class BatchExecHashJoin extends ExecNodeBase<RowData>
                         joinType.isRightOuter(),
                         joinType == FlinkJoinType.SEMI,
                         joinType == FlinkJoinType.ANTI);
-        if (LongHashJoinGenerator.support(hashJoinType, keyType, joinSpec.getFilterNulls())) {
+        boolean sortMergeFallbackEnabled =
+                config.getConfiguration()
+                        .get(
+                                ExecutionConfigOptions
+                                        .TABLE_EXEC_HASH_JOIN_SORT_MERGE_FALLBACK_ENABLED);
+        if (!sortMergeFallbackEnabled
+                && LongHashJoinGenerator.support(
+                        hashJoinType, keyType, joinSpec.getFilterNulls())) {
             operator =
                     LongHashJoinGenerator.gen(
                             config,
@@ -189,6 +200,22 @@ public class BatchExecHashJoin extends ExecNodeBase<RowData>
                             reverseJoin,
                             condFunc);
         } else {
+            SortMergeJoinFunction sortMergeJoinFunction = null;
+            if (sortMergeFallbackEnabled) {
+                sortMergeJoinFunction =
+                        createSortMergeJoinFunction(
+                                config,
+                                joinType,
+                                leftIsBuild,
+                                condFunc,
+                                leftProj,
+                                rightProj,
+                                leftType,
+                                rightType,
+                                leftKeys,
+                                rightKeys,
+                                keyType);
+            }
             operator =
                     SimpleOperatorFactory.of(
                             HashJoinOperator.newHashJoinOperator(
@@ -202,7 +229,8 @@ public class BatchExecHashJoin extends ExecNodeBase<RowData>
                                     buildRowSize,
                                     buildRowCount,
                                     probeRowCount,
-                                    keyType));
+                                    keyType,
+                                    sortMergeJoinFunction));
         }
 
         long managedMemory =
@@ -220,4 +248,56 @@ public class BatchExecHashJoin extends ExecNodeBase<RowData>
                 probeTransform.getParallelism(),
                 managedMemory);
     }
+
+    /**
+     * Creates the sort merge join for the spilled partitions which are too large to be rebuilt in
+     * memory. Its first input is the left input of the join, regardless of the build side.
+     */
+    private SortMergeJoinFunction createSortMergeJoinFunction(
+            TableConfig config,
+            FlinkJoinType joinType,
+            boolean leftIsSmaller,
+            GeneratedJoinCondition condFunc,
+            GeneratedProjection leftProj,
+            GeneratedProjection rightProj,
+            RowType leftType,
+            RowType rightType,
+            int[] leftKeys,
+            int[] rightKeys,
+            RowType keyType) {
+        long externalBufferMemory =
+                config.getConfiguration()
+                        .get(ExecutionConfigOptions.TABLE_EXEC_RESOURCE_EXTERNAL_BUFFER_MEMORY)
+                        .getBytes();
+        long sortMemory =
+                config.getConfiguration()
+                        .get(ExecutionConfigOptions.TABLE_EXEC_RESOURCE_SORT_MEMORY)
+                        .getBytes();
+        int externalBufferNum = joinType == FlinkJoinType.FULL ? 2 : 1;
+        // split the memory of the hash join like a sort merge join splits its own
+        long sortMergeJoinMemory = externalBufferMemory * externalBufferNum + sortMemory * 2;
+
+        SortCodeGenerator leftSortGen = newSortGen(config, leftKeys, leftType);
+        SortCodeGenerator rightSortGen = newSortGen(config, rightKeys, rightType);
+        int[] keyPositions = IntStream.range(0, leftKeys.length).toArray();
+        return new SortMergeJoinFunction(
+                1.0 * externalBufferMemory / sortMergeJoinMemory,
+                joinType,
+                leftIsSmaller,
+                condFunc,
+                leftProj,
+                rightProj,
+                leftSortGen.generateNormalizedKeyComputer("LeftComputer"),
+                leftSortGen.generateRecordComparator("LeftComparator"),
+                rightSortGen.generateNormalizedKeyComputer("RightComputer"),
+                rightSortGen.generateRecordComparator("RightComparator"),
+                newSortGen(config, keyPositions, keyType).generateRecordComparator("KeyComparator"),
+                joinSpec.getFilterNulls());
+    }
+
+    private SortCodeGenerator newSortGen(
+            TableConfig config, int[] originalKeys, RowType inputType) {
+        SortSpec sortSpec = SortUtil.getAscendingSortSpec(originalKeys);
+        return new SortCodeGenerator(config, inputType, sortSpec);
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.exec.batch;
+
+import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.planner.delegation.PlannerBase;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeBase;
+import org.apache.flink.table.planner.plan.nodes.exec.InputProperty;
+import org.apache.flink.table.planner.plan.nodes.exec.SingleTransformationTranslator;
+import org.apache.flink.table.planner.plan.nodes.exec.utils.ExecNodeUtil;
+import org.apache.flink.table.runtime.operators.vectorized.VectorizedAggregate;
+import org.apache.flink.table.runtime.operators.vectorized.VectorizedHashAggOperator;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.util.Collections;
+
+/**
+ * Batch {@link ExecNode} for a local hash aggregate which is executed by a {@link
+ * VectorizedHashAggOperator}.
+ */
+public class BatchExecVectorizedLocalHashAggregate extends ExecNodeBase<RowData>
+        implements BatchExecNode<RowData>, SingleTransformationTranslator<RowData> {
+
+    /**
+     * The number of groups after which the partial results are emitted, which bounds the aggregate
+     * states on the heap to about 9 MB per aggregate.
+     */
+    private static final int MAX_NUM_GROUPS = 1 << 20;
+
+    private final int[] grouping;
+    private final VectorizedAggregate[] aggregates;
+
+    public BatchExecVectorizedLocalHashAggregate(
+            int[] grouping,
+            VectorizedAggregate[] aggregates,
+            InputProperty inputProperty,
+            RowType outputType,
+            String description) {
+        super(Collections.singletonList(inputProperty), outputType, description);
+        this.grouping = grouping;
+        this.aggregates = aggregates;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Transformation<RowData> translateToPlanInternal(PlannerBase planner) {
+        final ExecEdge inputEdge = getInputEdges().get(0);
+        final Transformation<RowData> inputTransform =
+                (Transformation<RowData>) inputEdge.translateToPlan(planner);
+        final LogicalType[] inputTypes =
+                ((RowType) inputEdge.getOutputType()).getChildren().toArray(new LogicalType[0]);
+
+        final long managedMemory;
+        if (VectorizedHashAggOperator.requiresManagedMemory(grouping, inputTypes)) {
+            managedMemory =
+                    planner.getTableConfig()
+                            .getConfiguration()
+                            .get(ExecutionConfigOptions.TABLE_EXEC_RESOURCE_HASH_AGG_MEMORY)
+                            .getBytes();
+        } else {
+            managedMemory = 0L;
+        }
+        final VectorizedHashAggOperator operator =
+                new VectorizedHashAggOperator(
+                        inputTypes, grouping, aggregates, null, MAX_NUM_GROUPS);
+
+        return ExecNodeUtil.createOneInputTransformation(
+                inputTransform,
+                getOperatorName(planner.getTableConfig()),
+                getOperatorDescription(planner.getTableConfig()),
+                operator,
+                InternalTypeInfo.of((RowType) getOutputType()),
+                inputTransform.getParallelism(),
+                managedMemory);
+    }
+}
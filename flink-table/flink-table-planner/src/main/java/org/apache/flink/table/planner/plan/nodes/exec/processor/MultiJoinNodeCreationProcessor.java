@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.exec.processor;
+
+import org.apache.flink.table.api.TableException;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeGraph;
+import org.apache.flink.table.planner.plan.nodes.exec.InputProperty;
+import org.apache.flink.table.planner.plan.nodes.exec.spec.JoinSpec;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecExchange;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecJoin;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecMultiJoin;
+import org.apache.flink.table.planner.plan.nodes.exec.stream.StreamExecNode;
+import org.apache.flink.table.planner.plan.nodes.exec.visitor.AbstractExecNodeExactlyOnceVisitor;
+import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ExecNodeGraphProcessor} which merges a left-deep cascade of regular inner {@link
+ * StreamExecJoin}s sharing the same join key into a {@link StreamExecMultiJoin}.
+ *
+ * <p>A join is merged into the join consuming it only if it is an inner join, it has no other
+ * consumers, and the join key of the consuming join is the same key, i.e. the i-th left key of the
+ * consuming join is the i-th join key of one of the merged inputs. The exchange between the two
+ * joins is removed as the inputs of the multi join are already partitioned by the join key.
+ */
+public class MultiJoinNodeCreationProcessor implements ExecNodeGraphProcessor {
+
+    @Override
+    public ExecNodeGraph process(ExecNodeGraph execGraph, ProcessorContext context) {
+        if (!execGraph.getRootNodes().stream().allMatch(r -> r instanceof StreamExecNode)) {
+            throw new TableException("Only StreamExecNode DAG are supported now.");
+        }
+
+        final Map<ExecNode<?>, Integer> numOfConsumers = new HashMap<>();
+        AbstractExecNodeExactlyOnceVisitor visitor =
+                new AbstractExecNodeExactlyOnceVisitor() {
+                    @Override
+                    protected void visitNode(ExecNode<?> node) {
+                        for (ExecEdge edge : node.getInputEdges()) {
+                            numOfConsumers.merge(edge.getSource(), 1, Integer::sum);
+                        }
+                        visitInputs(node);
+                    }
+                };
+        execGraph.getRootNodes().forEach(r -> r.accept(visitor));
+
+        final Rewriter rewriter = new Rewriter(numOfConsumers);
+        final List<ExecNode<?>> rootNodes =
+                execGraph.getRootNodes().stream()
+                        .map(rewriter::rewrite)
+                        .collect(Collectors.toList());
+        return new ExecNodeGraph(execGraph.getFlinkVersion(), rootNodes);
+    }
+
+    /** Rewrites the graph top-down, replacing every mergeable join cascade by a multi join. */
+    private static class Rewriter {
+
+        private final Map<ExecNode<?>, Integer> numOfConsumers;
+        private final Map<ExecNode<?>, ExecNode<?>> rewrittenNodes = new HashMap<>();
+
+        private Rewriter(Map<ExecNode<?>, Integer> numOfConsumers) {
+            this.numOfConsumers = numOfConsumers;
+        }
+
+        private ExecNode<?> rewrite(ExecNode<?> node) {
+            ExecNode<?> rewritten = rewrittenNodes.get(node);
+            if (rewritten != null) {
+                return rewritten;
+            }
+
+            ExecNode<?> result = node;
+            if (node instanceof StreamExecJoin) {
+                JoinChain chain = collect((StreamExecJoin) node);
+                if (chain != null && chain.inputs.size() > 2) {
+                    result = chain.createMultiJoin((StreamExecJoin) node);
+                }
+            }
+
+            List<ExecEdge> inputEdges = result.getInputEdges();
+            for (int i = 0; i < inputEdges.size(); i++) {
+                ExecNode<?> source = inputEdges.get(i).getSource();
+                ExecNode<?> newSource = rewrite(source);
+                if (newSource != source) {
+                    result.replaceInputEdge(
+                            i, ExecEdge.builder().source(newSource).target(result).build());
+                }
+            }
+            rewrittenNodes.put(node, result);
+            return result;
+        }
+
+        /**
+         * Collects the inputs of the left-deep inner join cascade ending at the given join, or
+         * returns null if the join can't be the last join of a multi join.
+         */
+        private JoinChain collect(StreamExecJoin join) {
+            JoinSpec joinSpec = join.getJoinSpec();
+            if (joinSpec.getJoinType() != FlinkJoinType.INNER || joinSpec.getJoinKeySize() == 0) {
+                return null;
+            }
+
+            ExecNode<?> left = join.getInputEdges().get(0).getSource();
+            JoinChain chain = null;
+            StreamExecJoin leftJoin = getExclusiveInputJoin(left);
+            if (leftJoin != null) {
+                chain = collect(leftJoin);
+                if (chain != null && !chain.hasSameKey(joinSpec.getLeftKeys())) {
+                    chain = null;
+                }
+            }
+            if (chain == null) {
+                chain = new JoinChain(left, joinSpec.getLeftKeys(), join.getLeftUniqueKeys());
+            }
+
+            ExecNode<?> right = join.getInputEdges().get(1).getSource();
+            chain.append(right, joinSpec.getRightKeys(), join.getRightUniqueKeys(), joinSpec);
+            return chain;
+        }
+
+        /**
+         * Returns the join which produces the given input (possibly through an exchange), if the
+         * input is only consumed by a single join.
+         */
+        private StreamExecJoin getExclusiveInputJoin(ExecNode<?> input) {
+            ExecNode<?> node = input;
+            if (node instanceof StreamExecExchange) {
+                if (numOfConsumers.getOrDefault(node, 0) != 1) {
+                    return null;
+                }
+                node = node.getInputEdges().get(0).getSource();
+            }
+            if (node instanceof StreamExecJoin && numOfConsumers.getOrDefault(node, 0) == 1) {
+                return (StreamExecJoin) node;
+            }
+            return null;
+        }
+    }
+
+    /** The inputs of a left-deep join cascade, in the order of the fields of the join result. */
+    private static class JoinChain {
+
+        private final List<ExecNode<?>> inputs = new ArrayList<>();
+        private final List<int[]> joinKeys = new ArrayList<>();
+        private final List<List<int[]>> uniqueKeys = new ArrayList<>();
+        private final List<Integer> fieldOffsets = new ArrayList<>();
+        private final List<JoinSpec> joinSpecs = new ArrayList<>();
+        private int numOfFields = 0;
+
+        private JoinChain(ExecNode<?> first, int[] joinKey, List<int[]> firstUniqueKeys) {
+            addInput(first, joinKey, firstUniqueKeys);
+        }
+
+        private void append(
+                ExecNode<?> input, int[] joinKey, List<int[]> inputUniqueKeys, JoinSpec joinSpec) {
+            addInput(input, joinKey, inputUniqueKeys);
+            joinSpecs.add(joinSpec);
+        }
+
+        private void addInput(ExecNode<?> input, int[] joinKey, List<int[]> inputUniqueKeys) {
+            inputs.add(input);
+            joinKeys.add(joinKey);
+            uniqueKeys.add(inputUniqueKeys == null ? Collections.emptyList() : inputUniqueKeys);
+            fieldOffsets.add(numOfFields);
+            numOfFields += ((RowType) input.getOutputType()).getFieldCount();
+        }
+
+        /**
+         * Returns true if the given key on the joined row of all inputs is the join key of the
+         * cascade, i.e. every key field is the join key field at the same position of one input.
+         */
+        private boolean hasSameKey(int[] key) {
+            if (key.length != joinKeys.get(0).length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                int input = 0;
+                while (input + 1 < inputs.size() && fieldOffsets.get(input + 1) <= key[i]) {
+                    input++;
+                }
+                if (joinKeys.get(input)[i] != key[i] - fieldOffsets.get(input)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private StreamExecMultiJoin createMultiJoin(StreamExecJoin lastJoin) {
+            RowType outputType = (RowType) lastJoin.getOutputType();
+            StreamExecMultiJoin multiJoin =
+                    new StreamExecMultiJoin(
+                            joinSpecs,
+                            joinKeys,
+                            uniqueKeys,
+                            Collections.nCopies(inputs.size(), InputProperty.DEFAULT),
+                            outputType,
+                            String.format(
+                                    "MultiJoin(joinType=[InnerJoin], inputs=[%d], select=[%s])",
+                                    inputs.size(), String.join(", ", outputType.getFieldNames())));
+            List<ExecEdge> inputEdges = new ArrayList<>(inputs.size());
+            for (ExecNode<?> input : inputs) {
+                inputEdges.add(ExecEdge.builder().source(input).target(multiJoin).build());
+            }
+            multiJoin.setInputEdges(inputEdges);
+            return multiJoin;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.flink.table.planner.plan.nodes.exec.stream;
 
 import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.api.transformations.OneInputTransformation;
@@ -42,6 +43,7 @@ import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
 import org.apache.flink.table.runtime.operators.aggregate.GroupAggFunction;
 import org.apache.flink.table.runtime.operators.aggregate.MiniBatchGroupAggFunction;
+import org.apache.flink.table.runtime.operators.bundle.BinaryMapBundleOperator;
 import org.apache.flink.table.runtime.operators.bundle.KeyedMapBundleOperator;
 import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
@@ -187,13 +189,39 @@ public class StreamExecGroupAggregate extends StreamExecAggregateBase {
                 new EqualiserCodeGenerator(aggValueTypes)
                         .generateRecordEqualiser("GroupAggValueEqualiser");
         final int inputCountIndex = aggInfoList.getIndexOfCountStar();
+        final Configuration config = tableConfig.getConfiguration();
         final boolean isMiniBatchEnabled =
-                tableConfig
-                        .getConfiguration()
-                        .getBoolean(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED);
+                config.getBoolean(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED);
+
+        final boolean isManagedMemoryBufferEnabled =
+                isMiniBatchEnabled
+                        && config.getBoolean(
+                                ExecutionConfigOptions
+                                        .TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_ENABLED);
 
         final OneInputStreamOperator<RowData, RowData> operator;
-        if (isMiniBatchEnabled) {
+        if (isManagedMemoryBufferEnabled) {
+            MiniBatchGroupAggFunction aggFunction =
+                    new MiniBatchGroupAggFunction(
+                            aggsHandler,
+                            recordEqualiser,
+                            accTypes,
+                            inputRowType,
+                            inputCountIndex,
+                            generateUpdateBefore,
+                            tableConfig.getIdleStateRetention().toMillis());
+            final LogicalType[] keyTypes =
+                    Arrays.stream(grouping)
+                            .mapToObj(inputRowType::getTypeAt)
+                            .toArray(LogicalType[]::new);
+            operator =
+                    new BinaryMapBundleOperator(
+                            aggFunction,
+                            AggregateUtil.createMiniBatchTrigger(tableConfig),
+                            null,
+                            keyTypes,
+                            inputRowType.getChildren().toArray(new LogicalType[0]));
+        } else if (isMiniBatchEnabled) {
             MiniBatchGroupAggFunction aggFunction =
                     new MiniBatchGroupAggFunction(
                             aggsHandler,
@@ -226,7 +254,13 @@ public class StreamExecGroupAggregate extends StreamExecAggregateBase {
                         getOperatorDescription(tableConfig),
                         operator,
                         InternalTypeInfo.of(getOutputType()),
-                        inputTransform.getParallelism());
+                        inputTransform.getParallelism(),
+                        isManagedMemoryBufferEnabled
+                                ? config.get(
+                                                ExecutionConfigOptions
+                                                        .TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_SIZE)
+                                        .getBytes()
+                                : 0);
 
         // set KeyType and Selector for state
         final RowDataKeySelector selector =
@@ -20,8 +20,10 @@
 package org.apache.flink.table.planner.plan.nodes.exec.stream;
 
 import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.transformations.TwoInputTransformation;
 import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.delegation.PlannerBase;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
@@ -44,6 +46,7 @@ import org.apache.flink.table.types.logical.RowType;
 
 import org.apache.flink.shaded.guava30.com.google.common.collect.Lists;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonCreator;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -108,6 +111,21 @@ public class StreamExecJoin extends ExecNodeBase<RowData>
         this.rightUniqueKeys = rightUniqueKeys;
     }
 
+    @JsonIgnore
+    public JoinSpec getJoinSpec() {
+        return joinSpec;
+    }
+
+    @JsonIgnore
+    public List<int[]> getLeftUniqueKeys() {
+        return leftUniqueKeys;
+    }
+
+    @JsonIgnore
+    public List<int[]> getRightUniqueKeys() {
+        return rightUniqueKeys;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected Transformation<RowData> translateToPlanInternal(PlannerBase planner) {
@@ -157,6 +175,14 @@ public class StreamExecJoin extends ExecNodeBase<RowData>
             boolean leftIsOuter = joinType == FlinkJoinType.LEFT || joinType == FlinkJoinType.FULL;
             boolean rightIsOuter =
                     joinType == FlinkJoinType.RIGHT || joinType == FlinkJoinType.FULL;
+            int keyBloomFilterBytes = 0;
+            Configuration config = tableConfig.getConfiguration();
+            if (config.get(ExecutionConfigOptions.TABLE_EXEC_JOIN_KEY_BLOOM_FILTER_ENABLED)) {
+                long filterBytes =
+                        config.get(ExecutionConfigOptions.TABLE_EXEC_JOIN_KEY_BLOOM_FILTER_SIZE)
+                                .getBytes();
+                keyBloomFilterBytes = (int) Math.min(filterBytes, Integer.MAX_VALUE / Byte.SIZE);
+            }
             operator =
                     new StreamingJoinOperator(
                             leftTypeInfo,
@@ -167,7 +193,8 @@ public class StreamExecJoin extends ExecNodeBase<RowData>
                             leftIsOuter,
                             rightIsOuter,
                             joinSpec.getFilterNulls(),
-                            minRetentionTime);
+                            minRetentionTime,
+                            keyBloomFilterBytes);
         }
 
         final RowType returnType = (RowType) getOutputType();
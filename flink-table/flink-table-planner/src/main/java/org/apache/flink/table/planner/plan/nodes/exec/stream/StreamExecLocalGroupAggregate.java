@@ -19,6 +19,9 @@
 package org.apache.flink.table.planner.plan.nodes.exec.stream;
 
 import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.planner.codegen.CodeGeneratorContext;
 import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator;
@@ -34,8 +37,10 @@ import org.apache.flink.table.planner.utils.JavaScalaConversionUtil;
 import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
 import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
 import org.apache.flink.table.runtime.operators.aggregate.MiniBatchLocalGroupAggFunction;
+import org.apache.flink.table.runtime.operators.bundle.BinaryMapBundleOperator;
 import org.apache.flink.table.runtime.operators.bundle.MapBundleOperator;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.RowType;
 
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonCreator;
@@ -141,11 +146,31 @@ public class StreamExecLocalGroupAggregate extends StreamExecAggregateBase {
                 KeySelectorUtil.getRowDataSelector(
                         grouping, (InternalTypeInfo<RowData>) inputTransform.getOutputType());
 
-        final MapBundleOperator<RowData, RowData, RowData, RowData> operator =
-                new MapBundleOperator<>(
-                        aggFunction,
-                        AggregateUtil.createMiniBatchTrigger(planner.getTableConfig()),
-                        selector);
+        final Configuration config = planner.getTableConfig().getConfiguration();
+        final boolean isManagedMemoryBufferEnabled =
+                config.getBoolean(
+                        ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_ENABLED);
+
+        final OneInputStreamOperator<RowData, RowData> operator;
+        if (isManagedMemoryBufferEnabled) {
+            final LogicalType[] keyTypes =
+                    Arrays.stream(grouping)
+                            .mapToObj(inputRowType::getTypeAt)
+                            .toArray(LogicalType[]::new);
+            operator =
+                    new BinaryMapBundleOperator(
+                            aggFunction,
+                            AggregateUtil.createMiniBatchTrigger(planner.getTableConfig()),
+                            selector,
+                            keyTypes,
+                            inputRowType.getChildren().toArray(new LogicalType[0]));
+        } else {
+            operator =
+                    new MapBundleOperator<>(
+                            aggFunction,
+                            AggregateUtil.createMiniBatchTrigger(planner.getTableConfig()),
+                            selector);
+        }
 
         return ExecNodeUtil.createOneInputTransformation(
                 inputTransform,
@@ -153,6 +178,12 @@ public class StreamExecLocalGroupAggregate extends StreamExecAggregateBase {
                 getOperatorDescription(planner.getTableConfig()),
                 operator,
                 InternalTypeInfo.of(getOutputType()),
-                inputTransform.getParallelism());
+                inputTransform.getParallelism(),
+                isManagedMemoryBufferEnabled
+                        ? config.get(
+                                        ExecutionConfigOptions
+                                                .TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_BUFFER_SIZE)
+                                .getBytes()
+                        : 0);
     }
 }
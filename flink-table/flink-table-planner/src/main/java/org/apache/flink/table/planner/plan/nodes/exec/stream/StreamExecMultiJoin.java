@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.exec.stream;
+
+import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.streaming.api.transformations.KeyedMultipleInputTransformation;
+import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.planner.delegation.PlannerBase;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecEdge;
+import org.apache.flink.table.planner.plan.nodes.exec.ExecNodeBase;
+import org.apache.flink.table.planner.plan.nodes.exec.InputProperty;
+import org.apache.flink.table.planner.plan.nodes.exec.SingleTransformationTranslator;
+import org.apache.flink.table.planner.plan.nodes.exec.spec.JoinSpec;
+import org.apache.flink.table.planner.plan.utils.JoinUtil;
+import org.apache.flink.table.planner.plan.utils.KeySelectorUtil;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.join.FlinkJoinType;
+import org.apache.flink.table.runtime.operators.join.stream.StreamingMultiJoinOperatorFactory;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonCreator;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * {@link StreamExecNode} for a multi-way regular inner Join of N inputs which share the same join
+ * key.
+ *
+ * <p>It replaces a left-deep cascade of {@link StreamExecJoin}s: the {@code k}-th {@link JoinSpec}
+ * is the spec of the {@code k}-th binary join, i.e. the join of the inputs {@code 0..k} with the
+ * input {@code k + 1}. Unlike the cascade, only the records of the N inputs are kept in state.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StreamExecMultiJoin extends ExecNodeBase<RowData>
+        implements StreamExecNode<RowData>, SingleTransformationTranslator<RowData> {
+    public static final String FIELD_NAME_JOIN_SPECS = "joinSpecs";
+    public static final String FIELD_NAME_JOIN_KEYS = "joinKeys";
+    public static final String FIELD_NAME_UNIQUE_KEYS = "uniqueKeys";
+
+    @JsonProperty(FIELD_NAME_JOIN_SPECS)
+    private final List<JoinSpec> joinSpecs;
+
+    @JsonProperty(FIELD_NAME_JOIN_KEYS)
+    private final List<int[]> joinKeys;
+
+    @JsonProperty(FIELD_NAME_UNIQUE_KEYS)
+    private final List<List<int[]>> uniqueKeys;
+
+    public StreamExecMultiJoin(
+            List<JoinSpec> joinSpecs,
+            List<int[]> joinKeys,
+            List<List<int[]>> uniqueKeys,
+            List<InputProperty> inputProperties,
+            RowType outputType,
+            String description) {
+        this(
+                joinSpecs,
+                joinKeys,
+                uniqueKeys,
+                getNewNodeId(),
+                inputProperties,
+                outputType,
+                description);
+    }
+
+    @JsonCreator
+    public StreamExecMultiJoin(
+            @JsonProperty(FIELD_NAME_JOIN_SPECS) List<JoinSpec> joinSpecs,
+            @JsonProperty(FIELD_NAME_JOIN_KEYS) List<int[]> joinKeys,
+            @JsonProperty(FIELD_NAME_UNIQUE_KEYS) List<List<int[]>> uniqueKeys,
+            @JsonProperty(FIELD_NAME_ID) int id,
+            @JsonProperty(FIELD_NAME_INPUT_PROPERTIES) List<InputProperty> inputProperties,
+            @JsonProperty(FIELD_NAME_OUTPUT_TYPE) RowType outputType,
+            @JsonProperty(FIELD_NAME_DESCRIPTION) String description) {
+        super(id, inputProperties, outputType, description);
+        checkArgument(inputProperties.size() > 2);
+        checkArgument(joinSpecs.size() == inputProperties.size() - 1);
+        checkArgument(joinKeys.size() == inputProperties.size());
+        checkArgument(uniqueKeys.size() == inputProperties.size());
+        checkArgument(
+                joinSpecs.stream().allMatch(spec -> spec.getJoinType() == FlinkJoinType.INNER),
+                "Only inner joins can be merged into a multi join.");
+        this.joinSpecs = checkNotNull(joinSpecs);
+        this.joinKeys = checkNotNull(joinKeys);
+        this.uniqueKeys = checkNotNull(uniqueKeys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Transformation<RowData> translateToPlanInternal(PlannerBase planner) {
+        final TableConfig tableConfig = planner.getTableConfig();
+        final List<ExecEdge> inputEdges = getInputEdges();
+        final int numInputs = inputEdges.size();
+
+        final List<Transformation<RowData>> inputTransforms = new ArrayList<>(numInputs);
+        final List<InternalTypeInfo<RowData>> inputTypeInfos = new ArrayList<>(numInputs);
+        final List<JoinInputSideSpec> inputSideSpecs = new ArrayList<>(numInputs);
+        final List<RowDataKeySelector> keySelectors = new ArrayList<>(numInputs);
+        for (int i = 0; i < numInputs; i++) {
+            final ExecEdge inputEdge = inputEdges.get(i);
+            inputTransforms.add((Transformation<RowData>) inputEdge.translateToPlan(planner));
+            final InternalTypeInfo<RowData> typeInfo =
+                    InternalTypeInfo.of((RowType) inputEdge.getOutputType());
+            inputTypeInfos.add(typeInfo);
+            inputSideSpecs.add(
+                    JoinUtil.analyzeJoinInput(typeInfo, joinKeys.get(i), uniqueKeys.get(i)));
+            keySelectors.add(KeySelectorUtil.getRowDataSelector(joinKeys.get(i), typeInfo));
+        }
+
+        // the k-th condition joins the row of the inputs 0..k with the row of the input k + 1
+        final List<GeneratedJoinCondition> generatedConditions = new ArrayList<>(numInputs - 1);
+        final List<LogicalType> joinedFieldTypes =
+                new ArrayList<>(((RowType) inputEdges.get(0).getOutputType()).getChildren());
+        for (int i = 1; i < numInputs; i++) {
+            final RowType joinedType = RowType.of(joinedFieldTypes.toArray(new LogicalType[0]));
+            final RowType inputType = (RowType) inputEdges.get(i).getOutputType();
+            generatedConditions.add(
+                    JoinUtil.generateConditionFunction(
+                            tableConfig, joinSpecs.get(i - 1), joinedType, inputType));
+            joinedFieldTypes.addAll(inputType.getChildren());
+        }
+
+        // a null key is filtered out as soon as one of the joins filters it
+        final boolean[] filterNulls = new boolean[joinKeys.get(0).length];
+        for (JoinSpec joinSpec : joinSpecs) {
+            final boolean[] specFilterNulls = joinSpec.getFilterNulls();
+            for (int i = 0; i < filterNulls.length; i++) {
+                filterNulls[i] |= specFilterNulls[i];
+            }
+        }
+
+        final StreamingMultiJoinOperatorFactory operatorFactory =
+                new StreamingMultiJoinOperatorFactory(
+                        inputTypeInfos,
+                        inputSideSpecs,
+                        generatedConditions,
+                        filterNulls,
+                        tableConfig.getMinIdleStateRetentionTime());
+
+        final KeyedMultipleInputTransformation<RowData> transform =
+                new KeyedMultipleInputTransformation<>(
+                        getOperatorName(tableConfig),
+                        operatorFactory,
+                        InternalTypeInfo.of(getOutputType()),
+                        inputTransforms.get(0).getParallelism(),
+                        keySelectors.get(0).getProducedType());
+        transform.setDescription(getOperatorDescription(tableConfig));
+        for (int i = 0; i < numInputs; i++) {
+            transform.addInput(inputTransforms.get(i), keySelectors.get(i));
+        }
+        return transform;
+    }
+}
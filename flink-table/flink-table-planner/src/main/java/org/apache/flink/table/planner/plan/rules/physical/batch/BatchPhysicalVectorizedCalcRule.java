@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.physical.batch;
+
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalCalc;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalTableSourceScan;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalVectorizedCalc;
+import org.apache.flink.table.planner.plan.utils.VectorizationUtil;
+import org.apache.flink.table.planner.utils.ShortcutUtils;
+import org.apache.flink.table.runtime.operators.vectorized.AbstractVectorizedOperator;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rex.RexProgram;
+
+/**
+ * Planner rule that replaces a {@link BatchPhysicalCalc} on top of a {@link
+ * BatchPhysicalTableSourceScan} with a {@link BatchPhysicalVectorizedCalc} if {@link
+ * ExecutionConfigOptions#TABLE_EXEC_VECTORIZED_ENABLED} is true.
+ *
+ * <p>The projection of the calc must only consist of input fields, and its condition must be
+ * supported by {@link VectorizationUtil#toVectorPredicate}.
+ */
+public class BatchPhysicalVectorizedCalcRule extends RelOptRule {
+
+    public static final BatchPhysicalVectorizedCalcRule INSTANCE =
+            new BatchPhysicalVectorizedCalcRule();
+
+    private BatchPhysicalVectorizedCalcRule() {
+        super(
+                operand(
+                        BatchPhysicalCalc.class,
+                        operand(BatchPhysicalTableSourceScan.class, none())),
+                "BatchPhysicalVectorizedCalcRule");
+    }
+
+    @Override
+    public boolean matches(RelOptRuleCall call) {
+        if (!ShortcutUtils.unwrapContext(call.getPlanner())
+                .getTableConfig()
+                .getConfiguration()
+                .get(ExecutionConfigOptions.TABLE_EXEC_VECTORIZED_ENABLED)) {
+            return false;
+        }
+        BatchPhysicalCalc calc = call.rel(0);
+        RexProgram program = calc.getProgram();
+        RowType inputType = FlinkTypeFactory.toLogicalRowType(calc.getInput().getRowType());
+        if (!AbstractVectorizedOperator.supportsColumnarInput(
+                        inputType.getChildren().toArray(new LogicalType[0]))
+                || !VectorizationUtil.toProjection(program).isPresent()) {
+            return false;
+        }
+        return program.getCondition() == null
+                || VectorizationUtil.toVectorPredicate(
+                                program.expandLocalRef(program.getCondition()), inputType)
+                        .isPresent();
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        BatchPhysicalCalc calc = call.rel(0);
+        call.transformTo(
+                new BatchPhysicalVectorizedCalc(
+                        calc.getCluster(),
+                        calc.getTraitSet(),
+                        calc.getInput(),
+                        calc.getProgram(),
+                        calc.getRowType()));
+    }
+}
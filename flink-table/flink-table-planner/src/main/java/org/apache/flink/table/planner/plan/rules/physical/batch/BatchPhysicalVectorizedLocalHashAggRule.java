@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.physical.batch;
+
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalLocalHashAggregate;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalTableSourceScan;
+import org.apache.flink.table.planner.plan.nodes.physical.batch.BatchPhysicalVectorizedLocalHashAggregate;
+import org.apache.flink.table.planner.plan.utils.VectorizationUtil;
+import org.apache.flink.table.planner.utils.JavaScalaConversionUtil;
+import org.apache.flink.table.planner.utils.ShortcutUtils;
+import org.apache.flink.table.runtime.operators.vectorized.AbstractVectorizedOperator;
+import org.apache.flink.table.runtime.operators.vectorized.VectorizedHashAggOperator;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+
+/**
+ * Planner rule that replaces a {@link BatchPhysicalLocalHashAggregate} on top of a {@link
+ * BatchPhysicalTableSourceScan} with a {@link BatchPhysicalVectorizedLocalHashAggregate} if {@link
+ * ExecutionConfigOptions#TABLE_EXEC_VECTORIZED_ENABLED} is true.
+ *
+ * <p>The aggregate must not have auxiliary grouping fields, its grouping fields must be supported
+ * by {@link VectorizedHashAggOperator#isSupportedKeyType} and its aggregate calls by {@link
+ * VectorizationUtil#toVectorizedAggregates}.
+ */
+public class BatchPhysicalVectorizedLocalHashAggRule extends RelOptRule {
+
+    public static final BatchPhysicalVectorizedLocalHashAggRule INSTANCE =
+            new BatchPhysicalVectorizedLocalHashAggRule();
+
+    private BatchPhysicalVectorizedLocalHashAggRule() {
+        super(
+                operand(
+                        BatchPhysicalLocalHashAggregate.class,
+                        operand(BatchPhysicalTableSourceScan.class, none())),
+                "BatchPhysicalVectorizedLocalHashAggRule");
+    }
+
+    @Override
+    public boolean matches(RelOptRuleCall call) {
+        if (!ShortcutUtils.unwrapContext(call.getPlanner())
+                .getTableConfig()
+                .getConfiguration()
+                .get(ExecutionConfigOptions.TABLE_EXEC_VECTORIZED_ENABLED)) {
+            return false;
+        }
+        BatchPhysicalLocalHashAggregate aggregate = call.rel(0);
+        if (aggregate instanceof BatchPhysicalVectorizedLocalHashAggregate
+                || aggregate.auxGrouping().length > 0) {
+            return false;
+        }
+        RowType inputType = FlinkTypeFactory.toLogicalRowType(aggregate.getInput().getRowType());
+        if (!AbstractVectorizedOperator.supportsColumnarInput(
+                inputType.getChildren().toArray(new LogicalType[0]))) {
+            return false;
+        }
+        for (int field : aggregate.grouping()) {
+            if (!VectorizedHashAggOperator.isSupportedKeyType(inputType.getTypeAt(field))) {
+                return false;
+            }
+        }
+        return VectorizationUtil.toVectorizedAggregates(
+                        JavaScalaConversionUtil.toJava(aggregate.getAggCallList()),
+                        inputType,
+                        FlinkTypeFactory.toLogicalRowType(aggregate.getRowType()),
+                        aggregate.grouping().length)
+                .isPresent();
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        BatchPhysicalLocalHashAggregate aggregate = call.rel(0);
+        call.transformTo(
+                new BatchPhysicalVectorizedLocalHashAggregate(
+                        aggregate.getCluster(),
+                        aggregate.getTraitSet(),
+                        aggregate.getInput(),
+                        aggregate.getRowType(),
+                        aggregate.getInput().getRowType(),
+                        aggregate.grouping(),
+                        aggregate.getAggCallToAggFunction()));
+    }
+}
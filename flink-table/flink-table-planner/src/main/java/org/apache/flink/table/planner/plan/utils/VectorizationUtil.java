@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.utils;
+
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.runtime.operators.vectorized.VectorPredicate;
+import org.apache.flink.table.runtime.operators.vectorized.VectorPredicates;
+import org.apache.flink.table.runtime.operators.vectorized.VectorPredicates.Comparison;
+import org.apache.flink.table.runtime.operators.vectorized.VectorizedAggregate;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexProgram;
+import org.apache.calcite.sql.SqlKind;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Utility for converting calcs and aggregate calls into the vectorized operators of package {@code
+ * org.apache.flink.table.runtime.operators.vectorized}.
+ */
+public class VectorizationUtil {
+
+    /**
+     * Returns the input fields of the projection of the program, or an empty optional if it
+     * projects anything else than input fields.
+     */
+    public static Optional<int[]> toProjection(RexProgram program) {
+        List<RexNode> projects = program.expandList(program.getProjectList());
+        int[] projection = new int[projects.size()];
+        for (int i = 0; i < projection.length; i++) {
+            if (!(projects.get(i) instanceof RexInputRef)) {
+                return Optional.empty();
+            }
+            projection[i] = ((RexInputRef) projects.get(i)).getIndex();
+        }
+        return Optional.of(projection);
+    }
+
+    /**
+     * Converts a filter condition over rows of the given type into a {@link VectorPredicate}, or
+     * returns an empty optional if the condition is not supported.
+     *
+     * <p>Supported are {@code AND}, {@code OR} and {@code NOT} of comparisons between two integral
+     * or two floating point fields, comparisons of a field with a numeric or character string
+     * literal, {@code IS [NOT] NULL} checks of fields and boolean fields.
+     */
+    public static Optional<VectorPredicate> toVectorPredicate(
+            RexNode condition, RowType inputType) {
+        return Optional.ofNullable(convert(condition, inputType));
+    }
+
+    /**
+     * Converts the aggregate calls of a local aggregate into {@link VectorizedAggregate}s, or
+     * returns an empty optional if any of them is not supported.
+     *
+     * @param aggCalls the aggregate calls
+     * @param inputType the input type of the aggregate
+     * @param outputType the output type of the aggregate, whose fields after the grouping fields
+     *     are the results of the aggregate calls
+     * @param numGroupingFields the number of grouping fields
+     */
+    public static Optional<VectorizedAggregate[]> toVectorizedAggregates(
+            List<AggregateCall> aggCalls,
+            RowType inputType,
+            RowType outputType,
+            int numGroupingFields) {
+        VectorizedAggregate[] aggregates = new VectorizedAggregate[aggCalls.size()];
+        for (int i = 0; i < aggregates.length; i++) {
+            AggregateCall aggCall = aggCalls.get(i);
+            if (aggCall.isDistinct()
+                    || aggCall.isApproximate()
+                    || aggCall.hasFilter()
+                    || aggCall.getArgList().size() > 1
+                    || !aggCall.getCollation().getFieldCollations().isEmpty()) {
+                return Optional.empty();
+            }
+            if (aggCall.getArgList().isEmpty()) {
+                if (aggCall.getAggregation().getKind() != SqlKind.COUNT) {
+                    return Optional.empty();
+                }
+                aggregates[i] = VectorizedAggregate.countStar();
+                continue;
+            }
+
+            int inputIndex = aggCall.getArgList().get(0);
+            LogicalType argType = inputType.getTypeAt(inputIndex);
+            LogicalType resultType = outputType.getTypeAt(numGroupingFields + i);
+            final VectorizedAggregate.Kind kind;
+            switch (aggCall.getAggregation().getKind()) {
+                case COUNT:
+                    aggregates[i] = VectorizedAggregate.count(inputIndex, argType);
+                    continue;
+                case SUM:
+                    kind = VectorizedAggregate.Kind.SUM;
+                    break;
+                case SUM0:
+                    kind = VectorizedAggregate.Kind.SUM0;
+                    break;
+                case MIN:
+                    kind = VectorizedAggregate.Kind.MIN;
+                    break;
+                case MAX:
+                    kind = VectorizedAggregate.Kind.MAX;
+                    break;
+                default:
+                    return Optional.empty();
+            }
+            if (!(isIntegerNumeric(argType) && isIntegerNumeric(resultType))
+                    && !(isFloatingPoint(argType) && isFloatingPoint(resultType))) {
+                return Optional.empty();
+            }
+            aggregates[i] = VectorizedAggregate.of(kind, inputIndex, argType, resultType);
+        }
+        return Optional.of(aggregates);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static VectorPredicate convert(RexNode node, RowType inputType) {
+        if (node instanceof RexInputRef) {
+            int field = ((RexInputRef) node).getIndex();
+            return inputType.getTypeAt(field).getTypeRoot() == LogicalTypeRoot.BOOLEAN
+                    ? VectorPredicates.isTrue(field)
+                    : null;
+        }
+        if (!(node instanceof RexCall)) {
+            return null;
+        }
+        RexCall call = (RexCall) node;
+        List<RexNode> operands = call.getOperands();
+        switch (call.getKind()) {
+            case AND:
+            case OR:
+                VectorPredicate[] predicates = new VectorPredicate[operands.size()];
+                for (int i = 0; i < predicates.length; i++) {
+                    predicates[i] = convert(operands.get(i), inputType);
+                    if (predicates[i] == null) {
+                        return null;
+                    }
+                }
+                return call.getKind() == SqlKind.AND
+                        ? VectorPredicates.and(predicates)
+                        : VectorPredicates.or(predicates);
+            case NOT:
+                VectorPredicate predicate = convert(operands.get(0), inputType);
+                return predicate == null ? null : VectorPredicates.not(predicate);
+            case IS_NULL:
+            case IS_NOT_NULL:
+                if (!(operands.get(0) instanceof RexInputRef)) {
+                    return null;
+                }
+                int field = ((RexInputRef) operands.get(0)).getIndex();
+                return call.getKind() == SqlKind.IS_NULL
+                        ? VectorPredicates.isNull(field)
+                        : VectorPredicates.isNotNull(field);
+            case EQUALS:
+                return convertComparison(Comparison.EQUALS, operands, inputType);
+            case NOT_EQUALS:
+                return convertComparison(Comparison.NOT_EQUALS, operands, inputType);
+            case LESS_THAN:
+                return convertComparison(Comparison.LESS_THAN, operands, inputType);
+            case LESS_THAN_OR_EQUAL:
+                return convertComparison(Comparison.LESS_THAN_OR_EQUAL, operands, inputType);
+            case GREATER_THAN:
+                return convertComparison(Comparison.GREATER_THAN, operands, inputType);
+            case GREATER_THAN_OR_EQUAL:
+                return convertComparison(Comparison.GREATER_THAN_OR_EQUAL, operands, inputType);
+            default:
+                return null;
+        }
+    }
+
+    private static VectorPredicate convertComparison(
+            Comparison comparison, List<RexNode> operands, RowType inputType) {
+        RexNode left = operands.get(0);
+        RexNode right = operands.get(1);
+        if (left instanceof RexInputRef) {
+            return convertComparison((RexInputRef) left, comparison, right, inputType);
+        } else if (right instanceof RexInputRef) {
+            return convertComparison((RexInputRef) right, comparison.flip(), left, inputType);
+        }
+        return null;
+    }
+
+    private static VectorPredicate convertComparison(
+            RexInputRef field, Comparison comparison, RexNode other, RowType inputType) {
+        int index = field.getIndex();
+        LogicalType type = inputType.getTypeAt(index);
+        if (other instanceof RexInputRef) {
+            int otherIndex = ((RexInputRef) other).getIndex();
+            LogicalType otherType = inputType.getTypeAt(otherIndex);
+            if ((isIntegerNumeric(type) && isIntegerNumeric(otherType))
+                    || (isFloatingPoint(type) && isFloatingPoint(otherType))) {
+                return VectorPredicates.compare(index, type, comparison, otherIndex, otherType);
+            }
+            return null;
+        }
+        if (!(other instanceof RexLiteral) || ((RexLiteral) other).isNull()) {
+            return null;
+        }
+        RexLiteral literal = (RexLiteral) other;
+        if (isIntegerNumeric(type) && literal.getValue() instanceof BigDecimal) {
+            BigDecimal value = (BigDecimal) literal.getValue();
+            try {
+                return VectorPredicates.compare(index, type, comparison, value.longValueExact());
+            } catch (ArithmeticException e) {
+                // a fraction or out of the range of a long
+                return null;
+            }
+        } else if (isFloatingPoint(type) && literal.getValue() instanceof BigDecimal) {
+            double value = ((BigDecimal) literal.getValue()).doubleValue();
+            if (type.getTypeRoot() == LogicalTypeRoot.FLOAT) {
+                // the generated code compares a FLOAT field with the literal rounded to a float
+                value = (float) value;
+            }
+            return VectorPredicates.compare(index, type, comparison, value);
+        } else if (isCharacterString(type) && isCharacterString(literal)) {
+            String value = literal.getValueAs(String.class);
+            return VectorPredicates.compare(index, comparison, StringData.fromString(value));
+        }
+        return null;
+    }
+
+    private static boolean isIntegerNumeric(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isFloatingPoint(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isCharacterString(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case CHAR:
+            case VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isCharacterString(RexLiteral literal) {
+        switch (literal.getTypeName()) {
+            case CHAR:
+            case VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private VectorizationUtil() {}
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.physical.batch
+
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory
+import org.apache.flink.table.planner.plan.nodes.exec.batch.BatchExecVectorizedCalc
+import org.apache.flink.table.planner.plan.nodes.exec.{InputProperty, ExecNode}
+import org.apache.flink.table.planner.plan.utils.VectorizationUtil
+
+import org.apache.calcite.plan._
+import org.apache.calcite.rel._
+import org.apache.calcite.rel.`type`.RelDataType
+import org.apache.calcite.rel.core.Calc
+import org.apache.calcite.rex.RexProgram
+
+/**
+  * Batch physical RelNode for a [[Calc]] which is evaluated a batch of columnar rows at a time.
+  * It is created by the BatchPhysicalVectorizedCalcRule.
+  */
+class BatchPhysicalVectorizedCalc(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    inputRel: RelNode,
+    calcProgram: RexProgram,
+    outputRowType: RelDataType)
+  extends BatchPhysicalCalcBase(cluster, traitSet, inputRel, calcProgram, outputRowType) {
+
+  override def copy(traitSet: RelTraitSet, child: RelNode, program: RexProgram): Calc = {
+    new BatchPhysicalVectorizedCalc(cluster, traitSet, child, program, outputRowType)
+  }
+
+  override def translateToExecNode(): ExecNode[_] = {
+    val inputType = FlinkTypeFactory.toLogicalRowType(getInput.getRowType)
+    val condition = if (calcProgram.getCondition != null) {
+      VectorizationUtil.toVectorPredicate(
+        calcProgram.expandLocalRef(calcProgram.getCondition), inputType).get
+    } else {
+      null
+    }
+
+    new BatchExecVectorizedCalc(
+      condition,
+      VectorizationUtil.toProjection(calcProgram).get,
+      InputProperty.DEFAULT,
+      FlinkTypeFactory.toLogicalRowType(getRowType),
+      getRelDetailedDescription)
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.physical.batch
+
+import org.apache.flink.table.functions.UserDefinedFunction
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory
+import org.apache.flink.table.planner.plan.nodes.exec.batch.BatchExecVectorizedLocalHashAggregate
+import org.apache.flink.table.planner.plan.nodes.exec.{InputProperty, ExecNode}
+import org.apache.flink.table.planner.plan.utils.VectorizationUtil
+
+import org.apache.calcite.plan.{RelOptCluster, RelTraitSet}
+import org.apache.calcite.rel.RelNode
+import org.apache.calcite.rel.`type`.RelDataType
+import org.apache.calcite.rel.core.AggregateCall
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+ * Batch physical RelNode for a local hash aggregate which is computed a batch of columnar rows at
+ * a time. It is created by the BatchPhysicalVectorizedLocalHashAggRule.
+ */
+class BatchPhysicalVectorizedLocalHashAggregate(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    inputRel: RelNode,
+    outputRowType: RelDataType,
+    inputRowType: RelDataType,
+    grouping: Array[Int],
+    aggCallToAggFunction: Seq[(AggregateCall, UserDefinedFunction)])
+  extends BatchPhysicalLocalHashAggregate(
+    cluster,
+    traitSet,
+    inputRel,
+    outputRowType,
+    inputRowType,
+    grouping,
+    Array.empty[Int],
+    aggCallToAggFunction) {
+
+  override def copy(traitSet: RelTraitSet, inputs: util.List[RelNode]): RelNode = {
+    new BatchPhysicalVectorizedLocalHashAggregate(
+      cluster,
+      traitSet,
+      inputs.get(0),
+      outputRowType,
+      inputRowType,
+      grouping,
+      aggCallToAggFunction)
+  }
+
+  override def translateToExecNode(): ExecNode[_] = {
+    val aggregates = VectorizationUtil.toVectorizedAggregates(
+      getAggCallList,
+      FlinkTypeFactory.toLogicalRowType(inputRowType),
+      FlinkTypeFactory.toLogicalRowType(outputRowType),
+      grouping.length).get
+    val inputProperty = if (grouping.length == 0) {
+      InputProperty.builder().damBehavior(InputProperty.DamBehavior.END_INPUT).build()
+    } else {
+      InputProperty.DEFAULT
+    }
+
+    new BatchExecVectorizedLocalHashAggregate(
+      grouping,
+      aggregates,
+      inputProperty,
+      FlinkTypeFactory.toLogicalRowType(getRowType),
+      getRelDetailedDescription)
+  }
+}
@@ -464,6 +464,9 @@ object FlinkBatchRuleSets {
     PushLocalSortAggIntoScanRule.INSTANCE,
     PushLocalSortAggWithSortIntoScanRule.INSTANCE,
     PushLocalSortAggWithCalcIntoScanRule.INSTANCE,
-    PushLocalSortAggWithSortAndCalcIntoScanRule.INSTANCE
+    PushLocalSortAggWithSortAndCalcIntoScanRule.INSTANCE,
+    // vectorize the operators which are still on top of a scan
+    BatchPhysicalVectorizedLocalHashAggRule.INSTANCE,
+    BatchPhysicalVectorizedCalcRule.INSTANCE
   )
 }
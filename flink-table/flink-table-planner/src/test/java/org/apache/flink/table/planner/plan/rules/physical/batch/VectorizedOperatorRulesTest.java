@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.physical.batch;
+
+import org.apache.flink.table.api.TableConfig;
+import org.apache.flink.table.api.config.ExecutionConfigOptions;
+import org.apache.flink.table.planner.utils.BatchTableTestUtil;
+import org.apache.flink.table.planner.utils.TableTestBase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link BatchPhysicalVectorizedCalcRule} and {@link
+ * BatchPhysicalVectorizedLocalHashAggRule}.
+ */
+public class VectorizedOperatorRulesTest extends TableTestBase {
+    protected BatchTableTestUtil util = batchTestUtil(new TableConfig());
+
+    @Before
+    public void setup() {
+        util.tableEnv()
+                .getConfig()
+                .getConfiguration()
+                .setBoolean(ExecutionConfigOptions.TABLE_EXEC_VECTORIZED_ENABLED, true);
+        String ddl =
+                "CREATE TABLE inventory (\n"
+                        + "  id BIGINT,\n"
+                        + "  name STRING,\n"
+                        + "  amount BIGINT,\n"
+                        + "  price BIGINT,\n"
+                        + "  type STRING\n"
+                        + ") WITH (\n"
+                        + " 'connector' = 'values',\n"
+                        + " 'bounded' = 'true'\n"
+                        + ")";
+        util.tableEnv().executeSql(ddl);
+    }
+
+    @Test
+    public void testVectorizedCalc() {
+        util.verifyRelPlan(
+                "SELECT id, amount FROM inventory WHERE amount > 10 AND price IS NOT NULL");
+    }
+
+    @Test
+    public void testCannotVectorizeCalcWithExpression() {
+        util.verifyRelPlan("SELECT id, amount FROM inventory WHERE amount + price > 10");
+    }
+
+    @Test
+    public void testVectorizedLocalHashAgg() {
+        util.verifyRelPlan(
+                "SELECT\n"
+                        + "  sum(amount),\n"
+                        + "  name,\n"
+                        + "  type\n"
+                        + "FROM inventory\n"
+                        + "  group by name, type");
+    }
+
+    @Test
+    public void testCannotVectorizeLocalHashAggWithUnsupportedAggFunction() {
+        util.verifyRelPlan("SELECT name, avg(amount) FROM inventory GROUP BY name");
+    }
+
+    @Test
+    public void testVectorizationDisabled() {
+        util.getTableEnv()
+                .getConfig()
+                .getConfiguration()
+                .setBoolean(ExecutionConfigOptions.TABLE_EXEC_VECTORIZED_ENABLED, false);
+
+        util.verifyRelPlan(
+                "SELECT\n"
+                        + "  sum(amount),\n"
+                        + "  name,\n"
+                        + "  type\n"
+                        + "FROM inventory\n"
+                        + "  group by name, type");
+    }
+}
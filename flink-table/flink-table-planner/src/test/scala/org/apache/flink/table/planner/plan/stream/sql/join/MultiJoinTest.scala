@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.stream.sql.join
+
+import org.apache.flink.api.scala._
+import org.apache.flink.table.api._
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.planner.utils.{StreamTableTestUtil, TableTestBase}
+
+import org.junit.{Before, Test}
+
+/** Tests for the creation of multi joins from cascades of regular inner joins. */
+class MultiJoinTest extends TableTestBase {
+
+  private val util: StreamTableTestUtil = streamTestUtil()
+
+  @Before
+  def before(): Unit = {
+    util.addTableSource[(Int, Long, Long)]("A", 'a1, 'a2, 'a3)
+    util.addTableSource[(Int, Long, Long)]("B", 'b1, 'b2, 'b3)
+    util.addTableSource[(Int, Long, Long)]("C", 'c1, 'c2, 'c3)
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_MULTI_JOIN_ENABLED, true)
+  }
+
+  @Test
+  def testMultiJoinOnSameKey(): Unit = {
+    util.verifyExecPlan("SELECT a1, b1, c1 FROM A JOIN B ON a1 = b1 JOIN C ON a1 = c1")
+  }
+
+  @Test
+  def testNoMultiJoinOnDifferentKeys(): Unit = {
+    util.verifyExecPlan("SELECT a1, b1, c1 FROM A JOIN B ON a1 = b1 JOIN C ON a2 = c2")
+  }
+}
@@ -162,6 +162,56 @@ class GroupAggregateHarnessTest(mode: StateBackendMode, miniBatch: MiniBatchMode
     testHarness.close()
   }
 
+  @Test
+  def testRetractionOfUnknownKeyDoesNotDropOtherKeysOfMiniBatch(): Unit = {
+    // buffer several keys in one mini-batch
+    tEnv.getConfig.getConfiguration.setLong(TABLE_EXEC_MINIBATCH_SIZE, 5L)
+
+    val data = new mutable.MutableList[(String, String, Long)]
+    val t = env.fromCollection(data).toTable(tEnv, 'a, 'b, 'c)
+    tEnv.createTemporaryView("T", t)
+
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT a, b, SUM(c) as c
+        |  FROM T GROUP BY a, b
+        |)GROUP BY a
+      """.stripMargin
+    val t1 = tEnv.sqlQuery(sql)
+
+    val testHarness = createHarnessTester(t1.toRetractStream[Row], "GroupAggregate")
+    val assertor = new RowDataHarnessAssertor(
+      Array(
+        DataTypes.STRING().getLogicalType,
+        DataTypes.BIGINT().getLogicalType))
+
+    testHarness.open()
+
+    val expectedOutput = new ConcurrentLinkedQueue[Object]()
+
+    // retraction for a key without state, e.g. after a state clean up
+    testHarness.processElement(binaryRecord(UPDATE_BEFORE, "aaa", 1L: JLong))
+    // not output
+
+    // the other keys of the same mini-batch are still aggregated
+    testHarness.processElement(binaryRecord(INSERT, "bbb", 2L: JLong))
+    expectedOutput.add(binaryRecord(INSERT, "bbb", 2L: JLong))
+    testHarness.processElement(binaryRecord(INSERT, "ccc", 3L: JLong))
+    expectedOutput.add(binaryRecord(INSERT, "ccc", 3L: JLong))
+    testHarness.processElement(binaryRecord(INSERT, "ddd", 4L: JLong))
+    expectedOutput.add(binaryRecord(INSERT, "ddd", 4L: JLong))
+    testHarness.processElement(binaryRecord(INSERT, "eee", 5L: JLong))
+    expectedOutput.add(binaryRecord(INSERT, "eee", 5L: JLong))
+
+    val result = testHarness.getOutput
+
+    assertor.assertOutputEqualsSorted("result mismatch", expectedOutput, result)
+
+    testHarness.close()
+  }
+
   @Test
   def testAggregationWithDistinct(): Unit = {
     val (testHarness, outputTypes) = createAggregationWithDistinct
@@ -22,7 +22,9 @@ import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.core.memory.MemorySegment;
 import org.apache.flink.runtime.io.disk.ChannelReaderInputViewIterator;
+import org.apache.flink.runtime.io.disk.iomanager.AbstractChannelReaderInputView;
 import org.apache.flink.runtime.io.disk.iomanager.ChannelReaderInputView;
+import org.apache.flink.runtime.io.disk.iomanager.HeaderlessChannelReaderInputView;
 import org.apache.flink.runtime.io.disk.iomanager.IOManager;
 import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.operators.util.BitSet;
@@ -40,6 +42,7 @@ import org.apache.flink.table.runtime.typeutils.BinaryRowDataSerializer;
 import org.apache.flink.table.runtime.util.FileChannelUtil;
 import org.apache.flink.table.runtime.util.RowIterator;
 import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.MutableObjectIterator;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -104,6 +107,15 @@ public class BinaryHashTable extends BaseHybridHashTable {
     /** The partitions that have been spilled previously and are pending to be processed. */
     private final ArrayList<BinaryHashPartition> partitionsPending;
 
+    /**
+     * Whether spilled partitions which can not be rebuilt in memory are left to a sort merge join
+     * instead of being partitioned recursively.
+     */
+    private final boolean sortMergeFallbackEnabled;
+
+    /** The spilled partitions which are too large to be rebuilt in memory. */
+    private final ArrayList<BinaryHashPartition> partitionsPendingForSortMerge;
+
     private final JoinCondition condFunc;
 
     private final boolean reverseJoin;
@@ -154,6 +166,46 @@ public class BinaryHashTable extends BaseHybridHashTable {
             boolean reverseJoin,
             boolean[] filterNulls,
             boolean tryDistinctBuildRow) {
+        this(
+                conf,
+                owner,
+                buildSideSerializer,
+                probeSideSerializer,
+                buildSideProjection,
+                probeSideProjection,
+                memManager,
+                reservedMemorySize,
+                ioManager,
+                avgRecordLen,
+                buildRowCount,
+                useBloomFilters,
+                type,
+                condFunc,
+                reverseJoin,
+                filterNulls,
+                tryDistinctBuildRow,
+                false);
+    }
+
+    public BinaryHashTable(
+            Configuration conf,
+            Object owner,
+            AbstractRowDataSerializer buildSideSerializer,
+            AbstractRowDataSerializer probeSideSerializer,
+            Projection<RowData, BinaryRowData> buildSideProjection,
+            Projection<RowData, BinaryRowData> probeSideProjection,
+            MemoryManager memManager,
+            long reservedMemorySize,
+            IOManager ioManager,
+            int avgRecordLen,
+            long buildRowCount,
+            boolean useBloomFilters,
+            HashJoinType type,
+            JoinCondition condFunc,
+            boolean reverseJoin,
+            boolean[] filterNulls,
+            boolean tryDistinctBuildRow,
+            boolean sortMergeFallbackEnabled) {
         super(
                 conf,
                 owner,
@@ -193,6 +245,8 @@ public class BinaryHashTable extends BaseHybridHashTable {
 
         this.partitionsBeingBuilt = new ArrayList<>();
         this.partitionsPending = new ArrayList<>();
+        this.sortMergeFallbackEnabled = sortMergeFallbackEnabled;
+        this.partitionsPendingForSortMerge = new ArrayList<>();
 
         createPartitions(initPartitionFanOut, 0);
     }
@@ -280,6 +334,49 @@ public class BinaryHashTable extends BaseHybridHashTable {
         return probeMatchedPhase ? bucketIterator : buildIterator;
     }
 
+    // ========================== sort merge fallback public method ================================
+
+    /**
+     * Returns true if spilled partitions were too large to be rebuilt in memory and are left to a
+     * sort merge join, which is only known once {@link #nextMatching()} returned false.
+     */
+    public boolean hasPartitionsPendingForSortMerge() {
+        return !partitionsPendingForSortMerge.isEmpty();
+    }
+
+    /**
+     * Returns the memory of the hash table to the memory manager, so that the sort merge join of
+     * the pending partitions can use it. The spilled files of the pending partitions are kept.
+     */
+    public void releaseMemoryCacheForSortMerge() {
+        // return the write-behind buffers
+        for (int i = 0; i < this.buildSpillRetBufferNumbers; i++) {
+            try {
+                returnPage(this.buildSpillReturnBuffers.take());
+            } catch (InterruptedException iex) {
+                throw new RuntimeException("Hashtable releasing memory was interrupted");
+            }
+        }
+        this.buildSpillRetBufferNumbers = 0;
+        freeCurrent();
+    }
+
+    /**
+     * Iterates over the build side rows of the partitions left to the sort merge join. The spilled
+     * files are deleted once they are read.
+     */
+    public MutableObjectIterator<BinaryRowData> getSpilledPartitionsBuildSideIterator() {
+        return new SpilledPartitionsIterator(true);
+    }
+
+    /**
+     * Iterates over the probe side rows of the partitions left to the sort merge join. The spilled
+     * files are deleted once they are read.
+     */
+    public MutableObjectIterator<BinaryRowData> getSpilledPartitionsProbeSideIterator() {
+        return new SpilledPartitionsIterator(false);
+    }
+
     // ================================ internal method ===========================================
 
     /**
@@ -375,6 +472,22 @@ public class BinaryHashTable extends BaseHybridHashTable {
 
         // there are pending partitions
         final BinaryHashPartition p = this.partitionsPending.get(0);
+
+        if (sortMergeFallbackEnabled
+                && p.probeSideRecordCounter != 0
+                && computeBuffersNeeded(p) >= totalNumBuffers) {
+            // the build side is too large for memory, leave it to the sort merge join instead of
+            // partitioning it recursively
+            LOG.info(
+                    String.format(
+                            "Spilled partition [%d] is too large to be rebuilt in memory, "
+                                    + "it is left to sort merge join",
+                            p.getPartitionNumber()));
+            this.partitionsPendingForSortMerge.add(p);
+            this.partitionsPending.remove(0);
+            return prepareNextPartition();
+        }
+
         LOG.info(String.format("Begin to process spilled partition [%d]", p.getPartitionNumber()));
 
         if (p.probeSideRecordCounter == 0) {
@@ -473,15 +586,8 @@ public class BinaryHashTable extends BaseHybridHashTable {
                             internalPool.freePages(), buildSpillRetBufferNumbers, totalNumBuffers));
         }
 
-        long numBuckets =
-                p.getBuildSideRecordCount() / BinaryHashBucketArea.NUM_ENTRIES_PER_BUCKET + 1;
-
-        // we need to consider the worst case where everything hashes to one bucket which needs to
-        // overflow by the same
-        // number of total buckets again. Also, one buffer needs to remain for the probing
-        int maxBucketAreaBuffers =
-                Math.max((int) (2 * (numBuckets / (this.bucketsPerSegmentMask + 1))), 1);
-        final long totalBuffersNeeded = maxBucketAreaBuffers + p.getBuildSideBlockCount() + 2;
+        final int maxBucketAreaBuffers = computeMaxBucketAreaBuffers(p);
+        final long totalBuffersNeeded = computeBuffersNeeded(p);
 
         if (totalBuffersNeeded < totalBuffersAvailable) {
             LOG.info(
@@ -561,6 +667,22 @@ public class BinaryHashTable extends BaseHybridHashTable {
         }
     }
 
+    private int computeMaxBucketAreaBuffers(BinaryHashPartition p) {
+        long numBuckets =
+                p.getBuildSideRecordCount() / BinaryHashBucketArea.NUM_ENTRIES_PER_BUCKET + 1;
+
+        // we need to consider the worst case where everything hashes to one bucket which needs to
+        // overflow by the same
+        // number of total buckets again.
+        return Math.max((int) (2 * (numBuckets / (this.bucketsPerSegmentMask + 1))), 1);
+    }
+
+    /** The number of buffers needed to rebuild a spilled partition in memory. */
+    private long computeBuffersNeeded(BinaryHashPartition p) {
+        // one buffer needs to remain for the probing
+        return computeMaxBucketAreaBuffers(p) + p.getBuildSideBlockCount() + 2;
+    }
+
     private void insertIntoTable(final BinaryRowData record, final int hashCode)
             throws IOException {
         BinaryHashPartition p = partitionsBeingBuilt.get(hashCode % partitionsBeingBuilt.size());
@@ -630,6 +752,9 @@ public class BinaryHashTable extends BaseHybridHashTable {
         for (final BinaryHashPartition p : this.partitionsPending) {
             p.clearAllMemory(this.internalPool);
         }
+        for (final BinaryHashPartition p : this.partitionsPendingForSortMerge) {
+            p.clearAllMemory(this.internalPool);
+        }
     }
 
     /**
@@ -704,4 +829,76 @@ public class BinaryHashTable extends BaseHybridHashTable {
                                 ? condFunc.apply(probeRow, candidate)
                                 : condFunc.apply(candidate, probeRow));
     }
+
+    /** Reads one side of the spilled partitions left to the sort merge join one by one. */
+    private final class SpilledPartitionsIterator implements MutableObjectIterator<BinaryRowData> {
+
+        private final boolean buildSide;
+        private int nextPartition;
+        private AbstractChannelReaderInputView currentView;
+        private MutableObjectIterator<BinaryRowData> currentIterator;
+
+        private SpilledPartitionsIterator(boolean buildSide) {
+            this.buildSide = buildSide;
+        }
+
+        @Override
+        public BinaryRowData next(BinaryRowData reuse) throws IOException {
+            while (true) {
+                if (currentIterator != null) {
+                    BinaryRowData row = currentIterator.next(reuse);
+                    if (row != null) {
+                        return row;
+                    }
+                    currentView.getChannel().closeAndDelete();
+                    currentView = null;
+                    currentIterator = null;
+                }
+                if (nextPartition >= partitionsPendingForSortMerge.size()) {
+                    return null;
+                }
+                openPartition(partitionsPendingForSortMerge.get(nextPartition++));
+            }
+        }
+
+        @Override
+        public BinaryRowData next() throws IOException {
+            return next(
+                    buildSide
+                            ? binaryBuildSideSerializer.createInstance()
+                            : binaryProbeSideSerializer.createInstance());
+        }
+
+        private void openPartition(BinaryHashPartition p) throws IOException {
+            if (buildSide) {
+                HeaderlessChannelReaderInputView view =
+                        createInputView(
+                                p.getBuildSideChannel().getChannelID(),
+                                p.getBuildSideBlockCount(),
+                                p.getLastSegmentLimit());
+                this.currentView = view;
+                this.currentIterator =
+                        new BinaryRowChannelInputViewIterator(view, binaryBuildSideSerializer);
+            } else {
+                ChannelWithMeta channelWithMeta =
+                        new ChannelWithMeta(
+                                p.probeSideBuffer.getChannel().getChannelID(),
+                                p.probeSideBuffer.getBlockCount(),
+                                p.probeNumBytesInLastSeg);
+                AbstractChannelReaderInputView view =
+                        FileChannelUtil.createInputView(
+                                ioManager,
+                                channelWithMeta,
+                                new ArrayList<>(),
+                                compressionEnable,
+                                compressionCodecFactory,
+                                compressionBlockSize,
+                                segmentSize);
+                this.currentView = view;
+                this.currentIterator =
+                        new ChannelReaderInputViewIterator<>(
+                                view, new ArrayList<>(), binaryProbeSideSerializer);
+            }
+        }
+    }
 }
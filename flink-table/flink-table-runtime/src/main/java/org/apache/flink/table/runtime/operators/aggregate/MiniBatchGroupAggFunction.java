@@ -19,10 +19,10 @@
 package org.apache.flink.table.runtime.operators.aggregate;
 
 import org.apache.flink.api.common.state.StateTtlConfig;
-import org.apache.flink.api.common.state.ValueState;
 import org.apache.flink.api.common.state.ValueStateDescriptor;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.utils.JoinedRowData;
 import org.apache.flink.table.runtime.context.ExecutionContext;
 import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
@@ -30,9 +30,12 @@ import org.apache.flink.table.runtime.generated.AggsHandleFunction;
 import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
 import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
 import org.apache.flink.table.runtime.generated.RecordEqualiser;
+import org.apache.flink.table.runtime.operators.bundle.BundleValueState;
 import org.apache.flink.table.runtime.operators.bundle.MapBundleFunction;
+import org.apache.flink.table.runtime.operators.bundle.RecordsBundleFunction;
 import org.apache.flink.table.runtime.typeutils.InternalSerializers;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.types.RowKind;
@@ -53,9 +56,12 @@ import static org.apache.flink.table.runtime.util.StateConfigUtil.createTtlConfi
  * Aggregate Function used for the groupby (without window) aggregate in miniBatch mode.
  *
  * <p>This function buffers input row in heap HashMap, and aggregates them when minibatch invoked.
+ * It can also aggregate a bundle buffered in binary form by a {@link
+ * org.apache.flink.table.runtime.operators.bundle.BinaryMapBundleOperator}.
  */
 public class MiniBatchGroupAggFunction
-        extends MapBundleFunction<RowData, List<RowData>, RowData, RowData> {
+        extends MapBundleFunction<RowData, List<RowData>, RowData, RowData>
+        implements RecordsBundleFunction {
 
     private static final long serialVersionUID = 7455939331036508477L;
 
@@ -93,7 +99,7 @@ public class MiniBatchGroupAggFunction
     private transient RecordEqualiser equaliser = null;
 
     // stores the accumulators
-    private transient ValueState<RowData> accState = null;
+    private transient BundleValueState<RowData> accState = null;
 
     /**
      * Creates a {@link MiniBatchGroupAggFunction}.
@@ -141,7 +147,7 @@ public class MiniBatchGroupAggFunction
         if (ttlConfig.isEnabled()) {
             accDesc.enableTimeToLive(ttlConfig);
         }
-        accState = ctx.getRuntimeContext().getState(accDesc);
+        accState = new BundleValueState<>(ctx.getRuntimeContext().getState(accDesc), ctx);
 
         inputRowSerializer = InternalSerializers.create(inputType);
 
@@ -162,99 +168,128 @@ public class MiniBatchGroupAggFunction
     @Override
     public void finishBundle(Map<RowData, List<RowData>> buffer, Collector<RowData> out)
             throws Exception {
+        // look up the accumulators of all keys at once
+        accState.prefetch(buffer.keySet());
         for (Map.Entry<RowData, List<RowData>> entry : buffer.entrySet()) {
-            RowData currentKey = entry.getKey();
-            List<RowData> inputRows = entry.getValue();
-
-            boolean firstRow = false;
-
-            // step 1: get the accumulator for the current key
-
-            // set current key to access state under the key
-            ctx.setCurrentKey(currentKey);
-            RowData acc = accState.value();
-            if (acc == null) {
-                // Don't create a new accumulator for a retraction message. This
-                // might happen if the retraction message is the first message for the
-                // key or after a state clean up.
-                Iterator<RowData> inputIter = inputRows.iterator();
-                while (inputIter.hasNext()) {
-                    RowData current = inputIter.next();
-                    if (isRetractMsg(current)) {
-                        inputIter.remove(); // remove all the beginning retraction messages
-                    } else {
-                        break;
-                    }
-                }
-                if (inputRows.isEmpty()) {
-                    return;
+            aggregate(entry.getKey(), entry.getValue().iterator(), out);
+        }
+    }
+
+    @Override
+    public void prepareBundle(KeyValueIterator<RowData, Iterator<RowData>> bundle)
+            throws Exception {
+        // the keys are reused by the iterator
+        List<RowData> keys = new ArrayList<>();
+        while (bundle.advanceNext()) {
+            keys.add(((BinaryRowData) bundle.getKey()).copy());
+        }
+        accState.prefetch(keys);
+    }
+
+    @Override
+    public void finishBundle(
+            KeyValueIterator<RowData, Iterator<RowData>> bundle, Collector<RowData> out)
+            throws Exception {
+        while (bundle.advanceNext()) {
+            aggregate(bundle.getKey(), bundle.getValue(), out);
+        }
+    }
+
+    /** Aggregates the buffered input rows of a key and emits the changes of the result. */
+    private void aggregate(RowData currentKey, Iterator<RowData> inputRows, Collector<RowData> out)
+            throws Exception {
+        boolean firstRow = false;
+        RowData firstInput = null;
+
+        // step 1: get the accumulator for the current key
+
+        // set current key to access state under the key
+        ctx.setCurrentKey(currentKey);
+        RowData acc = accState.value();
+        if (acc == null) {
+            // Don't create a new accumulator for a retraction message. This
+            // might happen if the retraction message is the first message for the
+            // key or after a state clean up.
+            while (inputRows.hasNext()) {
+                RowData current = inputRows.next();
+                if (!isRetractMsg(current)) {
+                    // skip all the beginning retraction messages
+                    firstInput = current;
+                    break;
                 }
-                acc = function.createAccumulators();
-                firstRow = true;
             }
+            if (firstInput == null) {
+                return;
+            }
+            acc = function.createAccumulators();
+            firstRow = true;
+        }
 
-            // step 2: accumulate
-            function.setAccumulators(acc);
+        // step 2: accumulate
+        function.setAccumulators(acc);
 
-            // get previous aggregate result
-            RowData prevAggValue = function.getValue();
+        // get previous aggregate result
+        RowData prevAggValue = function.getValue();
 
-            for (RowData input : inputRows) {
-                if (isAccumulateMsg(input)) {
-                    function.accumulate(input);
-                } else {
-                    function.retract(input);
-                }
+        if (firstInput != null) {
+            function.accumulate(firstInput);
+        }
+        while (inputRows.hasNext()) {
+            RowData input = inputRows.next();
+            if (isAccumulateMsg(input)) {
+                function.accumulate(input);
+            } else {
+                function.retract(input);
             }
+        }
+
+        // get current aggregate result
+        RowData newAggValue = function.getValue();
+
+        // get updated accumulator
+        acc = function.getAccumulators();
 
-            // get current aggregate result
-            RowData newAggValue = function.getValue();
-
-            // get updated accumulator
-            acc = function.getAccumulators();
-
-            if (!recordCounter.recordCountIsZero(acc)) {
-                // we aggregated at least one record for this key
-
-                // update acc to state
-                accState.update(acc);
-
-                // if this was not the first row and we have to emit retractions
-                if (!firstRow) {
-                    if (!equaliser.equals(prevAggValue, newAggValue)) {
-                        // new row is not same with prev row
-                        if (generateUpdateBefore) {
-                            // prepare UPDATE_BEFORE message for previous row
-                            resultRow
-                                    .replace(currentKey, prevAggValue)
-                                    .setRowKind(RowKind.UPDATE_BEFORE);
-                            out.collect(resultRow);
-                        }
-                        // prepare UPDATE_AFTER message for new row
-                        resultRow.replace(currentKey, newAggValue).setRowKind(RowKind.UPDATE_AFTER);
+        if (!recordCounter.recordCountIsZero(acc)) {
+            // we aggregated at least one record for this key
+
+            // update acc to state
+            accState.update(acc);
+
+            // if this was not the first row and we have to emit retractions
+            if (!firstRow) {
+                if (!equaliser.equals(prevAggValue, newAggValue)) {
+                    // new row is not same with prev row
+                    if (generateUpdateBefore) {
+                        // prepare UPDATE_BEFORE message for previous row
+                        resultRow
+                                .replace(currentKey, prevAggValue)
+                                .setRowKind(RowKind.UPDATE_BEFORE);
                         out.collect(resultRow);
                     }
-                    // new row is same with prev row, no need to output
-                } else {
-                    // this is the first, output new result
-                    // prepare INSERT message for new row
-                    resultRow.replace(currentKey, newAggValue).setRowKind(RowKind.INSERT);
+                    // prepare UPDATE_AFTER message for new row
+                    resultRow.replace(currentKey, newAggValue).setRowKind(RowKind.UPDATE_AFTER);
                     out.collect(resultRow);
                 }
-
+                // new row is same with prev row, no need to output
             } else {
-                // we retracted the last record for this key
-                // if this is not first row sent out a DELETE message
-                if (!firstRow) {
-                    // prepare DELETE message for previous row
-                    resultRow.replace(currentKey, prevAggValue).setRowKind(RowKind.DELETE);
-                    out.collect(resultRow);
-                }
-                // and clear all state
-                accState.clear();
-                // cleanup dataview under current key
-                function.cleanup();
+                // this is the first, output new result
+                // prepare INSERT message for new row
+                resultRow.replace(currentKey, newAggValue).setRowKind(RowKind.INSERT);
+                out.collect(resultRow);
+            }
+
+        } else {
+            // we retracted the last record for this key
+            // if this is not first row sent out a DELETE message
+            if (!firstRow) {
+                // prepare DELETE message for previous row
+                resultRow.replace(currentKey, prevAggValue).setRowKind(RowKind.DELETE);
+                out.collect(resultRow);
             }
+            // and clear all state
+            accState.clear();
+            // cleanup dataview under current key
+            function.cleanup();
         }
     }
 
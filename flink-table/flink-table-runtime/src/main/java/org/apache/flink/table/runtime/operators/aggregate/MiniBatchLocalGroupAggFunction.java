@@ -25,17 +25,27 @@ import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
 import org.apache.flink.table.runtime.generated.AggsHandleFunction;
 import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
 import org.apache.flink.table.runtime.operators.bundle.MapBundleFunction;
+import org.apache.flink.table.runtime.operators.bundle.RecordsBundleFunction;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
 import org.apache.flink.util.Collector;
 
 import javax.annotation.Nullable;
 
+import java.util.Iterator;
 import java.util.Map;
 
 import static org.apache.flink.table.data.util.RowDataUtil.isAccumulateMsg;
 
-/** Aggregate Function used for the local groupby (without window) aggregate in miniBatch mode. */
+/**
+ * Aggregate Function used for the local groupby (without window) aggregate in miniBatch mode.
+ *
+ * <p>The accumulators are either maintained per key while the bundle is built, or computed from the
+ * input rows of a bundle buffered in binary form by a {@link
+ * org.apache.flink.table.runtime.operators.bundle.BinaryMapBundleOperator}.
+ */
 public class MiniBatchLocalGroupAggFunction
-        extends MapBundleFunction<RowData, RowData, RowData, RowData> {
+        extends MapBundleFunction<RowData, RowData, RowData, RowData>
+        implements RecordsBundleFunction {
 
     private static final long serialVersionUID = 5417039295967495506L;
 
@@ -92,6 +102,26 @@ public class MiniBatchLocalGroupAggFunction
         buffer.clear();
     }
 
+    @Override
+    public void finishBundle(
+            KeyValueIterator<RowData, Iterator<RowData>> bundle, Collector<RowData> out)
+            throws Exception {
+        while (bundle.advanceNext()) {
+            function.setAccumulators(function.createAccumulators());
+            Iterator<RowData> inputs = bundle.getValue();
+            while (inputs.hasNext()) {
+                RowData input = inputs.next();
+                if (isAccumulateMsg(input)) {
+                    function.accumulate(input);
+                } else {
+                    function.retract(input);
+                }
+            }
+            resultRow.replace(bundle.getKey(), function.getAccumulators());
+            out.collect(resultRow);
+        }
+    }
+
     @Override
     public void close() throws Exception {
         if (function != null) {
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.bundle;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.runtime.context.ExecutionContextImpl;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTrigger;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTriggerCallback;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
+import org.apache.flink.table.runtime.util.StreamRecordCollector;
+import org.apache.flink.table.runtime.util.collections.binary.BytesMap.LookupInfo;
+import org.apache.flink.table.runtime.util.collections.binary.BytesMultiMap;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.Collector;
+
+import javax.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A bundle operator which buffers the input records per key in a {@link BytesMultiMap} backed by
+ * managed memory, instead of a map on the heap like {@link AbstractMapBundleOperator}.
+ *
+ * <p>Keys and records are stored in binary form, so the bundle does not create objects per record
+ * and its footprint is bounded by the managed memory of the operator. If the memory is exhausted
+ * before the {@link BundleTrigger} fires, the bundle is finished early and the record is added to a
+ * new bundle.
+ *
+ * <p>The bundle key is the current key of the keyed stream if no key selector is given.
+ */
+public class BinaryMapBundleOperator extends TableStreamOperator<RowData>
+        implements OneInputStreamOperator<RowData, RowData>, BundleTriggerCallback {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The reasons why a bundle is finished, which are counted in metrics. */
+    @VisibleForTesting
+    enum FlushReason {
+        TRIGGER("Trigger"),
+        MEMORY("Memory"),
+        WATERMARK("Watermark"),
+        CHECKPOINT("Checkpoint"),
+        END_OF_INPUT("EndOfInput");
+
+        private final String metricName;
+
+        FlushReason(String name) {
+            this.metricName = "bundleFlushesBy" + name;
+        }
+    }
+
+    private final RecordsBundleFunction function;
+
+    private final BundleTrigger<RowData> bundleTrigger;
+
+    @Nullable private final KeySelector<RowData, RowData> keySelector;
+
+    private final LogicalType[] keyTypes;
+
+    private final LogicalType[] inputTypes;
+
+    private transient BytesMultiMap bundle;
+
+    private transient RowDataSerializer keySerializer;
+
+    private transient RowDataSerializer inputSerializer;
+
+    /** Whether the keys and records of a finished bundle must be copied for the state backend. */
+    private transient boolean requiresCopy;
+
+    private transient Collector<RowData> collector;
+
+    private transient int numOfElements;
+
+    private transient int lastBundleSize;
+
+    private transient Map<FlushReason, Counter> flushCounters;
+
+    public BinaryMapBundleOperator(
+            RecordsBundleFunction function,
+            BundleTrigger<RowData> bundleTrigger,
+            @Nullable KeySelector<RowData, RowData> keySelector,
+            LogicalType[] keyTypes,
+            LogicalType[] inputTypes) {
+        this.function = checkNotNull(function, "function is null");
+        this.bundleTrigger = checkNotNull(bundleTrigger, "bundleTrigger is null");
+        this.keySelector = keySelector;
+        this.keyTypes = checkNotNull(keyTypes);
+        this.inputTypes = checkNotNull(inputTypes);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        function.open(new ExecutionContextImpl(this, getRuntimeContext()));
+
+        this.numOfElements = 0;
+        this.lastBundleSize = 0;
+        this.collector = new StreamRecordCollector<>(output);
+        this.keySerializer = new RowDataSerializer(keyTypes);
+        this.inputSerializer = new RowDataSerializer(inputTypes);
+        this.bundle =
+                new BytesMultiMap(
+                        this,
+                        getContainingTask().getEnvironment().getMemoryManager(),
+                        computeMemorySize(),
+                        keyTypes,
+                        inputTypes);
+        this.requiresCopy = keySelector == null && !getKeyedStateBackend().isSafeToReuseKVState();
+
+        bundleTrigger.registerCallback(this);
+        // reset trigger
+        bundleTrigger.reset();
+        LOG.info("BundleOperator's trigger info: " + bundleTrigger.explain());
+
+        getRuntimeContext()
+                .getMetricGroup()
+                .gauge("bundleSize", (Gauge<Integer>) () -> numOfElements);
+        getRuntimeContext()
+                .getMetricGroup()
+                .gauge(
+                        "bundleRatio",
+                        (Gauge<Double>)
+                                () -> {
+                                    long numOfKeys = bundle.getNumKeys();
+                                    if (numOfKeys == 0) {
+                                        return 0.0;
+                                    } else {
+                                        return 1.0 * numOfElements / numOfKeys;
+                                    }
+                                });
+        getRuntimeContext()
+                .getMetricGroup()
+                .gauge("lastBundleSize", (Gauge<Integer>) () -> lastBundleSize);
+        this.flushCounters = new EnumMap<>(FlushReason.class);
+        for (FlushReason reason : FlushReason.values()) {
+            flushCounters.put(
+                    reason, getRuntimeContext().getMetricGroup().counter(reason.metricName));
+        }
+    }
+
+    @Override
+    public void processElement(StreamRecord<RowData> element) throws Exception {
+        final RowData input = element.getValue();
+        final BinaryRowData key = keySerializer.toBinaryRow(getKey(input));
+        final BinaryRowData record = inputSerializer.toBinaryRow(input);
+
+        if (!tryAppend(key, record)) {
+            // the managed memory is exhausted, finish the bundle early
+            finishBundle(FlushReason.MEMORY);
+            if (keySelector == null) {
+                // finishing the bundle switched the current key of the state backend
+                setCurrentKey(key);
+            }
+            if (!tryAppend(key, record)) {
+                throw new IOException(
+                        "The record is too large for the managed memory of the bundle, "
+                                + "please increase the managed memory of the task.");
+            }
+        }
+
+        numOfElements++;
+        bundleTrigger.onElement(input);
+    }
+
+    private RowData getKey(RowData input) throws Exception {
+        return keySelector == null ? (RowData) getCurrentKey() : keySelector.getKey(input);
+    }
+
+    private boolean tryAppend(BinaryRowData key, BinaryRowData record) throws IOException {
+        LookupInfo<BinaryRowData, Iterator<RowData>> lookupInfo = bundle.lookup(key);
+        try {
+            bundle.append(lookupInfo, record);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void finishBundle() throws Exception {
+        finishBundle(FlushReason.TRIGGER);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void finishBundle(FlushReason reason) throws Exception {
+        if (bundle != null && bundle.getNumKeys() > 0) {
+            function.prepareBundle((KeyValueIterator) bundle.getEntryIterator(false));
+            function.finishBundle(
+                    (KeyValueIterator) bundle.getEntryIterator(requiresCopy), collector);
+            bundle.reset();
+            lastBundleSize = numOfElements;
+            numOfElements = 0;
+            flushCounters.get(reason).inc();
+        }
+        bundleTrigger.reset();
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        finishBundle(FlushReason.WATERMARK);
+        super.processWatermark(mark);
+    }
+
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        finishBundle(FlushReason.CHECKPOINT);
+    }
+
+    @Override
+    public void finish() throws Exception {
+        finishBundle(FlushReason.END_OF_INPUT);
+        super.finish();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            super.close();
+            function.close();
+        } finally {
+            if (bundle != null) {
+                bundle.free();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    long getNumOfFlushes(FlushReason reason) {
+        return flushCounters.get(reason).getCount();
+    }
+}
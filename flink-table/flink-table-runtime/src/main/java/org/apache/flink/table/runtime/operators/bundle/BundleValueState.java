@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.bundle;
+
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.context.ExecutionContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ValueState} for {@link MapBundleFunction}s which process a finished bundle key by key.
+ * Before the bundle is processed, {@link #prefetch(Collection)} looks up the values of all keys of
+ * the bundle at once with {@link InternalValueState#multiGet(List)}, so the state backend does not
+ * have to be accessed once per key.
+ *
+ * <p>{@link #value()} returns the prefetched value of the current key once, all other accesses go
+ * to the underlying state. If the underlying state does not support batched lookups, nothing is
+ * prefetched.
+ *
+ * @param <T> The type of the value in the state.
+ */
+public class BundleValueState<T> implements ValueState<T> {
+
+    private final ValueState<T> state;
+
+    private final ExecutionContext ctx;
+
+    /** The prefetched values of the keys of the current bundle which were not accessed yet. */
+    private final Map<RowData, T> prefetchedValues;
+
+    public BundleValueState(ValueState<T> state, ExecutionContext ctx) {
+        this.state = state;
+        this.ctx = ctx;
+        this.prefetchedValues = new HashMap<>();
+    }
+
+    /** Looks up the values of the given keys, replacing the values prefetched before. */
+    @SuppressWarnings("unchecked")
+    public void prefetch(Collection<RowData> keys) throws IOException {
+        prefetchedValues.clear();
+        if (!(state instanceof InternalValueState) || keys.isEmpty()) {
+            return;
+        }
+
+        List<RowData> keyList = new ArrayList<>(keys);
+        List<T> values = ((InternalValueState<RowData, ?, T>) state).multiGet(keyList);
+        for (int i = 0; i < keyList.size(); i++) {
+            prefetchedValues.put(keyList.get(i), values.get(i));
+        }
+    }
+
+    @Override
+    public T value() throws IOException {
+        RowData currentKey = ctx.currentKey();
+        if (prefetchedValues.containsKey(currentKey)) {
+            return prefetchedValues.remove(currentKey);
+        }
+        return state.value();
+    }
+
+    @Override
+    public void update(T value) throws IOException {
+        prefetchedValues.remove(ctx.currentKey());
+        state.update(value);
+    }
+
+    @Override
+    public void clear() {
+        prefetchedValues.remove(ctx.currentKey());
+        state.clear();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.bundle;
+
+import org.apache.flink.api.common.functions.Function;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.context.ExecutionContext;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
+import org.apache.flink.util.Collector;
+
+import java.util.Iterator;
+
+/**
+ * Basic interface for functions which process a bundle of input records buffered per key in binary
+ * form, see {@link BinaryMapBundleOperator}.
+ *
+ * <p>The keys and records returned by the iterators are reused, so they must be copied if they are
+ * retained after advancing.
+ */
+public interface RecordsBundleFunction extends Function {
+
+    void open(ExecutionContext ctx) throws Exception;
+
+    /**
+     * Called before a bundle is finished, with a separate iterator over the same bundle, e.g. to
+     * prefetch the state of all keys of the bundle.
+     */
+    default void prepareBundle(KeyValueIterator<RowData, Iterator<RowData>> bundle)
+            throws Exception {}
+
+    /**
+     * Called when a bundle is finished. Transforms the buffered records of each key, in the order
+     * they were added, to zero, one, or more output elements.
+     */
+    void finishBundle(KeyValueIterator<RowData, Iterator<RowData>> bundle, Collector<RowData> out)
+            throws Exception;
+
+    void close() throws Exception;
+}
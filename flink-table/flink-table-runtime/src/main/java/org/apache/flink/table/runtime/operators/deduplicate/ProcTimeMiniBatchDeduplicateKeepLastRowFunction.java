@@ -82,6 +82,10 @@ public class ProcTimeMiniBatchDeduplicateKeepLastRowFunction
     @Override
     public void finishBundle(Map<RowData, RowData> buffer, Collector<RowData> out)
             throws Exception {
+        if (!inputInsertOnly || generateUpdateBefore || generateInsert) {
+            // the previous rows are not read for insert-only input without INSERT and UPDATE_BEFORE
+            state.prefetch(buffer.keySet());
+        }
         for (Map.Entry<RowData, RowData> entry : buffer.entrySet()) {
             RowData currentKey = entry.getKey();
             RowData currentRow = entry.getValue();
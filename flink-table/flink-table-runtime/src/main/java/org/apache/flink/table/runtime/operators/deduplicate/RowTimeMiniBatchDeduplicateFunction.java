@@ -75,6 +75,8 @@ public class RowTimeMiniBatchDeduplicateFunction
     @Override
     public void finishBundle(Map<RowData, List<RowData>> buffer, Collector<RowData> out)
             throws Exception {
+        // look up the previous state of all keys at once
+        state.prefetch(buffer.keySet());
         for (Map.Entry<RowData, List<RowData>> entry : buffer.entrySet()) {
             RowData currentKey = entry.getKey();
             List<RowData> bufferedRows = entry.getValue();
@@ -73,6 +73,8 @@ public class RowTimeMiniBatchLatestChangeDeduplicateFunction
     @Override
     public void finishBundle(Map<RowData, RowData> buffer, Collector<RowData> out)
             throws Exception {
+        // look up the previous state of all keys at once
+        state.prefetch(buffer.keySet());
         for (Map.Entry<RowData, RowData> entry : buffer.entrySet()) {
             RowData currentKey = entry.getKey();
             RowData bufferedRow = entry.getValue();
@@ -35,14 +35,18 @@ import org.apache.flink.table.runtime.generated.JoinCondition;
 import org.apache.flink.table.runtime.hashtable.BinaryHashTable;
 import org.apache.flink.table.runtime.operators.TableStreamOperator;
 import org.apache.flink.table.runtime.typeutils.AbstractRowDataSerializer;
+import org.apache.flink.table.runtime.typeutils.BinaryRowDataSerializer;
 import org.apache.flink.table.runtime.util.RowIterator;
 import org.apache.flink.table.runtime.util.StreamRecordCollector;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.MutableObjectIterator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -54,6 +58,10 @@ import static org.apache.flink.util.Preconditions.checkState;
  * <p>The join operator implements the logic of a join operator at runtime. It uses a
  * hybrid-hash-join internally to match the records with equal key. The build side of the hash is
  * the first input of the match. It support all join type in {@link HashJoinType}.
+ *
+ * <p>If a {@link SortMergeJoinFunction} is given, the spilled partitions which are too large to be
+ * rebuilt in memory are joined with a sort merge join after the probe phase, instead of being
+ * partitioned recursively.
  */
 public abstract class HashJoinOperator extends TableStreamOperator<RowData>
         implements TwoInputStreamOperator<RowData, RowData, RowData>,
@@ -65,6 +73,8 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
     private final HashJoinParameter parameter;
     private final boolean reverseJoinFunction;
     private final HashJoinType type;
+    // the sort merge join for the spilled partitions which can not be rebuilt in memory, or null
+    private final SortMergeJoinFunction sortMergeJoinFunction;
 
     private transient BinaryHashTable table;
     transient Collector<RowData> collector;
@@ -79,6 +89,7 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
         this.parameter = parameter;
         this.type = parameter.type;
         this.reverseJoinFunction = parameter.reverseJoinFunction;
+        this.sortMergeJoinFunction = parameter.sortMergeJoinFunction;
     }
 
     @Override
@@ -124,7 +135,8 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
                         condition,
                         reverseJoinFunction,
                         parameter.filterNullKeys,
-                        parameter.tryDistinctBuildRow);
+                        parameter.tryDistinctBuildRow,
+                        sortMergeJoinFunction != null);
 
         this.collector = new StreamRecordCollector<>(output);
 
@@ -177,10 +189,65 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
                     joinWithNextKey();
                 }
                 LOG.info("Finish rebuild phase.");
+                if (this.table.hasPartitionsPendingForSortMerge()) {
+                    fallbackToSortMergeJoin();
+                }
                 break;
         }
     }
 
+    /**
+     * Joins the spilled partitions which are too large to be rebuilt in memory with a sort merge
+     * join. The memory of the hash table is released to the sort merge join first.
+     */
+    private void fallbackToSortMergeJoin() throws Exception {
+        LOG.info("Fallback to sort merge join for the spilled partitions.");
+        this.table.releaseMemoryCacheForSortMerge();
+
+        BinaryRowDataSerializer buildSerializer =
+                new BinaryRowDataSerializer(buildSideNullRow.getArity());
+        BinaryRowDataSerializer probeSerializer =
+                new BinaryRowDataSerializer(probeSideNullRow.getArity());
+        // the first input of the sort merge join is the left input of the join
+        sortMergeJoinFunction.open(
+                getContainingTask(),
+                getContainingTask().getJobConfiguration(),
+                getContainingTask().getEnvironment().getMemoryManager(),
+                getContainingTask().getEnvironment().getIOManager(),
+                computeMemorySize(),
+                reverseJoinFunction ? probeSerializer : buildSerializer,
+                reverseJoinFunction ? buildSerializer : probeSerializer,
+                getUserCodeClassloader(),
+                getRuntimeContext(),
+                collector);
+
+        MutableObjectIterator<BinaryRowData> buildIter =
+                this.table.getSpilledPartitionsBuildSideIterator();
+        BinaryRowData buildRow = buildSerializer.createInstance();
+        while ((buildRow = buildIter.next(buildRow)) != null) {
+            if (reverseJoinFunction) {
+                sortMergeJoinFunction.processElement2(buildRow);
+            } else {
+                sortMergeJoinFunction.processElement1(buildRow);
+            }
+        }
+
+        MutableObjectIterator<BinaryRowData> probeIter =
+                this.table.getSpilledPartitionsProbeSideIterator();
+        BinaryRowData probeRow = probeSerializer.createInstance();
+        while ((probeRow = probeIter.next(probeRow)) != null) {
+            if (reverseJoinFunction) {
+                sortMergeJoinFunction.processElement1(probeRow);
+            } else {
+                sortMergeJoinFunction.processElement2(probeRow);
+            }
+        }
+
+        sortMergeJoinFunction.endInput(1);
+        sortMergeJoinFunction.endInput(2);
+        LOG.info("Finish sort merge join phase.");
+    }
+
     private void joinWithNextKey() throws Exception {
         // we have a next record, get the iterators to the probe and build side values
         join(table.getBuildSideIterator(), table.getCurrentProbeRow());
@@ -219,6 +286,9 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
             this.table.free();
             this.table = null;
         }
+        if (sortMergeJoinFunction != null) {
+            sortMergeJoinFunction.close();
+        }
         condition.close();
     }
 
@@ -234,6 +304,38 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
             long buildRowCount,
             long probeRowCount,
             RowType keyType) {
+        return newHashJoinOperator(
+                type,
+                condFuncCode,
+                reverseJoinFunction,
+                filterNullKeys,
+                buildProjectionCode,
+                probeProjectionCode,
+                tryDistinctBuildRow,
+                buildRowSize,
+                buildRowCount,
+                probeRowCount,
+                keyType,
+                null);
+    }
+
+    /**
+     * Creates a hash join operator, which joins the spilled partitions that are too large to be
+     * rebuilt in memory with the given sort merge join if it is not null.
+     */
+    public static HashJoinOperator newHashJoinOperator(
+            HashJoinType type,
+            GeneratedJoinCondition condFuncCode,
+            boolean reverseJoinFunction,
+            boolean[] filterNullKeys,
+            GeneratedProjection buildProjectionCode,
+            GeneratedProjection probeProjectionCode,
+            boolean tryDistinctBuildRow,
+            int buildRowSize,
+            long buildRowCount,
+            long probeRowCount,
+            RowType keyType,
+            @Nullable SortMergeJoinFunction sortMergeJoinFunction) {
         HashJoinParameter parameter =
                 new HashJoinParameter(
                         type,
@@ -246,7 +348,8 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
                         buildRowSize,
                         buildRowCount,
                         probeRowCount,
-                        keyType);
+                        keyType,
+                        sortMergeJoinFunction);
         switch (type) {
             case INNER:
                 return new InnerHashJoinOperator(parameter);
@@ -280,6 +383,7 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
         long buildRowCount;
         long probeRowCount;
         RowType keyType;
+        @Nullable SortMergeJoinFunction sortMergeJoinFunction;
 
         HashJoinParameter(
                 HashJoinType type,
@@ -292,7 +396,8 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
                 int buildRowSize,
                 long buildRowCount,
                 long probeRowCount,
-                RowType keyType) {
+                RowType keyType,
+                @Nullable SortMergeJoinFunction sortMergeJoinFunction) {
             this.type = type;
             this.condFuncCode = condFuncCode;
             this.reverseJoinFunction = reverseJoinFunction;
@@ -304,6 +409,7 @@ public abstract class HashJoinOperator extends TableStreamOperator<RowData>
             this.buildRowCount = buildRowCount;
             this.probeRowCount = probeRowCount;
             this.keyType = keyType;
+            this.sortMergeJoinFunction = sortMergeJoinFunction;
         }
     }
 
@@ -34,6 +34,7 @@ import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.util.IterableIterator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -109,16 +110,26 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
      */
     protected static final class AssociatedRecords {
         private final List<OuterRecord> records;
+        private final boolean otherSideIsEmpty;
 
-        private AssociatedRecords(List<OuterRecord> records) {
+        private AssociatedRecords(List<OuterRecord> records, boolean otherSideIsEmpty) {
             checkNotNull(records);
             this.records = records;
+            this.otherSideIsEmpty = otherSideIsEmpty;
         }
 
         public boolean isEmpty() {
             return records.isEmpty();
         }
 
+        /**
+         * Returns true if the other side has no records under the current join key at all, i.e.
+         * regardless of the join condition.
+         */
+        public boolean isOtherSideEmpty() {
+            return otherSideIsEmpty;
+        }
+
         public int size() {
             return records.size();
         }
@@ -150,12 +161,14 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
                 JoinCondition condition)
                 throws Exception {
             List<OuterRecord> associations = new ArrayList<>();
+            boolean otherSideIsEmpty = true;
             if (otherSideStateView instanceof OuterJoinRecordStateView) {
                 OuterJoinRecordStateView outerStateView =
                         (OuterJoinRecordStateView) otherSideStateView;
                 Iterable<Tuple2<RowData, Integer>> records =
                         outerStateView.getRecordsAndNumOfAssociations();
                 for (Tuple2<RowData, Integer> record : records) {
+                    otherSideIsEmpty = false;
                     boolean matched =
                             inputIsLeft
                                     ? condition.apply(input, record.f0)
@@ -167,6 +180,7 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
             } else {
                 Iterable<RowData> records = otherSideStateView.getRecords();
                 for (RowData record : records) {
+                    otherSideIsEmpty = false;
                     boolean matched =
                             inputIsLeft
                                     ? condition.apply(input, record)
@@ -177,7 +191,15 @@ public abstract class AbstractStreamingJoinOperator extends AbstractStreamOperat
                     }
                 }
             }
-            return new AssociatedRecords(associations);
+            return new AssociatedRecords(associations, otherSideIsEmpty);
+        }
+
+        /**
+         * Creates an empty {@link AssociatedRecords}, which is used when the other side is known to
+         * have no records under the current join key.
+         */
+        public static AssociatedRecords empty() {
+            return new AssociatedRecords(Collections.emptyList(), true);
         }
     }
 
@@ -18,29 +18,54 @@
 
 package org.apache.flink.table.runtime.operators.join.stream;
 
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.VoidNamespace;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.util.RowDataUtil;
 import org.apache.flink.table.data.utils.JoinedRowData;
 import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
 import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinKeyBloomFilter;
 import org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateView;
 import org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateViews;
 import org.apache.flink.table.runtime.operators.join.stream.state.OuterJoinRecordStateView;
 import org.apache.flink.table.runtime.operators.join.stream.state.OuterJoinRecordStateViews;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.types.RowKind;
 
+import java.util.stream.Stream;
+
 /** Streaming unbounded Join operator which supports INNER/LEFT/RIGHT/FULL JOIN. */
 public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
 
     private static final long serialVersionUID = -376944622236540545L;
 
+    private static final String NUM_KEY_FILTER_PROBES_METRIC_NAME = "numKeyBloomFilterProbes";
+    private static final String NUM_KEY_FILTER_SKIPPED_PROBES_METRIC_NAME =
+            "numKeyBloomFilterSkippedProbes";
+    private static final String NUM_KEY_FILTER_FALSE_POSITIVES_METRIC_NAME =
+            "numKeyBloomFilterFalsePositives";
+    private static final String KEY_FILTER_FALSE_POSITIVE_RATE_METRIC_NAME =
+            "keyBloomFilterFalsePositiveRate";
+
     // whether left side is outer side, e.g. left is outer but right is not when LEFT OUTER JOIN
     private final boolean leftIsOuter;
     // whether right side is outer side, e.g. right is outer but left is not when RIGHT OUTER JOIN
     private final boolean rightIsOuter;
+    // size in bytes of the bloom filter of each side's join keys, 0 if the filters are disabled
+    private final int keyBloomFilterBytes;
 
     private transient JoinedRowData outRow;
     private transient RowData leftNullRow;
@@ -51,6 +76,24 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
     // right join state
     private transient JoinRecordStateView rightRecordStateView;
 
+    // whether the join key bloom filters are enabled, they are disabled if they are too small
+    private transient boolean keyFiltersEnabled;
+    // bloom filters of the join keys in left and right state, null if the filters are disabled or
+    // the filter of the side is rebuilt after a restore
+    private transient JoinKeyBloomFilter leftKeyFilter;
+    private transient JoinKeyBloomFilter rightKeyFilter;
+    // rebuilds of the key filters from left and right state, null if no rebuild is in progress
+    private transient KeyFilterRebuild leftKeyFilterRebuild;
+    private transient KeyFilterRebuild rightKeyFilterRebuild;
+    private transient boolean isRestored;
+    private transient RowDataSerializer keySerializer;
+    private transient KeyGroupRange keyGroupRange;
+    private transient MailboxExecutor mailboxExecutor;
+
+    private transient Counter numKeyFilterProbes;
+    private transient Counter numKeyFilterSkippedProbes;
+    private transient Counter numKeyFilterFalsePositives;
+
     public StreamingJoinOperator(
             InternalTypeInfo<RowData> leftType,
             InternalTypeInfo<RowData> rightType,
@@ -61,6 +104,30 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             boolean rightIsOuter,
             boolean[] filterNullKeys,
             long stateRetentionTime) {
+        this(
+                leftType,
+                rightType,
+                generatedJoinCondition,
+                leftInputSideSpec,
+                rightInputSideSpec,
+                leftIsOuter,
+                rightIsOuter,
+                filterNullKeys,
+                stateRetentionTime,
+                0);
+    }
+
+    public StreamingJoinOperator(
+            InternalTypeInfo<RowData> leftType,
+            InternalTypeInfo<RowData> rightType,
+            GeneratedJoinCondition generatedJoinCondition,
+            JoinInputSideSpec leftInputSideSpec,
+            JoinInputSideSpec rightInputSideSpec,
+            boolean leftIsOuter,
+            boolean rightIsOuter,
+            boolean[] filterNullKeys,
+            long stateRetentionTime,
+            int keyBloomFilterBytes) {
         super(
                 leftType,
                 rightType,
@@ -71,6 +138,13 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
                 stateRetentionTime);
         this.leftIsOuter = leftIsOuter;
         this.rightIsOuter = rightIsOuter;
+        this.keyBloomFilterBytes = keyBloomFilterBytes;
+    }
+
+    @Override
+    public void initializeState(StateInitializationContext context) throws Exception {
+        super.initializeState(context);
+        this.isRestored = context.isRestored();
     }
 
     @Override
@@ -86,7 +160,7 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             this.leftRecordStateView =
                     OuterJoinRecordStateViews.create(
                             getRuntimeContext(),
-                            "left-records",
+                            LEFT_RECORDS_STATE_NAME,
                             leftInputSideSpec,
                             leftType,
                             stateRetentionTime);
@@ -94,7 +168,7 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             this.leftRecordStateView =
                     JoinRecordStateViews.create(
                             getRuntimeContext(),
-                            "left-records",
+                            LEFT_RECORDS_STATE_NAME,
                             leftInputSideSpec,
                             leftType,
                             stateRetentionTime);
@@ -104,7 +178,7 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             this.rightRecordStateView =
                     OuterJoinRecordStateViews.create(
                             getRuntimeContext(),
-                            "right-records",
+                            RIGHT_RECORDS_STATE_NAME,
                             rightInputSideSpec,
                             rightType,
                             stateRetentionTime);
@@ -112,11 +186,55 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
             this.rightRecordStateView =
                     JoinRecordStateViews.create(
                             getRuntimeContext(),
-                            "right-records",
+                            RIGHT_RECORDS_STATE_NAME,
                             rightInputSideSpec,
                             rightType,
                             stateRetentionTime);
         }
+
+        // the filters hash the binary form of the join keys
+        TypeSerializer<RowData> keySerializer =
+                this.<RowData>getKeyedStateBackend().getKeySerializer();
+        if (keyBloomFilterBytes > 0 && keySerializer instanceof RowDataSerializer) {
+            this.keyFiltersEnabled = true;
+            this.keySerializer = (RowDataSerializer) keySerializer.duplicate();
+            this.keyGroupRange =
+                    KeyGroupRangeAssignment.computeKeyGroupRangeForOperatorIndex(
+                            getRuntimeContext().getMaxNumberOfParallelSubtasks(),
+                            getRuntimeContext().getNumberOfParallelSubtasks(),
+                            getRuntimeContext().getIndexOfThisSubtask());
+            this.mailboxExecutor =
+                    getContainingTask()
+                            .getMailboxExecutorFactory()
+                            .createExecutor(getOperatorConfig().getChainIndex());
+            if (isRestored) {
+                // the filters are not part of checkpoints, they are rebuilt from the restored
+                // state in the background, no state access is skipped until then
+                startKeyFilterRebuild(true);
+                startKeyFilterRebuild(false);
+            } else {
+                this.leftKeyFilter = new JoinKeyBloomFilter(keyBloomFilterBytes);
+                this.rightKeyFilter = new JoinKeyBloomFilter(keyBloomFilterBytes);
+            }
+
+            MetricGroup metricGroup = getRuntimeContext().getMetricGroup();
+            this.numKeyFilterProbes = metricGroup.counter(NUM_KEY_FILTER_PROBES_METRIC_NAME);
+            this.numKeyFilterSkippedProbes =
+                    metricGroup.counter(NUM_KEY_FILTER_SKIPPED_PROBES_METRIC_NAME);
+            this.numKeyFilterFalsePositives =
+                    metricGroup.counter(NUM_KEY_FILTER_FALSE_POSITIVES_METRIC_NAME);
+            metricGroup.gauge(
+                    KEY_FILTER_FALSE_POSITIVE_RATE_METRIC_NAME,
+                    (Gauge<Double>) this::getKeyFilterFalsePositiveRate);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        // pending rebuild mails are ignored
+        this.leftKeyFilterRebuild = null;
+        this.rightKeyFilterRebuild = null;
     }
 
     @Override
@@ -208,7 +326,10 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
         input.setRowKind(RowKind.INSERT); // erase RowKind for later state updating
 
         AssociatedRecords associatedRecords =
-                AssociatedRecords.of(input, inputIsLeft, otherSideStateView, joinCondition);
+                getAssociatedRecords(input, inputIsLeft, otherSideStateView);
+        if (isAccumulateMsg && keyFiltersEnabled) {
+            addToKeyFilter(getCurrentBinaryKey(), inputIsLeft);
+        }
         if (isAccumulateMsg) { // record is accumulate
             if (inputIsOuter) { // input side is outer
                 OuterJoinRecordStateView inputSideOuterStateView =
@@ -314,8 +435,169 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
         }
     }
 
+    @VisibleForTesting
+    boolean isKeyFilterEnabled() {
+        return keyFiltersEnabled;
+    }
+
+    @VisibleForTesting
+    boolean isKeyFilterRebuilding() {
+        return leftKeyFilterRebuild != null || rightKeyFilterRebuild != null;
+    }
+
+    @VisibleForTesting
+    Counter getNumKeyFilterSkippedProbes() {
+        return numKeyFilterSkippedProbes;
+    }
+
+    @VisibleForTesting
+    Counter getNumKeyFilterFalsePositives() {
+        return numKeyFilterFalsePositives;
+    }
+
     // -------------------------------------------------------------------------------------
 
+    /**
+     * Gets the associated records of the input from the other side's state, skipping the state
+     * access if the other side's key filter proves that the join key has no records.
+     */
+    private AssociatedRecords getAssociatedRecords(
+            RowData input, boolean inputIsLeft, JoinRecordStateView otherSideStateView)
+            throws Exception {
+        JoinKeyBloomFilter otherSideKeyFilter = inputIsLeft ? rightKeyFilter : leftKeyFilter;
+        if (otherSideKeyFilter == null) {
+            return AssociatedRecords.of(input, inputIsLeft, otherSideStateView, joinCondition);
+        }
+        numKeyFilterProbes.inc();
+        if (!otherSideKeyFilter.mightContain(getCurrentBinaryKey())) {
+            numKeyFilterSkippedProbes.inc();
+            return AssociatedRecords.empty();
+        }
+        AssociatedRecords associatedRecords =
+                AssociatedRecords.of(input, inputIsLeft, otherSideStateView, joinCondition);
+        if (associatedRecords.isOtherSideEmpty()) {
+            numKeyFilterFalsePositives.inc();
+        }
+        return associatedRecords;
+    }
+
+    /**
+     * Adds the join key to the key filter of the input side, and to the filter which is rebuilt for
+     * the side, as the key-group of the key may have been scanned already. Starts a rebuild of a
+     * saturated filter to drop the retracted and expired keys. A saturated filter keeps being used
+     * until the rebuild is finished, which only increases its false positive rate.
+     */
+    private void addToKeyFilter(BinaryRowData key, boolean inputIsLeft) {
+        JoinKeyBloomFilter keyFilter = inputIsLeft ? leftKeyFilter : rightKeyFilter;
+        KeyFilterRebuild rebuild = inputIsLeft ? leftKeyFilterRebuild : rightKeyFilterRebuild;
+        if (rebuild != null) {
+            rebuild.keyFilter.add(key);
+        }
+        if (keyFilter != null) {
+            keyFilter.add(key);
+            if (rebuild == null && keyFilter.isSaturated()) {
+                startKeyFilterRebuild(inputIsLeft);
+            }
+        }
+    }
+
+    /**
+     * Starts to rebuild the key filter of a side from its state. Scanning the state is too
+     * expensive for the processing of a record or a checkpoint, so the state is scanned one
+     * key-group per mail, with records being processed and checkpoints being taken in between.
+     */
+    private void startKeyFilterRebuild(boolean isLeft) {
+        KeyFilterRebuild rebuild =
+                new KeyFilterRebuild(
+                        isLeft,
+                        new JoinKeyBloomFilter(keyBloomFilterBytes),
+                        keyGroupRange.getStartKeyGroup());
+        if (isLeft) {
+            this.leftKeyFilterRebuild = rebuild;
+        } else {
+            this.rightKeyFilterRebuild = rebuild;
+        }
+        scheduleKeyFilterRebuild(rebuild);
+    }
+
+    private void scheduleKeyFilterRebuild(KeyFilterRebuild rebuild) {
+        mailboxExecutor.execute(
+                () -> rebuildKeyFilter(rebuild),
+                "rebuild %s join key bloom filter from key-group %s",
+                rebuild.isLeft ? "left" : "right",
+                rebuild.nextKeyGroup);
+    }
+
+    private void rebuildKeyFilter(KeyFilterRebuild rebuild) throws Exception {
+        if (rebuild != (rebuild.isLeft ? leftKeyFilterRebuild : rightKeyFilterRebuild)) {
+            // the filters have been disabled or the operator has been closed
+            return;
+        }
+        String stateName = rebuild.isLeft ? LEFT_RECORDS_STATE_NAME : RIGHT_RECORDS_STATE_NAME;
+        final Stream<RowData> keys;
+        try {
+            keys =
+                    this.<RowData>getKeyedStateBackend()
+                            .getKeys(stateName, VoidNamespace.INSTANCE, rebuild.nextKeyGroup);
+        } catch (UnsupportedOperationException e) {
+            LOG.warn(
+                    "The state backend does not support to rebuild the join key bloom filters, "
+                            + "disabling the join key bloom filters.",
+                    e);
+            disableKeyFilters();
+            return;
+        }
+        try (Stream<RowData> closeableKeys = keys) {
+            closeableKeys.forEach(key -> rebuild.keyFilter.add(keySerializer.toBinaryRow(key)));
+        }
+
+        if (rebuild.nextKeyGroup < keyGroupRange.getEndKeyGroup()) {
+            rebuild.nextKeyGroup++;
+            scheduleKeyFilterRebuild(rebuild);
+            return;
+        }
+
+        JoinKeyBloomFilter keyFilter = rebuild.keyFilter;
+        if (keyFilter.getNumOfKeys() > keyFilter.getExpectedNumOfKeys() / 2) {
+            // rebuilding would happen too often, the filter is too small for the state
+            LOG.warn(
+                    "The join key bloom filter of {} bytes is too small for the {} keys in the {} "
+                            + "state, disabling the join key bloom filters. Consider increasing "
+                            + "the filter size.",
+                    keyBloomFilterBytes,
+                    keyFilter.getNumOfKeys(),
+                    rebuild.isLeft ? "left" : "right");
+            disableKeyFilters();
+        } else if (rebuild.isLeft) {
+            this.leftKeyFilter = keyFilter;
+            this.leftKeyFilterRebuild = null;
+        } else {
+            this.rightKeyFilter = keyFilter;
+            this.rightKeyFilterRebuild = null;
+        }
+    }
+
+    private void disableKeyFilters() {
+        this.keyFiltersEnabled = false;
+        this.leftKeyFilter = null;
+        this.rightKeyFilter = null;
+        this.leftKeyFilterRebuild = null;
+        this.rightKeyFilterRebuild = null;
+    }
+
+    private BinaryRowData getCurrentBinaryKey() {
+        return keySerializer.toBinaryRow((RowData) getCurrentKey());
+    }
+
+    private double getKeyFilterFalsePositiveRate() {
+        long negatives = numKeyFilterSkippedProbes.getCount();
+        long falsePositives = numKeyFilterFalsePositives.getCount();
+        if (negatives + falsePositives == 0) {
+            return 0.0;
+        }
+        return (double) falsePositives / (negatives + falsePositives);
+    }
+
     private void output(RowData inputRow, RowData otherRow, boolean inputIsLeft) {
         if (inputIsLeft) {
             outRow.replace(inputRow, otherRow);
@@ -333,4 +615,18 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
         }
         collector.collect(outRow);
     }
+
+    /** The state of the rebuild of a key filter from the state of one side. */
+    private static final class KeyFilterRebuild {
+
+        private final boolean isLeft;
+        private final JoinKeyBloomFilter keyFilter;
+        private int nextKeyGroup;
+
+        private KeyFilterRebuild(boolean isLeft, JoinKeyBloomFilter keyFilter, int nextKeyGroup) {
+            this.isLeft = isLeft;
+            this.keyFilter = keyFilter;
+            this.nextKeyGroup = nextKeyGroup;
+        }
+    }
 }
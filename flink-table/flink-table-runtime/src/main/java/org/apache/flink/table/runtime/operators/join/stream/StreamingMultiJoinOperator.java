@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.operators.AbstractInput;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperatorV2;
+import org.apache.flink.streaming.api.operators.Input;
+import org.apache.flink.streaming.api.operators.MultipleInputStreamOperator;
+import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.NullAwareGetters;
+import org.apache.flink.table.data.util.RowDataUtil;
+import org.apache.flink.table.data.utils.JoinedRowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.generated.JoinCondition;
+import org.apache.flink.table.runtime.operators.join.NullAwareJoinHelper;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateView;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateViews;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.types.RowKind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Streaming unbounded inner Join operator which joins N inputs sharing the same join key.
+ *
+ * <p>A cascade of binary {@link StreamingJoinOperator}s materializes every intermediate join result
+ * in state and re-emits every change through each level of the cascade. This operator only keeps
+ * the records of the N base inputs in state and computes the join result on demand: when a record
+ * arrives on input {@code i}, the records of all other inputs under the current join key are
+ * fetched and combined with it.
+ *
+ * <p>The join is evaluated left-deep: the {@code k}-th join condition is applied to the joined row
+ * of the inputs {@code 0..k} and the row of input {@code k + 1}, i.e. it is exactly the condition
+ * of the {@code k}-th binary join in the equivalent cascade.
+ */
+public class StreamingMultiJoinOperator extends AbstractStreamOperatorV2<RowData>
+        implements MultipleInputStreamOperator<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String RECORDS_STATE_NAME_PREFIX = "input-records-";
+
+    private final List<InternalTypeInfo<RowData>> inputTypes;
+    private final List<JoinInputSideSpec> inputSideSpecs;
+    private final List<GeneratedJoinCondition> generatedJoinConditions;
+    private final int[] nullFilterKeys;
+    private final long stateRetentionTime;
+    private final int numInputs;
+
+    private transient JoinRecordStateView[] recordStateViews;
+    private transient JoinCondition[] joinConditions;
+    private transient List<List<RowData>> inputRecords;
+    private transient JoinedRowData[] joinedRows;
+    private transient TimestampedCollector<RowData> collector;
+
+    public StreamingMultiJoinOperator(
+            StreamOperatorParameters<RowData> parameters,
+            List<InternalTypeInfo<RowData>> inputTypes,
+            List<JoinInputSideSpec> inputSideSpecs,
+            List<GeneratedJoinCondition> generatedJoinConditions,
+            boolean[] filterNullKeys,
+            long stateRetentionTime) {
+        super(parameters, inputTypes.size());
+        checkArgument(inputTypes.size() >= 2, "A multi join requires at least two inputs.");
+        checkArgument(inputSideSpecs.size() == inputTypes.size());
+        checkArgument(generatedJoinConditions.size() == inputTypes.size() - 1);
+        this.inputTypes = inputTypes;
+        this.inputSideSpecs = inputSideSpecs;
+        this.generatedJoinConditions = generatedJoinConditions;
+        this.nullFilterKeys = NullAwareJoinHelper.getNullFilterKeys(filterNullKeys);
+        this.stateRetentionTime = stateRetentionTime;
+        this.numInputs = inputTypes.size();
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+
+        this.joinConditions = new JoinCondition[numInputs - 1];
+        for (int i = 0; i < joinConditions.length; i++) {
+            JoinCondition condition =
+                    generatedJoinConditions
+                            .get(i)
+                            .newInstance(getRuntimeContext().getUserCodeClassLoader());
+            condition.setRuntimeContext(getRuntimeContext());
+            condition.open(new Configuration());
+            joinConditions[i] = condition;
+        }
+
+        this.recordStateViews = new JoinRecordStateView[numInputs];
+        this.inputRecords = new ArrayList<>(numInputs);
+        for (int i = 0; i < numInputs; i++) {
+            recordStateViews[i] =
+                    JoinRecordStateViews.create(
+                            getRuntimeContext(),
+                            RECORDS_STATE_NAME_PREFIX + i,
+                            inputSideSpecs.get(i),
+                            inputTypes.get(i),
+                            stateRetentionTime);
+            inputRecords.add(new ArrayList<>());
+        }
+
+        this.joinedRows = new JoinedRowData[numInputs - 1];
+        for (int i = 0; i < joinedRows.length; i++) {
+            joinedRows[i] = new JoinedRowData();
+        }
+        this.collector = new TimestampedCollector<>(output);
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        if (joinConditions != null) {
+            for (JoinCondition condition : joinConditions) {
+                if (condition != null) {
+                    condition.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<Input> getInputs() {
+        List<Input> inputs = new ArrayList<>(numInputs);
+        for (int i = 0; i < numInputs; i++) {
+            inputs.add(new MultiJoinInput(this, i + 1));
+        }
+        return inputs;
+    }
+
+    /**
+     * Process an input element of the given input and output joined records. The input record is
+     * added to (or retracted from) the state of its input first, then it is joined with the records
+     * of all other inputs under the current join key.
+     *
+     * <p>As every input is an inner side, the emitted records carry the {@link RowKind} of the
+     * input record, the same as {@link StreamingJoinOperator} does for inner joins.
+     */
+    private void processElement(int inputIndex, RowData input) throws Exception {
+        if (hasFilteredNullKey()) {
+            // records with a null key never join, there is no need to store them
+            return;
+        }
+
+        boolean isAccumulateMsg = RowDataUtil.isAccumulateMsg(input);
+        RowKind inputRowKind = input.getRowKind();
+        input.setRowKind(RowKind.INSERT); // erase RowKind for later state updating
+
+        if (isAccumulateMsg) {
+            recordStateViews[inputIndex].addRecord(input);
+        } else {
+            recordStateViews[inputIndex].retractRecord(input);
+        }
+
+        // fetch the records of all inputs first and stop as soon as one of them is empty,
+        // in which case the inner join produces nothing
+        for (int i = 0; i < numInputs; i++) {
+            List<RowData> records = inputRecords.get(i);
+            records.clear();
+            if (i == inputIndex) {
+                records.add(input);
+                continue;
+            }
+            for (RowData record : recordStateViews[i].getRecords()) {
+                records.add(record);
+            }
+            if (records.isEmpty()) {
+                return;
+            }
+        }
+
+        for (RowData first : inputRecords.get(0)) {
+            join(1, first, inputRowKind);
+        }
+    }
+
+    /**
+     * Joins the already joined row of the inputs {@code 0..inputIndex-1} with every matching record
+     * of the input {@code inputIndex}, recursively.
+     */
+    private void join(int inputIndex, RowData joined, RowKind outputRowKind) throws Exception {
+        JoinCondition condition = joinConditions[inputIndex - 1];
+        JoinedRowData outRow = joinedRows[inputIndex - 1];
+        for (RowData record : inputRecords.get(inputIndex)) {
+            if (!condition.apply(joined, record)) {
+                continue;
+            }
+            outRow.replace(joined, record);
+            if (inputIndex == numInputs - 1) {
+                outRow.setRowKind(outputRowKind);
+                collector.collect(outRow);
+            } else {
+                join(inputIndex + 1, outRow, outputRowKind);
+            }
+        }
+    }
+
+    private boolean hasFilteredNullKey() {
+        if (nullFilterKeys.length == 0) {
+            return false;
+        }
+        // key is always BinaryRowData
+        NullAwareGetters joinKey = (NullAwareGetters) getCurrentKey();
+        return joinKey.anyNull(nullFilterKeys);
+    }
+
+    private class MultiJoinInput extends AbstractInput<RowData, RowData> {
+
+        private final int inputIndex;
+
+        private MultiJoinInput(AbstractStreamOperatorV2<RowData> owner, int inputId) {
+            super(owner, inputId);
+            this.inputIndex = inputId - 1;
+        }
+
+        @Override
+        public void processElement(StreamRecord<RowData> element) throws Exception {
+            StreamingMultiJoinOperator.this.processElement(inputIndex, element.getValue());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream.state;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.runtime.util.MurmurHashUtil;
+
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * An in-memory bloom filter of the join keys which have records in a {@link JoinRecordStateView}.
+ * It answers whether the state of a join key might contain records without accessing the state.
+ *
+ * <p>Keys are never removed from the filter, so retracted or expired keys only increase the false
+ * positive probability but never cause false negatives. A {@link #isSaturated() saturated} filter
+ * therefore stays correct and can be rebuilt from the state when it is convenient for the owner.
+ *
+ * <p>The positions of a key are derived from a 64-bit hash of its binary form, so that the false
+ * positive probability of large filters is not bounded by collisions of 32-bit hash codes.
+ */
+public final class JoinKeyBloomFilter {
+
+    /** About 10 bits per key gives a false positive probability of about 1%. */
+    private static final int BITS_PER_KEY = 10;
+
+    /** The optimal number of hash functions for 10 bits per key, i.e. 10 * ln(2). */
+    private static final int NUM_HASH_FUNCTIONS = 7;
+
+    /** The seed of the upper 32 bits of the hash, the lower 32 bits use the default seed. */
+    private static final int UPPER_HASH_SEED = 0x5bd1e995;
+
+    private final long[] bits;
+    private final long numBits;
+    private final int expectedNumOfKeys;
+
+    private int numOfKeys;
+
+    public JoinKeyBloomFilter(int numBytes) {
+        checkArgument(numBytes > 0, "The size of the bloom filter must be positive.");
+        checkArgument(
+                numBytes <= Integer.MAX_VALUE / Byte.SIZE,
+                "The size of the bloom filter must not exceed %s bytes.",
+                Integer.MAX_VALUE / Byte.SIZE);
+        this.expectedNumOfKeys = Math.max(1, (int) ((long) numBytes * 8 / BITS_PER_KEY));
+        this.numBits = (long) numBytes * Byte.SIZE;
+        this.bits = new long[(int) ((numBits + Long.SIZE - 1) / Long.SIZE)];
+    }
+
+    /** Adds the join key to the filter. */
+    public void add(BinaryRowData joinKey) {
+        long hash = hash(joinKey);
+        boolean isNew = false;
+        for (int i = 1; i <= NUM_HASH_FUNCTIONS; i++) {
+            long index = getBitIndex(hash, i);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                isNew = true;
+            }
+        }
+        if (isNew) {
+            numOfKeys++;
+        }
+    }
+
+    /** Returns false if the join key definitely has no records in the state. */
+    public boolean mightContain(BinaryRowData joinKey) {
+        long hash = hash(joinKey);
+        for (int i = 1; i <= NUM_HASH_FUNCTIONS; i++) {
+            long index = getBitIndex(hash, i);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the approximate number of distinct keys added since the last {@link #reset()}. */
+    public int getNumOfKeys() {
+        return numOfKeys;
+    }
+
+    /** Returns the number of keys the filter is sized for. */
+    public int getExpectedNumOfKeys() {
+        return expectedNumOfKeys;
+    }
+
+    /**
+     * Returns true if more keys have been added than the filter is sized for, i.e. the false
+     * positive probability is higher than expected.
+     */
+    public boolean isSaturated() {
+        return numOfKeys > expectedNumOfKeys;
+    }
+
+    /** Removes all keys from the filter. */
+    public void reset() {
+        Arrays.fill(bits, 0L);
+        numOfKeys = 0;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the index of the bit of the i-th hash function, combining the two 32-bit halves of
+     * the hash as described in "Less Hashing, Same Performance: Building a Better Bloom Filter".
+     */
+    private long getBitIndex(long hash, int i) {
+        long combinedHash = (int) hash + i * (hash >> 32);
+        return (combinedHash & Long.MAX_VALUE) % numBits;
+    }
+
+    private static long hash(BinaryRowData joinKey) {
+        if (joinKey.getSegments().length > 1) {
+            // the row spans multiple segments
+            joinKey = joinKey.copy();
+        }
+        MemorySegment segment = joinKey.getSegments()[0];
+        int offset = joinKey.getOffset();
+        int size = joinKey.getSizeInBytes();
+        int lower = MurmurHashUtil.hashBytesByWords(segment, offset, size);
+        int upper = MurmurHashUtil.hashBytesByWords(segment, offset, size, UPPER_HASH_SEED);
+        return ((long) upper << 32) | (lower & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+import org.apache.flink.table.runtime.util.StreamRecordCollector;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import javax.annotation.Nullable;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Base class for batch operators which process {@link ColumnarRowData} a whole {@link
+ * VectorizedColumnBatch} at a time.
+ *
+ * <p>Columnar sources emit one reused {@link ColumnarRowData} view per row of a batch, and may
+ * reuse the vectors of the batch while rows of it are still pending, e.g. when a source stops
+ * reading a batch early. The operator therefore never keeps a reference to an input batch: the
+ * fields of every columnar row are copied into a batch owned by the operator. The owned batch is
+ * processed once it is full, and before anything else is emitted, i.e. before a row which is not
+ * columnar, before a watermark, before a checkpoint barrier and at the end of the input.
+ *
+ * <p>Rows which are not columnar, e.g. because they were copied or serialized, and rows with field
+ * types which cannot be buffered are processed row by row. To benefit from columnar input, the
+ * operator must be chained to a columnar source with object reuse enabled.
+ */
+public abstract class AbstractVectorizedOperator extends TableStreamOperator<RowData>
+        implements OneInputStreamOperator<RowData, RowData>, BoundedOneInput {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LogicalType[] inputTypes;
+
+    protected transient StreamRecordCollector<RowData> collector;
+
+    /** The buffered columnar rows, or null if the input types cannot be buffered. */
+    @Nullable private transient ColumnarBatchBuffer buffer;
+
+    private transient int[] selected;
+
+    protected AbstractVectorizedOperator(LogicalType[] inputTypes) {
+        this.inputTypes = checkNotNull(inputTypes);
+    }
+
+    /**
+     * Returns whether columnar rows with fields of the given types are processed a batch at a time,
+     * instead of row by row.
+     */
+    public static boolean supportsColumnarInput(LogicalType[] inputTypes) {
+        return ColumnarBatchBuffer.isSupported(inputTypes);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        collector = new StreamRecordCollector<>(output);
+        if (ColumnarBatchBuffer.isSupported(inputTypes)) {
+            buffer = new ColumnarBatchBuffer(inputTypes, VectorizedColumnBatch.DEFAULT_SIZE);
+            selected = new int[VectorizedColumnBatch.DEFAULT_SIZE];
+        }
+    }
+
+    @Override
+    public void processElement(StreamRecord<RowData> element) throws Exception {
+        RowData row = element.getValue();
+        if (buffer != null && row instanceof ColumnarRowData) {
+            buffer.append((ColumnarRowData) row);
+            if (buffer.isFull()) {
+                flushBuffer();
+            }
+        } else {
+            flushBuffer();
+            processRow(row);
+        }
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        flushBuffer();
+        super.processWatermark(mark);
+    }
+
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        flushBuffer();
+        super.prepareSnapshotPreBarrier(checkpointId);
+    }
+
+    @Override
+    public void endInput() throws Exception {
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws Exception {
+        if (buffer != null && buffer.size() > 0) {
+            int size = buffer.size();
+            for (int i = 0; i < size; i++) {
+                selected[i] = i;
+            }
+            try {
+                processBatch(buffer.getBatch(), selected, size);
+            } finally {
+                buffer.reset();
+            }
+        }
+    }
+
+    /**
+     * Processes the selected rows of a batch.
+     *
+     * @param batch the batch, only valid during this call
+     * @param selected the ascending row ids to process, may be modified in place
+     * @param size the number of valid entries in {@code selected}
+     */
+    protected abstract void processBatch(VectorizedColumnBatch batch, int[] selected, int size)
+            throws Exception;
+
+    /** Processes a row which is not part of a columnar batch. */
+    protected abstract void processRow(RowData row) throws Exception;
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.vector.ByteColumnVector;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.DoubleColumnVector;
+import org.apache.flink.table.data.columnar.vector.FloatColumnVector;
+import org.apache.flink.table.data.columnar.vector.IntColumnVector;
+import org.apache.flink.table.data.columnar.vector.LongColumnVector;
+import org.apache.flink.table.data.columnar.vector.ShortColumnVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapByteVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapDoubleVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapFloatVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapIntVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapLongVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapShortVector;
+import org.apache.flink.table.types.logical.LogicalType;
+
+/**
+ * Utilities to read {@link ColumnVector}s in tight loops.
+ *
+ * <p>Values are read for a selection of row ids into primitive scratch arrays. Heap vectors without
+ * a dictionary are read directly from their backing arrays, all other vectors through their typed
+ * getters.
+ */
+@Internal
+public final class ColumnVectors {
+
+    /**
+     * Returns whether values of the given type are integral numbers which can be widened to a
+     * {@code long} without loss.
+     */
+    public static boolean isIntegral(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+            case INTERVAL_DAY_TIME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns whether values of the given type are floating point numbers which can be widened to a
+     * {@code double} without loss.
+     */
+    public static boolean isFloatingPoint(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Removes the rows whose value is null in the given vector from the selection.
+     *
+     * @return the number of remaining selected rows
+     */
+    public static int removeNulls(ColumnVector vector, int[] selected, int size) {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selected[i];
+            if (!vector.isNullAt(row)) {
+                selected[newSize++] = row;
+            }
+        }
+        return newSize;
+    }
+
+    /** Reads the integral values of the selected rows, ignoring nulls. */
+    public static void gatherLongs(ColumnVector vector, int[] selected, int size, long[] values) {
+        if (vector instanceof HeapLongVector && !((HeapLongVector) vector).hasDictionary()) {
+            long[] data = ((HeapLongVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof HeapIntVector && !((HeapIntVector) vector).hasDictionary()) {
+            int[] data = ((HeapIntVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof HeapShortVector
+                && !((HeapShortVector) vector).hasDictionary()) {
+            short[] data = ((HeapShortVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof HeapByteVector && !((HeapByteVector) vector).hasDictionary()) {
+            byte[] data = ((HeapByteVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof LongColumnVector) {
+            LongColumnVector longVector = (LongColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = longVector.getLong(selected[i]);
+            }
+        } else if (vector instanceof IntColumnVector) {
+            IntColumnVector intVector = (IntColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = intVector.getInt(selected[i]);
+            }
+        } else if (vector instanceof ShortColumnVector) {
+            ShortColumnVector shortVector = (ShortColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = shortVector.getShort(selected[i]);
+            }
+        } else if (vector instanceof ByteColumnVector) {
+            ByteColumnVector byteVector = (ByteColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = byteVector.getByte(selected[i]);
+            }
+        } else {
+            throw new UnsupportedOperationException(
+                    "Unsupported integral vector: " + vector.getClass().getName());
+        }
+    }
+
+    /** Reads the floating point values of the selected rows, ignoring nulls. */
+    public static void gatherDoubles(
+            ColumnVector vector, int[] selected, int size, double[] values) {
+        if (vector instanceof HeapDoubleVector && !((HeapDoubleVector) vector).hasDictionary()) {
+            double[] data = ((HeapDoubleVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof HeapFloatVector
+                && !((HeapFloatVector) vector).hasDictionary()) {
+            float[] data = ((HeapFloatVector) vector).vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = data[selected[i]];
+            }
+        } else if (vector instanceof DoubleColumnVector) {
+            DoubleColumnVector doubleVector = (DoubleColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = doubleVector.getDouble(selected[i]);
+            }
+        } else if (vector instanceof FloatColumnVector) {
+            FloatColumnVector floatVector = (FloatColumnVector) vector;
+            for (int i = 0; i < size; i++) {
+                values[i] = floatVector.getFloat(selected[i]);
+            }
+        } else {
+            throw new UnsupportedOperationException(
+                    "Unsupported floating point vector: " + vector.getClass().getName());
+        }
+    }
+
+    /** Reads a non-null integral field of a row, see {@link #isIntegral(LogicalType)}. */
+    public static long getLong(RowData row, int pos, LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case TINYINT:
+                return row.getByte(pos);
+            case SMALLINT:
+                return row.getShort(pos);
+            case INTEGER:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+                return row.getInt(pos);
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                return row.getLong(pos);
+            default:
+                throw new UnsupportedOperationException("Unsupported integral type: " + type);
+        }
+    }
+
+    /**
+     * Reads a non-null floating point field of a row, see {@link #isFloatingPoint(LogicalType)}.
+     */
+    public static double getDouble(RowData row, int pos, LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+                return row.getFloat(pos);
+            case DOUBLE:
+                return row.getDouble(pos);
+            default:
+                throw new UnsupportedOperationException("Unsupported floating point type: " + type);
+        }
+    }
+
+    /** Converts a widened integral value back to the internal data structure of the type. */
+    public static Object toInternal(long value, LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case TINYINT:
+                return (byte) value;
+            case SMALLINT:
+                return (short) value;
+            case INTEGER:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+                return (int) value;
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                return value;
+            default:
+                throw new UnsupportedOperationException("Unsupported integral type: " + type);
+        }
+    }
+
+    /** Converts a widened floating point value back to the internal data structure of the type. */
+    public static Object toInternal(double value, LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+                return (float) value;
+            case DOUBLE:
+                return value;
+            default:
+                throw new UnsupportedOperationException("Unsupported floating point type: " + type);
+        }
+    }
+
+    private ColumnVectors() {}
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.BytesColumnVector;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.columnar.vector.heap.HeapBooleanVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapByteVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapBytesVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapDoubleVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapFloatVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapIntVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapLongVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapShortVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapTimestampVector;
+import org.apache.flink.table.data.columnar.vector.writable.WritableColumnVector;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.utils.LogicalTypeChecks;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link VectorizedColumnBatch} owned by a vectorized operator, into which the rows of columnar
+ * sources are copied.
+ *
+ * <p>A columnar source may reuse the vectors of a batch as soon as it has emitted one of its rows,
+ * e.g. because it stops reading the batch early. Rows are therefore copied field by field into heap
+ * vectors, which stay valid until the buffer is reset and which {@link ColumnVectors} reads
+ * directly from their backing arrays.
+ */
+final class ColumnarBatchBuffer {
+
+    private final WritableColumnVector[] vectors;
+    private final FieldCopier[] copiers;
+    private final VectorizedColumnBatch batch;
+    private final int capacity;
+
+    private int numRows;
+
+    ColumnarBatchBuffer(LogicalType[] types, int capacity) {
+        checkArgument(isSupported(types), "Unsupported field types.");
+        this.vectors = new WritableColumnVector[types.length];
+        this.copiers = new FieldCopier[types.length];
+        for (int i = 0; i < types.length; i++) {
+            vectors[i] = createVector(types[i], capacity);
+            copiers[i] = createCopier(types[i], i, vectors[i]);
+        }
+        this.batch = new VectorizedColumnBatch(vectors);
+        this.capacity = capacity;
+    }
+
+    /** Returns whether rows with fields of the given types can be buffered. */
+    static boolean isSupported(LogicalType[] types) {
+        for (LogicalType type : types) {
+            switch (type.getTypeRoot()) {
+                case BOOLEAN:
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case DATE:
+                case TIME_WITHOUT_TIME_ZONE:
+                case INTERVAL_YEAR_MONTH:
+                case BIGINT:
+                case INTERVAL_DAY_TIME:
+                case FLOAT:
+                case DOUBLE:
+                case CHAR:
+                case VARCHAR:
+                case BINARY:
+                case VARBINARY:
+                case TIMESTAMP_WITHOUT_TIME_ZONE:
+                case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /** Copies the fields of the row, which must have the types of this buffer. */
+    void append(ColumnarRowData row) {
+        VectorizedColumnBatch from = row.getVectorizedColumnBatch();
+        int rowId = row.getRowId();
+        for (int i = 0; i < copiers.length; i++) {
+            if (from.isNullAt(rowId, i)) {
+                vectors[i].setNullAt(numRows);
+            } else {
+                copiers[i].copy(from, rowId, numRows);
+            }
+        }
+        numRows++;
+    }
+
+    int size() {
+        return numRows;
+    }
+
+    boolean isFull() {
+        return numRows == capacity;
+    }
+
+    /** Returns the buffered rows, which are valid until the next {@link #reset()}. */
+    VectorizedColumnBatch getBatch() {
+        batch.setNumRows(numRows);
+        return batch;
+    }
+
+    void reset() {
+        for (WritableColumnVector vector : vectors) {
+            vector.reset();
+        }
+        numRows = 0;
+    }
+
+    private static WritableColumnVector createVector(LogicalType type, int capacity) {
+        switch (type.getTypeRoot()) {
+            case BOOLEAN:
+                return new HeapBooleanVector(capacity);
+            case TINYINT:
+                return new HeapByteVector(capacity);
+            case SMALLINT:
+                return new HeapShortVector(capacity);
+            case INTEGER:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+                return new HeapIntVector(capacity);
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                return new HeapLongVector(capacity);
+            case FLOAT:
+                return new HeapFloatVector(capacity);
+            case DOUBLE:
+                return new HeapDoubleVector(capacity);
+            case CHAR:
+            case VARCHAR:
+            case BINARY:
+            case VARBINARY:
+                return new HeapBytesVector(capacity);
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+                return new HeapTimestampVector(capacity);
+            default:
+                throw new UnsupportedOperationException("Unsupported type: " + type);
+        }
+    }
+
+    private static FieldCopier createCopier(LogicalType type, int pos, ColumnVector vector) {
+        switch (type.getTypeRoot()) {
+            case BOOLEAN:
+                HeapBooleanVector booleans = (HeapBooleanVector) vector;
+                return (from, fromRow, toRow) ->
+                        booleans.setBoolean(toRow, from.getBoolean(fromRow, pos));
+            case TINYINT:
+                HeapByteVector bytes = (HeapByteVector) vector;
+                return (from, fromRow, toRow) -> bytes.setByte(toRow, from.getByte(fromRow, pos));
+            case SMALLINT:
+                HeapShortVector shorts = (HeapShortVector) vector;
+                return (from, fromRow, toRow) ->
+                        shorts.setShort(toRow, from.getShort(fromRow, pos));
+            case INTEGER:
+            case DATE:
+            case TIME_WITHOUT_TIME_ZONE:
+            case INTERVAL_YEAR_MONTH:
+                HeapIntVector ints = (HeapIntVector) vector;
+                return (from, fromRow, toRow) -> ints.setInt(toRow, from.getInt(fromRow, pos));
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                HeapLongVector longs = (HeapLongVector) vector;
+                return (from, fromRow, toRow) -> longs.setLong(toRow, from.getLong(fromRow, pos));
+            case FLOAT:
+                HeapFloatVector floats = (HeapFloatVector) vector;
+                return (from, fromRow, toRow) ->
+                        floats.setFloat(toRow, from.getFloat(fromRow, pos));
+            case DOUBLE:
+                HeapDoubleVector doubles = (HeapDoubleVector) vector;
+                return (from, fromRow, toRow) ->
+                        doubles.setDouble(toRow, from.getDouble(fromRow, pos));
+            case CHAR:
+            case VARCHAR:
+            case BINARY:
+            case VARBINARY:
+                HeapBytesVector binaries = (HeapBytesVector) vector;
+                return (from, fromRow, toRow) -> {
+                    BytesColumnVector.Bytes value = from.getByteArray(fromRow, pos);
+                    binaries.appendBytes(toRow, value.data, value.offset, value.len);
+                };
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+                HeapTimestampVector timestamps = (HeapTimestampVector) vector;
+                int precision = LogicalTypeChecks.getPrecision(type);
+                return (from, fromRow, toRow) ->
+                        timestamps.setTimestamp(toRow, from.getTimestamp(fromRow, pos, precision));
+            default:
+                throw new UnsupportedOperationException("Unsupported type: " + type);
+        }
+    }
+
+    /** Copies a non-null field of a row of a batch into the buffer. */
+    @FunctionalInterface
+    private interface FieldCopier {
+        void copy(VectorizedColumnBatch from, int fromRow, int toRow);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+
+import java.io.Serializable;
+
+/**
+ * A filter condition which is evaluated for a whole {@link VectorizedColumnBatch} at a time.
+ *
+ * <p>The rows to evaluate are given as a selection vector, i.e. an array of row ids in ascending
+ * order. Rows for which the condition is false or unknown are removed from the selection in place.
+ * Every predicate can also be evaluated for a single row, which is used for inputs that are not
+ * columnar.
+ *
+ * <p>Instances keep scratch buffers and must not be shared between threads.
+ */
+@Internal
+public interface VectorPredicate extends Serializable {
+
+    /**
+     * Evaluates the condition for the selected rows of the batch.
+     *
+     * @param batch the batch to evaluate
+     * @param selected row ids to evaluate, narrowed in place to the matching rows
+     * @param size number of valid entries in {@code selected}
+     * @return the number of matching rows at the beginning of {@code selected}
+     */
+    int filter(VectorizedColumnBatch batch, int[] selected, int size);
+
+    /** Evaluates the condition for a single row. Unknown results are treated as false. */
+    boolean test(RowData row);
+
+    /**
+     * Returns the negation of this predicate. Rows for which this predicate is unknown are still
+     * filtered out by the negation, which follows the three-valued logic of SQL.
+     */
+    VectorPredicate negate();
+}
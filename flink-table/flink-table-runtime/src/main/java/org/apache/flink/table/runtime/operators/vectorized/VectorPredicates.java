@@ -0,0 +1,912 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.binary.BinaryStringData;
+import org.apache.flink.table.data.columnar.vector.BooleanColumnVector;
+import org.apache.flink.table.data.columnar.vector.BytesColumnVector;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Factory for {@link VectorPredicate}s.
+ *
+ * <p>Comparisons are specialized per value kind and comparison operator, so that the inner loops
+ * only work on primitive arrays. {@code NOT} is not a predicate of its own but pushed down to the
+ * leaves with {@link VectorPredicate#negate()}. Floating point comparisons are an exception: every
+ * comparison with NaN except {@code <>} is false, so {@code NOT(x < y)} is not {@code x >= y}. A
+ * negated floating point comparison therefore keeps the rows for which the comparison does not
+ * hold, like the generated code does.
+ */
+@Internal
+public final class VectorPredicates {
+
+    /** Binary comparison operators. */
+    public enum Comparison {
+        EQUALS,
+        NOT_EQUALS,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL,
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL;
+
+        /** Returns the operator which holds if and only if this one does not. */
+        public Comparison negate() {
+            switch (this) {
+                case EQUALS:
+                    return NOT_EQUALS;
+                case NOT_EQUALS:
+                    return EQUALS;
+                case LESS_THAN:
+                    return GREATER_THAN_OR_EQUAL;
+                case LESS_THAN_OR_EQUAL:
+                    return GREATER_THAN;
+                case GREATER_THAN:
+                    return LESS_THAN_OR_EQUAL;
+                default:
+                    return LESS_THAN;
+            }
+        }
+
+        /** Returns the operator to use when the operands are swapped. */
+        public Comparison flip() {
+            switch (this) {
+                case LESS_THAN:
+                    return GREATER_THAN;
+                case LESS_THAN_OR_EQUAL:
+                    return GREATER_THAN_OR_EQUAL;
+                case GREATER_THAN:
+                    return LESS_THAN;
+                case GREATER_THAN_OR_EQUAL:
+                    return LESS_THAN_OR_EQUAL;
+                default:
+                    return this;
+            }
+        }
+
+        boolean holds(int compareResult) {
+            switch (this) {
+                case EQUALS:
+                    return compareResult == 0;
+                case NOT_EQUALS:
+                    return compareResult != 0;
+                case LESS_THAN:
+                    return compareResult < 0;
+                case LESS_THAN_OR_EQUAL:
+                    return compareResult <= 0;
+                case GREATER_THAN:
+                    return compareResult > 0;
+                default:
+                    return compareResult >= 0;
+            }
+        }
+    }
+
+    /** Compares an integral field with a literal. */
+    public static VectorPredicate compare(
+            int field, LogicalType type, Comparison comparison, long literal) {
+        checkArgument(ColumnVectors.isIntegral(type), "Unsupported integral type: %s", type);
+        return new LongLiteralComparison(field, type, checkNotNull(comparison), literal);
+    }
+
+    /** Compares a floating point field with a literal. */
+    public static VectorPredicate compare(
+            int field, LogicalType type, Comparison comparison, double literal) {
+        checkArgument(
+                ColumnVectors.isFloatingPoint(type), "Unsupported floating point type: %s", type);
+        return new DoubleLiteralComparison(field, type, checkNotNull(comparison), literal);
+    }
+
+    /** Compares a character string field with a literal, byte-wise like {@link StringData}. */
+    public static VectorPredicate compare(int field, Comparison comparison, StringData literal) {
+        return new StringLiteralComparison(
+                field, checkNotNull(comparison), checkNotNull(literal).toBytes());
+    }
+
+    /** Compares two fields which are either both integral or both floating point. */
+    public static VectorPredicate compare(
+            int left,
+            LogicalType leftType,
+            Comparison comparison,
+            int right,
+            LogicalType rightType) {
+        if (ColumnVectors.isIntegral(leftType) && ColumnVectors.isIntegral(rightType)) {
+            return new LongFieldComparison(
+                    left, leftType, checkNotNull(comparison), right, rightType);
+        } else if (ColumnVectors.isFloatingPoint(leftType)
+                && ColumnVectors.isFloatingPoint(rightType)) {
+            return new DoubleFieldComparison(
+                    left, leftType, checkNotNull(comparison), right, rightType, false);
+        }
+        throw new IllegalArgumentException(
+                String.format("Unsupported comparison of %s and %s.", leftType, rightType));
+    }
+
+    /** Returns {@code field IS NULL}. */
+    public static VectorPredicate isNull(int field) {
+        return new NullCheck(field, true);
+    }
+
+    /** Returns {@code field IS NOT NULL}. */
+    public static VectorPredicate isNotNull(int field) {
+        return new NullCheck(field, false);
+    }
+
+    /** Returns a predicate on a boolean field, which is unknown if the field is null. */
+    public static VectorPredicate isTrue(int field) {
+        return new BooleanField(field, true);
+    }
+
+    /** Returns the negation of a predicate on a boolean field. */
+    public static VectorPredicate isFalse(int field) {
+        return new BooleanField(field, false);
+    }
+
+    public static VectorPredicate not(VectorPredicate predicate) {
+        return predicate.negate();
+    }
+
+    public static VectorPredicate and(VectorPredicate... predicates) {
+        checkArgument(predicates.length > 0, "At least one predicate is required.");
+        return predicates.length == 1 ? predicates[0] : new And(predicates);
+    }
+
+    public static VectorPredicate or(VectorPredicate... predicates) {
+        checkArgument(predicates.length > 0, "At least one predicate is required.");
+        return predicates.length == 1 ? predicates[0] : new Or(predicates);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Tight loops
+    // ------------------------------------------------------------------------------------------
+
+    private static int filterLongs(
+            Comparison comparison, long[] values, long literal, int[] selected, int size) {
+        int newSize = 0;
+        switch (comparison) {
+            case EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] == literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case NOT_EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] != literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] < literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] <= literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] > literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] >= literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+        }
+        return newSize;
+    }
+
+    private static int filterLongs(
+            Comparison comparison, long[] left, long[] right, int[] selected, int size) {
+        int newSize = 0;
+        switch (comparison) {
+            case EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] == right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case NOT_EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] != right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] < right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] <= right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] > right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] >= right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+        }
+        return newSize;
+    }
+
+    private static int filterDoubles(
+            Comparison comparison, double[] values, double literal, int[] selected, int size) {
+        int newSize = 0;
+        switch (comparison) {
+            case EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] == literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case NOT_EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] != literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] < literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] <= literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] > literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (values[i] >= literal) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+        }
+        return newSize;
+    }
+
+    private static int filterDoubles(
+            Comparison comparison, double[] left, double[] right, int[] selected, int size) {
+        int newSize = 0;
+        switch (comparison) {
+            case EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] == right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case NOT_EQUALS:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] != right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] < right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] <= right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] > right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    if (left[i] >= right[i]) {
+                        selected[newSize++] = selected[i];
+                    }
+                }
+                break;
+        }
+        return newSize;
+    }
+
+    /**
+     * Removes the rows of the ascending selection {@code matched}, which is a subsequence of the
+     * ascending selection {@code selected}.
+     *
+     * @return the number of remaining selected rows
+     */
+    private static int removeMatched(int[] selected, int size, int[] matched, int numMatched) {
+        int newSize = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selected[i];
+            if (j < numMatched && matched[j] == row) {
+                j++;
+            } else {
+                selected[newSize++] = row;
+            }
+        }
+        return newSize;
+    }
+
+    private static boolean holds(Comparison comparison, double left, double right) {
+        // evaluated with primitive operators to match the vectorized path for NaN
+        switch (comparison) {
+            case EQUALS:
+                return left == right;
+            case NOT_EQUALS:
+                return left != right;
+            case LESS_THAN:
+                return left < right;
+            case LESS_THAN_OR_EQUAL:
+                return left <= right;
+            case GREATER_THAN:
+                return left > right;
+            default:
+                return left >= right;
+        }
+    }
+
+    private static int compareBytes(BytesColumnVector.Bytes bytes, byte[] literal) {
+        int len = Math.min(bytes.len, literal.length);
+        for (int i = 0; i < len; i++) {
+            int result = (bytes.data[bytes.offset + i] & 0xFF) - (literal[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return bytes.len - literal.length;
+    }
+
+    private static long[] ensureCapacity(long[] buffer, int size) {
+        return buffer == null || buffer.length < size ? new long[size] : buffer;
+    }
+
+    private static double[] ensureCapacity(double[] buffer, int size) {
+        return buffer == null || buffer.length < size ? new double[size] : buffer;
+    }
+
+    private static int[] ensureCapacity(int[] buffer, int size) {
+        return buffer == null || buffer.length < size ? new int[size] : buffer;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Predicates
+    // ------------------------------------------------------------------------------------------
+
+    private static final class LongLiteralComparison implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int field;
+        private final LogicalType type;
+        private final Comparison comparison;
+        private final long literal;
+
+        private transient long[] values;
+
+        private LongLiteralComparison(
+                int field, LogicalType type, Comparison comparison, long literal) {
+            this.field = field;
+            this.type = type;
+            this.comparison = comparison;
+            this.literal = literal;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            ColumnVector vector = batch.columns[field];
+            size = ColumnVectors.removeNulls(vector, selected, size);
+            values = ensureCapacity(values, size);
+            ColumnVectors.gatherLongs(vector, selected, size, values);
+            return filterLongs(comparison, values, literal, selected, size);
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return !row.isNullAt(field)
+                    && comparison.holds(
+                            Long.compare(ColumnVectors.getLong(row, field, type), literal));
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new LongLiteralComparison(field, type, comparison.negate(), literal);
+        }
+    }
+
+    private static final class DoubleLiteralComparison implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int field;
+        private final LogicalType type;
+        private final Comparison comparison;
+        private final double literal;
+        /** Whether the rows for which the comparison does not hold are selected. */
+        private final boolean negated;
+
+        private transient double[] values;
+        private transient int[] matched;
+
+        private DoubleLiteralComparison(
+                int field, LogicalType type, Comparison comparison, double literal) {
+            this(field, type, comparison, literal, false);
+        }
+
+        private DoubleLiteralComparison(
+                int field,
+                LogicalType type,
+                Comparison comparison,
+                double literal,
+                boolean negated) {
+            this.field = field;
+            this.type = type;
+            this.comparison = comparison;
+            this.literal = literal;
+            this.negated = negated;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            ColumnVector vector = batch.columns[field];
+            size = ColumnVectors.removeNulls(vector, selected, size);
+            values = ensureCapacity(values, size);
+            ColumnVectors.gatherDoubles(vector, selected, size, values);
+            if (!negated) {
+                return filterDoubles(comparison, values, literal, selected, size);
+            }
+            matched = ensureCapacity(matched, size);
+            System.arraycopy(selected, 0, matched, 0, size);
+            int numMatched = filterDoubles(comparison, values, literal, matched, size);
+            return removeMatched(selected, size, matched, numMatched);
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return !row.isNullAt(field)
+                    && holds(comparison, ColumnVectors.getDouble(row, field, type), literal)
+                            != negated;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new DoubleLiteralComparison(field, type, comparison, literal, !negated);
+        }
+    }
+
+    private static final class StringLiteralComparison implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int field;
+        private final Comparison comparison;
+        private final byte[] literal;
+
+        private transient BinaryStringData literalString;
+
+        private StringLiteralComparison(int field, Comparison comparison, byte[] literal) {
+            this.field = field;
+            this.comparison = comparison;
+            this.literal = literal;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            BytesColumnVector vector = (BytesColumnVector) batch.columns[field];
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int row = selected[i];
+                if (!vector.isNullAt(row)
+                        && comparison.holds(compareBytes(vector.getBytes(row), literal))) {
+                    selected[newSize++] = row;
+                }
+            }
+            return newSize;
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            if (row.isNullAt(field)) {
+                return false;
+            }
+            if (literalString == null) {
+                literalString = BinaryStringData.fromBytes(literal);
+            }
+            return comparison.holds(row.getString(field).compareTo(literalString));
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new StringLiteralComparison(field, comparison.negate(), literal);
+        }
+    }
+
+    private static final class LongFieldComparison implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int left;
+        private final LogicalType leftType;
+        private final Comparison comparison;
+        private final int right;
+        private final LogicalType rightType;
+
+        private transient long[] leftValues;
+        private transient long[] rightValues;
+
+        private LongFieldComparison(
+                int left,
+                LogicalType leftType,
+                Comparison comparison,
+                int right,
+                LogicalType rightType) {
+            this.left = left;
+            this.leftType = leftType;
+            this.comparison = comparison;
+            this.right = right;
+            this.rightType = rightType;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            ColumnVector leftVector = batch.columns[left];
+            ColumnVector rightVector = batch.columns[right];
+            size = ColumnVectors.removeNulls(leftVector, selected, size);
+            size = ColumnVectors.removeNulls(rightVector, selected, size);
+            leftValues = ensureCapacity(leftValues, size);
+            rightValues = ensureCapacity(rightValues, size);
+            ColumnVectors.gatherLongs(leftVector, selected, size, leftValues);
+            ColumnVectors.gatherLongs(rightVector, selected, size, rightValues);
+            return filterLongs(comparison, leftValues, rightValues, selected, size);
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return !row.isNullAt(left)
+                    && !row.isNullAt(right)
+                    && comparison.holds(
+                            Long.compare(
+                                    ColumnVectors.getLong(row, left, leftType),
+                                    ColumnVectors.getLong(row, right, rightType)));
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new LongFieldComparison(left, leftType, comparison.negate(), right, rightType);
+        }
+    }
+
+    private static final class DoubleFieldComparison implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int left;
+        private final LogicalType leftType;
+        private final Comparison comparison;
+        private final int right;
+        private final LogicalType rightType;
+
+        /** Whether the rows for which the comparison does not hold are selected. */
+        private final boolean negated;
+
+        private transient double[] leftValues;
+        private transient double[] rightValues;
+        private transient int[] matched;
+
+        private DoubleFieldComparison(
+                int left,
+                LogicalType leftType,
+                Comparison comparison,
+                int right,
+                LogicalType rightType,
+                boolean negated) {
+            this.left = left;
+            this.leftType = leftType;
+            this.comparison = comparison;
+            this.right = right;
+            this.rightType = rightType;
+            this.negated = negated;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            ColumnVector leftVector = batch.columns[left];
+            ColumnVector rightVector = batch.columns[right];
+            size = ColumnVectors.removeNulls(leftVector, selected, size);
+            size = ColumnVectors.removeNulls(rightVector, selected, size);
+            leftValues = ensureCapacity(leftValues, size);
+            rightValues = ensureCapacity(rightValues, size);
+            ColumnVectors.gatherDoubles(leftVector, selected, size, leftValues);
+            ColumnVectors.gatherDoubles(rightVector, selected, size, rightValues);
+            if (!negated) {
+                return filterDoubles(comparison, leftValues, rightValues, selected, size);
+            }
+            matched = ensureCapacity(matched, size);
+            System.arraycopy(selected, 0, matched, 0, size);
+            int numMatched = filterDoubles(comparison, leftValues, rightValues, matched, size);
+            return removeMatched(selected, size, matched, numMatched);
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return !row.isNullAt(left)
+                    && !row.isNullAt(right)
+                    && holds(
+                                    comparison,
+                                    ColumnVectors.getDouble(row, left, leftType),
+                                    ColumnVectors.getDouble(row, right, rightType))
+                            != negated;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new DoubleFieldComparison(
+                    left, leftType, comparison, right, rightType, !negated);
+        }
+    }
+
+    private static final class NullCheck implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int field;
+        private final boolean isNull;
+
+        private NullCheck(int field, boolean isNull) {
+            this.field = field;
+            this.isNull = isNull;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            ColumnVector vector = batch.columns[field];
+            if (!isNull) {
+                return ColumnVectors.removeNulls(vector, selected, size);
+            }
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int row = selected[i];
+                if (vector.isNullAt(row)) {
+                    selected[newSize++] = row;
+                }
+            }
+            return newSize;
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return row.isNullAt(field) == isNull;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new NullCheck(field, !isNull);
+        }
+    }
+
+    private static final class BooleanField implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int field;
+        private final boolean expected;
+
+        private BooleanField(int field, boolean expected) {
+            this.field = field;
+            this.expected = expected;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            BooleanColumnVector vector = (BooleanColumnVector) batch.columns[field];
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int row = selected[i];
+                if (!vector.isNullAt(row) && vector.getBoolean(row) == expected) {
+                    selected[newSize++] = row;
+                }
+            }
+            return newSize;
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            return !row.isNullAt(field) && row.getBoolean(field) == expected;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new BooleanField(field, !expected);
+        }
+    }
+
+    private static final class And implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final VectorPredicate[] predicates;
+
+        private And(VectorPredicate[] predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            for (int i = 0; i < predicates.length && size > 0; i++) {
+                size = predicates[i].filter(batch, selected, size);
+            }
+            return size;
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            for (VectorPredicate predicate : predicates) {
+                if (!predicate.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new Or(negateAll(predicates));
+        }
+    }
+
+    private static final class Or implements VectorPredicate {
+
+        private static final long serialVersionUID = 1L;
+
+        private final VectorPredicate[] predicates;
+
+        /** Rows not matched by any of the already evaluated predicates. */
+        private transient int[] remaining;
+
+        private transient int[] candidates;
+
+        private transient boolean[] matched;
+
+        private Or(VectorPredicate[] predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+            remaining = ensureCapacity(remaining, size);
+            candidates = ensureCapacity(candidates, size);
+            if (matched == null || matched.length < batch.getNumRows()) {
+                matched = new boolean[batch.getNumRows()];
+            }
+            System.arraycopy(selected, 0, remaining, 0, size);
+            int numRemaining = size;
+            for (int i = 0; i < predicates.length && numRemaining > 0; i++) {
+                System.arraycopy(remaining, 0, candidates, 0, numRemaining);
+                int numMatched = predicates[i].filter(batch, candidates, numRemaining);
+                if (numMatched == 0) {
+                    continue;
+                }
+                for (int j = 0; j < numMatched; j++) {
+                    matched[candidates[j]] = true;
+                }
+                int newRemaining = 0;
+                for (int j = 0; j < numRemaining; j++) {
+                    int row = remaining[j];
+                    if (!matched[row]) {
+                        remaining[newRemaining++] = row;
+                    }
+                }
+                numRemaining = newRemaining;
+            }
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int row = selected[i];
+                if (matched[row]) {
+                    matched[row] = false;
+                    selected[newSize++] = row;
+                }
+            }
+            return newSize;
+        }
+
+        @Override
+        public boolean test(RowData row) {
+            for (VectorPredicate predicate : predicates) {
+                if (predicate.test(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public VectorPredicate negate() {
+            return new And(negateAll(predicates));
+        }
+    }
+
+    private static VectorPredicate[] negateAll(VectorPredicate[] predicates) {
+        return Arrays.stream(predicates)
+                .map(VectorPredicate::negate)
+                .toArray(VectorPredicate[]::new);
+    }
+
+    private VectorPredicates() {}
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/** Describes an aggregate call computed by the {@link VectorizedHashAggOperator}. */
+@Internal
+public final class VectorizedAggregate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Supported aggregate functions. */
+    public enum Kind {
+        /** {@code COUNT(*)}. */
+        COUNT_STAR,
+        /** {@code COUNT(field)}, which skips nulls. */
+        COUNT,
+        /** {@code SUM(field)}, which is null if there is no non-null input. */
+        SUM,
+        /** {@code $SUM0(field)}, which is 0 if there is no non-null input. */
+        SUM0,
+        MIN,
+        MAX
+    }
+
+    private final Kind kind;
+    private final int inputIndex;
+    @Nullable private final LogicalType inputType;
+    private final LogicalType resultType;
+
+    private VectorizedAggregate(
+            Kind kind, int inputIndex, @Nullable LogicalType inputType, LogicalType resultType) {
+        this.kind = kind;
+        this.inputIndex = inputIndex;
+        this.inputType = inputType;
+        this.resultType = resultType;
+    }
+
+    public static VectorizedAggregate countStar() {
+        return new VectorizedAggregate(Kind.COUNT_STAR, -1, null, new BigIntType(false));
+    }
+
+    public static VectorizedAggregate count(int inputIndex, LogicalType inputType) {
+        return new VectorizedAggregate(
+                Kind.COUNT, inputIndex, checkNotNull(inputType), new BigIntType(false));
+    }
+
+    /**
+     * Creates a {@code SUM}, {@code $SUM0}, {@code MIN} or {@code MAX} aggregate. The input and
+     * result type must both be integral or both be floating point.
+     */
+    public static VectorizedAggregate of(
+            Kind kind, int inputIndex, LogicalType inputType, LogicalType resultType) {
+        checkArgument(
+                kind != Kind.COUNT_STAR && kind != Kind.COUNT,
+                "Use countStar() or count() for counting aggregates.");
+        checkArgument(
+                (ColumnVectors.isIntegral(inputType) && ColumnVectors.isIntegral(resultType))
+                        || (ColumnVectors.isFloatingPoint(inputType)
+                                && ColumnVectors.isFloatingPoint(resultType)),
+                "Unsupported types for %s: %s -> %s",
+                kind,
+                inputType,
+                resultType);
+        return new VectorizedAggregate(kind, inputIndex, inputType, resultType);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getInputIndex() {
+        return inputIndex;
+    }
+
+    @Nullable
+    public LogicalType getInputType() {
+        return inputType;
+    }
+
+    public LogicalType getResultType() {
+        return resultType;
+    }
+
+    /** Whether the state of this aggregate is kept as {@code double} instead of {@code long}. */
+    boolean isFloatingPoint() {
+        return inputType != null && ColumnVectors.isFloatingPoint(inputType);
+    }
+}
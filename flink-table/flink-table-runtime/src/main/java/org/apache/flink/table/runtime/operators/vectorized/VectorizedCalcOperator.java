@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.utils.ProjectedRowData;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import javax.annotation.Nullable;
+
+/**
+ * Vectorized batch operator for a calc which consists of a filter and a projection of input fields.
+ *
+ * <p>The condition is evaluated for a whole batch, the selected rows are then emitted as projected
+ * views of the batch buffered by the operator. The output rows are not {@link ColumnarRowData}, so
+ * downstream vectorized operators fall back to row mode instead of seeing partial batches.
+ */
+public class VectorizedCalcOperator extends AbstractVectorizedOperator {
+
+    private static final long serialVersionUID = 1L;
+
+    @Nullable private final VectorPredicate condition;
+    private final int[] projection;
+
+    private transient ColumnarRowData reuseRow;
+    private transient ProjectedRowData projectedRow;
+
+    public VectorizedCalcOperator(
+            LogicalType[] inputTypes, @Nullable VectorPredicate condition, int[] projection) {
+        super(inputTypes);
+        this.condition = condition;
+        this.projection = projection;
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        reuseRow = new ColumnarRowData();
+        projectedRow = ProjectedRowData.from(projection);
+    }
+
+    @Override
+    protected void processBatch(VectorizedColumnBatch batch, int[] selected, int size) {
+        if (condition != null) {
+            size = condition.filter(batch, selected, size);
+        }
+        reuseRow.setVectorizedColumnBatch(batch);
+        for (int i = 0; i < size; i++) {
+            reuseRow.setRowId(selected[i]);
+            collector.collect(projectedRow.replaceRow(reuseRow));
+        }
+    }
+
+    @Override
+    protected void processRow(RowData row) {
+        if (condition == null || condition.test(row)) {
+            collector.collect(projectedRow.replaceRow(row));
+        }
+    }
+}
@@ -0,0 +1,708 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.utils.JoinedRowData;
+import org.apache.flink.table.data.utils.ProjectedRowData;
+import org.apache.flink.table.data.writer.BinaryRowWriter;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
+import org.apache.flink.table.runtime.util.collections.binary.BytesHashMap;
+import org.apache.flink.table.runtime.util.collections.binary.BytesMap.LookupInfo;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.MathUtils;
+
+import javax.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Vectorized batch operator for local hash aggregations with {@code COUNT}, {@code SUM}, {@code
+ * $SUM0}, {@code MIN} and {@code MAX} over raw input rows.
+ *
+ * <p>A batch is processed in two passes: the group id of every selected row is looked up first,
+ * then each aggregate is updated in a tight loop over the gathered primitive input values. Group
+ * keys which consist of a single integral field use a primitive open addressing table, all other
+ * keys a {@link BytesHashMap} in the managed memory of the operator. An optional filter is
+ * evaluated on the batch before aggregation, which fuses scan, filter and aggregation into one
+ * operator.
+ *
+ * <p>The output rows consist of the grouping fields followed by one field per aggregate, which is
+ * also the layout of the local hash aggregate for these functions. As a local aggregation, the
+ * operator emits its partial results and starts over whenever the managed memory for the keys is
+ * exhausted or {@code maxNumGroups} is reached, which bounds the aggregate states on the heap.
+ */
+public class VectorizedHashAggOperator extends AbstractVectorizedOperator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] grouping;
+    private final LogicalType[] groupingTypes;
+    private final VectorizedAggregate[] aggregates;
+    @Nullable private final VectorPredicate filter;
+    private final int maxNumGroups;
+
+    private transient int numGroups;
+    private transient int capacity;
+
+    // state of a single integral grouping field
+    private transient LongGroupTable longGroupTable;
+    private transient long[] longKeys;
+    private transient int nullKeyGroup;
+
+    // state of all other grouping fields, the values of the map are the group ids
+    private transient BytesHashMap genericGroups;
+    private transient RowDataSerializer keySerializer;
+    private transient ProjectedRowData keyProjection;
+    private transient BinaryRowData groupIdValue;
+    private transient BinaryRowWriter groupIdWriter;
+    private transient ColumnarRowData reuseRow;
+
+    private transient long[][] longStates;
+    private transient double[][] doubleStates;
+    private transient boolean[][] hasValues;
+
+    // scratch buffers for a batch
+    private transient int[] groupIds;
+    private transient int[] rows;
+    private transient int[] rowGroupIds;
+    private transient long[] longValues;
+    private transient double[] doubleValues;
+
+    // output
+    private transient GenericRowData outputKey;
+    private transient GenericRowData outputValues;
+    private transient JoinedRowData outputRow;
+
+    /**
+     * @param inputTypes types of the input fields
+     * @param grouping indices of the grouping fields in the input
+     * @param aggregates the aggregates to compute
+     * @param filter optional condition rows must satisfy to be aggregated
+     * @param maxNumGroups number of groups after which the partial results are emitted
+     */
+    public VectorizedHashAggOperator(
+            LogicalType[] inputTypes,
+            int[] grouping,
+            VectorizedAggregate[] aggregates,
+            @Nullable VectorPredicate filter,
+            int maxNumGroups) {
+        super(inputTypes);
+        checkArgument(maxNumGroups > 0);
+        this.groupingTypes = new LogicalType[grouping.length];
+        for (int i = 0; i < grouping.length; i++) {
+            groupingTypes[i] = inputTypes[grouping[i]];
+            checkArgument(
+                    isSupportedKeyType(groupingTypes[i]),
+                    "Unsupported grouping type: %s",
+                    groupingTypes[i]);
+        }
+        this.grouping = grouping;
+        this.aggregates = aggregates;
+        this.filter = filter;
+        this.maxNumGroups = maxNumGroups;
+    }
+
+    /** Returns whether the operator keeps its keys in managed memory. */
+    public static boolean requiresManagedMemory(int[] grouping, LogicalType[] inputTypes) {
+        return grouping.length > 1
+                || (grouping.length == 1 && !ColumnVectors.isIntegral(inputTypes[grouping[0]]));
+    }
+
+    /** Returns whether fields of the type can be used as grouping fields. */
+    public static boolean isSupportedKeyType(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case BINARY:
+            case VARBINARY:
+            case ARRAY:
+            case MULTISET:
+            case MAP:
+            case ROW:
+            case STRUCTURED_TYPE:
+            case DISTINCT_TYPE:
+            case RAW:
+                // internal data structures without value based equality
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        capacity = 64;
+        longStates = new long[aggregates.length][];
+        doubleStates = new double[aggregates.length][];
+        hasValues = new boolean[aggregates.length][];
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i].isFloatingPoint()) {
+                doubleStates[i] = new double[capacity];
+            } else {
+                longStates[i] = new long[capacity];
+            }
+            hasValues[i] = new boolean[capacity];
+        }
+
+        if (isLongKey()) {
+            longGroupTable = new LongGroupTable();
+            longKeys = new long[capacity];
+        } else if (grouping.length > 0) {
+            genericGroups =
+                    new BytesHashMap(
+                            this,
+                            getContainingTask().getEnvironment().getMemoryManager(),
+                            computeMemorySize(),
+                            groupingTypes,
+                            new LogicalType[] {new IntType()});
+            keySerializer = new RowDataSerializer(groupingTypes);
+            keyProjection = ProjectedRowData.from(grouping);
+            groupIdValue = new BinaryRowData(1);
+            groupIdWriter = new BinaryRowWriter(groupIdValue);
+            reuseRow = new ColumnarRowData();
+        }
+        nullKeyGroup = -1;
+        outputKey = new GenericRowData(1);
+        outputValues = new GenericRowData(aggregates.length);
+        outputRow = new JoinedRowData();
+
+        groupIds = new int[0];
+        rows = new int[0];
+        rowGroupIds = new int[0];
+        longValues = new long[0];
+        doubleValues = new double[0];
+    }
+
+    private boolean isLongKey() {
+        return grouping.length == 1 && ColumnVectors.isIntegral(groupingTypes[0]);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Batch mode
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    protected void processBatch(VectorizedColumnBatch batch, int[] selected, int size)
+            throws IOException {
+        if (filter != null) {
+            size = filter.filter(batch, selected, size);
+        }
+        ensureScratchCapacity(size);
+        while (size > 0) {
+            int numFound = lookupGroups(batch, selected, size);
+            for (int i = 0; i < aggregates.length; i++) {
+                aggregateBatch(i, batch, selected, numFound);
+            }
+            if (numFound < size) {
+                // there is no room for the group of the next row
+                if (numFound == 0 && numGroups == 0) {
+                    throw new IOException(
+                            "The grouping key is too large for the managed memory of the "
+                                    + "aggregation, please increase the managed memory of the task.");
+                }
+                emitAndReset();
+                System.arraycopy(selected, numFound, selected, 0, size - numFound);
+            }
+            size -= numFound;
+        }
+    }
+
+    private void ensureScratchCapacity(int size) {
+        if (groupIds.length < size) {
+            groupIds = new int[size];
+            rows = new int[size];
+            rowGroupIds = new int[size];
+            longValues = new long[size];
+            doubleValues = new double[size];
+        }
+    }
+
+    /**
+     * Looks up the groups of the selected rows until a group cannot be added.
+     *
+     * @return the number of rows at the beginning of the selection whose group was found
+     */
+    private int lookupGroups(VectorizedColumnBatch batch, int[] selected, int size)
+            throws IOException {
+        if (grouping.length == 0) {
+            Arrays.fill(groupIds, 0, size, singleGroup());
+            return size;
+        } else if (isLongKey()) {
+            ColumnVector vector = batch.columns[grouping[0]];
+            ColumnVectors.gatherLongs(vector, selected, size, longValues);
+            for (int i = 0; i < size; i++) {
+                int group =
+                        vector.isNullAt(selected[i]) ? nullKeyGroup() : longGroup(longValues[i]);
+                if (group < 0) {
+                    return i;
+                }
+                groupIds[i] = group;
+            }
+            return size;
+        } else {
+            reuseRow.setVectorizedColumnBatch(batch);
+            for (int i = 0; i < size; i++) {
+                reuseRow.setRowId(selected[i]);
+                int group = genericGroup(reuseRow);
+                if (group < 0) {
+                    return i;
+                }
+                groupIds[i] = group;
+            }
+            return size;
+        }
+    }
+
+    private void aggregateBatch(
+            int aggIndex, VectorizedColumnBatch batch, int[] selected, int size) {
+        VectorizedAggregate aggregate = aggregates[aggIndex];
+        if (aggregate.getKind() == VectorizedAggregate.Kind.COUNT_STAR) {
+            long[] counts = longStates[aggIndex];
+            for (int i = 0; i < size; i++) {
+                counts[groupIds[i]]++;
+            }
+            return;
+        }
+
+        ColumnVector vector = batch.columns[aggregate.getInputIndex()];
+        int numValues = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selected[i];
+            if (!vector.isNullAt(row)) {
+                rows[numValues] = row;
+                rowGroupIds[numValues] = groupIds[i];
+                numValues++;
+            }
+        }
+
+        boolean[] hasValue = hasValues[aggIndex];
+        if (aggregate.getKind() == VectorizedAggregate.Kind.COUNT) {
+            long[] counts = longStates[aggIndex];
+            for (int i = 0; i < numValues; i++) {
+                counts[rowGroupIds[i]]++;
+            }
+        } else if (aggregate.isFloatingPoint()) {
+            ColumnVectors.gatherDoubles(vector, rows, numValues, doubleValues);
+            aggregateDoubles(
+                    aggregate.getKind(),
+                    doubleStates[aggIndex],
+                    hasValue,
+                    rowGroupIds,
+                    doubleValues,
+                    numValues);
+        } else {
+            ColumnVectors.gatherLongs(vector, rows, numValues, longValues);
+            aggregateLongs(
+                    aggregate.getKind(),
+                    longStates[aggIndex],
+                    hasValue,
+                    rowGroupIds,
+                    longValues,
+                    numValues);
+        }
+    }
+
+    private static void aggregateLongs(
+            VectorizedAggregate.Kind kind,
+            long[] states,
+            boolean[] hasValue,
+            int[] groups,
+            long[] values,
+            int size) {
+        switch (kind) {
+            case SUM:
+            case SUM0:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    states[group] += values[i];
+                    hasValue[group] = true;
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    long value = values[i];
+                    if (!hasValue[group] || value < states[group]) {
+                        states[group] = value;
+                        hasValue[group] = true;
+                    }
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    long value = values[i];
+                    if (!hasValue[group] || value > states[group]) {
+                        states[group] = value;
+                        hasValue[group] = true;
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected aggregate: " + kind);
+        }
+    }
+
+    private static void aggregateDoubles(
+            VectorizedAggregate.Kind kind,
+            double[] states,
+            boolean[] hasValue,
+            int[] groups,
+            double[] values,
+            int size) {
+        switch (kind) {
+            case SUM:
+            case SUM0:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    states[group] += values[i];
+                    hasValue[group] = true;
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    double value = values[i];
+                    if (!hasValue[group] || value < states[group]) {
+                        states[group] = value;
+                        hasValue[group] = true;
+                    }
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < size; i++) {
+                    int group = groups[i];
+                    double value = values[i];
+                    if (!hasValue[group] || value > states[group]) {
+                        states[group] = value;
+                        hasValue[group] = true;
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected aggregate: " + kind);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Row mode
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    protected void processRow(RowData row) throws IOException {
+        if (filter != null && !filter.test(row)) {
+            return;
+        }
+        int group = lookupGroup(row);
+        if (group < 0) {
+            emitAndReset();
+            group = lookupGroup(row);
+            if (group < 0) {
+                throw new IOException(
+                        "The grouping key is too large for the managed memory of the "
+                                + "aggregation, please increase the managed memory of the task.");
+            }
+        }
+        for (int i = 0; i < aggregates.length; i++) {
+            aggregateRow(i, group, row);
+        }
+    }
+
+    private int lookupGroup(RowData row) throws IOException {
+        if (grouping.length == 0) {
+            return singleGroup();
+        } else if (isLongKey()) {
+            return row.isNullAt(grouping[0])
+                    ? nullKeyGroup()
+                    : longGroup(ColumnVectors.getLong(row, grouping[0], groupingTypes[0]));
+        } else {
+            return genericGroup(row);
+        }
+    }
+
+    private void aggregateRow(int aggIndex, int group, RowData row) {
+        VectorizedAggregate aggregate = aggregates[aggIndex];
+        if (aggregate.getKind() == VectorizedAggregate.Kind.COUNT_STAR) {
+            longStates[aggIndex][group]++;
+            return;
+        }
+        int field = aggregate.getInputIndex();
+        if (row.isNullAt(field)) {
+            return;
+        }
+        if (aggregate.getKind() == VectorizedAggregate.Kind.COUNT) {
+            longStates[aggIndex][group]++;
+            return;
+        }
+        ensureScratchCapacity(1);
+        rowGroupIds[0] = group;
+        if (aggregate.isFloatingPoint()) {
+            doubleValues[0] = ColumnVectors.getDouble(row, field, aggregate.getInputType());
+            aggregateDoubles(
+                    aggregate.getKind(),
+                    doubleStates[aggIndex],
+                    hasValues[aggIndex],
+                    rowGroupIds,
+                    doubleValues,
+                    1);
+        } else {
+            longValues[0] = ColumnVectors.getLong(row, field, aggregate.getInputType());
+            aggregateLongs(
+                    aggregate.getKind(),
+                    longStates[aggIndex],
+                    hasValues[aggIndex],
+                    rowGroupIds,
+                    longValues,
+                    1);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Groups
+    // ------------------------------------------------------------------------------------------
+
+    // The lookups return -1 if a new group is needed but cannot be added.
+
+    private int singleGroup() {
+        return numGroups == 0 ? addGroup() : 0;
+    }
+
+    private int nullKeyGroup() {
+        if (nullKeyGroup < 0) {
+            if (numGroups == maxNumGroups) {
+                return -1;
+            }
+            nullKeyGroup = addGroup();
+        }
+        return nullKeyGroup;
+    }
+
+    private int longGroup(long key) {
+        int group = longGroupTable.get(key);
+        if (group < 0) {
+            if (numGroups == maxNumGroups) {
+                return -1;
+            }
+            group = addGroup();
+            longGroupTable.put(key, group);
+            longKeys[group] = key;
+        }
+        return group;
+    }
+
+    private int genericGroup(RowData row) throws IOException {
+        BinaryRowData key = keySerializer.toBinaryRow(keyProjection.replaceRow(row));
+        LookupInfo<BinaryRowData, BinaryRowData> lookupInfo = genericGroups.lookup(key);
+        if (lookupInfo.isFound()) {
+            return lookupInfo.getValue().getInt(0);
+        }
+        if (numGroups == maxNumGroups) {
+            return -1;
+        }
+        groupIdWriter.reset();
+        groupIdWriter.writeInt(0, numGroups);
+        groupIdWriter.complete();
+        try {
+            genericGroups.append(lookupInfo, groupIdValue);
+        } catch (EOFException e) {
+            // the managed memory is exhausted
+            return -1;
+        }
+        return addGroup();
+    }
+
+    private int addGroup() {
+        if (numGroups == capacity) {
+            capacity *= 2;
+            for (int i = 0; i < aggregates.length; i++) {
+                if (longStates[i] != null) {
+                    longStates[i] = Arrays.copyOf(longStates[i], capacity);
+                }
+                if (doubleStates[i] != null) {
+                    doubleStates[i] = Arrays.copyOf(doubleStates[i], capacity);
+                }
+                hasValues[i] = Arrays.copyOf(hasValues[i], capacity);
+            }
+            if (longKeys != null) {
+                longKeys = Arrays.copyOf(longKeys, capacity);
+            }
+        }
+        int group = numGroups++;
+        for (int i = 0; i < aggregates.length; i++) {
+            if (longStates[i] != null) {
+                longStates[i][group] = 0L;
+            }
+            if (doubleStates[i] != null) {
+                doubleStates[i][group] = 0.0;
+            }
+            hasValues[i][group] = false;
+        }
+        return group;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Output
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    public void endInput() throws Exception {
+        super.endInput();
+        emitAndReset();
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        if (genericGroups != null) {
+            genericGroups.free();
+        }
+    }
+
+    private void emitAndReset() throws IOException {
+        if (grouping.length == 0) {
+            if (numGroups > 0) {
+                emit(new GenericRowData(0), 0);
+            }
+        } else if (isLongKey()) {
+            for (int group = 0; group < numGroups; group++) {
+                outputKey.setField(
+                        0,
+                        group == nullKeyGroup
+                                ? null
+                                : ColumnVectors.toInternal(longKeys[group], groupingTypes[0]));
+                emit(outputKey, group);
+            }
+            longGroupTable.clear();
+        } else {
+            KeyValueIterator<BinaryRowData, BinaryRowData> entries =
+                    genericGroups.getEntryIterator(false);
+            while (entries.advanceNext()) {
+                emit(entries.getKey(), entries.getValue().getInt(0));
+            }
+            genericGroups.reset();
+        }
+        numGroups = 0;
+        nullKeyGroup = -1;
+    }
+
+    private void emit(RowData key, int group) {
+        for (int i = 0; i < aggregates.length; i++) {
+            outputValues.setField(i, getAggregateValue(i, group));
+        }
+        collector.collect(outputRow.replace(key, outputValues));
+    }
+
+    private Object getAggregateValue(int aggIndex, int group) {
+        VectorizedAggregate aggregate = aggregates[aggIndex];
+        switch (aggregate.getKind()) {
+            case COUNT_STAR:
+            case COUNT:
+                return longStates[aggIndex][group];
+            default:
+                if (!hasValues[aggIndex][group]
+                        && aggregate.getKind() != VectorizedAggregate.Kind.SUM0) {
+                    return null;
+                }
+                return aggregate.isFloatingPoint()
+                        ? ColumnVectors.toInternal(
+                                doubleStates[aggIndex][group], aggregate.getResultType())
+                        : ColumnVectors.toInternal(
+                                longStates[aggIndex][group], aggregate.getResultType());
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /** Open addressing hash table from integral keys to group ids. */
+    private static final class LongGroupTable {
+
+        private long[] keys;
+        private int[] groups;
+        private int mask;
+        private int size;
+
+        private LongGroupTable() {
+            allocate(1024);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            groups = new int[capacity];
+            Arrays.fill(groups, -1);
+            mask = capacity - 1;
+        }
+
+        /** Returns the group of the key, or -1 if the key has no group. */
+        private int get(long key) {
+            int pos = MathUtils.longToIntWithBitMixing(key) & mask;
+            while (true) {
+                int group = groups[pos];
+                if (group < 0 || keys[pos] == key) {
+                    return group;
+                }
+                pos = (pos + 1) & mask;
+            }
+        }
+
+        /** Adds a key which has no group yet. */
+        private void put(long key, int group) {
+            int pos = MathUtils.longToIntWithBitMixing(key) & mask;
+            while (groups[pos] >= 0) {
+                pos = (pos + 1) & mask;
+            }
+            keys[pos] = key;
+            groups[pos] = group;
+            if (++size > keys.length / 2) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldGroups = groups;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldGroups[i] >= 0) {
+                    int pos = MathUtils.longToIntWithBitMixing(oldKeys[i]) & mask;
+                    while (groups[pos] >= 0) {
+                        pos = (pos + 1) & mask;
+                    }
+                    keys[pos] = oldKeys[i];
+                    groups[pos] = oldGroups[i];
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(groups, -1);
+            size = 0;
+        }
+    }
+}
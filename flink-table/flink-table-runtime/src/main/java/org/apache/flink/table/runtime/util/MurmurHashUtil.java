@@ -83,7 +83,16 @@ public final class MurmurHashUtil {
         return fmix(h1, lengthInBytes);
     }
 
-    private static int hashBytesByWords(
+    /**
+     * Hash bytes in MemorySegment with the given seed, length must be aligned to 4 bytes.
+     *
+     * @param segment segment.
+     * @param offset offset for MemorySegment
+     * @param lengthInBytes length in MemorySegment
+     * @param seed seed of the hash
+     * @return hash code
+     */
+    public static int hashBytesByWords(
             MemorySegment segment, int offset, int lengthInBytes, int seed) {
         int h1 = hashBytesByInt(segment, offset, lengthInBytes, seed);
         return fmix(h1, lengthInBytes);
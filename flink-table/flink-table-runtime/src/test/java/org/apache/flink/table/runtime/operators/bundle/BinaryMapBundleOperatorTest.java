@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.bundle;
+
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.context.ExecutionContext;
+import org.apache.flink.table.runtime.operators.bundle.BinaryMapBundleOperator.FlushReason;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.runtime.util.KeyValueIterator;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.util.Collector;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.row;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link BinaryMapBundleOperator}. */
+public class BinaryMapBundleOperatorTest {
+
+    private static final LogicalType[] KEY_TYPES = {VarCharType.STRING_TYPE};
+
+    private static final LogicalType[] INPUT_TYPES = {
+        VarCharType.STRING_TYPE, VarCharType.STRING_TYPE
+    };
+
+    private static final KeySelector<RowData, RowData> KEY_SELECTOR =
+            value -> GenericRowData.of(value.getString(0));
+
+    @Test
+    public void testSimple() throws Exception {
+        TestRecordsBundleFunction func = new TestRecordsBundleFunction();
+        TestBinaryMapBundleOperator operator =
+                new TestBinaryMapBundleOperator(func, 3, 2 * 1024 * 1024);
+        OneInputStreamOperatorTestHarness<RowData, RowData> op =
+                new OneInputStreamOperatorTestHarness<>(operator);
+        op.open();
+        synchronized (op.getCheckpointLock()) {
+            op.processElement(new StreamRecord<>(row("k1", "v1")));
+            op.processElement(new StreamRecord<>(row("k1", "v2")));
+            assertEquals(0, func.getFinishCount());
+
+            op.processElement(new StreamRecord<>(row("k2", "v3")));
+            assertEquals(1, func.getFinishCount());
+            assertThat(func.getOutputs(), is(Arrays.asList("k1=v1,v2", "k2=v3")));
+            assertEquals(1, operator.getNumOfFlushes(FlushReason.TRIGGER));
+
+            op.processElement(new StreamRecord<>(row("k3", "v4")));
+            op.processElement(new StreamRecord<>(row("k4", "v5")));
+            assertEquals(1, func.getFinishCount());
+
+            op.close();
+            assertEquals(2, func.getFinishCount());
+            assertThat(func.getOutputs(), is(Arrays.asList("k3=v4", "k4=v5")));
+            assertEquals(1, operator.getNumOfFlushes(FlushReason.END_OF_INPUT));
+            assertEquals(4, func.getPreparedKeys());
+        }
+    }
+
+    @Test
+    public void testFlushOnWatermarkAndCheckpoint() throws Exception {
+        TestRecordsBundleFunction func = new TestRecordsBundleFunction();
+        TestBinaryMapBundleOperator operator =
+                new TestBinaryMapBundleOperator(func, 100, 2 * 1024 * 1024);
+        OneInputStreamOperatorTestHarness<RowData, RowData> op =
+                new OneInputStreamOperatorTestHarness<>(operator);
+        op.open();
+        synchronized (op.getCheckpointLock()) {
+            op.processElement(new StreamRecord<>(row("k1", "v1")));
+            op.processWatermark(new Watermark(1L));
+            assertThat(func.getOutputs(), is(Collections.singletonList("k1=v1")));
+            assertEquals(1, operator.getNumOfFlushes(FlushReason.WATERMARK));
+
+            op.processElement(new StreamRecord<>(row("k2", "v2")));
+            op.prepareSnapshotPreBarrier(1L);
+            assertThat(func.getOutputs(), is(Collections.singletonList("k2=v2")));
+            assertEquals(1, operator.getNumOfFlushes(FlushReason.CHECKPOINT));
+
+            // empty bundles are not counted
+            op.processWatermark(new Watermark(2L));
+            assertEquals(1, operator.getNumOfFlushes(FlushReason.WATERMARK));
+            op.close();
+            assertEquals(0, operator.getNumOfFlushes(FlushReason.END_OF_INPUT));
+        }
+    }
+
+    @Test
+    public void testFlushOnMemoryPressure() throws Exception {
+        TestRecordsBundleFunction func = new TestRecordsBundleFunction();
+        TestBinaryMapBundleOperator operator =
+                new TestBinaryMapBundleOperator(func, Long.MAX_VALUE, 2 * 1024 * 1024);
+        OneInputStreamOperatorTestHarness<RowData, RowData> op =
+                new OneInputStreamOperatorTestHarness<>(operator);
+        op.open();
+
+        char[] chars = new char[2048];
+        Arrays.fill(chars, 'v');
+        String value = new String(chars);
+        int numKeys = 100;
+        int numRecords = 1000;
+        synchronized (op.getCheckpointLock()) {
+            for (int i = 0; i < numRecords; i++) {
+                op.processElement(new StreamRecord<>(row("k" + (i % numKeys), value)));
+            }
+            assertTrue(operator.getNumOfFlushes(FlushReason.MEMORY) > 0);
+            assertEquals(0, operator.getNumOfFlushes(FlushReason.TRIGGER));
+            op.close();
+        }
+
+        // every record was handed to the function exactly once
+        assertEquals(numRecords, func.getNumRecords());
+        assertEquals(
+                operator.getNumOfFlushes(FlushReason.MEMORY) + 1, (long) func.getFinishCount());
+        for (int i = 0; i < numKeys; i++) {
+            assertEquals(numRecords / numKeys, (int) func.getNumRecordsPerKey().get("k" + i));
+        }
+    }
+
+    private static class TestBinaryMapBundleOperator extends BinaryMapBundleOperator {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long memorySize;
+
+        TestBinaryMapBundleOperator(
+                RecordsBundleFunction function, long maxCount, long memorySize) {
+            super(
+                    function,
+                    new CountBundleTrigger<>(maxCount),
+                    KEY_SELECTOR,
+                    KEY_TYPES,
+                    INPUT_TYPES);
+            this.memorySize = memorySize;
+        }
+
+        @Override
+        public long computeMemorySize() {
+            return memorySize;
+        }
+    }
+
+    private static class TestRecordsBundleFunction implements RecordsBundleFunction {
+
+        private static final long serialVersionUID = 1L;
+
+        private int finishCount = 0;
+        private int preparedKeys = 0;
+        private int numRecords = 0;
+        private final List<String> outputs = new ArrayList<>();
+        private final Map<String, Integer> numRecordsPerKey = new HashMap<>();
+
+        @Override
+        public void open(ExecutionContext ctx) {}
+
+        @Override
+        public void prepareBundle(KeyValueIterator<RowData, Iterator<RowData>> bundle)
+                throws Exception {
+            while (bundle.advanceNext()) {
+                preparedKeys++;
+            }
+        }
+
+        @Override
+        public void finishBundle(
+                KeyValueIterator<RowData, Iterator<RowData>> bundle, Collector<RowData> out)
+                throws Exception {
+            finishCount++;
+            outputs.clear();
+            while (bundle.advanceNext()) {
+                String key = bundle.getKey().getString(0).toString();
+                List<String> values = new ArrayList<>();
+                Iterator<RowData> records = bundle.getValue();
+                while (records.hasNext()) {
+                    values.add(records.next().getString(1).toString());
+                }
+                outputs.add(key + "=" + String.join(",", values));
+                numRecords += values.size();
+                numRecordsPerKey.merge(key, values.size(), Integer::sum);
+            }
+        }
+
+        @Override
+        public void close() {}
+
+        int getFinishCount() {
+            return finishCount;
+        }
+
+        int getPreparedKeys() {
+            return preparedKeys;
+        }
+
+        int getNumRecords() {
+            return numRecords;
+        }
+
+        List<String> getOutputs() {
+            return outputs;
+        }
+
+        Map<String, Integer> getNumRecordsPerKey() {
+            return numRecordsPerKey;
+        }
+    }
+}
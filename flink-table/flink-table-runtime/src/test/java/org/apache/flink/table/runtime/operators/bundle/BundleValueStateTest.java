@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.bundle;
+
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.runtime.state.internal.InternalValueState;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.context.ExecutionContext;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+import org.apache.flink.util.Collector;
+
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link BundleValueState}. */
+public class BundleValueStateTest {
+
+    private static final LogicalType[] INPUT_TYPES =
+            new LogicalType[] {VarCharType.STRING_TYPE, new BigIntType()};
+
+    @Test
+    public void testPrefetchedValuesAcrossBundles() throws Exception {
+        RowDataKeySelector keySelector =
+                HandwrittenSelectorUtil.getRowDataSelector(new int[] {0}, INPUT_TYPES);
+        SumFunction function = new SumFunction();
+        KeyedOneInputStreamOperatorTestHarness<RowData, RowData, String> testHarness =
+                new KeyedOneInputStreamOperatorTestHarness<>(
+                        new KeyedMapBundleOperator<>(function, new CountBundleTrigger<>(3)),
+                        keySelector,
+                        keySelector.getProducedType());
+        testHarness.open();
+
+        testHarness.processElement(insertRecord("a", 1L));
+        testHarness.processElement(insertRecord("b", 2L));
+        testHarness.processElement(insertRecord("a", 3L));
+
+        testHarness.processElement(insertRecord("a", 10L));
+        testHarness.processElement(insertRecord("c", 20L));
+        testHarness.processElement(insertRecord("c", 30L));
+        testHarness.close();
+
+        List<String> output = new ArrayList<>(testHarness.extractOutputValues());
+        output.sort(String::compareTo);
+        assertEquals(Arrays.asList("a=14", "a=4", "b=2", "c=50"), output);
+
+        // one batched lookup per bundle, the state is only read after updates
+        assertEquals(Arrays.asList(2, 2), function.sumState.multiGetSizes);
+        assertEquals(4, function.sumState.numValueCalls);
+    }
+
+    /** Sums up the values per key over all bundles and emits the sum of each key of a bundle. */
+    private static class SumFunction extends MapBundleFunction<RowData, Long, RowData, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient CountingValueState sumState;
+
+        private transient BundleValueState<Long> bundleSumState;
+
+        @Override
+        public void open(ExecutionContext ctx) throws Exception {
+            super.open(ctx);
+            sumState =
+                    new CountingValueState(
+                            ctx.getRuntimeContext()
+                                    .getState(new ValueStateDescriptor<>("sum", Types.LONG)));
+            bundleSumState = new BundleValueState<>(sumState.proxy, ctx);
+        }
+
+        @Override
+        public Long addInput(@Nullable Long value, RowData input) {
+            return (value == null ? 0L : value) + input.getLong(1);
+        }
+
+        @Override
+        public void finishBundle(Map<RowData, Long> buffer, Collector<String> out)
+                throws Exception {
+            bundleSumState.prefetch(buffer.keySet());
+            for (Map.Entry<RowData, Long> entry : buffer.entrySet()) {
+                ctx.setCurrentKey(entry.getKey());
+                Long sum = bundleSumState.value();
+                sum = (sum == null ? 0L : sum) + entry.getValue();
+                bundleSumState.update(sum);
+                // reads after an update go to the state
+                assertEquals(sum, bundleSumState.value());
+                out.collect(entry.getKey().getString(0) + "=" + sum);
+            }
+        }
+    }
+
+    /**
+     * Wraps an {@link InternalValueState} and counts the batched lookups and the single value reads
+     * which reach it.
+     */
+    private static class CountingValueState implements InvocationHandler {
+
+        private final Object state;
+
+        private final ValueState<?> proxy;
+
+        private final List<Integer> multiGetSizes = new ArrayList<>();
+
+        private int numValueCalls;
+
+        private CountingValueState(ValueState<?> state) {
+            assertTrue(state instanceof InternalValueState);
+            this.state = state;
+            this.proxy =
+                    (ValueState<?>)
+                            Proxy.newProxyInstance(
+                                    getClass().getClassLoader(),
+                                    new Class<?>[] {InternalValueState.class},
+                                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("multiGet")) {
+                multiGetSizes.add(((List<?>) args[0]).size());
+            } else if (method.getName().equals("value")) {
+                numValueCalls++;
+            }
+            try {
+                return method.invoke(state, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -32,9 +32,15 @@ import org.apache.flink.table.data.binary.BinaryRowData;
 import org.apache.flink.table.data.utils.JoinedRowData;
 import org.apache.flink.table.data.writer.BinaryRowWriter;
 import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.generated.GeneratedNormalizedKeyComputer;
 import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.GeneratedRecordComparator;
 import org.apache.flink.table.runtime.generated.JoinCondition;
+import org.apache.flink.table.runtime.generated.NormalizedKeyComputer;
 import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.generated.RecordComparator;
+import org.apache.flink.table.runtime.operators.sort.IntNormalizedKeyComputer;
+import org.apache.flink.table.runtime.operators.sort.IntRecordComparator;
 import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
 import org.apache.flink.table.runtime.util.UniformBinaryRowGenerator;
 import org.apache.flink.table.types.logical.IntType;
@@ -49,12 +55,17 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.lang.Long.valueOf;
 
 /** Random test for {@link HashJoinOperator}. */
 public class Int2HashJoinOperatorTest implements Serializable {
 
+    private static final long SORT_MERGE_FALLBACK_MEMORY = 96 * 32 * 1024;
+
+    private static final AtomicBoolean SORT_MERGE_FALLBACK_USED = new AtomicBoolean();
+
     // ---------------------- build first inner join -----------------------------------------
     @Test
     public void testBuildFirstHashInnerJoin() throws Exception {
@@ -289,6 +300,61 @@ public class Int2HashJoinOperatorTest implements Serializable {
         joinAndAssert(operator, buildInput, probeInput, 10, 1, 45, true);
     }
 
+    // ---------------------- sort merge fallback -----------------------------------------
+
+    @Test
+    public void testBuildFirstHashInnerJoinFallbackToSortMerge() throws Exception {
+
+        int numKeys = 200;
+        int buildValsPerKey = 2000;
+        MutableObjectIterator<BinaryRowData> buildInput =
+                new UniformBinaryRowGenerator(numKeys, buildValsPerKey, true);
+        MutableObjectIterator<BinaryRowData> probeInput =
+                new UniformBinaryRowGenerator(numKeys, 1, true);
+
+        SORT_MERGE_FALLBACK_USED.set(false);
+        Object operator =
+                newOperatorWithSortMergeFallback(HashJoinType.INNER, false, FlinkJoinType.INNER);
+        joinAndAssert(
+                operator,
+                buildInput,
+                probeInput,
+                numKeys * buildValsPerKey,
+                numKeys,
+                buildValsPerKey * (buildValsPerKey - 1) / 2,
+                false,
+                SORT_MERGE_FALLBACK_MEMORY);
+        Assert.assertTrue(SORT_MERGE_FALLBACK_USED.get());
+    }
+
+    @Test
+    public void testSemiJoinFallbackToSortMerge() throws Exception {
+
+        int numKeys1 = 200;
+        int numKeys2 = 300;
+        int buildValsPerKey = 2000;
+        int probeValsPerKey = 2;
+        MutableObjectIterator<BinaryRowData> buildInput =
+                new UniformBinaryRowGenerator(numKeys1, buildValsPerKey, true);
+        MutableObjectIterator<BinaryRowData> probeInput =
+                new UniformBinaryRowGenerator(numKeys2, probeValsPerKey, true);
+
+        SORT_MERGE_FALLBACK_USED.set(false);
+        // the build side is the right side of a semi join
+        Object operator =
+                newOperatorWithSortMergeFallback(HashJoinType.SEMI, true, FlinkJoinType.SEMI);
+        joinAndAssert(
+                operator,
+                buildInput,
+                probeInput,
+                numKeys1 * probeValsPerKey,
+                numKeys1,
+                1,
+                true,
+                SORT_MERGE_FALLBACK_MEMORY);
+        Assert.assertTrue(SORT_MERGE_FALLBACK_USED.get());
+    }
+
     private void buildJoin(
             MutableObjectIterator<BinaryRowData> buildInput,
             MutableObjectIterator<BinaryRowData> probeInput,
@@ -311,7 +377,6 @@ public class Int2HashJoinOperatorTest implements Serializable {
                 false);
     }
 
-    @SuppressWarnings("unchecked")
     static void joinAndAssert(
             Object operator,
             MutableObjectIterator<BinaryRowData> input1,
@@ -321,6 +386,28 @@ public class Int2HashJoinOperatorTest implements Serializable {
             int expectOutVal,
             boolean semiJoin)
             throws Exception {
+        joinAndAssert(
+                operator,
+                input1,
+                input2,
+                expectOutSize,
+                expectOutKeySize,
+                expectOutVal,
+                semiJoin,
+                36 * 1024 * 1024);
+    }
+
+    @SuppressWarnings("unchecked")
+    static void joinAndAssert(
+            Object operator,
+            MutableObjectIterator<BinaryRowData> input1,
+            MutableObjectIterator<BinaryRowData> input2,
+            int expectOutSize,
+            int expectOutKeySize,
+            int expectOutVal,
+            boolean semiJoin,
+            long memorySize)
+            throws Exception {
         InternalTypeInfo<RowData> typeInfo =
                 InternalTypeInfo.ofFields(new IntType(), new IntType());
         InternalTypeInfo<RowData> rowDataTypeInfo =
@@ -335,7 +422,7 @@ public class Int2HashJoinOperatorTest implements Serializable {
                         typeInfo,
                         (TypeInformation) typeInfo,
                         rowDataTypeInfo);
-        testHarness.memorySize = 36 * 1024 * 1024;
+        testHarness.memorySize = memorySize;
         testHarness.getExecutionConfig().enableObjectReuse();
         testHarness.setupOutputForSingletonOperatorChain();
         if (operator instanceof StreamOperator) {
@@ -511,6 +598,108 @@ public class Int2HashJoinOperatorTest implements Serializable {
                 RowType.of(new IntType()));
     }
 
+    /**
+     * Creates a hash join whose memory is too small to rebuild the spilled partitions of the sort
+     * merge fallback tests.
+     */
+    private Object newOperatorWithSortMergeFallback(
+            HashJoinType type, boolean reverseJoinFunction, FlinkJoinType joinType) {
+        return HashJoinOperator.newHashJoinOperator(
+                type,
+                new GeneratedJoinCondition("", "", new Object[0]) {
+                    @Override
+                    public JoinCondition newInstance(ClassLoader classLoader) {
+                        return new TrueCondition();
+                    }
+                },
+                reverseJoinFunction,
+                new boolean[] {true},
+                new GeneratedProjection("", "", new Object[0]) {
+                    @Override
+                    public Projection newInstance(ClassLoader classLoader) {
+                        return new MyProjection();
+                    }
+                },
+                new GeneratedProjection("", "", new Object[0]) {
+                    @Override
+                    public Projection newInstance(ClassLoader classLoader) {
+                        return new MyProjection();
+                    }
+                },
+                false,
+                20,
+                10000,
+                10000,
+                RowType.of(new IntType()),
+                new CheckedSortMergeJoinFunction(joinType, !reverseJoinFunction));
+    }
+
+    /** A {@link SortMergeJoinFunction} on the int key which records that it has been used. */
+    private static class CheckedSortMergeJoinFunction extends SortMergeJoinFunction {
+
+        CheckedSortMergeJoinFunction(FlinkJoinType type, boolean leftIsSmaller) {
+            super(
+                    0,
+                    type,
+                    leftIsSmaller,
+                    new GeneratedJoinCondition("", "", new Object[0]) {
+                        @Override
+                        public JoinCondition newInstance(ClassLoader classLoader) {
+                            return new TrueCondition();
+                        }
+                    },
+                    new GeneratedProjection("", "", new Object[0]) {
+                        @Override
+                        public Projection newInstance(ClassLoader classLoader) {
+                            return new MyProjection();
+                        }
+                    },
+                    new GeneratedProjection("", "", new Object[0]) {
+                        @Override
+                        public Projection newInstance(ClassLoader classLoader) {
+                            return new MyProjection();
+                        }
+                    },
+                    new GeneratedNormalizedKeyComputer("", "") {
+                        @Override
+                        public NormalizedKeyComputer newInstance(ClassLoader classLoader) {
+                            return new IntNormalizedKeyComputer();
+                        }
+                    },
+                    new GeneratedRecordComparator("", "", new Object[0]) {
+                        @Override
+                        public RecordComparator newInstance(ClassLoader classLoader) {
+                            return new IntRecordComparator();
+                        }
+                    },
+                    new GeneratedNormalizedKeyComputer("", "") {
+                        @Override
+                        public NormalizedKeyComputer newInstance(ClassLoader classLoader) {
+                            return new IntNormalizedKeyComputer();
+                        }
+                    },
+                    new GeneratedRecordComparator("", "", new Object[0]) {
+                        @Override
+                        public RecordComparator newInstance(ClassLoader classLoader) {
+                            return new IntRecordComparator();
+                        }
+                    },
+                    new GeneratedRecordComparator("", "", new Object[0]) {
+                        @Override
+                        public RecordComparator newInstance(ClassLoader classLoader) {
+                            return new IntRecordComparator();
+                        }
+                    },
+                    new boolean[] {true});
+        }
+
+        @Override
+        public void endInput(int inputId) throws Exception {
+            SORT_MERGE_FALLBACK_USED.set(true);
+            super.endInput(inputId);
+        }
+    }
+
     /** Test util. */
     public static class TrueCondition extends AbstractRichFunction implements JoinCondition {
 
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.api.common.functions.AbstractRichFunction;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.runtime.tasks.mailbox.Mail;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox;
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.generated.JoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link StreamingJoinOperator} with join key bloom filters. */
+public class StreamingJoinOperatorKeyFilterTest {
+
+    private static final int KEY_FILTER_BYTES = 1024;
+
+    private final InternalTypeInfo<RowData> inputType =
+            InternalTypeInfo.ofFields(new BigIntType(), new BigIntType());
+
+    private final RowDataKeySelector keySelector =
+            HandwrittenSelectorUtil.getRowDataSelector(new int[] {0}, inputType.toRowFieldTypes());
+
+    private final RowDataHarnessAssertor assertor =
+            new RowDataHarnessAssertor(
+                    new LogicalType[] {
+                        new BigIntType(), new BigIntType(), new BigIntType(), new BigIntType()
+                    });
+
+    private KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData> testHarness;
+
+    @After
+    public void after() throws Exception {
+        if (testHarness != null) {
+            testHarness.close();
+        }
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        StreamingJoinOperator operator = createJoinOperator(false, KEY_FILTER_BYTES);
+        testHarness = createTestHarness(operator);
+        testHarness.open();
+
+        // the right side is empty, the state access is skipped
+        testHarness.processElement1(insertRecord(1L, 10L));
+        testHarness.processElement1(insertRecord(2L, 20L));
+        assertOutput();
+        assertEquals(2L, operator.getNumKeyFilterSkippedProbes().getCount());
+
+        testHarness.processElement2(insertRecord(1L, 11L));
+        testHarness.processElement2(insertRecord(3L, 31L));
+        assertOutput(insertRecord(1L, 10L, 1L, 11L));
+
+        testHarness.processElement1(deleteRecord(1L, 10L));
+        assertOutput(deleteRecord(1L, 10L, 1L, 11L));
+
+        // keys are not removed from the filter, the probe reaches the empty state
+        long falsePositives = operator.getNumKeyFilterFalsePositives().getCount();
+        testHarness.processElement2(insertRecord(1L, 12L));
+        assertOutput();
+        assertEquals(falsePositives + 1, operator.getNumKeyFilterFalsePositives().getCount());
+        assertTrue(operator.isKeyFilterEnabled());
+    }
+
+    @Test
+    public void testLeftOuterJoin() throws Exception {
+        StreamingJoinOperator operator = createJoinOperator(true, KEY_FILTER_BYTES);
+        testHarness = createTestHarness(operator);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, 10L));
+        assertOutput(insertRecord(1L, 10L, null, null));
+
+        testHarness.processElement2(insertRecord(1L, 11L));
+        assertOutput(deleteRecord(1L, 10L, null, null), insertRecord(1L, 10L, 1L, 11L));
+
+        testHarness.processElement2(insertRecord(2L, 21L));
+        testHarness.processElement1(insertRecord(3L, 30L));
+        assertOutput(insertRecord(3L, 30L, null, null));
+
+        testHarness.processElement2(deleteRecord(1L, 11L));
+        assertOutput(deleteRecord(1L, 10L, 1L, 11L), insertRecord(1L, 10L, null, null));
+    }
+
+    @Test
+    public void testKeyFilterIsRebuiltOnRestore() throws Exception {
+        StreamingJoinOperator operator = createJoinOperator(false, KEY_FILTER_BYTES);
+        testHarness = createTestHarness(operator);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, 10L));
+        testHarness.processElement2(insertRecord(2L, 21L));
+        OperatorSubtaskState snapshot = testHarness.snapshot(0L, 0L);
+        testHarness.close();
+
+        operator = createJoinOperator(false, KEY_FILTER_BYTES);
+        testHarness = createTestHarness(operator);
+        testHarness.initializeState(snapshot);
+        testHarness.open();
+
+        // the state is not scanned while opening, no state access is skipped until the rebuild
+        assertTrue(operator.isKeyFilterRebuilding());
+        testHarness.processElement2(insertRecord(1L, 11L));
+        testHarness.processElement1(insertRecord(3L, 30L));
+        assertOutput(insertRecord(1L, 10L, 1L, 11L));
+        assertEquals(0L, operator.getNumKeyFilterSkippedProbes().getCount());
+
+        processMails();
+        assertFalse(operator.isKeyFilterRebuilding());
+        assertTrue(operator.isKeyFilterEnabled());
+
+        // the rebuilt filters contain the restored keys and the keys added during the rebuild
+        testHarness.processElement1(insertRecord(2L, 20L));
+        testHarness.processElement2(insertRecord(3L, 31L));
+        testHarness.processElement2(insertRecord(4L, 41L));
+        assertOutput(insertRecord(2L, 20L, 2L, 21L), insertRecord(3L, 30L, 3L, 31L));
+        assertEquals(1L, operator.getNumKeyFilterSkippedProbes().getCount());
+    }
+
+    @Test
+    public void testKeyFilterIsDisabledWhenTooSmall() throws Exception {
+        StreamingJoinOperator operator = createJoinOperator(false, 1);
+        testHarness = createTestHarness(operator);
+        testHarness.open();
+
+        testHarness.processElement1(insertRecord(1L, 10L));
+        testHarness.processElement1(insertRecord(2L, 20L));
+        testHarness.processElement1(insertRecord(3L, 30L));
+        // the saturated filter is rebuilt in the background
+        assertTrue(operator.isKeyFilterEnabled());
+        assertTrue(operator.isKeyFilterRebuilding());
+        processMails();
+        assertFalse(operator.isKeyFilterEnabled());
+
+        testHarness.processElement2(insertRecord(1L, 11L));
+        testHarness.processElement2(insertRecord(2L, 21L));
+        testHarness.processElement2(insertRecord(3L, 31L));
+        assertOutput(
+                insertRecord(1L, 10L, 1L, 11L),
+                insertRecord(2L, 20L, 2L, 21L),
+                insertRecord(3L, 30L, 3L, 31L));
+    }
+
+    @Test
+    public void testSaturatedKeyFilterIsRebuilt() throws Exception {
+        // sized for 16 keys
+        StreamingJoinOperator operator = createJoinOperator(false, 20);
+        testHarness = createTestHarness(operator);
+        testHarness.open();
+
+        for (long key = 1L; key <= 20L; key++) {
+            testHarness.processElement1(insertRecord(key, key * 10));
+        }
+        assertTrue(operator.isKeyFilterRebuilding());
+        for (long key = 1L; key < 20L; key++) {
+            testHarness.processElement1(deleteRecord(key, key * 10));
+        }
+
+        // the saturated filter is used until the rebuild is finished and has no false negatives
+        testHarness.processElement2(insertRecord(20L, 201L));
+        assertOutput(insertRecord(20L, 200L, 20L, 201L));
+
+        // only the keys which still have records or were added during the rebuild are left
+        processMails();
+        assertFalse(operator.isKeyFilterRebuilding());
+        assertTrue(operator.isKeyFilterEnabled());
+        long skippedProbes = operator.getNumKeyFilterSkippedProbes().getCount();
+        testHarness.processElement2(insertRecord(1L, 11L));
+        testHarness.processElement2(insertRecord(20L, 202L));
+        assertOutput(insertRecord(20L, 200L, 20L, 202L));
+        assertEquals(skippedProbes + 1, operator.getNumKeyFilterSkippedProbes().getCount());
+    }
+
+    private StreamingJoinOperator createJoinOperator(boolean leftIsOuter, int keyFilterBytes) {
+        GeneratedJoinCondition condition =
+                new GeneratedJoinCondition("", "", new Object[0]) {
+                    @Override
+                    public JoinCondition newInstance(ClassLoader classLoader) {
+                        return new TrueCondition();
+                    }
+                };
+        return new StreamingJoinOperator(
+                inputType,
+                inputType,
+                condition,
+                JoinInputSideSpec.withoutUniqueKey(),
+                JoinInputSideSpec.withoutUniqueKey(),
+                leftIsOuter,
+                false,
+                new boolean[] {true},
+                0,
+                keyFilterBytes);
+    }
+
+    private KeyedTwoInputStreamOperatorTestHarness<RowData, RowData, RowData, RowData>
+            createTestHarness(StreamingJoinOperator operator) throws Exception {
+        return new KeyedTwoInputStreamOperatorTestHarness<>(
+                operator, keySelector, keySelector, keySelector.getProducedType());
+    }
+
+    /** Runs the pending mails, i.e. the steps of the key filter rebuilds. */
+    private void processMails() throws Exception {
+        Optional<Mail> mail;
+        while ((mail = testHarness.getTaskMailbox().tryTake(TaskMailbox.MIN_PRIORITY))
+                .isPresent()) {
+            mail.get().run();
+        }
+    }
+
+    private void assertOutput(Object... expected) {
+        assertor.assertOutputEqualsSorted(
+                "output wrong.",
+                new ConcurrentLinkedQueue<>(Arrays.asList(expected)),
+                testHarness.getOutput());
+        testHarness.getOutput().clear();
+    }
+
+    private static class TrueCondition extends AbstractRichFunction implements JoinCondition {
+
+        @Override
+        public boolean apply(RowData in1, RowData in2) {
+            return true;
+        }
+    }
+}
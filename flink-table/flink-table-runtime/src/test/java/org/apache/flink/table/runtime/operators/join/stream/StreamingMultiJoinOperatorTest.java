@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.api.common.functions.AbstractRichFunction;
+import org.apache.flink.streaming.util.KeyedMultiInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.generated.JoinCondition;
+import org.apache.flink.table.runtime.keyselector.RowDataKeySelector;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.utils.HandwrittenSelectorUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.updateAfterRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.updateBeforeRecord;
+
+/** Tests for {@link StreamingMultiJoinOperator}. */
+public class StreamingMultiJoinOperatorTest {
+
+    private static final int NUM_INPUTS = 3;
+
+    private final InternalTypeInfo<RowData> inputType =
+            InternalTypeInfo.ofFields(new BigIntType(), new BigIntType());
+
+    private final RowDataKeySelector keySelector =
+            HandwrittenSelectorUtil.getRowDataSelector(new int[] {0}, inputType.toRowFieldTypes());
+
+    private final RowDataHarnessAssertor assertor = new RowDataHarnessAssertor(outputTypes());
+
+    private KeyedMultiInputStreamOperatorTestHarness<RowData, RowData> testHarness;
+
+    @After
+    public void after() throws Exception {
+        if (testHarness != null) {
+            testHarness.close();
+        }
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        testHarness = createTestHarness(new TrueCondition(), new TrueCondition());
+        testHarness.open();
+
+        testHarness.processElement(0, insertRecord(1L, 10L));
+        testHarness.processElement(1, insertRecord(1L, 20L));
+        // no output until all inputs have a record for the key
+        assertOutput();
+
+        testHarness.processElement(2, insertRecord(1L, 30L));
+        assertOutput(insertRecord(1L, 10L, 1L, 20L, 1L, 30L));
+
+        testHarness.processElement(1, insertRecord(1L, 21L));
+        assertOutput(insertRecord(1L, 10L, 1L, 21L, 1L, 30L));
+
+        // other keys don't join
+        testHarness.processElement(2, insertRecord(2L, 30L));
+        testHarness.processElement(0, insertRecord(2L, 10L));
+        assertOutput();
+
+        testHarness.processElement(0, deleteRecord(1L, 10L));
+        assertOutput(
+                deleteRecord(1L, 10L, 1L, 20L, 1L, 30L), deleteRecord(1L, 10L, 1L, 21L, 1L, 30L));
+
+        // the left input is empty now
+        testHarness.processElement(2, insertRecord(1L, 31L));
+        assertOutput();
+    }
+
+    @Test
+    public void testUpdates() throws Exception {
+        testHarness = createTestHarness(new TrueCondition(), new TrueCondition());
+        testHarness.open();
+
+        testHarness.processElement(0, insertRecord(1L, 10L));
+        testHarness.processElement(1, insertRecord(1L, 20L));
+        testHarness.processElement(2, insertRecord(1L, 30L));
+        assertOutput(insertRecord(1L, 10L, 1L, 20L, 1L, 30L));
+
+        testHarness.processElement(1, updateBeforeRecord(1L, 20L));
+        testHarness.processElement(1, updateAfterRecord(1L, 22L));
+        assertOutput(
+                updateBeforeRecord(1L, 10L, 1L, 20L, 1L, 30L),
+                updateAfterRecord(1L, 10L, 1L, 22L, 1L, 30L));
+
+        // the retracted record is no longer part of any join result
+        testHarness.processElement(0, insertRecord(1L, 11L));
+        assertOutput(insertRecord(1L, 11L, 1L, 22L, 1L, 30L));
+    }
+
+    @Test
+    public void testDuplicateRecords() throws Exception {
+        testHarness = createTestHarness(new TrueCondition(), new TrueCondition());
+        testHarness.open();
+
+        testHarness.processElement(0, insertRecord(1L, 10L));
+        testHarness.processElement(0, insertRecord(1L, 10L));
+        testHarness.processElement(1, insertRecord(1L, 20L));
+        testHarness.processElement(2, insertRecord(1L, 30L));
+        assertOutput(
+                insertRecord(1L, 10L, 1L, 20L, 1L, 30L), insertRecord(1L, 10L, 1L, 20L, 1L, 30L));
+
+        testHarness.processElement(0, deleteRecord(1L, 10L));
+        assertOutput(deleteRecord(1L, 10L, 1L, 20L, 1L, 30L));
+    }
+
+    @Test
+    public void testNonEquiCondition() throws Exception {
+        // the value of the second input must be less than the value of the third input
+        testHarness = createTestHarness(new TrueCondition(), new LessThanCondition(3, 1));
+        testHarness.open();
+
+        testHarness.processElement(0, insertRecord(1L, 10L));
+        testHarness.processElement(1, insertRecord(1L, 20L));
+        testHarness.processElement(1, insertRecord(1L, 40L));
+        testHarness.processElement(2, insertRecord(1L, 30L));
+        assertOutput(insertRecord(1L, 10L, 1L, 20L, 1L, 30L));
+
+        testHarness.processElement(2, insertRecord(1L, 50L));
+        assertOutput(
+                insertRecord(1L, 10L, 1L, 20L, 1L, 50L), insertRecord(1L, 10L, 1L, 40L, 1L, 50L));
+    }
+
+    @Test
+    public void testNullKeys() throws Exception {
+        testHarness = createTestHarness(new TrueCondition(), new TrueCondition());
+        testHarness.open();
+
+        testHarness.processElement(0, insertRecord(null, 10L));
+        testHarness.processElement(1, insertRecord(null, 20L));
+        testHarness.processElement(2, insertRecord(null, 30L));
+        assertOutput();
+    }
+
+    private KeyedMultiInputStreamOperatorTestHarness<RowData, RowData> createTestHarness(
+            JoinCondition... conditions) throws Exception {
+        List<GeneratedJoinCondition> generatedConditions = new ArrayList<>();
+        for (JoinCondition condition : conditions) {
+            generatedConditions.add(
+                    new GeneratedJoinCondition("", "", new Object[0]) {
+                        @Override
+                        public JoinCondition newInstance(ClassLoader classLoader) {
+                            return condition;
+                        }
+                    });
+        }
+        StreamingMultiJoinOperatorFactory factory =
+                new StreamingMultiJoinOperatorFactory(
+                        Collections.nCopies(NUM_INPUTS, inputType),
+                        Collections.nCopies(NUM_INPUTS, JoinInputSideSpec.withoutUniqueKey()),
+                        generatedConditions,
+                        new boolean[] {true},
+                        0);
+        KeyedMultiInputStreamOperatorTestHarness<RowData, RowData> harness =
+                new KeyedMultiInputStreamOperatorTestHarness<>(
+                        factory, keySelector.getProducedType());
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            harness.setKeySelector(i, keySelector);
+        }
+        harness.setup();
+        return harness;
+    }
+
+    private void assertOutput(Object... expected) {
+        assertor.assertOutputEqualsSorted(
+                "output wrong.",
+                new ConcurrentLinkedQueue<>(Arrays.asList(expected)),
+                testHarness.getOutput());
+        testHarness.getOutput().clear();
+    }
+
+    private LogicalType[] outputTypes() {
+        LogicalType[] types = new LogicalType[NUM_INPUTS * 2];
+        Arrays.fill(types, new BigIntType());
+        return types;
+    }
+
+    private static class TrueCondition extends AbstractRichFunction implements JoinCondition {
+
+        @Override
+        public boolean apply(RowData in1, RowData in2) {
+            return true;
+        }
+    }
+
+    private static class LessThanCondition extends AbstractRichFunction implements JoinCondition {
+
+        private final int leftField;
+        private final int rightField;
+
+        private LessThanCondition(int leftField, int rightField) {
+            this.leftField = leftField;
+            this.rightField = rightField;
+        }
+
+        @Override
+        public boolean apply(RowData in1, RowData in2) {
+            return in1.getLong(leftField) < in2.getLong(rightField);
+        }
+    }
+}
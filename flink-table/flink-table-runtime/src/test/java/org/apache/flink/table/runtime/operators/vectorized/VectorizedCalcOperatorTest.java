@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.columnar.vector.heap.HeapDoubleVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapIntVector;
+import org.apache.flink.table.runtime.operators.vectorized.VectorPredicates.Comparison;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.A;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.B;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.C;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.D;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.ROWS;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.TYPES;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.createBatch;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.processBatch;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.processRows;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link VectorizedCalcOperator} and {@link VectorPredicates}. */
+public class VectorizedCalcOperatorTest {
+
+    private static final int[] PROJECTION = {C, A};
+
+    private final RowDataHarnessAssertor assertor =
+            new RowDataHarnessAssertor(new LogicalType[] {VarCharType.STRING_TYPE, new IntType()});
+
+    /** {@code a > 1 AND (c = 'x' OR NOT(b < 10))}. */
+    private static VectorPredicate condition() {
+        return VectorPredicates.and(
+                VectorPredicates.compare(A, TYPES[A], Comparison.GREATER_THAN, 1L),
+                VectorPredicates.or(
+                        VectorPredicates.compare(C, Comparison.EQUALS, StringData.fromString("x")),
+                        VectorPredicates.not(
+                                VectorPredicates.compare(B, TYPES[B], Comparison.LESS_THAN, 10L))));
+    }
+
+    @Test
+    public void testFilterAndProjectBatch() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness = createHarness(condition());
+        processBatch(harness, createBatch());
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 3));
+        expected.add(insertRecord("x", 5));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testNegationFiltersUnknown() throws Exception {
+        // NOT(a > 1 AND (c = 'x' OR NOT(b < 10))) is unknown for the second row
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(VectorPredicates.not(condition()));
+        processBatch(harness, createBatch());
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        expected.add(insertRecord("z", 2));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testRowModeMatchesBatchMode() throws Exception {
+        List<VectorPredicate> conditions =
+                Arrays.asList(
+                        condition(),
+                        VectorPredicates.not(condition()),
+                        VectorPredicates.compare(A, TYPES[A], Comparison.LESS_THAN, B, TYPES[B]),
+                        VectorPredicates.or(
+                                VectorPredicates.isNull(D),
+                                VectorPredicates.compare(
+                                        D, TYPES[D], Comparison.GREATER_THAN_OR_EQUAL, 2.5)),
+                        VectorPredicates.compare(
+                                C, Comparison.LESS_THAN, StringData.fromString("y")));
+        for (VectorPredicate condition : conditions) {
+            OneInputStreamOperatorTestHarness<RowData, RowData> batchHarness =
+                    createHarness(condition);
+            processBatch(batchHarness, createBatch());
+            batchHarness.endInput();
+
+            OneInputStreamOperatorTestHarness<RowData, RowData> rowHarness =
+                    createHarness(condition);
+            processRows(rowHarness);
+
+            assertor.assertOutputEquals(
+                    "output wrong.",
+                    new ArrayList<>(rowHarness.getOutput()),
+                    batchHarness.getOutput());
+            batchHarness.close();
+            rowHarness.close();
+        }
+    }
+
+    @Test
+    public void testReusedBatch() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(VectorPredicates.compare(A, TYPES[A], Comparison.EQUALS, 2L));
+        VectorizedColumnBatch batch = createBatch();
+        processBatch(harness, batch);
+        batch.setNumRows(3);
+        processBatch(harness, batch);
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("y", 2));
+        expected.add(insertRecord("z", 2));
+        expected.add(insertRecord("y", 2));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testIncompleteBatchIsNotRetained() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness = createHarness(null);
+        VectorizedColumnBatch batch = createBatch();
+        ColumnarRowData row = new ColumnarRowData(batch);
+        row.setRowId(0);
+        harness.processElement(new StreamRecord<>(row));
+        row.setRowId(1);
+        harness.processElement(new StreamRecord<>(row));
+        assertEquals(0, harness.getOutput().size());
+
+        // the source stops reading the batch and reuses its vectors for the next one
+        ((HeapIntVector) batch.columns[A]).setInt(0, 7);
+        row.setRowId(0);
+        harness.processElement(new StreamRecord<>(row));
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        expected.add(insertRecord("y", 2));
+        expected.add(insertRecord("x", 7));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testCheckpointProcessesPendingRows() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness = createHarness(null);
+        ColumnarRowData row = new ColumnarRowData(createBatch());
+        row.setRowId(0);
+        harness.processElement(new StreamRecord<>(row));
+        assertEquals(0, harness.getOutput().size());
+        harness.prepareSnapshotPreBarrier(1L);
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testNonColumnarRowProcessesPendingRows() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness = createHarness(null);
+        ColumnarRowData row = new ColumnarRowData(createBatch());
+        row.setRowId(0);
+        harness.processElement(new StreamRecord<>(row));
+        harness.processElement(insertRecord(ROWS[1]));
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        expected.add(insertRecord("y", 2));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testNegatedFloatingPointComparisonWithNaN() throws Exception {
+        // NOT(d < 2.0) holds for NaN, unlike d >= 2.0
+        VectorPredicate lessThan = VectorPredicates.compare(D, TYPES[D], Comparison.LESS_THAN, 2.0);
+        VectorizedColumnBatch batch = createBatch();
+        ((HeapDoubleVector) batch.columns[D]).setDouble(0, Double.NaN);
+
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(VectorPredicates.not(lessThan));
+        processBatch(harness, batch);
+        harness.endInput();
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        expected.add(insertRecord("x", 3));
+        expected.add(insertRecord("x", 5));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+
+        // NOT(d < d) holds for all non-null values including NaN, unlike d >= d
+        harness =
+                createHarness(
+                        VectorPredicates.not(
+                                VectorPredicates.compare(
+                                        D, TYPES[D], Comparison.LESS_THAN, D, TYPES[D])));
+        processBatch(harness, batch);
+        harness.endInput();
+        expected.clear();
+        expected.add(insertRecord("x", 1));
+        expected.add(insertRecord("x", 3));
+        expected.add(insertRecord("z", 2));
+        expected.add(insertRecord("x", 5));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+
+        RowData nan = GenericRowData.of(1, 5L, StringData.fromString("x"), Double.NaN);
+        assertTrue(VectorPredicates.not(lessThan).test(nan));
+        assertFalse(lessThan.test(nan));
+        assertFalse(VectorPredicates.not(VectorPredicates.not(lessThan)).test(nan));
+        assertFalse(
+                VectorPredicates.compare(D, TYPES[D], Comparison.GREATER_THAN_OR_EQUAL, 2.0)
+                        .test(nan));
+    }
+
+    @Test
+    public void testEndInputProcessesPendingRows() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness = createHarness(null);
+        ColumnarRowData row = new ColumnarRowData(createBatch());
+        row.setRowId(0);
+        harness.processElement(new StreamRecord<>(row));
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 1));
+        assertor.assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    private static OneInputStreamOperatorTestHarness<RowData, RowData> createHarness(
+            VectorPredicate condition) throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                new OneInputStreamOperatorTestHarness<>(
+                        new VectorizedCalcOperator(TYPES, condition, PROJECTION));
+        harness.setup(new RowDataSerializer(VarCharType.STRING_TYPE, new IntType()));
+        harness.open();
+        return harness;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.columnar.vector.heap.HeapBytesVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapLongVector;
+import org.apache.flink.table.runtime.operators.vectorized.VectorPredicates.Comparison;
+import org.apache.flink.table.runtime.operators.vectorized.VectorizedAggregate.Kind;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.runtime.util.RowDataHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.A;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.B;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.C;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.D;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.TYPES;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.createBatch;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.processBatch;
+import static org.apache.flink.table.runtime.operators.vectorized.VectorizedTestData.processRows;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link VectorizedHashAggOperator}. */
+public class VectorizedHashAggOperatorTest {
+
+    /** {@code COUNT(*), COUNT(b), SUM(b), $SUM0(b), MIN(d), MAX(d)}. */
+    private static final VectorizedAggregate[] AGGREGATES = {
+        VectorizedAggregate.countStar(),
+        VectorizedAggregate.count(B, TYPES[B]),
+        VectorizedAggregate.of(Kind.SUM, B, TYPES[B], TYPES[B]),
+        VectorizedAggregate.of(Kind.SUM0, B, TYPES[B], TYPES[B]),
+        VectorizedAggregate.of(Kind.MIN, D, TYPES[D], TYPES[D]),
+        VectorizedAggregate.of(Kind.MAX, D, TYPES[D], TYPES[D])
+    };
+
+    private static final long MEMORY_SIZE = 2 * 1024 * 1024;
+
+    private static final LogicalType[] OUTPUT_TYPES = {
+        new IntType(),
+        new BigIntType(),
+        new BigIntType(),
+        new BigIntType(),
+        new BigIntType(),
+        new DoubleType(),
+        new DoubleType()
+    };
+
+    @Test
+    public void testIntegralGroupingKey() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES, new int[] {A}, AGGREGATES, null, Integer.MAX_VALUE),
+                        OUTPUT_TYPES);
+        processBatch(harness, createBatch());
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord(1, 1L, 1L, 5L, 5L, 1.5, 1.5));
+        expected.add(insertRecord(2, 2L, 1L, 7L, 7L, -1.0, -1.0));
+        expected.add(insertRecord(3, 1L, 1L, 20L, 20L, 2.5, 2.5));
+        expected.add(insertRecord(5, 1L, 0L, null, 0L, 4.0, 4.0));
+        new RowDataHarnessAssertor(OUTPUT_TYPES)
+                .assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testRowModeMatchesBatchMode() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> batchHarness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES, new int[] {A}, AGGREGATES, null, Integer.MAX_VALUE),
+                        OUTPUT_TYPES);
+        processBatch(batchHarness, createBatch());
+        batchHarness.endInput();
+
+        OneInputStreamOperatorTestHarness<RowData, RowData> rowHarness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES, new int[] {A}, AGGREGATES, null, Integer.MAX_VALUE),
+                        OUTPUT_TYPES);
+        processRows(rowHarness);
+        rowHarness.endInput();
+
+        new RowDataHarnessAssertor(OUTPUT_TYPES)
+                .assertOutputEquals(
+                        "output wrong.",
+                        new ArrayList<>(rowHarness.getOutput()),
+                        batchHarness.getOutput());
+        batchHarness.close();
+        rowHarness.close();
+    }
+
+    @Test
+    public void testGenericGroupingKeyWithFilter() throws Exception {
+        // SELECT c, COUNT(*), SUM(a) FROM T WHERE d > 0 GROUP BY c
+        LogicalType[] outputTypes = {VarCharType.STRING_TYPE, new BigIntType(), new IntType()};
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new TestVectorizedHashAggOperator(
+                                TYPES,
+                                new int[] {C},
+                                new VectorizedAggregate[] {
+                                    VectorizedAggregate.countStar(),
+                                    VectorizedAggregate.of(Kind.SUM, A, TYPES[A], TYPES[A])
+                                },
+                                VectorPredicates.compare(D, TYPES[D], Comparison.GREATER_THAN, 0.0),
+                                Integer.MAX_VALUE,
+                                MEMORY_SIZE),
+                        outputTypes);
+        processBatch(harness, createBatch());
+        processBatch(harness, createBatch());
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord("x", 6L, 18));
+        new RowDataHarnessAssertor(outputTypes)
+                .assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testLocalAggregationEmitsPartialResults() throws Exception {
+        LogicalType[] outputTypes = {new IntType(), new BigIntType()};
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES,
+                                new int[] {A},
+                                new VectorizedAggregate[] {VectorizedAggregate.countStar()},
+                                null,
+                                2),
+                        outputTypes);
+        processRows(harness);
+        harness.endInput();
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord(1, 1L));
+        expected.add(insertRecord(2, 1L));
+        expected.add(insertRecord(3, 1L));
+        expected.add(insertRecord(2, 1L));
+        expected.add(insertRecord(5, 1L));
+        new RowDataHarnessAssertor(outputTypes)
+                .assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+    }
+
+    @Test
+    public void testWithoutGrouping() throws Exception {
+        LogicalType[] outputTypes = {new BigIntType(), new BigIntType()};
+        VectorizedAggregate[] aggregates = {
+            VectorizedAggregate.countStar(), VectorizedAggregate.of(Kind.SUM, B, TYPES[B], TYPES[B])
+        };
+
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES, new int[0], aggregates, null, Integer.MAX_VALUE),
+                        outputTypes);
+        processBatch(harness, createBatch());
+        harness.endInput();
+        List<Object> expected = new ArrayList<>();
+        expected.add(insertRecord(5L, 32L));
+        new RowDataHarnessAssertor(outputTypes)
+                .assertOutputEquals("output wrong.", expected, harness.getOutput());
+        harness.close();
+
+        // a local aggregation emits nothing for an empty input
+        harness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                TYPES, new int[0], aggregates, null, Integer.MAX_VALUE),
+                        outputTypes);
+        harness.endInput();
+        assertEquals(0, harness.getOutput().size());
+        harness.close();
+    }
+
+    @Test
+    public void testManyGroupsWithNullKey() throws Exception {
+        int numRows = 5000;
+        int numKeys = 3000;
+        HeapLongVector keys = new HeapLongVector(numRows);
+        for (int i = 0; i < numRows; i++) {
+            if (i % 1000 == 999) {
+                keys.setNullAt(i);
+            } else {
+                keys.setLong(i, (i % numKeys) * 31L);
+            }
+        }
+        VectorizedColumnBatch batch = new VectorizedColumnBatch(new ColumnVector[] {keys});
+        batch.setNumRows(numRows);
+
+        LogicalType[] outputTypes = {new BigIntType(), new BigIntType()};
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new VectorizedHashAggOperator(
+                                new LogicalType[] {new BigIntType()},
+                                new int[] {0},
+                                new VectorizedAggregate[] {VectorizedAggregate.countStar()},
+                                null,
+                                Integer.MAX_VALUE),
+                        outputTypes);
+        processBatch(harness, batch);
+        harness.endInput();
+
+        List<RowData> output = harness.extractOutputValues();
+        long totalCount = 0;
+        int nullKeyCount = 0;
+        for (RowData row : output) {
+            totalCount += row.getLong(1);
+            if (row.isNullAt(0)) {
+                nullKeyCount++;
+                assertEquals(5L, row.getLong(1));
+            } else {
+                long key = row.getLong(0) / 31;
+                assertEquals(key < numRows - numKeys ? 2L : 1L, row.getLong(1));
+            }
+        }
+        assertEquals(1, nullKeyCount);
+        assertEquals(numRows, totalCount);
+        // all occurrences of the keys 999, 1999 and 2999 are null
+        assertEquals(numKeys - 3 + 1, output.size());
+        harness.close();
+    }
+
+    @Test
+    public void testGenericGroupingKeyEmitsPartialResultsOnMemoryPressure() throws Exception {
+        int numRows = 4000;
+        int numKeys = 1000;
+        char[] padding = new char[2000];
+        Arrays.fill(padding, 'k');
+        HeapBytesVector keys = new HeapBytesVector(numRows);
+        for (int i = 0; i < numRows; i++) {
+            byte[] key = (new String(padding) + (i % numKeys)).getBytes(StandardCharsets.UTF_8);
+            keys.appendBytes(i, key, 0, key.length);
+        }
+        VectorizedColumnBatch batch = new VectorizedColumnBatch(new ColumnVector[] {keys});
+        batch.setNumRows(numRows);
+
+        LogicalType[] outputTypes = {VarCharType.STRING_TYPE, new BigIntType()};
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                createHarness(
+                        new TestVectorizedHashAggOperator(
+                                new LogicalType[] {VarCharType.STRING_TYPE},
+                                new int[] {0},
+                                new VectorizedAggregate[] {VectorizedAggregate.countStar()},
+                                null,
+                                Integer.MAX_VALUE,
+                                MEMORY_SIZE),
+                        outputTypes);
+        processBatch(harness, batch);
+        harness.endInput();
+
+        // the partial results were emitted several times
+        List<RowData> output = harness.extractOutputValues();
+        assertTrue(output.size() > numKeys);
+        Map<String, Long> counts = new HashMap<>();
+        for (RowData row : output) {
+            counts.merge(row.getString(0).toString(), row.getLong(1), Long::sum);
+        }
+        assertEquals(numKeys, counts.size());
+        for (long count : counts.values()) {
+            assertEquals(numRows / numKeys, count);
+        }
+        harness.close();
+    }
+
+    private static OneInputStreamOperatorTestHarness<RowData, RowData> createHarness(
+            VectorizedHashAggOperator operator, LogicalType[] outputTypes) throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, RowData> harness =
+                new OneInputStreamOperatorTestHarness<>(operator);
+        harness.setup(new RowDataSerializer(outputTypes));
+        harness.open();
+        return harness;
+    }
+
+    /** Uses a fixed amount of managed memory. */
+    private static class TestVectorizedHashAggOperator extends VectorizedHashAggOperator {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long memorySize;
+
+        TestVectorizedHashAggOperator(
+                LogicalType[] inputTypes,
+                int[] grouping,
+                VectorizedAggregate[] aggregates,
+                VectorPredicate filter,
+                int maxNumGroups,
+                long memorySize) {
+            super(inputTypes, grouping, aggregates, filter, maxNumGroups);
+            this.memorySize = memorySize;
+        }
+
+        @Override
+        public long computeMemorySize() {
+            return memorySize;
+        }
+    }
+}
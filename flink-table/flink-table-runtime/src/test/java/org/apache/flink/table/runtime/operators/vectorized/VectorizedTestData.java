@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.vectorized;
+
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
+import org.apache.flink.table.data.columnar.vector.heap.HeapBytesVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapDoubleVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapIntVector;
+import org.apache.flink.table.data.columnar.vector.heap.HeapLongVector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.insertRecord;
+
+/** Test data for the vectorized operators. */
+class VectorizedTestData {
+
+    /** Types of the fields {@code a INT, b BIGINT, c STRING, d DOUBLE}. */
+    static final LogicalType[] TYPES = {
+        new IntType(), new BigIntType(), VarCharType.STRING_TYPE, new DoubleType()
+    };
+
+    static final int A = 0;
+    static final int B = 1;
+    static final int C = 2;
+    static final int D = 3;
+
+    static final Object[][] ROWS = {
+        {1, 5L, "x", 1.5},
+        {2, null, "y", null},
+        {3, 20L, "x", 2.5},
+        {2, 7L, "z", -1.0},
+        {5, null, "x", 4.0}
+    };
+
+    /** Creates a batch of {@link #ROWS}. */
+    static VectorizedColumnBatch createBatch() {
+        HeapIntVector a = new HeapIntVector(ROWS.length);
+        HeapLongVector b = new HeapLongVector(ROWS.length);
+        HeapBytesVector c = new HeapBytesVector(ROWS.length);
+        HeapDoubleVector d = new HeapDoubleVector(ROWS.length);
+        for (int i = 0; i < ROWS.length; i++) {
+            a.setInt(i, (Integer) ROWS[i][A]);
+            if (ROWS[i][B] == null) {
+                b.setNullAt(i);
+            } else {
+                b.setLong(i, (Long) ROWS[i][B]);
+            }
+            byte[] bytes = ((String) ROWS[i][C]).getBytes(StandardCharsets.UTF_8);
+            c.appendBytes(i, bytes, 0, bytes.length);
+            if (ROWS[i][D] == null) {
+                d.setNullAt(i);
+            } else {
+                d.setDouble(i, (Double) ROWS[i][D]);
+            }
+        }
+        VectorizedColumnBatch batch = new VectorizedColumnBatch(new ColumnVector[] {a, b, c, d});
+        batch.setNumRows(ROWS.length);
+        return batch;
+    }
+
+    /** Emits the rows of the batch like a columnar source, i.e. as one reused row view. */
+    static void processBatch(
+            OneInputStreamOperatorTestHarness<RowData, RowData> harness,
+            VectorizedColumnBatch batch)
+            throws Exception {
+        ColumnarRowData row = new ColumnarRowData(batch);
+        for (int i = 0; i < batch.getNumRows(); i++) {
+            row.setRowId(i);
+            harness.processElement(new StreamRecord<>(row));
+        }
+    }
+
+    /** Emits {@link #ROWS} as rows which are not columnar. */
+    static void processRows(OneInputStreamOperatorTestHarness<RowData, RowData> harness)
+            throws Exception {
+        for (Object[] row : ROWS) {
+            harness.processElement(insertRecord(row));
+        }
+    }
+
+    private VectorizedTestData() {}
+}